@@ -77,6 +77,7 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final long inactiveReaderTTL;
     private final long inactiveWriterTTL;
     private final int indexValueBlockSize;
+    private final long matViewRefreshInterval;
     private final int maxSwapFileCount;
     private final int mkdirMode;
     private final int parallelIndexThreshold;
@@ -86,6 +87,7 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final int sqlCacheBlocks;
     private final int sqlCharacterStoreCapacity;
     private final int sqlCharacterStoreSequencePoolCapacity;
+    private final int sqlCircuitBreakerThrottle;
     private final int sqlColumnPoolCapacity;
     private final int sqlCopyModelPoolCapacity;
     private final double sqlCompactMapLoadFactor;
@@ -95,12 +97,22 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final int sqlLexerPoolCapacity;
     private final int sqlMapKeyCapacity;
     private final int sqlMapPageSize;
+    private final long sqlMemoryLimit;
     private final int sqlModelPoolCapacity;
+    private final long sqlQueryMemoryQuota;
+    private final long sqlQueryTimeout;
+    private final int sqlSampleByParallelTaskCount;
+    private final int sqlSampleByParallelThreshold;
     private final int sqlSortKeyPageSize;
     private final int sqlSortLightValuePageSize;
     private final int sqlHashJoinValuePageSize;
+    private final int sqlLatestByParallelTaskCount;
+    private final int sqlLatestByParallelThreshold;
     private final long sqlLatestByRowCount;
     private final int sqlHashJoinLightValuePageSize;
+    private final long sqlHashJoinMemoryBudget;
+    private final int sqlHashJoinSpillPartitionCount;
+    private final int sqlFilterBatchSize;
     private final int sqlSortValuePageSize;
     private final long workStealTimeoutNanos;
     private final boolean parallelIndexingEnabled;
@@ -170,6 +182,7 @@ public class PropServerConfiguration implements ServerConfiguration {
     private boolean lineUdpOwnThread;
     private int jsonQueryFloatScale;
     private int jsonQueryDoubleScale;
+    private int jsonQueryMaxBindVariableIndex;
     private int sqlCopyBufferSize;
     private int jsonQueryConnectionCheckFrequency;
     private boolean httpFrozenClock;
@@ -251,6 +264,8 @@ public class PropServerConfiguration implements ServerConfiguration {
             this.jsonQueryConnectionCheckFrequency = getInt(properties, "http.json.query.connection.check.frequency", 1_000_000);
             this.jsonQueryDoubleScale = getInt(properties, "http.json.query.double.scale", 10);
             this.jsonQueryFloatScale = getInt(properties, "http.json.query.float.scale", 10);
+            // same as PG wire, which takes parameter count as 16-bit value
+            this.jsonQueryMaxBindVariableIndex = getInt(properties, "http.json.query.max.bind.variable.index", Short.MAX_VALUE);
 
             parseBindTo(properties, "http.bind.to", "0.0.0.0:9000", (a, p) -> {
                 bindIPv4Address = a;
@@ -273,6 +288,7 @@ public class PropServerConfiguration implements ServerConfiguration {
         this.inactiveReaderTTL = getLong(properties, "cairo.inactive.reader.ttl", -10000);
         this.inactiveWriterTTL = getLong(properties, "cairo.inactive.writer.ttl", -10000);
         this.indexValueBlockSize = Numbers.ceilPow2(getIntSize(properties, "cairo.index.value.block.size", 256));
+        this.matViewRefreshInterval = getLong(properties, "cairo.mat.view.refresh.interval", 1000);
         this.maxSwapFileCount = getInt(properties, "cairo.max.swap.file.count", 30);
         this.mkdirMode = getInt(properties, "cairo.mkdir.mode", 509);
         this.parallelIndexThreshold = getInt(properties, "cairo.parallel.index.threshold", 100000);
@@ -282,6 +298,7 @@ public class PropServerConfiguration implements ServerConfiguration {
         this.sqlCacheBlocks = getIntSize(properties, "cairo.cache.blocks", 4);
         this.sqlCharacterStoreCapacity = getInt(properties, "cairo.character.store.capacity", 1024);
         this.sqlCharacterStoreSequencePoolCapacity = getInt(properties, "cairo.character.store.sequence.pool.capacity", 64);
+        this.sqlCircuitBreakerThrottle = getInt(properties, "cairo.sql.circuit.breaker.throttle", 1_000_000);
         this.sqlColumnPoolCapacity = getInt(properties, "cairo.column.pool.capacity", 4096);
         this.sqlCompactMapLoadFactor = getDouble(properties, "cairo.compact.map.load.factor", 0.7);
         this.sqlExpressionPoolCapacity = getInt(properties, "cairo.expression.pool.capacity", 8192);
@@ -290,12 +307,22 @@ public class PropServerConfiguration implements ServerConfiguration {
         this.sqlLexerPoolCapacity = getInt(properties, "cairo.lexer.pool.capacity", 2048);
         this.sqlMapKeyCapacity = getInt(properties, "cairo.sql.map.key.capacity", 2048 * 1024);
         this.sqlMapPageSize = getIntSize(properties, "cairo.sql.map.page.size", 4 * 1024 * 1024);
+        this.sqlMemoryLimit = getLong(properties, "cairo.sql.memory.limit", 0);
         this.sqlModelPoolCapacity = getInt(properties, "cairo.model.pool.capacity", 1024);
+        this.sqlQueryMemoryQuota = getLong(properties, "cairo.sql.query.memory.quota", 0);
+        this.sqlQueryTimeout = getLong(properties, "cairo.sql.query.timeout", 0);
+        this.sqlSampleByParallelTaskCount = getInt(properties, "cairo.sql.sample.by.parallel.task.count", 4);
+        this.sqlSampleByParallelThreshold = getInt(properties, "cairo.sql.sample.by.parallel.threshold", 100000);
         this.sqlSortKeyPageSize = getIntSize(properties, "cairo.sql.sort.key.page.size", 4 * 1024 * 1024);
         this.sqlSortLightValuePageSize = getIntSize(properties, "cairo.sql.sort.light.value.page.size", 1048576);
         this.sqlHashJoinValuePageSize = getIntSize(properties, "cairo.sql.hash.join.value.page.size", 16777216);
+        this.sqlLatestByParallelTaskCount = getInt(properties, "cairo.sql.latest.by.parallel.task.count", 4);
+        this.sqlLatestByParallelThreshold = getInt(properties, "cairo.sql.latest.by.parallel.threshold", 100000);
         this.sqlLatestByRowCount = getInt(properties, "cairo.sql.latest.by.row.count", 1000);
         this.sqlHashJoinLightValuePageSize = getIntSize(properties, "cairo.sql.hash.join.light.value.page.size", 1048576);
+        this.sqlHashJoinMemoryBudget = getLongSize(properties, "cairo.sql.hash.join.memory.budget", Long.MAX_VALUE);
+        this.sqlHashJoinSpillPartitionCount = getInt(properties, "cairo.sql.hash.join.spill.partition.count", 16);
+        this.sqlFilterBatchSize = getInt(properties, "cairo.sql.filter.batch.size", 1024);
         this.sqlSortValuePageSize = getIntSize(properties, "cairo.sql.sort.value.page.size", 16777216);
         this.workStealTimeoutNanos = getLong(properties, "cairo.work.steal.timeout.nanos", 10_000);
         this.parallelIndexingEnabled = getBoolean(properties, "cairo.parallel.indexing.enabled", true);
@@ -480,6 +507,15 @@ public class PropServerConfiguration implements ServerConfiguration {
         }
     }
 
+    private long getLongSize(Properties properties, String key, long defaultValue) throws ServerConfigurationException {
+        final String value = properties.getProperty(key);
+        try {
+            return value != null ? Numbers.parseLongSize(value) : defaultValue;
+        } catch (NumericException e) {
+            throw new ServerConfigurationException(key, value);
+        }
+    }
+
     private String getString(Properties properties, String key, String defaultValue) {
         String value = properties.getProperty(key);
         if (value == null) {
@@ -862,6 +898,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return indexValueBlockSize;
         }
 
+        @Override
+        public long getMatViewRefreshInterval() {
+            return matViewRefreshInterval;
+        }
+
         @Override
         public int getMaxSwapFileCount() {
             return maxSwapFileCount;
@@ -922,6 +963,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return sqlCharacterStoreSequencePoolCapacity;
         }
 
+        @Override
+        public int getSqlCircuitBreakerThrottle() {
+            return sqlCircuitBreakerThrottle;
+        }
+
         @Override
         public int getSqlColumnPoolCapacity() {
             return sqlColumnPoolCapacity;
@@ -962,11 +1008,36 @@ public class PropServerConfiguration implements ServerConfiguration {
             return sqlMapPageSize;
         }
 
+        @Override
+        public long getSqlMemoryLimit() {
+            return sqlMemoryLimit;
+        }
+
         @Override
         public int getSqlModelPoolCapacity() {
             return sqlModelPoolCapacity;
         }
 
+        @Override
+        public long getSqlQueryMemoryQuota() {
+            return sqlQueryMemoryQuota;
+        }
+
+        @Override
+        public long getSqlQueryTimeout() {
+            return sqlQueryTimeout;
+        }
+
+        @Override
+        public int getSqlSampleByParallelTaskCount() {
+            return sqlSampleByParallelTaskCount;
+        }
+
+        @Override
+        public int getSqlSampleByParallelThreshold() {
+            return sqlSampleByParallelThreshold;
+        }
+
         @Override
         public int getSqlSortKeyPageSize() {
             return sqlSortKeyPageSize;
@@ -982,6 +1053,16 @@ public class PropServerConfiguration implements ServerConfiguration {
             return sqlHashJoinValuePageSize;
         }
 
+        @Override
+        public int getSqlLatestByParallelTaskCount() {
+            return sqlLatestByParallelTaskCount;
+        }
+
+        @Override
+        public int getSqlLatestByParallelThreshold() {
+            return sqlLatestByParallelThreshold;
+        }
+
         @Override
         public long getSqlLatestByRowCount() {
             return sqlLatestByRowCount;
@@ -992,6 +1073,21 @@ public class PropServerConfiguration implements ServerConfiguration {
             return sqlHashJoinLightValuePageSize;
         }
 
+        @Override
+        public long getSqlHashJoinMemoryBudget() {
+            return sqlHashJoinMemoryBudget;
+        }
+
+        @Override
+        public int getSqlHashJoinSpillPartitionCount() {
+            return sqlHashJoinSpillPartitionCount;
+        }
+
+        @Override
+        public int getSqlFilterBatchSize() {
+            return sqlFilterBatchSize;
+        }
+
         @Override
         public int getSqlSortValuePageSize() {
             return sqlSortValuePageSize;
@@ -1160,6 +1256,11 @@ public class PropServerConfiguration implements ServerConfiguration {
         public CharSequence getKeepAliveHeader() {
             return keepAliveHeader;
         }
+
+        @Override
+        public int getMaxBindVariableIndex() {
+            return jsonQueryMaxBindVariableIndex;
+        }
     }
 
     private class PropWorkerPoolConfiguration implements WorkerPoolConfiguration {
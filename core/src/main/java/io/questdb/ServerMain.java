@@ -30,8 +30,10 @@ import io.questdb.cutlass.line.udp.AbstractLineProtoReceiver;
 import io.questdb.cutlass.line.udp.LineProtoReceiver;
 import io.questdb.cutlass.line.udp.LinuxMMLineProtoReceiver;
 import io.questdb.cutlass.pgwire.PGWireServer;
+import io.questdb.griffin.MaterializedViewRefreshJob;
 import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
+import io.questdb.mp.Job;
 import io.questdb.mp.WorkerPool;
 import io.questdb.std.CharSequenceObjHashMap;
 import io.questdb.std.Chars;
@@ -39,6 +41,7 @@ import io.questdb.std.Misc;
 import io.questdb.std.Os;
 import sun.misc.Signal;
 
+import java.io.Closeable;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
@@ -156,6 +159,10 @@ public class ServerMain {
             );
         }
 
+        final MaterializedViewRefreshJob matViewRefreshJob = new MaterializedViewRefreshJob(cairoEngine);
+        workerPool.assign(0, (Job) matViewRefreshJob);
+        workerPool.assign(0, (Closeable) matViewRefreshJob);
+
         workerPool.start(log);
         lineProtocolReceiver.start();
 
@@ -25,6 +25,7 @@
 package io.questdb.cairo;
 
 import io.questdb.cairo.sql.DataFrameCursorFactory;
+import io.questdb.griffin.PlanSink;
 
 public abstract class AbstractDataFrameCursorFactory implements DataFrameCursorFactory {
     private final CairoEngine engine;
@@ -37,6 +38,11 @@ public abstract class AbstractDataFrameCursorFactory implements DataFrameCursorF
         this.tableVersion = tableVersion;
     }
 
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.type(this).attr("table").val(tableName);
+    }
+
     protected TableReader getReader(CairoSecurityContext securityContext) {
         return engine.getReader(
                 securityContext,
@@ -73,7 +73,7 @@ public abstract class AbstractFullDataFrameCursor implements DataFrameCursor {
     }
 
     protected class FullTableDataFrame implements DataFrame {
-        final static private long rowLo = 0;
+        protected long rowLo = 0;
         protected long rowHi;
         protected int partitionIndex;
 
@@ -82,11 +82,21 @@ public abstract class AbstractFullDataFrameCursor implements DataFrameCursor {
             return reader.getBitmapIndexReader(reader.getColumnBase(partitionIndex), columnIndex, direction);
         }
 
+        @Override
+        public BloomIndexReader getBloomIndexReader(int columnIndex) {
+            return reader.getBloomIndexReader(reader.getColumnBase(partitionIndex), columnIndex);
+        }
+
         @Override
         public int getPartitionIndex() {
             return partitionIndex;
         }
 
+        @Override
+        public RangeIndexReader getRangeIndexReader(int columnIndex) {
+            return reader.getRangeIndexReader(reader.getColumnBase(partitionIndex), columnIndex);
+        }
+
         @Override
         public long getRowHi() {
             return rowHi;
@@ -128,8 +128,12 @@ public abstract class AbstractIntervalDataFrameCursor implements DataFrameCursor
                     cullPartitions();
                 }
             }
-            toTop();
+        } else {
+            // intervals calculated at runtime can be empty
+            initialIntervalsLo = 0;
+            initialIntervalsHi = 0;
         }
+        toTop();
     }
 
     private void cullIntervals() {
@@ -153,6 +157,9 @@ public abstract class AbstractIntervalDataFrameCursor implements DataFrameCursor
             } else {
                 this.initialIntervalsHi = intervalsHi / 2 + 1;
             }
+        } else {
+            // max timestamp is on the edge of interval
+            this.initialIntervalsHi = intervalsHi / 2 + 1;
         }
     }
 
@@ -174,11 +181,21 @@ public abstract class AbstractIntervalDataFrameCursor implements DataFrameCursor
             return reader.getBitmapIndexReader(reader.getColumnBase(partitionIndex), columnIndex, direction);
         }
 
+        @Override
+        public BloomIndexReader getBloomIndexReader(int columnIndex) {
+            return reader.getBloomIndexReader(reader.getColumnBase(partitionIndex), columnIndex);
+        }
+
         @Override
         public int getPartitionIndex() {
             return partitionIndex;
         }
 
+        @Override
+        public RangeIndexReader getRangeIndexReader(int columnIndex) {
+            return reader.getRangeIndexReader(reader.getColumnBase(partitionIndex), columnIndex);
+        }
+
         @Override
         public long getRowHi() {
             return rowHi;
@@ -0,0 +1,129 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo;
+
+import io.questdb.std.Long256;
+import io.questdb.std.Misc;
+import io.questdb.std.Unsafe;
+import io.questdb.std.str.Path;
+
+import java.io.Closeable;
+
+class BloomColumnIndexer implements ColumnIndexer, Closeable {
+
+    private static final long SEQUENCE_OFFSET;
+
+    static {
+        SEQUENCE_OFFSET = Unsafe.getFieldOffset(BloomColumnIndexer.class, "sequence");
+    }
+
+    private final BloomIndexWriter writer = new BloomIndexWriter();
+    private final SlidingWindowMemory mem = new SlidingWindowMemory();
+    private final SlidingWindowMemory offsetMem = new SlidingWindowMemory();
+    private final int columnType;
+    private long columnTop;
+    @SuppressWarnings({"unused", "FieldCanBeLocal"})
+    private volatile long sequence = 0L;
+    private volatile boolean distressed = false;
+
+    BloomColumnIndexer(int columnType) {
+        assert BloomIndexUtils.isSupported(columnType);
+        this.columnType = columnType;
+    }
+
+    @Override
+    public void close() {
+        Misc.free(writer);
+        Misc.free(mem);
+        Misc.free(offsetMem);
+    }
+
+    @Override
+    public void distress() {
+        distressed = true;
+    }
+
+    @Override
+    public long getFd() {
+        return mem.getFd();
+    }
+
+    @Override
+    public long getSequence() {
+        return sequence;
+    }
+
+    @Override
+    public void index(long loRow, long hiRow) {
+        mem.updateSize();
+        // rows above column top are null and are not indexed,
+        // null strings cannot be equal to a value and are not indexed either
+        if (columnType == ColumnType.STRING) {
+            offsetMem.updateSize();
+            for (long row = Math.max(loRow, columnTop); row < hiRow; row++) {
+                final CharSequence value = mem.getStr(offsetMem.getLong((row - columnTop) * 8));
+                if (value != null) {
+                    writer.add(BloomIndexUtils.hash(value), row);
+                }
+            }
+        } else {
+            for (long row = Math.max(loRow, columnTop); row < hiRow; row++) {
+                final Long256 value = mem.getLong256A((row - columnTop) * Long256.BYTES);
+                writer.add(BloomIndexUtils.hash(value.getLong0(), value.getLong1(), value.getLong2(), value.getLong3()), row);
+            }
+        }
+        writer.commit();
+    }
+
+    @Override
+    public boolean isDistressed() {
+        return distressed;
+    }
+
+    @Override
+    public void of(CairoConfiguration configuration, Path path, CharSequence name, AppendMemory mem1, AppendMemory mem2, long columnTop) {
+        this.columnTop = columnTop;
+        try {
+            this.writer.of(configuration, path, name);
+            this.mem.of(mem1);
+            if (mem2 != null) {
+                this.offsetMem.of(mem2);
+            }
+        } catch (CairoException e) {
+            this.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public void rollback(long maxRow) {
+        this.writer.rollbackValues(maxRow);
+    }
+
+    @Override
+    public boolean tryLock(long expectedSequence) {
+        return Unsafe.cas(this, SEQUENCE_OFFSET, expectedSequence, expectedSequence + 1);
+    }
+}
@@ -0,0 +1,246 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo;
+
+import io.questdb.cairo.sql.RowCursor;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.LongList;
+import io.questdb.std.Misc;
+import io.questdb.std.Unsafe;
+import io.questdb.std.microtime.MicrosecondClock;
+import io.questdb.std.str.Path;
+
+import java.io.Closeable;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Reads bloom index created by {@link BloomIndexWriter}. Reader serves row ids of blocks that may contain
+ * any of the given values, rows of other blocks are skipped. Rows are not checked against values, caller
+ * is expected to apply filter to every row returned.
+ * <p>
+ * Rows that are not covered by any block are skipped too. Such rows are either null or belong to
+ * a column top, neither of them can be equal to a value.
+ */
+public class BloomIndexReader implements Closeable {
+    private static final Log LOG = LogFactory.getLog(BloomIndexReader.class);
+    private final ReadOnlyMemory keyMem = new ReadOnlyMemory();
+    private final ReadOnlyMemory valueMem = new ReadOnlyMemory();
+    private final Cursor cursor = new Cursor();
+    private long spinLockTimeoutUs;
+    private MicrosecondClock clock;
+    private long blockCount;
+    private long valueMemSize;
+
+    public BloomIndexReader() {
+    }
+
+    public BloomIndexReader(CairoConfiguration configuration, Path path, CharSequence name) {
+        of(configuration, path, name);
+    }
+
+    @Override
+    public void close() {
+        if (isOpen()) {
+            Misc.free(keyMem);
+            Misc.free(valueMem);
+        }
+    }
+
+    public long getBlockCount() {
+        return blockCount;
+    }
+
+    /**
+     * Setup row id cursor over blocks that may contain at least one of the values. Row ids are
+     * bounded by minRow and maxRow, both inclusive, and are returned in ascending order. Cursor is
+     * a singleton instance, it is invalidated by next call to this method.
+     *
+     * @param hashes hashes of values, see {@link BloomIndexUtils#hash(CharSequence)}
+     * @param minRow inclusive minimum row id
+     * @param maxRow inclusive maximum row id
+     * @return row id cursor
+     */
+    public RowCursor getCursor(LongList hashes, long minRow, long maxRow) {
+        if (!isOpen() || minRow > maxRow || hashes.size() == 0) {
+            return EmptyRowCursor.INSTANCE;
+        }
+
+        updateBlockCount();
+        cursor.of(hashes, minRow, maxRow);
+        return cursor;
+    }
+
+    public boolean isOpen() {
+        return keyMem.getFd() != -1;
+    }
+
+    /**
+     * Checks if block may contain given value.
+     *
+     * @param block block number
+     * @param hash  value hash
+     * @return false when block definitely does not contain value
+     */
+    public boolean mightContain(long block, long hash) {
+        final long entryOffset = BloomIndexUtils.getBlockEntryOffset(block);
+        final long blockOffset = keyMem.getLong(entryOffset + BloomIndexUtils.BLOCK_ENTRY_OFFSET_VALUE_OFFSET);
+        final long bitCount = keyMem.getLong(entryOffset + BloomIndexUtils.BLOCK_ENTRY_OFFSET_WORD_COUNT) * 64;
+        for (int k = 0; k < BloomIndexUtils.HASH_COUNT; k++) {
+            final long bit = BloomIndexUtils.getBitIndex(hash, k, bitCount);
+            if ((valueMem.getLong(blockOffset + (bit >>> 6) * 8) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public final void of(CairoConfiguration configuration, Path path, CharSequence name) {
+        close();
+        final int plen = path.length();
+        final long pageSize = configuration.getFilesFacade().getMapPageSize();
+        this.spinLockTimeoutUs = configuration.getSpinLockTimeoutUs();
+        this.clock = configuration.getMicrosecondClock();
+
+        try {
+            this.keyMem.of(configuration.getFilesFacade(), BloomIndexUtils.keyFileName(path, name), pageSize, 0);
+            this.keyMem.grow(configuration.getFilesFacade().length(this.keyMem.getFd()));
+
+            if (this.keyMem.size() < BloomIndexUtils.KEY_FILE_RESERVED) {
+                LOG.error().$("file too short [corrupt] ").$(path).$();
+                throw CairoException.instance(0).put("Index file too short: ").put(path);
+            }
+
+            if (this.keyMem.getByte(BloomIndexUtils.KEY_RESERVED_OFFSET_SIGNATURE) != BloomIndexUtils.SIGNATURE) {
+                LOG.error().$("unknown format [corrupt] ").$(path).$();
+                throw CairoException.instance(0).put("Unknown format: ").put(path);
+            }
+
+            this.valueMem.of(configuration.getFilesFacade(), BloomIndexUtils.valueFileName(path.trimTo(plen), name), pageSize, 0);
+            this.blockCount = 0;
+            this.valueMemSize = 0;
+            updateBlockCount();
+        } catch (CairoException e) {
+            close();
+            throw e;
+        } finally {
+            path.trimTo(plen);
+        }
+    }
+
+    private void updateBlockCount() {
+        long blockCount;
+        long valueMemSize;
+        final long deadline = clock.getTicks() + spinLockTimeoutUs;
+        while (true) {
+            long seq = keyMem.getLong(BloomIndexUtils.KEY_RESERVED_OFFSET_SEQUENCE);
+
+            Unsafe.getUnsafe().loadFence();
+            if (keyMem.getLong(BloomIndexUtils.KEY_RESERVED_OFFSET_SEQUENCE_CHECK) == seq) {
+
+                blockCount = keyMem.getLong(BloomIndexUtils.KEY_RESERVED_OFFSET_BLOCK_COUNT);
+                valueMemSize = keyMem.getLong(BloomIndexUtils.KEY_RESERVED_OFFSET_VALUE_MEM_SIZE);
+
+                Unsafe.getUnsafe().loadFence();
+                if (seq == keyMem.getLong(BloomIndexUtils.KEY_RESERVED_OFFSET_SEQUENCE)) {
+                    break;
+                }
+            }
+
+            if (clock.getTicks() > deadline) {
+                LOG.error().$("failed to read index header consistently [corrupt?] [timeout=").$(spinLockTimeoutUs).utf8("μs]").$();
+                throw CairoException.instance(0).put("failed to read index header consistently [corrupt?]");
+            }
+
+            LockSupport.parkNanos(1);
+        }
+
+        if (blockCount != this.blockCount || valueMemSize != this.valueMemSize) {
+            keyMem.grow(BloomIndexUtils.getBlockEntryOffset(blockCount));
+            valueMem.grow(valueMemSize);
+            this.blockCount = blockCount;
+            this.valueMemSize = valueMemSize;
+        }
+    }
+
+    private class Cursor implements RowCursor {
+        private LongList hashes;
+        private long minRow;
+        private long maxRow;
+        private long block;
+        private long next;
+        private long hi;
+
+        @Override
+        public boolean hasNext() {
+            return next <= hi || nextBlock();
+        }
+
+        @Override
+        public long next() {
+            return next++;
+        }
+
+        private boolean mightContainAny(long block) {
+            for (int i = 0, n = hashes.size(); i < n; i++) {
+                if (mightContain(block, hashes.getQuick(i))) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private boolean nextBlock() {
+            while (block < blockCount) {
+                final long entryOffset = BloomIndexUtils.getBlockEntryOffset(block);
+                final long blockMinRow = keyMem.getLong(entryOffset + BloomIndexUtils.BLOCK_ENTRY_OFFSET_MIN_ROW);
+                if (blockMinRow > maxRow) {
+                    // blocks are ordered by row id, none of the remaining blocks can match
+                    block = blockCount;
+                    return false;
+                }
+
+                final long blockMaxRow = keyMem.getLong(entryOffset + BloomIndexUtils.BLOCK_ENTRY_OFFSET_MAX_ROW);
+                if (blockMaxRow >= minRow && mightContainAny(block)) {
+                    next = Math.max(minRow, blockMinRow);
+                    hi = Math.min(maxRow, blockMaxRow);
+                    block++;
+                    return true;
+                }
+                block++;
+            }
+            return false;
+        }
+
+        private void of(LongList hashes, long minRow, long maxRow) {
+            this.hashes = hashes;
+            this.minRow = minRow;
+            this.maxRow = maxRow;
+            this.block = 0;
+            this.next = 0;
+            this.hi = -1;
+        }
+    }
+}
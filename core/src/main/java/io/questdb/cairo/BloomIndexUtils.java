@@ -0,0 +1,133 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo;
+
+import io.questdb.std.Hash;
+import io.questdb.std.Numbers;
+import io.questdb.std.NumericException;
+import io.questdb.std.str.Path;
+
+/**
+ * Layout of bloom index files. Bloom index tells which blocks of rows cannot contain given
+ * STRING or LONG256 value. Key file starts with a header followed by directory of blocks, one
+ * block per indexed batch of rows. Value file contains bit set of each block. Bit sets are sized
+ * to number of values in block, which keeps false positive rate at about one percent.
+ * <p>
+ * Blocks are written in the order rows are appended to the partition, which means that
+ * row ids of a block are all greater than row ids of any block before it.
+ */
+public final class BloomIndexUtils {
+    static final int BLOCK_ENTRY_SIZE = 32;
+    static final int BLOCK_ENTRY_OFFSET_VALUE_OFFSET = 0;
+    static final int BLOCK_ENTRY_OFFSET_WORD_COUNT = 8;
+    static final int BLOCK_ENTRY_OFFSET_MIN_ROW = 16;
+    static final int BLOCK_ENTRY_OFFSET_MAX_ROW = 24;
+
+    /**
+     * key file header offsets
+     */
+    static final int KEY_FILE_RESERVED = 64;
+    static final int KEY_RESERVED_OFFSET_SIGNATURE = 0;
+    static final int KEY_RESERVED_OFFSET_SEQUENCE = 8;
+    static final int KEY_RESERVED_OFFSET_VALUE_MEM_SIZE = 16;
+    static final int KEY_RESERVED_OFFSET_BLOCK_COUNT = 24;
+    static final int KEY_RESERVED_OFFSET_SEQUENCE_CHECK = 32;
+
+    static final byte SIGNATURE = (byte) 0xfc;
+    static final int BITS_PER_VALUE = 10;
+    static final int HASH_COUNT = 7;
+
+    public static long hash(CharSequence value) {
+        return Hash.hash64(value);
+    }
+
+    public static long hash(long l0, long l1, long l2, long l3) {
+        return Hash.fmix64(l3 ^ Hash.fmix64(l2 ^ Hash.fmix64(l1 ^ Hash.fmix64(l0))));
+    }
+
+    /**
+     * Hashes LONG256 value given as hex string, such as '0x01ff'.
+     *
+     * @param hex hex string, optionally prefixed with "0x"
+     * @return hash of value
+     * @throws NumericException when string is not a valid LONG256 value
+     */
+    public static long hashLong256(CharSequence hex) throws NumericException {
+        int len = hex.length();
+        final int lo = len > 1 && hex.charAt(0) == '0' && (hex.charAt(1) == 'x' || hex.charAt(1) == 'X') ? 2 : 0;
+        if (len - lo > 64 || len == lo) {
+            throw NumericException.INSTANCE;
+        }
+        // least significant long is at the end of the string
+        long l0 = 0;
+        long l1 = 0;
+        long l2 = 0;
+        long l3 = 0;
+        for (int i = 0; len > lo; i++) {
+            final int n = Math.max(lo, len - 16);
+            final long l = Numbers.parseHexLong(hex, n, len);
+            switch (i) {
+                case 0:
+                    l0 = l;
+                    break;
+                case 1:
+                    l1 = l;
+                    break;
+                case 2:
+                    l2 = l;
+                    break;
+                default:
+                    l3 = l;
+                    break;
+            }
+            len = n;
+        }
+        return hash(l0, l1, l2, l3);
+    }
+
+    public static boolean isSupported(int columnType) {
+        return columnType == ColumnType.STRING || columnType == ColumnType.LONG256;
+    }
+
+    public static Path keyFileName(Path path, CharSequence name) {
+        return path.concat(name).put(".bk").$();
+    }
+
+    public static Path valueFileName(Path path, CharSequence name) {
+        return path.concat(name).put(".bv").$();
+    }
+
+    static long getBitIndex(long hash, int i, long bitCount) {
+        return ((hash & 0xffffffffL) + i * (hash >>> 32)) & (bitCount - 1);
+    }
+
+    static long getBlockEntryOffset(long block) {
+        return block * BLOCK_ENTRY_SIZE + KEY_FILE_RESERVED;
+    }
+
+    static long getWordCount(long valueCount) {
+        return Numbers.ceilPow2((valueCount * BITS_PER_VALUE + 63) / 64);
+    }
+}
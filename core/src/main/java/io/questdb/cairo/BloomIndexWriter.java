@@ -0,0 +1,249 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo;
+
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.DirectLongList;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Misc;
+import io.questdb.std.Unsafe;
+import io.questdb.std.str.Path;
+
+import java.io.Closeable;
+
+/**
+ * Writes bloom index of STRING and LONG256 columns. Value hashes are accumulated via {@link #add(long, long)}
+ * and become bit set of a new block when {@link #commit()} is called. Blocks are immutable once written,
+ * readers discover them through block count in key file header, which is updated atomically after block
+ * content and its directory entry are in place.
+ */
+public class BloomIndexWriter implements Closeable {
+    private static final Log LOG = LogFactory.getLog(BloomIndexWriter.class);
+    private final ReadWriteMemory keyMem = new ReadWriteMemory();
+    private final ReadWriteMemory valueMem = new ReadWriteMemory();
+    private DirectLongList hashes;
+    private long minRow = Long.MAX_VALUE;
+    private long maxRow = Long.MIN_VALUE;
+    private long blockCount = -1;
+    private long valueMemSize = -1;
+
+    public static void initKeyMemory(VirtualMemory keyMem) {
+        keyMem.putByte(BloomIndexUtils.SIGNATURE);
+        keyMem.skip(BloomIndexUtils.KEY_RESERVED_OFFSET_SEQUENCE - keyMem.getAppendOffset());
+        keyMem.putLong(1); // SEQUENCE
+        Unsafe.getUnsafe().storeFence();
+        keyMem.putLong(0); // VALUE MEM SIZE
+        keyMem.putLong(0); // BLOCK COUNT
+        Unsafe.getUnsafe().storeFence();
+        keyMem.putLong(1); // SEQUENCE CHECK
+        keyMem.skip(BloomIndexUtils.KEY_FILE_RESERVED - keyMem.getAppendOffset());
+    }
+
+    /**
+     * Adds value hash to current block. Value will not be visible to readers until block is committed.
+     *
+     * @param hash value hash, see {@link BloomIndexUtils#hash(CharSequence)}
+     * @param row  partition-level row id
+     */
+    public void add(long hash, long row) {
+        if (hashes == null) {
+            hashes = new DirectLongList(1024, MemoryTag.NATIVE_INDEX);
+        }
+        hashes.add(hash);
+        minRow = Math.min(minRow, row);
+        maxRow = Math.max(maxRow, row);
+    }
+
+    @Override
+    public void close() {
+        if (keyMem.isOpen() && blockCount > -1) {
+            keyMem.jumpTo(BloomIndexUtils.getBlockEntryOffset(blockCount));
+        }
+        Misc.free(keyMem);
+
+        if (valueMem.isOpen() && valueMemSize > -1) {
+            valueMem.jumpTo(valueMemSize);
+        }
+        Misc.free(valueMem);
+        hashes = Misc.free(hashes);
+        resetBlock();
+        blockCount = -1;
+        valueMemSize = -1;
+    }
+
+    /**
+     * Writes bit set of hashes added since last commit as new block.
+     */
+    public void commit() {
+        if (hashes == null || hashes.size() == 0) {
+            return;
+        }
+
+        final long count = hashes.size();
+        final long wordCount = BloomIndexUtils.getWordCount(count);
+        final long bitCount = wordCount * 64;
+        final long blockOffset = valueMemSize;
+
+        valueMem.jumpTo(blockOffset);
+        for (long i = 0; i < wordCount; i++) {
+            valueMem.putLong(0);
+        }
+
+        for (long i = 0; i < count; i++) {
+            final long hash = hashes.get(i);
+            for (int k = 0; k < BloomIndexUtils.HASH_COUNT; k++) {
+                final long bit = BloomIndexUtils.getBitIndex(hash, k, bitCount);
+                final long offset = blockOffset + (bit >>> 6) * 8;
+                valueMem.putLong(offset, valueMem.getLong(offset) | (1L << bit));
+            }
+        }
+
+        final long entryOffset = BloomIndexUtils.getBlockEntryOffset(blockCount);
+        keyMem.jumpTo(entryOffset + BloomIndexUtils.BLOCK_ENTRY_SIZE);
+        writeBlockEntry(entryOffset, blockOffset, wordCount, minRow, maxRow);
+        hashes.setPos(0);
+        resetBlock();
+
+        valueMemSize = blockOffset + wordCount * 8;
+        blockCount++;
+        updateHeader();
+    }
+
+    public long getBlockCount() {
+        return blockCount;
+    }
+
+    public final void of(CairoConfiguration configuration, Path path, CharSequence name) {
+        close();
+        final long pageSize = configuration.getFilesFacade().getMapPageSize();
+        final int plen = path.length();
+
+        try {
+            boolean exists = configuration.getFilesFacade().exists(BloomIndexUtils.keyFileName(path, name));
+            this.keyMem.of(configuration.getFilesFacade(), path, pageSize);
+            if (!exists) {
+                LOG.error().$(path).$(" not found").$();
+                throw CairoException.instance(0).put("Index does not exist: ").put(path);
+            }
+
+            final long keyMemSize = this.keyMem.getAppendOffset();
+            if (keyMemSize < BloomIndexUtils.KEY_FILE_RESERVED) {
+                LOG.error().$("file too short [corrupt] ").$(path).$();
+                throw CairoException.instance(0).put("Index file too short (w): ").put(path);
+            }
+
+            if (this.keyMem.getByte(BloomIndexUtils.KEY_RESERVED_OFFSET_SIGNATURE) != BloomIndexUtils.SIGNATURE) {
+                LOG.error().$("unknown format [corrupt] ").$(path).$();
+                throw CairoException.instance(0).put("Unknown format: ").put(path);
+            }
+
+            if (this.keyMem.getLong(BloomIndexUtils.KEY_RESERVED_OFFSET_SEQUENCE_CHECK) != this.keyMem.getLong(BloomIndexUtils.KEY_RESERVED_OFFSET_SEQUENCE)) {
+                LOG.error().$("sequence mismatch [corrupt] at ").$(path).$();
+                throw CairoException.instance(0).put("Sequence mismatch on ").put(path);
+            }
+
+            final long blockCount = this.keyMem.getLong(BloomIndexUtils.KEY_RESERVED_OFFSET_BLOCK_COUNT);
+            if (keyMemSize < BloomIndexUtils.getBlockEntryOffset(blockCount)) {
+                LOG.error().$("block count does not match file length [corrupt] of ").$(path).$(" [blockCount=").$(blockCount).$(']').$();
+                throw CairoException.instance(0).put("Block count does not match file length of ").put(path);
+            }
+
+            this.valueMem.of(configuration.getFilesFacade(), BloomIndexUtils.valueFileName(path.trimTo(plen), name), pageSize);
+            final long valueMemSize = this.keyMem.getLong(BloomIndexUtils.KEY_RESERVED_OFFSET_VALUE_MEM_SIZE);
+            if (this.valueMem.getAppendOffset() < valueMemSize) {
+                LOG.error().$("incorrect file size [corrupt] of ").$(path).$(" [expected=").$(valueMemSize).$(']').$();
+                throw CairoException.instance(0).put("Incorrect file size of ").put(path);
+            }
+            this.blockCount = blockCount;
+            this.valueMemSize = valueMemSize;
+        } catch (CairoException e) {
+            this.close();
+            throw e;
+        } finally {
+            path.trimTo(plen);
+        }
+    }
+
+    /**
+     * Removes blocks above given row id along with uncommitted hashes. Values cannot be removed
+     * from bit set of the last remaining block, its row range is truncated instead. This leaves
+     * block with a few extra bits set, which is harmless.
+     *
+     * @param maxRow maximum row id allowed in index.
+     */
+    public void rollbackValues(long maxRow) {
+        if (hashes != null) {
+            hashes.setPos(0);
+        }
+        resetBlock();
+
+        long blockCount = this.blockCount;
+        long valueMemSize = this.valueMemSize;
+        while (blockCount > 0) {
+            final long entryOffset = BloomIndexUtils.getBlockEntryOffset(blockCount - 1);
+            if (keyMem.getLong(entryOffset + BloomIndexUtils.BLOCK_ENTRY_OFFSET_MIN_ROW) > maxRow) {
+                blockCount--;
+                valueMemSize = keyMem.getLong(entryOffset + BloomIndexUtils.BLOCK_ENTRY_OFFSET_VALUE_OFFSET);
+                continue;
+            }
+
+            if (keyMem.getLong(entryOffset + BloomIndexUtils.BLOCK_ENTRY_OFFSET_MAX_ROW) > maxRow) {
+                keyMem.putLong(entryOffset + BloomIndexUtils.BLOCK_ENTRY_OFFSET_MAX_ROW, maxRow);
+                Unsafe.getUnsafe().storeFence();
+            }
+            break;
+        }
+
+        if (blockCount != this.blockCount || valueMemSize != this.valueMemSize) {
+            this.blockCount = blockCount;
+            this.valueMemSize = valueMemSize;
+            updateHeader();
+        }
+    }
+
+    private void resetBlock() {
+        minRow = Long.MAX_VALUE;
+        maxRow = Long.MIN_VALUE;
+    }
+
+    private void updateHeader() {
+        final long seq = keyMem.getLong(BloomIndexUtils.KEY_RESERVED_OFFSET_SEQUENCE) + 1;
+        keyMem.putLong(BloomIndexUtils.KEY_RESERVED_OFFSET_SEQUENCE, seq);
+        Unsafe.getUnsafe().storeFence();
+        keyMem.putLong(BloomIndexUtils.KEY_RESERVED_OFFSET_VALUE_MEM_SIZE, valueMemSize);
+        keyMem.putLong(BloomIndexUtils.KEY_RESERVED_OFFSET_BLOCK_COUNT, blockCount);
+        Unsafe.getUnsafe().storeFence();
+        keyMem.putLong(BloomIndexUtils.KEY_RESERVED_OFFSET_SEQUENCE_CHECK, seq);
+    }
+
+    private void writeBlockEntry(long entryOffset, long blockOffset, long wordCount, long minRow, long maxRow) {
+        keyMem.putLong(entryOffset + BloomIndexUtils.BLOCK_ENTRY_OFFSET_VALUE_OFFSET, blockOffset);
+        keyMem.putLong(entryOffset + BloomIndexUtils.BLOCK_ENTRY_OFFSET_WORD_COUNT, wordCount);
+        keyMem.putLong(entryOffset + BloomIndexUtils.BLOCK_ENTRY_OFFSET_MIN_ROW, minRow);
+        keyMem.putLong(entryOffset + BloomIndexUtils.BLOCK_ENTRY_OFFSET_MAX_ROW, maxRow);
+        Unsafe.getUnsafe().storeFence();
+    }
+}
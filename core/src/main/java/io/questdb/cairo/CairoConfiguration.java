@@ -55,6 +55,13 @@ public interface CairoConfiguration {
 
     int getIndexValueBlockSize();
 
+    /**
+     * Interval between materialized view refreshes.
+     *
+     * @return interval in milliseconds
+     */
+    long getMatViewRefreshInterval();
+
     int getMaxSwapFileCount();
 
     MicrosecondClock getMicrosecondClock();
@@ -79,6 +86,8 @@ public interface CairoConfiguration {
 
     int getSqlCharacterStoreSequencePoolCapacity();
 
+    int getSqlCircuitBreakerThrottle();
+
     int getSqlColumnPoolCapacity();
 
     double getSqlCompactMapLoadFactor();
@@ -95,18 +104,38 @@ public interface CairoConfiguration {
 
     int getSqlMapPageSize();
 
+    long getSqlMemoryLimit();
+
     int getSqlModelPoolCapacity();
 
+    long getSqlQueryMemoryQuota();
+
+    long getSqlQueryTimeout();
+
+    int getSqlSampleByParallelTaskCount();
+
+    int getSqlSampleByParallelThreshold();
+
     int getSqlSortKeyPageSize();
 
     int getSqlSortLightValuePageSize();
 
     int getSqlHashJoinValuePageSize();
 
+    int getSqlLatestByParallelTaskCount();
+
+    int getSqlLatestByParallelThreshold();
+
     long getSqlLatestByRowCount();
 
     int getSqlHashJoinLightValuePageSize();
 
+    long getSqlHashJoinMemoryBudget();
+
+    int getSqlHashJoinSpillPartitionCount();
+
+    int getSqlFilterBatchSize();
+
     int getSqlSortValuePageSize();
 
     TextConfiguration getTextConfiguration();
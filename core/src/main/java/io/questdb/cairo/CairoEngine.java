@@ -28,6 +28,10 @@ import io.questdb.cairo.pool.PoolListener;
 import io.questdb.cairo.pool.ReaderPool;
 import io.questdb.cairo.pool.WriterPool;
 import io.questdb.cairo.sql.ReaderOutOfDateException;
+import io.questdb.griffin.QueryCache;
+import io.questdb.griffin.QueryRegistry;
+import io.questdb.griffin.engine.groupby.SampleByJob;
+import io.questdb.griffin.engine.table.LatestByJob;
 import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
 import io.questdb.mp.SynchronizedJob;
@@ -47,6 +51,8 @@ public class CairoEngine implements Closeable {
     private final WriterPool writerPool;
     private final ReaderPool readerPool;
     private final CairoConfiguration configuration;
+    private final QueryRegistry queryRegistry = new QueryRegistry();
+    private final QueryCache queryCache;
 
     public CairoEngine(CairoConfiguration configuration) {
         this(configuration, null);
@@ -56,14 +62,23 @@ public class CairoEngine implements Closeable {
         this.configuration = configuration;
         this.writerPool = new WriterPool(configuration, workScheduler);
         this.readerPool = new ReaderPool(configuration);
+        this.queryCache = new QueryCache(configuration.getSqlCacheBlocks(), configuration.getSqlCacheRows());
+        removeTmpDirectory();
         if (workScheduler != null) {
             workScheduler.addJob(new WriterMaintenanceJob(configuration));
             workScheduler.addJob(new ColumnIndexerJob(workScheduler));
+            if (workScheduler.getSampleByQueue() != null) {
+                workScheduler.addJob(new SampleByJob(workScheduler));
+            }
+            if (workScheduler.getLatestByQueue() != null) {
+                workScheduler.addJob(new LatestByJob(workScheduler));
+            }
         }
     }
 
     @Override
     public void close() {
+        Misc.free(queryCache);
         Misc.free(writerPool);
         Misc.free(readerPool);
     }
@@ -101,6 +116,14 @@ public class CairoEngine implements Closeable {
         return configuration;
     }
 
+    public QueryCache getQueryCache() {
+        return queryCache;
+    }
+
+    public QueryRegistry getQueryRegistry() {
+        return queryRegistry;
+    }
+
     public PoolListener getPoolListener() {
         return this.writerPool.getPoolListener();
     }
@@ -212,6 +235,17 @@ public class CairoEngine implements Closeable {
         return ff.rmdir(path.put(Files.SEPARATOR).$());
     }
 
+    private void removeTmpDirectory() {
+        // scratch files of queries that were running when previous process stopped
+        final FilesFacade ff = configuration.getFilesFacade();
+        try (Path path = new Path()) {
+            path.of(configuration.getRoot()).concat(TableUtils.TMP_DIR_NAME).put(Files.SEPARATOR).$();
+            if (ff.exists(path) && !ff.rmdir(path)) {
+                LOG.error().$("could not remove [dir=").$(path).$(", errno=").$(ff.errno()).$(']').$();
+            }
+        }
+    }
+
     public void rename(
             CairoSecurityContext securityContext,
             Path path,
@@ -33,11 +33,24 @@ public class CairoException extends RuntimeException implements Sinkable {
     private static final ThreadLocal<CairoException> tlException = new ThreadLocal<>(CairoException::new);
     private final StringSink message = new StringSink();
     private int errno;
+    private boolean interruption;
 
     public static CairoException instance(int errno) {
         CairoException ex = tlException.get();
         ex.message.clear();
         ex.errno = errno;
+        ex.interruption = false;
+        return ex;
+    }
+
+    /**
+     * Exception that stops running query on purpose, e.g. when query is cancelled or times out.
+     *
+     * @return thread local exception instance
+     */
+    public static CairoException interruption() {
+        CairoException ex = instance(0);
+        ex.interruption = true;
         return ex;
     }
 
@@ -65,6 +78,10 @@ public class CairoException extends RuntimeException implements Sinkable {
         return message;
     }
 
+    public boolean isInterruption() {
+        return interruption;
+    }
+
     @Override
     public void toSink(CharSink sink) {
         sink.put('[').put(errno).put("]: ").put(message);
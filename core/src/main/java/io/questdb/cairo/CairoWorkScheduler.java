@@ -24,6 +24,8 @@
 
 package io.questdb.cairo;
 
+import io.questdb.griffin.engine.groupby.SampleByEntry;
+import io.questdb.griffin.engine.table.LatestByEntry;
 import io.questdb.mp.Job;
 import io.questdb.mp.RingQueue;
 import io.questdb.mp.Sequence;
@@ -36,4 +38,40 @@ public interface CairoWorkScheduler {
     RingQueue<ColumnIndexerEntry> getIndexerQueue();
 
     Sequence getIndexerSubSequence();
+
+    default Sequence getLatestByPubSequence() {
+        return null;
+    }
+
+    /**
+     * Queue of LATEST BY frame scans, which are computed by workers in parallel. Scheduler that
+     * returns null disables parallel LATEST BY, frames are scanned on calling thread.
+     *
+     * @return latest by task queue or null
+     */
+    default RingQueue<LatestByEntry> getLatestByQueue() {
+        return null;
+    }
+
+    default Sequence getLatestBySubSequence() {
+        return null;
+    }
+
+    default Sequence getSampleByPubSequence() {
+        return null;
+    }
+
+    /**
+     * Queue of SAMPLE BY tasks, which are computed by workers in parallel. Scheduler that
+     * returns null disables parallel SAMPLE BY, queries are executed on calling thread.
+     *
+     * @return sample by task queue or null
+     */
+    default RingQueue<SampleByEntry> getSampleByQueue() {
+        return null;
+    }
+
+    default Sequence getSampleBySubSequence() {
+        return null;
+    }
 }
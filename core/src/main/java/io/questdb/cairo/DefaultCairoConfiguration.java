@@ -94,6 +94,11 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return 256;
     }
 
+    @Override
+    public long getMatViewRefreshInterval() {
+        return 1000;
+    }
+
     @Override
     public int getMaxSwapFileCount() {
         return 30;
@@ -161,6 +166,11 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return 64;
     }
 
+    @Override
+    public int getSqlCircuitBreakerThrottle() {
+        return 1_000_000;
+    }
+
     @Override
     public int getSqlColumnPoolCapacity() {
         return 4096;
@@ -201,11 +211,36 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return 16 * Numbers.SIZE_1MB;
     }
 
+    @Override
+    public long getSqlMemoryLimit() {
+        return 0;
+    }
+
     @Override
     public int getSqlModelPoolCapacity() {
         return 1024;
     }
 
+    @Override
+    public long getSqlQueryMemoryQuota() {
+        return 0;
+    }
+
+    @Override
+    public long getSqlQueryTimeout() {
+        return 0;
+    }
+
+    @Override
+    public int getSqlSampleByParallelTaskCount() {
+        return 4;
+    }
+
+    @Override
+    public int getSqlSampleByParallelThreshold() {
+        return 100000;
+    }
+
     @Override
     public int getSqlSortKeyPageSize() {
         return 4 * Numbers.SIZE_1MB;
@@ -221,6 +256,16 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return Numbers.SIZE_1MB * 16;
     }
 
+    @Override
+    public int getSqlLatestByParallelTaskCount() {
+        return 4;
+    }
+
+    @Override
+    public int getSqlLatestByParallelThreshold() {
+        return 100000;
+    }
+
     @Override
     public long getSqlLatestByRowCount() {
         return 1000;
@@ -231,6 +276,21 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return Numbers.SIZE_1MB;
     }
 
+    @Override
+    public long getSqlHashJoinMemoryBudget() {
+        return Long.MAX_VALUE;
+    }
+
+    @Override
+    public int getSqlHashJoinSpillPartitionCount() {
+        return 16;
+    }
+
+    @Override
+    public int getSqlFilterBatchSize() {
+        return 1024;
+    }
+
     @Override
     public int getSqlSortValuePageSize() {
         return Numbers.SIZE_1MB * 16;
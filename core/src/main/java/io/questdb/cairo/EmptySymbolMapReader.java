@@ -45,6 +45,11 @@ public class EmptySymbolMapReader implements SymbolMapReader {
         return null;
     }
 
+    @Override
+    public boolean containsNullValue() {
+        return true;
+    }
+
     @Override
     public int getSymbolCapacity() {
         return 0;
@@ -25,6 +25,8 @@
 package io.questdb.cairo;
 
 public class FullFwdDataFrameCursor extends AbstractFullDataFrameCursor {
+    // row first data frame starts with after skipToTimestamp()
+    private long firstFrameRowLo = 0;
 
     @Override
     public boolean hasNext() {
@@ -35,7 +37,9 @@ public class FullFwdDataFrameCursor extends AbstractFullDataFrameCursor {
                 partitionIndex++;
             } else {
                 frame.partitionIndex = partitionIndex;
+                frame.rowLo = firstFrameRowLo;
                 frame.rowHi = hi;
+                firstFrameRowLo = 0;
                 partitionIndex++;
                 return true;
 
@@ -49,8 +53,49 @@ public class FullFwdDataFrameCursor extends AbstractFullDataFrameCursor {
         return reader.size();
     }
 
+    @Override
+    public boolean skipToTimestamp(long timestamp) {
+        final int timestampIndex = reader.getMetadata().getTimestampIndex();
+        if (timestampIndex == -1) {
+            return false;
+        }
+
+        if (timestamp < reader.getMinTimestamp()) {
+            // all rows are above timestamp
+            return true;
+        }
+
+        int partitionIndex = reader.getPartitionedBy() == PartitionBy.NONE ? 0 : Math.min(
+                partitionHi - 1,
+                reader.getPartitionCountBetweenTimestamps(reader.getMinTimestamp(), reader.floorToPartitionTimestamp(timestamp))
+        );
+
+        // partition that timestamp falls into can be missing or start above timestamp,
+        // in which case last row of previous partition is what we are after
+        while (partitionIndex > -1) {
+            final long rowCount = reader.openPartition(partitionIndex);
+            if (rowCount > 0) {
+                final ReadOnlyColumn column = reader.getColumn(TableReader.getPrimaryColumnIndex(reader.getColumnBase(partitionIndex), timestampIndex));
+                long row = AbstractIntervalDataFrameCursor.search(column, timestamp, 0, rowCount);
+                if (row < 0) {
+                    // not a direct hit, step back from the first row above timestamp
+                    row = -row - 2;
+                }
+
+                if (row > -1) {
+                    this.partitionIndex = partitionIndex;
+                    this.firstFrameRowLo = row;
+                    return true;
+                }
+            }
+            partitionIndex--;
+        }
+        return true;
+    }
+
     @Override
     public void toTop() {
         this.partitionIndex = 0;
+        this.firstFrameRowLo = 0;
     }
 }
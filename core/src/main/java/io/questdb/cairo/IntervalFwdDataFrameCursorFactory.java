@@ -25,14 +25,23 @@
 package io.questdb.cairo;
 
 import io.questdb.cairo.sql.DataFrameCursor;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.model.RuntimeIntervalModel;
 import io.questdb.std.LongList;
 
 public class IntervalFwdDataFrameCursorFactory extends AbstractDataFrameCursorFactory {
     private final IntervalFwdDataFrameCursor cursor;
+    private final RuntimeIntervalModel intervalModel;
 
     public IntervalFwdDataFrameCursorFactory(CairoEngine engine, String tableName, long tableVersion, LongList intervals) {
+        this(engine, tableName, tableVersion, new RuntimeIntervalModel(intervals));
+    }
+
+    public IntervalFwdDataFrameCursorFactory(CairoEngine engine, String tableName, long tableVersion, RuntimeIntervalModel intervalModel) {
         super(engine, tableName, tableVersion);
-        this.cursor = new IntervalFwdDataFrameCursor(intervals);
+        this.cursor = new IntervalFwdDataFrameCursor(intervalModel.getIntervals());
+        this.intervalModel = intervalModel;
     }
 
     @Override
@@ -40,4 +49,16 @@ public class IntervalFwdDataFrameCursorFactory extends AbstractDataFrameCursorFa
         cursor.of(getReader(securityContext), timestampIndex);
         return cursor;
     }
+
+    @Override
+    public DataFrameCursor getCursor(SqlExecutionContext executionContext, int timestampIndex) {
+        intervalModel.calculateIntervals(executionContext);
+        return getCursor(executionContext.getCairoSecurityContext(), timestampIndex);
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        super.toPlan(sink);
+        intervalModel.toPlan(sink);
+    }
 }
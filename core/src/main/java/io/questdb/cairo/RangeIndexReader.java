@@ -0,0 +1,405 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo;
+
+import io.questdb.cairo.sql.RowCursor;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.IntList;
+import io.questdb.std.LongList;
+import io.questdb.std.Misc;
+import io.questdb.std.Unsafe;
+import io.questdb.std.microtime.MicrosecondClock;
+import io.questdb.std.str.Path;
+
+import java.io.Closeable;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Reads range index created by {@link RangeIndexWriter}. Reader serves row ids of values within
+ * inclusive range in ascending row id order. Blocks hold disjoint row ranges in ascending order,
+ * so rows are produced one block at a time. Within a block each distinct value is a run of row ids
+ * in ascending order, runs of the requested value range are merged on row id. Memory used by the
+ * merge is bounded by number of distinct values in a block rather than by number of matching rows.
+ * <p>
+ * When index estimates that value range matches a large share of rows, cursor reads column
+ * values sequentially instead, which is cheaper than visiting rows in index order.
+ * <p>
+ * Reader picks up blocks committed after it has been opened by re-reading block directory
+ * every time cursor is requested.
+ */
+public class RangeIndexReader implements Closeable {
+    private static final Log LOG = LogFactory.getLog(RangeIndexReader.class);
+    // index is used as long as it matches no more than 1/SCAN_RATIO of rows in requested row range
+    private static final int SCAN_RATIO = 4;
+    private final ReadOnlyMemory keyMem = new ReadOnlyMemory();
+    private final ReadOnlyMemory valueMem = new ReadOnlyMemory();
+    private final IndexCursor indexCursor = new IndexCursor();
+    private final ScanCursor scanCursor = new ScanCursor();
+    // (value offset, lo, hi) of blocks that overlap current request
+    private final LongList blocks = new LongList();
+    private long spinLockTimeoutUs;
+    private MicrosecondClock clock;
+    private long blockCount;
+    private long valueMemSize;
+    private ReadOnlyColumn column;
+    private long columnTop;
+    private int columnType;
+
+    public RangeIndexReader() {
+    }
+
+    public RangeIndexReader(CairoConfiguration configuration, Path path, CharSequence name) {
+        of(configuration, path, name);
+    }
+
+    @Override
+    public void close() {
+        if (isOpen()) {
+            Misc.free(keyMem);
+            Misc.free(valueMem);
+        }
+        column = null;
+    }
+
+    public long getBlockCount() {
+        return blockCount;
+    }
+
+    /**
+     * Setup row id cursor for values between minValue and maxValue, both inclusive. Row ids are
+     * bounded by minRow and maxRow, both inclusive, and are returned in ascending order. Cursor is
+     * a singleton instance, it is invalidated by next call to this method.
+     *
+     * @param minValue inclusive minimum value
+     * @param maxValue inclusive maximum value
+     * @param minRow   inclusive minimum row id
+     * @param maxRow   inclusive maximum row id
+     * @return row id cursor
+     */
+    public RowCursor getCursor(long minValue, long maxValue, long minRow, long maxRow) {
+        if (!isOpen() || minValue > maxValue || minRow > maxRow) {
+            return EmptyRowCursor.INSTANCE;
+        }
+
+        final long estimate = readBlocks(minValue, maxValue, minRow, maxRow);
+        if (column != null && estimate > (maxRow - minRow + 1) / SCAN_RATIO) {
+            scanCursor.of(minValue, maxValue, Math.max(minRow, columnTop), maxRow);
+            return scanCursor;
+        }
+        indexCursor.of(minRow, maxRow);
+        return indexCursor;
+    }
+
+    public boolean isOpen() {
+        return keyMem.getFd() != -1;
+    }
+
+    public final void of(CairoConfiguration configuration, Path path, CharSequence name) {
+        close();
+        final int plen = path.length();
+        final long pageSize = configuration.getFilesFacade().getMapPageSize();
+        this.spinLockTimeoutUs = configuration.getSpinLockTimeoutUs();
+        this.clock = configuration.getMicrosecondClock();
+
+        try {
+            this.keyMem.of(configuration.getFilesFacade(), RangeIndexUtils.keyFileName(path, name), pageSize, 0);
+            this.keyMem.grow(configuration.getFilesFacade().length(this.keyMem.getFd()));
+
+            if (this.keyMem.size() < RangeIndexUtils.KEY_FILE_RESERVED) {
+                LOG.error().$("file too short [corrupt] ").$(path).$();
+                throw CairoException.instance(0).put("Index file too short: ").put(path);
+            }
+
+            if (this.keyMem.getByte(RangeIndexUtils.KEY_RESERVED_OFFSET_SIGNATURE) != RangeIndexUtils.SIGNATURE) {
+                LOG.error().$("unknown format [corrupt] ").$(path).$();
+                throw CairoException.instance(0).put("Unknown format: ").put(path);
+            }
+
+            this.valueMem.of(configuration.getFilesFacade(), RangeIndexUtils.valueFileName(path.trimTo(plen), name), pageSize, 0);
+            this.blockCount = 0;
+            this.valueMemSize = 0;
+        } catch (CairoException e) {
+            close();
+            throw e;
+        } finally {
+            path.trimTo(plen);
+        }
+    }
+
+    /**
+     * Sets column, which values are read when scanning is cheaper than the index.
+     *
+     * @param column     primary column of indexed column in the partition
+     * @param columnTop  number of rows in partition before column was added
+     * @param columnType INT or LONG
+     * @return this reader
+     */
+    public RangeIndexReader withColumn(ReadOnlyColumn column, long columnTop, int columnType) {
+        this.column = column;
+        this.columnTop = columnTop;
+        this.columnType = columnType;
+        return this;
+    }
+
+    /**
+     * Copies bounds of blocks, which overlap request, from block directory. Writer rewrites directory
+     * entries when it merges blocks, so entries are read under the same sequence check as the header.
+     *
+     * @return number of index values within requested value range, some of which may be outside of requested row range
+     */
+    private long readBlocks(long minValue, long maxValue, long minRow, long maxRow) {
+        final long deadline = clock.getTicks() + spinLockTimeoutUs;
+        while (true) {
+            long seq = keyMem.getLong(RangeIndexUtils.KEY_RESERVED_OFFSET_SEQUENCE);
+
+            Unsafe.getUnsafe().loadFence();
+            if (keyMem.getLong(RangeIndexUtils.KEY_RESERVED_OFFSET_SEQUENCE_CHECK) == seq) {
+
+                final long blockCount = keyMem.getLong(RangeIndexUtils.KEY_RESERVED_OFFSET_BLOCK_COUNT);
+                final long valueMemSize = keyMem.getLong(RangeIndexUtils.KEY_RESERVED_OFFSET_VALUE_MEM_SIZE);
+                if (blockCount != this.blockCount || valueMemSize != this.valueMemSize) {
+                    keyMem.grow(RangeIndexUtils.getBlockEntryOffset(blockCount));
+                    valueMem.grow(valueMemSize);
+                    this.blockCount = blockCount;
+                    this.valueMemSize = valueMemSize;
+                }
+
+                blocks.clear();
+                for (long b = 0; b < blockCount; b++) {
+                    final long entryOffset = RangeIndexUtils.getBlockEntryOffset(b);
+                    if (keyMem.getLong(entryOffset + RangeIndexUtils.BLOCK_ENTRY_OFFSET_MIN_ROW) > maxRow) {
+                        // blocks are ordered by row id, none of the remaining blocks can match
+                        break;
+                    }
+
+                    if (keyMem.getLong(entryOffset + RangeIndexUtils.BLOCK_ENTRY_OFFSET_MAX_ROW) < minRow
+                            || keyMem.getLong(entryOffset + RangeIndexUtils.BLOCK_ENTRY_OFFSET_MIN_VALUE) > maxValue
+                            || keyMem.getLong(entryOffset + RangeIndexUtils.BLOCK_ENTRY_OFFSET_MAX_VALUE) < minValue) {
+                        continue;
+                    }
+
+                    blocks.add(keyMem.getLong(entryOffset + RangeIndexUtils.BLOCK_ENTRY_OFFSET_VALUE_OFFSET));
+                    blocks.add(keyMem.getLong(entryOffset + RangeIndexUtils.BLOCK_ENTRY_OFFSET_COUNT));
+                }
+
+                Unsafe.getUnsafe().loadFence();
+                if (seq == keyMem.getLong(RangeIndexUtils.KEY_RESERVED_OFFSET_SEQUENCE)) {
+                    break;
+                }
+            }
+
+            if (clock.getTicks() > deadline) {
+                LOG.error().$("failed to read index header consistently [corrupt?] [timeout=").$(spinLockTimeoutUs).utf8("μs]").$();
+                throw CairoException.instance(0).put("failed to read index header consistently [corrupt?]");
+            }
+
+            LockSupport.parkNanos(1);
+        }
+
+        // value data of published blocks is immutable, it is safe to search outside of sequence check
+        long estimate = 0;
+        for (int i = 0, n = blocks.size(); i < n; i += 2) {
+            final long blockOffset = blocks.getQuick(i);
+            final long count = blocks.getQuick(i + 1);
+            final long lo = RangeIndexUtils.searchBlock(valueMem, blockOffset, 0, count, minValue);
+            final long hi = maxValue == Long.MAX_VALUE ? count : RangeIndexUtils.searchBlock(valueMem, blockOffset, lo, count, maxValue + 1);
+            blocks.setQuick(i, blockOffset + lo * RangeIndexUtils.VALUE_ENTRY_SIZE);
+            blocks.setQuick(i + 1, blockOffset + hi * RangeIndexUtils.VALUE_ENTRY_SIZE);
+            estimate += hi - lo;
+        }
+        return estimate;
+    }
+
+    /**
+     * Produces rows of one block at a time. Runs of distinct values of the block are kept on a
+     * binary heap ordered by row id of their current position.
+     */
+    private class IndexCursor implements RowCursor {
+        // current and end offsets of runs, indexed by run
+        private final LongList runs = new LongList();
+        // run indexes ordered as binary heap
+        private final IntList heap = new IntList();
+        private long minRow;
+        private long maxRow;
+        private int block;
+        private long next;
+
+        @Override
+        public boolean hasNext() {
+            while (heap.size() == 0) {
+                if (block >= blocks.size()) {
+                    return false;
+                }
+                openBlock(blocks.getQuick(block), blocks.getQuick(block + 1));
+                block += 2;
+            }
+
+            final int run = heap.getQuick(0);
+            final long offset = runs.getQuick(run * 2);
+            next = valueMem.getLong(offset + 8);
+            if (offset + RangeIndexUtils.VALUE_ENTRY_SIZE < runs.getQuick(run * 2 + 1)) {
+                runs.setQuick(run * 2, offset + RangeIndexUtils.VALUE_ENTRY_SIZE);
+            } else {
+                // run is exhausted, last heap element takes its place
+                final int last = heap.size() - 1;
+                heap.setQuick(0, heap.getQuick(last));
+                heap.removeIndex(last);
+            }
+            siftDown();
+            return true;
+        }
+
+        @Override
+        public long next() {
+            return next;
+        }
+
+        private long currentRow(int run) {
+            return valueMem.getLong(runs.getQuick(run * 2) + 8);
+        }
+
+        private void of(long minRow, long maxRow) {
+            this.minRow = minRow;
+            this.maxRow = maxRow;
+            this.block = 0;
+            this.heap.clear();
+        }
+
+        private void openBlock(long lo, long hi) {
+            runs.clear();
+            heap.clear();
+            while (lo < hi) {
+                // run of current value ends where next value starts, row ids within run are ascending
+                final long value = valueMem.getLong(lo);
+                final long end = value == Long.MAX_VALUE ? hi : searchEntry(lo, hi, value + 1, Long.MIN_VALUE);
+                final long runLo = searchEntry(lo, end, value, minRow);
+                final long runHi = maxRow == Long.MAX_VALUE ? end : searchEntry(runLo, end, value, maxRow + 1);
+                if (runLo < runHi) {
+                    heap.add(runs.size() / 2);
+                    runs.add(runLo);
+                    runs.add(runHi);
+                }
+                lo = end;
+            }
+
+            for (int i = heap.size() / 2 - 1; i >= 0; i--) {
+                siftDown(i);
+            }
+        }
+
+        /**
+         * Binary searches entries between lo and hi for first (value, row) pair not less than given one.
+         */
+        private long searchEntry(long lo, long hi, long value, long row) {
+            long count = (hi - lo) / RangeIndexUtils.VALUE_ENTRY_SIZE;
+            while (count > 0) {
+                final long half = count >>> 1;
+                final long mid = lo + half * RangeIndexUtils.VALUE_ENTRY_SIZE;
+                final long v = valueMem.getLong(mid);
+                if (v < value || (v == value && valueMem.getLong(mid + 8) < row)) {
+                    lo = mid + RangeIndexUtils.VALUE_ENTRY_SIZE;
+                    count -= half + 1;
+                } else {
+                    count = half;
+                }
+            }
+            return lo;
+        }
+
+        private void siftDown() {
+            if (heap.size() > 1) {
+                siftDown(0);
+            }
+        }
+
+        private void siftDown(int i) {
+            final int n = heap.size();
+            final int run = heap.getQuick(i);
+            final long row = currentRow(run);
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= n) {
+                    break;
+                }
+                long childRow = currentRow(heap.getQuick(child));
+                if (child + 1 < n) {
+                    final long rightRow = currentRow(heap.getQuick(child + 1));
+                    if (rightRow < childRow) {
+                        child++;
+                        childRow = rightRow;
+                    }
+                }
+                if (row <= childRow) {
+                    break;
+                }
+                heap.setQuick(i, heap.getQuick(child));
+                i = child;
+            }
+            heap.setQuick(i, run);
+        }
+    }
+
+    private class ScanCursor implements RowCursor {
+        private long minValue;
+        private long maxValue;
+        private long row;
+        private long maxRow;
+
+        @Override
+        public boolean hasNext() {
+            if (columnType == ColumnType.INT) {
+                while (row <= maxRow) {
+                    final int value = column.getInt((row - columnTop) * Integer.BYTES);
+                    if (value >= minValue && value <= maxValue) {
+                        return true;
+                    }
+                    row++;
+                }
+            } else {
+                while (row <= maxRow) {
+                    final long value = column.getLong((row - columnTop) * Long.BYTES);
+                    if (value >= minValue && value <= maxValue) {
+                        return true;
+                    }
+                    row++;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public long next() {
+            return row++;
+        }
+
+        private void of(long minValue, long maxValue, long minRow, long maxRow) {
+            this.minValue = minValue;
+            this.maxValue = maxValue;
+            this.row = minRow;
+            this.maxRow = maxRow;
+        }
+    }
+}
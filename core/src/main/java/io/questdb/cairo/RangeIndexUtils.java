@@ -0,0 +1,99 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo;
+
+import io.questdb.std.str.Path;
+
+/**
+ * Layout of range index files. Range index maps INT and LONG column values to row ids
+ * and consists of two files. Key file starts with a header followed by directory of
+ * blocks, one block per indexed batch of rows. Value file contains blocks themselves,
+ * each block is a run of (value, row id) pairs sorted by value and then by row id.
+ * <p>
+ * Blocks are written in the order rows are appended to the partition, which means that
+ * row ids of a block are all greater than row ids of any block before it.
+ */
+public final class RangeIndexUtils {
+    static final int BLOCK_ENTRY_SIZE = 48;
+    static final int BLOCK_ENTRY_OFFSET_VALUE_OFFSET = 0;
+    static final int BLOCK_ENTRY_OFFSET_COUNT = 8;
+    static final int BLOCK_ENTRY_OFFSET_MIN_VALUE = 16;
+    static final int BLOCK_ENTRY_OFFSET_MAX_VALUE = 24;
+    static final int BLOCK_ENTRY_OFFSET_MIN_ROW = 32;
+    static final int BLOCK_ENTRY_OFFSET_MAX_ROW = 40;
+
+    /**
+     * key file header offsets
+     */
+    static final int KEY_FILE_RESERVED = 64;
+    static final int KEY_RESERVED_OFFSET_SIGNATURE = 0;
+    static final int KEY_RESERVED_OFFSET_SEQUENCE = 8;
+    static final int KEY_RESERVED_OFFSET_VALUE_MEM_SIZE = 16;
+    static final int KEY_RESERVED_OFFSET_BLOCK_COUNT = 24;
+    static final int KEY_RESERVED_OFFSET_SEQUENCE_CHECK = 32;
+
+    static final byte SIGNATURE = (byte) 0xfb;
+    static final int VALUE_ENTRY_SIZE = 16;
+
+    public static boolean isSupported(int columnType) {
+        return columnType == ColumnType.INT || columnType == ColumnType.LONG;
+    }
+
+    public static Path keyFileName(Path path, CharSequence name) {
+        return path.concat(name).put(".rk").$();
+    }
+
+    public static Path valueFileName(Path path, CharSequence name) {
+        return path.concat(name).put(".rv").$();
+    }
+
+    static long getBlockEntryOffset(long block) {
+        return block * BLOCK_ENTRY_SIZE + KEY_FILE_RESERVED;
+    }
+
+    /**
+     * Binary searches sorted block of (value, row id) pairs for first pair with value
+     * greater or equal to given one.
+     *
+     * @param valueMem    value memory
+     * @param blockOffset offset of block in value memory
+     * @param lo          index of first pair to search from
+     * @param count       number of pairs in block
+     * @param value       value to search for
+     * @return index of first pair in block, which value is not less than given one. When all values are less, count is returned.
+     */
+    static long searchBlock(VirtualMemory valueMem, long blockOffset, long lo, long count, long value) {
+        long hi = count;
+        while (lo < hi) {
+            long mid = (lo + hi) >>> 1;
+            if (valueMem.getLong(blockOffset + mid * VALUE_ENTRY_SIZE) < value) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+}
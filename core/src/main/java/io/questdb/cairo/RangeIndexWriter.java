@@ -0,0 +1,375 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo;
+
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.DirectLongList;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Misc;
+import io.questdb.std.Unsafe;
+import io.questdb.std.str.Path;
+
+import java.io.Closeable;
+
+/**
+ * Writes range index of INT and LONG columns. Values are accumulated via {@link #add(long, long)}
+ * and become a new sorted block when {@link #commit()} is called. Block data is immutable once
+ * written, readers discover blocks through the directory and block count in key file header,
+ * which are updated under sequence check after block content is in place.
+ * <p>
+ * To keep number of blocks low, new block absorbs trailing blocks that are not more than twice its
+ * size. Merged block is written after existing data, which keeps block data readers may still be
+ * looking at intact. Blocks above {@link #MAX_MERGE_COUNT} values are not merged any further, which
+ * bounds both the cost of a merge and the space left behind by merged blocks.
+ */
+public class RangeIndexWriter implements Closeable {
+    static final long MAX_MERGE_COUNT = 1 << 20;
+    private static final Log LOG = LogFactory.getLog(RangeIndexWriter.class);
+    private static final int INSERTION_SORT_THRESHOLD = 16;
+    private final ReadWriteMemory keyMem = new ReadWriteMemory();
+    private final ReadWriteMemory valueMem = new ReadWriteMemory();
+    private DirectLongList pairs;
+    private long blockCount = -1;
+    private long valueMemSize = -1;
+
+    public static void initKeyMemory(VirtualMemory keyMem) {
+        keyMem.putByte(RangeIndexUtils.SIGNATURE);
+        keyMem.skip(RangeIndexUtils.KEY_RESERVED_OFFSET_SEQUENCE - keyMem.getAppendOffset());
+        keyMem.putLong(1); // SEQUENCE
+        Unsafe.getUnsafe().storeFence();
+        keyMem.putLong(0); // VALUE MEM SIZE
+        keyMem.putLong(0); // BLOCK COUNT
+        Unsafe.getUnsafe().storeFence();
+        keyMem.putLong(1); // SEQUENCE CHECK
+        keyMem.skip(RangeIndexUtils.KEY_FILE_RESERVED - keyMem.getAppendOffset());
+    }
+
+    /**
+     * Adds value and row id pair to current block. Pair will not be visible to readers until block is committed.
+     *
+     * @param value column value
+     * @param row   partition-level row id
+     */
+    public void add(long value, long row) {
+        if (pairs == null) {
+            pairs = new DirectLongList(1024, MemoryTag.NATIVE_INDEX);
+        }
+        pairs.add(value);
+        pairs.add(row);
+    }
+
+    @Override
+    public void close() {
+        if (keyMem.isOpen() && blockCount > -1) {
+            keyMem.jumpTo(RangeIndexUtils.getBlockEntryOffset(blockCount));
+        }
+        Misc.free(keyMem);
+
+        if (valueMem.isOpen() && valueMemSize > -1) {
+            valueMem.jumpTo(valueMemSize);
+        }
+        Misc.free(valueMem);
+        pairs = Misc.free(pairs);
+        blockCount = -1;
+        valueMemSize = -1;
+    }
+
+    /**
+     * Sorts pairs added since last commit and appends them as new block, merging trailing blocks
+     * that are not much larger than the new one.
+     */
+    public void commit() {
+        if (pairs == null || pairs.size() == 0) {
+            return;
+        }
+
+        long count = pairs.size() / 2;
+        long firstBlock = blockCount;
+        while (firstBlock > 0) {
+            final long blockSize = keyMem.getLong(RangeIndexUtils.getBlockEntryOffset(firstBlock - 1) + RangeIndexUtils.BLOCK_ENTRY_OFFSET_COUNT);
+            if (blockSize > count * 2 || blockSize + count > MAX_MERGE_COUNT) {
+                break;
+            }
+            count += blockSize;
+            firstBlock--;
+        }
+
+        for (long b = firstBlock; b < blockCount; b++) {
+            final long entryOffset = RangeIndexUtils.getBlockEntryOffset(b);
+            final long offset = keyMem.getLong(entryOffset + RangeIndexUtils.BLOCK_ENTRY_OFFSET_VALUE_OFFSET);
+            final long n = keyMem.getLong(entryOffset + RangeIndexUtils.BLOCK_ENTRY_OFFSET_COUNT);
+            for (long i = 0; i < n; i++) {
+                pairs.add(valueMem.getLong(offset + i * RangeIndexUtils.VALUE_ENTRY_SIZE));
+                pairs.add(valueMem.getLong(offset + i * RangeIndexUtils.VALUE_ENTRY_SIZE + 8));
+            }
+        }
+
+        sort(pairs, 0, count - 1);
+
+        final long blockOffset = valueMemSize;
+        long minRow = Long.MAX_VALUE;
+        long maxRow = Long.MIN_VALUE;
+        valueMem.jumpTo(blockOffset);
+        for (long i = 0; i < count; i++) {
+            final long row = pairs.get(i * 2 + 1);
+            valueMem.putLong(pairs.get(i * 2));
+            valueMem.putLong(row);
+            minRow = Math.min(minRow, row);
+            maxRow = Math.max(maxRow, row);
+        }
+        pairs.setPos(0);
+
+        // merged block takes directory entry of the first block it replaces
+        final long entryOffset = RangeIndexUtils.getBlockEntryOffset(firstBlock);
+        if (firstBlock == blockCount) {
+            keyMem.jumpTo(entryOffset + RangeIndexUtils.BLOCK_ENTRY_SIZE);
+        }
+        final long seq = beginHeaderUpdate();
+        writeBlockEntry(
+                entryOffset,
+                blockOffset,
+                count,
+                valueMem.getLong(blockOffset),
+                valueMem.getLong(blockOffset + (count - 1) * RangeIndexUtils.VALUE_ENTRY_SIZE),
+                minRow,
+                maxRow
+        );
+        valueMemSize = blockOffset + count * RangeIndexUtils.VALUE_ENTRY_SIZE;
+        blockCount = firstBlock + 1;
+        endHeaderUpdate(seq);
+    }
+
+    public long getBlockCount() {
+        return blockCount;
+    }
+
+    public final void of(CairoConfiguration configuration, Path path, CharSequence name) {
+        close();
+        final long pageSize = configuration.getFilesFacade().getMapPageSize();
+        final int plen = path.length();
+
+        try {
+            boolean exists = configuration.getFilesFacade().exists(RangeIndexUtils.keyFileName(path, name));
+            this.keyMem.of(configuration.getFilesFacade(), path, pageSize);
+            if (!exists) {
+                LOG.error().$(path).$(" not found").$();
+                throw CairoException.instance(0).put("Index does not exist: ").put(path);
+            }
+
+            final long keyMemSize = this.keyMem.getAppendOffset();
+            if (keyMemSize < RangeIndexUtils.KEY_FILE_RESERVED) {
+                LOG.error().$("file too short [corrupt] ").$(path).$();
+                throw CairoException.instance(0).put("Index file too short (w): ").put(path);
+            }
+
+            if (this.keyMem.getByte(RangeIndexUtils.KEY_RESERVED_OFFSET_SIGNATURE) != RangeIndexUtils.SIGNATURE) {
+                LOG.error().$("unknown format [corrupt] ").$(path).$();
+                throw CairoException.instance(0).put("Unknown format: ").put(path);
+            }
+
+            if (this.keyMem.getLong(RangeIndexUtils.KEY_RESERVED_OFFSET_SEQUENCE_CHECK) != this.keyMem.getLong(RangeIndexUtils.KEY_RESERVED_OFFSET_SEQUENCE)) {
+                LOG.error().$("sequence mismatch [corrupt] at ").$(path).$();
+                throw CairoException.instance(0).put("Sequence mismatch on ").put(path);
+            }
+
+            final long blockCount = this.keyMem.getLong(RangeIndexUtils.KEY_RESERVED_OFFSET_BLOCK_COUNT);
+            if (keyMemSize < RangeIndexUtils.getBlockEntryOffset(blockCount)) {
+                LOG.error().$("block count does not match file length [corrupt] of ").$(path).$(" [blockCount=").$(blockCount).$(']').$();
+                throw CairoException.instance(0).put("Block count does not match file length of ").put(path);
+            }
+
+            this.valueMem.of(configuration.getFilesFacade(), RangeIndexUtils.valueFileName(path.trimTo(plen), name), pageSize);
+            final long valueMemSize = this.keyMem.getLong(RangeIndexUtils.KEY_RESERVED_OFFSET_VALUE_MEM_SIZE);
+            if (this.valueMem.getAppendOffset() < valueMemSize) {
+                LOG.error().$("incorrect file size [corrupt] of ").$(path).$(" [expected=").$(valueMemSize).$(']').$();
+                throw CairoException.instance(0).put("Incorrect file size of ").put(path);
+            }
+            this.blockCount = blockCount;
+            this.valueMemSize = valueMemSize;
+        } catch (CairoException e) {
+            this.close();
+            throw e;
+        } finally {
+            path.trimTo(plen);
+        }
+    }
+
+    /**
+     * Removes row ids that are strictly greater than given maximum along with uncommitted pairs.
+     * Blocks that become empty are removed, the last remaining block is compacted in place.
+     *
+     * @param maxRow maximum row id allowed in index.
+     */
+    public void rollbackValues(long maxRow) {
+        if (pairs != null) {
+            pairs.setPos(0);
+        }
+
+        final long seq = beginHeaderUpdate();
+        while (blockCount > 0) {
+            final long entryOffset = RangeIndexUtils.getBlockEntryOffset(blockCount - 1);
+            final long blockOffset = keyMem.getLong(entryOffset + RangeIndexUtils.BLOCK_ENTRY_OFFSET_VALUE_OFFSET);
+
+            if (keyMem.getLong(entryOffset + RangeIndexUtils.BLOCK_ENTRY_OFFSET_MIN_ROW) > maxRow) {
+                // whole block is above maximum
+                blockCount--;
+                valueMemSize = blockOffset;
+                continue;
+            }
+
+            if (keyMem.getLong(entryOffset + RangeIndexUtils.BLOCK_ENTRY_OFFSET_MAX_ROW) > maxRow) {
+                final long count = keyMem.getLong(entryOffset + RangeIndexUtils.BLOCK_ENTRY_OFFSET_COUNT);
+                long minValue = Long.MAX_VALUE;
+                long maxValue = Long.MIN_VALUE;
+                long newMaxRow = Long.MIN_VALUE;
+                long n = 0;
+                for (long i = 0; i < count; i++) {
+                    final long offset = blockOffset + i * RangeIndexUtils.VALUE_ENTRY_SIZE;
+                    final long row = valueMem.getLong(offset + 8);
+                    if (row <= maxRow) {
+                        final long value = valueMem.getLong(offset);
+                        final long target = blockOffset + n * RangeIndexUtils.VALUE_ENTRY_SIZE;
+                        valueMem.putLong(target, value);
+                        valueMem.putLong(target + 8, row);
+                        minValue = Math.min(minValue, value);
+                        maxValue = Math.max(maxValue, value);
+                        newMaxRow = Math.max(newMaxRow, row);
+                        n++;
+                    }
+                }
+                writeBlockEntry(
+                        entryOffset,
+                        blockOffset,
+                        n,
+                        minValue,
+                        maxValue,
+                        keyMem.getLong(entryOffset + RangeIndexUtils.BLOCK_ENTRY_OFFSET_MIN_ROW),
+                        newMaxRow
+                );
+                valueMemSize = blockOffset + n * RangeIndexUtils.VALUE_ENTRY_SIZE;
+            }
+            break;
+        }
+
+        endHeaderUpdate(seq);
+    }
+
+    private static int compare(DirectLongList pairs, long a, long b) {
+        final int c = Long.compare(pairs.get(a * 2), pairs.get(b * 2));
+        return c != 0 ? c : Long.compare(pairs.get(a * 2 + 1), pairs.get(b * 2 + 1));
+    }
+
+    private static void sort(DirectLongList pairs, long lo, long hi) {
+        while (hi - lo >= INSERTION_SORT_THRESHOLD) {
+            // median of three
+            final long mid = (lo + hi) >>> 1;
+            if (compare(pairs, mid, lo) < 0) {
+                swap(pairs, mid, lo);
+            }
+            if (compare(pairs, hi, lo) < 0) {
+                swap(pairs, hi, lo);
+            }
+            if (compare(pairs, hi, mid) < 0) {
+                swap(pairs, hi, mid);
+            }
+
+            final long pivotValue = pairs.get(mid * 2);
+            final long pivotRow = pairs.get(mid * 2 + 1);
+            long i = lo;
+            long j = hi;
+            while (i <= j) {
+                while (compareTo(pairs, i, pivotValue, pivotRow) < 0) {
+                    i++;
+                }
+                while (compareTo(pairs, j, pivotValue, pivotRow) > 0) {
+                    j--;
+                }
+                if (i <= j) {
+                    swap(pairs, i++, j--);
+                }
+            }
+
+            // recurse into smaller partition to bound stack depth
+            if (j - lo < hi - i) {
+                sort(pairs, lo, j);
+                lo = i;
+            } else {
+                sort(pairs, i, hi);
+                hi = j;
+            }
+        }
+
+        for (long i = lo + 1; i <= hi; i++) {
+            for (long j = i; j > lo && compare(pairs, j, j - 1) < 0; j--) {
+                swap(pairs, j, j - 1);
+            }
+        }
+    }
+
+    private static int compareTo(DirectLongList pairs, long a, long value, long row) {
+        final int c = Long.compare(pairs.get(a * 2), value);
+        return c != 0 ? c : Long.compare(pairs.get(a * 2 + 1), row);
+    }
+
+    private static void swap(DirectLongList pairs, long a, long b) {
+        final long value = pairs.get(a * 2);
+        final long row = pairs.get(a * 2 + 1);
+        pairs.set(a * 2, pairs.get(b * 2));
+        pairs.set(a * 2 + 1, pairs.get(b * 2 + 1));
+        pairs.set(b * 2, value);
+        pairs.set(b * 2 + 1, row);
+    }
+
+    /**
+     * Starts header update. Readers retry while update is in progress, directory entries
+     * can be rewritten until {@link #endHeaderUpdate(long)} is called.
+     *
+     * @return sequence to pass to {@link #endHeaderUpdate(long)}
+     */
+    private long beginHeaderUpdate() {
+        final long seq = keyMem.getLong(RangeIndexUtils.KEY_RESERVED_OFFSET_SEQUENCE) + 1;
+        keyMem.putLong(RangeIndexUtils.KEY_RESERVED_OFFSET_SEQUENCE, seq);
+        Unsafe.getUnsafe().storeFence();
+        return seq;
+    }
+
+    private void endHeaderUpdate(long seq) {
+        keyMem.putLong(RangeIndexUtils.KEY_RESERVED_OFFSET_VALUE_MEM_SIZE, valueMemSize);
+        keyMem.putLong(RangeIndexUtils.KEY_RESERVED_OFFSET_BLOCK_COUNT, blockCount);
+        Unsafe.getUnsafe().storeFence();
+        keyMem.putLong(RangeIndexUtils.KEY_RESERVED_OFFSET_SEQUENCE_CHECK, seq);
+    }
+
+    private void writeBlockEntry(long entryOffset, long blockOffset, long count, long minValue, long maxValue, long minRow, long maxRow) {
+        keyMem.putLong(entryOffset + RangeIndexUtils.BLOCK_ENTRY_OFFSET_VALUE_OFFSET, blockOffset);
+        keyMem.putLong(entryOffset + RangeIndexUtils.BLOCK_ENTRY_OFFSET_COUNT, count);
+        keyMem.putLong(entryOffset + RangeIndexUtils.BLOCK_ENTRY_OFFSET_MIN_VALUE, minValue);
+        keyMem.putLong(entryOffset + RangeIndexUtils.BLOCK_ENTRY_OFFSET_MAX_VALUE, maxValue);
+        keyMem.putLong(entryOffset + RangeIndexUtils.BLOCK_ENTRY_OFFSET_MIN_ROW, minRow);
+        keyMem.putLong(entryOffset + RangeIndexUtils.BLOCK_ENTRY_OFFSET_MAX_ROW, maxRow);
+        Unsafe.getUnsafe().storeFence();
+    }
+}
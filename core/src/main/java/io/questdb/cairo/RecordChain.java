@@ -28,6 +28,7 @@ import io.questdb.cairo.sql.Record;
 import io.questdb.cairo.sql.RecordCursor;
 import io.questdb.std.BinarySequence;
 import io.questdb.std.Long256;
+import io.questdb.std.MemoryTag;
 import io.questdb.std.Mutable;
 import io.questdb.std.Transient;
 import io.questdb.std.str.CharSink;
@@ -48,7 +49,15 @@ public class RecordChain implements Closeable, RecordCursor, Mutable, RecordSink
     private RecordCursor symbolTableResolver;
 
     public RecordChain(@Transient ColumnTypes columnTypes, RecordSink recordSink, long pageSize) {
-        this.mem = new VirtualMemory(pageSize);
+        this(columnTypes, recordSink, new VirtualMemory(pageSize, MemoryTag.NATIVE_SQL));
+    }
+
+    /**
+     * Creates chain on top of given memory, which can be file-backed. Chain takes ownership
+     * of memory and closes it when chain is cleared or closed.
+     */
+    public RecordChain(@Transient ColumnTypes columnTypes, RecordSink recordSink, VirtualMemory mem) {
+        this.mem = mem;
         this.recordSink = recordSink;
         int count = columnTypes.getColumnCount();
         long varOffset = 0L;
@@ -102,6 +111,10 @@ public class RecordChain implements Closeable, RecordCursor, Mutable, RecordSink
         varAppendOffset = 0L;
     }
 
+    public long getMemUsed() {
+        return varAppendOffset;
+    }
+
     @Override
     public Record getRecord() {
         return record;
@@ -28,6 +28,11 @@ package io.questdb.cairo;
 import io.questdb.cairo.sql.SymbolTable;
 
 public interface SymbolMapReader extends SymbolTable {
+    /**
+     * @return false when column is known not to contain null values
+     */
+    boolean containsNullValue();
+
     int getSymbolCapacity();
 
     boolean isCached();
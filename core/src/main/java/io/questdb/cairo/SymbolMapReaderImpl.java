@@ -92,6 +92,11 @@ public class SymbolMapReaderImpl implements Closeable, SymbolMapReader {
         return null;
     }
 
+    @Override
+    public boolean containsNullValue() {
+        return offsetMem.getByte(SymbolMapWriter.HEADER_NULL_FLAG) != SymbolMapWriter.NULL_FLAG_NONE;
+    }
+
     @Override
     public int getSymbolCapacity() {
         return symbolCapacity;
@@ -35,6 +35,11 @@ import java.io.Closeable;
 
 public class SymbolMapWriter implements Closeable {
     public static final int HEADER_SIZE = 64;
+    // header byte that tells if column has null values, maps created before it was introduced have zero there
+    static final int HEADER_NULL_FLAG = 8;
+    static final byte NULL_FLAG_UNKNOWN = 0;
+    static final byte NULL_FLAG_NONE = 1;
+    static final byte NULL_FLAG_PRESENT = 2;
     private static final Log LOG = LogFactory.getLog(SymbolMapWriter.class);
 
     private final BitmapIndexWriter indexWriter;
@@ -42,6 +47,7 @@ public class SymbolMapWriter implements Closeable {
     private final ReadWriteMemory offsetMem;
     private final CharSequenceIntHashMap cache;
     private final int maxHash;
+    private boolean nullValue;
 
     public SymbolMapWriter(CairoConfiguration configuration, Path path, CharSequence name, int symbolCount) {
         final int plen = path.length();
@@ -69,6 +75,7 @@ public class SymbolMapWriter implements Closeable {
             this.offsetMem = new ReadWriteMemory(ff, path, mapPageSize);
             final int symbolCapacity = offsetMem.getInt(0);
             final boolean useCache = offsetMem.getBool(4);
+            this.nullValue = offsetMem.getByte(HEADER_NULL_FLAG) != NULL_FLAG_NONE;
             this.offsetMem.jumpTo(keyToOffset(symbolCount));
 
             // index writer is used to identify attempts to store duplicate symbol value
@@ -109,6 +116,8 @@ public class SymbolMapWriter implements Closeable {
             mem.of(ff, offsetFileName(path.trimTo(plen), columnName), ff.getPageSize());
             mem.putInt(symbolCapacity);
             mem.putBool(symbolCacheFlag);
+            mem.jumpTo(HEADER_NULL_FLAG);
+            mem.putByte(NULL_FLAG_NONE);
             mem.jumpTo(HEADER_SIZE);
             mem.close();
 
@@ -155,6 +164,7 @@ public class SymbolMapWriter implements Closeable {
     public int put(CharSequence symbol) {
 
         if (symbol == null) {
+            updateNullFlag();
             return SymbolTable.VALUE_IS_NULL;
         }
 
@@ -174,6 +184,17 @@ public class SymbolMapWriter implements Closeable {
         }
     }
 
+    /**
+     * Records that column has null value. Flag is never cleared, it is safe for readers to see it
+     * before rows with null values are committed.
+     */
+    public void updateNullFlag() {
+        if (!nullValue) {
+            offsetMem.putByte(HEADER_NULL_FLAG, NULL_FLAG_PRESENT);
+            nullValue = true;
+        }
+    }
+
     boolean isCached() {
         return cache != null;
     }
@@ -68,6 +68,8 @@ public class TableReader implements Closeable {
     private LongList columnTops;
     private ObjList<ReadOnlyColumn> columns;
     private ObjList<BitmapIndexReader> bitmapIndexes;
+    // range and bloom index readers, column can have one of them at most
+    private ObjList<Closeable> valueIndexes;
     private int columnCount;
     private int columnCountBits;
     private long transientRowCount;
@@ -84,6 +86,9 @@ public class TableReader implements Closeable {
     private long prevMinTimestamp = Long.MAX_VALUE;
     private ReloadMethod reloadMethod;
     private long tempMem8b = Unsafe.malloc(8);
+    private long partitionOpenCount;
+    private long columnOpenCount;
+    private long openTime;
 
     public TableReader(CairoConfiguration configuration, CharSequence tableName) {
         LOG.info().$("open '").utf8(tableName).$('\'').$();
@@ -129,7 +134,8 @@ public class TableReader implements Closeable {
                     break;
             }
             readTxn();
-            openSymbolMaps();
+            // symbol maps are opened when column is first accessed
+            symbolMapReaders.setPos(columnCount);
             this.prevStructVersion = structVersion;
             this.prevPartitionTableVersion = partitionTableVersion;
             if (metadata.getPartitionBy() == PartitionBy.NONE) {
@@ -142,6 +148,8 @@ public class TableReader implements Closeable {
             this.columns.setPos(capacity);
             this.bitmapIndexes = new ObjList<>(capacity);
             this.bitmapIndexes.setPos(capacity);
+            this.valueIndexes = new ObjList<>(capacity);
+            this.valueIndexes.setPos(capacity);
             this.partitionRowCounts = new LongList(partitionCount);
             this.partitionRowCounts.seed(partitionCount, -1);
             this.columnTops = new LongList(capacity / 2);
@@ -158,12 +166,18 @@ public class TableReader implements Closeable {
         if (isOpen()) {
             freeSymbolMapReaders();
             freeBitmapIndexCache();
+            Misc.freeObjList(valueIndexes);
             Misc.free(path);
             Misc.free(metadata);
             Misc.free(txMem);
             freeColumns();
             freeTempMem();
-            LOG.info().$("closed '").utf8(tableName).$('\'').$();
+            LOG.info()
+                    .$("closed '").utf8(tableName)
+                    .$("' [partitionOpenCount=").$(partitionOpenCount)
+                    .$(", columnOpenCount=").$(columnOpenCount)
+                    .$(", openTime=").$(openTime)
+                    .$(']').$();
         }
     }
 
@@ -209,6 +223,17 @@ public class TableReader implements Closeable {
         return reader == null ? createBitmapIndexReaderAt(index, columnBase, columnIndex, direction) : reader;
     }
 
+    /**
+     * Number of columns this reader has opened across all partitions. Columns are opened on first
+     * access rather than when partition is opened, so this count shows how many columns queries
+     * have actually touched.
+     *
+     * @return number of column opens since reader was created
+     */
+    public long getColumnOpenCount() {
+        return columnOpenCount;
+    }
+
     public TableReaderRecordCursor getCursor() {
         recordCursor.toTop();
         return recordCursor;
@@ -230,6 +255,15 @@ public class TableReader implements Closeable {
         return minTimestamp;
     }
 
+    /**
+     * Total time reader has spent opening partitions and columns.
+     *
+     * @return time in microseconds
+     */
+    public long getOpenTime() {
+        return openTime;
+    }
+
     public int getPartitionCount() {
         return partitionCount;
     }
@@ -238,12 +272,53 @@ public class TableReader implements Closeable {
         return (int) intervalLengthMethod.calculate(partitionTimestamp1, partitionTimestamp2);
     }
 
+    /**
+     * @return number of partition opens since reader was created
+     */
+    public long getPartitionOpenCount() {
+        return partitionOpenCount;
+    }
+
     public int getPartitionedBy() {
         return metadata.getPartitionBy();
     }
 
+    /**
+     * Bloom index reader of STRING or LONG256 column in given partition. Reader is created on first request
+     * and is cached until partition or column is closed.
+     *
+     * @param columnBase  base of partition, see {@link #getColumnBase(int)}
+     * @param columnIndex index of column
+     * @return bloom index reader, which serves no rows when column does not exist in partition
+     */
+    public BloomIndexReader getBloomIndexReader(int columnBase, int columnIndex) {
+        final int index = getPrimaryColumnIndex(columnBase, columnIndex);
+        Closeable reader = valueIndexes.getQuick(index);
+        return reader == null ? createBloomIndexReaderAt(index, columnBase, columnIndex) : (BloomIndexReader) reader;
+    }
+
+    /**
+     * Range index reader of INT or LONG column in given partition. Reader is created on first request
+     * and is cached until partition or column is closed.
+     *
+     * @param columnBase  base of partition, see {@link #getColumnBase(int)}
+     * @param columnIndex index of column
+     * @return range index reader, which serves no rows when column does not exist in partition
+     */
+    public RangeIndexReader getRangeIndexReader(int columnBase, int columnIndex) {
+        final int index = getPrimaryColumnIndex(columnBase, columnIndex);
+        Closeable reader = valueIndexes.getQuick(index);
+        // column instance can change when partition is reloaded, reader is given current one every time
+        return (reader == null ? createRangeIndexReaderAt(index, columnBase, columnIndex) : (RangeIndexReader) reader)
+                .withColumn(getColumn(index), getColumnTop(columnBase, columnIndex), metadata.getColumnType(columnIndex));
+    }
+
     public SymbolMapReader getSymbolMapReader(int columnIndex) {
-        return symbolMapReaders.getQuick(columnIndex);
+        final SymbolMapReader reader = symbolMapReaders.getQuick(columnIndex);
+        if (reader == null && metadata.getColumnType(columnIndex) == ColumnType.SYMBOL) {
+            return openSymbolMap(columnIndex);
+        }
+        return reader;
     }
 
     public CharSequence getTableName() {
@@ -405,6 +480,7 @@ public class TableReader implements Closeable {
                     Misc.free(columns.getAndSetQuick(index + 1, null));
                     Misc.free(bitmapIndexes.getAndSetQuick(index, null));
                     Misc.free(bitmapIndexes.getAndSetQuick(index + 1, null));
+                    Misc.free(valueIndexes.getAndSetQuick(index, null));
                 }
                 partitionRowCounts.setQuick(i, -1);
             }
@@ -437,12 +513,24 @@ public class TableReader implements Closeable {
         }
     }
 
+    private void closePartitionColumns(int columnBase) {
+        for (int i = 0; i < columnCount; i++) {
+            final int index = getPrimaryColumnIndex(columnBase, i);
+            Misc.free(columns.getAndSetQuick(index, null));
+            Misc.free(columns.getAndSetQuick(index + 1, null));
+            Misc.free(bitmapIndexes.getAndSetQuick(index, null));
+            Misc.free(bitmapIndexes.getAndSetQuick(index + 1, null));
+            Misc.free(valueIndexes.getAndSetQuick(index, null));
+        }
+    }
+
     private void closeColumn(int columnBase, int columnIndex) {
         final int index = getPrimaryColumnIndex(columnBase, columnIndex);
         Misc.free(columns.getAndSetQuick(index, ForceNullColumn.INSTANCE));
         Misc.free(columns.getAndSetQuick(index + 1, ForceNullColumn.INSTANCE));
         Misc.free(bitmapIndexes.getAndSetQuick(index, null));
         Misc.free(bitmapIndexes.getAndSetQuick(index + 1, null));
+        Misc.free(valueIndexes.getAndSetQuick(index, null));
     }
 
     private void closeRemovedPartitions() {
@@ -475,6 +563,7 @@ public class TableReader implements Closeable {
                 assert prevMinTimestamp < minTimestamp;
                 int delta = getPartitionCountBetweenTimestamps(prevMinTimestamp, minTimestamp);
                 columns.remove(0, getColumnBase(delta) - 1);
+                valueIndexes.remove(0, getColumnBase(delta) - 1);
                 prevMinTimestamp = minTimestamp;
                 partitionCount -= delta;
             }
@@ -490,6 +579,8 @@ public class TableReader implements Closeable {
         tempCopyStruct.top = columnTops.getAndSetQuick(columnBase / 2 + columnIndex, tempCopyStruct.top);
         tempCopyStruct.backwardReader = indexReaders.getAndSetQuick(index, tempCopyStruct.backwardReader);
         tempCopyStruct.forwardReader = indexReaders.getAndSetQuick(index + 1, tempCopyStruct.forwardReader);
+        // range index readers are not moved with columns, they are re-created on demand
+        Misc.free(valueIndexes.getAndSetQuick(index, null));
         if (reload) {
             reloadColumnAt(path, columns, columnTops, indexReaders, columnBase, columnIndex, partitionRowCount);
         }
@@ -508,7 +599,7 @@ public class TableReader implements Closeable {
             throw CairoException.instance(0).put("Not indexed: ").put(metadata.getColumnName(columnIndex));
         }
 
-        ReadOnlyColumn col = columns.getQuick(globalIndex);
+        ReadOnlyColumn col = getColumn(globalIndex);
         if (col instanceof NullColumn) {
             if (direction == BitmapIndexReader.DIR_BACKWARD) {
                 reader = new BitmapIndexBwdNullReader();
@@ -534,6 +625,48 @@ public class TableReader implements Closeable {
         return reader;
     }
 
+    private BloomIndexReader createBloomIndexReaderAt(int globalIndex, int columnBase, int columnIndex) {
+        if (!metadata.isColumnIndexed(columnIndex) || !BloomIndexUtils.isSupported(metadata.getColumnType(columnIndex))) {
+            throw CairoException.instance(0).put("Not bloom indexed: ").put(metadata.getColumnName(columnIndex));
+        }
+
+        final BloomIndexReader reader;
+        if (getColumn(globalIndex) instanceof NullColumn) {
+            // column was added after this partition had been written
+            reader = new BloomIndexReader();
+        } else {
+            Path path = partitionPathGenerator.generate(this, getPartitionIndex(columnBase));
+            try {
+                reader = new BloomIndexReader(configuration, path.chopZ(), metadata.getColumnName(columnIndex));
+            } finally {
+                path.trimTo(rootLen);
+            }
+        }
+        valueIndexes.setQuick(globalIndex, reader);
+        return reader;
+    }
+
+    private RangeIndexReader createRangeIndexReaderAt(int globalIndex, int columnBase, int columnIndex) {
+        if (!metadata.isColumnIndexed(columnIndex) || !RangeIndexUtils.isSupported(metadata.getColumnType(columnIndex))) {
+            throw CairoException.instance(0).put("Not range indexed: ").put(metadata.getColumnName(columnIndex));
+        }
+
+        final RangeIndexReader reader;
+        if (getColumn(globalIndex) instanceof NullColumn) {
+            // column was added after this partition had been written
+            reader = new RangeIndexReader();
+        } else {
+            Path path = partitionPathGenerator.generate(this, getPartitionIndex(columnBase));
+            try {
+                reader = new RangeIndexReader(configuration, path.chopZ(), metadata.getColumnName(columnIndex));
+            } finally {
+                path.trimTo(rootLen);
+            }
+        }
+        valueIndexes.setQuick(globalIndex, reader);
+        return reader;
+    }
+
     private void createNewColumnList(int columnCount, long pTransitionIndex, int columnBits) {
         int capacity = partitionCount << columnBits;
         final ObjList<ReadOnlyColumn> columns = new ObjList<>(capacity);
@@ -544,6 +677,10 @@ public class TableReader implements Closeable {
         indexReaders.setPos(capacity);
         final long pIndexBase = pTransitionIndex + 8;
 
+        Misc.freeObjList(valueIndexes);
+        valueIndexes = new ObjList<>(capacity);
+        valueIndexes.setPos(capacity);
+
         for (int partitionIndex = 0; partitionIndex < partitionCount; partitionIndex++) {
             final int base = partitionIndex << columnBits;
             final int oldBase = partitionIndex << columnCountBits;
@@ -619,7 +756,13 @@ public class TableReader implements Closeable {
     }
 
     ReadOnlyColumn getColumn(int absoluteIndex) {
-        return columns.getQuick(absoluteIndex);
+        final ReadOnlyColumn column = columns.getQuick(absoluteIndex);
+        // secondary entry of fixed size column is always null, check primary entry to tell if column is open
+        if (column == null && columns.getQuick(absoluteIndex & ~1) == null) {
+            openColumn(absoluteIndex >>> columnCountBits, (absoluteIndex & ((1 << columnCountBits) - 1)) / 2);
+            return columns.getQuick(absoluteIndex);
+        }
+        return column;
     }
 
     int getColumnBase(int partitionIndex) {
@@ -631,6 +774,9 @@ public class TableReader implements Closeable {
     }
 
     long getColumnTop(int base, int columnIndex) {
+        if (columns.getQuick(getPrimaryColumnIndex(base, columnIndex)) == null) {
+            openColumn(getPartitionIndex(base), columnIndex);
+        }
         return this.columnTops.getQuick(base / 2 + columnIndex);
     }
 
@@ -647,7 +793,7 @@ public class TableReader implements Closeable {
         return transientRowCount;
     }
 
-    long getTxn() {
+    public long getTxn() {
         return txn;
     }
 
@@ -658,7 +804,7 @@ public class TableReader implements Closeable {
     }
 
     boolean isColumnCached(int columnIndex) {
-        return symbolMapReaders.getQuick(columnIndex).isCached();
+        return getSymbolMapReader(columnIndex).isCached();
     }
 
     private TableReaderMetadata openMetaFile() {
@@ -669,7 +815,25 @@ public class TableReader implements Closeable {
         }
     }
 
-    long openPartition(int partitionIndex) {
+    private void openColumn(int partitionIndex, int columnIndex) {
+        final long partitionRowCount = partitionRowCounts.getQuick(partitionIndex);
+        if (partitionRowCount == -1) {
+            // columns of partitions that are not open stay closed
+            return;
+        }
+
+        final long start = configuration.getMicrosecondClock().getTicks();
+        try {
+            Path path = partitionPathGenerator.generate(this, partitionIndex);
+            reloadColumnAt(path.chopZ(), columns, columnTops, bitmapIndexes, getColumnBase(partitionIndex), columnIndex, partitionRowCount);
+        } finally {
+            path.trimTo(rootLen);
+        }
+        columnOpenCount++;
+        openTime += configuration.getMicrosecondClock().getTicks() - start;
+    }
+
+    public long openPartition(int partitionIndex) {
         final long size = getPartitionRowCount(partitionIndex);
         if (size != -1) {
             return size;
@@ -691,6 +855,7 @@ public class TableReader implements Closeable {
             return -1;
         }
 
+        final long start = configuration.getMicrosecondClock().getTicks();
         try {
             Path path = partitionPathGenerator.generate(this, partitionIndex);
             if (ff.exists(path)) {
@@ -708,8 +873,11 @@ public class TableReader implements Closeable {
                         .$(']').$();
 
                 if (partitionSize > 0) {
-                    openPartitionColumns(path, getColumnBase(partitionIndex), partitionSize);
+                    // columns are opened on first access, anything left from previous
+                    // opening of this partition could have gone stale
+                    closePartitionColumns(getColumnBase(partitionIndex));
                     partitionRowCounts.setQuick(partitionIndex, partitionSize);
+                    partitionOpenCount++;
                     if (maxTimestamp != Numbers.LONG_NaN) {
                         if (reloadMethod == FIRST_TIME_PARTITIONED_RELOAD_METHOD) {
                             reloadMethod = PARTITIONED_RELOAD_METHOD;
@@ -724,25 +892,21 @@ public class TableReader implements Closeable {
             return -1;
         } finally {
             path.trimTo(rootLen);
+            openTime += configuration.getMicrosecondClock().getTicks() - start;
         }
     }
 
-    private void openPartitionColumns(Path path, int columnBase, long partitionRowCount) {
-        for (int i = 0; i < columnCount; i++) {
-            reloadColumnAt(path, this.columns, this.columnTops, this.bitmapIndexes, columnBase, i, partitionRowCount);
-        }
-    }
-
-    private void openSymbolMaps() {
+    private SymbolMapReader openSymbolMap(int columnIndex) {
+        // symbol counts in transaction file are in the order of symbol columns
         int symbolColumnIndex = 0;
-        final int columnCount = metadata.getColumnCount();
-        symbolMapReaders.setPos(columnCount);
-        for (int i = 0; i < columnCount; i++) {
+        for (int i = 0; i < columnIndex; i++) {
             if (metadata.getColumnType(i) == ColumnType.SYMBOL) {
-                SymbolMapReaderImpl symbolMapReader = new SymbolMapReaderImpl(configuration, path, metadata.getColumnName(i), symbolCountSnapshot.getQuick(symbolColumnIndex++));
-                symbolMapReaders.extendAndSet(i, symbolMapReader);
+                symbolColumnIndex++;
             }
         }
+        SymbolMapReaderImpl symbolMapReader = new SymbolMapReaderImpl(configuration, path, metadata.getColumnName(columnIndex), symbolCountSnapshot.getQuick(symbolColumnIndex));
+        symbolMapReaders.setQuick(columnIndex, symbolMapReader);
+        return symbolMapReader;
     }
 
     private ReadOnlyMemory openTxnFile() {
@@ -880,6 +1044,8 @@ public class TableReader implements Closeable {
             final int primaryIndex = getPrimaryColumnIndex(columnBase, columnIndex);
             final int secondaryIndex = primaryIndex + 1;
 
+            Misc.free(valueIndexes.getAndSetQuick(primaryIndex, null));
+
             ReadOnlyColumn mem1 = columns.getQuick(primaryIndex);
             ReadOnlyColumn mem2 = columns.getQuick(secondaryIndex);
 
@@ -1004,10 +1170,12 @@ public class TableReader implements Closeable {
     }
 
     private boolean reloadNonPartitioned() {
+        final long dataVersion = this.dataVersion;
         // calling readTxn will set "rowCount" member variable
         if (readTxn()) {
             reloadStruct();
-            if (getPartitionRowCount(0) == -1) {
+            // files are replaced when writer commits partition copy
+            if (getPartitionRowCount(0) == -1 || (this.dataVersion != dataVersion && rowCount > 0)) {
                 openPartition0(0);
             } else {
                 reloadPartition(0, rowCount);
@@ -1028,17 +1196,24 @@ public class TableReader implements Closeable {
         int columnBase = getColumnBase(partitionIndex);
         for (int i = 0; i < columnCount; i++) {
             final int index = getPrimaryColumnIndex(columnBase, i);
-            growColumn(
-                    columns.getQuick(index),
-                    columns.getQuick(index + 1),
-                    metadata.getColumnType(i),
-                    rowCount - getColumnTop(columnBase, i)
-            );
+            final ReadOnlyColumn mem1 = columns.getQuick(index);
+            // column that has not been opened yet will be sized when it is
+            if (mem1 != null) {
+                growColumn(
+                        mem1,
+                        columns.getQuick(index + 1),
+                        metadata.getColumnType(i),
+                        rowCount - getColumnTop(columnBase, i)
+                );
+            }
 
             // reload symbol map
-            SymbolMapReader reader = symbolMapReaders.getQuick(i);
-            if (reader != null) {
-                reader.updateSymbolCount(symbolCountSnapshot.getQuick(symbolMapIndex++));
+            if (metadata.getColumnType(i) == ColumnType.SYMBOL) {
+                SymbolMapReader reader = symbolMapReaders.getQuick(i);
+                if (reader != null) {
+                    reader.updateSymbolCount(symbolCountSnapshot.getQuick(symbolMapIndex));
+                }
+                symbolMapIndex++;
             }
         }
         partitionRowCounts.setQuick(partitionIndex, rowCount);
@@ -1104,7 +1279,11 @@ public class TableReader implements Closeable {
         int symbolMapIndex = 0;
         for (int i = 0; i < columnCount; i++) {
             if (metadata.getColumnType(i) == ColumnType.SYMBOL) {
-                symbolMapReaders.getQuick(i).updateSymbolCount(symbolCountSnapshot.getQuick(symbolMapIndex++));
+                SymbolMapReader reader = symbolMapReaders.getQuick(i);
+                if (reader != null) {
+                    reader.updateSymbolCount(symbolCountSnapshot.getQuick(symbolMapIndex));
+                }
+                symbolMapIndex++;
             }
         }
     }
@@ -1176,6 +1355,7 @@ public class TableReader implements Closeable {
                     int index = getPrimaryColumnIndex(base, i);
                     Misc.free(columns.getQuick(index));
                     Misc.free(columns.getQuick(index + 1));
+                    Misc.free(valueIndexes.getAndSetQuick(index, null));
                 }
             } finally {
                 path.trimTo(rootLen);
@@ -1187,6 +1367,7 @@ public class TableReader implements Closeable {
         int capacity = getColumnBase(partitionCount);
         columns.setPos(capacity);
         bitmapIndexes.setPos(capacity);
+        valueIndexes.setPos(capacity);
         this.partitionRowCounts.seed(partitionCount, -1);
         this.columnTops.setPos(capacity / 2);
     }
@@ -24,6 +24,7 @@
 
 package io.questdb.cairo;
 
+import io.questdb.cairo.sql.DataFrameCursor;
 import io.questdb.cairo.sql.Record;
 import io.questdb.cairo.sql.RecordCursor;
 import io.questdb.cairo.sql.SymbolTable;
@@ -36,6 +37,7 @@ public class TableReaderRecordCursor implements RecordCursor {
     private int partitionIndex = 0;
     private int partitionCount;
     private long maxRecordIndex = -1;
+    private FullFwdDataFrameCursor dataFrameCursor;
 
     @Override
     public void close() {
@@ -45,6 +47,15 @@ public class TableReaderRecordCursor implements RecordCursor {
         }
     }
 
+    @Override
+    public DataFrameCursor getDataFrameCursor() {
+        if (dataFrameCursor == null) {
+            dataFrameCursor = new FullFwdDataFrameCursor();
+        }
+        // reader is owned by this cursor, data frame cursor must not be closed
+        return dataFrameCursor.of(reader);
+    }
+
     @Override
     public Record getRecord() {
         return record;
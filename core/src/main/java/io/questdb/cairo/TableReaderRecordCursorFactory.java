@@ -26,6 +26,7 @@ package io.questdb.cairo;
 
 import io.questdb.cairo.sql.RecordCursor;
 import io.questdb.cairo.sql.RecordMetadata;
+import io.questdb.griffin.PlanSink;
 import io.questdb.griffin.SqlExecutionContext;
 
 public class TableReaderRecordCursorFactory extends AbstractRecordCursorFactory {
@@ -47,8 +48,21 @@ public class TableReaderRecordCursorFactory extends AbstractRecordCursorFactory
         return cursor;
     }
 
+    public String getTableName() {
+        return tableName;
+    }
+
+    public long getTableVersion() {
+        return tableVersion;
+    }
+
     @Override
     public boolean isRandomAccessCursor() {
         return true;
     }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.type(this).attr("table").val(tableName);
+    }
 }
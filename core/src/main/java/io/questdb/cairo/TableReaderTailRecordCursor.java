@@ -24,6 +24,7 @@
 
 package io.questdb.cairo;
 
+import io.questdb.cairo.sql.DataFrameCursor;
 import io.questdb.std.Rows;
 
 public class TableReaderTailRecordCursor extends TableReaderRecordCursor {
@@ -37,6 +38,12 @@ public class TableReaderTailRecordCursor extends TableReaderRecordCursor {
         this.txn = reader.getTxn();
     }
 
+    @Override
+    public DataFrameCursor getDataFrameCursor() {
+        // cursor starts from bookmarked row rather than from the top of table
+        return null;
+    }
+
     @Override
     public boolean hasNext() {
         if (super.hasNext()) {
@@ -0,0 +1,164 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo;
+
+import io.questdb.std.Chars;
+import io.questdb.std.FilesFacade;
+import io.questdb.std.LongList;
+import io.questdb.std.Misc;
+import io.questdb.std.str.Path;
+
+import java.io.Closeable;
+
+/**
+ * Reads table statistics file written by ANALYZE TABLE. Statistics is a snapshot of the table at the
+ * time it was analyzed, table may have changed since. Values are estimates for query planning and must
+ * not be relied on for correctness.
+ * <p>
+ * File layout:
+ * <pre>
+ * int version, int partition count, long row count, int column count
+ * partition count * [long partition timestamp, long row count]
+ * column count * [int type, long distinct count, long min, long max, str name]
+ * </pre>
+ * Distinct count is -1 when it is unknown. Min and max are raw long values, they are bits of a double
+ * for FLOAT and DOUBLE columns and NaN for column types that have no order.
+ */
+public class TableStats implements Closeable {
+    public static final int VERSION = 1;
+    static final int OFFSET_VERSION = 0;
+    static final int OFFSET_PARTITION_COUNT = 4;
+    static final int OFFSET_ROW_COUNT = 8;
+    static final int OFFSET_COLUMN_COUNT = 16;
+    static final int OFFSET_PARTITIONS = 20;
+    static final int PARTITION_ENTRY_SIZE = 16;
+    static final int COLUMN_OFFSET_TYPE = 0;
+    static final int COLUMN_OFFSET_DISTINCT_COUNT = 4;
+    static final int COLUMN_OFFSET_MIN = 12;
+    static final int COLUMN_OFFSET_MAX = 20;
+    static final int COLUMN_OFFSET_NAME = 28;
+    private final ReadOnlyMemory mem = new ReadOnlyMemory();
+    private final LongList columnOffsets = new LongList();
+    private int partitionCount;
+
+    public static Path statsFileName(Path path, CharSequence tableName) {
+        return path.concat(tableName).concat(TableUtils.STATS_FILE_NAME).$();
+    }
+
+    @Override
+    public void close() {
+        Misc.free(mem);
+        columnOffsets.clear();
+        partitionCount = 0;
+    }
+
+    public int getColumnCount() {
+        return columnOffsets.size();
+    }
+
+    /**
+     * @param name column name, case insensitive
+     * @return index of column in statistics or -1 when column was not analyzed
+     */
+    public int getColumnIndex(CharSequence name) {
+        for (int i = 0, n = columnOffsets.size(); i < n; i++) {
+            if (Chars.equalsIgnoreCase(name, getColumnName(i))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public CharSequence getColumnName(int columnIndex) {
+        return mem.getStr(columnOffsets.getQuick(columnIndex) + COLUMN_OFFSET_NAME);
+    }
+
+    public int getColumnType(int columnIndex) {
+        return mem.getInt(columnOffsets.getQuick(columnIndex) + COLUMN_OFFSET_TYPE);
+    }
+
+    public long getDistinctCount(int columnIndex) {
+        return mem.getLong(columnOffsets.getQuick(columnIndex) + COLUMN_OFFSET_DISTINCT_COUNT);
+    }
+
+    public long getMax(int columnIndex) {
+        return mem.getLong(columnOffsets.getQuick(columnIndex) + COLUMN_OFFSET_MAX);
+    }
+
+    public long getMin(int columnIndex) {
+        return mem.getLong(columnOffsets.getQuick(columnIndex) + COLUMN_OFFSET_MIN);
+    }
+
+    public int getPartitionCount() {
+        return partitionCount;
+    }
+
+    public long getPartitionRowCount(int partitionIndex) {
+        return mem.getLong(OFFSET_PARTITIONS + (long) partitionIndex * PARTITION_ENTRY_SIZE + 8);
+    }
+
+    public long getPartitionTimestamp(int partitionIndex) {
+        return mem.getLong(OFFSET_PARTITIONS + (long) partitionIndex * PARTITION_ENTRY_SIZE);
+    }
+
+    public long getRowCount() {
+        return mem.getLong(OFFSET_ROW_COUNT);
+    }
+
+    /**
+     * Opens statistics of table.
+     *
+     * @param ff        files facade
+     * @param path      path to database root, it is restored before this method returns
+     * @param tableName name of table
+     * @return false when table has not been analyzed or statistics file is of unknown version
+     */
+    public boolean of(FilesFacade ff, Path path, CharSequence tableName) {
+        close();
+        final int plen = path.length();
+        try {
+            statsFileName(path, tableName);
+            if (!ff.exists(path)) {
+                return false;
+            }
+            mem.of(ff, path, ff.getPageSize(), ff.length(path));
+        } finally {
+            path.trimTo(plen);
+        }
+
+        if (mem.size() < OFFSET_PARTITIONS || mem.getInt(OFFSET_VERSION) != VERSION) {
+            close();
+            return false;
+        }
+
+        partitionCount = mem.getInt(OFFSET_PARTITION_COUNT);
+        long offset = OFFSET_PARTITIONS + (long) partitionCount * PARTITION_ENTRY_SIZE;
+        for (int i = 0, n = mem.getInt(OFFSET_COLUMN_COUNT); i < n; i++) {
+            columnOffsets.add(offset);
+            offset += COLUMN_OFFSET_NAME + VirtualMemory.getStorageLength(getColumnName(i));
+        }
+        return true;
+    }
+}
@@ -31,6 +31,8 @@ public interface TableStructure {
 
     int getColumnType(int columnIndex);
 
+    boolean getDedupKeyFlag(int columnIndex);
+
     int getIndexBlockCapacity(int columnIndex);
 
     boolean getIndexedFlag(int columnIndex);
@@ -41,6 +41,14 @@ public final class TableUtils {
     public static final int TABLE_RESERVED = 2;
     public static final String META_FILE_NAME = "_meta";
     public static final String TXN_FILE_NAME = "_txn";
+    // materialized view definition: base table name followed by query text
+    public static final String MAT_VIEW_FILE_NAME = "_mv";
+    // statistics collected by ANALYZE TABLE, see TableStats
+    public static final String STATS_FILE_NAME = "_stats";
+    // scratch files of running queries, directory is wiped when engine starts
+    public static final String TMP_DIR_NAME = ".tmp";
+    // private copy of partition files, which replaces originals on commit
+    public static final String COPY_DIR_NAME = "_copy";
     public static final long META_OFFSET_COLUMN_TYPES = 128;
     public static final int INITIAL_TXN = 0;
     public static final int NULL_LEN = -1;
@@ -48,6 +56,7 @@ public final class TableUtils {
     static final int MIN_INDEX_VALUE_BLOCK_SIZE = Numbers.ceilPow2(4);
     static final byte TODO_RESTORE_META = 2;
     static final byte TODO_TRUNCATE = 1;
+    static final byte TODO_COMMIT_COPY = 3;
     static final TimestampFormat fmtDay;
     static final TimestampFormat fmtMonth;
     static final TimestampFormat fmtYear;
@@ -83,6 +92,7 @@ public final class TableUtils {
     static final String META_SWAP_FILE_NAME = "_meta.swp";
     static final String META_PREV_FILE_NAME = "_meta.prev";
     static final String TODO_FILE_NAME = "_todo";
+    static final String COPY_UNDO_FILE_NAME = "_undo";
     static final long META_OFFSET_COUNT = 0;
     // INT - symbol map count, this is a variable part of transaction file
     // below this offset we will have INT values for symbol map size
@@ -130,7 +140,8 @@ public final class TableUtils {
                 mem.putByte((byte) structure.getColumnType(i));
                 mem.putBool(structure.getIndexedFlag(i));
                 mem.putInt(structure.getIndexBlockCapacity(i));
-                mem.skip(10); // reserved
+                mem.putBool(structure.getDedupKeyFlag(i));
+                mem.skip(9); // reserved
             }
             for (int i = 0; i < count; i++) {
                 mem.putStr(structure.getColumnName(i));
@@ -194,6 +205,17 @@ public final class TableUtils {
         return getPartitionTableIndexOffset(symbolWriterCount, removedPartitionsCount);
     }
 
+    /**
+     * SYMBOL columns are indexed by bitmap index, INT and LONG by range index,
+     * STRING and LONG256 by bloom index.
+     *
+     * @param columnType column type
+     * @return true when column of this type can have index flag set
+     */
+    public static boolean isIndexable(int columnType) {
+        return columnType == ColumnType.SYMBOL || RangeIndexUtils.isSupported(columnType) || BloomIndexUtils.isSupported(columnType);
+    }
+
     public static long lock(FilesFacade ff, Path path) {
         long fd = ff.openRW(path);
         if (fd == -1) {
@@ -283,8 +305,8 @@ public final class TableUtils {
                 }
 
                 if (isColumnIndexed(metaMem, i)) {
-                    if (type != ColumnType.SYMBOL) {
-                        throw validationException(metaMem).put("Index flag is only supported for SYMBOL").put(" at [").put(i).put(']');
+                    if (!isIndexable(type)) {
+                        throw validationException(metaMem).put("Index flag is only supported for SYMBOL, INT, LONG, STRING and LONG256").put(" at [").put(i).put(']');
                     }
 
                     if (getIndexBlockCapacity(metaMem, i) < 2) {
@@ -306,6 +328,14 @@ public final class TableUtils {
                 }
                 offset += ReadOnlyMemory.getStorageLength(name);
             }
+
+            // validate dedup key attributes once we know column count is consistent with file size
+            for (int i = 0; i < columnCount; i++) {
+                final int type = getColumnType(metaMem, i);
+                if (isColumnDedupKey(metaMem, i) && type != ColumnType.SYMBOL && type != ColumnType.TIMESTAMP) {
+                    throw validationException(metaMem).put("Dedup key flag is only supported for SYMBOL and TIMESTAMP").put(" at [").put(i).put(']');
+                }
+            }
         } catch (CairoException e) {
             nameIndex.clear();
             throw e;
@@ -384,6 +414,10 @@ public final class TableUtils {
         return metaMem.getInt(META_OFFSET_COLUMN_TYPES + columnIndex * META_COLUMN_DATA_SIZE + 2);
     }
 
+    static boolean isColumnDedupKey(ReadOnlyMemory metaMem, int columnIndex) {
+        return metaMem.getBool(META_OFFSET_COLUMN_TYPES + columnIndex * META_COLUMN_DATA_SIZE + 6);
+    }
+
     static int openMetaSwapFile(FilesFacade ff, AppendMemory mem, Path path, int rootLen, int retryCount) {
         try {
             path.concat(META_SWAP_FILE_NAME).$();
@@ -419,6 +453,8 @@ public final class TableUtils {
                 return "truncate";
             case TODO_RESTORE_META:
                 return "restore meta";
+            case TODO_COMMIT_COPY:
+                return "commit copy";
             default:
                 // really impossible to happen, but we keep this line to comply with Murphy's law.
                 return "unknown";
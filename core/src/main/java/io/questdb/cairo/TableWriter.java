@@ -24,6 +24,9 @@
 
 package io.questdb.cairo;
 
+import io.questdb.cairo.map.FastMap;
+import io.questdb.cairo.map.MapKey;
+import io.questdb.cairo.map.MapValue;
 import io.questdb.cairo.sql.RecordMetadata;
 import io.questdb.cairo.sql.SymbolTable;
 import io.questdb.log.Log;
@@ -54,6 +57,8 @@ public class TableWriter implements Closeable {
     };
     private final static RemoveFileLambda REMOVE_OR_LOG = TableWriter::removeFileAndOrLog;
     private final static RemoveFileLambda REMOVE_OR_EXCEPTION = TableWriter::removeOrException;
+    private static final ArrayColumnTypes DEDUP_VALUE_TYPES = new ArrayColumnTypes().add(ColumnType.LONG);
+    private static final long COPY_BUFFER_SIZE = 1024 * 1024;
     final ObjList<AppendMemory> columns;
     private final ObjList<SymbolMapWriter> symbolMapWriters;
     private final ObjList<SymbolMapWriter> denseSymbolMapWriters;
@@ -91,6 +96,9 @@ public class TableWriter implements Closeable {
     private final TableReader.TimestampFloorMethod timestampFloorMethod;
     private final TableReader.PartitionTimestampCalculatorMethod nextTimestampMethod;
     private final int defaultCommitMode;
+    private final IntList dedupKeyColumns = new IntList();
+    private final IntList dedupRowKeys = new IntList();
+    private final ArrayColumnTypes dedupKeyTypes = new ArrayColumnTypes();
     private int txPartitionCount = 0;
     private long lockFd;
     private LongConsumer timestampSetter;
@@ -110,7 +118,7 @@ public class TableWriter implements Closeable {
     private long transientRowCount = 0;
     private long masterRef = 0;
     private boolean removeDirOnCancelRow = true;
-    private long tempMem8b = Unsafe.malloc(8);
+    private long tempMem8b = Unsafe.malloc(8, MemoryTag.NATIVE_INGEST);
     private int metaSwapIndex;
     private int metaPrevIndex;
     private final FragileCode RECOVER_FROM_TODO_WRITE_FAILURE = this::recoverFrommTodoWriteFailure;
@@ -121,6 +129,15 @@ public class TableWriter implements Closeable {
     private boolean performRecovery;
     private boolean distressed = false;
     private LifecycleManager lifecycleManager;
+    // rows of the last partition, which share timestamp with the row being appended, keyed by dedup key values
+    private FastMap dedupMap;
+    private boolean dedupMapValid = false;
+    private long dedupTimestamp = Long.MIN_VALUE;
+    private int dedupTimestampIndex = -1;
+    private long dedupTempMem = 0;
+    private long dedupRewriteLo = Long.MAX_VALUE;
+    // timestamp of partition, which writer has switched to private copy of, see copyPartition()
+    private long copyPartitionTimestamp = Long.MIN_VALUE;
 
     public TableWriter(CairoConfiguration configuration, CharSequence name) {
         this(configuration, name, null);
@@ -168,6 +185,7 @@ public class TableWriter implements Closeable {
                         repairTruncate();
                         break;
                     case TODO_RESTORE_META:
+                    case TODO_COMMIT_COPY:
                         break;
                     default:
                         LOG.error().$("ignoring unknown *todo* [code=").$(todo).$(']').$();
@@ -177,7 +195,7 @@ public class TableWriter implements Closeable {
 
             this.columnCount = metadata.getColumnCount();
             this.partitionBy = metaMem.getInt(META_OFFSET_PARTITION_BY);
-            this.txPendingPartitionSizes = new VirtualMemory(ff.getPageSize());
+            this.txPendingPartitionSizes = new VirtualMemory(ff.getPageSize(), MemoryTag.NATIVE_INGEST);
             this.refs.extendAndSet(columnCount, 0);
             this.columns = new ObjList<>(columnCount * 2);
             this.symbolMapWriters = new ObjList<>(columnCount);
@@ -211,7 +229,14 @@ public class TableWriter implements Closeable {
 
             configureColumnMemory();
             timestampSetter = configureTimestampSetter();
+            configureDedup();
             configureAppendPosition();
+            // copy commit is repaired with partition open
+            if (todo != -1L && (int) (todo & 0xff) == TODO_COMMIT_COPY) {
+                repairCommitCopy(todo >> 8);
+            } else {
+                removeCopy();
+            }
             purgeUnusedPartitions();
             loadRemovedPartitions();
         } catch (CairoException e) {
@@ -313,6 +338,10 @@ public class TableWriter implements Closeable {
         if (type == ColumnType.SYMBOL) {
             try {
                 createSymbolMapWriter(name, symbolCapacity, symbolCacheFlag);
+                if (size() > 0) {
+                    // existing rows read as null
+                    symbolMapWriters.getQuick(columnCount).updateNullFlag();
+                }
             } catch (CairoException e) {
                 runFragile(RECOVER_FROM_SYMBOL_MAP_WRITER_FAILURE, name, e);
             }
@@ -334,7 +363,7 @@ public class TableWriter implements Closeable {
         // create column files
         if (transientRowCount > 0 || partitionBy == PartitionBy.NONE) {
             try {
-                openNewColumnFiles(name, indexFlag, indexValueBlockCapacity);
+                openNewColumnFiles(name, type, indexFlag, indexValueBlockCapacity);
             } catch (CairoException e) {
                 runFragile(RECOVER_FROM_COLUMN_OPEN_FAILURE, name, e);
             }
@@ -355,6 +384,8 @@ public class TableWriter implements Closeable {
 
         metadata.addColumn(name, type, indexFlag, indexValueBlockCapacity);
 
+        configureDedup();
+
         LOG.info().$("ADDED column '").utf8(name).$('[').$(ColumnType.nameOf(type)).$("]' to ").$(path).$();
     }
 
@@ -391,10 +422,26 @@ public class TableWriter implements Closeable {
 
             updateIndexes();
 
+            final boolean copy = copyPartitionTimestamp != Long.MIN_VALUE;
+            if (copy) {
+                // copied files replace originals ahead of _txn, should we die in between
+                // _todo tells next writer to restore committed rows
+                writeTodo(((txn + 1) << 8) | TODO_COMMIT_COPY);
+                try {
+                    publishCopy();
+                } catch (CairoException e) {
+                    throwDistressException(e);
+                }
+            }
+
             txMem.putLong(TX_OFFSET_TXN, ++txn);
             Unsafe.getUnsafe().storeFence();
 
             txMem.putLong(TX_OFFSET_TRANSIENT_ROW_COUNT, transientRowCount);
+            if (copy) {
+                // readers have to re-open partition files
+                txMem.putLong(TX_OFFSET_DATA_VERSION, ++dataVersion);
+            }
 
             if (txPartitionCount > 1) {
                 commitPendingPartitions();
@@ -420,6 +467,16 @@ public class TableWriter implements Closeable {
                 txMem.sync(0, commitMode == CommitMode.ASYNC);
             }
             txPrevTransientRowCount = transientRowCount;
+            dedupRewriteLo = Long.MAX_VALUE;
+            if (copy) {
+                copyPartitionTimestamp = Long.MIN_VALUE;
+                removeCopy();
+                try {
+                    removeTodoFile();
+                } catch (CairoException err) {
+                    throwDistressException(err);
+                }
+            }
         }
     }
 
@@ -452,7 +509,7 @@ public class TableWriter implements Closeable {
     }
 
     public boolean inTransaction() {
-        return txPartitionCount > 1 || transientRowCount != txPrevTransientRowCount;
+        return txPartitionCount > 1 || transientRowCount != txPrevTransientRowCount || copyPartitionTimestamp != Long.MIN_VALUE;
     }
 
     public boolean isOpen() {
@@ -558,6 +615,8 @@ public class TableWriter implements Closeable {
 
         metadata.removeColumn(name);
 
+        configureDedup();
+
         LOG.info().$("REMOVED column '").utf8(name).$("' from ").$(path).$();
     }
 
@@ -662,6 +721,11 @@ public class TableWriter implements Closeable {
             configureAppendPosition();
             rollbackIndexes();
             purgeUnusedPartitions();
+            if (copyPartitionTimestamp != Long.MIN_VALUE) {
+                copyPartitionTimestamp = Long.MIN_VALUE;
+                dedupRewriteLo = Long.MAX_VALUE;
+                removeCopy();
+            }
             LOG.info().$("tx rollback complete [name=").$(name).$(']').$();
         }
     }
@@ -697,6 +761,11 @@ public class TableWriter implements Closeable {
             return;
         }
 
+        if (copyPartitionTimestamp != Long.MIN_VALUE) {
+            // columns point at partition copy, original files are the ones to truncate
+            rollback();
+        }
+
         writeTodo(TODO_TRUNCATE);
         for (int i = 0; i < columnCount; i++) {
             getPrimaryColumn(i).truncate();
@@ -726,6 +795,7 @@ public class TableWriter implements Closeable {
         fixedRowCount = 0;
         txn++;
         txPartitionCount = 1;
+        dedupMapValid = false;
 
         resetTxn(txMem, metadata.getSymbolMapCount(), txn, ++dataVersion);
         try {
@@ -766,6 +836,16 @@ public class TableWriter implements Closeable {
         return getPrimaryColumnIndex(index) + 1;
     }
 
+    private static ColumnIndexer newColumnIndexer(int type) {
+        if (RangeIndexUtils.isSupported(type)) {
+            return new RangeColumnIndexer(type);
+        }
+        if (BloomIndexUtils.isSupported(type)) {
+            return new BloomColumnIndexer(type);
+        }
+        return new SymbolColumnIndexer();
+    }
+
     private static void setColumnSize(FilesFacade ff, AppendMemory mem1, AppendMemory mem2, int type, long actualPosition, long buf) {
         long offset;
         long len;
@@ -871,7 +951,8 @@ public class TableWriter implements Closeable {
             ddlMem.putByte((byte) type);
             ddlMem.putBool(indexFlag);
             ddlMem.putInt(indexValueBlockCapacity);
-            ddlMem.skip(10);
+            ddlMem.putBool(false);
+            ddlMem.skip(9);
 
             long nameOffset = getColumnNameOffset(columnCount);
             for (int i = 0; i < columnCount; i++) {
@@ -1043,6 +1124,7 @@ public class TableWriter implements Closeable {
         this.structureVersion = txMem.getLong(TX_OFFSET_STRUCT_VERSION);
         this.prevMaxTimestamp = this.maxTimestamp;
         this.prevMinTimestamp = this.minTimestamp;
+        this.dedupMapValid = false;
         if (this.maxTimestamp > Long.MIN_VALUE || partitionBy == PartitionBy.NONE) {
             openFirstPartition(this.maxTimestamp);
             if (partitionBy == PartitionBy.NONE) {
@@ -1067,11 +1149,13 @@ public class TableWriter implements Closeable {
                 secondary = null;
                 break;
         }
+        // symbol map writer of column is created before column memory
+        final SymbolMapWriter symbolMapWriter = type == ColumnType.SYMBOL ? symbolMapWriters.getQuick(columns.size() / 2) : null;
         columns.add(primary);
         columns.add(secondary);
-        configureNuller(type, primary, secondary);
+        configureNuller(type, primary, secondary, symbolMapWriter);
         if (indexFlag) {
-            indexers.extendAndSet((columns.size() - 1) / 2, new SymbolColumnIndexer());
+            indexers.extendAndSet((columns.size() - 1) / 2, newColumnIndexer(type));
             populateDenseIndexerList();
         }
         refs.add(0);
@@ -1083,7 +1167,6 @@ public class TableWriter implements Closeable {
         this.symbolMapWriters.setPos(columnCount);
         for (int i = 0; i < columnCount; i++) {
             int type = metadata.getColumnType(i);
-            configureColumn(type, metadata.isColumnIndexed(i));
 
             if (type == ColumnType.SYMBOL) {
                 assert nextSymbolCountOffset < getSymbolWriterIndexOffset(expectedMapWriters);
@@ -1094,14 +1177,45 @@ public class TableWriter implements Closeable {
                 nextSymbolCountOffset += 4;
             }
 
-            if (metadata.isColumnIndexed(i)) {
-                indexers.extendAndSet(i, new SymbolColumnIndexer());
-            }
+            configureColumn(type, metadata.isColumnIndexed(i));
         }
         populateDenseIndexerList();
     }
 
-    private void configureNuller(int type, AppendMemory mem1, AppendMemory mem2) {
+    private void configureDedup() {
+        dedupKeyColumns.clear();
+        dedupMap = Misc.free(dedupMap);
+        dedupMapValid = false;
+
+        // writer metadata does not shift timestamp index when columns are removed, _meta is the source of truth
+        final int timestampIndex = metaMem.getInt(META_OFFSET_TIMESTAMP_INDEX);
+        if (timestampIndex != -1 && isColumnDedupKey(metaMem, timestampIndex)) {
+            dedupTimestampIndex = timestampIndex;
+            // rows are matched within single timestamp value, timestamp is part of the key to keep map key non-empty
+            dedupKeyTypes.reset().add(ColumnType.TIMESTAMP);
+            for (int i = 0; i < columnCount; i++) {
+                if (i != timestampIndex && isColumnDedupKey(metaMem, i) && metadata.getColumnType(i) == ColumnType.SYMBOL) {
+                    dedupKeyColumns.add(i);
+                    dedupKeyTypes.add(ColumnType.INT);
+                }
+            }
+            dedupRowKeys.setAll(columnCount, SymbolTable.VALUE_IS_NULL);
+            dedupMap = new FastMap(
+                    (int) ff.getPageSize(),
+                    dedupKeyTypes,
+                    DEDUP_VALUE_TYPES,
+                    configuration.getSqlMapKeyCapacity(),
+                    configuration.getSqlFastMapLoadFactor(),
+                    MemoryTag.NATIVE_INGEST
+            );
+            if (dedupTempMem == 0) {
+                dedupTempMem = Unsafe.malloc(Long256.BYTES, MemoryTag.NATIVE_INGEST);
+            }
+            LOG.info().$("dedup enabled [table=").utf8(name).$(", keyCount=").$(dedupKeyColumns.size()).$(']').$();
+        }
+    }
+
+    private void configureNuller(int type, AppendMemory mem1, AppendMemory mem2, SymbolMapWriter symbolMapWriter) {
         switch (type) {
             case ColumnType.BOOLEAN:
             case ColumnType.BYTE:
@@ -1134,7 +1248,10 @@ public class TableWriter implements Closeable {
                 nullers.add(() -> mem2.putLong(mem1.putNullStr()));
                 break;
             case ColumnType.SYMBOL:
-                nullers.add(() -> mem1.putInt(SymbolTable.VALUE_IS_NULL));
+                nullers.add(() -> {
+                    mem1.putInt(SymbolTable.VALUE_IS_NULL);
+                    symbolMapWriter.updateNullFlag();
+                });
                 break;
             case ColumnType.BINARY:
                 nullers.add(() -> mem2.putLong(mem1.putNullBin()));
@@ -1155,18 +1272,144 @@ public class TableWriter implements Closeable {
         }
     }
 
+    private void copyColumnBytes(AppendMemory mem, long srcOffset, long dstOffset, int len) {
+        readBytes(ff, mem, dedupTempMem, len, srcOffset, "Cannot read row, fd=");
+        if (ff.write(mem.getFd(), dedupTempMem, len, dstOffset) != len) {
+            throw CairoException.instance(ff.errno()).put("Cannot write row, fd=").put(mem.getFd()).put(", offset=").put(dstOffset);
+        }
+    }
+
+    private void copyBytes(long buf, long srcFd, long srcOffset, long dstFd, long dstOffset, long len) {
+        while (len > 0) {
+            final long n = Math.min(len, COPY_BUFFER_SIZE);
+            if (ff.read(srcFd, buf, n, srcOffset) != n) {
+                throw CairoException.instance(ff.errno()).put("Cannot read, fd=").put(srcFd).put(", offset=").put(srcOffset);
+            }
+            if (ff.write(dstFd, buf, n, dstOffset) != n) {
+                throw CairoException.instance(ff.errno()).put("Cannot write, fd=").put(dstFd).put(", offset=").put(dstOffset);
+            }
+            srcOffset += n;
+            dstOffset += n;
+            len -= n;
+        }
+    }
+
+    private void copyFile(long buf, LPSZ from, LPSZ to, long len) {
+        final long srcFd = ff.openRO(from);
+        if (srcFd == -1) {
+            throw CairoException.instance(ff.errno()).put("Cannot open: ").put(from);
+        }
+        try {
+            final long dstFd = ff.openRW(to);
+            if (dstFd == -1) {
+                throw CairoException.instance(ff.errno()).put("Cannot open: ").put(to);
+            }
+            try {
+                copyBytes(buf, srcFd, 0, dstFd, 0, len == -1 ? ff.length(srcFd) : len);
+            } finally {
+                ff.close(dstFd);
+            }
+        } finally {
+            ff.close(srcFd);
+        }
+    }
+
+    private void copyIndexFile(long buf, LPSZ from, LPSZ to) {
+        if (ff.exists(from)) {
+            copyFile(buf, from, to, -1);
+        }
+    }
+
+    /**
+     * Copies column and index files of the last partition into private directory and switches columns and
+     * indexers over to the copy, where deduplication can replace committed rows. Commit renames copied files
+     * over the originals, rollback removes the copy. Committed rows deduplication can replace are the ones that
+     * share the last committed timestamp. They are saved to undo file first, which lets next writer restore them
+     * should this one die after originals have been replaced but before _txn is written.
+     */
+    private void copyPartition() {
+        final long rowHi = txPrevTransientRowCount;
+        final long rowLo = findTailLo(rowHi);
+        final long buf = Unsafe.malloc(COPY_BUFFER_SIZE, MemoryTag.NATIVE_INGEST);
+        try {
+            setStateForTimestamp(maxTimestamp, false);
+            final int plen = path.length();
+            other.concat(COPY_DIR_NAME);
+            final int olen = other.length();
+            try {
+                if (ff.mkdirs(other.put(Files.SEPARATOR).$(), mkDirMode) != 0) {
+                    throw CairoException.instance(ff.errno()).put("Cannot create directory: ").put(other);
+                }
+                writeCopyUndo(buf, other.trimTo(olen).concat(COPY_UNDO_FILE_NAME).$(), rowLo, rowHi);
+
+                for (int i = 0; i < columnCount; i++) {
+                    final CharSequence name = metadata.getColumnName(i);
+                    copyFile(buf, dFile(path.trimTo(plen), name), dFile(other.trimTo(olen), name), getPrimaryColumn(i).getAppendOffset());
+                    final AppendMemory mem2 = getSecondaryColumn(i);
+                    if (mem2 != null) {
+                        copyFile(buf, iFile(path.trimTo(plen), name), iFile(other.trimTo(olen), name), mem2.getAppendOffset());
+                    }
+                    if (metadata.isColumnIndexed(i)) {
+                        copyIndexFile(buf, BitmapIndexUtils.keyFileName(path.trimTo(plen), name), BitmapIndexUtils.keyFileName(other.trimTo(olen), name));
+                        copyIndexFile(buf, BitmapIndexUtils.valueFileName(path.trimTo(plen), name), BitmapIndexUtils.valueFileName(other.trimTo(olen), name));
+                        copyIndexFile(buf, RangeIndexUtils.keyFileName(path.trimTo(plen), name), RangeIndexUtils.keyFileName(other.trimTo(olen), name));
+                        copyIndexFile(buf, RangeIndexUtils.valueFileName(path.trimTo(plen), name), RangeIndexUtils.valueFileName(other.trimTo(olen), name));
+                        copyIndexFile(buf, BloomIndexUtils.keyFileName(path.trimTo(plen), name), BloomIndexUtils.keyFileName(other.trimTo(olen), name));
+                        copyIndexFile(buf, BloomIndexUtils.valueFileName(path.trimTo(plen), name), BloomIndexUtils.valueFileName(other.trimTo(olen), name));
+                    }
+                }
+            } catch (CairoException e) {
+                path.trimTo(rootLen);
+                removeCopy();
+                throw e;
+            }
+
+            try {
+                path.trimTo(rootLen).concat(COPY_DIR_NAME);
+                final int clen = path.length();
+                for (int i = 0; i < columnCount; i++) {
+                    final CharSequence name = metadata.getColumnName(i);
+                    openColumnFiles(name, i, clen);
+                    final ColumnIndexer indexer = indexers.getQuick(i);
+                    if (indexer != null) {
+                        indexer.of(configuration, path.trimTo(clen), name, getPrimaryColumn(i), getSecondaryColumn(i), columnTops.getQuick(i));
+                    }
+                }
+                // row being appended is not counted yet
+                setAppendPosition(transientRowCount + 1);
+            } catch (CairoException e) {
+                throwDistressException(e);
+            }
+            copyPartitionTimestamp = maxTimestamp;
+            LOG.info().$("copied partition [path=").$(path).$(", rowLo=").$(rowLo).$(", rowHi=").$(rowHi).$(']').$();
+        } finally {
+            Unsafe.free(buf, COPY_BUFFER_SIZE, MemoryTag.NATIVE_INGEST);
+            path.trimTo(rootLen);
+            other.trimTo(rootLen);
+        }
+    }
+
     /**
      * Creates bitmap index files for a column. This method uses primary column instance as temporary tool to
      * append index data. Therefore it must be called before primary column is initialized.
      *
      * @param columnName              column name
      * @param columnIndex             column index in table writer column list
+     * @param columnType              column type, INT and LONG columns get range index, STRING and LONG256 get bloom index
      * @param indexValueBlockCapacity approximate number of values per index key
      * @param plen                    path length. This is used to trim shared path object to.
      */
-    private void createIndexFiles(CharSequence columnName, int columnIndex, int indexValueBlockCapacity, int plen, boolean force) {
+    private void createIndexFiles(CharSequence columnName, int columnIndex, int columnType, int indexValueBlockCapacity, int plen, boolean force) {
         try {
-            BitmapIndexUtils.keyFileName(path.trimTo(plen), columnName);
+            final boolean rangeIndex = RangeIndexUtils.isSupported(columnType);
+            final boolean bloomIndex = BloomIndexUtils.isSupported(columnType);
+            if (rangeIndex) {
+                RangeIndexUtils.keyFileName(path.trimTo(plen), columnName);
+            } else if (bloomIndex) {
+                BloomIndexUtils.keyFileName(path.trimTo(plen), columnName);
+            } else {
+                BitmapIndexUtils.keyFileName(path.trimTo(plen), columnName);
+            }
 
             if (!force && ff.exists(path)) {
                 return;
@@ -1175,7 +1418,13 @@ public class TableWriter implements Closeable {
             // reuse memory column object to create index and close it at the end
             try (AppendMemory mem = getPrimaryColumn(columnIndex)) {
                 mem.of(ff, path, ff.getPageSize());
-                BitmapIndexWriter.initKeyMemory(mem, indexValueBlockCapacity);
+                if (rangeIndex) {
+                    RangeIndexWriter.initKeyMemory(mem);
+                } else if (bloomIndex) {
+                    BloomIndexWriter.initKeyMemory(mem);
+                } else {
+                    BitmapIndexWriter.initKeyMemory(mem, indexValueBlockCapacity);
+                }
             } catch (CairoException e) {
                 // looks like we could not create key file properly
                 // lets not leave half baked file sitting around
@@ -1185,7 +1434,13 @@ public class TableWriter implements Closeable {
                 }
                 throw e;
             }
-            ff.touch(BitmapIndexUtils.valueFileName(path.trimTo(plen), columnName));
+            if (rangeIndex) {
+                ff.touch(RangeIndexUtils.valueFileName(path.trimTo(plen), columnName));
+            } else if (bloomIndex) {
+                ff.touch(BloomIndexUtils.valueFileName(path.trimTo(plen), columnName));
+            } else {
+                ff.touch(BitmapIndexUtils.valueFileName(path.trimTo(plen), columnName));
+            }
         } finally {
             path.trimTo(plen);
         }
@@ -1198,16 +1453,80 @@ public class TableWriter implements Closeable {
         symbolMapWriters.extendAndSet(columnCount, w);
     }
 
+    /**
+     * Matches row being appended against rows of the last partition that have the same timestamp. Rows are
+     * appended in timestamp order, so these are the only rows new row can duplicate. Duplicate is replaced
+     * with the new row whether it is committed or not. Uncommitted rows are replaced in place. Before the first
+     * committed row is replaced writer switches to private copy of the partition, see copyPartition(), so that
+     * readers keep seeing committed rows until commit.
+     *
+     * @return true when row has been consumed by deduplication and must not be counted
+     */
+    private boolean dedupRow() {
+        if (!dedupMapValid) {
+            dedupMap.clear();
+            loadDedupMap();
+            dedupTimestamp = maxTimestamp;
+            dedupMapValid = true;
+        } else if (dedupTimestamp != maxTimestamp) {
+            dedupMap.clear();
+            dedupTimestamp = maxTimestamp;
+        }
+
+        MapKey key = dedupMap.withKey();
+        key.putLong(maxTimestamp);
+        for (int i = 0, n = dedupKeyColumns.size(); i < n; i++) {
+            final int columnIndex = dedupKeyColumns.getQuick(i);
+            key.putInt(refs.getQuick(columnIndex) == masterRef ? dedupRowKeys.getQuick(columnIndex) : SymbolTable.VALUE_IS_NULL);
+        }
+
+        final MapValue value = key.createValue();
+        if (value.isNew()) {
+            value.putLong(0, transientRowCount);
+            return false;
+        }
+
+        // Variable length values of the new row are at the end of data files. To keep them
+        // there new row becomes last row and the last row takes place of the duplicate.
+        final long duplicateRow = value.getLong(0);
+        final long lastRow = transientRowCount - 1;
+        final long committedRowCount = txPartitionCount == 1 ? txPrevTransientRowCount : 0;
+        final long rewriteLo = Math.min(duplicateRow, lastRow);
+        if (rewriteLo < committedRowCount) {
+            if (copyPartitionTimestamp == Long.MIN_VALUE) {
+                copyPartition();
+            }
+            dedupRewriteLo = Math.min(dedupRewriteLo, rewriteLo);
+        }
+        value.putLong(0, lastRow);
+        if (duplicateRow < lastRow) {
+            moveRow(lastRow, duplicateRow);
+            key = dedupMap.withKey();
+            putDedupKey(key, duplicateRow);
+            key.findValue().putLong(0, duplicateRow);
+        }
+        moveRow(transientRowCount, lastRow);
+
+        // drop the row we've just appended
+        setAppendPosition(transientRowCount);
+        masterRef++;
+        return true;
+    }
+
     private void doClose(boolean truncate) {
         boolean tx = inTransaction();
         freeColumns(truncate);
         freeSymbolMapWriters();
         freeIndexers();
+        if (copyPartitionTimestamp != Long.MIN_VALUE && !distressed) {
+            removeCopy();
+        }
         try {
             freeTxMem();
         } finally {
             Misc.free(metaMem);
             Misc.free(txPendingPartitionSizes);
+            dedupMap = Misc.free(dedupMap);
             Misc.free(ddlMem);
             Misc.free(other);
             try {
@@ -1220,6 +1539,25 @@ public class TableWriter implements Closeable {
         }
     }
 
+    /**
+     * @param rowHi number of committed rows in the last partition
+     * @return first committed row, which shares timestamp with the row being appended
+     */
+    private long findTailLo(long rowHi) {
+        final long top = getDedupRowLo();
+        final long timestampTop = columnTops.getQuick(dedupTimestampIndex);
+        final AppendMemory timestampColumn = getPrimaryColumn(dedupTimestampIndex);
+        long row = rowHi;
+        while (row > top) {
+            readBytes(ff, timestampColumn, dedupTempMem, Long.BYTES, (row - 1 - timestampTop) * Long.BYTES, "Cannot read timestamp, fd=");
+            if (Unsafe.getUnsafe().getLong(dedupTempMem) != maxTimestamp) {
+                break;
+            }
+            row--;
+        }
+        return row;
+    }
+
     private void freeColumns(boolean truncate) {
         if (columns != null) {
             for (int i = 0, n = columns.size(); i < n; i++) {
@@ -1256,9 +1594,14 @@ public class TableWriter implements Closeable {
 
     private void freeTempMem() {
         if (tempMem8b != 0) {
-            Unsafe.free(tempMem8b, 8);
+            Unsafe.free(tempMem8b, 8, MemoryTag.NATIVE_INGEST);
             tempMem8b = 0;
         }
+
+        if (dedupTempMem != 0) {
+            Unsafe.free(dedupTempMem, Long256.BYTES, MemoryTag.NATIVE_INGEST);
+            dedupTempMem = 0;
+        }
     }
 
     private void freeTxMem() {
@@ -1289,7 +1632,7 @@ public class TableWriter implements Closeable {
                         throw CairoException.instance(Os.errno()).put("could not open [file=").put(path).put(']');
                     }
                     try {
-                        long buf = Unsafe.malloc(Long.BYTES);
+                        long buf = Unsafe.malloc(Long.BYTES, MemoryTag.NATIVE_INGEST);
                         try {
                             long n = ff.read(fd, buf, Long.BYTES, 0);
                             if (n != Long.BYTES) {
@@ -1297,7 +1640,7 @@ public class TableWriter implements Closeable {
                             }
                             nextMinTimestamp = Unsafe.getUnsafe().getLong(buf);
                         } finally {
-                            Unsafe.free(buf, Long.BYTES);
+                            Unsafe.free(buf, Long.BYTES, MemoryTag.NATIVE_INGEST);
                         }
                     } finally {
                         ff.close(fd);
@@ -1335,10 +1678,41 @@ public class TableWriter implements Closeable {
         return txPartitionCount;
     }
 
+    private long getDedupRowLo() {
+        // rows written before a column was added have no storage for values of that column and cannot be replaced
+        long top = 0;
+        for (int i = 0; i < columnCount; i++) {
+            top = Math.max(top, columnTops.getQuick(i));
+        }
+        return top;
+    }
+
     boolean isSymbolMapWriterCached(int columnIndex) {
         return symbolMapWriters.getQuick(columnIndex).isCached();
     }
 
+    private void loadDedupMap() {
+        final int timestampIndex = dedupTimestampIndex;
+        final AppendMemory timestampColumn = getPrimaryColumn(timestampIndex);
+        final long top = getDedupRowLo();
+        final long timestampTop = columnTops.getQuick(timestampIndex);
+        for (long row = transientRowCount - 1; row >= top; row--) {
+            readBytes(ff, timestampColumn, dedupTempMem, Long.BYTES, (row - timestampTop) * Long.BYTES, "Cannot read timestamp, fd=");
+            if (Unsafe.getUnsafe().getLong(dedupTempMem) != maxTimestamp) {
+                break;
+            }
+
+            final MapKey key = dedupMap.withKey();
+            putDedupKey(key, row);
+            final MapValue value = key.createValue();
+            // we are going backwards, keep the latest of rows that duplicate each other
+            if (value.isNew()) {
+                value.putLong(0, row);
+            }
+        }
+        LOG.info().$("loaded dedup keys [table=").utf8(name).$(", count=").$(dedupMap.size()).$(']').$();
+    }
+
     private void loadRemovedPartitions() {
         int symbolWriterCount = denseSymbolMapWriters.size();
         int partitionTableSize = txMem.getInt(getPartitionTableSizeOffset(symbolWriterCount));
@@ -1364,6 +1738,29 @@ public class TableWriter implements Closeable {
         }
     }
 
+    private void moveRow(long fromRow, long toRow) {
+        for (int i = 0; i < columnCount; i++) {
+            // rows being moved share timestamp value
+            if (i == dedupTimestampIndex) {
+                continue;
+            }
+
+            final long top = columnTops.getQuick(i);
+            final int type = metadata.getColumnType(i);
+            switch (type) {
+                case ColumnType.STRING:
+                case ColumnType.BINARY:
+                    // data stays where it is, row only needs to reference it
+                    copyColumnBytes(getSecondaryColumn(i), (fromRow - top) * Long.BYTES, (toRow - top) * Long.BYTES, Long.BYTES);
+                    break;
+                default:
+                    final int size = ColumnType.sizeOf(type);
+                    copyColumnBytes(getPrimaryColumn(i), (fromRow - top) * size, (toRow - top) * size, size);
+                    break;
+            }
+        }
+    }
+
     private long openAppend(LPSZ name) {
         long fd = ff.openAppend(name);
         if (fd == -1) {
@@ -1403,7 +1800,7 @@ public class TableWriter implements Closeable {
         }
     }
 
-    private void openNewColumnFiles(CharSequence name, boolean indexFlag, int indexValueBlockCapacity) {
+    private void openNewColumnFiles(CharSequence name, int type, boolean indexFlag, int indexValueBlockCapacity) {
         try {
             // open column files
             setStateForTimestamp(maxTimestamp, false);
@@ -1413,7 +1810,7 @@ public class TableWriter implements Closeable {
             // index must be created before column is initialised because
             // it uses primary column object as temporary tool
             if (indexFlag) {
-                createIndexFiles(name, columnIndex, indexValueBlockCapacity, plen, true);
+                createIndexFiles(name, columnIndex, type, indexValueBlockCapacity, plen, true);
             }
 
             openColumnFiles(name, columnIndex, plen);
@@ -1425,7 +1822,7 @@ public class TableWriter implements Closeable {
             if (indexFlag) {
                 ColumnIndexer indexer = indexers.getQuick(columnIndex);
                 assert indexer != null;
-                indexers.getQuick(columnIndex).of(configuration, path.trimTo(plen), name, getPrimaryColumn(columnIndex), transientRowCount);
+                indexers.getQuick(columnIndex).of(configuration, path.trimTo(plen), name, getPrimaryColumn(columnIndex), getSecondaryColumn(columnIndex), transientRowCount);
             }
 
         } finally {
@@ -1452,7 +1849,7 @@ public class TableWriter implements Closeable {
                 if (indexed) {
                     // we have to create files before columns are open
                     // because we are reusing AppendMemory object from columns list
-                    createIndexFiles(name, i, metadata.getIndexValueBlockCapacity(i), plen, transientRowCount < 1);
+                    createIndexFiles(name, i, metadata.getColumnType(i), metadata.getIndexValueBlockCapacity(i), plen, transientRowCount < 1);
                 }
 
                 openColumnFiles(name, i, plen);
@@ -1462,7 +1859,7 @@ public class TableWriter implements Closeable {
                 if (indexed) {
                     ColumnIndexer indexer = indexers.getQuick(i);
                     assert indexer != null;
-                    indexer.of(configuration, path, name, getPrimaryColumn(i), columnTop);
+                    indexer.of(configuration, path, name, getPrimaryColumn(i), getSecondaryColumn(i), columnTop);
                 }
             }
             LOG.info().$("switched partition to '").$(path).$('\'').$();
@@ -1500,12 +1897,58 @@ public class TableWriter implements Closeable {
         indexCount = denseIndexers.size();
     }
 
+    private void publishCopiedFile(LPSZ from, LPSZ to) {
+        if (ff.exists(from) && !ff.rename(from, to)) {
+            throw CairoException.instance(ff.errno()).put("Cannot rename ").put(from).put(" -> ").put(to);
+        }
+    }
+
+    private void publishCopy() {
+        try {
+            setStateForTimestamp(copyPartitionTimestamp, false);
+            final int plen = path.length();
+            other.concat(COPY_DIR_NAME);
+            final int olen = other.length();
+            for (int i = 0; i < columnCount; i++) {
+                final CharSequence name = metadata.getColumnName(i);
+                publishCopiedFile(dFile(other.trimTo(olen), name), dFile(path.trimTo(plen), name));
+                publishCopiedFile(iFile(other.trimTo(olen), name), iFile(path.trimTo(plen), name));
+                if (metadata.isColumnIndexed(i)) {
+                    publishCopiedFile(BitmapIndexUtils.keyFileName(other.trimTo(olen), name), BitmapIndexUtils.keyFileName(path.trimTo(plen), name));
+                    publishCopiedFile(BitmapIndexUtils.valueFileName(other.trimTo(olen), name), BitmapIndexUtils.valueFileName(path.trimTo(plen), name));
+                    publishCopiedFile(RangeIndexUtils.keyFileName(other.trimTo(olen), name), RangeIndexUtils.keyFileName(path.trimTo(plen), name));
+                    publishCopiedFile(RangeIndexUtils.valueFileName(other.trimTo(olen), name), RangeIndexUtils.valueFileName(path.trimTo(plen), name));
+                    publishCopiedFile(BloomIndexUtils.keyFileName(other.trimTo(olen), name), BloomIndexUtils.keyFileName(path.trimTo(plen), name));
+                    publishCopiedFile(BloomIndexUtils.valueFileName(other.trimTo(olen), name), BloomIndexUtils.valueFileName(path.trimTo(plen), name));
+                }
+            }
+            LOG.info().$("published partition copy [path=").$(path.trimTo(plen).$()).$(']').$();
+        } finally {
+            path.trimTo(rootLen);
+            other.trimTo(rootLen);
+        }
+    }
+
     private void purgeUnusedPartitions() {
         if (partitionBy != PartitionBy.NONE) {
             removePartitionDirsNewerThan(maxTimestamp);
         }
     }
 
+    private void putDedupKey(MapKey key, long row) {
+        key.putLong(maxTimestamp);
+        for (int i = 0, n = dedupKeyColumns.size(); i < n; i++) {
+            final int columnIndex = dedupKeyColumns.getQuick(i);
+            final long top = columnTops.getQuick(columnIndex);
+            if (row < top) {
+                key.putInt(SymbolTable.VALUE_IS_NULL);
+            } else {
+                readBytes(ff, getPrimaryColumn(columnIndex), dedupTempMem, Integer.BYTES, (row - top) * Integer.BYTES, "Cannot read symbol key, fd=");
+                key.putInt(Unsafe.getUnsafe().getInt(dedupTempMem));
+            }
+        }
+    }
+
     private long readTodoTaskCode() {
         try {
             if (ff.exists(path.concat(TODO_FILE_NAME).$())) {
@@ -1598,6 +2041,10 @@ public class TableWriter implements Closeable {
                     removeLambda.remove(ff, topFile(path.trimTo(plen), columnName));
                     removeLambda.remove(ff, BitmapIndexUtils.keyFileName(path.trimTo(plen), columnName));
                     removeLambda.remove(ff, BitmapIndexUtils.valueFileName(path.trimTo(plen), columnName));
+                    removeLambda.remove(ff, RangeIndexUtils.keyFileName(path.trimTo(plen), columnName));
+                    removeLambda.remove(ff, RangeIndexUtils.valueFileName(path.trimTo(plen), columnName));
+                    removeLambda.remove(ff, BloomIndexUtils.keyFileName(path.trimTo(plen), columnName));
+                    removeLambda.remove(ff, BloomIndexUtils.valueFileName(path.trimTo(plen), columnName));
                 }
             });
 
@@ -1665,6 +2112,16 @@ public class TableWriter implements Closeable {
         }
     }
 
+    private void removeCopy() {
+        try {
+            if (ff.exists(path.concat(COPY_DIR_NAME).$()) && !ff.rmdir(path.chopZ().put(Files.SEPARATOR).$())) {
+                LOG.error().$("cannot remove: ").$(path).$(" [errno=").$(ff.errno()).$(']').$();
+            }
+        } finally {
+            path.trimTo(rootLen);
+        }
+    }
+
     private void removePartitionDirectories() {
         try {
             ff.iterateDir(path.$(), (name, type) -> {
@@ -1823,6 +2280,56 @@ public class TableWriter implements Closeable {
         removeTodoFile();
     }
 
+    /**
+     * Finishes commit of partition copy that writer did not live to complete. When _txn has not been written
+     * committed rows, which copy replaced, are restored from undo file and their index values rebuilt.
+     *
+     * @param commitTxn transaction copy was committed with
+     */
+    private void repairCommitCopy(long commitTxn) {
+        if (txn < commitTxn) {
+            LOG.info().$("restoring rows of abnormally terminated copy commit on ").$(path).$();
+            final long buf = Unsafe.malloc(COPY_BUFFER_SIZE, MemoryTag.NATIVE_INGEST);
+            try {
+                final long fd = ff.openRO(path.concat(COPY_DIR_NAME).concat(COPY_UNDO_FILE_NAME).$());
+                if (fd == -1) {
+                    throw CairoException.instance(ff.errno()).put("Repair failed. Cannot open ").put(path);
+                }
+                try {
+                    long offset = 2 * Long.BYTES;
+                    if (ff.read(fd, buf, offset, 0) != offset) {
+                        throw CairoException.instance(ff.errno()).put("Repair failed. Cannot read ").put(path);
+                    }
+                    final long rowLo = Unsafe.getUnsafe().getLong(buf);
+                    final long rowHi = Unsafe.getUnsafe().getLong(buf + Long.BYTES);
+                    for (int i = 0; i < columnCount; i++) {
+                        final int type = metadata.getColumnType(i);
+                        final boolean varSize = type == ColumnType.STRING || type == ColumnType.BINARY;
+                        final int size = varSize ? Long.BYTES : ColumnType.sizeOf(type);
+                        final AppendMemory mem = varSize ? getSecondaryColumn(i) : getPrimaryColumn(i);
+                        final long len = (rowHi - rowLo) * size;
+                        copyBytes(buf, fd, offset, mem.getFd(), (rowLo - columnTops.getQuick(i)) * size, len);
+                        offset += len;
+                    }
+                    // restored offsets of variable length columns may not point where copy's did
+                    setAppendPosition(transientRowCount);
+                    for (int i = 0; i < indexCount; i++) {
+                        final ColumnIndexer indexer = denseIndexers.getQuick(i);
+                        indexer.rollback(rowLo - 1);
+                        indexer.index(rowLo, rowHi);
+                    }
+                } finally {
+                    ff.close(fd);
+                }
+            } finally {
+                Unsafe.free(buf, COPY_BUFFER_SIZE, MemoryTag.NATIVE_INGEST);
+                path.trimTo(rootLen);
+            }
+        }
+        removeCopy();
+        removeTodoFile();
+    }
+
     private void repairTruncate() {
         LOG.info().$("repairing abnormally terminated truncate on ").$(path).$();
         if (partitionBy != PartitionBy.NONE) {
@@ -1991,7 +2498,14 @@ public class TableWriter implements Closeable {
 
     private void updateIndexes() {
         if (indexCount > 0) {
-            final long lo = txPartitionCount == 1 ? txPrevTransientRowCount : 0;
+            long lo = txPartitionCount == 1 ? txPrevTransientRowCount : 0;
+            if (dedupRewriteLo < lo) {
+                // committed rows have been replaced in partition copy, its index values are stale
+                for (int i = 0; i < indexCount; i++) {
+                    denseIndexers.getQuick(i).rollback(dedupRewriteLo - 1);
+                }
+                lo = dedupRewriteLo;
+            }
             final long hi = transientRowCount;
             if (indexCount > 1 && parallelIndexerEnabled && hi - lo > configuration.getParallelIndexThreshold()) {
                 updateIndexesParallel(lo, hi);
@@ -2115,7 +2629,8 @@ public class TableWriter implements Closeable {
         ddlMem.putByte((byte) getColumnType(metaMem, i));
         ddlMem.putBool(isColumnIndexed(metaMem, i));
         ddlMem.putInt(getIndexBlockCapacity(metaMem, i));
-        ddlMem.skip(10);
+        ddlMem.putBool(isColumnDedupKey(metaMem, i));
+        ddlMem.skip(9);
     }
 
     private void writeColumnTop(CharSequence name) {
@@ -2130,6 +2645,33 @@ public class TableWriter implements Closeable {
         }
     }
 
+    private void writeCopyUndo(long buf, LPSZ name, long rowLo, long rowHi) {
+        final long fd = ff.openRW(name);
+        if (fd == -1) {
+            throw CairoException.instance(ff.errno()).put("Cannot open: ").put(name);
+        }
+        try {
+            long offset = 2 * Long.BYTES;
+            Unsafe.getUnsafe().putLong(buf, rowLo);
+            Unsafe.getUnsafe().putLong(buf + Long.BYTES, rowHi);
+            if (ff.write(fd, buf, offset, 0) != offset) {
+                throw CairoException.instance(ff.errno()).put("Cannot write ").put(name);
+            }
+            // fixed size values of committed rows, variable length values are never overwritten
+            for (int i = 0; i < columnCount; i++) {
+                final int type = metadata.getColumnType(i);
+                final boolean varSize = type == ColumnType.STRING || type == ColumnType.BINARY;
+                final int size = varSize ? Long.BYTES : ColumnType.sizeOf(type);
+                final AppendMemory mem = varSize ? getSecondaryColumn(i) : getPrimaryColumn(i);
+                final long len = (rowHi - rowLo) * size;
+                copyBytes(buf, mem.getFd(), (rowLo - columnTops.getQuick(i)) * size, fd, offset, len);
+                offset += len;
+            }
+        } finally {
+            ff.close(fd);
+        }
+    }
+
     private void writeRestoreMetaTodo(CharSequence columnName) {
         try {
             writeTodo(((long) metaPrevIndex << 8) | TODO_RESTORE_META);
@@ -2225,6 +2767,10 @@ public class TableWriter implements Closeable {
                     nullers.getQuick(i).run();
                 }
             }
+
+            if (dedupMap != null && dedupRow()) {
+                return;
+            }
             transientRowCount++;
             masterRef++;
         }
@@ -2318,7 +2864,11 @@ public class TableWriter implements Closeable {
         }
 
         public void putSym(int index, CharSequence value) {
-            getPrimaryColumn(index).putInt(symbolMapWriters.getQuick(index).put(value));
+            final int key = symbolMapWriters.getQuick(index).put(value);
+            getPrimaryColumn(index).putInt(key);
+            if (dedupMap != null) {
+                dedupRowKeys.setQuick(index, key);
+            }
             notNull(index);
         }
 
@@ -2337,5 +2887,6 @@ public class TableWriter implements Closeable {
         IGNORED_FILES.add(META_FILE_NAME);
         IGNORED_FILES.add(TXN_FILE_NAME);
         IGNORED_FILES.add(TODO_FILE_NAME);
+        IGNORED_FILES.add(COPY_DIR_NAME);
     }
 }
@@ -48,12 +48,18 @@ public class VirtualMemory implements Closeable {
     private long roOffsetLo = 0;
     private long roOffsetHi = 0;
     private long absolutePointer;
+    private int memoryTag = MemoryTag.NATIVE_DEFAULT;
 
     public VirtualMemory(long pageSize) {
         this();
         setPageSize(pageSize);
     }
 
+    public VirtualMemory(long pageSize, int memoryTag) {
+        this(pageSize);
+        this.memoryTag = memoryTag;
+    }
+
     protected VirtualMemory() {
     }
 
@@ -599,7 +605,7 @@ public class VirtualMemory implements Closeable {
     }
 
     protected long allocateNextPage(int page) {
-        return Unsafe.malloc(getMapPageSize());
+        return Unsafe.malloc(getMapPageSize(), memoryTag);
     }
 
     protected long cachePageAddress(int index, long address) {
@@ -1065,7 +1071,7 @@ public class VirtualMemory implements Closeable {
 
     protected void release(int page, long address) {
         if (address != 0) {
-            Unsafe.free(address, getPageSize(page));
+            Unsafe.free(address, getPageSize(page), memoryTag);
         }
     }
 
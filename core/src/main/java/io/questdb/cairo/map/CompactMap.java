@@ -29,6 +29,7 @@ import io.questdb.cairo.sql.Record;
 import io.questdb.cairo.sql.RecordCursor;
 import io.questdb.std.BinarySequence;
 import io.questdb.std.Long256;
+import io.questdb.std.MemoryTag;
 import io.questdb.std.Misc;
 import io.questdb.std.Numbers;
 
@@ -139,8 +140,8 @@ public class CompactMap implements Map {
     }
 
     CompactMap(int pageSize, ColumnTypes keyTypes, ColumnTypes valueTypes, long keyCapacity, double loadFactor, HashFunction hashFunction) {
-        this.entries = new VirtualMemory(pageSize);
-        this.entrySlots = new VirtualMemory(pageSize);
+        this.entries = new VirtualMemory(pageSize, MemoryTag.NATIVE_SQL);
+        this.entrySlots = new VirtualMemory(pageSize, MemoryTag.NATIVE_SQL);
         try {
             this.loadFactor = loadFactor;
             this.columnOffsets = new long[keyTypes.getColumnCount() + valueTypes.getColumnCount()];
@@ -180,6 +181,11 @@ public class CompactMap implements Map {
         return cursor;
     }
 
+    @Override
+    public long getMemUsed() {
+        return currentEntryOffset + currentEntrySize + (mask + 1) * 8;
+    }
+
     @Override
     public MapRecord getRecord() {
         return record;
@@ -42,6 +42,7 @@ public class FastMap implements Map {
     private final FastMapRecord record;
     private final int valueColumnCount;
     private final HashFunction hashFunction;
+    private final int memoryTag;
     private long capacity;
     private int keyBlockOffset;
     private int keyDataOffset;
@@ -68,7 +69,17 @@ public class FastMap implements Map {
                    int keyCapacity,
                    double loadFactor
     ) {
-        this(pageSize, keyTypes, valueTypes, keyCapacity, loadFactor, DEFAULT_HASH);
+        this(pageSize, keyTypes, valueTypes, keyCapacity, loadFactor, DEFAULT_HASH, MemoryTag.NATIVE_SQL);
+    }
+
+    public FastMap(int pageSize,
+                   @Transient @NotNull ColumnTypes keyTypes,
+                   @Transient @Nullable ColumnTypes valueTypes,
+                   int keyCapacity,
+                   double loadFactor,
+                   int memoryTag
+    ) {
+        this(pageSize, keyTypes, valueTypes, keyCapacity, loadFactor, DEFAULT_HASH, memoryTag);
     }
 
     FastMap(int pageSize,
@@ -77,20 +88,31 @@ public class FastMap implements Map {
             int keyCapacity,
             double loadFactor,
             HashFunction hashFunction
+    ) {
+        this(pageSize, keyTypes, valueTypes, keyCapacity, loadFactor, hashFunction, MemoryTag.NATIVE_SQL);
+    }
 
+    private FastMap(int pageSize,
+                    @Transient ColumnTypes keyTypes,
+                    @Transient ColumnTypes valueTypes,
+                    int keyCapacity,
+                    double loadFactor,
+                    HashFunction hashFunction,
+                    int memoryTag
     ) {
         assert pageSize > 3;
         assert loadFactor > 0 && loadFactor < 1d;
 
+        this.memoryTag = memoryTag;
         this.loadFactor = loadFactor;
-        this.kStart = kPos = Unsafe.malloc(this.capacity = pageSize);
+        this.kStart = kPos = Unsafe.malloc(this.capacity = pageSize, memoryTag);
         this.kLimit = kStart + pageSize;
 
         this.keyCapacity = (int) (keyCapacity / loadFactor);
         this.keyCapacity = this.keyCapacity < MIN_INITIAL_CAPACITY ? MIN_INITIAL_CAPACITY : Numbers.ceilPow2(this.keyCapacity);
         this.mask = this.keyCapacity - 1;
         this.free = (int) (this.keyCapacity * loadFactor);
-        this.offsets = new DirectLongList(this.keyCapacity);
+        this.offsets = new DirectLongList(this.keyCapacity, memoryTag);
         this.offsets.setPos(this.keyCapacity);
         this.offsets.zero(-1);
         this.hashFunction = hashFunction;
@@ -198,7 +220,7 @@ public class FastMap implements Map {
     public final void close() {
         offsets = Misc.free(offsets);
         if (kStart != 0) {
-            Unsafe.free(kStart, capacity);
+            Unsafe.free(kStart, capacity, memoryTag);
             kStart = 0;
         }
     }
@@ -208,6 +230,11 @@ public class FastMap implements Map {
         return cursor.init(kStart, size);
     }
 
+    @Override
+    public long getMemUsed() {
+        return kPos - kStart + (long) keyCapacity * 8;
+    }
+
     @Override
     public MapRecord getRecord() {
         return record;
@@ -301,7 +328,7 @@ public class FastMap implements Map {
     private void rehash() {
         int capacity = keyCapacity << 1;
         mask = capacity - 1;
-        DirectLongList pointers = new DirectLongList(capacity);
+        DirectLongList pointers = new DirectLongList(capacity, memoryTag);
         pointers.setPos(capacity);
         pointers.zero(-1);
 
@@ -328,7 +355,7 @@ public class FastMap implements Map {
         if (kCapacity < target) {
             kCapacity = Numbers.ceilPow2(target);
         }
-        long kAddress = Unsafe.realloc(this.kStart, this.capacity, kCapacity);
+        long kAddress = Unsafe.realloc(this.kStart, this.capacity, kCapacity, memoryTag);
 
         this.capacity = kCapacity;
         long d = kAddress - this.kStart;
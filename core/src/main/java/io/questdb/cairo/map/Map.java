@@ -35,6 +35,11 @@ public interface Map extends Mutable, Closeable {
 
     RecordCursor getCursor();
 
+    /**
+     * @return number of bytes of native memory taken by keys, values and hash slots
+     */
+    long getMemUsed();
+
     MapRecord getRecord();
 
     long size();
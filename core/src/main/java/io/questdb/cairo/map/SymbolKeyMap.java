@@ -0,0 +1,325 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo.map;
+
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.ColumnTypes;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.SymbolTable;
+import io.questdb.std.IntList;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Numbers;
+import io.questdb.std.Transient;
+import io.questdb.std.Unsafe;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.Closeable;
+
+/**
+ * Map keyed by symbol key. Symbol keys are dense ints in [0, symbolCount) so key is used as direct
+ * index into slot table, there is no hashing or key comparison. Slot table stores position of value
+ * entry, entries are allocated contiguously in order keys are first seen, which keeps cursor
+ * proportional to number of distinct keys rather than to symbol count.
+ * <p>
+ * Entry layout is value columns followed by symbol key, record columns are numbered the same way
+ * as {@link FastMap} records: values first, then key.
+ */
+public class SymbolKeyMap implements Closeable {
+    private static final int MIN_INITIAL_CAPACITY = 16;
+    private final int[] valueOffsets;
+    private final int keyOffset;
+    private final int entrySize;
+    private final FastMapValue value;
+    private final SymbolKeyMapRecord record;
+    private final SymbolKeyMapCursor cursor;
+    private long slots;
+    private int slotCapacity;
+    private long entries;
+    private int entryCapacity;
+    private int size;
+
+    public SymbolKeyMap(@Transient @NotNull ColumnTypes valueTypes, int keyCapacity) {
+        final int columnCount = valueTypes.getColumnCount();
+        this.valueOffsets = new int[columnCount + 1];
+        int offset = 0;
+        for (int i = 0; i < columnCount; i++) {
+            valueOffsets[i] = offset;
+            switch (valueTypes.getColumnType(i)) {
+                case ColumnType.BYTE:
+                case ColumnType.BOOLEAN:
+                    offset++;
+                    break;
+                case ColumnType.SHORT:
+                case ColumnType.CHAR:
+                    offset += 2;
+                    break;
+                case ColumnType.INT:
+                case ColumnType.FLOAT:
+                case ColumnType.SYMBOL:
+                    offset += 4;
+                    break;
+                case ColumnType.LONG:
+                case ColumnType.DOUBLE:
+                case ColumnType.DATE:
+                case ColumnType.TIMESTAMP:
+                    offset += 8;
+                    break;
+                default:
+                    throw CairoException.instance(0).put("value type is not supported: ").put(ColumnType.nameOf(valueTypes.getColumnType(i)));
+            }
+        }
+        this.keyOffset = valueOffsets[columnCount] = offset;
+        this.entrySize = offset + 4;
+        this.value = new FastMapValue(valueOffsets);
+        this.record = new SymbolKeyMapRecord();
+        this.cursor = new SymbolKeyMapCursor(record);
+        this.slotCapacity = Math.max(MIN_INITIAL_CAPACITY, Numbers.ceilPow2(keyCapacity));
+        this.slots = Unsafe.malloc((long) slotCapacity * 4, MemoryTag.NATIVE_SQL);
+        Unsafe.getUnsafe().setMemory(slots, (long) slotCapacity * 4, (byte) -1);
+        this.entryCapacity = MIN_INITIAL_CAPACITY;
+        this.entries = Unsafe.malloc((long) entryCapacity * entrySize, MemoryTag.NATIVE_SQL);
+        this.size = 0;
+    }
+
+    public void clear() {
+        // only slots of keys we have seen are reset, this keeps clear() independent of symbol count
+        for (int i = 0; i < size; i++) {
+            Unsafe.getUnsafe().putInt(slots + (long) toSlot(keyAt(i)) * 4, -1);
+        }
+        size = 0;
+    }
+
+    @Override
+    public void close() {
+        if (slots != 0) {
+            Unsafe.free(slots, (long) slotCapacity * 4, MemoryTag.NATIVE_SQL);
+            slots = 0;
+        }
+        if (entries != 0) {
+            Unsafe.free(entries, (long) entryCapacity * entrySize, MemoryTag.NATIVE_SQL);
+            entries = 0;
+        }
+    }
+
+    public RecordCursor getCursor() {
+        cursor.toTop();
+        return cursor;
+    }
+
+    /**
+     * Grows slot table to accommodate given number of symbol keys, this avoids incremental resizing
+     * when symbol count is known upfront.
+     *
+     * @param symbolCount number of symbol keys, excluding null
+     */
+    public void reserve(int symbolCount) {
+        if (symbolCount + 1 > slotCapacity) {
+            resizeSlots(symbolCount + 1);
+        }
+    }
+
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Finds value for symbol key, creating one when key is seen for the first time. Returned
+     * value reports {@link MapValue#isNew()} accordingly. Value instance is a flyweight and
+     * is valid until next call to this method.
+     *
+     * @param key symbol key or {@link SymbolTable#VALUE_IS_NULL}
+     * @return map value
+     */
+    public MapValue valueOf(int key) {
+        final int slot = toSlot(key);
+        if (slot >= slotCapacity) {
+            resizeSlots(slot + 1);
+        }
+
+        final long p = slots + (long) slot * 4;
+        final int position = Unsafe.getUnsafe().getInt(p);
+        if (position > -1) {
+            return value.of(entries + (long) position * entrySize, false);
+        }
+
+        if (size == entryCapacity) {
+            final int newCapacity = entryCapacity * 2;
+            entries = Unsafe.realloc(entries, (long) entryCapacity * entrySize, (long) newCapacity * entrySize, MemoryTag.NATIVE_SQL);
+            entryCapacity = newCapacity;
+        }
+        final long address = entries + (long) size * entrySize;
+        Unsafe.getUnsafe().putInt(address + keyOffset, key);
+        Unsafe.getUnsafe().putInt(p, size++);
+        return value.of(address, true);
+    }
+
+    private static int toSlot(int key) {
+        // null symbol takes slot 0
+        return key == SymbolTable.VALUE_IS_NULL ? 0 : key + 1;
+    }
+
+    private int keyAt(int position) {
+        return Unsafe.getUnsafe().getInt(entries + (long) position * entrySize + keyOffset);
+    }
+
+    private void resizeSlots(int minCapacity) {
+        final int newCapacity = Numbers.ceilPow2(minCapacity);
+        slots = Unsafe.realloc(slots, (long) slotCapacity * 4, (long) newCapacity * 4, MemoryTag.NATIVE_SQL);
+        Unsafe.getUnsafe().setMemory(slots + (long) slotCapacity * 4, (long) (newCapacity - slotCapacity) * 4, (byte) -1);
+        slotCapacity = newCapacity;
+    }
+
+    private class SymbolKeyMapRecord implements MapRecord {
+        private long address;
+        private long position;
+        private RecordCursor symbolTableResolver;
+        private IntList symbolTableIndex;
+
+        @Override
+        public boolean getBool(int columnIndex) {
+            return Unsafe.getBool(addressOfColumn(columnIndex));
+        }
+
+        @Override
+        public byte getByte(int columnIndex) {
+            return Unsafe.getUnsafe().getByte(addressOfColumn(columnIndex));
+        }
+
+        @Override
+        public double getDouble(int columnIndex) {
+            return Unsafe.getUnsafe().getDouble(addressOfColumn(columnIndex));
+        }
+
+        @Override
+        public float getFloat(int columnIndex) {
+            return Unsafe.getUnsafe().getFloat(addressOfColumn(columnIndex));
+        }
+
+        @Override
+        public int getInt(int columnIndex) {
+            return Unsafe.getUnsafe().getInt(addressOfColumn(columnIndex));
+        }
+
+        @Override
+        public long getLong(int columnIndex) {
+            return Unsafe.getUnsafe().getLong(addressOfColumn(columnIndex));
+        }
+
+        @Override
+        public long getRowId() {
+            return position;
+        }
+
+        @Override
+        public short getShort(int columnIndex) {
+            return Unsafe.getUnsafe().getShort(addressOfColumn(columnIndex));
+        }
+
+        @Override
+        public char getChar(int columnIndex) {
+            return Unsafe.getUnsafe().getChar(addressOfColumn(columnIndex));
+        }
+
+        @Override
+        public CharSequence getSym(int col) {
+            return symbolTableResolver.getSymbolTable(symbolTableIndex.getQuick(col)).value(getInt(col));
+        }
+
+        @Override
+        public MapValue getValue() {
+            return value.of(address, false);
+        }
+
+        @Override
+        public void setSymbolTableResolver(RecordCursor resolver, IntList symbolTableIndex) {
+            this.symbolTableResolver = resolver;
+            this.symbolTableIndex = symbolTableIndex;
+        }
+
+        private long addressOfColumn(int index) {
+            return address + valueOffsets[index];
+        }
+
+        private void of(long position) {
+            this.position = position;
+            this.address = entries + position * entrySize;
+        }
+    }
+
+    private class SymbolKeyMapCursor implements RecordCursor {
+        private final SymbolKeyMapRecord record;
+        private int next;
+
+        private SymbolKeyMapCursor(SymbolKeyMapRecord record) {
+            this.record = record;
+        }
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public Record getRecord() {
+            return record;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next < size) {
+                record.of(next++);
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public Record newRecord() {
+            return new SymbolKeyMapRecord();
+        }
+
+        @Override
+        public void recordAt(Record record, long atRowId) {
+            assert record instanceof SymbolKeyMapRecord;
+            ((SymbolKeyMapRecord) record).of(atRowId);
+        }
+
+        @Override
+        public void recordAt(long rowId) {
+            record.of(rowId);
+        }
+
+        @Override
+        public long size() {
+            return size;
+        }
+
+        @Override
+        public void toTop() {
+            next = 0;
+        }
+    }
+}
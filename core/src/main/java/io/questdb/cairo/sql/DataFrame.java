@@ -25,12 +25,18 @@
 package io.questdb.cairo.sql;
 
 import io.questdb.cairo.BitmapIndexReader;
+import io.questdb.cairo.BloomIndexReader;
+import io.questdb.cairo.RangeIndexReader;
 
 public interface DataFrame {
     BitmapIndexReader getBitmapIndexReader(int columnIndex, int direction);
 
+    BloomIndexReader getBloomIndexReader(int columnIndex);
+
     int getPartitionIndex();
 
+    RangeIndexReader getRangeIndexReader(int columnIndex);
+
     long getRowHi();
 
     long getRowLo();
@@ -39,6 +39,18 @@ public interface DataFrameCursor extends ImmutableIterator<DataFrame>, Closeable
 
     boolean reload();
 
+    /**
+     * Skips rows that precede the last row with designated timestamp less than or equal to given
+     * timestamp. First data frame returned afterwards starts with that row. Cursor is not moved when
+     * such row does not exist. This method is to be called when cursor is at the top.
+     *
+     * @param timestamp designated timestamp value to skip to
+     * @return false when cursor does not support skipping, it remains at the top in this case
+     */
+    default boolean skipToTimestamp(long timestamp) {
+        return false;
+    }
+
     void toTop();
 
     long size();
@@ -25,7 +25,21 @@
 package io.questdb.cairo.sql;
 
 import io.questdb.cairo.CairoSecurityContext;
+import io.questdb.griffin.Plannable;
+import io.questdb.griffin.SqlExecutionContext;
 
-public interface DataFrameCursorFactory {
+public interface DataFrameCursorFactory extends Plannable {
     DataFrameCursor getCursor(CairoSecurityContext securityContext, int timestampIndex);
+
+    /**
+     * Creates cursor in context of query execution. Factories, which depend on bind variables,
+     * resolve them from the context.
+     *
+     * @param executionContext query execution context
+     * @param timestampIndex   index of designated timestamp column
+     * @return data frame cursor
+     */
+    default DataFrameCursor getCursor(SqlExecutionContext executionContext, int timestampIndex) {
+        return getCursor(executionContext.getCairoSecurityContext(), timestampIndex);
+    }
 }
@@ -92,6 +92,28 @@ public interface Function extends Closeable {
         return false;
     }
 
+    /**
+     * Runtime constant does not change value for the lifetime of cursor, but unlike
+     * constant its value is only known after {@link #init(SymbolTableSource, SqlExecutionContext)}.
+     * Bind variables and current time functions are examples of runtime constants.
+     *
+     * @return true when function value is fixed once function is initialised
+     */
+    default boolean isRuntimeConstant() {
+        return false;
+    }
+
+    /**
+     * Thread-safe function can be evaluated by several threads at once, provided each thread
+     * passes its own record. Such function does not keep state between calls and does not
+     * return values, which are shared with other calls, such as symbol table views.
+     *
+     * @return true when function can be shared between threads
+     */
+    default boolean isThreadSafe() {
+        return false;
+    }
+
     default void toTop() {
     }
 }
@@ -30,6 +30,28 @@ public interface RecordCursor extends Closeable, SymbolTableSource {
     @Override
     void close();
 
+    /**
+     * Data frame cursor, which rows of this cursor are exactly the rows of. Consumers may read
+     * data frames directly instead of iterating this cursor, for example to split work between
+     * threads.
+     *
+     * @return data frame cursor or null when cursor rows are filtered or transformed
+     */
+    default DataFrameCursor getDataFrameCursor() {
+        return null;
+    }
+
+    /**
+     * Maps column of this cursor to column of table reader, which data frames are from.
+     *
+     * @param columnIndex column index of this cursor
+     * @return column index of table reader
+     * @see #getDataFrameCursor()
+     */
+    default int getDataFrameColumnIndex(int columnIndex) {
+        return columnIndex;
+    }
+
     Record getRecord();
 
     default SymbolTable getSymbolTable(int columnIndex) {
@@ -44,6 +66,19 @@ public interface RecordCursor extends Closeable, SymbolTableSource {
 
     void recordAt(long rowId);
 
+    /**
+     * Skips records that precede the last record with designated timestamp less than or equal to
+     * given timestamp. Cursor is not moved when such record does not exist. Records are not filtered,
+     * skipping is only possible when cursor returns every row of underlying table. This method is to be
+     * called when cursor is at the top.
+     *
+     * @param timestamp designated timestamp value to skip to
+     * @return false when cursor does not support skipping, it remains at the top in this case
+     */
+    default boolean skipToTimestamp(long timestamp) {
+        return false;
+    }
+
     void toTop();
 
     long size();
@@ -25,11 +25,12 @@
 package io.questdb.cairo.sql;
 
 import io.questdb.griffin.DefaultSqlExecutionContext;
+import io.questdb.griffin.Plannable;
 import io.questdb.griffin.SqlExecutionContext;
 
 import java.io.Closeable;
 
-public interface RecordCursorFactory extends Closeable {
+public interface RecordCursorFactory extends Closeable, Plannable {
     @Override
     default void close() {
     }
@@ -25,8 +25,9 @@
 package io.questdb.cairo.sql;
 
 import io.questdb.cairo.TableReader;
+import io.questdb.griffin.Plannable;
 
-public interface RowCursorFactory {
+public interface RowCursorFactory extends Plannable {
     RowCursor getCursor(DataFrame dataFrame);
 
     default void prepareCursor(TableReader tableReader) {
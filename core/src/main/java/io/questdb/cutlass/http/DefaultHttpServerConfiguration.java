@@ -95,6 +95,11 @@ class DefaultHttpServerConfiguration implements HttpServerConfiguration {
         public CharSequence getKeepAliveHeader() {
             return "Keep-Alive: timeout=5, max=10000\r\n";
         }
+
+        @Override
+        public int getMaxBindVariableIndex() {
+            return Short.MAX_VALUE;
+        }
     };
 
     public DefaultHttpServerConfiguration() {
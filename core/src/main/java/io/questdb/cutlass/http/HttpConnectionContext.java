@@ -62,8 +62,8 @@ public class HttpConnectionContext implements IOContext, Locality, Mutable {
         this.multipartContentHeaderParser = new HttpHeaderParser(configuration.getMultipartHeaderBufferSize(), csPool);
         this.multipartContentParser = new HttpMultipartContentParser(multipartContentHeaderParser);
         this.recvBufferSize = configuration.getRecvBufferSize();
-        this.recvBuffer = Unsafe.malloc(recvBufferSize);
-        this.sendBuffer = Unsafe.malloc(configuration.getSendBufferSize());
+        this.recvBuffer = Unsafe.malloc(recvBufferSize, MemoryTag.NATIVE_NETWORK);
+        this.sendBuffer = Unsafe.malloc(configuration.getSendBufferSize(), MemoryTag.NATIVE_NETWORK);
         this.responseSink = new HttpResponseSink(configuration);
         this.multipartIdleSpinCount = configuration.getMultipartIdleSpinCount();
         this.dumpNetworkTraffic = configuration.getDumpNetworkTraffic();
@@ -95,8 +95,8 @@ public class HttpConnectionContext implements IOContext, Locality, Mutable {
         responseSink.close();
         headerParser.close();
         localValueMap.close();
-        Unsafe.free(recvBuffer, recvBufferSize);
-        Unsafe.free(sendBuffer, configuration.getSendBufferSize());
+        Unsafe.free(recvBuffer, recvBufferSize, MemoryTag.NATIVE_NETWORK);
+        Unsafe.free(sendBuffer, configuration.getSendBufferSize(), MemoryTag.NATIVE_NETWORK);
         LOG.debug().$("closed").$();
     }
 
@@ -114,6 +114,10 @@ public class HttpConnectionContext implements IOContext, Locality, Mutable {
         return cairoSecurityContext;
     }
 
+    public NetworkFacade getNetworkFacade() {
+        return nf;
+    }
+
     public HttpChunkedResponseSocket getChunkedResponseSocket() {
         return responseSink.getChunkedSocket();
     }
@@ -59,7 +59,7 @@ public class HttpHeaderParser implements Mutable, Closeable, HttpRequestHeader {
 
     public HttpHeaderParser(int bufferLen, ObjectPool<DirectByteCharSequence> pool) {
         final int sz = Numbers.ceilPow2(bufferLen);
-        this.headerPtr = Unsafe.malloc(sz);
+        this.headerPtr = Unsafe.malloc(sz, MemoryTag.NATIVE_NETWORK);
         this._wptr = headerPtr;
         this.hi = this.headerPtr + sz;
         this.pool = pool;
@@ -108,7 +108,7 @@ public class HttpHeaderParser implements Mutable, Closeable, HttpRequestHeader {
     @Override
     public void close() {
         if (this.headerPtr != 0) {
-            Unsafe.free(this.headerPtr, this.hi - this.headerPtr);
+            Unsafe.free(this.headerPtr, this.hi - this.headerPtr, MemoryTag.NATIVE_NETWORK);
             this.headerPtr = 0;
             boundaryAugmenter.close();
         }
@@ -174,6 +174,11 @@ public class HttpHeaderParser implements Mutable, Closeable, HttpRequestHeader {
         return urlParams.get(name);
     }
 
+    @Override
+    public ObjList<CharSequence> getUrlParamNames() {
+        return urlParams.keys();
+    }
+
     public boolean isIncomplete() {
         return incomplete;
     }
@@ -476,14 +481,14 @@ public class HttpHeaderParser implements Mutable, Closeable, HttpRequestHeader {
 
         public BoundaryAugmenter() {
             this.lim = 64;
-            this.lo = this._wptr = Unsafe.malloc(this.lim);
+            this.lo = this._wptr = Unsafe.malloc(this.lim, MemoryTag.NATIVE_NETWORK);
             of0(BOUNDARY_PREFIX);
         }
 
         @Override
         public void close() {
             if (lo > 0) {
-                Unsafe.free(this.lo, this.lim);
+                Unsafe.free(this.lo, this.lim, MemoryTag.NATIVE_NETWORK);
                 this.lo = 0;
             }
         }
@@ -505,9 +510,9 @@ public class HttpHeaderParser implements Mutable, Closeable, HttpRequestHeader {
         }
 
         private void resize(int lim) {
-            Unsafe.free(this.lo, this.lim);
+            Unsafe.free(this.lo, this.lim, MemoryTag.NATIVE_NETWORK);
             this.lim = Numbers.ceilPow2(lim);
-            this.lo = _wptr = Unsafe.malloc(this.lim);
+            this.lo = _wptr = Unsafe.malloc(this.lim, MemoryTag.NATIVE_NETWORK);
             of0(BOUNDARY_PREFIX);
         }
     }
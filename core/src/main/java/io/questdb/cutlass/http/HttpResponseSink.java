@@ -95,10 +95,10 @@ public class HttpResponseSink implements Closeable, Mutable {
     public HttpResponseSink(HttpServerConfiguration configuration) {
         this.responseBufferSize = Numbers.ceilPow2(configuration.getSendBufferSize());
         this.nf = configuration.getDispatcherConfiguration().getNetworkFacade();
-        this.out = Unsafe.calloc(responseBufferSize);
+        this.out = Unsafe.calloc(responseBufferSize, MemoryTag.NATIVE_NETWORK);
         this.headerImpl = new HttpResponseHeaderImpl(configuration.getResponseHeaderBufferSize(), configuration.getClock());
         // size is 32bit int, as hex string max 8 bytes
-        this.chunkHeaderBuf = Unsafe.calloc(8 + 2L * Misc.EOL.length());
+        this.chunkHeaderBuf = Unsafe.calloc(8 + 2L * Misc.EOL.length(), MemoryTag.NATIVE_NETWORK);
         this.chunkSink = new DirectUnboundedByteSink(chunkHeaderBuf);
         this.chunkSink.put(Misc.EOL);
         this.outPtr = this._wPtr = out;
@@ -122,11 +122,11 @@ public class HttpResponseSink implements Closeable, Mutable {
 
     @Override
     public void close() {
-        Unsafe.free(out, responseBufferSize);
-        Unsafe.free(chunkHeaderBuf, 8 + 2L * Misc.EOL.length());
+        Unsafe.free(out, responseBufferSize, MemoryTag.NATIVE_NETWORK);
+        Unsafe.free(chunkHeaderBuf, 8 + 2L * Misc.EOL.length(), MemoryTag.NATIVE_NETWORK);
         headerImpl.close();
         if (pzout != 0) {
-            Unsafe.free(pzout, responseBufferSize);
+            Unsafe.free(pzout, responseBufferSize, MemoryTag.NATIVE_NETWORK);
         }
         if (z_streamp != 0) {
             Zip.deflateEnd(z_streamp);
@@ -299,7 +299,7 @@ public class HttpResponseSink implements Closeable, Mutable {
     private void prepareCompressedBody() {
         if (z_streamp == 0) {
             z_streamp = Zip.deflateInit();
-            pzout = Unsafe.malloc(responseBufferSize);
+            pzout = Unsafe.malloc(responseBufferSize, MemoryTag.NATIVE_NETWORK);
             zpos = zlimit = 0;
         }
         int r = (int) (_wPtr - outPtr);
@@ -365,7 +365,7 @@ public class HttpResponseSink implements Closeable, Mutable {
         public HttpResponseHeaderImpl(int bufferSize, MillisecondClock clock) {
             this.clock = clock;
             int sz = Numbers.ceilPow2(bufferSize);
-            this.headerPtr = _wptr = Unsafe.calloc(sz);
+            this.headerPtr = _wptr = Unsafe.calloc(sz, MemoryTag.NATIVE_NETWORK);
             this.limit = headerPtr + sz;
         }
 
@@ -378,7 +378,7 @@ public class HttpResponseSink implements Closeable, Mutable {
 
         @Override
         public void close() {
-            Unsafe.free(headerPtr, limit - headerPtr);
+            Unsafe.free(headerPtr, limit - headerPtr, MemoryTag.NATIVE_NETWORK);
         }
 
         // this is used for HTTP access logging
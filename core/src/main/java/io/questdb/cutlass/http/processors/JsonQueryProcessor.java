@@ -36,9 +36,11 @@ import io.questdb.cutlass.http.HttpRequestProcessor;
 import io.questdb.cutlass.text.TextUtil;
 import io.questdb.cutlass.text.Utf8Exception;
 import io.questdb.griffin.CompiledQuery;
+import io.questdb.griffin.QueryRegistry;
 import io.questdb.griffin.SqlCompiler;
 import io.questdb.griffin.SqlException;
 import io.questdb.griffin.SqlExecutionContextImpl;
+import io.questdb.griffin.engine.functions.bind.BindException;
 import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
 import io.questdb.log.LogRecord;
@@ -52,13 +54,10 @@ import io.questdb.std.str.DirectByteCharSequence;
 import io.questdb.std.str.Path;
 
 import java.io.Closeable;
-import java.util.concurrent.atomic.AtomicLong;
 
 public class JsonQueryProcessor implements HttpRequestProcessor, Closeable {
     private static final LocalValue<JsonQueryProcessorState> LV = new LocalValue<>();
     private static final Log LOG = LogFactory.getLog(JsonQueryProcessor.class);
-    private final static AtomicLong cacheHits = new AtomicLong();
-    private final static AtomicLong cacheMisses = new AtomicLong();
 
     private final SqlCompiler compiler;
     private final JsonQueryProcessorConfiguration configuration;
@@ -68,6 +67,7 @@ public class JsonQueryProcessor implements HttpRequestProcessor, Closeable {
     private final ObjList<ValueWriter> valueWriters = new ObjList<>();
     private final Path path = new Path();
     private final ObjList<QueryExecutor> queryExecutors = new ObjList<>();
+    private final CairoEngine engine;
 
     public JsonQueryProcessor(
             JsonQueryProcessorConfiguration configuration,
@@ -75,6 +75,7 @@ public class JsonQueryProcessor implements HttpRequestProcessor, Closeable {
     ) {
         // todo: add scheduler
         this.configuration = configuration;
+        this.engine = engine;
         this.compiler = new SqlCompiler(engine);
         this.floatScale = configuration.getFloatScale();
         this.doubleScale = configuration.getDoubleScale();
@@ -105,6 +106,9 @@ public class JsonQueryProcessor implements HttpRequestProcessor, Closeable {
         this.queryExecutors.extendAndSet(CompiledQuery.CREATE_TABLE, sendConfirmation);
         this.queryExecutors.extendAndSet(CompiledQuery.INSERT_AS_SELECT, sendConfirmation);
         this.queryExecutors.extendAndSet(CompiledQuery.COPY_REMOTE, JsonQueryProcessor::cannotCopyRemote);
+        this.queryExecutors.extendAndSet(CompiledQuery.REFRESH, sendConfirmation);
+        this.queryExecutors.extendAndSet(CompiledQuery.ANALYZE, sendConfirmation);
+        this.queryExecutors.extendAndSet(CompiledQuery.CANCEL, sendConfirmation);
     }
 
     private static void putStringOrNull(CharSink r, CharSequence str) {
@@ -129,10 +133,34 @@ public class JsonQueryProcessor implements HttpRequestProcessor, Closeable {
         final HttpChunkedResponseSocket socket = context.getChunkedResponseSocket();
         final int columnCount = state.metadata.getColumnCount();
 
+        // send can resume on any worker, allocations made by cursor have to be counted towards query
+        state.circuitBreaker.attach();
+        try {
+            resume(state, valueWriters, socket, columnCount);
+        } finally {
+            state.circuitBreaker.detach();
+        }
+        // reached the end naturally?
+        readyForNextRequest(context);
+    }
+
+    private static void resume(
+            JsonQueryProcessorState state,
+            ObjList<ValueWriter> valueWriters,
+            HttpChunkedResponseSocket socket,
+            int columnCount
+    ) throws PeerDisconnectedException, PeerIsSlowToReadException {
         while (true) {
             try {
                 state.resume(valueWriters, socket, columnCount);
                 break;
+            } catch (CairoException e) {
+                if (e.isInterruption()) {
+                    // response is already under way, closing connection is the only way to tell client
+                    info(state).$("query aborted [reason=").$(e.getFlyweightMessage()).$(']').$();
+                    throw PeerDisconnectedException.INSTANCE;
+                }
+                throw e;
             } catch (NoSpaceLeftInResponseBufferException ignored) {
                 if (socket.resetToBookmark()) {
                     socket.sendChunk();
@@ -146,8 +174,6 @@ public class JsonQueryProcessor implements HttpRequestProcessor, Closeable {
                 }
             }
         }
-        // reached the end naturally?
-        readyForNextRequest(context);
     }
 
     private static void cannotCopyRemote(
@@ -167,7 +193,6 @@ public class JsonQueryProcessor implements HttpRequestProcessor, Closeable {
             CharSequence keepAliveHeader,
             ObjList<ValueWriter> valueWriters
     ) throws PeerDisconnectedException, PeerIsSlowToReadException {
-        cacheHits.incrementAndGet();
         info(state).$("execute-cached ").
                 $("[skip: ").$(state.skip).
                 $(", stop: ").$(state.stop).
@@ -346,17 +371,23 @@ public class JsonQueryProcessor implements HttpRequestProcessor, Closeable {
     public void close() {
         Misc.free(compiler);
         Misc.free(path);
-        JsonQueryProcessorState.FACTORY_CACHE.get().close();
     }
 
     public void execute0(
             HttpConnectionContext context,
             JsonQueryProcessorState state
     ) throws PeerDisconnectedException, PeerIsSlowToReadException {
-        sqlExecutionContext.with(context.getCairoSecurityContext(), null);
-        info(state).$("exec [q='").utf8(state.query).$("']").$();
-        final RecordCursorFactory factory = JsonQueryProcessorState.FACTORY_CACHE.get().poll(state.query);
+        final QueryRegistry queryRegistry = engine.getQueryRegistry();
+        state.circuitBreaker.of(queryRegistry, engine.getConfiguration(), state.query, context.getFd());
+        sqlExecutionContext.with(context.getCairoSecurityContext(), state.bindVariableService, queryRegistry, engine.getQueryCache(), state.circuitBreaker);
+        info(state).$("exec [q='").utf8(state.query).$("', id=").$(state.circuitBreaker.getQueryId()).$(']').$();
         try {
+            if (state.live) {
+                executeLive(context, state);
+                return;
+            }
+
+            final RecordCursorFactory factory = engine.getQueryCache().poll(state.query, state.bindVariableService);
             if (factory != null) {
                 try {
                     executeCachedSelect(
@@ -381,6 +412,8 @@ public class JsonQueryProcessor implements HttpRequestProcessor, Closeable {
         } catch (CairoException | CairoError e) {
             internalError(context.getChunkedResponseSocket(), e, state);
             readyForNextRequest(context);
+        } finally {
+            state.circuitBreaker.detach();
         }
     }
 
@@ -404,7 +437,7 @@ public class JsonQueryProcessor implements HttpRequestProcessor, Closeable {
     ) throws PeerDisconnectedException, PeerIsSlowToReadException {
         JsonQueryProcessorState state = LV.get(context);
         if (state == null) {
-            LV.set(context, state = new JsonQueryProcessorState(context.getFd(), configuration.getConnectionCheckFrequency()));
+            LV.set(context, state = new JsonQueryProcessorState(context.getFd(), configuration.getConnectionCheckFrequency(), context.getNetworkFacade(), engine.getQueryCache()));
         }
         HttpChunkedResponseSocket socket = context.getChunkedResponseSocket();
         if (parseUrl(socket, context.getRequestHeader(), state, configuration.getKeepAliveHeader())) {
@@ -445,7 +478,6 @@ public class JsonQueryProcessor implements HttpRequestProcessor, Closeable {
             CompiledQuery cc,
             CharSequence keepAliveHeader
     ) throws PeerDisconnectedException, PeerIsSlowToReadException {
-        cacheMisses.incrementAndGet();
         info(state).$("execute-new ").
                 $("[skip: ").$(state.skip).
                 $(", stop: ").$(state.stop).
@@ -462,6 +494,34 @@ public class JsonQueryProcessor implements HttpRequestProcessor, Closeable {
         );
     }
 
+    private void executeLive(
+            HttpConnectionContext context,
+            JsonQueryProcessorState state
+    ) throws SqlException, PeerDisconnectedException, PeerIsSlowToReadException {
+        if (state.liveFactory == null || !Chars.equals(state.liveQuery, state.query)) {
+            state.liveFactory = Misc.free(state.liveFactory);
+            state.liveFactory = compiler.compileLive(state.query, sqlExecutionContext);
+            state.liveQuery.clear();
+            state.liveQuery.put(state.query);
+        }
+
+        RecordCursor cursor;
+        try {
+            cursor = state.liveFactory.getCursor(sqlExecutionContext);
+        } catch (ReaderOutOfDateException e) {
+            // table structure has changed, aggregation starts over
+            state.liveFactory = Misc.free(state.liveFactory);
+            state.liveFactory = compiler.compileLive(state.query, sqlExecutionContext);
+            cursor = state.liveFactory.getCursor(sqlExecutionContext);
+        }
+
+        info(state).$("execute-live ").
+                $("[skip: ").$(state.skip).
+                $(", stop: ").$(state.stop).
+                $(']').$();
+        executeSelect(context, state, state.liveFactory, cursor, configuration.getKeepAliveHeader(), valueWriters);
+    }
+
     private void internalError(
             HttpChunkedResponseSocket socket,
             Throwable e,
@@ -522,11 +582,24 @@ public class JsonQueryProcessor implements HttpRequestProcessor, Closeable {
             return false;
         }
 
+        try {
+            state.parseBindVariables(request, configuration.getMaxBindVariableIndex());
+        } catch (Utf8Exception e) {
+            info(state).$("Bad UTF8 encoding").$();
+            sendException(socket, 0, "Bad UTF8 encoding in bind variable", 400, state.query, keepAliveHeader);
+            return false;
+        } catch (BindException e) {
+            info(state).$("Invalid bind variable [msg=").$(e.getFlyweightMessage()).$(']').$();
+            sendException(socket, 0, e.getFlyweightMessage(), 400, state.query, keepAliveHeader);
+            return false;
+        }
+
         state.skip = skip;
         state.count = 0L;
         state.stop = stop;
         state.noMeta = Chars.equalsNc("true", request.getUrlParam("nm"));
         state.countRows = Chars.equalsNc("true", request.getUrlParam("count"));
+        state.live = Chars.equalsNc("true", request.getUrlParam("live"));
         return true;
     }
 
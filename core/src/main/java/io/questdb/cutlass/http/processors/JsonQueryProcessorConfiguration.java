@@ -40,4 +40,9 @@ public interface JsonQueryProcessorConfiguration {
     int getFloatScale();
 
     CharSequence getKeepAliveHeader();
+
+    /**
+     * @return highest index of bind variable that can be passed as "$n" URL parameter
+     */
+    int getMaxBindVariableIndex();
 }
@@ -30,12 +30,23 @@ import io.questdb.cairo.sql.RecordCursor;
 import io.questdb.cairo.sql.RecordCursorFactory;
 import io.questdb.cairo.sql.RecordMetadata;
 import io.questdb.cutlass.http.HttpChunkedResponseSocket;
+import io.questdb.cutlass.http.HttpRequestHeader;
+import io.questdb.cutlass.text.TextUtil;
+import io.questdb.cutlass.text.Utf8Exception;
+import io.questdb.griffin.QueryCache;
+import io.questdb.griffin.SqlExecutionCircuitBreakerImpl;
+import io.questdb.griffin.engine.functions.bind.BindException;
+import io.questdb.griffin.engine.functions.bind.BindVariableService;
+import io.questdb.network.NetworkFacade;
 import io.questdb.network.PeerDisconnectedException;
 import io.questdb.network.PeerIsSlowToReadException;
-import io.questdb.std.AssociativeCache;
+import io.questdb.std.Chars;
 import io.questdb.std.Misc;
 import io.questdb.std.Mutable;
+import io.questdb.std.Numbers;
+import io.questdb.std.NumericException;
 import io.questdb.std.ObjList;
+import io.questdb.std.str.DirectByteCharSequence;
 import io.questdb.std.str.StringSink;
 
 import java.io.Closeable;
@@ -50,19 +61,25 @@ public class JsonQueryProcessorState implements Mutable, Closeable {
     static final int QUERY_METADATA_SUFFIX = 3;
     static final int QUERY_METADATA = 2;
     static final int QUERY_PREFIX = 1;
-    // Factory cache is thread local due to possibility of factory being
-    // closed by another thread. Peer disconnect is a typical example of this.
-    // Being asynchronous we may need to be able to return factory to the cache
-    // by the same thread that executes the dispatcher.
-    static final ThreadLocal<AssociativeCache<RecordCursorFactory>> FACTORY_CACHE = ThreadLocal.withInitial(() -> new AssociativeCache<>(8, 8));
     final ObjList<StateResumeAction> resumeActions = new ObjList<>();
     final long fd;
     final StringSink query = new StringSink();
+    // live query keeps aggregation state between requests of this connection and is never cached
+    final StringSink liveQuery = new StringSink();
     final ObjList<JsonQueryProcessor.ValueWriter> valueWriters = new ObjList<>();
+    final SqlExecutionCircuitBreakerImpl circuitBreaker;
+    // factory is taken out of this cache for the duration of the query
+    // and is put back when query is done, whichever thread that happens on
+    final QueryCache queryCache;
+    // bind variables of the current query, factory links to them when cursor is created
+    final BindVariableService bindVariableService = new BindVariableService();
+    private final StringSink bindValue = new StringSink();
 
     boolean countRows = false;
     boolean noMeta = false;
+    boolean live = false;
     RecordCursorFactory recordCursorFactory;
+    RecordCursorFactory liveFactory;
     RecordMetadata metadata;
     RecordCursor cursor;
     long count;
@@ -73,8 +90,10 @@ public class JsonQueryProcessorState implements Mutable, Closeable {
     int columnIndex;
 
 
-    public JsonQueryProcessorState(long fd, int connectionCheckFrequency) {
+    public JsonQueryProcessorState(long fd, int connectionCheckFrequency, NetworkFacade nf, QueryCache queryCache) {
         this.fd = fd;
+        this.queryCache = queryCache;
+        this.circuitBreaker = new SqlExecutionCircuitBreakerImpl(nf);
         resumeActions.extendAndSet(JsonQueryProcessorState.QUERY_PREFIX, this::onQueryPrefix);
         resumeActions.extendAndSet(JsonQueryProcessorState.QUERY_METADATA, this::onQueryMetadata);
         resumeActions.extendAndSet(JsonQueryProcessorState.QUERY_METADATA_SUFFIX, this::onQueryMetadataSuffix);
@@ -85,6 +104,47 @@ public class JsonQueryProcessorState implements Mutable, Closeable {
         resumeActions.extendAndSet(JsonQueryProcessorState.QUERY_SUFFIX, this::doQuerySuffix);
     }
 
+    /**
+     * Defines bind variables from url parameters. Parameters "$1", "$2" and so on are indexed
+     * variables, parameters prefixed with ':' are named variables. Values are strings.
+     *
+     * @param request  request header
+     * @param maxIndex highest index of indexed variable
+     * @throws Utf8Exception when value is not valid UTF8
+     */
+    void parseBindVariables(HttpRequestHeader request, int maxIndex) throws Utf8Exception {
+        bindVariableService.clear();
+        final ObjList<CharSequence> names = request.getUrlParamNames();
+        for (int i = 0, n = names.size(); i < n; i++) {
+            final CharSequence name = names.getQuick(i);
+            if (name.length() < 2 || (name.charAt(0) != '$' && name.charAt(0) != ':')) {
+                continue;
+            }
+
+            final DirectByteCharSequence value = request.getUrlParam(name);
+            bindValue.clear();
+            TextUtil.utf8Decode(value.getLo(), value.getHi(), bindValue);
+            if (name.charAt(0) == ':') {
+                bindVariableService.setStr(Chars.toString(name, 1, name.length()), bindValue);
+            } else {
+                final int index;
+                try {
+                    index = Numbers.parseInt(name, 1, name.length());
+                } catch (NumericException e) {
+                    throw BindException.init().put("invalid bind variable index: ").put(name);
+                }
+                if (index < 1) {
+                    throw BindException.init().put("invalid bind variable index: ").put(name);
+                }
+                // index is not trusted, variables are stored in a list as long as the highest index
+                if (index > maxIndex) {
+                    throw BindException.init().put("bind variable index is too large [max=").put(maxIndex).put("]: ").put(name);
+                }
+                bindVariableService.setStr(index - 1, bindValue);
+            }
+        }
+    }
+
     void resume(
             ObjList<JsonQueryProcessor.ValueWriter> valueWriters,
             HttpChunkedResponseSocket socket,
@@ -267,6 +327,7 @@ public class JsonQueryProcessorState implements Mutable, Closeable {
     }
 
     private boolean doQueryNextRecord() {
+        circuitBreaker.checkState();
         if (cursor.hasNext()) {
             if (count < stop) {
                 return true;
@@ -286,6 +347,7 @@ public class JsonQueryProcessorState implements Mutable, Closeable {
             if (size < 0) {
                 long count = 1;
                 while (cursor.hasNext()) {
+                    circuitBreaker.checkState();
                     count++;
                 }
                 this.count += count;
@@ -332,11 +394,13 @@ public class JsonQueryProcessorState implements Mutable, Closeable {
         cursor = Misc.free(cursor);
         record = null;
         if (recordCursorFactory != null) {
-            // todo: avoid toString()
-            FACTORY_CACHE.get().put(query.toString(), recordCursorFactory);
+            if (recordCursorFactory != liveFactory) {
+                queryCache.push(query, bindVariableService, recordCursorFactory);
+            }
             recordCursorFactory = null;
         }
         query.clear();
+        circuitBreaker.clear();
         queryState = QUERY_PREFIX;
         columnIndex = 0;
         countRows = false;
@@ -345,7 +409,12 @@ public class JsonQueryProcessorState implements Mutable, Closeable {
     @Override
     public void close() {
         cursor = Misc.free(cursor);
-        recordCursorFactory = Misc.free(recordCursorFactory);
+        if (recordCursorFactory != liveFactory) {
+            Misc.free(recordCursorFactory);
+        }
+        recordCursorFactory = null;
+        liveFactory = Misc.free(liveFactory);
+        Misc.free(circuitBreaker);
     }
 
     @FunctionalInterface
@@ -36,9 +36,11 @@ import io.questdb.cutlass.http.HttpRequestProcessor;
 import io.questdb.cutlass.text.TextUtil;
 import io.questdb.cutlass.text.Utf8Exception;
 import io.questdb.griffin.CompiledQuery;
+import io.questdb.griffin.QueryRegistry;
 import io.questdb.griffin.SqlCompiler;
 import io.questdb.griffin.SqlException;
 import io.questdb.griffin.SqlExecutionContextImpl;
+import io.questdb.griffin.engine.functions.bind.BindException;
 import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
 import io.questdb.log.LogRecord;
@@ -52,27 +54,22 @@ import io.questdb.std.str.DirectByteCharSequence;
 import io.questdb.std.time.MillisecondClock;
 
 import java.io.Closeable;
-import java.util.concurrent.atomic.AtomicLong;
 
 public class TextQueryProcessor implements HttpRequestProcessor, Closeable {
-    // Factory cache is thread local due to possibility of factory being
-    // closed by another thread. Peer disconnect is a typical example of this.
-    // Being asynchronous we may need to be able to return factory to the cache
-    // by the same thread that executes the dispatcher.
     private static final LocalValue<JsonQueryProcessorState> LV = new LocalValue<>();
     private static final Log LOG = LogFactory.getLog(TextQueryProcessor.class);
-    private final AtomicLong cacheHits = new AtomicLong();
-    private final AtomicLong cacheMisses = new AtomicLong();
     private final SqlCompiler compiler;
     private final JsonQueryProcessorConfiguration configuration;
     private final int floatScale;
     private final int doubleScale;
     private final SqlExecutionContextImpl sqlExecutionContext = new SqlExecutionContextImpl();
     private final MillisecondClock clock;
+    private final CairoEngine engine;
 
     public TextQueryProcessor(JsonQueryProcessorConfiguration configuration, CairoEngine engine) {
         // todo: add scheduler
         this.configuration = configuration;
+        this.engine = engine;
         this.compiler = new SqlCompiler(engine);
         this.floatScale = configuration.getFloatScale();
         this.doubleScale = configuration.getDoubleScale();
@@ -95,22 +92,22 @@ public class TextQueryProcessor implements HttpRequestProcessor, Closeable {
             JsonQueryProcessorState state
     ) throws PeerDisconnectedException, PeerIsSlowToReadException {
         try {
-            state.recordCursorFactory = JsonQueryProcessorState.FACTORY_CACHE.get().poll(state.query);
+            state.recordCursorFactory = engine.getQueryCache().poll(state.query, state.bindVariableService);
+            final QueryRegistry queryRegistry = engine.getQueryRegistry();
+            state.circuitBreaker.of(queryRegistry, engine.getConfiguration(), state.query, context.getFd());
             int retryCount = 0;
             do {
-                sqlExecutionContext.with(context.getCairoSecurityContext(), null);
+                sqlExecutionContext.with(context.getCairoSecurityContext(), state.bindVariableService, queryRegistry, engine.getQueryCache(), state.circuitBreaker);
                 if (state.recordCursorFactory == null) {
                     final CompiledQuery cc = compiler.compile(state.query, sqlExecutionContext);
                     if (cc.getType() == CompiledQuery.SELECT) {
                         state.recordCursorFactory = cc.getRecordCursorFactory();
                     }
-                    cacheHits.incrementAndGet();
                     info(state).$("execute-new [q=`").utf8(state.query).
                             $("`, skip: ").$(state.skip).
                             $(", stop: ").$(state.stop).
                             $(']').$();
                 } else {
-                    cacheMisses.incrementAndGet();
                     info(state).$("execute-cached [q=`").utf8(state.query).
                             $("`, skip: ").$(state.skip).
                             $(", stop: ").$(state.stop).
@@ -128,10 +125,9 @@ public class TextQueryProcessor implements HttpRequestProcessor, Closeable {
                         // todo: investigate why we need to keep retrying to execute query when it is failing
                         //  perhaps this is unnecessary because we don't even check the type of error it is
                         //  we could be having severe hardware issues and continue trying
-                        if (retryCount == 0) {
-                            // todo: we want to clear cache, no need to create string to achieve this
-                            JsonQueryProcessorState.FACTORY_CACHE.get().put(state.query.toString(), null);
-                            state.recordCursorFactory = null;
+                        if (retryCount == 0 && !(e instanceof CairoException && ((CairoException) e).isInterruption())) {
+                            // factory is not returned to cache, query is compiled again
+                            state.recordCursorFactory = Misc.free(state.recordCursorFactory);
                             LOG.error().$("RecordSource execution failed. ").$(e.getMessage()).$(". Retrying ...").$();
                             retryCount++;
                         } else {
@@ -152,6 +148,8 @@ public class TextQueryProcessor implements HttpRequestProcessor, Closeable {
         } catch (CairoException | CairoError e) {
             internalError(context.getChunkedResponseSocket(), e, state);
             readyForNextRequest(context);
+        } finally {
+            state.circuitBreaker.detach();
         }
     }
 
@@ -165,7 +163,7 @@ public class TextQueryProcessor implements HttpRequestProcessor, Closeable {
     ) throws PeerDisconnectedException, PeerIsSlowToReadException {
         JsonQueryProcessorState state = LV.get(context);
         if (state == null) {
-            LV.set(context, state = new JsonQueryProcessorState(context.getFd(), configuration.getConnectionCheckFrequency()));
+            LV.set(context, state = new JsonQueryProcessorState(context.getFd(), configuration.getConnectionCheckFrequency(), context.getNetworkFacade(), engine.getQueryCache()));
         }
         HttpChunkedResponseSocket socket = context.getChunkedResponseSocket();
         if (parseUrl(socket, context.getRequestHeader(), state)) {
@@ -193,6 +191,22 @@ public class TextQueryProcessor implements HttpRequestProcessor, Closeable {
         final HttpChunkedResponseSocket socket = context.getChunkedResponseSocket();
         final int columnCount = state.metadata.getColumnCount();
 
+        // send can resume on any worker, allocations made by cursor have to be counted towards query
+        state.circuitBreaker.attach();
+        try {
+            resume(state, socket, columnCount);
+        } finally {
+            state.circuitBreaker.detach();
+        }
+        // reached the end naturally?
+        readyForNextRequest(context);
+    }
+
+    private void resume(
+            JsonQueryProcessorState state,
+            HttpChunkedResponseSocket socket,
+            int columnCount
+    ) throws PeerDisconnectedException, PeerIsSlowToReadException {
         OUT:
         while (true) {
             try {
@@ -219,6 +233,7 @@ public class TextQueryProcessor implements HttpRequestProcessor, Closeable {
                             // check if cursor has any records
                             state.record = state.cursor.getRecord();
                             while (true) {
+                                state.circuitBreaker.checkState();
                                 if (state.cursor.hasNext()) {
                                     state.count++;
 
@@ -270,6 +285,13 @@ public class TextQueryProcessor implements HttpRequestProcessor, Closeable {
                     default:
                         break OUT;
                 }
+            } catch (CairoException e) {
+                if (e.isInterruption()) {
+                    // response is already under way, closing connection is the only way to tell client
+                    info(state).$("query aborted [reason=").$(e.getFlyweightMessage()).$(']').$();
+                    throw PeerDisconnectedException.INSTANCE;
+                }
+                throw e;
             } catch (NoSpaceLeftInResponseBufferException ignored) {
                 if (socket.resetToBookmark()) {
                     socket.sendChunk();
@@ -283,21 +305,12 @@ public class TextQueryProcessor implements HttpRequestProcessor, Closeable {
                 }
             }
         }
-        // reached the end naturally?
-        readyForNextRequest(context);
     }
 
     private LogRecord error(JsonQueryProcessorState state) {
         return LOG.error().$('[').$(state.fd).$("] ");
     }
 
-    long getCacheHits() {
-        return cacheHits.longValue();
-    }
-
-    long getCacheMisses() {
-        return cacheMisses.longValue();
-    }
 
     protected void header(
             HttpChunkedResponseSocket socket,
@@ -371,6 +384,18 @@ public class TextQueryProcessor implements HttpRequestProcessor, Closeable {
             sendException(socket, 0, "Bad UTF8 encoding in query text", 400, state.query);
             return false;
         }
+
+        try {
+            state.parseBindVariables(request, configuration.getMaxBindVariableIndex());
+        } catch (Utf8Exception e) {
+            info(state).$("Bad UTF8 encoding").$();
+            sendException(socket, 0, "Bad UTF8 encoding in bind variable", 400, state.query);
+            return false;
+        } catch (BindException e) {
+            info(state).$("Invalid bind variable [msg=").$(e.getFlyweightMessage()).$(']').$();
+            sendException(socket, 0, e.getFlyweightMessage(), 400, state.query);
+            return false;
+        }
         state.skip = skip;
         state.count = 0L;
         state.stop = stop;
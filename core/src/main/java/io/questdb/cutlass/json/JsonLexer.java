@@ -75,7 +75,7 @@ public class JsonLexer implements Mutable, Closeable {
 
     public JsonLexer(int cacheSize, int cacheSizeLimit) {
         this.cacheCapacity = cacheSize;
-        this.cache = Unsafe.malloc(cacheSize);
+        this.cache = Unsafe.malloc(cacheSize, MemoryTag.NATIVE_INGEST);
         this.cacheSizeLimit = cacheSizeLimit;
     }
 
@@ -104,7 +104,7 @@ public class JsonLexer implements Mutable, Closeable {
     @Override
     public void close() {
         if (cacheCapacity > 0 && cache != 0) {
-            Unsafe.free(cache, cacheCapacity);
+            Unsafe.free(cache, cacheCapacity, MemoryTag.NATIVE_INGEST);
         }
     }
 
@@ -309,10 +309,10 @@ public class JsonLexer implements Mutable, Closeable {
         if (n > cacheSizeLimit) {
             throw JsonException.$(position, "String is too long");
         }
-        long ptr = Unsafe.malloc(n);
+        long ptr = Unsafe.malloc(n, MemoryTag.NATIVE_INGEST);
         if (cacheCapacity > 0) {
             Unsafe.getUnsafe().copyMemory(cache, ptr, cacheSize);
-            Unsafe.free(cache, cacheCapacity);
+            Unsafe.free(cache, cacheCapacity, MemoryTag.NATIVE_INGEST);
         }
         cacheCapacity = n;
         cache = ptr;
@@ -557,6 +557,11 @@ public class CairoLineProtoParser implements LineProtoParser, Closeable {
             return (int) columnNameType.getQuick(columnIndex * 2 + 1);
         }
 
+        @Override
+        public boolean getDedupKeyFlag(int columnIndex) {
+            return false;
+        }
+
         @Override
         public int getIndexBlockCapacity(int columnIndex) {
             return 0;
@@ -57,7 +57,7 @@ public class LineProtoLexer implements Mutable, Closeable {
     private boolean unquoted = true;
 
     public LineProtoLexer(int bufferSize) {
-        buffer = Unsafe.malloc(bufferSize);
+        buffer = Unsafe.malloc(bufferSize, MemoryTag.NATIVE_INGEST);
         bufferHi = buffer + bufferSize;
         populateCharHandlers();
         clear();
@@ -76,7 +76,7 @@ public class LineProtoLexer implements Mutable, Closeable {
 
     @Override
     public void close() {
-        Unsafe.free(buffer, bufferHi - buffer);
+        Unsafe.free(buffer, bufferHi - buffer, MemoryTag.NATIVE_INGEST);
     }
 
     /**
@@ -354,9 +354,9 @@ public class LineProtoLexer implements Mutable, Closeable {
                 // can't realistically reach this in test :(
                 throw LineProtoException.INSTANCE;
             }
-            long buf = Unsafe.malloc(capacity);
+            long buf = Unsafe.malloc(capacity, MemoryTag.NATIVE_INGEST);
             Unsafe.getUnsafe().copyMemory(buffer, buf, (dstPos - buffer));
-            Unsafe.free(buffer, bufferHi - buffer);
+            Unsafe.free(buffer, bufferHi - buffer, MemoryTag.NATIVE_INGEST);
 
             long offset = dstTop - buffer;
             bufferHi = buf + capacity;
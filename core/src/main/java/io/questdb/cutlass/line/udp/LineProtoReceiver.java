@@ -26,6 +26,7 @@ package io.questdb.cutlass.line.udp;
 
 import io.questdb.cairo.CairoEngine;
 import io.questdb.mp.WorkerPool;
+import io.questdb.std.MemoryTag;
 import io.questdb.std.Unsafe;
 import io.questdb.std.str.DirectByteCharSequence;
 
@@ -40,14 +41,14 @@ public class LineProtoReceiver extends AbstractLineProtoReceiver {
             WorkerPool workerPool
     ) {
         super(configuration, engine, workerPool);
-        this.buf = Unsafe.malloc(this.bufLen = configuration.getMsgBufferSize());
+        this.buf = Unsafe.malloc(this.bufLen = configuration.getMsgBufferSize(), MemoryTag.NATIVE_INGEST);
     }
 
     @Override
     public void close() {
         super.close();
         if (buf != 0) {
-            Unsafe.free(buf, bufLen);
+            Unsafe.free(buf, bufLen, MemoryTag.NATIVE_INGEST);
             buf = 0;
         }
     }
@@ -31,6 +31,7 @@ import io.questdb.network.NetworkError;
 import io.questdb.network.NetworkFacade;
 import io.questdb.network.NetworkFacadeImpl;
 import io.questdb.std.Chars;
+import io.questdb.std.MemoryTag;
 import io.questdb.std.Unsafe;
 import io.questdb.std.str.AbstractCharSink;
 import io.questdb.std.str.CharSink;
@@ -93,8 +94,8 @@ public class LineProtoSender extends AbstractCharSink implements Closeable {
         }
 
         sockaddr = nf.sockaddr(sendToIPv4Address, sendToPort);
-        bufA = Unsafe.malloc(capacity);
-        bufB = Unsafe.malloc(capacity);
+        bufA = Unsafe.malloc(capacity, MemoryTag.NATIVE_NETWORK);
+        bufB = Unsafe.malloc(capacity, MemoryTag.NATIVE_NETWORK);
 
         lo = bufA;
         hi = lo + capacity;
@@ -120,8 +121,8 @@ public class LineProtoSender extends AbstractCharSink implements Closeable {
             LOG.error().$("failed to close UDP socket [fd=").$(fd).$(", errno=").$(nf.errno()).$(']').$();
         }
         nf.freeSockAddr(sockaddr);
-        Unsafe.free(bufA, capacity);
-        Unsafe.free(bufB, capacity);
+        Unsafe.free(bufA, capacity, MemoryTag.NATIVE_NETWORK);
+        Unsafe.free(bufB, capacity, MemoryTag.NATIVE_NETWORK);
     }
 
     public LineProtoSender field(CharSequence name, long value) {
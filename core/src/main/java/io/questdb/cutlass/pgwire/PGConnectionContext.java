@@ -96,6 +96,7 @@ public class PGConnectionContext implements IOContext, Mutable {
     private final String serverVersion;
     private final PGAuthenticator authenticator;
     private final SqlExecutionContextImpl sqlExecutionContext = new SqlExecutionContextImpl();
+    private final SqlExecutionCircuitBreakerImpl circuitBreaker;
     private final Path path = new Path();
     private final BindVariableSetter doubleSetter = this::setDoubleBindVariable;
     private final BindVariableSetter doubleTxtSetter = this::setDoubleTextBindVariable;
@@ -121,6 +122,9 @@ public class PGConnectionContext implements IOContext, Mutable {
     private int bufferRemainingSize = 0;
     private RecordCursor currentCursor = null;
     private RecordCursorFactory currentFactory = null;
+    // select factories are shared by all connections, connection takes
+    // factory out of the cache and puts it back when it starts new query
+    private QueryCache queryCache;
     private InsertStatement currentInsertStatement = null;
     private long fd;
     private CharSequence queryText;
@@ -131,10 +135,11 @@ public class PGConnectionContext implements IOContext, Mutable {
 
     public PGConnectionContext(PGWireConfiguration configuration) {
         this.nf = configuration.getNetworkFacade();
+        this.circuitBreaker = new SqlExecutionCircuitBreakerImpl(nf);
         this.recvBufferSize = Numbers.ceilPow2(configuration.getRecvBufferSize());
-        this.recvBuffer = Unsafe.malloc(this.recvBufferSize);
+        this.recvBuffer = Unsafe.malloc(this.recvBufferSize, MemoryTag.NATIVE_NETWORK);
         this.sendBufferSize = Numbers.ceilPow2(configuration.getSendBufferSize());
-        this.sendBuffer = Unsafe.malloc(this.sendBufferSize);
+        this.sendBuffer = Unsafe.malloc(this.sendBufferSize, MemoryTag.NATIVE_NETWORK);
         this.sendBufferPtr = sendBuffer;
         this.sendBufferLimit = sendBuffer + sendBufferSize;
         this.queryCharacterStore = new CharacterStore(
@@ -248,9 +253,10 @@ public class PGConnectionContext implements IOContext, Mutable {
     public void close() {
         clear();
         this.fd = -1;
-        Unsafe.free(sendBuffer, sendBufferSize);
-        Unsafe.free(recvBuffer, recvBufferSize);
+        Unsafe.free(sendBuffer, sendBufferSize, MemoryTag.NATIVE_NETWORK);
+        Unsafe.free(recvBuffer, recvBufferSize, MemoryTag.NATIVE_NETWORK);
         Misc.free(path);
+        Misc.free(circuitBreaker);
     }
 
     @Override
@@ -267,6 +273,24 @@ public class PGConnectionContext implements IOContext, Mutable {
             @Transient SqlCompiler compiler,
             @Transient AssociativeCache<Object> factoryCache,
             @Transient ObjList<BindVariableSetter> binsVariableSetters
+    ) throws PeerDisconnectedException,
+            PeerIsSlowToReadException,
+            PeerIsSlowToWriteException,
+            BadProtocolException {
+        // connection can be handled by any worker, allocations made by cursor have to be counted towards query
+        queryCache = compiler.getEngine().getQueryCache();
+        circuitBreaker.attach();
+        try {
+            doHandleClientOperation(compiler, factoryCache, binsVariableSetters);
+        } finally {
+            circuitBreaker.detach();
+        }
+    }
+
+    private void doHandleClientOperation(
+            @Transient SqlCompiler compiler,
+            @Transient AssociativeCache<Object> factoryCache,
+            @Transient ObjList<BindVariableSetter> binsVariableSetters
     ) throws PeerDisconnectedException,
             PeerIsSlowToReadException,
             PeerIsSlowToWriteException,
@@ -813,7 +837,13 @@ public class PGConnectionContext implements IOContext, Mutable {
             }
 
             if (cairoSecurityContext != null) {
-                sqlExecutionContext.with(cairoSecurityContext, bindVariableService);
+                sqlExecutionContext.with(
+                        cairoSecurityContext,
+                        bindVariableService,
+                        compiler.getEngine().getQueryRegistry(),
+                        compiler.getEngine().getQueryCache(),
+                        circuitBreaker
+                );
                 authenticationRequired = false;
                 prepareLoginOk(responseAsciiSink);
                 send();
@@ -835,7 +865,7 @@ public class PGConnectionContext implements IOContext, Mutable {
                 processBind(bindVariableSetters, msgLimit, lo);
                 break;
             case 'E': // execute
-                processExecute();
+                processExecute(compiler);
                 break;
             case 'S': // sync?
                 break;
@@ -843,7 +873,7 @@ public class PGConnectionContext implements IOContext, Mutable {
                 processDescribe();
                 break;
             case 'Q':
-                processQuery(lo, limit, compiler, factoryCache);
+                processQuery(lo, limit, compiler);
                 break;
             case 'd':
 
@@ -860,21 +890,18 @@ public class PGConnectionContext implements IOContext, Mutable {
     private void processQuery(
             long lo,
             long limit,
-            @Transient SqlCompiler compiler,
-            @Transient AssociativeCache<Object> factoryCache
+            @Transient SqlCompiler compiler
     ) throws BadProtocolException, SqlException, PeerDisconnectedException, PeerIsSlowToReadException {
         // vanilla query
         prepareForNewQuery();
         parseQueryText(lo, limit - 1);
 
-        final Object statement = factoryCache.peek(queryText);
-        if (statement == null) {
+        final RecordCursorFactory factory = queryCache.poll(queryText, bindVariableService);
+        if (factory == null) {
             CompiledQuery cc = compiler.compile(queryText, sqlExecutionContext);
 
             if (cc.getType() == CompiledQuery.SELECT) {
-                final RecordCursorFactory factory = cc.getRecordCursorFactory();
-                factoryCache.put(queryText, factory);
-                executeSelect(factory);
+                executeSelect(cc.getRecordCursorFactory(), compiler);
             } else if (cc.getType() == CompiledQuery.COPY_REMOTE) {
                 sendCopyInResponse(compiler.getEngine(), cc.getTextLoader());
             } else if (cc.getType() == CompiledQuery.INSERT) {
@@ -888,19 +915,51 @@ public class PGConnectionContext implements IOContext, Mutable {
                 sendExecuteTail(TAIL_SUCCESS);
             }
         } else {
-            if (statement instanceof RecordCursorFactory) {
-                executeSelect((RecordCursorFactory) statement);
-            }
+            executeSelect(factory, compiler);
         }
     }
 
     private void executeSelect(
-            @NotNull RecordCursorFactory factory
-    ) throws PeerDisconnectedException, PeerIsSlowToReadException {
+            @NotNull RecordCursorFactory factory,
+            SqlCompiler compiler
+    ) throws PeerDisconnectedException, PeerIsSlowToReadException, SqlException {
         this.currentFactory = factory;
-        currentCursor = factory.getCursor(sqlExecutionContext);
-        prepareRowDescription();
-        sendCursor();
+        startQuery(compiler.getEngine());
+        try {
+            currentCursor = getCursor(compiler);
+            prepareRowDescription();
+            sendCursor();
+        } catch (CairoException e) {
+            throw interrupted(e);
+        }
+    }
+
+    /**
+     * Converts query interruption into SQL error, which is reported to client without closing the connection.
+     * Other errors are rethrown as is.
+     */
+    private SqlException interrupted(CairoException e) {
+        if (e.isInterruption()) {
+            prepareForNewQuery();
+            return SqlException.position(0).put(e.getFlyweightMessage());
+        }
+        throw e;
+    }
+
+    private RecordCursor getCursor(SqlCompiler compiler) throws SqlException {
+        try {
+            return currentFactory.getCursor(sqlExecutionContext);
+        } catch (ReaderOutOfDateException e) {
+            // table structure has changed since factory was compiled
+            currentFactory = Misc.free(currentFactory);
+            currentFactory = compiler.compile(queryText, sqlExecutionContext).getRecordCursorFactory();
+            return currentFactory.getCursor(sqlExecutionContext);
+        }
+    }
+
+    private void startQuery(CairoEngine engine) {
+        // client socket is not checked, it may legitimately hold messages pipelined after this query
+        circuitBreaker.of(engine.getQueryRegistry(), engine.getConfiguration(), queryText, -1);
     }
 
     private void processDescribe() throws PeerDisconnectedException, PeerIsSlowToReadException {
@@ -911,11 +970,16 @@ public class PGConnectionContext implements IOContext, Mutable {
         }
     }
 
-    private void processExecute() throws PeerDisconnectedException, PeerIsSlowToReadException {
+    private void processExecute(SqlCompiler compiler) throws PeerDisconnectedException, PeerIsSlowToReadException, SqlException {
         if (currentFactory != null) {
             LOG.info().$("executing query").$();
-            currentCursor = currentFactory.getCursor(sqlExecutionContext);
-            sendCursor();
+            startQuery(compiler.getEngine());
+            try {
+                currentCursor = getCursor(compiler);
+                sendCursor();
+            } catch (CairoException e) {
+                throw interrupted(e);
+            }
         } else if (currentInsertStatement != null) {
             executeInsert();
         }
@@ -1032,12 +1096,17 @@ public class PGConnectionContext implements IOContext, Mutable {
         // of all of them, which is looked up by query text
 
         responseAsciiSink.reset();
+        currentFactory = queryCache.poll(queryText, bindVariableService);
+        if (currentFactory != null) {
+            return;
+        }
+
+        // worker cache keeps insert statements only
         final Object statement = factoryCache.peek(queryText);
         if (statement == null) {
             final CompiledQuery cc = compiler.compile(queryText, sqlExecutionContext);
             if (cc.getType() == CompiledQuery.SELECT) {
                 currentFactory = cc.getRecordCursorFactory();
-                factoryCache.put(queryText, currentFactory);
             } else if (cc.getType() == CompiledQuery.INSERT) {
                 currentInsertStatement = cc.getInsertStatement();
                 factoryCache.put(queryText, currentInsertStatement);
@@ -1051,13 +1120,8 @@ public class PGConnectionContext implements IOContext, Mutable {
                 send();
             }
         } else {
-            if (statement instanceof RecordCursorFactory) {
-                currentFactory = (RecordCursorFactory) statement;
-            } else if (statement instanceof InsertStatement) {
-                currentInsertStatement = (InsertStatement) statement;
-            } else {
-                assert false;
-            }
+            assert statement instanceof InsertStatement;
+            currentInsertStatement = (InsertStatement) statement;
         }
     }
 
@@ -1102,11 +1166,15 @@ public class PGConnectionContext implements IOContext, Mutable {
     }
 
     private void prepareForNewQuery() {
+        currentCursor = Misc.free(currentCursor);
+        if (currentFactory != null) {
+            queryCache.push(queryText, bindVariableService, currentFactory);
+            currentFactory = null;
+        }
         queryCharacterStore.clear();
         bindVariableService.clear();
-        currentCursor = Misc.free(currentCursor);
-        currentFactory = null;
         currentInsertStatement = null;
+        circuitBreaker.clear();
     }
 
     private void prepareLoginOk(ResponseAsciiSink sink) {
@@ -1311,7 +1379,7 @@ public class PGConnectionContext implements IOContext, Mutable {
                 }
             }
             responseAsciiSink.putLen(addr);
-            transientCopyBuffer = Unsafe.malloc(1024 * 1024);
+            transientCopyBuffer = Unsafe.malloc(1024 * 1024, MemoryTag.NATIVE_NETWORK);
             send();
         } else {
             prepareError(SqlException.$(0, "table '").put(textLoader.getTableName()).put("' does not exist"));
@@ -1331,6 +1399,7 @@ public class PGConnectionContext implements IOContext, Mutable {
         final RecordMetadata metadata = currentFactory.getMetadata();
         final int columnCount = metadata.getColumnCount();
         while (currentCursor.hasNext()) {
+            circuitBreaker.checkState();
             // create checkpoint to which we can undo the buffer in case
             // current DataRow will does not fit fully.
             responseAsciiSink.bookmark();
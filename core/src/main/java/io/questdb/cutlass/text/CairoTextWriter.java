@@ -283,6 +283,11 @@ public class CairoTextWriter implements TextLexer.Listener, Closeable, Mutable {
             return types.getQuick(columnIndex).getType();
         }
 
+        @Override
+        public boolean getDedupKeyFlag(int columnIndex) {
+            return false;
+        }
+
         @Override
         public int getIndexBlockCapacity(int columnIndex) {
             return 0;
@@ -26,6 +26,7 @@ package io.questdb.cutlass.text;
 
 import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
+import io.questdb.std.MemoryTag;
 import io.questdb.std.Unsafe;
 
 import java.io.Closeable;
@@ -74,7 +75,7 @@ public class TextDelimiterScanner implements Closeable {
         this.lineCountLimit = configuration.getTextAnalysisMaxLines();
         this.matrixRowSize = 256 * Integer.BYTES;
         this.matrixSize = matrixRowSize * lineCountLimit;
-        this.matrix = Unsafe.malloc(this.matrixSize);
+        this.matrix = Unsafe.malloc(this.matrixSize, MemoryTag.NATIVE_INGEST);
         this.maxRequiredDelimiterStdDev = configuration.getMaxRequiredDelimiterStdDev();
         this.maxRequiredLineLengthStdDev = configuration.getMaxRequiredLineLengthStdDev();
     }
@@ -90,7 +91,7 @@ public class TextDelimiterScanner implements Closeable {
 
     @Override
     public void close() {
-        Unsafe.free(matrix, matrixSize);
+        Unsafe.free(matrix, matrixSize, MemoryTag.NATIVE_INGEST);
     }
 
     byte scan(long address, long hi) throws TextException {
@@ -29,6 +29,7 @@ import io.questdb.cutlass.text.types.TypeManager;
 import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
 import io.questdb.log.LogRecord;
+import io.questdb.std.MemoryTag;
 import io.questdb.std.Mutable;
 import io.questdb.std.ObjList;
 import io.questdb.std.ObjectPool;
@@ -71,7 +72,7 @@ public class TextLexer implements Closeable, Mutable {
         this.csPool = new ObjectPool<>(DirectByteCharSequence.FACTORY, textConfiguration.getTextLexerStringPoolCapacity());
         this.lineRollBufLen = textConfiguration.getRollBufferSize();
         this.lineRollBufLimit = textConfiguration.getRollBufferLimit();
-        this.lineRollBufPtr = Unsafe.malloc(lineRollBufLen);
+        this.lineRollBufPtr = Unsafe.malloc(lineRollBufLen, MemoryTag.NATIVE_INGEST);
     }
 
     public void analyseStructure(
@@ -101,7 +102,7 @@ public class TextLexer implements Closeable, Mutable {
     @Override
     public void close() {
         if (lineRollBufPtr != 0) {
-            Unsafe.free(lineRollBufPtr, lineRollBufLen);
+            Unsafe.free(lineRollBufPtr, lineRollBufLen, MemoryTag.NATIVE_INGEST);
             lineRollBufPtr = 0;
         }
         metadataDetector.close();
@@ -203,12 +204,12 @@ public class TextLexer implements Closeable, Mutable {
 
         final int len = Math.min(lineRollBufLimit, requiredLength << 1);
         LOG.info().$("resizing ").$(lineRollBufLen).$(" -> ").$(len).$(" [table=").$(tableName).$(']').$();
-        long p = Unsafe.malloc(len);
+        long p = Unsafe.malloc(len, MemoryTag.NATIVE_INGEST);
         long l = lineRollBufCur - lineRollBufPtr;
         if (l > 0) {
             Unsafe.getUnsafe().copyMemory(lineRollBufPtr, p, l);
         }
-        Unsafe.free(lineRollBufPtr, lineRollBufLen);
+        Unsafe.free(lineRollBufPtr, lineRollBufLen, MemoryTag.NATIVE_INGEST);
         if (updateFields) {
             shift(lineRollBufPtr - p);
         }
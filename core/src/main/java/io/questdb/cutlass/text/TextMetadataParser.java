@@ -126,7 +126,7 @@ public class TextMetadataParser implements JsonParser, Mutable, Closeable {
     public void close() {
         clear();
         if (bufCapacity > 0) {
-            Unsafe.free(buf, bufCapacity);
+            Unsafe.free(buf, bufCapacity, MemoryTag.NATIVE_INGEST);
             bufCapacity = 0;
         }
     }
@@ -210,10 +210,10 @@ public class TextMetadataParser implements JsonParser, Mutable, Closeable {
         final int l = tag.length() * 2;
         final long n = bufSize + l;
         if (n > bufCapacity) {
-            long ptr = Unsafe.malloc(n * 2);
+            long ptr = Unsafe.malloc(n * 2, MemoryTag.NATIVE_INGEST);
             Unsafe.getUnsafe().copyMemory(buf, ptr, bufSize);
             if (bufCapacity > 0) {
-                Unsafe.free(buf, bufCapacity);
+                Unsafe.free(buf, bufCapacity, MemoryTag.NATIVE_INGEST);
             }
             buf = ptr;
             bufCapacity = n * 2;
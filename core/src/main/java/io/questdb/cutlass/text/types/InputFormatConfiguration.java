@@ -31,6 +31,7 @@ import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
 import io.questdb.std.Chars;
 import io.questdb.std.IntList;
+import io.questdb.std.MemoryTag;
 import io.questdb.std.ObjList;
 import io.questdb.std.Unsafe;
 import io.questdb.std.microtime.TimestampFormat;
@@ -161,7 +162,7 @@ public class InputFormatConfiguration {
             // we will copy buffer twice to parse json, but luckily contents should be small
             // and we should be parsing this only once on startup
             byte[] heapBuffer = new byte[4096];
-            long memBuffer = Unsafe.malloc(heapBuffer.length);
+            long memBuffer = Unsafe.malloc(heapBuffer.length, MemoryTag.NATIVE_INGEST);
             try {
                 int len;
                 while ((len = stream.read(heapBuffer)) > 0) {
@@ -173,7 +174,7 @@ public class InputFormatConfiguration {
                 }
                 jsonLexer.clear();
             } finally {
-                Unsafe.free(memBuffer, heapBuffer.length);
+                Unsafe.free(memBuffer, heapBuffer.length, MemoryTag.NATIVE_INGEST);
             }
         } catch (IOException e) {
             throw JsonException.$(0, "could not read [resource=").put(adapterSetConfigurationFileName).put(']');
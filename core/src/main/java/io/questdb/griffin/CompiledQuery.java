@@ -40,6 +40,9 @@ public interface CompiledQuery {
     int CREATE_TABLE = 8;
     int INSERT_AS_SELECT = 9;
     int COPY_REMOTE = 10;
+    int REFRESH = 11;
+    int ANALYZE = 12;
+    int CANCEL = 13;
 
     RecordCursorFactory getRecordCursorFactory();
 
@@ -65,6 +65,16 @@ public class CompiledQueryImpl implements CompiledQuery {
         return this;
     }
 
+    CompiledQuery ofAnalyze() {
+        this.type = ANALYZE;
+        return this;
+    }
+
+    CompiledQuery ofCancel() {
+        this.type = CANCEL;
+        return this;
+    }
+
     CompiledQuery ofCopyLocal() {
         this.type = COPY_LOCAL;
         return this;
@@ -97,6 +107,11 @@ public class CompiledQueryImpl implements CompiledQuery {
         return this;
     }
 
+    CompiledQuery ofRefresh() {
+        this.type = REFRESH;
+        return this;
+    }
+
     CompiledQuery ofRepair() {
         this.type = REPAIR;
         return this;
@@ -40,4 +40,19 @@ public class DefaultSqlExecutionContext implements SqlExecutionContext {
     public CairoSecurityContext getCairoSecurityContext() {
         return AllowAllCairoSecurityContext.INSTANCE;
     }
+
+    @Override
+    public SqlExecutionCircuitBreaker getCircuitBreaker() {
+        return SqlExecutionCircuitBreaker.NOOP_CIRCUIT_BREAKER;
+    }
+
+    @Override
+    public QueryCache getQueryCache() {
+        return null;
+    }
+
+    @Override
+    public QueryRegistry getQueryRegistry() {
+        return null;
+    }
 }
@@ -30,15 +30,20 @@ import io.questdb.cairo.sql.Function;
 import io.questdb.cairo.sql.RecordCursorFactory;
 import io.questdb.cairo.sql.RecordMetadata;
 import io.questdb.griffin.engine.functions.CursorFunction;
+import io.questdb.griffin.engine.functions.GroupByFunction;
+import io.questdb.griffin.engine.functions.MemoizedFunction;
+import io.questdb.griffin.engine.functions.RuntimeConstantFunction;
 import io.questdb.griffin.engine.functions.bind.BindVariableService;
 import io.questdb.griffin.engine.functions.bind.IndexedParameterLinkFunction;
 import io.questdb.griffin.engine.functions.bind.NamedParameterLinkFunction;
 import io.questdb.griffin.engine.functions.columns.*;
 import io.questdb.griffin.engine.functions.constants.*;
 import io.questdb.griffin.model.ExpressionNode;
+import io.questdb.griffin.model.QueryColumn;
 import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
 import io.questdb.std.*;
+import io.questdb.std.str.StringSink;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.ArrayDeque;
@@ -73,7 +78,12 @@ public class FunctionParser implements PostOrderTreeTraversalAlgo.Visitor {
     private final CharSequenceObjHashMap<ObjList<FunctionFactory>> factories = new CharSequenceObjHashMap<>();
     private final CharSequenceHashSet groupByFunctionNames = new CharSequenceHashSet();
     private final ArrayDeque<RecordMetadata> metadataStack = new ArrayDeque<>();
+    private final CharSequenceIntHashMap subexpressionCounts = new CharSequenceIntHashMap();
+    private final CharSequenceObjHashMap<Function> subexpressions = new CharSequenceObjHashMap<>();
+    private final StringSink subexpressionKey = new StringSink();
     private RecordMetadata metadata;
+    private RecordMetadata subexpressionMetadata;
+    private ObjList<MemoizedFunction> memoizedFunctions;
     private SqlCodeGenerator sqlCodeGenerator;
     private SqlExecutionContext sqlExecutionContext;
 
@@ -202,6 +212,38 @@ public class FunctionParser implements PostOrderTreeTraversalAlgo.Visitor {
         return ex;
     }
 
+    /**
+     * Starts sharing of common subexpressions between functions of the supplied columns. Columns
+     * have to be parsed against the supplied metadata while scope is open. Subexpressions that occur
+     * more than once are created once and wrapped into {@link MemoizedFunction}, which evaluates
+     * them once per row. These wrappers are added to the supplied list, cursor has to invalidate
+     * them whenever it moves to another row.
+     * <p>
+     * Scopes do not nest, columns of sub-queries compiled while scope is open are not shared.
+     *
+     * @param columns           columns to be parsed
+     * @param metadata          metadata columns are parsed against
+     * @param memoizedFunctions list to receive memoizing wrappers of shared subexpressions
+     * @return true when scope has been opened and has to be closed via {@link #endSubexpressionScope()}
+     */
+    public boolean beginSubexpressionScope(
+            ObjList<QueryColumn> columns,
+            RecordMetadata metadata,
+            ObjList<MemoizedFunction> memoizedFunctions
+    ) {
+        if (subexpressionMetadata != null) {
+            return false;
+        }
+        subexpressionCounts.clear();
+        subexpressions.clear();
+        for (int i = 0, n = columns.size(); i < n; i++) {
+            countSubexpressions(columns.getQuick(i).getAst());
+        }
+        this.subexpressionMetadata = metadata;
+        this.memoizedFunctions = memoizedFunctions;
+        return true;
+    }
+
     public Function createIndexParameter(int variableIndex, ExpressionNode node) throws SqlException {
         Function function = getBindVariableService().getFunction(variableIndex);
         if (function == null) {
@@ -218,6 +260,13 @@ public class FunctionParser implements PostOrderTreeTraversalAlgo.Visitor {
         return new NamedParameterLinkFunction(Chars.toString(node.token), function.getType(), node.position);
     }
 
+    public void endSubexpressionScope() {
+        subexpressionMetadata = null;
+        memoizedFunctions = null;
+        subexpressionCounts.clear();
+        subexpressions.clear();
+    }
+
     @NotNull
     private BindVariableService getBindVariableService() throws SqlException {
         final BindVariableService bindVariableService = sqlExecutionContext.getBindVariableService();
@@ -328,7 +377,38 @@ public class FunctionParser implements PostOrderTreeTraversalAlgo.Visitor {
             for (int n = 0; n < argCount; n++) {
                 mutableArgs.setQuick(n, stack.poll());
             }
-            stack.push(createFunction(node, mutableArgs));
+
+            final CharSequence key = getSubexpressionKey(node);
+            if (key == null) {
+                stack.push(createFunction(node, mutableArgs));
+                return;
+            }
+
+            final int index = subexpressions.keyIndex(key);
+            if (index < 0) {
+                // arguments of shared subexpression are either shared themselves or are not
+                // referenced by anything else
+                for (int n = 0; n < argCount; n++) {
+                    final Function arg = mutableArgs.getQuick(n);
+                    if (!(arg instanceof MemoizedFunction)) {
+                        Misc.free(arg);
+                    }
+                }
+                stack.push(subexpressions.valueAtQuick(index));
+                return;
+            }
+
+            Function function = createFunction(node, mutableArgs);
+            if (!function.isConstant()
+                    && !function.isRuntimeConstant()
+                    && !(function instanceof GroupByFunction)
+                    && MemoizedFunction.isSupported(function.getType())) {
+                final MemoizedFunction memoizedFunction = new MemoizedFunction(function);
+                memoizedFunctions.add(memoizedFunction);
+                function = memoizedFunction;
+            }
+            subexpressions.putAt(index, Chars.toString(key), function);
+            stack.push(function);
         }
     }
 
@@ -351,9 +431,48 @@ public class FunctionParser implements PostOrderTreeTraversalAlgo.Visitor {
         if (function.isConstant()) {
             return functionToConstant(position, function);
         }
+
+        if (function.isRuntimeConstant() && !(function instanceof GroupByFunction)) {
+            return RuntimeConstantFunction.wrap(function);
+        }
         return function;
     }
 
+    /**
+     * Counts occurrences of deterministic subexpressions of the given tree.
+     *
+     * @param node root of expression tree
+     * @return true when value of expression depends solely on its arguments
+     */
+    private boolean countSubexpressions(ExpressionNode node) {
+        if (node == null) {
+            return true;
+        }
+
+        boolean deterministic = true;
+        if (node.paramCount < 3) {
+            deterministic = countSubexpressions(node.lhs);
+            deterministic &= countSubexpressions(node.rhs);
+        } else {
+            for (int i = 0, n = node.paramCount; i < n; i++) {
+                deterministic &= countSubexpressions(node.args.getQuick(i));
+            }
+        }
+
+        // random functions yield new value on every call and aggregates are
+        // evaluated outside of select list, neither can be shared
+        if (node.type == ExpressionNode.QUERY || Chars.startsWith(node.token, "rnd_") || isGroupBy(node.token)) {
+            return false;
+        }
+
+        if (deterministic && isSubexpressionCandidate(node)) {
+            subexpressionKey.clear();
+            node.toSink(subexpressionKey);
+            subexpressionCounts.increment(subexpressionKey);
+        }
+        return deterministic;
+    }
+
     private Function createColumn(ExpressionNode node) throws SqlException {
         final int index = metadata.getColumnIndexQuiet(node.token);
 
@@ -631,6 +750,20 @@ public class FunctionParser implements PostOrderTreeTraversalAlgo.Visitor {
         return checkAndCreateFunction(candidate, args, node.position, configuration);
     }
 
+    private CharSequence getSubexpressionKey(ExpressionNode node) {
+        if (subexpressionMetadata == null || subexpressionMetadata != metadata || !isSubexpressionCandidate(node)) {
+            return null;
+        }
+        subexpressionKey.clear();
+        node.toSink(subexpressionKey);
+        // counter starts at zero for the first occurrence
+        return subexpressionCounts.get(subexpressionKey) > 0 ? subexpressionKey : null;
+    }
+
+    private static boolean isSubexpressionCandidate(ExpressionNode node) {
+        return (node.type == ExpressionNode.FUNCTION || node.type == ExpressionNode.OPERATION) && node.paramCount > 0;
+    }
+
     private Function functionToConstant(int position, Function function) {
         // todo: LONG256 missing
         switch (function.getType()) {
@@ -0,0 +1,111 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.CairoEngine;
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.TableUtils;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.mp.SynchronizedJob;
+import io.questdb.std.*;
+import io.questdb.std.microtime.MicrosecondClock;
+import io.questdb.std.str.NativeLPSZ;
+import io.questdb.std.str.Path;
+
+import java.io.Closeable;
+
+/**
+ * Periodically refreshes all materialized views found in database root. Views are refreshed one
+ * after another by the same compiler, job must therefore be assigned to single worker.
+ */
+public class MaterializedViewRefreshJob extends SynchronizedJob implements Closeable {
+    private static final Log LOG = LogFactory.getLog(MaterializedViewRefreshJob.class);
+    private final SqlCompiler compiler;
+    private final CairoConfiguration configuration;
+    private final FilesFacade ff;
+    private final MicrosecondClock clock;
+    private final long refreshInterval;
+    private final Path path = new Path();
+    private final NativeLPSZ nativeLPSZ = new NativeLPSZ();
+    private final ObjList<String> views = new ObjList<>();
+    private final FindVisitor viewFinder = this::onFind;
+    private long last = 0;
+
+    public MaterializedViewRefreshJob(CairoEngine engine) {
+        this.configuration = engine.getConfiguration();
+        this.compiler = new SqlCompiler(engine);
+        this.ff = configuration.getFilesFacade();
+        this.clock = configuration.getMicrosecondClock();
+        this.refreshInterval = configuration.getMatViewRefreshInterval() * 1000;
+    }
+
+    @Override
+    public void close() {
+        Misc.free(compiler);
+        Misc.free(path);
+    }
+
+    @Override
+    protected boolean runSerially() {
+        long t = clock.getTicks();
+        if (last + refreshInterval < t) {
+            last = t;
+            return refreshAll();
+        }
+        return false;
+    }
+
+    private void onFind(long name, int type) {
+        if (type == Files.DT_DIR) {
+            nativeLPSZ.of(name);
+            if (!Chars.equals(nativeLPSZ, '.')
+                    && !Chars.equals(nativeLPSZ, "..")
+                    && ff.exists(path.of(configuration.getRoot()).concat(name).concat(TableUtils.MAT_VIEW_FILE_NAME).$())) {
+                views.add(Chars.toString(nativeLPSZ));
+            }
+        }
+    }
+
+    private boolean refreshAll() {
+        views.clear();
+        ff.iterateDir(path.of(configuration.getRoot()).$(), viewFinder);
+
+        boolean useful = false;
+        for (int i = 0, n = views.size(); i < n; i++) {
+            final String view = views.getQuick(i);
+            try {
+                useful |= compiler.refreshMaterializedView(view, DefaultSqlExecutionContext.INSTANCE) > 0;
+            } catch (SqlException e) {
+                LOG.error().$("could not refresh [view=").utf8(view).$(", error=").$(e.getFlyweightMessage()).$(']').$();
+            } catch (CairoException e) {
+                // view or base table is busy, try again next time
+                LOG.info().$("could not refresh [view=").utf8(view).$(", error=").$((Sinkable) e).$(']').$();
+            }
+        }
+        return useful;
+    }
+}
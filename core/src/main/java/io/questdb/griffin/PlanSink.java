@@ -0,0 +1,250 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin;
+
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.RecordMetadata;
+import io.questdb.std.LongList;
+import io.questdb.std.Mutable;
+import io.questdb.std.ObjList;
+import io.questdb.std.str.CharSink;
+import io.questdb.std.str.StringSink;
+
+/**
+ * Renders execution plan as lines of text. Each node of the plan takes one line, indented by
+ * depth of the node in the tree, and each attribute of the node takes one line under the node.
+ * Nodes that are not described explicitly are named after their class.
+ */
+public class PlanSink implements Mutable {
+    private static final int NODE_INDENT = 4;
+    private static final int ATTR_INDENT = 2;
+    private final ObjList<StringSink> lines = new ObjList<>();
+    private int lineCount;
+    private int depth;
+    private RecordMetadata metadata;
+
+    public static String nameOf(Object node) {
+        String name = node.getClass().getName();
+        name = name.substring(name.lastIndexOf('.') + 1);
+        // nested function classes, such as "EqIntFunctionFactory$Func", are named after their factory
+        final int nested = name.indexOf('$');
+        if (nested > 0) {
+            name = name.substring(0, nested);
+        }
+        return strip(strip(strip(strip(strip(name, "RecordCursorFactory"), "RowCursorFactory"), "CursorFactory"), "FunctionFactory"), "Function");
+    }
+
+    public PlanSink attr(CharSequence name) {
+        nextLine(depth * NODE_INDENT + ATTR_INDENT).put(name).put(": ");
+        return this;
+    }
+
+    public PlanSink child(Plannable node) {
+        depth++;
+        node.toPlan(this);
+        depth--;
+        return this;
+    }
+
+    @Override
+    public void clear() {
+        lineCount = 0;
+        depth = 0;
+        metadata = null;
+    }
+
+    public PlanSink column(int columnIndex) {
+        if (metadata != null && columnIndex > -1 && columnIndex < metadata.getColumnCount()) {
+            line().put(metadata.getColumnName(columnIndex));
+        } else {
+            line().put(columnIndex);
+        }
+        return this;
+    }
+
+    public CharSequence getLine(int index) {
+        return lines.getQuick(index);
+    }
+
+    public int getLineCount() {
+        return lineCount;
+    }
+
+    /**
+     * Appends to previously rendered line, which is how nodes can be annotated after their subtree is rendered.
+     *
+     * @param index index of line
+     * @return sink of line
+     */
+    public CharSink getLineSink(int index) {
+        return lines.getQuick(index);
+    }
+
+    public RecordMetadata getMetadata() {
+        return metadata;
+    }
+
+    public PlanSink intervals(LongList intervals) {
+        final CharSink sink = line();
+        sink.put('[');
+        for (int i = 0, n = intervals.size(); i < n; i += 2) {
+            if (i > 0) {
+                sink.put(',');
+            }
+            sink.put('[').putISODate(intervals.getQuick(i)).put(',').putISODate(intervals.getQuick(i + 1)).put(']');
+        }
+        sink.put(']');
+        return this;
+    }
+
+    /**
+     * Renders attribute with function value unless function is null.
+     *
+     * @param name     attribute name
+     * @param function attribute value
+     * @return this sink
+     */
+    public PlanSink optAttr(CharSequence name, Function function) {
+        if (function != null) {
+            attr(name).val(function);
+        }
+        return this;
+    }
+
+    /**
+     * Sets metadata, which nodes resolve column names with when they refer to columns by index.
+     *
+     * @param metadata metadata of the current node
+     */
+    public void setMetadata(RecordMetadata metadata) {
+        this.metadata = metadata;
+    }
+
+    public PlanSink type(CharSequence type) {
+        nextLine(depth * NODE_INDENT).put(type);
+        return this;
+    }
+
+    public PlanSink type(Object node) {
+        return type(nameOf(node));
+    }
+
+    public PlanSink val(CharSequence value) {
+        line().put(value);
+        return this;
+    }
+
+    public PlanSink val(long value) {
+        line().put(value);
+        return this;
+    }
+
+    public PlanSink val(boolean value) {
+        line().put(value);
+        return this;
+    }
+
+    /**
+     * Renders value of constant function and name of any other function.
+     *
+     * @param function function to render
+     * @return this sink
+     */
+    public PlanSink val(Function function) {
+        if (function.isConstant()) {
+            switch (function.getType()) {
+                case ColumnType.BYTE:
+                case ColumnType.SHORT:
+                case ColumnType.INT:
+                case ColumnType.LONG:
+                    line().put(function.getLong(null));
+                    return this;
+                case ColumnType.STRING:
+                    return quoted(function.getStr(null));
+                case ColumnType.SYMBOL:
+                    return quoted(function.getSymbol(null));
+                default:
+                    break;
+            }
+        }
+        line().put(nameOf(function));
+        return this;
+    }
+
+    /**
+     * Renders names of functions as a list.
+     *
+     * @param functions functions to render
+     * @return this sink
+     */
+    public PlanSink val(ObjList<? extends Function> functions) {
+        final CharSink sink = line();
+        sink.put('[');
+        for (int i = 0, n = functions.size(); i < n; i++) {
+            if (i > 0) {
+                sink.put(',');
+            }
+            sink.put(nameOf(functions.getQuick(i)));
+        }
+        sink.put(']');
+        return this;
+    }
+
+    private static String strip(String name, String suffix) {
+        if (name.length() > suffix.length() && name.endsWith(suffix)) {
+            return name.substring(0, name.length() - suffix.length());
+        }
+        return name;
+    }
+
+    private StringSink line() {
+        return lines.getQuick(lineCount - 1);
+    }
+
+    private StringSink nextLine(int indent) {
+        final StringSink line;
+        if (lineCount < lines.size()) {
+            line = lines.getQuick(lineCount);
+            line.clear();
+        } else {
+            lines.add(line = new StringSink());
+        }
+        lineCount++;
+        for (int i = 0; i < indent; i++) {
+            line.put(' ');
+        }
+        return line;
+    }
+
+    private PlanSink quoted(CharSequence value) {
+        if (value == null) {
+            line().put("null");
+        } else {
+            line().put('\'').put(value).put('\'');
+        }
+        return this;
+    }
+}
@@ -0,0 +1,226 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin;
+
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.griffin.engine.functions.bind.BindVariableService;
+import io.questdb.std.Chars;
+import io.questdb.std.Hash;
+import io.questdb.std.Misc;
+import io.questdb.std.Numbers;
+import io.questdb.std.ObjList;
+import io.questdb.std.ThreadLocal;
+import io.questdb.std.str.StringSink;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Compiled query factories shared by all connections of the engine. Factories are keyed by query
+ * text, which is normalised by collapsing whitespace outside of quotes, and by types of bind variables
+ * the query was compiled with. Factories link to bind variables of execution context when cursor is
+ * created, so the same factory serves all connections. Cache is organised in rows of LRU blocks, row
+ * is chosen by hash of the key and is guarded by its own lock.
+ * <p>
+ * Factory is taken out of the cache for the duration of the query, so that two threads never share
+ * it, and is put back when query is done. The same query running concurrently may occupy several
+ * blocks of a row. Factories of tables, which structure has changed since they were compiled, throw
+ * {@link io.questdb.cairo.sql.ReaderOutOfDateException} when asked for cursor, callers free such
+ * factories instead of putting them back.
+ */
+public class QueryCache implements Closeable {
+    private static final ThreadLocal<StringSink> tlSink = new ThreadLocal<>(StringSink::new);
+    private final String[] keys;
+    private final RecordCursorFactory[] values;
+    private final Object[] locks;
+    private final int blocks;
+    private final int rmask;
+    private final int bshift;
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+
+    public QueryCache(int blocks, int rows) {
+        this.blocks = Numbers.ceilPow2(blocks);
+        rows = Numbers.ceilPow2(rows);
+        this.keys = new String[rows * this.blocks];
+        this.values = new RecordCursorFactory[rows * this.blocks];
+        this.locks = new Object[rows];
+        for (int i = 0; i < rows; i++) {
+            locks[i] = new Object();
+        }
+        this.rmask = rows - 1;
+        this.bshift = Numbers.msb(this.blocks);
+    }
+
+    /**
+     * Collapses runs of whitespace outside of quotes into single space and trims the text along
+     * with trailing semicolon.
+     *
+     * @param query query text
+     * @param sink  receives normalised text
+     */
+    public static void normalise(CharSequence query, StringSink sink) {
+        int lo = 0;
+        int hi = query.length();
+        while (lo < hi && Character.isWhitespace(query.charAt(lo))) {
+            lo++;
+        }
+        while (hi > lo && (Character.isWhitespace(query.charAt(hi - 1)) || query.charAt(hi - 1) == ';')) {
+            hi--;
+        }
+
+        char quote = 0;
+        boolean space = false;
+        for (int i = lo; i < hi; i++) {
+            final char c = query.charAt(i);
+            if (quote == 0 && Character.isWhitespace(c)) {
+                space = true;
+                continue;
+            }
+            if (space) {
+                sink.put(' ');
+                space = false;
+            }
+            if (quote == 0) {
+                if (c == '\'' || c == '"') {
+                    quote = c;
+                }
+            } else if (c == quote) {
+                quote = 0;
+            }
+            sink.put(c);
+        }
+    }
+
+    /**
+     * Frees all cached factories. Factories checked out by connections are not affected.
+     */
+    public void clear() {
+        for (int i = 0, n = locks.length; i < n; i++) {
+            synchronized (locks[i]) {
+                for (int j = i << bshift, hi = j + blocks; j < hi; j++) {
+                    keys[j] = null;
+                    values[j] = Misc.free(values[j]);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        clear();
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    /**
+     * Takes factory out of the cache. Factory belongs to the caller until it is put back.
+     *
+     * @param query               query text
+     * @param bindVariableService bind variables defined for the query, can be null
+     * @return factory or null when query is not cached or all its factories are in use
+     */
+    public RecordCursorFactory poll(CharSequence query, @Nullable BindVariableService bindVariableService) {
+        final StringSink sink = key(query, bindVariableService);
+        final int row = row(sink);
+        final int lo = row << bshift;
+        synchronized (locks[row]) {
+            for (int i = lo, hi = lo + blocks; i < hi; i++) {
+                if (keys[i] != null && Chars.equals(keys[i], sink)) {
+                    final RecordCursorFactory factory = values[i];
+                    // close the gap to keep blocks in LRU order
+                    System.arraycopy(keys, i + 1, keys, i, hi - i - 1);
+                    System.arraycopy(values, i + 1, values, i, hi - i - 1);
+                    keys[hi - 1] = null;
+                    values[hi - 1] = null;
+                    hitCount.incrementAndGet();
+                    return factory;
+                }
+            }
+        }
+        missCount.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * Puts factory back to the cache, or adds new one. When row is full least recently used factory
+     * is closed to make room.
+     *
+     * @param query               query text
+     * @param bindVariableService bind variables the factory was compiled with, can be null
+     * @param factory             factory, which is no longer used by the caller
+     */
+    public void push(CharSequence query, @Nullable BindVariableService bindVariableService, RecordCursorFactory factory) {
+        final StringSink sink = key(query, bindVariableService);
+        final int row = row(sink);
+        final int lo = row << bshift;
+        final String key = sink.toString();
+        final RecordCursorFactory evicted;
+        synchronized (locks[row]) {
+            evicted = values[lo + blocks - 1];
+            System.arraycopy(keys, lo, keys, lo + 1, blocks - 1);
+            System.arraycopy(values, lo, values, lo + 1, blocks - 1);
+            keys[lo] = key;
+            values[lo] = factory;
+        }
+        // factory is closed outside of lock, closing may take time
+        Misc.free(evicted);
+    }
+
+    private static StringSink key(CharSequence query, @Nullable BindVariableService bindVariableService) {
+        final StringSink sink = tlSink.get();
+        sink.clear();
+        normalise(query, sink);
+        if (bindVariableService != null) {
+            for (int i = 0, n = bindVariableService.getIndexedVariableCount(); i < n; i++) {
+                final Function function = bindVariableService.getFunction(i);
+                sink.put('\0');
+                if (function != null) {
+                    sink.put(ColumnType.nameOf(function.getType()));
+                }
+            }
+
+            final ObjList<CharSequence> names = bindVariableService.getNamedVariables();
+            for (int i = 0, n = names.size(); i < n; i++) {
+                final CharSequence name = names.getQuick(i);
+                sink.put('\0').put(':').put(name).put('=').put(ColumnType.nameOf(bindVariableService.getNamedVariable(name).getType()));
+            }
+        }
+        return sink;
+    }
+
+    private int row(CharSequence key) {
+        return Hash.spread(Chars.hashCode(key)) & rmask;
+    }
+}
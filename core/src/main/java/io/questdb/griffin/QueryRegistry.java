@@ -0,0 +1,93 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin;
+
+import io.questdb.std.LongList;
+import io.questdb.std.ObjList;
+
+/**
+ * Queries that are currently running on this engine. Queries are registered by their
+ * circuit breakers, which is what makes them cancellable by id. Number of running queries
+ * is bounded by number of worker threads, so lookups are linear.
+ */
+public class QueryRegistry {
+    private final ObjList<SqlExecutionCircuitBreakerImpl> queries = new ObjList<>();
+    private long nextId = 0;
+
+    /**
+     * Cancels running query. Query stops next time it checks its circuit breaker.
+     *
+     * @param id id of query
+     * @return false when there is no running query with this id
+     */
+    public synchronized boolean cancel(long id) {
+        final int index = indexOf(id);
+        if (index > -1) {
+            queries.getQuick(index).cancel();
+            return true;
+        }
+        return false;
+    }
+
+    public synchronized int getQueryCount() {
+        return queries.size();
+    }
+
+    /**
+     * Copies details of running queries.
+     *
+     * @param ids        receives query ids
+     * @param startTimes receives query start timestamps
+     * @param texts      receives query texts
+     * @param memUsed    receives native memory held by queries
+     */
+    public synchronized void snapshot(LongList ids, LongList startTimes, ObjList<CharSequence> texts, LongList memUsed) {
+        for (int i = 0, n = queries.size(); i < n; i++) {
+            final SqlExecutionCircuitBreakerImpl query = queries.getQuick(i);
+            ids.add(query.getQueryId());
+            startTimes.add(query.getStartTime());
+            texts.add(query.getQuery().toString());
+            memUsed.add(query.getMemUsed());
+        }
+    }
+
+    synchronized void register(SqlExecutionCircuitBreakerImpl query) {
+        query.setQueryId(++nextId);
+        queries.add(query);
+    }
+
+    synchronized void unregister(SqlExecutionCircuitBreakerImpl query) {
+        queries.remove(query);
+    }
+
+    private int indexOf(long id) {
+        for (int i = 0, n = queries.size(); i < n; i++) {
+            if (queries.getQuick(i).getQueryId() == id) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -29,6 +29,10 @@ import io.questdb.cairo.map.RecordValueSinkFactory;
 import io.questdb.cairo.sql.*;
 import io.questdb.griffin.engine.EmptyTableRecordCursorFactory;
 import io.questdb.griffin.engine.LimitRecordCursorFactory;
+import io.questdb.griffin.engine.ProfiledRecordCursorFactory;
+import io.questdb.griffin.engine.functions.MemoizedFunction;
+import io.questdb.griffin.engine.functions.bool.AndFunctionFactory;
+import io.questdb.griffin.engine.functions.bool.SymbolKeyFilterFunction;
 import io.questdb.griffin.engine.functions.columns.SymbolColumn;
 import io.questdb.griffin.engine.functions.constants.LongConstant;
 import io.questdb.griffin.engine.groupby.*;
@@ -42,8 +46,12 @@ import io.questdb.griffin.engine.union.UnionRecordCursorFactory;
 import io.questdb.griffin.model.*;
 import io.questdb.std.*;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayDeque;
 
 import static io.questdb.griffin.model.ExpressionNode.FUNCTION;
+import static io.questdb.griffin.model.ExpressionNode.LITERAL;
 
 public class SqlCodeGenerator {
     private static final IntHashSet limitTypes = new IntHashSet();
@@ -55,19 +63,29 @@ public class SqlCodeGenerator {
     private final ListColumnFilter listColumnFilterA = new ListColumnFilter();
     private final ListColumnFilter listColumnFilterB = new ListColumnFilter();
     private final CairoConfiguration configuration;
+    private final CairoWorkScheduler workScheduler;
     private final RecordComparatorCompiler recordComparatorCompiler;
     private final IntHashSet intHashSet = new IntHashSet();
+    private final ArrayDeque<ExpressionNode> sqlNodeStack = new ArrayDeque<>();
+    private final ObjList<ExpressionNode> conjuncts = new ObjList<>();
+    private final ObjList<SymbolKeyFilterFunction> symbolFilters = new ObjList<>();
+    private final ObjList<Function> functionArgs = new ObjList<>();
+    private final AndFunctionFactory andFunctionFactory = new AndFunctionFactory();
     private final ArrayColumnTypes keyTypes = new ArrayColumnTypes();
     private final ArrayColumnTypes valueTypes = new ArrayColumnTypes();
     private final EntityColumnFilter entityColumnFilter = new EntityColumnFilter();
     private boolean fullFatJoins = false;
+    private boolean liveSampleBy = false;
+    private ObjList<ProfiledRecordCursorFactory> profiledFactories;
     public SqlCodeGenerator(
             CairoEngine engine,
             CairoConfiguration configuration,
+            @Nullable CairoWorkScheduler workScheduler,
             FunctionParser functionParser
     ) {
         this.engine = engine;
         this.configuration = configuration;
+        this.workScheduler = workScheduler;
         this.functionParser = functionParser;
         this.recordComparatorCompiler = new RecordComparatorCompiler(asm);
     }
@@ -215,6 +233,17 @@ public class SqlCodeGenerator {
         return master;
     }
 
+    // copies all columns of record, symbols are copied as int keys
+    private RecordSink createChainSink(RecordMetadata metadata) {
+        entityColumnFilter.of(metadata.getColumnCount());
+        return RecordSinkFactory.getInstance(
+                asm,
+                metadata,
+                entityColumnFilter,
+                false
+        );
+    }
+
     private RecordCursorFactory createHashJoin(
             RecordMetadata metadata,
             RecordCursorFactory master,
@@ -252,6 +281,11 @@ public class SqlCodeGenerator {
         valueTypes.add(ColumnType.LONG);
         valueTypes.add(ColumnType.LONG);
 
+        // single symbol key lets inner join resolve master keys once per symbol
+        final int masterSymbolColumnIndex = listColumnFilterB.getColumnCount() == 1
+                && masterMetadata.getColumnType(listColumnFilterB.getColumnIndex(0)) == ColumnType.SYMBOL
+                ? listColumnFilterB.getColumnIndex(0) : -1;
+
         if (slave.isRandomAccessCursor() && !fullFatJoins) {
             if (joinType == QueryModel.JOIN_INNER) {
                 return new HashJoinLightRecordCursorFactory(
@@ -263,6 +297,8 @@ public class SqlCodeGenerator {
                         valueTypes,
                         masterKeySink,
                         slaveKeySink,
+                        createChainSink(masterMetadata),
+                        masterSymbolColumnIndex,
                         masterMetadata.getColumnCount()
                 );
             }
@@ -280,13 +316,7 @@ public class SqlCodeGenerator {
             );
         }
 
-        entityColumnFilter.of(slaveMetadata.getColumnCount());
-        RecordSink slaveSink = RecordSinkFactory.getInstance(
-                asm,
-                slaveMetadata,
-                entityColumnFilter,
-                false
-        );
+        RecordSink slaveSink = createChainSink(slaveMetadata);
 
         if (joinType == QueryModel.JOIN_INNER) {
             return new HashJoinRecordCursorFactory(
@@ -298,7 +328,9 @@ public class SqlCodeGenerator {
                     valueTypes,
                     masterKeySink,
                     slaveKeySink,
+                    createChainSink(masterMetadata),
                     slaveSink,
+                    masterSymbolColumnIndex,
                     masterMetadata.getColumnCount()
             );
         }
@@ -425,7 +457,8 @@ public class SqlCodeGenerator {
                 QueryModel slaveModel = joinModels.getQuick(index);
 
                 // compile
-                RecordCursorFactory slave = generateQuery(slaveModel, executionContext, i > 0);
+                // joins are owned by model 0, which is not necessarily the first to join
+                RecordCursorFactory slave = generateQuery(slaveModel, executionContext, index > 0);
 
                 // check if this is the root of joins
                 if (master == null) {
@@ -444,15 +477,17 @@ public class SqlCodeGenerator {
 
                     switch (joinType) {
                         case QueryModel.JOIN_CROSS:
-                            return new CrossJoinRecordCursorFactory(
-                                    createJoinMetadata(masterAlias, masterMetadata, slaveModel.getName(), slaveMetadata),
-                                    master,
-                                    slave,
-                                    masterMetadata.getColumnCount()
+                            return profile(
+                                    new CrossJoinRecordCursorFactory(
+                                            createJoinMetadata(masterAlias, masterMetadata, slaveModel.getName(), slaveMetadata),
+                                            master,
+                                            slave,
+                                            masterMetadata.getColumnCount()
+                                    )
                             );
                         case QueryModel.JOIN_ASOF:
                             validateBothTimestamps(slaveModel, masterMetadata, slaveMetadata);
-                            processJoinContext(index == 1, slaveModel.getContext(), masterMetadata, slaveMetadata);
+                            processJoinContext(i == 1, slaveModel.getContext(), masterMetadata, slaveMetadata);
                             if (slave.isRandomAccessCursor() && !fullFatJoins) {
                                 if (listColumnFilterA.size() > 0 && listColumnFilterB.size() > 0) {
                                     master = createAsOfJoin(
@@ -496,7 +531,7 @@ public class SqlCodeGenerator {
                             break;
                         case QueryModel.JOIN_SPLICE:
                             validateBothTimestamps(slaveModel, masterMetadata, slaveMetadata);
-                            processJoinContext(index == 1, slaveModel.getContext(), masterMetadata, slaveMetadata);
+                            processJoinContext(i == 1, slaveModel.getContext(), masterMetadata, slaveMetadata);
                             if (slave.isRandomAccessCursor() && master.isRandomAccessCursor() && !fullFatJoins) {
                                 master = createSpliceJoin(
                                         // splice join result does not have timestamp
@@ -522,7 +557,7 @@ public class SqlCodeGenerator {
                             }
                             break;
                         default:
-                            processJoinContext(index == 1, slaveModel.getContext(), masterMetadata, slaveMetadata);
+                            processJoinContext(i == 1, slaveModel.getContext(), masterMetadata, slaveMetadata);
                             master = createHashJoin(
                                     createJoinMetadata(masterAlias, masterMetadata, slaveModel.getName(), slaveMetadata),
                                     master,
@@ -532,6 +567,7 @@ public class SqlCodeGenerator {
                             masterAlias = null;
                             break;
                     }
+                    master = profile(master);
                 }
 
                 // check if there are post-filters
@@ -575,6 +611,40 @@ public class SqlCodeGenerator {
         }
     }
 
+    private RuntimeIntervalModel newIntervalModel(
+            IntrinsicModel intrinsicModel,
+            RecordMetadata metadata,
+            SqlExecutionContext executionContext
+    ) throws SqlException {
+        final ObjList<ExpressionNode> nodes = intrinsicModel.runtimeIntervalNodes;
+        final int n = nodes.size();
+        if (n == 0) {
+            return new RuntimeIntervalModel(intrinsicModel.intervals);
+        }
+
+        final ObjList<Function> functions = new ObjList<>(n);
+        final IntList ops = new IntList(n);
+        for (int i = 0; i < n; i++) {
+            final ExpressionNode node = nodes.getQuick(i);
+            final Function function = functionParser.parseFunction(node, metadata, executionContext);
+            switch (function.getType()) {
+                case ColumnType.TIMESTAMP:
+                case ColumnType.DATE:
+                case ColumnType.STRING:
+                case ColumnType.LONG:
+                case ColumnType.INT:
+                case ColumnType.SHORT:
+                case ColumnType.BYTE:
+                    break;
+                default:
+                    throw SqlException.position(node.position).put("timestamp bind variable expected [type=").put(ColumnType.nameOf(function.getType())).put(']');
+            }
+            functions.add(function);
+            ops.add(intrinsicModel.runtimeIntervalOps.getQuick(i));
+        }
+        return new RuntimeIntervalModel(intrinsicModel.intervals, functions, ops);
+    }
+
     @NotNull
     private RecordCursorFactory generateLatestByQuery(
             QueryModel model,
@@ -586,15 +656,15 @@ public class SqlCodeGenerator {
             SqlExecutionContext executionContext
     ) throws SqlException {
         final DataFrameCursorFactory dataFrameCursorFactory;
-        if (intrinsicModel.intervals != null) {
-            dataFrameCursorFactory = new IntervalBwdDataFrameCursorFactory(engine, tableName, model.getTableVersion(), intrinsicModel.intervals);
+        if (intrinsicModel.intervals != null || intrinsicModel.runtimeIntervalNodes.size() > 0) {
+            dataFrameCursorFactory = new IntervalBwdDataFrameCursorFactory(engine, tableName, model.getTableVersion(), newIntervalModel(intrinsicModel, metadata, executionContext));
         } else {
             dataFrameCursorFactory = new FullBwdDataFrameCursorFactory(engine, tableName, model.getTableVersion());
         }
 
         if (listColumnFilterA.size() == 1) {
             final int latestByIndex = listColumnFilterA.getColumnIndex(0);
-            final boolean indexed = metadata.isColumnIndexed(latestByIndex);
+            final boolean indexed = isSymbolIndexed(metadata, latestByIndex);
 
             if (intrinsicModel.keyColumn != null) {
                 // key column must always be the same as latest by column
@@ -711,6 +781,22 @@ public class SqlCodeGenerator {
                         latestByIndex,
                         filter);
             }
+
+            if (metadata.getColumnType(latestByIndex) == ColumnType.SYMBOL) {
+                if (filter != null) {
+                    filter = evaluateSymbolPredicatesPerKey(filter, intrinsicModel.filter, metadata, executionContext);
+                }
+                return new LatestBySymbolRecordCursorFactory(
+                        copyMetadata(metadata),
+                        configuration,
+                        engine,
+                        workScheduler,
+                        dataFrameCursorFactory,
+                        latestByIndex,
+                        filter,
+                        filter != null ? findSymbolFilter(latestByIndex) : null
+                );
+            }
         }
 
         return new LatestByAllFilteredRecordCursorFactory(
@@ -883,23 +969,71 @@ public class SqlCodeGenerator {
     private RecordCursorFactory generateQuery(QueryModel model, SqlExecutionContext executionContext, boolean processJoins) throws SqlException {
         RecordCursorFactory factory = generateQuery0(model, executionContext, processJoins);
         if (model.getUnionModel() != null) {
-            return generateSetFactory(model, factory, executionContext);
+            return profile(generateSetFactory(model, factory, executionContext));
         }
         return factory;
     }
 
     private RecordCursorFactory generateQuery0(QueryModel model, SqlExecutionContext executionContext, boolean processJoins) throws SqlException {
-        return generateLimit(
-                generateOrderBy(
-                        generateSelect(
-                                model,
-                                executionContext,
-                                processJoins
+        return profile(
+                generateLimit(
+                        profile(
+                                generateOrderBy(
+                                        profile(
+                                                generateSelect(
+                                                        model,
+                                                        executionContext,
+                                                        processJoins
+                                                )
+                                        ),
+                                        model
+                                )
                         ),
-                        model
-                ),
+                        model,
+                        executionContext
+                )
+        );
+    }
+
+    @NotNull
+    private RecordCursorFactory generateLiveSampleBy(
+            QueryModel model,
+            SqlExecutionContext executionContext,
+            RecordCursorFactory factory,
+            TimestampSampler timestampSampler,
+            boolean fillNone
+    ) throws SqlException {
+        if (!fillNone) {
+            throw SqlException.$(model.getSampleBy().position, "live SAMPLE BY supports FILL(NONE) only");
+        }
+
+        // live query reads table tail, it can only be based on plain table scan
+        RecordCursorFactory tableFactory = factory;
+        IntList columnCrossIndex = null;
+        if (tableFactory instanceof SelectedRecordCursorFactory) {
+            columnCrossIndex = ((SelectedRecordCursorFactory) tableFactory).getColumnCrossIndex();
+            tableFactory = ((SelectedRecordCursorFactory) tableFactory).getBaseFactory();
+        }
+
+        if (!(tableFactory instanceof TableReaderRecordCursorFactory)) {
+            throw SqlException.$(model.getSampleBy().position, "live SAMPLE BY requires unfiltered table");
+        }
+
+        return new SampleByLiveRecordCursorFactory(
+                configuration,
+                engine,
+                factory,
+                ((TableReaderRecordCursorFactory) tableFactory).getTableName(),
+                ((TableReaderRecordCursorFactory) tableFactory).getTableVersion(),
+                columnCrossIndex,
+                timestampSampler,
                 model,
-                executionContext
+                listColumnFilterA,
+                functionParser,
+                executionContext,
+                asm,
+                keyTypes,
+                valueTypes
         );
     }
 
@@ -920,9 +1054,17 @@ public class SqlCodeGenerator {
             valueTypes.reset();
             listColumnFilterA.clear();
 
-            if (fillCount == 0 || fillCount == 1 && Chars.equalsLowerCaseAscii(sampleByFill.getQuick(0).token, "none")) {
+            final boolean fillNone = fillCount == 0 || fillCount == 1 && Chars.equalsLowerCaseAscii(sampleByFill.getQuick(0).token, "none");
+
+            if (liveSampleBy) {
+                return generateLiveSampleBy(model, executionContext, factory, timestampSampler, fillNone);
+            }
+
+            if (fillNone) {
                 return new SampleByFillNoneRecordCursorFactory(
                         configuration,
+                        engine,
+                        workScheduler,
                         factory,
                         timestampSampler,
                         model,
@@ -1140,6 +1282,19 @@ public class SqlCodeGenerator {
             valueTypes.reset();
             listColumnFilterA.clear();
 
+            if (isSingleSymbolKey(columns, factory.getMetadata())) {
+                return new GroupBySymbolRecordCursorFactory(
+                        configuration,
+                        factory,
+                        model,
+                        listColumnFilterA,
+                        functionParser,
+                        executionContext,
+                        keyTypes,
+                        valueTypes
+                );
+            }
+
             return new GroupByRecordCursorFactory(
                     configuration,
                     factory,
@@ -1158,6 +1313,19 @@ public class SqlCodeGenerator {
         }
     }
 
+    private static boolean isSingleSymbolKey(ObjList<QueryColumn> columns, RecordMetadata metadata) {
+        int keyCount = 0;
+        int keyIndex = -1;
+        for (int i = 0, n = columns.size(); i < n; i++) {
+            final ExpressionNode node = columns.getQuick(i).getAst();
+            if (node.type == LITERAL) {
+                keyIndex = metadata.getColumnIndexQuiet(node.token);
+                keyCount++;
+            }
+        }
+        return keyCount == 1 && keyIndex != -1 && metadata.getColumnType(keyIndex) == ColumnType.SYMBOL;
+    }
+
     private RecordCursorFactory generateSelectVirtual(QueryModel model, SqlExecutionContext executionContext) throws SqlException {
         assert model.getNestedModel() != null;
         final RecordCursorFactory factory = generateSubQuery(model, executionContext);
@@ -1179,35 +1347,44 @@ public class SqlCodeGenerator {
 
             IntList symbolTableCrossIndex = null;
 
-            for (int i = 0; i < columnCount; i++) {
-                final QueryColumn column = model.getColumns().getQuick(i);
-                ExpressionNode node = column.getAst();
-                if (timestampColumn != null && node.type == ExpressionNode.LITERAL && Chars.equals(timestampColumn, node.token)) {
-                    virtualMetadata.setTimestampIndex(i);
-                }
+            // expressions repeated across select list are computed once per row
+            final ObjList<MemoizedFunction> memoizedFunctions = new ObjList<>();
+            final boolean subexpressionScope = functionParser.beginSubexpressionScope(model.getColumns(), metadata, memoizedFunctions);
+            try {
+                for (int i = 0; i < columnCount; i++) {
+                    final QueryColumn column = model.getColumns().getQuick(i);
+                    ExpressionNode node = column.getAst();
+                    if (timestampColumn != null && node.type == ExpressionNode.LITERAL && Chars.equals(timestampColumn, node.token)) {
+                        virtualMetadata.setTimestampIndex(i);
+                    }
 
-                final Function function = functionParser.parseFunction(
-                        column.getAst(),
-                        metadata,
-                        executionContext
-                );
-                functions.add(function);
+                    final Function function = functionParser.parseFunction(
+                            column.getAst(),
+                            metadata,
+                            executionContext
+                    );
+                    functions.add(function);
 
 
-                virtualMetadata.add(new TableColumnMetadata(
-                        Chars.toString(column.getAlias()),
-                        function.getType()
-                ));
+                    virtualMetadata.add(new TableColumnMetadata(
+                            Chars.toString(column.getAlias()),
+                            function.getType()
+                    ));
 
-                if (function instanceof SymbolColumn) {
-                    if (symbolTableCrossIndex == null) {
-                        symbolTableCrossIndex = new IntList(columnCount);
+                    if (function instanceof SymbolColumn) {
+                        if (symbolTableCrossIndex == null) {
+                            symbolTableCrossIndex = new IntList(columnCount);
+                        }
+                        symbolTableCrossIndex.extendAndSet(i, ((SymbolColumn) function).getColumnIndex());
                     }
-                    symbolTableCrossIndex.extendAndSet(i, ((SymbolColumn) function).getColumnIndex());
+                }
+            } finally {
+                if (subexpressionScope) {
+                    functionParser.endSubexpressionScope();
                 }
             }
 
-            return new VirtualRecordCursorFactory(virtualMetadata, functions, factory, symbolTableCrossIndex);
+            return new VirtualRecordCursorFactory(virtualMetadata, functions, memoizedFunctions, factory, symbolTableCrossIndex);
         } catch (SqlException | CairoException e) {
             factory.close();
             throw e;
@@ -1338,8 +1515,8 @@ public class SqlCodeGenerator {
 
                 // below code block generates index-based filter
 
-                if (intrinsicModel.intervals != null) {
-                    dfcFactory = new IntervalFwdDataFrameCursorFactory(engine, tableName, model.getTableVersion(), intrinsicModel.intervals);
+                if (intrinsicModel.intervals != null || intrinsicModel.runtimeIntervalNodes.size() > 0) {
+                    dfcFactory = new IntervalFwdDataFrameCursorFactory(engine, tableName, model.getTableVersion(), newIntervalModel(intrinsicModel, metadata, executionContext));
                 } else {
                     dfcFactory = new FullFwdDataFrameCursorFactory(engine, tableName, model.getTableVersion());
                 }
@@ -1394,11 +1571,47 @@ public class SqlCodeGenerator {
                     );
                 }
 
+                SymbolKeyFilterFunction indexedSymbolFilter = null;
+                if (filter != null) {
+                    filter = evaluateSymbolPredicatesPerKey(filter, intrinsicModel.filter, metadata, executionContext);
+                    indexedSymbolFilter = findIndexedSymbolFilter(metadata);
+                }
+
+                final RowCursorFactory rcf;
+                if (intrinsicModel.rangeColumn != null) {
+                    rcf = new RangeIndexRowCursorFactory(
+                            reader.getMetadata().getColumnIndexQuiet(intrinsicModel.rangeColumn),
+                            intrinsicModel.rangeLo,
+                            intrinsicModel.rangeHi
+                    );
+                } else if (intrinsicModel.bloomColumn != null) {
+                    // bloom index skips blocks of rows, filter still has to check every row returned
+                    rcf = new BloomIndexRowCursorFactory(
+                            reader.getMetadata().getColumnIndexQuiet(intrinsicModel.bloomColumn),
+                            intrinsicModel.bloomHashes
+                    );
+                } else if (indexedSymbolFilter != null) {
+                    rcf = new SymbolKeyFilterRowCursorFactory(indexedSymbolFilter);
+                } else {
+                    rcf = new DataFrameRowCursorFactory();
+                }
+
+                if (filter != null && isLateMaterialized(intrinsicModel.filter, metadata)) {
+                    // filter columns are read in batches ahead of the other columns,
+                    // which are only read for rows that passed the filter
+                    return new DataFrameRecordCursorFactory(
+                            metadata,
+                            dfcFactory,
+                            new FilteredRowCursorFactory(rcf, filter, configuration.getSqlFilterBatchSize()),
+                            filter
+                    );
+                }
+
                 if (filter != null) {
                     // filter lifecycle is managed by top level
-                    return new FilteredRecordCursorFactory(new DataFrameRecordCursorFactory(metadata, dfcFactory, new DataFrameRowCursorFactory(), null), filter);
+                    return new FilteredRecordCursorFactory(new DataFrameRecordCursorFactory(metadata, dfcFactory, rcf, null), filter);
                 }
-                return new DataFrameRecordCursorFactory(metadata, dfcFactory, new DataFrameRowCursorFactory(), filter);
+                return new DataFrameRecordCursorFactory(metadata, dfcFactory, rcf, filter);
             }
 
             // no where clause
@@ -1406,7 +1619,7 @@ public class SqlCodeGenerator {
                 return new TableReaderRecordCursorFactory(copyMetadata(metadata), engine, tableName, model.getTableVersion());
             }
 
-            if (latestByColumnCount == 1 && metadata.isColumnIndexed(listColumnFilterA.getQuick(0))) {
+            if (latestByColumnCount == 1 && isSymbolIndexed(metadata, listColumnFilterA.getQuick(0))) {
                 return new LatestByAllIndexedFilteredRecordCursorFactory(
                         configuration,
                         copyMetadata(metadata),
@@ -1416,6 +1629,19 @@ public class SqlCodeGenerator {
                 );
             }
 
+            if (latestByColumnCount == 1 && metadata.getColumnType(listColumnFilterA.getQuick(0)) == ColumnType.SYMBOL) {
+                return new LatestBySymbolRecordCursorFactory(
+                        copyMetadata(metadata),
+                        configuration,
+                        engine,
+                        workScheduler,
+                        new FullBwdDataFrameCursorFactory(engine, tableName, model.getTableVersion()),
+                        listColumnFilterA.getQuick(0),
+                        null,
+                        null
+                );
+            }
+
             return new LatestByAllFilteredRecordCursorFactory(
                     copyMetadata(metadata),
                     configuration,
@@ -1463,6 +1689,188 @@ public class SqlCodeGenerator {
         return unionFactory;
     }
 
+    /**
+     * Replaces filter conjuncts, which depend on single symbol column only, with functions that
+     * evaluate conjunct once per distinct symbol. Filter is returned as is when there are no such conjuncts.
+     */
+    private Function evaluateSymbolPredicatesPerKey(
+            Function filter,
+            ExpressionNode filterNode,
+            RecordMetadata metadata,
+            SqlExecutionContext executionContext
+    ) throws SqlException {
+        symbolFilters.clear();
+        conjuncts.clear();
+        collectConjuncts(filterNode);
+
+        boolean found = false;
+        for (int i = 0, n = conjuncts.size(); i < n && !found; i++) {
+            found = getSymbolPredicateColumnIndex(conjuncts.getQuick(i), metadata) > -1;
+        }
+
+        if (!found) {
+            return filter;
+        }
+
+        Function result = null;
+        try {
+            for (int i = 0, n = conjuncts.size(); i < n; i++) {
+                final ExpressionNode node = conjuncts.getQuick(i);
+                Function function = functionParser.parseFunction(node, metadata, executionContext);
+                final int columnIndex = getSymbolPredicateColumnIndex(node, metadata);
+                if (columnIndex > -1) {
+                    final SymbolKeyFilterFunction symbolFilter = new SymbolKeyFilterFunction(node.position, function, columnIndex);
+                    symbolFilters.add(symbolFilter);
+                    function = symbolFilter;
+                }
+
+                if (result == null) {
+                    result = function;
+                } else {
+                    functionArgs.clear();
+                    functionArgs.add(result);
+                    functionArgs.add(function);
+                    result = andFunctionFactory.newInstance(functionArgs, node.position, configuration);
+                }
+            }
+        } catch (SqlException e) {
+            Misc.free(result);
+            throw e;
+        }
+        filter.close();
+        return result;
+    }
+
+    private void collectConjuncts(ExpressionNode node) {
+        if (node.type == ExpressionNode.OPERATION && node.paramCount == 2 && Chars.equalsLowerCaseAscii(node.token, "and")) {
+            collectConjuncts(node.lhs);
+            collectConjuncts(node.rhs);
+        } else {
+            conjuncts.add(node);
+        }
+    }
+
+    private SymbolKeyFilterFunction findIndexedSymbolFilter(RecordMetadata metadata) {
+        for (int i = 0, n = symbolFilters.size(); i < n; i++) {
+            final SymbolKeyFilterFunction symbolFilter = symbolFilters.getQuick(i);
+            if (metadata.isColumnIndexed(symbolFilter.getColumnIndex())) {
+                return symbolFilter;
+            }
+        }
+        return null;
+    }
+
+    private SymbolKeyFilterFunction findSymbolFilter(int columnIndex) {
+        for (int i = 0, n = symbolFilters.size(); i < n; i++) {
+            final SymbolKeyFilterFunction symbolFilter = symbolFilters.getQuick(i);
+            if (symbolFilter.getColumnIndex() == columnIndex) {
+                return symbolFilter;
+            }
+        }
+        return null;
+    }
+
+    private static int getSymbolPredicateColumnIndex(ExpressionNode node, RecordMetadata metadata) {
+        // plain equality is resolved to symbol key comparison already
+        if (node.type == ExpressionNode.OPERATION
+                && Chars.equals(node.token, '=')
+                && (node.lhs.type == LITERAL || node.rhs.type == LITERAL)) {
+            return -1;
+        }
+        return getSymbolColumnIndex(node, metadata);
+    }
+
+    /**
+     * Finds symbol column expression depends on.
+     *
+     * @return column index when expression depends on single symbol column only, -1 when expression does not depend
+     * on any column and -2 otherwise
+     */
+    private static int getSymbolColumnIndex(ExpressionNode node, RecordMetadata metadata) {
+        switch (node.type) {
+            case LITERAL:
+                final int index = metadata.getColumnIndexQuiet(node.token);
+                return index > -1 && metadata.getColumnType(index) == ColumnType.SYMBOL ? index : -2;
+            case ExpressionNode.CONSTANT:
+                return -1;
+            case ExpressionNode.OPERATION:
+            case FUNCTION:
+                int result = -1;
+                if (node.paramCount < 3) {
+                    if (node.lhs != null) {
+                        result = mergeSymbolColumnIndex(result, getSymbolColumnIndex(node.lhs, metadata));
+                    }
+                    if (node.rhs != null) {
+                        result = mergeSymbolColumnIndex(result, getSymbolColumnIndex(node.rhs, metadata));
+                    }
+                } else {
+                    for (int i = 0, n = node.paramCount; i < n; i++) {
+                        result = mergeSymbolColumnIndex(result, getSymbolColumnIndex(node.args.getQuick(i), metadata));
+                    }
+                }
+                // function of constants, such as rnd_symbol(), can have different value for every row
+                return result == -1 ? -2 : result;
+            default:
+                return -2;
+        }
+    }
+
+    private static int mergeSymbolColumnIndex(int a, int b) {
+        if (a == -2 || b == -2) {
+            return -2;
+        }
+        if (a == -1) {
+            return b;
+        }
+        if (b == -1 || a == b) {
+            return a;
+        }
+        return -2;
+    }
+
+    private boolean isLateMaterialized(ExpressionNode filter, RecordMetadata metadata) {
+        if (configuration.getSqlFilterBatchSize() < 1) {
+            return false;
+        }
+
+        // collect distinct columns filter refers to
+        intHashSet.clear();
+        sqlNodeStack.clear();
+        ExpressionNode node = filter;
+        while (node != null || !sqlNodeStack.isEmpty()) {
+            if (node == null) {
+                node = sqlNodeStack.poll();
+            }
+
+            if (node.type == LITERAL) {
+                final int index = metadata.getColumnIndexQuiet(node.token);
+                if (index > -1) {
+                    intHashSet.add(index);
+                }
+            }
+
+            if (node.paramCount < 3) {
+                if (node.lhs != null) {
+                    sqlNodeStack.push(node.lhs);
+                }
+                node = node.rhs;
+            } else {
+                for (int i = 1, n = node.paramCount; i < n; i++) {
+                    sqlNodeStack.push(node.args.getQuick(i));
+                }
+                node = node.args.getQuick(0);
+            }
+        }
+
+        // reading filter columns ahead pays off when most of the columns are not referenced by filter
+        return intHashSet.size() * 2 <= metadata.getColumnCount();
+    }
+
+    private static boolean isSymbolIndexed(RecordMetadata metadata, int columnIndex) {
+        // INT and LONG columns can be range indexed, bitmap index is only available to symbols
+        return metadata.isColumnIndexed(columnIndex) && metadata.getColumnType(columnIndex) == ColumnType.SYMBOL;
+    }
+
     private void lookupColumnIndexes(
             ListColumnFilter filter,
             ObjList<ExpressionNode> columnNames,
@@ -1505,10 +1913,33 @@ public class SqlCodeGenerator {
         }
     }
 
+    private RecordCursorFactory profile(RecordCursorFactory factory) {
+        if (profiledFactories == null || factory instanceof ProfiledRecordCursorFactory) {
+            return factory;
+        }
+        final ProfiledRecordCursorFactory profiledFactory = new ProfiledRecordCursorFactory(factory);
+        profiledFactories.add(profiledFactory);
+        return profiledFactory;
+    }
+
     void setFullFatJoins(boolean fullFatJoins) {
         this.fullFatJoins = fullFatJoins;
     }
 
+    void setLiveSampleBy(boolean liveSampleBy) {
+        this.liveSampleBy = liveSampleBy;
+    }
+
+    /**
+     * Makes generator wrap factories of select, order by, limit, join and union models into
+     * {@link ProfiledRecordCursorFactory}, which collects runtime statistics for EXPLAIN ANALYZE.
+     *
+     * @param profiledFactories receives wrapped factories, null to stop profiling
+     */
+    void setProfiledFactories(ObjList<ProfiledRecordCursorFactory> profiledFactories) {
+        this.profiledFactories = profiledFactories;
+    }
+
     private void validateJoinColumnTypes(QueryModel model, RecordCursorFactory masterFactory, RecordCursorFactory slaveFactory) throws SqlException {
         final RecordMetadata metadata = masterFactory.getMetadata();
         final RecordMetadata slaveMetadata = slaveFactory.getMetadata();
@@ -1547,5 +1978,4 @@ public class SqlCodeGenerator {
         limitTypes.add(ColumnType.SHORT);
         limitTypes.add(ColumnType.INT);
     }
-
 }
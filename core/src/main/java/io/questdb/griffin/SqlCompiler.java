@@ -29,10 +29,15 @@ import io.questdb.cairo.sql.*;
 import io.questdb.cutlass.text.Atomicity;
 import io.questdb.cutlass.text.TextException;
 import io.questdb.cutlass.text.TextLoader;
+import io.questdb.griffin.engine.ExplainRecordCursorFactory;
+import io.questdb.griffin.engine.ProfiledRecordCursorFactory;
+import io.questdb.griffin.engine.groupby.TimestampSampler;
+import io.questdb.griffin.engine.groupby.TimestampSamplerFactory;
 import io.questdb.griffin.model.*;
 import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
 import io.questdb.std.*;
+import io.questdb.std.microtime.DateFormatUtils;
 import io.questdb.std.str.Path;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -89,6 +94,7 @@ public class SqlCompiler implements Closeable {
     private final IntIntHashMap typeCast = new IntIntHashMap();
     private final ObjList<TableWriter> tableWriters = new ObjList<>();
     private final TableStructureAdapter tableStructureAdapter = new TableStructureAdapter();
+    private final TableStatsCollector tableStatsCollector = new TableStatsCollector();
     private final FunctionParser functionParser;
     private final CharSequenceObjHashMap<KeywordBasedExecutor> keywordBasedExecutors = new CharSequenceObjHashMap<>();
     private final CompiledQueryImpl compiledQuery = new CompiledQueryImpl();
@@ -115,7 +121,7 @@ public class SqlCompiler implements Closeable {
         );
         this.lexer = new GenericLexer(configuration.getSqlLexerPoolCapacity());
         this.functionParser = new FunctionParser(configuration, ServiceLoader.load(FunctionFactory.class));
-        this.codeGenerator = new SqlCodeGenerator(engine, configuration, functionParser);
+        this.codeGenerator = new SqlCodeGenerator(engine, configuration, workScheduler, functionParser);
 
         // we have cyclical dependency here
         functionParser.setSqlCodeGenerator(codeGenerator);
@@ -130,6 +136,14 @@ public class SqlCompiler implements Closeable {
         keywordBasedExecutors.put("SET", this::compileSet);
         keywordBasedExecutors.put("drop", this::dropTable);
         keywordBasedExecutors.put("DROP", this::dropTable);
+        keywordBasedExecutors.put("refresh", this::compileRefresh);
+        keywordBasedExecutors.put("REFRESH", this::compileRefresh);
+        keywordBasedExecutors.put("analyze", this::analyzeTables);
+        keywordBasedExecutors.put("ANALYZE", this::analyzeTables);
+        keywordBasedExecutors.put("cancel", this::cancelQuery);
+        keywordBasedExecutors.put("CANCEL", this::cancelQuery);
+        keywordBasedExecutors.put("explain", this::explain);
+        keywordBasedExecutors.put("EXPLAIN", this::explain);
 
         configureLexer(lexer);
 
@@ -663,10 +677,182 @@ public class SqlCompiler implements Closeable {
         return executor.execute(executionContext);
     }
 
+    /**
+     * Compiles SAMPLE BY query into factory that keeps aggregation state between cursors. Each cursor
+     * consumes rows appended to the table since previous cursor and returns buckets these rows changed.
+     * Query must select from table without filter and use FILL(NONE). Factory is stateful, callers must
+     * not cache it for other clients.
+     *
+     * @param query            SAMPLE BY query text
+     * @param executionContext provides access to bind variables and authorization module
+     * @return live record cursor factory
+     * @throws SqlException when query cannot be compiled or cannot be executed incrementally
+     */
+    public RecordCursorFactory compileLive(@NotNull CharSequence query, @NotNull SqlExecutionContext executionContext) throws SqlException {
+        clear();
+        lexer.of(query);
+        final ExecutionModel model = parser.parse(lexer, executionContext);
+        if (model.getModelType() != ExecutionModel.QUERY
+                || ((QueryModel) model).getNestedModel() == null
+                || ((QueryModel) model).getNestedModel().getSampleBy() == null) {
+            throw SqlException.$(0, "live query must be SAMPLE BY");
+        }
+
+        codeGenerator.setLiveSampleBy(true);
+        try {
+            return generate(optimiser.optimise((QueryModel) model, executionContext), executionContext);
+        } finally {
+            codeGenerator.setLiveSampleBy(false);
+        }
+    }
+
     public CairoEngine getEngine() {
         return engine;
     }
 
+    /**
+     * Appends SAMPLE BY buckets, which base table has closed since previous refresh, to materialized view.
+     * Rows are appended to base table in timestamp order, so only the bucket that holds base table max
+     * timestamp can still change; all buckets before it are final. Refresh does not keep state of its
+     * own: view max timestamp is the start of the last bucket it has materialized, which makes each
+     * refresh a single commit to the view.
+     *
+     * @param viewName         name of materialized view
+     * @param executionContext provides access to bind variables and authorization module
+     * @return number of rows appended to materialized view
+     * @throws SqlException when view definition cannot be compiled
+     */
+    public long refreshMaterializedView(CharSequence viewName, SqlExecutionContext executionContext) throws SqlException {
+        final String query = readMaterializedViewQuery(viewName);
+        clear();
+        lexer.of(query);
+        final QueryModel queryModel = (QueryModel) parser.parse(lexer, executionContext);
+        final QueryModel baseModel = queryModel.getNestedModel();
+        final ExpressionNode sampleBy = baseModel.getSampleBy();
+        final TimestampSampler sampler = TimestampSamplerFactory.getInstance(sampleBy.token, sampleBy.position);
+
+        try (TableWriter writer = engine.getWriter(executionContext.getCairoSecurityContext(), viewName)) {
+            final long baseMinTimestamp;
+            final long baseMaxTimestamp;
+            CharSequence baseTimestamp = baseModel.getTimestamp() == null ? null : baseModel.getTimestamp().token;
+            try (TableReader reader = engine.getReader(
+                    executionContext.getCairoSecurityContext(),
+                    baseModel.getTableName().token,
+                    TableUtils.ANY_TABLE_VERSION
+            )) {
+                baseMinTimestamp = reader.getMinTimestamp();
+                baseMaxTimestamp = reader.getMaxTimestamp();
+                if (baseTimestamp == null) {
+                    baseTimestamp = reader.getMetadata().getColumnName(reader.getMetadata().getTimestampIndex());
+                }
+            }
+
+            long viewMaxTimestamp = writer.getMaxTimestamp();
+            if (viewMaxTimestamp != Long.MIN_VALUE && baseMaxTimestamp < sampler.nextTimestamp(viewMaxTimestamp)) {
+                // last view bucket could only be closed by base row in one of the later buckets,
+                // base table must have been truncated and view has to start over
+                writer.truncate();
+                viewMaxTimestamp = Long.MIN_VALUE;
+            }
+
+            if (baseMaxTimestamp == Long.MIN_VALUE) {
+                return 0;
+            }
+
+            // interval is always bounded on both sides to keep the scan within the partitions it touches
+            final long lo = viewMaxTimestamp == Long.MIN_VALUE ? sampler.round(baseMinTimestamp) : sampler.nextTimestamp(viewMaxTimestamp);
+            final long hi = sampler.round(baseMaxTimestamp);
+            if (lo >= hi) {
+                return 0;
+            }
+
+            baseModel.setWhereClause(
+                    concatFilters(
+                            baseModel.getWhereClause(),
+                            concatFilters(timestampFilter(baseTimestamp, ">=", lo), timestampFilter(baseTimestamp, "<", hi))
+                    )
+            );
+
+            try (
+                    RecordCursorFactory factory = generate(optimiser.optimise(queryModel, executionContext), executionContext);
+                    RecordCursor cursor = factory.getCursor(executionContext)
+            ) {
+                final RecordMetadata metadata = factory.getMetadata();
+                final RecordMetadata writerMetadata = writer.getMetadata();
+                entityColumnFilter.of(writerMetadata.getColumnCount());
+                final RecordToRowCopier copier = assembleRecordToRowCopier(asm, metadata, writerMetadata, entityColumnFilter);
+                final long size = writer.size();
+                try {
+                    copyOrdered(writer, cursor, copier, metadata.getTimestampIndex());
+                } catch (CairoException e) {
+                    writer.rollback();
+                    throw e;
+                }
+                LOG.info()
+                        .$("refreshed [view=").utf8(viewName)
+                        .$(", from=").$ts(lo)
+                        .$(", to=").$ts(hi)
+                        .$(", rows=").$(writer.size() - size)
+                        .$(']').$();
+                return writer.size() - size;
+            }
+        }
+    }
+
+    private CompiledQuery analyzeTables(SqlExecutionContext executionContext) throws SqlException {
+        CharSequence tok;
+        tok = SqlUtil.fetchNext(lexer);
+        if (tok == null || !Chars.equalsLowerCaseAscii(tok, "table")) {
+            throw SqlException.$(lexer.lastTokenPosition(), "'table' expected");
+        }
+
+        do {
+            tok = SqlUtil.fetchNext(lexer);
+
+            if (tok == null || Chars.equals(tok, ',')) {
+                throw SqlException.$(lexer.getPosition(), "table name expected");
+            }
+
+            if (Chars.isQuoted(tok)) {
+                tok = GenericLexer.unquote(tok);
+            }
+            final int tableNamePosition = lexer.lastTokenPosition();
+            tableExistsOrFail(tableNamePosition, tok, executionContext);
+
+            try (TableReader reader = engine.getReader(executionContext.getCairoSecurityContext(), tok)) {
+                tableStatsCollector.collect(reader);
+                tableStatsCollector.write(ff, mem, path, configuration.getRoot(), tok);
+            } catch (CairoException e) {
+                LOG.error().$("could not analyze [table=").$(tok).$(", e=").$((Sinkable) e).$(']').$();
+                throw SqlException.position(tableNamePosition).put(e);
+            }
+            tok = SqlUtil.fetchNext(lexer);
+
+        } while (tok != null && Chars.equals(tok, ','));
+        return compiledQuery.ofAnalyze();
+    }
+
+    private CompiledQuery cancelQuery(SqlExecutionContext executionContext) throws SqlException {
+        expectKeyword(lexer, "query");
+        final CharSequence tok = expectToken(lexer, "query id");
+        final int position = lexer.lastTokenPosition();
+        final long id;
+        try {
+            id = Numbers.parseLong(tok);
+        } catch (NumericException e) {
+            throw SqlException.$(position, "query id expected");
+        }
+
+        if (SqlUtil.fetchNext(lexer) != null) {
+            throw SqlException.$(lexer.lastTokenPosition(), "unexpected token");
+        }
+
+        if (!engine.getQueryRegistry().cancel(id)) {
+            throw SqlException.position(position).put("query is not running [id=").put(id).put(']');
+        }
+        return compiledQuery.ofCancel();
+    }
+
     private CompiledQuery alterTable(SqlExecutionContext executionContext) throws SqlException {
         CharSequence tok;
         expectKeyword(lexer, "table");
@@ -797,7 +983,10 @@ public class SqlCompiler implements Closeable {
                 cache = false;
                 indexValueBlockCapacity = configuration.getIndexValueBlockSize();
                 symbolCapacity = configuration.getDefaultSymbolCapacity();
-                indexed = false;
+                indexed = TableUtils.isIndexable(type) && Chars.equalsLowerCaseAsciiNc(tok, "index");
+                if (indexed) {
+                    tok = SqlUtil.fetchNext(lexer);
+                }
             }
 
             try {
@@ -910,6 +1099,29 @@ public class SqlCompiler implements Closeable {
         }
     }
 
+    private CompiledQuery compileRefresh(SqlExecutionContext executionContext) throws SqlException {
+        expectKeyword(lexer, "materialized");
+        expectKeyword(lexer, "view");
+
+        final int viewNamePosition = lexer.getPosition();
+        final CharSequence tok = GenericLexer.unquote(expectToken(lexer, "view name"));
+        tableExistsOrFail(viewNamePosition, tok, executionContext);
+
+        // view query is compiled by this lexer, name must survive it
+        final String viewName = Chars.toString(tok);
+        if (!isMaterializedView(viewName)) {
+            throw SqlException.$(viewNamePosition, "'").put(viewName).put("' is not a materialized view");
+        }
+
+        try {
+            refreshMaterializedView(viewName, executionContext);
+        } catch (CairoException e) {
+            LOG.info().$("could not refresh materialized view: ").$((Sinkable) e).$();
+            throw SqlException.$(viewNamePosition, "materialized view '").put(viewName).put("' is busy");
+        }
+        return compiledQuery.ofRefresh();
+    }
+
     private CompiledQuery compileSet(SqlExecutionContext executionContext) {
         return compiledQuery.ofSet();
     }
@@ -948,6 +1160,17 @@ public class SqlCompiler implements Closeable {
         }
     }
 
+    private ExpressionNode concatFilters(ExpressionNode old, ExpressionNode filter) {
+        if (old == null) {
+            return filter;
+        }
+        ExpressionNode n = sqlNodePool.next().of(ExpressionNode.OPERATION, "and", 0, 0);
+        n.paramCount = 2;
+        n.lhs = old;
+        n.rhs = filter;
+        return n;
+    }
+
     private void copyOrdered(TableWriter writer, RecordCursor cursor, RecordToRowCopier copier, int cursorTimestampIndex) {
         final Record record = cursor.getRecord();
         while (cursor.hasNext()) {
@@ -1044,6 +1267,8 @@ public class SqlCompiler implements Closeable {
                 try {
                     if (createTableModel.getQueryModel() == null) {
                         engine.creatTable(executionContext.getCairoSecurityContext(), mem, path, createTableModel);
+                    } else if (createTableModel.isMaterializedView()) {
+                        createMaterializedView(createTableModel, executionContext);
                     } else {
                         writer = createTableFromCursor(createTableModel, executionContext);
                     }
@@ -1058,9 +1283,55 @@ public class SqlCompiler implements Closeable {
             throw SqlException.$(name.position, "cannot acquire table lock");
         }
 
+        if (createTableModel.isMaterializedView()) {
+            // materialize buckets base table has already closed
+            refreshMaterializedView(Chars.toString(name.token), executionContext);
+        }
+
         return compiledQuery.ofCreateTable();
     }
 
+    private void createMaterializedView(CreateTableModel model, SqlExecutionContext executionContext) throws SqlException {
+        try (final RecordCursorFactory factory = generate(model.getQueryModel(), executionContext)) {
+            final RecordMetadata metadata = factory.getMetadata();
+            final int timestampIndex = metadata.getTimestampIndex();
+            if (timestampIndex == -1) {
+                throw SqlException.$(model.getName().position, "materialized view query must select timestamp");
+            }
+
+            // refresh relies on view being ordered by bucket timestamp
+            if (model.getTimestamp() == null) {
+                model.setTimestamp(SqlUtil.nextLiteral(sqlNodePool, metadata.getColumnName(timestampIndex), model.getName().position));
+            } else if (model.getTimestampIndex() != timestampIndex) {
+                throw SqlException.$(model.getTimestamp().position, "materialized view timestamp must be SAMPLE BY timestamp");
+            }
+
+            typeCast.clear();
+            validateTableModelAndCreateTypeCast(model, metadata, typeCast);
+            engine.creatTable(
+                    executionContext.getCairoSecurityContext(),
+                    mem,
+                    path,
+                    tableStructureAdapter.of(model, metadata, typeCast)
+            );
+
+            try {
+                path.of(configuration.getRoot()).concat(model.getName().token).concat(TableUtils.MAT_VIEW_FILE_NAME).$();
+                mem.of(ff, path, ff.getPageSize());
+                try {
+                    mem.putStr(model.getMaterializedViewQuery());
+                } finally {
+                    mem.close();
+                }
+            } catch (CairoException e) {
+                if (removeTableDirectory(model)) {
+                    throw e;
+                }
+                throw SqlException.$(0, "Concurrent modification cannot be handled. Failed to clean up. See log for more details.");
+            }
+        }
+    }
+
     private TableWriter createTableFromCursor(CreateTableModel model, SqlExecutionContext executionContext) throws SqlException {
         try (final RecordCursorFactory factory = generate(model.getQueryModel(), executionContext);
              final RecordCursor cursor = factory.getCursor(executionContext)
@@ -1164,6 +1435,34 @@ public class SqlCompiler implements Closeable {
         return codeGenerator.generate(queryModel, executionContext);
     }
 
+    private CompiledQuery explain(SqlExecutionContext executionContext) throws SqlException {
+        CharSequence tok = expectToken(lexer, "query");
+        final boolean analyze = Chars.equalsLowerCaseAscii(tok, "analyze");
+        if (analyze) {
+            expectToken(lexer, "query");
+        }
+        final int position = lexer.lastTokenPosition();
+        lexer.unparse();
+
+        final ObjList<ProfiledRecordCursorFactory> profiledFactories = new ObjList<>();
+        final ExecutionModel model = compileExecutionModel(executionContext);
+        if (model.getModelType() != ExecutionModel.QUERY) {
+            throw SqlException.$(position, "select query expected");
+        }
+
+        codeGenerator.setProfiledFactories(analyze ? profiledFactories : null);
+        try {
+            return compiledQuery.of(
+                    new ExplainRecordCursorFactory(
+                            generate((QueryModel) model, executionContext),
+                            profiledFactories
+                    )
+            );
+        } finally {
+            codeGenerator.setProfiledFactories(null);
+        }
+    }
+
     private CompiledQuery insert(ExecutionModel executionModel, SqlExecutionContext executionContext) throws SqlException {
         final InsertModel model = (InsertModel) executionModel;
         final ExpressionNode name = model.getTableName();
@@ -1335,6 +1634,10 @@ public class SqlCompiler implements Closeable {
         return compiledQuery.ofInsertAsSelect();
     }
 
+    private boolean isMaterializedView(CharSequence tableName) {
+        return ff.exists(path.of(configuration.getRoot()).concat(tableName).concat(TableUtils.MAT_VIEW_FILE_NAME).$());
+    }
+
     private ExecutionModel lightlyValidateInsertModel(InsertModel model) throws SqlException {
         ExpressionNode tableName = model.getTableName();
         if (tableName.type != ExpressionNode.LITERAL) {
@@ -1348,6 +1651,16 @@ public class SqlCompiler implements Closeable {
         return model;
     }
 
+    private String readMaterializedViewQuery(CharSequence viewName) throws SqlException {
+        if (!isMaterializedView(viewName)) {
+            throw SqlException.$(0, "'").put(viewName).put("' is not a materialized view");
+        }
+
+        try (ReadOnlyMemory mem = new ReadOnlyMemory(ff, path, ff.getPageSize(), ff.length(path))) {
+            return Chars.toString(mem.getStr(0));
+        }
+    }
+
     private boolean removeTableDirectory(CreateTableModel model) {
         if (engine.removeDirectory(path, model.getName().token)) {
             return true;
@@ -1409,6 +1722,20 @@ public class SqlCompiler implements Closeable {
         }
     }
 
+    private ExpressionNode timestampFilter(CharSequence timestamp, CharSequence operator, long value) {
+        // intrinsic interval parser works with millisecond precision, which SAMPLE BY buckets never go below
+        final CharacterStoreEntry e = characterStore.newEntry();
+        e.put('\'');
+        DateFormatUtils.appendDateTime(e, value);
+        e.put('\'');
+
+        ExpressionNode n = sqlNodePool.next().of(ExpressionNode.OPERATION, operator, 0, 0);
+        n.paramCount = 2;
+        n.lhs = SqlUtil.nextLiteral(sqlNodePool, timestamp, 0);
+        n.rhs = sqlNodePool.next().of(ExpressionNode.CONSTANT, e.toImmutable(), 0, 0);
+        return n;
+    }
+
     ExecutionModel testCompileModel(CharSequence query, SqlExecutionContext executionContext) throws SqlException {
         clear();
         lexer.of(query);
@@ -1543,6 +1870,18 @@ public class SqlCompiler implements Closeable {
         if (timestamp != null && metadata.getColumnType(timestamp.token) != ColumnType.TIMESTAMP) {
             throw SqlException.position(timestamp.position).put("TIMESTAMP column expected [actual=").put(ColumnType.nameOf(metadata.getColumnType(timestamp.token))).put(']');
         }
+
+        // dedup keys other than timestamp must be symbols
+        final ObjList<ExpressionNode> dedupKeys = model.getDedupKeys();
+        for (int i = 0, n = dedupKeys.size(); i < n; i++) {
+            final ExpressionNode key = dedupKeys.getQuick(i);
+            final int index = metadata.getColumnIndex(key.token);
+            final int castIndex = typeCast.keyIndex(index);
+            final int type = castIndex < 0 ? typeCast.valueAt(castIndex) : metadata.getColumnType(index);
+            if (type != ColumnType.SYMBOL && index != metadata.getColumnIndex(timestamp.token)) {
+                throw SqlException.position(key.position).put("dedup key must be SYMBOL or designated timestamp");
+            }
+        }
     }
 
     @FunctionalInterface
@@ -1583,6 +1922,11 @@ public class SqlCompiler implements Closeable {
             return metadata.getColumnType(columnIndex);
         }
 
+        @Override
+        public boolean getDedupKeyFlag(int columnIndex) {
+            return model.getDedupKeyFlag(columnIndex);
+        }
+
         @Override
         public int getIndexBlockCapacity(int columnIndex) {
             return model.getIndexBlockCapacity(columnIndex);
@@ -0,0 +1,44 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin;
+
+/**
+ * Stops query that is no longer allowed to run. Long running loops of record cursors call
+ * {@link #checkState()} as they go, implementation is expected to make the call cheap enough
+ * to be made for every row.
+ */
+@FunctionalInterface
+public interface SqlExecutionCircuitBreaker {
+    SqlExecutionCircuitBreaker NOOP_CIRCUIT_BREAKER = () -> {
+    };
+
+    /**
+     * Checks whether query may continue running.
+     *
+     * @throws io.questdb.cairo.CairoException interruption when query has been cancelled, has run out of time,
+     *                                         has exceeded its memory quota or its client has disconnected
+     */
+    void checkState();
+}
@@ -0,0 +1,205 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.CairoException;
+import io.questdb.network.NetworkFacade;
+import io.questdb.std.MemoryAccount;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Mutable;
+import io.questdb.std.Unsafe;
+import io.questdb.std.microtime.MicrosecondClock;
+import io.questdb.std.microtime.MicrosecondClockImpl;
+import io.questdb.std.str.StringSink;
+
+import java.io.Closeable;
+
+/**
+ * Circuit breaker of queries executed on behalf of network client. Query is registered with
+ * {@link QueryRegistry} for as long as it runs, which makes it cancellable by id. Cancellation and
+ * memory limits are checked on every call, deadline and client socket are checked once in so many calls
+ * as configured by "cairo.sql.circuit.breaker.throttle".
+ * <p>
+ * Query memory is {@link MemoryTag#NATIVE_SQL} memory allocated by the thread executing the query while
+ * circuit breaker is attached to it. Query fails when its own memory would exceed "cairo.sql.query.memory.quota"
+ * or when memory of all running queries would exceed "cairo.sql.memory.limit". Both limits are checked before
+ * memory is allocated, global limit is also checked on every call as memory of other queries grows.
+ * <p>
+ * Client is not expected to send anything while its query is running, same as HTTP server
+ * expects when it dispatches request to processor. Bytes sent by client are treated the same
+ * way as disconnect.
+ */
+public class SqlExecutionCircuitBreakerImpl implements SqlExecutionCircuitBreaker, Mutable, Closeable {
+    private final NetworkFacade nf;
+    private final StringSink query = new StringSink();
+    private final MemoryAccount memoryAccount = new QueryMemoryAccount();
+    // one byte buffer to probe client socket with
+    private final long buffer;
+    private QueryRegistry registry;
+    private MicrosecondClock clock = MicrosecondClockImpl.INSTANCE;
+    private long queryId = -1;
+    private long startTime;
+    private long deadline = Long.MAX_VALUE;
+    private long memoryQuota = Long.MAX_VALUE;
+    private long globalMemoryLimit = Long.MAX_VALUE;
+    private long fd = -1;
+    private int throttle = Integer.MAX_VALUE;
+    private int checkCount;
+    private volatile boolean cancelled = false;
+
+    public SqlExecutionCircuitBreakerImpl(NetworkFacade nf) {
+        this.nf = nf;
+        this.buffer = Unsafe.malloc(1);
+    }
+
+    /**
+     * Attaches memory account of the query to the current thread. Query execution that resumes
+     * on a different thread than the one it started on has to attach before it continues.
+     */
+    public void attach() {
+        Unsafe.attachMemoryAccount(memoryAccount);
+    }
+
+    @Override
+    public void checkState() {
+        if (cancelled) {
+            throw CairoException.interruption().put("cancelled by user [id=").put(queryId).put(']');
+        }
+
+        if (Unsafe.getMemUsedByTag(MemoryTag.NATIVE_SQL) > globalMemoryLimit) {
+            throw CairoException.interruption().put("query memory limit exceeded, query aborted [id=").put(queryId).put(']');
+        }
+
+        if (++checkCount < throttle) {
+            return;
+        }
+        checkCount = 0;
+
+        if (clock.getTicks() > deadline) {
+            throw CairoException.interruption().put("timeout, query aborted [id=").put(queryId).put(']');
+        }
+
+        if (fd > -1 && nf.recv(fd, buffer, 1) != 0) {
+            throw CairoException.interruption().put("client disconnected, query aborted [id=").put(queryId).put(']');
+        }
+    }
+
+    @Override
+    public void clear() {
+        if (registry != null) {
+            registry.unregister(this);
+            registry = null;
+        }
+        detach();
+        memoryAccount.reset();
+        query.clear();
+        queryId = -1;
+        deadline = Long.MAX_VALUE;
+        memoryQuota = Long.MAX_VALUE;
+        globalMemoryLimit = Long.MAX_VALUE;
+        fd = -1;
+        throttle = Integer.MAX_VALUE;
+        checkCount = 0;
+        cancelled = false;
+    }
+
+    @Override
+    public void close() {
+        clear();
+        Unsafe.free(buffer, 1);
+    }
+
+    /**
+     * Stops counting allocations of the current thread towards the query.
+     */
+    public void detach() {
+        Unsafe.detachMemoryAccount(memoryAccount);
+    }
+
+    public long getMemUsed() {
+        return memoryAccount.getMemUsed();
+    }
+
+    public CharSequence getQuery() {
+        return query;
+    }
+
+    public long getQueryId() {
+        return queryId;
+    }
+
+    public long getStartTime() {
+        return startTime;
+    }
+
+    /**
+     * Starts circuit breaker for new query and registers query as running. Query stays registered
+     * until circuit breaker is cleared. Memory account of the query is attached to the current thread.
+     *
+     * @param registry      registry of running queries
+     * @param configuration source of query timeout, memory limits and check throttle
+     * @param query         query text
+     * @param fd            client socket or -1 when client is not to be checked
+     */
+    public void of(QueryRegistry registry, CairoConfiguration configuration, CharSequence query, long fd) {
+        clear();
+        this.query.put(query);
+        this.clock = configuration.getMicrosecondClock();
+        this.startTime = clock.getTicks();
+        final long timeout = configuration.getSqlQueryTimeout();
+        this.deadline = timeout > 0 ? startTime + timeout * 1000 : Long.MAX_VALUE;
+        final long quota = configuration.getSqlQueryMemoryQuota();
+        this.memoryQuota = quota > 0 ? quota : Long.MAX_VALUE;
+        final long limit = configuration.getSqlMemoryLimit();
+        this.globalMemoryLimit = limit > 0 ? limit : Long.MAX_VALUE;
+        this.throttle = configuration.getSqlCircuitBreakerThrottle();
+        this.fd = fd;
+        this.registry = registry;
+        registry.register(this);
+        attach();
+    }
+
+    void cancel() {
+        cancelled = true;
+    }
+
+    void setQueryId(long queryId) {
+        this.queryId = queryId;
+    }
+
+    private class QueryMemoryAccount extends MemoryAccount {
+        @Override
+        protected void checkAlloc(long size) {
+            if (getMemUsed() + size > memoryQuota) {
+                throw CairoException.interruption().put("memory quota exceeded, query aborted [id=").put(queryId).put(']');
+            }
+
+            if (Unsafe.getMemUsedByTag(MemoryTag.NATIVE_SQL) + size > globalMemoryLimit) {
+                throw CairoException.interruption().put("query memory limit exceeded, query aborted [id=").put(queryId).put(']');
+            }
+        }
+    }
+}
@@ -32,4 +32,16 @@ public interface SqlExecutionContext {
     BindVariableService getBindVariableService();
 
     CairoSecurityContext getCairoSecurityContext();
+
+    SqlExecutionCircuitBreaker getCircuitBreaker();
+
+    /**
+     * @return cache of compiled queries shared by connections or null when queries are not cached
+     */
+    QueryCache getQueryCache();
+
+    /**
+     * @return registry of running queries or null when queries are not registered
+     */
+    QueryRegistry getQueryRegistry();
 }
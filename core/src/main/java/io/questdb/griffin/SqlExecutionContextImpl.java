@@ -30,6 +30,9 @@ import io.questdb.griffin.engine.functions.bind.BindVariableService;
 public class SqlExecutionContextImpl implements SqlExecutionContext {
     private BindVariableService bindVariableService;
     private CairoSecurityContext cairoSecurityContext;
+    private QueryRegistry queryRegistry;
+    private QueryCache queryCache;
+    private SqlExecutionCircuitBreaker circuitBreaker = SqlExecutionCircuitBreaker.NOOP_CIRCUIT_BREAKER;
 
     @Override
     public BindVariableService getBindVariableService() {
@@ -41,9 +44,39 @@ public class SqlExecutionContextImpl implements SqlExecutionContext {
         return cairoSecurityContext;
     }
 
+    @Override
+    public SqlExecutionCircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    @Override
+    public QueryCache getQueryCache() {
+        return queryCache;
+    }
+
+    @Override
+    public QueryRegistry getQueryRegistry() {
+        return queryRegistry;
+    }
+
     public SqlExecutionContextImpl with(CairoSecurityContext cairoSecurityContext, BindVariableService bindVariableService) {
         this.cairoSecurityContext = cairoSecurityContext;
         this.bindVariableService = bindVariableService;
         return this;
     }
+
+    public SqlExecutionContextImpl with(
+            CairoSecurityContext cairoSecurityContext,
+            BindVariableService bindVariableService,
+            QueryRegistry queryRegistry,
+            QueryCache queryCache,
+            SqlExecutionCircuitBreaker circuitBreaker
+    ) {
+        this.cairoSecurityContext = cairoSecurityContext;
+        this.bindVariableService = bindVariableService;
+        this.queryRegistry = queryRegistry;
+        this.queryCache = queryCache;
+        this.circuitBreaker = circuitBreaker;
+        return this;
+    }
 }
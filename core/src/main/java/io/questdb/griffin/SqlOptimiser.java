@@ -118,6 +118,13 @@ class SqlOptimiser {
     private final FunctionParser functionParser;
     private final ColumnPrefixEraser columnPrefixEraser = new ColumnPrefixEraser();
     private final Path path;
+    private final FilesFacade ff;
+    private final CharSequence root;
+    private final TableStats tableStats = new TableStats();
+    // position of join model in preferred join order, indexed by join model index
+    private final IntList joinRanks = new IntList();
+    private final IntList rankedModels = new IntList();
+    private final LongList estimatedRows = new LongList();
     private int defaultAliasCount = 0;
     private ObjList<JoinContext> emittedJoinClauses;
 
@@ -141,6 +148,8 @@ class SqlOptimiser {
         this.functionParser = functionParser;
         this.contextPool = new ObjectPool<>(JoinContext.FACTORY, configuration.getSqlJoinContextPoolCapacity());
         this.path = path;
+        this.ff = configuration.getFilesFacade();
+        this.root = configuration.getRoot();
     }
 
     private static void linkDependencies(QueryModel model, int parent, int child) {
@@ -231,8 +240,8 @@ class SqlOptimiser {
             jc.bIndexes.add(bi);
             jc.bNames.add(bn);
             jc.bNodes.add(bo);
-            jc.slaveIndex = Math.max(ai, bi);
-            jc.parents.add(Math.min(ai, bi));
+            jc.slaveIndex = joinSlaveOf(ai, bi);
+            jc.parents.add(joinParentOf(ai, bi));
             emittedJoinClauses.add(jc);
         }
 
@@ -392,11 +401,11 @@ class SqlOptimiser {
                         jc.bNames.add(literalCollectorBNames.getQuick(0));
                         jc.aIndexes.add(lhi);
                         jc.bIndexes.add(rhi);
-                        int max = Math.max(lhi, rhi);
-                        int min = Math.min(lhi, rhi);
-                        jc.slaveIndex = max;
-                        jc.parents.add(min);
-                        linkDependencies(parent, min, max);
+                        int master = joinParentOf(lhi, rhi);
+                        int slave = joinSlaveOf(lhi, rhi);
+                        jc.slaveIndex = slave;
+                        jc.parents.add(master);
+                        linkDependencies(parent, master, slave);
                     }
                     addJoinContext(parent, jc);
                 } else if (bSize == 0
@@ -959,6 +968,62 @@ class SqlOptimiser {
         }
     }
 
+    /**
+     * Estimates number of rows join model produces from statistics collected by ANALYZE TABLE.
+     * Row count of table is reduced by number of distinct values of every column that is compared
+     * to a constant in "where" clause.
+     *
+     * @return estimated row count or -1 when model is not a table or table has not been analyzed
+     */
+    private long estimateRowCount(QueryModel parent, int modelIndex, ExpressionNode where) throws SqlException {
+        final ExpressionNode tableName = parent.getJoinModels().getQuick(modelIndex).getTableName();
+        if (tableName == null
+                || tableName.type != ExpressionNode.LITERAL
+                || Chars.startsWith(tableName.token, QueryModel.NO_ROWID_MARKER)) {
+            return -1;
+        }
+
+        if (!tableStats.of(ff, path.of(root), tableName.token)) {
+            return -1;
+        }
+
+        try {
+            long rows = tableStats.getRowCount();
+            sqlNodeStack.clear();
+            ExpressionNode node = where;
+            while (node != null || !sqlNodeStack.isEmpty()) {
+                if (node == null) {
+                    node = sqlNodeStack.poll();
+                }
+                if (Chars.equalsLowerCaseAscii(node.token, "and")) {
+                    sqlNodeStack.push(node.rhs);
+                    node = node.lhs;
+                    continue;
+                }
+
+                if (Chars.equals(node.token, '=') && node.paramCount == 2) {
+                    final ExpressionNode literal = node.lhs.type == ExpressionNode.LITERAL ? node.lhs : node.rhs;
+                    final ExpressionNode constant = literal == node.lhs ? node.rhs : node.lhs;
+                    if (literal.type == ExpressionNode.LITERAL
+                            && constant.type == ExpressionNode.CONSTANT
+                            && !nullConstants.contains(constant.token)) {
+                        final int dot = Chars.indexOf(literal.token, '.');
+                        if (getIndexOfTableForColumn(parent, literal.token, dot, literal.position) == modelIndex) {
+                            final int columnIndex = tableStats.getColumnIndex(literalCollector.extractColumnName(literal.token, dot));
+                            if (columnIndex != -1 && tableStats.getDistinctCount(columnIndex) > 0) {
+                                rows = Math.max(1, rows / tableStats.getDistinctCount(columnIndex));
+                            }
+                        }
+                    }
+                }
+                node = null;
+            }
+            return rows;
+        } finally {
+            tableStats.close();
+        }
+    }
+
     private void eraseColumnPrefixInWhereClauses(QueryModel model) throws SqlException {
 
         ObjList<QueryModel> joinModels = model.getJoinModels();
@@ -1081,6 +1146,16 @@ class SqlOptimiser {
         }
     }
 
+    // parent of join clause between two tables is the table that is joined first,
+    // without statistics tables are joined in the order they are written
+    private int joinParentOf(int a, int b) {
+        return joinRanks.getQuick(a) < joinRanks.getQuick(b) ? a : b;
+    }
+
+    private int joinSlaveOf(int a, int b) {
+        return joinRanks.getQuick(a) < joinRanks.getQuick(b) ? b : a;
+    }
+
     private ExpressionNode makeJoinAlias(int index) {
         CharacterStoreEntry characterStoreEntry = characterStore.newEntry();
         characterStoreEntry.put(QueryModel.SUB_QUERY_ALIAS_PREFIX).put(index);
@@ -1164,31 +1239,26 @@ class SqlOptimiser {
             r.bIndexes.add(bbi);
             r.bNames.add(bbn);
             r.bNodes.add(bbo);
-            int max = Math.max(bai, bbi);
-            int min = Math.min(bai, bbi);
-            r.slaveIndex = max;
-            r.parents.add(min);
-            linkDependencies(parent, min, max);
+            int master = joinParentOf(bai, bbi);
+            int slave = joinSlaveOf(bai, bbi);
+            r.slaveIndex = slave;
+            r.parents.add(master);
+            linkDependencies(parent, master, slave);
         }
 
         // add remaining a nodes
         for (int i = 0, n = a.aNames.size(); i < n; i++) {
-            int aai, abi, min, max;
+            int aai, abi, master, slave;
 
             aai = a.aIndexes.getQuick(i);
             abi = a.bIndexes.getQuick(i);
 
-            if (aai < abi) {
-                min = aai;
-                max = abi;
-            } else {
-                min = abi;
-                max = aai;
-            }
+            master = joinParentOf(aai, abi);
+            slave = joinSlaveOf(aai, abi);
 
             if (deletedContexts.contains(i)) {
-                if (r.parents.excludes(min)) {
-                    unlinkDependencies(parent, min, max);
+                if (r.parents.excludes(master)) {
+                    unlinkDependencies(parent, master, slave);
                 }
             } else {
                 r.aNames.add(a.aNames.getQuick(i));
@@ -1198,8 +1268,8 @@ class SqlOptimiser {
                 r.aNodes.add(a.aNodes.getQuick(i));
                 r.bNodes.add(a.bNodes.getQuick(i));
 
-                r.parents.add(min);
-                linkDependencies(parent, min, max);
+                r.parents.add(master);
+                linkDependencies(parent, master, slave);
             }
         }
 
@@ -1588,6 +1658,8 @@ class SqlOptimiser {
 
             ExpressionNode where = model.getWhereClause();
 
+            rankJoinModels(model, where);
+
             // clear where clause of model so that
             // optimiser can assign there correct nodes
 
@@ -1774,6 +1846,54 @@ class SqlOptimiser {
         parent.addParsedWhereNode(node);
     }
 
+    /**
+     * Ranks join models by estimated row count, larger tables are ranked first. Join clauses are
+     * attributed to the table of lower rank, which makes the largest table master of the join and
+     * smaller tables hash join build sides. Tables keep the order they are written in unless all of
+     * them have been analyzed, they are all inner or cross joined and the first table has no designated
+     * timestamp. Timestamp of the first table is timestamp of join result, reordering would change it.
+     */
+    private void rankJoinModels(QueryModel parent, ExpressionNode where) throws SqlException {
+        final ObjList<QueryModel> joinModels = parent.getJoinModels();
+        final int n = joinModels.size();
+        joinRanks.clear();
+        for (int i = 0; i < n; i++) {
+            joinRanks.add(i);
+        }
+
+        if (parent.getTimestamp() != null) {
+            return;
+        }
+
+        estimatedRows.clear();
+        for (int i = 0; i < n; i++) {
+            final QueryModel m = joinModels.getQuick(i);
+            if ((i > 0 && m.getJoinType() != QueryModel.JOIN_INNER && m.getJoinType() != QueryModel.JOIN_CROSS)
+                    || m.getLatestBy().size() > 0) {
+                return;
+            }
+            final long rows = estimateRowCount(parent, i, where);
+            if (rows == -1) {
+                return;
+            }
+            estimatedRows.add(rows);
+        }
+
+        // stable insertion sort, tables of equal size keep their order
+        rankedModels.clear();
+        for (int i = 0; i < n; i++) {
+            int k = rankedModels.size();
+            while (k > 0 && estimatedRows.getQuick(rankedModels.getQuick(k - 1)) < estimatedRows.getQuick(i)) {
+                k--;
+            }
+            rankedModels.add(k, i);
+        }
+
+        for (int i = 0; i < n; i++) {
+            joinRanks.setQuick(rankedModels.getQuick(i), i);
+        }
+    }
+
     /**
      * Identify joined tables without join clause and try to find other reversible join clauses
      * that may be applied to it. For example when these tables joined"
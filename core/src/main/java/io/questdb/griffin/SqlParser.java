@@ -282,21 +282,31 @@ public final class SqlParser {
     }
 
     private ExecutionModel parseCreateStatement(GenericLexer lexer, SqlExecutionContext executionContext) throws SqlException {
-        expectTok(lexer, "table");
-        return parseCreateTable(lexer, executionContext);
+        final CharSequence tok = optTok(lexer);
+        if (Chars.equalsLowerCaseAsciiNc(tok, "materialized")) {
+            expectTok(lexer, "view");
+            return parseCreateTable(lexer, executionContext, true);
+        }
+
+        if (tok == null) {
+            throw SqlException.position(lexer.getPosition()).put("'table' expected");
+        }
+        expectTok(lexer, tok, "table");
+        return parseCreateTable(lexer, executionContext, false);
     }
 
-    private ExecutionModel parseCreateTable(GenericLexer lexer, SqlExecutionContext executionContext) throws SqlException {
+    private ExecutionModel parseCreateTable(GenericLexer lexer, SqlExecutionContext executionContext, boolean materializedView) throws SqlException {
         final CreateTableModel model = createTableModelPool.next();
-        final CharSequence tableName = tok(lexer, "table name");
+        final CharSequence tableName = tok(lexer, materializedView ? "view name" : "table name");
         if (Chars.indexOf(tableName, '.') != -1) {
             throw SqlException.$(lexer.lastTokenPosition(), "'.' is not allowed here");
         }
         model.setName(nextLiteral(GenericLexer.unquote(tableName), lexer.lastTokenPosition()));
+        model.setMaterializedView(materializedView);
 
-        CharSequence tok = tok(lexer, "'(' or 'as'");
+        CharSequence tok = tok(lexer, materializedView ? "'as'" : "'(' or 'as'");
 
-        if (Chars.equals(tok, '(')) {
+        if (Chars.equals(tok, '(') && !materializedView) {
             lexer.unparse();
             parseCreateTableColumns(lexer, model);
         } else if (Chars.equalsLowerCaseAscii(tok, "as")) {
@@ -333,6 +343,11 @@ public final class SqlParser {
             tok = optTok(lexer);
         }
 
+        if (Chars.equalsLowerCaseAsciiNc(tok, "dedup")) {
+            parseCreateTableDedupKeys(lexer, model);
+            tok = optTok(lexer);
+        }
+
         if (tok == null || Chars.equals(tok, ';')) {
             return model;
         }
@@ -341,7 +356,12 @@ public final class SqlParser {
 
     private void parseCreateTableAsSelect(GenericLexer lexer, CreateTableModel model, SqlExecutionContext executionContext) throws SqlException {
         expectTok(lexer, '(');
-        QueryModel queryModel = optimiser.optimise(parseDml(lexer), executionContext);
+        final int queryPosition = lexer.getPosition();
+        QueryModel queryModel = parseDml(lexer);
+        if (model.isMaterializedView()) {
+            validateMaterializedViewQuery(queryModel, queryPosition);
+        }
+        queryModel = optimiser.optimise(queryModel, executionContext);
         ObjList<QueryColumn> columns = queryModel.getColumns();
         assert columns.size() > 0;
 
@@ -353,6 +373,11 @@ public final class SqlParser {
 
         model.setQueryModel(queryModel);
         expectTok(lexer, ')');
+
+        if (model.isMaterializedView()) {
+            // view is refreshed by re-running its query, which must therefore outlive lexer content
+            model.setMaterializedViewQuery(Chars.toString(lexer.getContent(), queryPosition, lexer.lastTokenPosition()));
+        }
     }
 
     private void parseCreateTableCastDef(GenericLexer lexer, CreateTableModel model) throws SqlException {
@@ -470,6 +495,13 @@ public final class SqlParser {
                     TableUtils.validateSymbolCapacityCached(true, symbolCapacity, lexer.lastTokenPosition());
                 }
                 tok = parseCreateTableInlineIndexDef(lexer, model);
+            } else if (TableUtils.isIndexable(type)) {
+                // range and bloom indexes, index capacity does not apply to them
+                tok = tok(lexer, "'index', ',' or ')'");
+                if (Chars.equalsLowerCaseAscii(tok, "index")) {
+                    lexer.unparse();
+                    tok = parseCreateTableInlineIndexDef(lexer, model);
+                }
             } else {
                 tok = null;
             }
@@ -488,6 +520,36 @@ public final class SqlParser {
         }
     }
 
+    private void parseCreateTableDedupKeys(GenericLexer lexer, CreateTableModel model) throws SqlException {
+        final int dedupPosition = lexer.lastTokenPosition();
+        expectTok(lexer, "upsert");
+        expectTok(lexer, "keys");
+        expectTok(lexer, '(');
+
+        CharSequence tok;
+        do {
+            final ExpressionNode columnName = expectLiteral(lexer);
+            final int columnIndex = getCreateTableColumnIndex(model, columnName.token, columnName.position);
+            // column types of "create table as" are only known to compiler, it will validate them
+            final int columnType = model.getColumnType(columnIndex);
+            if (columnType != -1 && columnType != ColumnType.SYMBOL && columnIndex != model.getTimestampIndex()) {
+                throw SqlException.$(columnName.position, "dedup key must be SYMBOL or designated timestamp");
+            }
+
+            if (!model.addDedupKey(columnName)) {
+                throw SqlException.$(columnName.position, "duplicate dedup key");
+            }
+            tok = tok(lexer, "',' or ')'");
+        } while (Chars.equals(tok, ','));
+
+        expectTok(tok, lexer.lastTokenPosition(), ')');
+
+        final int timestampIndex = model.getTimestampIndex();
+        if (timestampIndex == -1 || !model.getDedupKeyFlag(timestampIndex)) {
+            throw SqlException.$(dedupPosition, "dedup keys must include designated timestamp");
+        }
+    }
+
     private void parseCreateTableIndexDef(GenericLexer lexer, CreateTableModel model) throws SqlException {
         expectTok(lexer, '(');
         final int columnIndex = getCreateTableColumnIndex(model, expectLiteral(lexer).token, lexer.lastTokenPosition());
@@ -1302,6 +1364,27 @@ public final class SqlParser {
         }
     }
 
+    private void validateMaterializedViewQuery(QueryModel model, int position) throws SqlException {
+        // view is refreshed by appending buckets that have been closed since last refresh,
+        // query has to produce them in order and without looking at its own past output
+        final QueryModel nested = model.getNestedModel();
+        if (model.getUnionModel() != null || nested == null || nested.getTableName() == null || nested.getJoinModels().size() > 1) {
+            throw SqlException.$(position, "materialized view must select from single table");
+        }
+
+        if (nested.getSampleBy() == null) {
+            throw SqlException.$(position, "materialized view must use SAMPLE BY");
+        }
+
+        if (nested.getSampleByFill().size() > 0) {
+            throw SqlException.$(nested.getSampleByFill().getQuick(0).position, "FILL is not supported by materialized view");
+        }
+
+        if (model.getLimitLo() != null || model.getLimitHi() != null) {
+            throw SqlException.$(position, "LIMIT is not supported by materialized view");
+        }
+    }
+
     static {
         tableAliasStop.add("where");
         tableAliasStop.add("latest");
@@ -0,0 +1,257 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin;
+
+import io.questdb.cairo.*;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordMetadata;
+import io.questdb.griffin.engine.functions.groupby.HyperLogLog;
+import io.questdb.std.*;
+import io.questdb.std.str.Path;
+
+import java.util.Arrays;
+
+/**
+ * Collects statistics of table for ANALYZE TABLE: row count of every partition and, for every column,
+ * estimate of distinct value count and min and max values. Distinct values of SYMBOL columns are counted
+ * exactly from symbol table, values of other columns are counted by HyperLogLog sketch. Statistics file
+ * layout is described by {@link TableStats}.
+ */
+class TableStatsCollector {
+    private static final int PRECISION = HyperLogLog.MAX_PRECISION;
+    private final ObjList<byte[]> sketches = new ObjList<>();
+    private final LongList distinctCounts = new LongList();
+    private final LongList mins = new LongList();
+    private final LongList maxs = new LongList();
+    private final LongList partitionTimestamps = new LongList();
+    private final LongList partitionRowCounts = new LongList();
+    private RecordMetadata metadata;
+    private long rowCount;
+
+    private static boolean isDoubleType(int columnType) {
+        return columnType == ColumnType.FLOAT || columnType == ColumnType.DOUBLE;
+    }
+
+    private static boolean isLongType(int columnType) {
+        switch (columnType) {
+            case ColumnType.BYTE:
+            case ColumnType.SHORT:
+            case ColumnType.CHAR:
+            case ColumnType.INT:
+            case ColumnType.LONG:
+            case ColumnType.DATE:
+            case ColumnType.TIMESTAMP:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private static long getLong(Record record, int columnIndex, int columnType) {
+        switch (columnType) {
+            case ColumnType.BYTE:
+                return record.getByte(columnIndex);
+            case ColumnType.SHORT:
+                return record.getShort(columnIndex);
+            case ColumnType.CHAR:
+                return record.getChar(columnIndex);
+            case ColumnType.INT:
+                final int value = record.getInt(columnIndex);
+                return value == Numbers.INT_NaN ? Numbers.LONG_NaN : value;
+            case ColumnType.DATE:
+                return record.getDate(columnIndex);
+            case ColumnType.TIMESTAMP:
+                return record.getTimestamp(columnIndex);
+            default:
+                return record.getLong(columnIndex);
+        }
+    }
+
+    /**
+     * Scans all rows of table.
+     *
+     * @param reader reader of table, its cursor is used for the scan
+     */
+    void collect(TableReader reader) {
+        metadata = reader.getMetadata();
+        rowCount = 0;
+        partitionTimestamps.clear();
+        partitionRowCounts.clear();
+        distinctCounts.clear();
+        mins.clear();
+        maxs.clear();
+
+        final int columnCount = metadata.getColumnCount();
+        for (int i = 0; i < columnCount; i++) {
+            final int columnType = metadata.getColumnType(i);
+            if (columnType == ColumnType.SYMBOL) {
+                distinctCounts.add(reader.getSymbolMapReader(i).size());
+            } else if (columnType == ColumnType.BINARY) {
+                distinctCounts.add(-1);
+            } else {
+                // sketched below
+                distinctCounts.add(0);
+                final byte[] sketch = sketches.getQuiet(i);
+                if (sketch == null) {
+                    sketches.extendAndSet(i, new byte[1 << PRECISION]);
+                } else {
+                    Arrays.fill(sketch, (byte) 0);
+                }
+            }
+            mins.add(isDoubleType(columnType) ? Double.doubleToLongBits(Double.NaN) : Numbers.LONG_NaN);
+            maxs.add(isDoubleType(columnType) ? Double.doubleToLongBits(Double.NaN) : Numbers.LONG_NaN);
+        }
+
+        final int timestampIndex = metadata.getTimestampIndex();
+        final RecordCursor cursor = reader.getCursor();
+        final Record record = cursor.getRecord();
+        while (cursor.hasNext()) {
+            final int partitionIndex = Rows.toPartitionIndex(record.getRowId());
+            if (partitionIndex >= partitionRowCounts.size()) {
+                partitionRowCounts.seed(partitionRowCounts.size(), partitionIndex + 1 - partitionRowCounts.size(), 0);
+                partitionTimestamps.seed(partitionTimestamps.size(), partitionIndex + 1 - partitionTimestamps.size(), Numbers.LONG_NaN);
+            }
+            if (partitionRowCounts.getQuick(partitionIndex) == 0 && timestampIndex != -1) {
+                partitionTimestamps.setQuick(partitionIndex, reader.floorToPartitionTimestamp(record.getTimestamp(timestampIndex)));
+            }
+            partitionRowCounts.increment(partitionIndex);
+            rowCount++;
+
+            for (int i = 0; i < columnCount; i++) {
+                collectColumn(record, i, metadata.getColumnType(i));
+            }
+        }
+
+        for (int i = 0; i < columnCount; i++) {
+            final int columnType = metadata.getColumnType(i);
+            if (columnType != ColumnType.SYMBOL && columnType != ColumnType.BINARY) {
+                distinctCounts.setQuick(i, HyperLogLog.estimate(sketches.getQuick(i)));
+            }
+        }
+    }
+
+    /**
+     * Writes statistics collected by last {@link #collect(TableReader)} call. File is written
+     * under temporary name and then renamed, readers never see partially written statistics.
+     */
+    void write(FilesFacade ff, AppendMemory mem, Path path, CharSequence root, CharSequence tableName) {
+        path.of(root).concat(tableName).concat(TableUtils.STATS_FILE_NAME).put(".tmp").$();
+        mem.of(ff, path, ff.getPageSize());
+        try {
+            mem.putInt(TableStats.VERSION);
+            mem.putInt(countPartitions());
+            mem.putLong(rowCount);
+            mem.putInt(metadata.getColumnCount());
+            for (int i = 0, n = partitionRowCounts.size(); i < n; i++) {
+                if (partitionRowCounts.getQuick(i) > 0) {
+                    mem.putLong(partitionTimestamps.getQuick(i));
+                    mem.putLong(partitionRowCounts.getQuick(i));
+                }
+            }
+            for (int i = 0, n = metadata.getColumnCount(); i < n; i++) {
+                mem.putInt(metadata.getColumnType(i));
+                mem.putLong(distinctCounts.getQuick(i));
+                mem.putLong(mins.getQuick(i));
+                mem.putLong(maxs.getQuick(i));
+                mem.putStr(metadata.getColumnName(i));
+            }
+        } finally {
+            mem.close();
+        }
+
+        try (Path target = new Path()) {
+            TableStats.statsFileName(target.of(root), tableName);
+            if (ff.exists(target) && !ff.remove(target)) {
+                throw CairoException.instance(ff.errno()).put("could not remove [file=").put(target).put(']');
+            }
+            if (!ff.rename(path, target)) {
+                throw CairoException.instance(ff.errno()).put("could not rename [from=").put(path).put(", to=").put(target).put(']');
+            }
+        }
+    }
+
+    private void collectColumn(Record record, int columnIndex, int columnType) {
+        final long hash;
+        if (isLongType(columnType)) {
+            final long value = getLong(record, columnIndex, columnType);
+            if (value == Numbers.LONG_NaN) {
+                return;
+            }
+            hash = Hash.fmix64(value);
+            if (mins.getQuick(columnIndex) == Numbers.LONG_NaN || value < mins.getQuick(columnIndex)) {
+                mins.setQuick(columnIndex, value);
+            }
+            if (maxs.getQuick(columnIndex) == Numbers.LONG_NaN || value > maxs.getQuick(columnIndex)) {
+                maxs.setQuick(columnIndex, value);
+            }
+        } else if (isDoubleType(columnType)) {
+            final double value = columnType == ColumnType.FLOAT ? record.getFloat(columnIndex) : record.getDouble(columnIndex);
+            if (Double.isNaN(value)) {
+                return;
+            }
+            hash = Hash.fmix64(Double.doubleToLongBits(value));
+            final double min = Double.longBitsToDouble(mins.getQuick(columnIndex));
+            if (Double.isNaN(min) || value < min) {
+                mins.setQuick(columnIndex, Double.doubleToLongBits(value));
+            }
+            final double max = Double.longBitsToDouble(maxs.getQuick(columnIndex));
+            if (Double.isNaN(max) || value > max) {
+                maxs.setQuick(columnIndex, Double.doubleToLongBits(value));
+            }
+        } else {
+            switch (columnType) {
+                case ColumnType.BOOLEAN:
+                    hash = Hash.fmix64(record.getBool(columnIndex) ? 1 : 0);
+                    break;
+                case ColumnType.STRING:
+                    final CharSequence value = record.getStr(columnIndex);
+                    if (value == null) {
+                        return;
+                    }
+                    hash = Hash.hash64(value);
+                    break;
+                case ColumnType.LONG256:
+                    final Long256 long256 = record.getLong256A(columnIndex);
+                    hash = BloomIndexUtils.hash(long256.getLong0(), long256.getLong1(), long256.getLong2(), long256.getLong3());
+                    break;
+                default:
+                    // symbols are counted from symbol table, binary values are not counted
+                    return;
+            }
+        }
+        HyperLogLog.add(sketches.getQuick(columnIndex), PRECISION, hash);
+    }
+
+    private int countPartitions() {
+        int count = 0;
+        for (int i = 0, n = partitionRowCounts.size(); i < n; i++) {
+            if (partitionRowCounts.getQuick(i) > 0) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -24,11 +24,14 @@
 
 package io.questdb.griffin;
 
+import io.questdb.cairo.BloomIndexUtils;
 import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.RangeIndexUtils;
 import io.questdb.cairo.sql.RecordMetadata;
 import io.questdb.griffin.model.AliasTranslator;
 import io.questdb.griffin.model.ExpressionNode;
 import io.questdb.griffin.model.IntrinsicModel;
+import io.questdb.griffin.model.RuntimeIntervalModel;
 import io.questdb.std.*;
 import io.questdb.std.microtime.DateFormatUtils;
 import io.questdb.std.str.FlyweightCharSequence;
@@ -61,6 +64,7 @@ final class WhereClauseParser {
     private final ArrayDeque<ExpressionNode> stack = new ArrayDeque<>();
     private final ObjList<ExpressionNode> keyNodes = new ObjList<>();
     private final ObjList<ExpressionNode> keyExclNodes = new ObjList<>();
+    private final ObjList<ExpressionNode> rangeNodes = new ObjList<>();
     private final ObjectPool<IntrinsicModel> models = new ObjectPool<>(IntrinsicModel.FACTORY, 8);
     private final CharSequenceHashSet tempKeys = new CharSequenceHashSet();
     private final IntList tempPos = new IntList();
@@ -69,6 +73,7 @@ final class WhereClauseParser {
     private final ObjectPool<FlyweightCharSequence> csPool = new ObjectPool<>(FlyweightCharSequence.FACTORY, 64);
     private CharSequence timestamp;
     private CharSequence preferredKeyColumn;
+    private int rangeColumnType;
 
     private static void checkNodeValid(ExpressionNode node) throws SqlException {
         if (node.lhs == null || node.rhs == null) {
@@ -76,6 +81,56 @@ final class WhereClauseParser {
         }
     }
 
+    private static int flip(int op) {
+        switch (op) {
+            case INTRINCIC_OP_GREATER:
+                return INTRINCIC_OP_LESS;
+            case INTRINCIC_OP_GREATER_EQ:
+                return INTRINCIC_OP_LESS_EQ;
+            case INTRINCIC_OP_LESS:
+                return INTRINCIC_OP_GREATER;
+            case INTRINCIC_OP_LESS_EQ:
+                return INTRINCIC_OP_GREATER_EQ;
+            default:
+                return op;
+        }
+    }
+
+    private boolean isBloomCandidate(IntrinsicModel model, RecordMetadata m, int columnIndex) {
+        // first predicate on bloom indexed column wins, others remain in filter only
+        return preferredKeyColumn == null
+                && model.bloomColumn == null
+                && m.isColumnIndexed(columnIndex)
+                && BloomIndexUtils.isSupported(m.getColumnType(columnIndex));
+    }
+
+    private static boolean isSymbolIndexed(RecordMetadata m, int columnIndex) {
+        return m.isColumnIndexed(columnIndex) && m.getColumnType(columnIndex) == ColumnType.SYMBOL;
+    }
+
+    /**
+     * Adds value that bloom indexed column is compared to. Predicate itself remains in filter because
+     * bloom index only tells which blocks of rows cannot contain value. All values of "in" list have
+     * to be added, when any of them cannot be hashed bloom index is not used.
+     *
+     * @return false when value cannot be hashed and bloom index is abandoned
+     */
+    private boolean analyzeBloom(IntrinsicModel model, CharSequence column, int columnType, ExpressionNode val) {
+        if (val.type == ExpressionNode.CONSTANT && Chars.isQuoted(val.token)) {
+            final CharSequence value = unquote(val.token);
+            try {
+                model.bloomHashes.add(columnType == ColumnType.STRING ? BloomIndexUtils.hash(value) : BloomIndexUtils.hashLong256(value));
+                model.bloomColumn = column;
+                return true;
+            } catch (NumericException ignore) {
+                // let filter report invalid value
+            }
+        }
+        model.bloomColumn = null;
+        model.bloomHashes.clear();
+        return false;
+    }
+
     private boolean analyzeEquals(AliasTranslator translator, IntrinsicModel model, ExpressionNode node, RecordMetadata m) throws SqlException {
         checkNodeValid(node);
         return analyzeEquals0(translator, model, node, node.lhs, node.rhs, m) || analyzeEquals0(translator, model, node, node.rhs, node.lhs, m);
@@ -87,6 +142,12 @@ final class WhereClauseParser {
             return true;
         }
 
+        if (a.type == ExpressionNode.LITERAL && isTimestamp(a) && isBindVariable(b)) {
+            model.intersectRuntimeInterval(b, RuntimeIntervalModel.EQUAL);
+            node.intrinsicValue = IntrinsicModel.TRUE;
+            return true;
+        }
+
         if (a.type == ExpressionNode.LITERAL && b.type == ExpressionNode.CONSTANT) {
             if (isTimestamp(a)) {
                 model.intersectIntervals(b.token, 1, b.token.length() - 1, b.position);
@@ -99,13 +160,21 @@ final class WhereClauseParser {
                     throw SqlException.invalidColumn(a.position, a.token);
                 }
 
+                if (analyzeRange(translator, model, node, a, b, m, INTRINCIC_OP_EQUAL)) {
+                    return true;
+                }
+
+                if (isBloomCandidate(model, m, index)) {
+                    analyzeBloom(model, column, m.getColumnType(index), b);
+                }
+
                 switch (m.getColumnType(index)) {
                     case ColumnType.SYMBOL:
                     case ColumnType.STRING:
                     case ColumnType.LONG:
                     case ColumnType.INT:
                         final boolean preferred = Chars.equalsIgnoreCaseNc(preferredKeyColumn, column);
-                        final boolean indexed = m.isColumnIndexed(index);
+                        final boolean indexed = isSymbolIndexed(m, index);
                         if (preferred || (indexed && preferredKeyColumn == null)) {
                             CharSequence value = Chars.equalsLowerCaseAscii(b.token, "null") ? null : unquote(b.token);
                             if (Chars.equalsIgnoreCaseNc(model.keyColumn, column)) {
@@ -152,7 +221,7 @@ final class WhereClauseParser {
         return false;
     }
 
-    private boolean analyzeGreater(IntrinsicModel model, ExpressionNode node, int increment) throws SqlException {
+    private boolean analyzeGreater(AliasTranslator translator, IntrinsicModel model, ExpressionNode node, RecordMetadata m, int increment) throws SqlException {
         checkNodeValid(node);
 
         if (Chars.equals(node.lhs.token, node.rhs.token)) {
@@ -160,12 +229,24 @@ final class WhereClauseParser {
             return false;
         }
 
+        final int op = increment == 0 ? INTRINCIC_OP_GREATER_EQ : INTRINCIC_OP_GREATER;
+        if (analyzeRange(translator, model, node, node.lhs, node.rhs, m, op)
+                || analyzeRange(translator, model, node, node.rhs, node.lhs, m, flip(op))) {
+            return true;
+        }
+
         if (timestamp == null) {
             return false;
         }
 
         if (node.lhs.type == ExpressionNode.LITERAL && Chars.equals(node.lhs.token, timestamp)) {
 
+            if (isBindVariable(node.rhs)) {
+                model.intersectRuntimeInterval(node.rhs, increment == 0 ? RuntimeIntervalModel.GREATER_EQ : RuntimeIntervalModel.GREATER);
+                node.intrinsicValue = IntrinsicModel.TRUE;
+                return true;
+            }
+
             if (node.rhs.type != ExpressionNode.CONSTANT) {
                 return false;
             }
@@ -181,6 +262,12 @@ final class WhereClauseParser {
 
         if (node.rhs.type == ExpressionNode.LITERAL && Chars.equals(node.rhs.token, timestamp)) {
 
+            if (isBindVariable(node.lhs)) {
+                model.intersectRuntimeInterval(node.lhs, increment == 0 ? RuntimeIntervalModel.LESS_EQ : RuntimeIntervalModel.LESS);
+                node.intrinsicValue = IntrinsicModel.TRUE;
+                return true;
+            }
+
             if (node.lhs.type != ExpressionNode.CONSTANT) {
                 return false;
             }
@@ -209,21 +296,43 @@ final class WhereClauseParser {
 
         CharSequence column = translator.translateAlias(col.token);
 
-        if (metadata.getColumnIndexQuiet(column) == -1) {
+        final int index = metadata.getColumnIndexQuiet(column);
+        if (index == -1) {
             throw SqlException.invalidColumn(col.position, col.token);
         }
+
+        if (isBloomCandidate(model, metadata, index)) {
+            final int type = metadata.getColumnType(index);
+            if (node.paramCount < 3) {
+                analyzeBloom(model, column, type, node.rhs);
+            } else {
+                for (int i = node.paramCount - 2; i > -1 && analyzeBloom(model, column, type, node.args.getQuick(i)); i--) {
+                    // values are hashed by analyzeBloom()
+                }
+            }
+        }
+
         return analyzeInInterval(model, col, node)
                 || analyzeListOfValues(model, column, metadata, node)
                 || analyzeInLambda(model, column, metadata, node);
     }
 
+    // "timestamp in (lo, hi)" with exactly two values on designated timestamp is interval syntax,
+    // it selects inclusive range between lo and hi. Everywhere else 'in' is set membership,
+    // see InTimestampFunctionFactory.
     private boolean analyzeInInterval(IntrinsicModel model, ExpressionNode col, ExpressionNode in) throws SqlException {
         if (!isTimestamp(col)) {
             return false;
         }
 
         if (in.paramCount > 3) {
-            throw SqlException.$(in.args.getQuick(0).position, "Too many args");
+            // list of timestamps is not an interval, it is evaluated as filter
+            return false;
+        }
+
+        if (in.paramCount == 2 && in.rhs.type == ExpressionNode.QUERY) {
+            // sub-query values are known only when cursor is open
+            return false;
         }
 
         if (in.paramCount < 3) {
@@ -253,6 +362,30 @@ final class WhereClauseParser {
             in.intrinsicValue = IntrinsicModel.TRUE;
             return true;
         }
+
+        if ((lo.type == ExpressionNode.CONSTANT || isBindVariable(lo)) && (hi.type == ExpressionNode.CONSTANT || isBindVariable(hi))) {
+            if (isBindVariable(lo)) {
+                model.intersectRuntimeInterval(lo, RuntimeIntervalModel.GREATER_EQ);
+            } else {
+                try {
+                    model.intersectIntervals(DateFormatUtils.tryParse(lo.token, 1, lo.token.length() - 1), Long.MAX_VALUE);
+                } catch (NumericException ignore) {
+                    throw SqlException.invalidDate(lo.position);
+                }
+            }
+
+            if (isBindVariable(hi)) {
+                model.intersectRuntimeInterval(hi, RuntimeIntervalModel.LESS_EQ);
+            } else {
+                try {
+                    model.intersectIntervals(Long.MIN_VALUE, DateFormatUtils.tryParse(hi.token, 1, hi.token.length() - 1));
+                } catch (NumericException ignore) {
+                    throw SqlException.invalidDate(hi.position);
+                }
+            }
+            in.intrinsicValue = IntrinsicModel.TRUE;
+            return true;
+        }
         return false;
     }
 
@@ -261,7 +394,7 @@ final class WhereClauseParser {
         int columnIndex = meta.getColumnIndex(columnName);
         boolean preferred = Chars.equalsIgnoreCaseNc(preferredKeyColumn, columnName);
 
-        if (preferred || (preferredKeyColumn == null && meta.isColumnIndexed(columnIndex))) {
+        if (preferred || (preferredKeyColumn == null && isSymbolIndexed(meta, columnIndex))) {
             if (preferredKeyColumn != null && !Chars.equalsIgnoreCase(columnName, preferredKeyColumn)) {
                 return false;
             }
@@ -299,7 +432,7 @@ final class WhereClauseParser {
         return false;
     }
 
-    private boolean analyzeLess(IntrinsicModel model, ExpressionNode node, int inc) throws SqlException {
+    private boolean analyzeLess(AliasTranslator translator, IntrinsicModel model, ExpressionNode node, RecordMetadata m, int inc) throws SqlException {
 
         checkNodeValid(node);
 
@@ -308,11 +441,23 @@ final class WhereClauseParser {
             return false;
         }
 
+        final int op = inc == 0 ? INTRINCIC_OP_LESS_EQ : INTRINCIC_OP_LESS;
+        if (analyzeRange(translator, model, node, node.lhs, node.rhs, m, op)
+                || analyzeRange(translator, model, node, node.rhs, node.lhs, m, flip(op))) {
+            return true;
+        }
+
         if (timestamp == null) {
             return false;
         }
 
         if (node.lhs.type == ExpressionNode.LITERAL && Chars.equals(node.lhs.token, timestamp)) {
+            if (isBindVariable(node.rhs)) {
+                model.intersectRuntimeInterval(node.rhs, inc == 0 ? RuntimeIntervalModel.LESS_EQ : RuntimeIntervalModel.LESS);
+                node.intrinsicValue = IntrinsicModel.TRUE;
+                return true;
+            }
+
             try {
 
                 if (node.rhs.type != ExpressionNode.CONSTANT) {
@@ -329,6 +474,12 @@ final class WhereClauseParser {
         }
 
         if (node.rhs.type == ExpressionNode.LITERAL && Chars.equals(node.rhs.token, timestamp)) {
+            if (isBindVariable(node.lhs)) {
+                model.intersectRuntimeInterval(node.lhs, inc == 0 ? RuntimeIntervalModel.GREATER_EQ : RuntimeIntervalModel.GREATER);
+                node.intrinsicValue = IntrinsicModel.TRUE;
+                return true;
+            }
+
             try {
                 if (node.lhs.type != ExpressionNode.CONSTANT) {
                     return false;
@@ -350,7 +501,7 @@ final class WhereClauseParser {
         boolean newColumn = true;
         boolean preferred = Chars.equalsIgnoreCaseNc(preferredKeyColumn, columnName);
 
-        if (preferred || (preferredKeyColumn == null && meta.isColumnIndexed(columnIndex))) {
+        if (preferred || (preferredKeyColumn == null && isSymbolIndexed(meta, columnIndex))) {
 
             // check if we already have indexed column and it is of worse selectivity
             // "preferred" is an unfortunate name, this column is from "latest by" clause, I should name it better
@@ -452,7 +603,7 @@ final class WhereClauseParser {
                     case ColumnType.STRING:
                     case ColumnType.LONG:
                     case ColumnType.INT:
-                        if (m.isColumnIndexed(index)) {
+                        if (isSymbolIndexed(m, index)) {
 
                             // check if we are limited by preferred column
                             if (preferredKeyColumn != null && !Chars.equals(preferredKeyColumn, column)) {
@@ -502,13 +653,20 @@ final class WhereClauseParser {
         return ok;
     }
 
+    // negation of interval syntax, see analyzeInInterval()
     private boolean analyzeNotInInterval(IntrinsicModel model, ExpressionNode col, ExpressionNode in) throws SqlException {
         if (!isTimestamp(col)) {
             return false;
         }
 
         if (in.paramCount > 3) {
-            throw SqlException.$(in.args.getQuick(0).position, "Too many args");
+            // list of timestamps is not an interval, it is evaluated as filter
+            return false;
+        }
+
+        if (in.paramCount == 2 && in.rhs.type == ExpressionNode.QUERY) {
+            // sub-query values are known only when cursor is open
+            return false;
         }
 
         if (in.paramCount < 3) {
@@ -549,7 +707,7 @@ final class WhereClauseParser {
             case ColumnType.STRING:
             case ColumnType.LONG:
             case ColumnType.INT:
-                if (m.isColumnIndexed(columnIndex) && (preferredKeyColumn == null || Chars.equals(preferredKeyColumn, columnName))) {
+                if (isSymbolIndexed(m, columnIndex) && (preferredKeyColumn == null || Chars.equals(preferredKeyColumn, columnName))) {
                     keyExclNodes.add(notNode);
                 }
                 break;
@@ -558,6 +716,66 @@ final class WhereClauseParser {
         }
     }
 
+    /**
+     * Narrows value range of range indexed INT or LONG column. Predicate is in form of "col op val".
+     * Only one column is chosen for range lookup, predicates on other columns remain in filter.
+     */
+    private boolean analyzeRange(AliasTranslator translator, IntrinsicModel model, ExpressionNode node, ExpressionNode col, ExpressionNode val, RecordMetadata m, int op) {
+        if (preferredKeyColumn != null || col.type != ExpressionNode.LITERAL || val.type != ExpressionNode.CONSTANT) {
+            return false;
+        }
+
+        final CharSequence column = translator.translateAlias(col.token);
+        final int index = m.getColumnIndexQuiet(column);
+        if (index == -1 || !m.isColumnIndexed(index) || !RangeIndexUtils.isSupported(m.getColumnType(index))) {
+            return false;
+        }
+
+        if (model.rangeColumn != null && !Chars.equalsIgnoreCase(model.rangeColumn, column)) {
+            return false;
+        }
+
+        final long value;
+        try {
+            value = Numbers.parseLong(val.token);
+        } catch (NumericException e) {
+            return false;
+        }
+
+        final long lo;
+        final long hi;
+        switch (op) {
+            case INTRINCIC_OP_EQUAL:
+                lo = hi = value;
+                break;
+            case INTRINCIC_OP_GREATER:
+                if (value == Long.MAX_VALUE) {
+                    return false;
+                }
+                lo = value + 1;
+                hi = Long.MAX_VALUE;
+                break;
+            case INTRINCIC_OP_GREATER_EQ:
+                lo = value;
+                hi = Long.MAX_VALUE;
+                break;
+            case INTRINCIC_OP_LESS:
+                lo = Long.MIN_VALUE;
+                hi = value - 1;
+                break;
+            default:
+                lo = Long.MIN_VALUE;
+                hi = value;
+                break;
+        }
+
+        model.intersectRange(column, lo, hi);
+        rangeColumnType = m.getColumnType(index);
+        rangeNodes.add(node);
+        node.intrinsicValue = IntrinsicModel.TRUE;
+        return true;
+    }
+
     private void applyKeyExclusions(AliasTranslator translator, IntrinsicModel model) {
         if (model.keyColumn != null && keyExclNodes.size() > 0) {
             OUT:
@@ -610,6 +828,28 @@ final class WhereClauseParser {
         keyExclNodes.clear();
     }
 
+    private void applyRange(IntrinsicModel model) {
+        if (model.rangeColumn != null && model.intrinsicValue != IntrinsicModel.FALSE) {
+            // Symbol index is preferred when both are available. Null values compare as
+            // the smallest value of the type, range that includes them cannot be served
+            // by index because column top rows are not indexed.
+            final long nullValue = rangeColumnType == ColumnType.INT ? Numbers.INT_NaN : Numbers.LONG_NaN;
+            if (model.keyColumn != null || model.rangeLo <= nullValue) {
+                for (int i = 0, n = rangeNodes.size(); i < n; i++) {
+                    rangeNodes.getQuick(i).intrinsicValue = IntrinsicModel.UNDEFINED;
+                }
+                model.clearRange();
+            }
+        }
+        rangeNodes.clear();
+
+        // bloom index only narrows down blocks to scan, either of the other indexes is preferred
+        if (model.keyColumn != null || model.rangeColumn != null) {
+            model.bloomColumn = null;
+            model.bloomHashes.clear();
+        }
+    }
+
     private ExpressionNode collapseIntrinsicNodes(ExpressionNode node) {
         if (node == null || node.intrinsicValue == IntrinsicModel.TRUE) {
             return null;
@@ -645,6 +885,8 @@ final class WhereClauseParser {
         // see: http://en.wikipedia.org/wiki/Tree_traversal
 
         if (removeAndIntrinsics(translator, model, node, m)) {
+            applyRange(model);
+            model.filter = collapseIntrinsicNodes(node);
             return model;
         }
         ExpressionNode root = node;
@@ -664,10 +906,15 @@ final class WhereClauseParser {
             }
         }
         applyKeyExclusions(translator, model);
+        applyRange(model);
         model.filter = collapseIntrinsicNodes(root);
         return model;
     }
 
+    private static boolean isBindVariable(ExpressionNode n) {
+        return n.type == ExpressionNode.LITERAL && (Chars.startsWith(n.token, ':') || Chars.startsWith(n.token, '$'));
+    }
+
     private boolean isTimestamp(ExpressionNode n) {
         return timestamp != null && Chars.equals(timestamp, n.token);
     }
@@ -677,13 +924,13 @@ final class WhereClauseParser {
             case INTRINCIC_OP_IN:
                 return analyzeIn(translator, model, node, m);
             case INTRINCIC_OP_GREATER:
-                return analyzeGreater(model, node, 1);
+                return analyzeGreater(translator, model, node, m, 1);
             case INTRINCIC_OP_GREATER_EQ:
-                return analyzeGreater(model, node, 0);
+                return analyzeGreater(translator, model, node, m, 0);
             case INTRINCIC_OP_LESS:
-                return analyzeLess(model, node, 1);
+                return analyzeLess(translator, model, node, m, 1);
             case INTRINCIC_OP_LESS_EQ:
-                return analyzeLess(model, node, 0);
+                return analyzeLess(translator, model, node, m, 0);
             case INTRINCIC_OP_EQUAL:
                 return analyzeEquals(translator, model, node, m);
             case INTRINCIC_OP_NOT_EQ:
@@ -718,6 +965,7 @@ final class WhereClauseParser {
         this.models.clear();
         this.stack.clear();
         this.keyNodes.clear();
+        this.rangeNodes.clear();
         this.csPool.clear();
     }
 
@@ -25,6 +25,7 @@
 package io.questdb.griffin.engine;
 
 import io.questdb.std.MemoryPages;
+import io.questdb.std.MemoryTag;
 import io.questdb.std.Misc;
 import io.questdb.std.Mutable;
 import io.questdb.std.Unsafe;
@@ -46,7 +47,7 @@ public abstract class AbstractRedBlackTree implements Mutable, Closeable {
     protected long root = -1;
 
     public AbstractRedBlackTree(int keyPageSize) {
-        this.mem = new MemoryPages(keyPageSize);
+        this.mem = new MemoryPages(keyPageSize, MemoryTag.NATIVE_SQL);
     }
 
     @Override
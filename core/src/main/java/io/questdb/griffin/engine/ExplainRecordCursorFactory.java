@@ -0,0 +1,145 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine;
+
+import io.questdb.cairo.AbstractRecordCursorFactory;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.GenericRecordMetadata;
+import io.questdb.cairo.TableColumnMetadata;
+import io.questdb.cairo.sql.NoRandomAccessRecordCursor;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.cairo.sql.RecordMetadata;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlExecutionCircuitBreaker;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.std.Misc;
+import io.questdb.std.ObjList;
+
+/**
+ * Returns plan of the query, one line per row. When query is analyzed, cursor of the query is
+ * drained first, so that plan is annotated with statistics collected by profiled factories.
+ */
+public class ExplainRecordCursorFactory extends AbstractRecordCursorFactory {
+    private static final RecordMetadata METADATA;
+
+    static {
+        final GenericRecordMetadata metadata = new GenericRecordMetadata();
+        metadata.add(new TableColumnMetadata("QUERY PLAN", ColumnType.STRING));
+        METADATA = metadata;
+    }
+
+    private final RecordCursorFactory base;
+    private final ObjList<ProfiledRecordCursorFactory> profiledFactories;
+    private final PlanSink planSink = new PlanSink();
+    private final ExplainRecordCursor cursor = new ExplainRecordCursor();
+
+    public ExplainRecordCursorFactory(RecordCursorFactory base, ObjList<ProfiledRecordCursorFactory> profiledFactories) {
+        super(METADATA);
+        this.base = base;
+        this.profiledFactories = profiledFactories;
+    }
+
+    @Override
+    public void close() {
+        Misc.free(base);
+    }
+
+    @Override
+    public RecordCursor getCursor(SqlExecutionContext executionContext) {
+        if (profiledFactories.size() > 0) {
+            analyze(executionContext);
+        }
+        planSink.clear();
+        base.toPlan(planSink);
+        cursor.toTop();
+        return cursor;
+    }
+
+    @Override
+    public boolean isRandomAccessCursor() {
+        return false;
+    }
+
+    private void analyze(SqlExecutionContext executionContext) {
+        for (int i = 0, n = profiledFactories.size(); i < n; i++) {
+            profiledFactories.getQuick(i).reset();
+        }
+        final SqlExecutionCircuitBreaker circuitBreaker = executionContext.getCircuitBreaker();
+        try (RecordCursor cursor = base.getCursor(executionContext)) {
+            while (cursor.hasNext()) {
+                circuitBreaker.checkState();
+            }
+        }
+    }
+
+    private class ExplainRecordCursor implements NoRandomAccessRecordCursor {
+        private final ExplainRecord record = new ExplainRecord();
+        private int line;
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public Record getRecord() {
+            return record;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return ++line < planSink.getLineCount();
+        }
+
+        @Override
+        public long size() {
+            return planSink.getLineCount();
+        }
+
+        @Override
+        public void toTop() {
+            line = -1;
+        }
+
+        private class ExplainRecord implements Record {
+
+            @Override
+            public CharSequence getStr(int col) {
+                return planSink.getLine(line);
+            }
+
+            @Override
+            public CharSequence getStrB(int col) {
+                return getStr(col);
+            }
+
+            @Override
+            public int getStrLen(int col) {
+                return getStr(col).length();
+            }
+        }
+    }
+}
@@ -26,17 +26,27 @@ package io.questdb.griffin.engine;
 
 import io.questdb.cairo.AbstractRecordCursorFactory;
 import io.questdb.cairo.sql.*;
+import io.questdb.griffin.PlanSink;
 import io.questdb.griffin.SqlExecutionContext;
 import org.jetbrains.annotations.Nullable;
 
 public class LimitRecordCursorFactory extends AbstractRecordCursorFactory {
     private final RecordCursorFactory base;
     private final LimitRecordCursor cursor;
+    private final Function loFunction;
+    private final Function hiFunction;
 
     public LimitRecordCursorFactory(RecordCursorFactory base, Function loFunction, @Nullable Function hiFunction) {
         super(base.getMetadata());
         this.base = base;
         this.cursor = new LimitRecordCursor(loFunction, hiFunction);
+        this.loFunction = loFunction;
+        this.hiFunction = hiFunction;
+    }
+
+    @Override
+    public void close() {
+        base.close();
     }
 
     @Override
@@ -50,6 +60,12 @@ public class LimitRecordCursorFactory extends AbstractRecordCursorFactory {
         return base.isRandomAccessCursor();
     }
 
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.type(this).attr("lo").val(loFunction).optAttr("hi", hiFunction);
+        sink.child(base);
+    }
+
     private static class LimitRecordCursor implements RecordCursor {
         private final Function loFunction;
         private final Function hiFunction;
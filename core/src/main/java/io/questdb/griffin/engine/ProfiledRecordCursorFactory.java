@@ -0,0 +1,182 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine;
+
+import io.questdb.cairo.sql.*;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Misc;
+import io.questdb.std.Unsafe;
+
+/**
+ * Collects runtime statistics of wrapped factory for EXPLAIN ANALYZE: rows returned by its cursor,
+ * time spent in the cursor and peak growth of SQL memory while the cursor was in use. Time and memory
+ * include nested cursors. Code generator wraps factories only when query is being analyzed, other
+ * queries do not pay for the counters.
+ */
+public class ProfiledRecordCursorFactory implements RecordCursorFactory {
+    private final RecordCursorFactory base;
+    private final ProfiledRecordCursor cursor = new ProfiledRecordCursor();
+    private long rows;
+    private long nanos;
+    private long memBase;
+    private long memPeak;
+
+    public ProfiledRecordCursorFactory(RecordCursorFactory base) {
+        this.base = base;
+    }
+
+    @Override
+    public void close() {
+        Misc.free(base);
+    }
+
+    @Override
+    public RecordCursor getCursor(SqlExecutionContext executionContext) {
+        final long start = System.nanoTime();
+        memBase = Unsafe.getMemUsedByTag(MemoryTag.NATIVE_SQL);
+        try {
+            cursor.of(base.getCursor(executionContext));
+        } finally {
+            stop(start);
+        }
+        return cursor;
+    }
+
+    @Override
+    public RecordMetadata getMetadata() {
+        return base.getMetadata();
+    }
+
+    @Override
+    public boolean isRandomAccessCursor() {
+        return base.isRandomAccessCursor();
+    }
+
+    public void reset() {
+        rows = 0;
+        nanos = 0;
+        memPeak = 0;
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        final int line = sink.getLineCount();
+        base.toPlan(sink);
+        sink.getLineSink(line)
+                .put("  (rows: ").put(rows)
+                .put(", time: ").put(nanos / 1_000_000d, 3)
+                .put("ms, memory: ").put(memPeak)
+                .put(')');
+    }
+
+    private void stop(long start) {
+        nanos += System.nanoTime() - start;
+        memPeak = Math.max(memPeak, Unsafe.getMemUsedByTag(MemoryTag.NATIVE_SQL) - memBase);
+    }
+
+    private class ProfiledRecordCursor implements RecordCursor {
+        private RecordCursor base;
+
+        @Override
+        public void close() {
+            base.close();
+        }
+
+        @Override
+        public DataFrameCursor getDataFrameCursor() {
+            return base.getDataFrameCursor();
+        }
+
+        @Override
+        public int getDataFrameColumnIndex(int columnIndex) {
+            return base.getDataFrameColumnIndex(columnIndex);
+        }
+
+        @Override
+        public Record getRecord() {
+            return base.getRecord();
+        }
+
+        @Override
+        public SymbolTable getSymbolTable(int columnIndex) {
+            return base.getSymbolTable(columnIndex);
+        }
+
+        @Override
+        public boolean hasNext() {
+            final long start = System.nanoTime();
+            try {
+                if (base.hasNext()) {
+                    rows++;
+                    return true;
+                }
+                return false;
+            } finally {
+                stop(start);
+            }
+        }
+
+        @Override
+        public Record newRecord() {
+            return base.newRecord();
+        }
+
+        @Override
+        public void recordAt(Record record, long atRowId) {
+            base.recordAt(record, atRowId);
+        }
+
+        @Override
+        public void recordAt(long rowId) {
+            base.recordAt(rowId);
+        }
+
+        @Override
+        public boolean skipToTimestamp(long timestamp) {
+            return base.skipToTimestamp(timestamp);
+        }
+
+        @Override
+        public void toTop() {
+            final long start = System.nanoTime();
+            try {
+                base.toTop();
+            } finally {
+                stop(start);
+            }
+        }
+
+        @Override
+        public long size() {
+            return base.size();
+        }
+
+        private void of(RecordCursor base) {
+            this.base = base;
+        }
+    }
+}
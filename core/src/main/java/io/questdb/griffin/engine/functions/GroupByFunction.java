@@ -34,6 +34,29 @@ public interface GroupByFunction extends Function {
 
     void computeNext(MapValue mapValue, Record record);
 
+    /**
+     * Tells whether partial values computed over disjoint row sets can be combined with
+     * {@link #merge(MapValue, Record)}. Merged value must be the same as value computed over
+     * all rows in one go, floating point sums, for example, do not qualify.
+     *
+     * @return true when function implements merge
+     */
+    default boolean isMergeable() {
+        return false;
+    }
+
+    /**
+     * Merges partial value of this function into another partial value of the same group. Both
+     * values are laid out by {@link #pushValueTypes(ArrayColumnTypes)} of this function, source rows
+     * are expected to follow destination rows.
+     *
+     * @param destValue map value that receives merged result
+     * @param srcValue  map record that holds partial value to merge
+     */
+    default void merge(MapValue destValue, Record srcValue) {
+        throw new UnsupportedOperationException();
+    }
+
     void pushValueTypes(ArrayColumnTypes columnTypes);
 
     default void setByte(MapValue mapValue, byte value) {
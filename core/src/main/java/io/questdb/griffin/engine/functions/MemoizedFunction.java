@@ -0,0 +1,283 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.functions;
+
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.sql.*;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.std.BinarySequence;
+import io.questdb.std.Long256;
+import io.questdb.std.str.CharSink;
+
+/**
+ * Shares single instance of common subexpression between several parent functions. Value is
+ * computed once for the current row of given record and is served from cache until owning cursor
+ * calls {@link #invalidate()} when it moves to another row. Cached value is converted to other types
+ * the same way typed functions, such as {@link LongFunction}, convert it. Owning cursor must also call {@link #reset()}
+ * before initialising its functions, so that shared subexpression is initialised once.
+ */
+public class MemoizedFunction implements Function {
+    private final Function base;
+    private final int type;
+    private final boolean floatingPoint;
+    private Record record;
+    private boolean valid = false;
+    private boolean initialised = false;
+    private boolean closed = false;
+    private boolean boolValue;
+    private long longValue;
+    private double doubleValue;
+
+    public MemoizedFunction(Function base) {
+        this.base = base;
+        this.type = base.getType();
+        this.floatingPoint = type == ColumnType.FLOAT || type == ColumnType.DOUBLE;
+    }
+
+    public static boolean isSupported(int type) {
+        switch (type) {
+            case ColumnType.BOOLEAN:
+            case ColumnType.BYTE:
+            case ColumnType.SHORT:
+            case ColumnType.CHAR:
+            case ColumnType.INT:
+            case ColumnType.LONG:
+            case ColumnType.DATE:
+            case ColumnType.TIMESTAMP:
+            case ColumnType.FLOAT:
+            case ColumnType.DOUBLE:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    @Override
+    public void close() {
+        // shared function is closed by each of its parents
+        if (!closed) {
+            closed = true;
+            base.close();
+        }
+    }
+
+    public Function getBase() {
+        return base;
+    }
+
+    @Override
+    public BinarySequence getBin(Record rec) {
+        return base.getBin(rec);
+    }
+
+    @Override
+    public long getBinLen(Record rec) {
+        return base.getBinLen(rec);
+    }
+
+    @Override
+    public boolean getBool(Record rec) {
+        compute(rec);
+        return boolValue;
+    }
+
+    @Override
+    public byte getByte(Record rec) {
+        compute(rec);
+        return (byte) longValue;
+    }
+
+    @Override
+    public char getChar(Record rec) {
+        compute(rec);
+        return (char) longValue;
+    }
+
+    @Override
+    public long getDate(Record rec) {
+        compute(rec);
+        return type == ColumnType.TIMESTAMP ? longValue / 1000L : longValue;
+    }
+
+    @Override
+    public double getDouble(Record rec) {
+        compute(rec);
+        return floatingPoint ? doubleValue : longValue;
+    }
+
+    @Override
+    public float getFloat(Record rec) {
+        compute(rec);
+        return floatingPoint ? (float) doubleValue : longValue;
+    }
+
+    @Override
+    public int getInt(Record rec) {
+        compute(rec);
+        return (int) longValue;
+    }
+
+    @Override
+    public long getLong(Record rec) {
+        compute(rec);
+        return longValue;
+    }
+
+    @Override
+    public void getLong256(Record rec, CharSink sink) {
+        base.getLong256(rec, sink);
+    }
+
+    @Override
+    public Long256 getLong256A(Record rec) {
+        return base.getLong256A(rec);
+    }
+
+    @Override
+    public Long256 getLong256B(Record rec) {
+        return base.getLong256B(rec);
+    }
+
+    @Override
+    public RecordMetadata getMetadata() {
+        return base.getMetadata();
+    }
+
+    @Override
+    public int getPosition() {
+        return base.getPosition();
+    }
+
+    @Override
+    public RecordCursorFactory getRecordCursorFactory() {
+        return base.getRecordCursorFactory();
+    }
+
+    @Override
+    public short getShort(Record rec) {
+        compute(rec);
+        return (short) longValue;
+    }
+
+    @Override
+    public CharSequence getStr(Record rec) {
+        return base.getStr(rec);
+    }
+
+    @Override
+    public void getStr(Record rec, CharSink sink) {
+        base.getStr(rec, sink);
+    }
+
+    @Override
+    public CharSequence getStrB(Record rec) {
+        return base.getStrB(rec);
+    }
+
+    @Override
+    public int getStrLen(Record rec) {
+        return base.getStrLen(rec);
+    }
+
+    @Override
+    public CharSequence getSymbol(Record rec) {
+        return base.getSymbol(rec);
+    }
+
+    @Override
+    public long getTimestamp(Record rec) {
+        compute(rec);
+        return type == ColumnType.DATE ? longValue * 1000L : longValue;
+    }
+
+    @Override
+    public int getType() {
+        return type;
+    }
+
+    @Override
+    public void init(SymbolTableSource symbolTableSource, SqlExecutionContext executionContext) {
+        if (!initialised) {
+            base.init(symbolTableSource, executionContext);
+            initialised = true;
+        }
+        valid = false;
+    }
+
+    public void invalidate() {
+        valid = false;
+    }
+
+    public void reset() {
+        initialised = false;
+        valid = false;
+    }
+
+    @Override
+    public void toTop() {
+        base.toTop();
+        valid = false;
+    }
+
+    private void compute(Record rec) {
+        if (valid && rec == record) {
+            return;
+        }
+        switch (type) {
+            case ColumnType.BOOLEAN:
+                boolValue = base.getBool(rec);
+                break;
+            case ColumnType.BYTE:
+                longValue = base.getByte(rec);
+                break;
+            case ColumnType.SHORT:
+                longValue = base.getShort(rec);
+                break;
+            case ColumnType.CHAR:
+                longValue = base.getChar(rec);
+                break;
+            case ColumnType.INT:
+                longValue = base.getInt(rec);
+                break;
+            case ColumnType.LONG:
+                longValue = base.getLong(rec);
+                break;
+            case ColumnType.DATE:
+                longValue = base.getDate(rec);
+                break;
+            case ColumnType.TIMESTAMP:
+                longValue = base.getTimestamp(rec);
+                break;
+            case ColumnType.FLOAT:
+                doubleValue = base.getFloat(rec);
+                break;
+            default:
+                doubleValue = base.getDouble(rec);
+                break;
+        }
+        record = rec;
+        valid = true;
+    }
+}
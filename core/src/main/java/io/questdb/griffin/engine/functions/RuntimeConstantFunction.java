@@ -0,0 +1,315 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.functions;
+
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.TableUtils;
+import io.questdb.cairo.sql.*;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.functions.bind.BindVariableService;
+import io.questdb.std.BinarySequence;
+import io.questdb.std.Long256;
+import io.questdb.std.str.CharSink;
+import io.questdb.std.str.StringSink;
+
+/**
+ * Evaluates wrapped function once per cursor, when cursor initialises its functions, and
+ * serves cached value to every row thereafter. Wrapped function must be a runtime constant, e.g.
+ * arithmetic over bind variables or current time. Until first initialisation calls are passed
+ * through to the wrapped function. Value is evaluated again when bind variables change after
+ * initialisation. Cached value is converted to other types the same way typed
+ * functions, such as {@link LongFunction}, convert it.
+ */
+public class RuntimeConstantFunction implements Function {
+    private final Function base;
+    private final int type;
+    private final boolean floatingPoint;
+    private final StringSink sink = new StringSink();
+    private boolean initialised = false;
+    private BindVariableService bindVariableService;
+    private long bindVariableVersion;
+    private boolean boolValue;
+    private long longValue;
+    private double doubleValue;
+    private boolean nullStr;
+
+    private RuntimeConstantFunction(Function base) {
+        this.base = base;
+        this.type = base.getType();
+        this.floatingPoint = type == ColumnType.FLOAT || type == ColumnType.DOUBLE;
+    }
+
+    public static boolean isSupported(int type) {
+        switch (type) {
+            case ColumnType.BOOLEAN:
+            case ColumnType.BYTE:
+            case ColumnType.SHORT:
+            case ColumnType.CHAR:
+            case ColumnType.INT:
+            case ColumnType.LONG:
+            case ColumnType.DATE:
+            case ColumnType.TIMESTAMP:
+            case ColumnType.FLOAT:
+            case ColumnType.DOUBLE:
+            case ColumnType.STRING:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    public static Function wrap(Function function) {
+        if (function instanceof RuntimeConstantFunction || !isSupported(function.getType())) {
+            return function;
+        }
+        return new RuntimeConstantFunction(function);
+    }
+
+    @Override
+    public void close() {
+        base.close();
+    }
+
+    @Override
+    public BinarySequence getBin(Record rec) {
+        return base.getBin(rec);
+    }
+
+    @Override
+    public long getBinLen(Record rec) {
+        return base.getBinLen(rec);
+    }
+
+    @Override
+    public boolean getBool(Record rec) {
+        return isCached() ? boolValue : base.getBool(rec);
+    }
+
+    @Override
+    public byte getByte(Record rec) {
+        return isCached() ? (byte) longValue : base.getByte(rec);
+    }
+
+    @Override
+    public char getChar(Record rec) {
+        return isCached() ? (char) longValue : base.getChar(rec);
+    }
+
+    @Override
+    public long getDate(Record rec) {
+        if (isCached()) {
+            return type == ColumnType.TIMESTAMP ? longValue / 1000L : longValue;
+        }
+        return base.getDate(rec);
+    }
+
+    @Override
+    public double getDouble(Record rec) {
+        if (isCached()) {
+            return floatingPoint ? doubleValue : longValue;
+        }
+        return base.getDouble(rec);
+    }
+
+    @Override
+    public float getFloat(Record rec) {
+        if (isCached()) {
+            return floatingPoint ? (float) doubleValue : longValue;
+        }
+        return base.getFloat(rec);
+    }
+
+    @Override
+    public int getInt(Record rec) {
+        return isCached() ? (int) longValue : base.getInt(rec);
+    }
+
+    @Override
+    public long getLong(Record rec) {
+        return isCached() ? longValue : base.getLong(rec);
+    }
+
+    @Override
+    public void getLong256(Record rec, CharSink sink) {
+        base.getLong256(rec, sink);
+    }
+
+    @Override
+    public Long256 getLong256A(Record rec) {
+        return base.getLong256A(rec);
+    }
+
+    @Override
+    public Long256 getLong256B(Record rec) {
+        return base.getLong256B(rec);
+    }
+
+    @Override
+    public RecordMetadata getMetadata() {
+        return base.getMetadata();
+    }
+
+    @Override
+    public int getPosition() {
+        return base.getPosition();
+    }
+
+    @Override
+    public RecordCursorFactory getRecordCursorFactory() {
+        return base.getRecordCursorFactory();
+    }
+
+    @Override
+    public short getShort(Record rec) {
+        return isCached() ? (short) longValue : base.getShort(rec);
+    }
+
+    @Override
+    public CharSequence getStr(Record rec) {
+        if (isCached()) {
+            return nullStr ? null : sink;
+        }
+        return base.getStr(rec);
+    }
+
+    @Override
+    public void getStr(Record rec, CharSink sink) {
+        if (isCached()) {
+            if (!nullStr) {
+                sink.put(this.sink);
+            }
+        } else {
+            base.getStr(rec, sink);
+        }
+    }
+
+    @Override
+    public CharSequence getStrB(Record rec) {
+        if (isCached()) {
+            return nullStr ? null : sink;
+        }
+        return base.getStrB(rec);
+    }
+
+    @Override
+    public int getStrLen(Record rec) {
+        if (isCached()) {
+            return nullStr ? TableUtils.NULL_LEN : sink.length();
+        }
+        return base.getStrLen(rec);
+    }
+
+    @Override
+    public CharSequence getSymbol(Record rec) {
+        return base.getSymbol(rec);
+    }
+
+    @Override
+    public long getTimestamp(Record rec) {
+        if (isCached()) {
+            return type == ColumnType.DATE ? longValue * 1000L : longValue;
+        }
+        return base.getTimestamp(rec);
+    }
+
+    @Override
+    public int getType() {
+        return type;
+    }
+
+    @Override
+    public void init(SymbolTableSource symbolTableSource, SqlExecutionContext executionContext) {
+        base.init(symbolTableSource, executionContext);
+        bindVariableService = executionContext != null ? executionContext.getBindVariableService() : null;
+        evaluate();
+    }
+
+    @Override
+    public boolean isRuntimeConstant() {
+        return true;
+    }
+
+    @Override
+    public void toTop() {
+        base.toTop();
+    }
+
+    private void evaluate() {
+        switch (type) {
+            case ColumnType.BOOLEAN:
+                boolValue = base.getBool(null);
+                break;
+            case ColumnType.BYTE:
+                longValue = base.getByte(null);
+                break;
+            case ColumnType.SHORT:
+                longValue = base.getShort(null);
+                break;
+            case ColumnType.CHAR:
+                longValue = base.getChar(null);
+                break;
+            case ColumnType.INT:
+                longValue = base.getInt(null);
+                break;
+            case ColumnType.LONG:
+                longValue = base.getLong(null);
+                break;
+            case ColumnType.DATE:
+                longValue = base.getDate(null);
+                break;
+            case ColumnType.TIMESTAMP:
+                longValue = base.getTimestamp(null);
+                break;
+            case ColumnType.FLOAT:
+                doubleValue = base.getFloat(null);
+                break;
+            case ColumnType.DOUBLE:
+                doubleValue = base.getDouble(null);
+                break;
+            default:
+                assert type == ColumnType.STRING;
+                final CharSequence value = base.getStr(null);
+                sink.clear();
+                nullStr = value == null;
+                if (!nullStr) {
+                    sink.put(value);
+                }
+                break;
+        }
+        if (bindVariableService != null) {
+            bindVariableVersion = bindVariableService.getVersion();
+        }
+        initialised = true;
+    }
+
+    // bind variables can be set again without functions being initialised, e.g. when insert
+    // is executed repeatedly, cached value is then evaluated again
+    private boolean isCached() {
+        if (initialised && bindVariableService != null && bindVariableService.getVersion() != bindVariableVersion) {
+            evaluate();
+        }
+        return initialised;
+    }
+}
@@ -31,8 +31,10 @@ import io.questdb.std.*;
 public class BindVariableService {
     private final CharSequenceObjHashMap<Function> namedVariables = new CharSequenceObjHashMap<>();
     private final ObjList<Function> indexedVariables = new ObjList<>();
+    private long version;
 
     public void clear() {
+        version++;
         namedVariables.clear();
         indexedVariables.clear();
     }
@@ -41,6 +43,24 @@ public class BindVariableService {
         return indexedVariables.size();
     }
 
+    /**
+     * @return names of named variables without ':' prefix, in order they were defined
+     */
+    public ObjList<CharSequence> getNamedVariables() {
+        return namedVariables.keys();
+    }
+
+    /**
+     * @return number that changes whenever any variable is defined, set or cleared
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    public Function getNamedVariable(CharSequence name) {
+        return namedVariables.get(name);
+    }
+
     public Function getFunction(CharSequence name) {
         assert name != null;
         assert Chars.startsWith(name, ':');
@@ -56,6 +76,7 @@ public class BindVariableService {
     }
 
     public void setBin(CharSequence name, BinarySequence value) {
+        version++;
         int index = namedVariables.keyIndex(name);
         if (index > -1) {
             namedVariables.putAt(index, name, new BinBindVariable(value));
@@ -70,6 +91,7 @@ public class BindVariableService {
     }
 
     public void setBin(int index, BinarySequence value) {
+        version++;
         if (index < indexedVariables.size()) {
             Function function = indexedVariables.getQuick(index);
             if (function == null) {
@@ -85,6 +107,7 @@ public class BindVariableService {
     }
 
     public void setBoolean(CharSequence name, boolean value) {
+        version++;
         int index = namedVariables.keyIndex(name);
         if (index > -1) {
             namedVariables.putAt(index, name, new BooleanBindVariable(value));
@@ -99,6 +122,7 @@ public class BindVariableService {
     }
 
     public void setBoolean(int index, boolean value) {
+        version++;
         if (index < indexedVariables.size()) {
             Function function = indexedVariables.getQuick(index);
             if (function == null) {
@@ -114,6 +138,7 @@ public class BindVariableService {
     }
 
     public void setByte(CharSequence name, byte value) {
+        version++;
         int index = namedVariables.keyIndex(name);
         if (index > -1) {
             namedVariables.putAt(index, name, new ByteBindVariable(value));
@@ -128,6 +153,7 @@ public class BindVariableService {
     }
 
     public void setByte(int index, byte value) {
+        version++;
         if (index < indexedVariables.size()) {
             Function function = indexedVariables.getQuick(index);
             if (function == null) {
@@ -143,6 +169,7 @@ public class BindVariableService {
     }
 
     public void setDate(CharSequence name, long value) {
+        version++;
         int index = namedVariables.keyIndex(name);
         if (index > -1) {
             namedVariables.putAt(index, name, new DateBindVariable(value));
@@ -157,6 +184,7 @@ public class BindVariableService {
     }
 
     public void setChar(CharSequence name, char value) {
+        version++;
         int index = namedVariables.keyIndex(name);
         if (index > -1) {
             namedVariables.putAt(index, name, new CharBindVariable(value));
@@ -171,6 +199,7 @@ public class BindVariableService {
     }
 
     public void setDate(int index, long value) {
+        version++;
         if (index < indexedVariables.size()) {
             Function function = indexedVariables.getQuick(index);
             if (function == null) {
@@ -186,6 +215,7 @@ public class BindVariableService {
     }
 
     public void setDouble(CharSequence name, double value) {
+        version++;
         int index = namedVariables.keyIndex(name);
         if (index > -1) {
             namedVariables.putAt(index, name, new DoubleBindVariable(value));
@@ -200,6 +230,7 @@ public class BindVariableService {
     }
 
     public void setDouble(int index, double value) {
+        version++;
         if (index < indexedVariables.size()) {
             Function function = indexedVariables.getQuick(index);
             if (function == null) {
@@ -215,6 +246,7 @@ public class BindVariableService {
     }
 
     public void setFloat(CharSequence name, float value) {
+        version++;
         int index = namedVariables.keyIndex(name);
         if (index > -1) {
             namedVariables.putAt(index, name, new FloatBindVariable(value));
@@ -229,6 +261,7 @@ public class BindVariableService {
     }
 
     public void setFloat(int index, float value) {
+        version++;
         if (index < indexedVariables.size()) {
             Function function = indexedVariables.getQuick(index);
             if (function == null) {
@@ -244,6 +277,7 @@ public class BindVariableService {
     }
 
     public void setInt(CharSequence name, int value) {
+        version++;
         int index = namedVariables.keyIndex(name);
         if (index > -1) {
             namedVariables.putAt(index, name, new IntBindVariable(value));
@@ -258,10 +292,12 @@ public class BindVariableService {
     }
 
     public void setLong256Null(CharSequence name) {
+        version++;
         setLong256(name, -1, -1, -1, -1);
     }
 
     public void setLong256(CharSequence name, long l0, long l1, long l2, long l3) {
+        version++;
         int index = namedVariables.keyIndex(name);
         if (index > -1) {
             namedVariables.putAt(index, name, new Long256BindVariable(l0, l1, l2, l3));
@@ -280,6 +316,7 @@ public class BindVariableService {
     }
 
     public void setLong256(CharSequence name, Long256 value) {
+        version++;
         int index = namedVariables.keyIndex(name);
         if (index > -1) {
             namedVariables.putAt(index, name, new Long256BindVariable(value));
@@ -294,6 +331,7 @@ public class BindVariableService {
     }
 
     public void setInt(int index, int value) {
+        version++;
         if (index < indexedVariables.size()) {
             Function function = indexedVariables.getQuick(index);
             if (function == null) {
@@ -309,6 +347,7 @@ public class BindVariableService {
     }
 
     public void setLong256(int index, long l0, long l1, long l2, long l3) {
+        version++;
         if (index < indexedVariables.size()) {
             Function function = indexedVariables.getQuick(index);
             if (function == null) {
@@ -328,6 +367,7 @@ public class BindVariableService {
     }
 
     public void setChar(int index, char value) {
+        version++;
         if (index < indexedVariables.size()) {
             Function function = indexedVariables.getQuick(index);
             if (function == null) {
@@ -343,6 +383,7 @@ public class BindVariableService {
     }
 
     public void setLong(CharSequence name, long value) {
+        version++;
         int index = namedVariables.keyIndex(name);
         if (index > -1) {
             namedVariables.putAt(index, name, new LongBindVariable(value));
@@ -357,6 +398,7 @@ public class BindVariableService {
     }
 
     public void setLong(int index, long value) {
+        version++;
         if (index < indexedVariables.size()) {
             Function function = indexedVariables.getQuick(index);
             if (function == null) {
@@ -372,6 +414,7 @@ public class BindVariableService {
     }
 
     public void setShort(int index, short value) {
+        version++;
         if (index < indexedVariables.size()) {
             Function function = indexedVariables.getQuick(index);
             if (function == null) {
@@ -387,6 +430,7 @@ public class BindVariableService {
     }
 
     public void setShort(CharSequence name, short value) {
+        version++;
         int index = namedVariables.keyIndex(name);
         if (index > -1) {
             namedVariables.putAt(index, name, new ShortBindVariable(value));
@@ -401,6 +445,7 @@ public class BindVariableService {
     }
 
     public void setStr(int index, CharSequence value) {
+        version++;
         if (index < indexedVariables.size()) {
             Function function = indexedVariables.getQuick(index);
             if (function == null) {
@@ -416,6 +461,7 @@ public class BindVariableService {
     }
 
     public void setStr(CharSequence name, CharSequence value) {
+        version++;
         int index = namedVariables.keyIndex(name);
         if (index > -1) {
             namedVariables.putAt(index, name, new StrBindVariable(value));
@@ -430,6 +476,7 @@ public class BindVariableService {
     }
 
     public void setTimestamp(int index, long value) {
+        version++;
         if (index < indexedVariables.size()) {
             Function function = indexedVariables.getQuick(index);
             if (function == null) {
@@ -445,6 +492,7 @@ public class BindVariableService {
     }
 
     public void setTimestamp(CharSequence name, long value) {
+        version++;
         int index = namedVariables.keyIndex(name);
         if (index > -1) {
             namedVariables.putAt(index, name, new TimestampBindVariable(value));
@@ -179,6 +179,11 @@ public class IndexedParameterLinkFunction implements Function {
         base.init(symbolTableSource, executionContext);
     }
 
+    @Override
+    public boolean isRuntimeConstant() {
+        return true;
+    }
+
     private Function getBase() {
         assert base != null;
         return base;
@@ -0,0 +1,83 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.functions.bool;
+
+import io.questdb.std.Mutable;
+
+import java.util.Arrays;
+
+/**
+ * Set of doubles with the same notion of equality as '=' operator: values match when
+ * they are within 1E-10 of each other and NaN matches NaN. Values are kept in sorted array,
+ * so lookup is a binary search. Call {@link #sort()} after values have been added.
+ */
+class DoubleSet implements Mutable {
+    private static final double EPSILON = 0.0000000001;
+    private double[] values;
+    private int size;
+    private boolean hasNaN;
+
+    DoubleSet(int capacity) {
+        this.values = new double[Math.max(capacity, 16)];
+    }
+
+    void add(double value) {
+        if (value != value) {
+            hasNaN = true;
+            return;
+        }
+
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+        }
+        values[size++] = value;
+    }
+
+    @Override
+    public void clear() {
+        size = 0;
+        hasNaN = false;
+    }
+
+    boolean contains(double value) {
+        if (value != value) {
+            return hasNaN;
+        }
+
+        int index = Arrays.binarySearch(values, 0, size, value);
+        if (index > -1) {
+            return true;
+        }
+
+        // value is between two neighbours, either one of them can be within tolerance
+        index = -index - 1;
+        return (index < size && values[index] - value < EPSILON)
+                || (index > 0 && value - values[index - 1] < EPSILON);
+    }
+
+    void sort() {
+        Arrays.sort(values, 0, size);
+    }
+}
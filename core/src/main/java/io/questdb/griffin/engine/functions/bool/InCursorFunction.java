@@ -0,0 +1,195 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.functions.bool;
+
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.sql.*;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.functions.BinaryFunction;
+import io.questdb.griffin.engine.functions.BooleanFunction;
+import io.questdb.std.LongHashSet;
+import io.questdb.std.Numbers;
+
+/**
+ * Tests numeric value against values of first column of a sub-query. Sub-query values are
+ * collected once per cursor, when cursor initialises its filter. Integer values are kept
+ * in hash set, floating point values are kept in {@link DoubleSet}.
+ */
+class InCursorFunction extends BooleanFunction implements BinaryFunction {
+    private final Function valueArg;
+    private final Function cursorArg;
+    private final int valueType;
+    private final int columnType;
+    private final LongHashSet set;
+    private final DoubleSet doubleSet;
+
+    private InCursorFunction(int position, Function valueArg, Function cursorArg, int columnType) {
+        super(position);
+        this.valueArg = valueArg;
+        this.cursorArg = cursorArg;
+        this.valueType = valueArg.getType();
+        this.columnType = columnType;
+        if (valueType == ColumnType.DOUBLE) {
+            this.set = null;
+            this.doubleSet = new DoubleSet(16);
+        } else {
+            this.set = new LongHashSet(16, 0.4, InLongFunctionFactory.NO_ENTRY_KEY);
+            this.doubleSet = null;
+        }
+    }
+
+    static Function newInstance(int position, Function valueArg, Function cursorArg) throws SqlException {
+        final int columnType = cursorArg.getRecordCursorFactory().getMetadata().getColumnType(0);
+        final boolean supported;
+        switch (valueArg.getType()) {
+            case ColumnType.INT:
+            case ColumnType.LONG:
+                supported = isInteger(columnType);
+                break;
+            case ColumnType.TIMESTAMP:
+                supported = columnType == ColumnType.TIMESTAMP || columnType == ColumnType.LONG;
+                break;
+            default:
+                assert valueArg.getType() == ColumnType.DOUBLE;
+                supported = isInteger(columnType) || columnType == ColumnType.FLOAT || columnType == ColumnType.DOUBLE;
+                break;
+        }
+
+        if (!supported) {
+            throw SqlException.position(cursorArg.getPosition())
+                    .put("cannot compare ").put(ColumnType.nameOf(valueArg.getType()))
+                    .put(" with ").put(ColumnType.nameOf(columnType));
+        }
+        return new InCursorFunction(position, valueArg, cursorArg, columnType);
+    }
+
+    @Override
+    public boolean getBool(Record rec) {
+        switch (valueType) {
+            case ColumnType.INT:
+                // INT NULL is never added to the set
+                return set.contains(InLongFunctionFactory.spread(valueArg.getInt(rec)));
+            case ColumnType.LONG:
+                return set.contains(InLongFunctionFactory.spread(valueArg.getLong(rec)));
+            case ColumnType.TIMESTAMP:
+                return set.contains(InLongFunctionFactory.spread(valueArg.getTimestamp(rec)));
+            default:
+                return doubleSet.contains(valueArg.getDouble(rec));
+        }
+    }
+
+    @Override
+    public Function getLeft() {
+        return valueArg;
+    }
+
+    @Override
+    public Function getRight() {
+        return cursorArg;
+    }
+
+    @Override
+    public void init(SymbolTableSource symbolTableSource, SqlExecutionContext executionContext) {
+        valueArg.init(symbolTableSource, executionContext);
+        cursorArg.init(symbolTableSource, executionContext);
+
+        try (RecordCursor cursor = cursorArg.getRecordCursorFactory().getCursor(executionContext)) {
+            if (doubleSet != null) {
+                collectDoubles(cursor);
+            } else {
+                collectLongs(cursor);
+            }
+        }
+    }
+
+    private void collectDoubles(RecordCursor cursor) {
+        doubleSet.clear();
+        final Record record = cursor.getRecord();
+        while (cursor.hasNext()) {
+            switch (columnType) {
+                case ColumnType.BYTE:
+                    doubleSet.add(record.getByte(0));
+                    break;
+                case ColumnType.SHORT:
+                    doubleSet.add(record.getShort(0));
+                    break;
+                case ColumnType.INT:
+                    doubleSet.add(record.getInt(0));
+                    break;
+                case ColumnType.LONG:
+                    doubleSet.add(record.getLong(0));
+                    break;
+                case ColumnType.FLOAT:
+                    doubleSet.add(record.getFloat(0));
+                    break;
+                default:
+                    doubleSet.add(record.getDouble(0));
+                    break;
+            }
+        }
+        doubleSet.sort();
+    }
+
+    private void collectLongs(RecordCursor cursor) {
+        set.clear();
+        final Record record = cursor.getRecord();
+        while (cursor.hasNext()) {
+            final long value;
+            switch (columnType) {
+                case ColumnType.BYTE:
+                    value = record.getByte(0);
+                    break;
+                case ColumnType.SHORT:
+                    value = record.getShort(0);
+                    break;
+                case ColumnType.INT:
+                    final int intValue = record.getInt(0);
+                    if (intValue == Numbers.INT_NaN) {
+                        continue;
+                    }
+                    value = intValue;
+                    break;
+                case ColumnType.TIMESTAMP:
+                    value = record.getTimestamp(0);
+                    break;
+                default:
+                    value = record.getLong(0);
+                    break;
+            }
+
+            if (value != Numbers.LONG_NaN) {
+                set.add(InLongFunctionFactory.spread(value));
+            }
+        }
+    }
+
+    private static boolean isInteger(int columnType) {
+        return columnType == ColumnType.BYTE
+                || columnType == ColumnType.SHORT
+                || columnType == ColumnType.INT
+                || columnType == ColumnType.LONG;
+    }
+}
@@ -0,0 +1,116 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.functions.bool;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.Record;
+import io.questdb.griffin.FunctionFactory;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.engine.functions.BooleanFunction;
+import io.questdb.griffin.engine.functions.UnaryFunction;
+import io.questdb.griffin.engine.functions.constants.BooleanConstant;
+import io.questdb.std.LongHashSet;
+import io.questdb.std.Numbers;
+import io.questdb.std.ObjList;
+
+public class InLongFunctionFactory implements FunctionFactory {
+    static final long NO_ENTRY_KEY = spread(Numbers.LONG_NaN);
+
+    /**
+     * Hash set uses low bits of the key as slot index. Timestamps and other round values
+     * have zeroes in low bits and would all land in the same slot. This function mixes
+     * high bits into low bits. It is reversible, so distinct values remain distinct keys.
+     *
+     * @param value value to be stored in or looked up in hash set
+     * @return hash set key
+     */
+    static long spread(long value) {
+        final long h = value * 0x9E3779B97F4A7C15L;
+        return h ^ (h >>> 32);
+    }
+
+    @Override
+    public String getSignature() {
+        return "in(Lv)";
+    }
+
+    @Override
+    public Function newInstance(ObjList<Function> args, int position, CairoConfiguration configuration) throws SqlException {
+        int n = args.size();
+
+        if (n == 1) {
+            return new BooleanConstant(position, false);
+        }
+
+        final LongHashSet set = new LongHashSet(n - 1, 0.4, NO_ENTRY_KEY);
+        for (int i = 1; i < n; i++) {
+            Function func = args.getQuick(i);
+            switch (func.getType()) {
+                case ColumnType.BYTE:
+                case ColumnType.SHORT:
+                case ColumnType.INT:
+                    final int value = func.getInt(null);
+                    if (value != Numbers.INT_NaN) {
+                        set.add(spread(value));
+                    }
+                    break;
+                case ColumnType.LONG:
+                    set.add(spread(func.getLong(null)));
+                    break;
+                default:
+                    throw SqlException.$(func.getPosition(), "LONG constant expected");
+            }
+        }
+
+        Function var = args.getQuick(0);
+        if (var.isConstant()) {
+            return new BooleanConstant(position, set.contains(spread(var.getLong(null))));
+        }
+        return new Func(position, var, set);
+    }
+
+    private static class Func extends BooleanFunction implements UnaryFunction {
+        private final Function arg;
+        private final LongHashSet set;
+
+        public Func(int position, Function arg, LongHashSet set) {
+            super(position);
+            this.arg = arg;
+            this.set = set;
+        }
+
+        @Override
+        public Function getArg() {
+            return arg;
+        }
+
+        @Override
+        public boolean getBool(Record rec) {
+            return set.contains(spread(arg.getLong(rec)));
+        }
+    }
+}
@@ -0,0 +1,145 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.functions.bool;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.SymbolTable;
+import io.questdb.cairo.sql.SymbolTableSource;
+import io.questdb.griffin.FunctionFactory;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.functions.BooleanFunction;
+import io.questdb.griffin.engine.functions.UnaryFunction;
+import io.questdb.griffin.engine.functions.columns.SymbolColumn;
+import io.questdb.griffin.engine.functions.constants.BooleanConstant;
+import io.questdb.std.CharSequenceHashSet;
+import io.questdb.std.Chars;
+import io.questdb.std.IntHashSet;
+import io.questdb.std.ObjList;
+
+public class InSymbolFunctionFactory implements FunctionFactory {
+    @Override
+    public String getSignature() {
+        return "in(Kv)";
+    }
+
+    @Override
+    public Function newInstance(ObjList<Function> args, int position, CairoConfiguration configuration) throws SqlException {
+        int n = args.size();
+
+        if (n == 1) {
+            return new BooleanConstant(position, false);
+        }
+
+        final CharSequenceHashSet set = new CharSequenceHashSet();
+        for (int i = 1; i < n; i++) {
+            Function func = args.getQuick(i);
+            switch (func.getType()) {
+                case ColumnType.STRING:
+                    CharSequence value = func.getStr(null);
+                    if (value == null) {
+                        set.addNull();
+                    } else {
+                        set.add(Chars.toString(value));
+                    }
+                    break;
+                case ColumnType.CHAR:
+                    set.add(new String(new char[]{func.getChar(null)}));
+                    break;
+                default:
+                    throw SqlException.$(func.getPosition(), "STRING constant expected");
+            }
+        }
+
+        Function var = args.getQuick(0);
+        if (var instanceof SymbolColumn) {
+            return new ColumnFunc(position, (SymbolColumn) var, set);
+        }
+        return new Func(position, var, set);
+    }
+
+    private static class Func extends BooleanFunction implements UnaryFunction {
+        private final Function arg;
+        private final CharSequenceHashSet set;
+
+        public Func(int position, Function arg, CharSequenceHashSet set) {
+            super(position);
+            this.arg = arg;
+            this.set = set;
+        }
+
+        @Override
+        public Function getArg() {
+            return arg;
+        }
+
+        @Override
+        public boolean getBool(Record rec) {
+            return set.contains(arg.getSymbol(rec));
+        }
+    }
+
+    /**
+     * Symbol column values are compared as int keys. Constants are resolved to keys
+     * once symbol table becomes available, which is when cursor initialises filter.
+     */
+    private static class ColumnFunc extends BooleanFunction implements UnaryFunction {
+        private final SymbolColumn arg;
+        private final CharSequenceHashSet values;
+        private final IntHashSet keys = new IntHashSet();
+
+        public ColumnFunc(int position, SymbolColumn arg, CharSequenceHashSet values) {
+            super(position);
+            this.arg = arg;
+            this.values = values;
+        }
+
+        @Override
+        public Function getArg() {
+            return arg;
+        }
+
+        @Override
+        public boolean getBool(Record rec) {
+            return keys.contains(arg.getInt(rec));
+        }
+
+        @Override
+        public void init(SymbolTableSource symbolTableSource, SqlExecutionContext executionContext) {
+            arg.init(symbolTableSource, executionContext);
+            keys.clear();
+            final SymbolTable symbolTable = symbolTableSource.getSymbolTable(arg.getColumnIndex());
+            for (int i = 0, n = values.size(); i < n; i++) {
+                final int key = symbolTable.getQuick(values.get(i));
+                if (key != SymbolTable.VALUE_NOT_FOUND) {
+                    keys.add(key);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,188 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.functions.bool;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.Record;
+import io.questdb.griffin.FunctionFactory;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.engine.functions.BooleanFunction;
+import io.questdb.griffin.engine.functions.UnaryFunction;
+import io.questdb.griffin.engine.functions.constants.BooleanConstant;
+import io.questdb.griffin.model.IntrinsicModel;
+import io.questdb.std.LongHashSet;
+import io.questdb.std.LongList;
+import io.questdb.std.Numbers;
+import io.questdb.std.ObjList;
+
+/**
+ * Timestamp matches when it is equal to any of the values, regardless of how many there are.
+ * String values compare the same way as '=' does, partial date such as '2015-05-11' matches
+ * the entire day. Note that "timestamp in (lo, hi)" on designated timestamp is interval syntax,
+ * it is handled by WhereClauseParser before this function is created.
+ */
+public class InTimestampFunctionFactory implements FunctionFactory {
+    @Override
+    public String getSignature() {
+        return "in(Nv)";
+    }
+
+    @Override
+    public Function newInstance(ObjList<Function> args, int position, CairoConfiguration configuration) throws SqlException {
+        int n = args.size();
+
+        if (n == 1) {
+            return new BooleanConstant(position, false);
+        }
+
+        final Function var = args.getQuick(0);
+        final LongList temp = new LongList(2);
+        final LongHashSet set = new LongHashSet(n - 1, 0.4, InLongFunctionFactory.NO_ENTRY_KEY);
+        final LongList intervals = new LongList();
+        for (int i = 1; i < n; i++) {
+            temp.clear();
+            parseValue(args.getQuick(i), temp);
+            if (temp.size() > 0) {
+                final long lo = temp.getQuick(0);
+                final long hi = temp.getQuick(1);
+                if (lo == hi) {
+                    set.add(InLongFunctionFactory.spread(lo));
+                } else {
+                    union(intervals, lo, hi);
+                }
+            }
+        }
+
+        if (var.isConstant()) {
+            return new BooleanConstant(position, matches(set, intervals, var.getTimestamp(null)));
+        }
+        return new Func(position, var, set, intervals);
+    }
+
+    private static boolean matches(LongHashSet set, LongList intervals, long value) {
+        if (set.contains(InLongFunctionFactory.spread(value))) {
+            return true;
+        }
+
+        if (intervals.size() == 0) {
+            return false;
+        }
+
+        // intervals are sorted and disjoint, value is inside one of them when
+        // it hits an edge or its insertion point is between lo and hi
+        int index = intervals.binarySearch(value);
+        return index > -1 || (-index - 1) % 2 == 1;
+    }
+
+    // appends inclusive interval covered by the value, null values are skipped
+    private static void parseValue(Function func, LongList out) throws SqlException {
+        switch (func.getType()) {
+            case ColumnType.TIMESTAMP:
+                addInstant(out, func.getTimestamp(null));
+                break;
+            case ColumnType.DATE:
+                final long date = func.getDate(null);
+                if (date != Numbers.LONG_NaN) {
+                    addInstant(out, date * 1000L);
+                }
+                break;
+            case ColumnType.LONG:
+                addInstant(out, func.getLong(null));
+                break;
+            case ColumnType.INT:
+                final int value = func.getInt(null);
+                if (value != Numbers.INT_NaN) {
+                    addInstant(out, value);
+                }
+                break;
+            case ColumnType.STRING:
+                final CharSequence str = func.getStr(null);
+                if (str == null) {
+                    throw SqlException.$(func.getPosition(), "NULL is not allowed");
+                }
+                IntrinsicModel.parseTimestampInterval(str, 0, str.length(), func.getPosition(), out);
+                break;
+            default:
+                throw SqlException.$(func.getPosition(), "TIMESTAMP constant expected");
+        }
+    }
+
+    private static void addInstant(LongList out, long value) {
+        out.add(value);
+        out.add(value);
+    }
+
+    // merges interval into sorted list of disjoint intervals, lists are short and built once
+    private static void union(LongList intervals, long lo, long hi) {
+        final int n = intervals.size();
+        int i = 0;
+        while (i < n && intervals.getQuick(i + 1) < lo) {
+            i += 2;
+        }
+
+        int j = i;
+        while (j < n && intervals.getQuick(j) <= hi) {
+            lo = Math.min(lo, intervals.getQuick(j));
+            hi = Math.max(hi, intervals.getQuick(j + 1));
+            j += 2;
+        }
+
+        if (i == j) {
+            intervals.add(i, hi);
+            intervals.add(i, lo);
+        } else {
+            intervals.setQuick(i, lo);
+            intervals.setQuick(i + 1, hi);
+            for (int k = j - 1; k > i + 1; k--) {
+                intervals.removeIndex(k);
+            }
+        }
+    }
+
+    private static class Func extends BooleanFunction implements UnaryFunction {
+        private final Function arg;
+        private final LongHashSet set;
+        private final LongList intervals;
+
+        public Func(int position, Function arg, LongHashSet set, LongList intervals) {
+            super(position);
+            this.arg = arg;
+            this.set = set;
+            this.intervals = intervals;
+        }
+
+        @Override
+        public Function getArg() {
+            return arg;
+        }
+
+        @Override
+        public boolean getBool(Record rec) {
+            return matches(set, intervals, arg.getTimestamp(rec));
+        }
+    }
+}
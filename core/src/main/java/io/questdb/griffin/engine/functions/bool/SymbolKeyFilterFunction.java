@@ -0,0 +1,132 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.functions.bool;
+
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.SymbolTable;
+import io.questdb.cairo.sql.SymbolTableSource;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.functions.BooleanFunction;
+import io.questdb.griffin.engine.functions.UnaryFunction;
+import io.questdb.std.IntList;
+import io.questdb.std.LongList;
+
+/**
+ * Evaluates predicate, which depends on value of single symbol column only, once for every
+ * symbol key of that column. Results are kept in a bit set, so that rows are checked by testing
+ * bit of their symbol key instead of evaluating predicate on symbol value.
+ */
+public class SymbolKeyFilterFunction extends BooleanFunction implements UnaryFunction {
+    private final Function predicate;
+    private final int columnIndex;
+    private final LongList bits = new LongList();
+    private final IntList matchingKeys = new IntList();
+    private final KeyRecord keyRecord = new KeyRecord();
+    private SymbolTable symbolTable;
+    private int keyCount;
+    private boolean nullMatches;
+
+    public SymbolKeyFilterFunction(int position, Function predicate, int columnIndex) {
+        super(position);
+        this.predicate = predicate;
+        this.columnIndex = columnIndex;
+    }
+
+    @Override
+    public Function getArg() {
+        return predicate;
+    }
+
+    @Override
+    public boolean getBool(Record rec) {
+        final int key = rec.getInt(columnIndex);
+        if (key == SymbolTable.VALUE_IS_NULL) {
+            return nullMatches;
+        }
+
+        if (key > -1 && key < keyCount) {
+            return (bits.getQuick(key >>> 6) & (1L << key)) != 0;
+        }
+
+        // symbol added after cursor was initialised
+        return predicate.getBool(rec);
+    }
+
+    @Override
+    public void init(SymbolTableSource symbolTableSource, SqlExecutionContext executionContext) {
+        predicate.init(symbolTableSource, executionContext);
+        symbolTable = symbolTableSource.getSymbolTable(columnIndex);
+        keyCount = symbolTable.size();
+        bits.clear();
+        bits.seed((keyCount + 63) >>> 6, 0);
+        matchingKeys.clear();
+        for (int key = 0; key < keyCount; key++) {
+            keyRecord.key = key;
+            if (predicate.getBool(keyRecord)) {
+                bits.setQuick(key >>> 6, bits.getQuick(key >>> 6) | (1L << key));
+                matchingKeys.add(key);
+            }
+        }
+        keyRecord.key = SymbolTable.VALUE_IS_NULL;
+        nullMatches = predicate.getBool(keyRecord);
+    }
+
+    public int getColumnIndex() {
+        return columnIndex;
+    }
+
+    /**
+     * @return symbol keys that satisfy predicate in ascending order, valid after init()
+     */
+    public IntList getMatchingKeys() {
+        return matchingKeys;
+    }
+
+    /**
+     * @return number of distinct symbols predicate was evaluated for, valid after init()
+     */
+    public int getKeyCount() {
+        return keyCount;
+    }
+
+    public boolean isNullMatching() {
+        return nullMatches;
+    }
+
+    private class KeyRecord implements Record {
+        private int key;
+
+        @Override
+        public int getInt(int col) {
+            return key;
+        }
+
+        @Override
+        public CharSequence getSym(int col) {
+            return key == SymbolTable.VALUE_IS_NULL ? null : symbolTable.value(key);
+        }
+    }
+}
@@ -0,0 +1,144 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.functions.catalogue;
+
+import io.questdb.cairo.*;
+import io.questdb.cairo.sql.*;
+import io.questdb.griffin.FunctionFactory;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.functions.CursorFunction;
+import io.questdb.std.LongList;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.ObjList;
+import io.questdb.std.Unsafe;
+
+/**
+ * Lists native memory held by this process for each memory tag. Counters are copied when
+ * cursor is created.
+ */
+public class MemoryMetricsFunctionFactory implements FunctionFactory {
+
+    private static final RecordMetadata METADATA;
+
+    static {
+        final GenericRecordMetadata metadata = new GenericRecordMetadata();
+        metadata.add(new TableColumnMetadata("tag", ColumnType.STRING));
+        metadata.add(new TableColumnMetadata("mem_used", ColumnType.LONG));
+        METADATA = metadata;
+    }
+
+    @Override
+    public String getSignature() {
+        return "memory_metrics()";
+    }
+
+    @Override
+    public Function newInstance(ObjList<Function> args, int position, CairoConfiguration configuration) {
+        return new CursorFunction(
+                position,
+                new MemoryMetricsCursorFactory(METADATA)
+        );
+    }
+
+    private static class MemoryMetricsCursorFactory extends AbstractRecordCursorFactory {
+        private final MemoryMetricsCursor cursor = new MemoryMetricsCursor();
+
+        public MemoryMetricsCursorFactory(RecordMetadata metadata) {
+            super(metadata);
+        }
+
+        @Override
+        public RecordCursor getCursor(SqlExecutionContext executionContext) {
+            cursor.of();
+            return cursor;
+        }
+
+        @Override
+        public boolean isRandomAccessCursor() {
+            return false;
+        }
+    }
+
+    private static class MemoryMetricsCursor implements NoRandomAccessRecordCursor {
+        private final LongList memUsed = new LongList(MemoryTag.SIZE);
+        private final MemoryMetricsRecord record = new MemoryMetricsRecord();
+        private int tag;
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public Record getRecord() {
+            return record;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return ++tag < MemoryTag.SIZE;
+        }
+
+        @Override
+        public long size() {
+            return MemoryTag.SIZE;
+        }
+
+        @Override
+        public void toTop() {
+            tag = -1;
+        }
+
+        private void of() {
+            memUsed.clear();
+            for (int i = 0; i < MemoryTag.SIZE; i++) {
+                memUsed.add(Unsafe.getMemUsedByTag(i));
+            }
+            toTop();
+        }
+
+        private class MemoryMetricsRecord implements Record {
+
+            @Override
+            public long getLong(int col) {
+                return memUsed.getQuick(tag);
+            }
+
+            @Override
+            public CharSequence getStr(int col) {
+                return MemoryTag.nameOf(tag);
+            }
+
+            @Override
+            public CharSequence getStrB(int col) {
+                return getStr(col);
+            }
+
+            @Override
+            public int getStrLen(int col) {
+                return getStr(col).length();
+            }
+        }
+    }
+}
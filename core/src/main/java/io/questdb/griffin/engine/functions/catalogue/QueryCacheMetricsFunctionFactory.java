@@ -0,0 +1,139 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.functions.catalogue;
+
+import io.questdb.cairo.*;
+import io.questdb.cairo.sql.*;
+import io.questdb.griffin.FunctionFactory;
+import io.questdb.griffin.QueryCache;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.functions.CursorFunction;
+import io.questdb.std.ObjList;
+
+/**
+ * Reports hits and misses of the compiled query cache shared by connections. Counters are
+ * copied when cursor is created, there are no rows when queries are not cached.
+ */
+public class QueryCacheMetricsFunctionFactory implements FunctionFactory {
+
+    private static final RecordMetadata METADATA;
+
+    static {
+        final GenericRecordMetadata metadata = new GenericRecordMetadata();
+        metadata.add(new TableColumnMetadata("hits", ColumnType.LONG));
+        metadata.add(new TableColumnMetadata("misses", ColumnType.LONG));
+        metadata.add(new TableColumnMetadata("hit_rate", ColumnType.DOUBLE));
+        METADATA = metadata;
+    }
+
+    @Override
+    public String getSignature() {
+        return "query_cache_metrics()";
+    }
+
+    @Override
+    public Function newInstance(ObjList<Function> args, int position, CairoConfiguration configuration) {
+        return new CursorFunction(
+                position,
+                new QueryCacheMetricsCursorFactory(METADATA)
+        );
+    }
+
+    private static class QueryCacheMetricsCursorFactory extends AbstractRecordCursorFactory {
+        private final QueryCacheMetricsCursor cursor = new QueryCacheMetricsCursor();
+
+        public QueryCacheMetricsCursorFactory(RecordMetadata metadata) {
+            super(metadata);
+        }
+
+        @Override
+        public RecordCursor getCursor(SqlExecutionContext executionContext) {
+            cursor.of(executionContext.getQueryCache());
+            return cursor;
+        }
+
+        @Override
+        public boolean isRandomAccessCursor() {
+            return false;
+        }
+    }
+
+    private static class QueryCacheMetricsCursor implements NoRandomAccessRecordCursor {
+        private final QueryCacheMetricsRecord record = new QueryCacheMetricsRecord();
+        private long hits;
+        private long misses;
+        private int size;
+        private int index;
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public Record getRecord() {
+            return record;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return ++index < size;
+        }
+
+        @Override
+        public long size() {
+            return size;
+        }
+
+        @Override
+        public void toTop() {
+            index = -1;
+        }
+
+        private void of(QueryCache queryCache) {
+            if (queryCache != null) {
+                hits = queryCache.getHitCount();
+                misses = queryCache.getMissCount();
+                size = 1;
+            } else {
+                size = 0;
+            }
+            toTop();
+        }
+
+        private class QueryCacheMetricsRecord implements Record {
+
+            @Override
+            public double getDouble(int col) {
+                final long total = hits + misses;
+                return total > 0 ? (double) hits / total : Double.NaN;
+            }
+
+            @Override
+            public long getLong(int col) {
+                return col == 0 ? hits : misses;
+            }
+        }
+    }
+}
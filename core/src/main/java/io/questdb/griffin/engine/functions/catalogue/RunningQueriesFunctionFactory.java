@@ -0,0 +1,162 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.functions.catalogue;
+
+import io.questdb.cairo.*;
+import io.questdb.cairo.sql.*;
+import io.questdb.griffin.FunctionFactory;
+import io.questdb.griffin.QueryRegistry;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.functions.CursorFunction;
+import io.questdb.std.LongList;
+import io.questdb.std.ObjList;
+import io.questdb.std.str.StringSink;
+
+/**
+ * Lists queries that are running on this engine, id of query can be used to cancel it.
+ * Queries are copied out of registry when cursor is created, cursor is not affected by
+ * queries starting or finishing while it is being read.
+ */
+public class RunningQueriesFunctionFactory implements FunctionFactory {
+
+    private static final RecordMetadata METADATA;
+
+    static {
+        final GenericRecordMetadata metadata = new GenericRecordMetadata();
+        metadata.add(new TableColumnMetadata("query_id", ColumnType.LONG));
+        metadata.add(new TableColumnMetadata("started", ColumnType.TIMESTAMP));
+        metadata.add(new TableColumnMetadata("query", ColumnType.STRING));
+        metadata.add(new TableColumnMetadata("mem_used", ColumnType.LONG));
+        METADATA = metadata;
+    }
+
+    @Override
+    public String getSignature() {
+        return "running_queries()";
+    }
+
+    @Override
+    public Function newInstance(ObjList<Function> args, int position, CairoConfiguration configuration) {
+        return new CursorFunction(
+                position,
+                new RunningQueriesCursorFactory(METADATA)
+        );
+    }
+
+    private static class RunningQueriesCursorFactory extends AbstractRecordCursorFactory {
+        private final RunningQueriesCursor cursor = new RunningQueriesCursor();
+
+        public RunningQueriesCursorFactory(RecordMetadata metadata) {
+            super(metadata);
+        }
+
+        @Override
+        public RecordCursor getCursor(SqlExecutionContext executionContext) {
+            cursor.of(executionContext.getQueryRegistry());
+            return cursor;
+        }
+
+        @Override
+        public boolean isRandomAccessCursor() {
+            return false;
+        }
+    }
+
+    private static class RunningQueriesCursor implements NoRandomAccessRecordCursor {
+        private final LongList ids = new LongList();
+        private final LongList startTimes = new LongList();
+        private final ObjList<CharSequence> texts = new ObjList<>();
+        private final LongList memUsed = new LongList();
+        private final RunningQueriesRecord record = new RunningQueriesRecord();
+        private int index;
+
+        @Override
+        public void close() {
+            ids.clear();
+            startTimes.clear();
+            texts.clear();
+            memUsed.clear();
+        }
+
+        @Override
+        public Record getRecord() {
+            return record;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return ++index < ids.size();
+        }
+
+        @Override
+        public long size() {
+            return ids.size();
+        }
+
+        @Override
+        public void toTop() {
+            index = -1;
+        }
+
+        private void of(QueryRegistry registry) {
+            close();
+            if (registry != null) {
+                registry.snapshot(ids, startTimes, texts, memUsed);
+            }
+            toTop();
+        }
+
+        private class RunningQueriesRecord implements Record {
+            private final StringSink sinkB = new StringSink();
+
+            @Override
+            public long getLong(int col) {
+                return col == 0 ? ids.getQuick(index) : memUsed.getQuick(index);
+            }
+
+            @Override
+            public CharSequence getStr(int col) {
+                return texts.getQuick(index);
+            }
+
+            @Override
+            public CharSequence getStrB(int col) {
+                sinkB.clear();
+                sinkB.put(texts.getQuick(index));
+                return sinkB;
+            }
+
+            @Override
+            public int getStrLen(int col) {
+                return getStr(col).length();
+            }
+
+            @Override
+            public long getTimestamp(int col) {
+                return startTimes.getQuick(index);
+            }
+        }
+    }
+}
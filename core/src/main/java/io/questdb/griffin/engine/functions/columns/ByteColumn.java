@@ -40,4 +40,9 @@ public class ByteColumn extends ByteFunction implements StatelessFunction {
     public byte getByte(Record rec) {
         return rec.getByte(columnIndex);
     }
+
+    @Override
+    public boolean isThreadSafe() {
+        return true;
+    }
 }
@@ -40,4 +40,9 @@ public class CharColumn extends CharFunction implements StatelessFunction {
     public char getChar(Record rec) {
         return rec.getChar(columnIndex);
     }
+
+    @Override
+    public boolean isThreadSafe() {
+        return true;
+    }
 }
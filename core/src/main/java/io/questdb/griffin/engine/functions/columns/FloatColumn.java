@@ -40,4 +40,9 @@ public class FloatColumn extends FloatFunction implements StatelessFunction {
     public float getFloat(Record rec) {
         return rec.getFloat(columnIndex);
     }
+
+    @Override
+    public boolean isThreadSafe() {
+        return true;
+    }
 }
@@ -40,4 +40,9 @@ public class LongColumn extends LongFunction implements StatelessFunction {
     public long getLong(Record rec) {
         return rec.getLong(columnIndex);
     }
+
+    @Override
+    public boolean isThreadSafe() {
+        return true;
+    }
 }
@@ -40,4 +40,9 @@ public class ShortColumn extends ShortFunction implements StatelessFunction {
     public short getShort(Record rec) {
         return rec.getShort(columnIndex);
     }
+
+    @Override
+    public boolean isThreadSafe() {
+        return true;
+    }
 }
@@ -40,4 +40,9 @@ public class TimestampColumn extends TimestampFunction implements StatelessFunct
     public long getTimestamp(Record rec) {
         return rec.getTimestamp(columnIndex);
     }
+
+    @Override
+    public boolean isThreadSafe() {
+        return true;
+    }
 }
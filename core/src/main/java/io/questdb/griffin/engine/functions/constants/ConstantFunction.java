@@ -31,4 +31,9 @@ public interface ConstantFunction extends StatelessFunction {
     default boolean isConstant() {
         return true;
     }
+
+    @Override
+    default boolean isThreadSafe() {
+        return true;
+    }
 }
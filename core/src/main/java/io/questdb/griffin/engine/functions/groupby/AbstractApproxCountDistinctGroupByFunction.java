@@ -0,0 +1,81 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.functions.groupby;
+
+import io.questdb.cairo.ArrayColumnTypes;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.Record;
+import io.questdb.griffin.engine.functions.GroupByFunction;
+import io.questdb.griffin.engine.functions.LongFunction;
+import org.jetbrains.annotations.NotNull;
+
+public abstract class AbstractApproxCountDistinctGroupByFunction extends LongFunction implements GroupByFunction {
+    protected final Function arg;
+    private final int precision;
+    private int valueIndex;
+
+    public AbstractApproxCountDistinctGroupByFunction(int position, @NotNull Function arg, int precision) {
+        super(position);
+        this.arg = arg;
+        this.precision = precision;
+    }
+
+    @Override
+    public void computeFirst(MapValue mapValue, Record record) {
+        HyperLogLog.clear(mapValue, valueIndex, precision);
+        computeNext(mapValue, record);
+    }
+
+    @Override
+    public boolean isMergeable() {
+        return true;
+    }
+
+    @Override
+    public void merge(MapValue destValue, Record srcValue) {
+        HyperLogLog.merge(destValue, valueIndex, srcValue, valueIndex, precision);
+    }
+
+    @Override
+    public void pushValueTypes(ArrayColumnTypes columnTypes) {
+        this.valueIndex = columnTypes.getColumnCount();
+        HyperLogLog.pushValueTypes(columnTypes, precision);
+    }
+
+    @Override
+    public void setNull(MapValue mapValue) {
+        HyperLogLog.setNull(mapValue, valueIndex);
+    }
+
+    @Override
+    public long getLong(Record rec) {
+        return HyperLogLog.estimate(rec, valueIndex, precision);
+    }
+
+    protected void add(MapValue mapValue, long hash) {
+        HyperLogLog.add(mapValue, valueIndex, precision, hash);
+    }
+}
@@ -0,0 +1,87 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.functions.groupby;
+
+import io.questdb.cairo.ArrayColumnTypes;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.Record;
+import io.questdb.griffin.engine.functions.DoubleFunction;
+import io.questdb.griffin.engine.functions.GroupByFunction;
+import org.jetbrains.annotations.NotNull;
+
+public class ApproxPercentileDoubleGroupByFunction extends DoubleFunction implements GroupByFunction {
+    private final Function value;
+    private final double percentile;
+    private int valueIndex;
+
+    public ApproxPercentileDoubleGroupByFunction(int position, @NotNull Function value, double percentile) {
+        super(position);
+        this.value = value;
+        this.percentile = percentile;
+    }
+
+    @Override
+    public void computeFirst(MapValue mapValue, Record record) {
+        DDSketch.clear(mapValue, valueIndex);
+        DDSketch.add(mapValue, valueIndex, value.getDouble(record));
+    }
+
+    @Override
+    public void computeNext(MapValue mapValue, Record record) {
+        DDSketch.add(mapValue, valueIndex, value.getDouble(record));
+    }
+
+    @Override
+    public boolean isMergeable() {
+        return true;
+    }
+
+    @Override
+    public boolean isThreadSafe() {
+        return value.isThreadSafe();
+    }
+
+    @Override
+    public void merge(MapValue destValue, Record srcValue) {
+        DDSketch.merge(destValue, valueIndex, srcValue, valueIndex);
+    }
+
+    @Override
+    public void pushValueTypes(ArrayColumnTypes columnTypes) {
+        this.valueIndex = columnTypes.getColumnCount();
+        DDSketch.pushValueTypes(columnTypes);
+    }
+
+    @Override
+    public void setNull(MapValue mapValue) {
+        DDSketch.setNull(mapValue, valueIndex);
+    }
+
+    @Override
+    public double getDouble(Record rec) {
+        return DDSketch.quantile(rec, valueIndex, percentile);
+    }
+}
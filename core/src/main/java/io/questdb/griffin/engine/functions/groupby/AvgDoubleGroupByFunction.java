@@ -54,6 +54,11 @@ public class AvgDoubleGroupByFunction extends DoubleFunction implements GroupByF
         mapValue.addLong(valueIndex + 1, 1L);
     }
 
+    @Override
+    public boolean isThreadSafe() {
+        return value.isThreadSafe();
+    }
+
     @Override
     public void pushValueTypes(ArrayColumnTypes columnTypes) {
         this.valueIndex = columnTypes.getColumnCount();
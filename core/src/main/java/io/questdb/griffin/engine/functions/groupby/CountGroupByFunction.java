@@ -49,6 +49,21 @@ public class CountGroupByFunction extends LongFunction implements GroupByFunctio
         mapValue.putLong(valueIndex, mapValue.getLong(valueIndex) + 1);
     }
 
+    @Override
+    public boolean isMergeable() {
+        return true;
+    }
+
+    @Override
+    public boolean isThreadSafe() {
+        return true;
+    }
+
+    @Override
+    public void merge(MapValue destValue, Record srcValue) {
+        destValue.addLong(valueIndex, srcValue.getLong(valueIndex));
+    }
+
     @Override
     public void pushValueTypes(ArrayColumnTypes columnTypes) {
         this.valueIndex = columnTypes.getColumnCount();
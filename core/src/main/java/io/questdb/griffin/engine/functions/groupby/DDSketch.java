@@ -0,0 +1,290 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.functions.groupby;
+
+import io.questdb.cairo.ArrayColumnTypes;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.cairo.sql.Record;
+
+/**
+ * DDSketch quantile sketch stored in a run of map value columns. Values are counted in logarithmic
+ * buckets of their magnitude, positive and negative values in two mirrored bucket stores. Each bucket
+ * spans values within {@link #RELATIVE_ACCURACY} of its representative value, which bounds relative
+ * error of every quantile. Each store keeps fixed number of buckets. When values span more buckets
+ * than that, buckets of lowest magnitude are collapsed into one, sacrificing accuracy of quantiles close
+ * to zero in favour of large ones, which matter most for latencies. With 512 buckets and 2% accuracy
+ * values can span nine orders of magnitude before collapse starts.
+ * <p>
+ * Zeros are counted exactly. Exact minimum and maximum clamp every estimate.
+ * <p>
+ * Only buckets between the lowest and the highest non-empty bucket of a store hold counts. Buckets
+ * above the highest one are zeroed when they come into use, so that clearing sketch does not have
+ * to touch all 1024 bucket columns.
+ * <p>
+ * Sketches merge by adding bucket counts, which makes partial results computed over disjoint
+ * row sets combinable.
+ */
+public final class DDSketch {
+    public static final double RELATIVE_ACCURACY = 0.02;
+    private static final int BUCKET_COUNT = 512;
+    private static final double GAMMA = (1 + RELATIVE_ACCURACY) / (1 - RELATIVE_ACCURACY);
+    private static final double LN_GAMMA = Math.log(GAMMA);
+    private static final long EMPTY = Long.MIN_VALUE;
+    private static final int MIN = 0;
+    private static final int MAX = 1;
+    private static final int COUNT = 2;
+    private static final int ZERO_COUNT = 3;
+    // bucket store layout, relative to the first column of the store
+    // bucket index of the first bucket column
+    private static final int OFFSET = 0;
+    // highest non-empty bucket index, bucket columns above it are undefined
+    private static final int HI = 1;
+    private static final int BUCKETS = 2;
+    private static final int STORE_SIZE = BUCKETS + BUCKET_COUNT;
+    // stores of positive values and of magnitudes of negative values
+    private static final int POSITIVE = 4;
+    private static final int NEGATIVE = POSITIVE + STORE_SIZE;
+    private static final int COLUMN_COUNT = NEGATIVE + STORE_SIZE;
+
+    private DDSketch() {
+    }
+
+    public static void add(MapValue value, int index, double v) {
+        if (v != v) {
+            return;
+        }
+
+        final long count = value.getLong(index + COUNT);
+        if (count == 0) {
+            value.putDouble(index + MIN, v);
+            value.putDouble(index + MAX, v);
+        } else {
+            value.putDouble(index + MIN, Math.min(value.getDouble(index + MIN), v));
+            value.putDouble(index + MAX, Math.max(value.getDouble(index + MAX), v));
+        }
+        value.putLong(index + COUNT, count + 1);
+
+        if (v > 0) {
+            addToBucket(value, index + POSITIVE, bucketOf(v), 1);
+        } else if (v < 0) {
+            addToBucket(value, index + NEGATIVE, bucketOf(-v), 1);
+        } else {
+            value.addLong(index + ZERO_COUNT, 1);
+        }
+    }
+
+    public static void clear(MapValue value, int index) {
+        value.putLong(index + COUNT, 0);
+        value.putLong(index + ZERO_COUNT, 0);
+        clearStore(value, index + POSITIVE);
+        clearStore(value, index + NEGATIVE);
+    }
+
+    /**
+     * Merges source sketch into destination sketch. Result is sketch of union of value sets
+     * both sketches were built from.
+     *
+     * @param dst      map value that holds destination sketch
+     * @param dstIndex index of first destination sketch column
+     * @param src      record that holds source sketch
+     * @param srcIndex index of first source sketch column
+     */
+    public static void merge(MapValue dst, int dstIndex, Record src, int srcIndex) {
+        final long srcCount = src.getLong(srcIndex + COUNT);
+        if (srcCount == 0) {
+            return;
+        }
+
+        final long dstCount = dst.getLong(dstIndex + COUNT);
+        final double srcMin = src.getDouble(srcIndex + MIN);
+        final double srcMax = src.getDouble(srcIndex + MAX);
+        if (dstCount == 0) {
+            dst.putDouble(dstIndex + MIN, srcMin);
+            dst.putDouble(dstIndex + MAX, srcMax);
+        } else {
+            dst.putDouble(dstIndex + MIN, Math.min(dst.getDouble(dstIndex + MIN), srcMin));
+            dst.putDouble(dstIndex + MAX, Math.max(dst.getDouble(dstIndex + MAX), srcMax));
+        }
+        dst.putLong(dstIndex + COUNT, dstCount + srcCount);
+        dst.addLong(dstIndex + ZERO_COUNT, src.getLong(srcIndex + ZERO_COUNT));
+        mergeStore(dst, dstIndex + POSITIVE, src, srcIndex + POSITIVE);
+        mergeStore(dst, dstIndex + NEGATIVE, src, srcIndex + NEGATIVE);
+    }
+
+    public static void pushValueTypes(ArrayColumnTypes columnTypes) {
+        columnTypes.add(ColumnType.DOUBLE);
+        columnTypes.add(ColumnType.DOUBLE);
+        for (int i = COUNT; i < COLUMN_COUNT; i++) {
+            columnTypes.add(ColumnType.LONG);
+        }
+    }
+
+    /**
+     * Estimates value at given quantile.
+     *
+     * @param record record that holds sketch
+     * @param index  index of first sketch column
+     * @param q      quantile, between 0 and 1
+     * @return estimated value or NaN when sketch is empty
+     */
+    public static double quantile(Record record, int index, double q) {
+        final long count = record.getLong(index + COUNT);
+        if (count == 0) {
+            return Double.NaN;
+        }
+
+        final double min = record.getDouble(index + MIN);
+        final double max = record.getDouble(index + MAX);
+        final double rank = q * (count - 1);
+        if (rank >= count - 1) {
+            return max;
+        }
+        if (rank < 1) {
+            return min;
+        }
+
+        long cumulative = 0;
+        // negative values, largest magnitude first
+        long hi = record.getLong(index + NEGATIVE + HI);
+        if (hi != EMPTY) {
+            final long offset = record.getLong(index + NEGATIVE + OFFSET);
+            for (int i = (int) (hi - offset); i > -1; i--) {
+                cumulative += record.getLong(index + NEGATIVE + BUCKETS + i);
+                if (cumulative > rank) {
+                    return Math.max(min, Math.min(max, -valueOf(offset + i)));
+                }
+            }
+        }
+
+        cumulative += record.getLong(index + ZERO_COUNT);
+        if (cumulative > rank) {
+            return 0;
+        }
+
+        hi = record.getLong(index + POSITIVE + HI);
+        if (hi != EMPTY) {
+            final long offset = record.getLong(index + POSITIVE + OFFSET);
+            for (int i = 0, n = (int) (hi - offset); i <= n; i++) {
+                cumulative += record.getLong(index + POSITIVE + BUCKETS + i);
+                if (cumulative > rank) {
+                    return Math.max(min, Math.min(max, valueOf(offset + i)));
+                }
+            }
+        }
+        return max;
+    }
+
+    public static void setNull(MapValue value, int index) {
+        value.putLong(index + COUNT, 0);
+    }
+
+    private static void addToBucket(MapValue value, int store, long bucket, long n) {
+        final long hi = value.getLong(store + HI);
+        if (hi == EMPTY) {
+            value.putLong(store + OFFSET, bucket);
+            value.putLong(store + HI, bucket);
+            value.putLong(store + BUCKETS, n);
+            return;
+        }
+
+        long offset = value.getLong(store + OFFSET);
+        if (bucket < offset) {
+            // make room below, as far as highest bucket allows, the rest collapses into the lowest bucket
+            final long lo = Math.max(bucket, hi - BUCKET_COUNT + 1);
+            if (lo < offset) {
+                shiftUp(value, store, (int) (hi - offset), (int) (offset - lo));
+                offset = lo;
+                value.putLong(store + OFFSET, offset);
+            }
+            bucket = Math.max(bucket, offset);
+        } else if (bucket > hi) {
+            if (bucket >= offset + BUCKET_COUNT) {
+                final long lo = bucket - BUCKET_COUNT + 1;
+                collapse(value, store, (int) (hi - offset), lo - offset);
+                offset = lo;
+                value.putLong(store + OFFSET, offset);
+            }
+            // buckets above the highest one are undefined until now
+            for (long i = Math.max(hi, offset) + 1; i < bucket; i++) {
+                value.putLong(store + BUCKETS + (int) (i - offset), 0);
+            }
+            value.putLong(store + BUCKETS + (int) (bucket - offset), n);
+            value.putLong(store + HI, bucket);
+            return;
+        }
+        value.addLong(store + BUCKETS + (int) (bucket - offset), n);
+    }
+
+    private static long bucketOf(double magnitude) {
+        return (long) Math.ceil(Math.log(magnitude) / LN_GAMMA);
+    }
+
+    private static void clearStore(MapValue value, int store) {
+        // bucket columns are zeroed as they come into use
+        value.putLong(store + HI, EMPTY);
+    }
+
+    private static void collapse(MapValue value, int store, int top, long distance) {
+        // buckets [0, distance] become new bucket 0, buckets up to top move down by distance
+        final int d = (int) Math.min(distance, top);
+        long sum = 0;
+        for (int i = 0; i <= d; i++) {
+            sum += value.getLong(store + BUCKETS + i);
+        }
+        value.putLong(store + BUCKETS, sum);
+        for (long i = 1, n = top - distance; i <= n; i++) {
+            value.putLong(store + BUCKETS + (int) i, value.getLong(store + BUCKETS + (int) (i + distance)));
+        }
+    }
+
+    private static void mergeStore(MapValue dst, int dstStore, Record src, int srcStore) {
+        final long srcHi = src.getLong(srcStore + HI);
+        if (srcHi != EMPTY) {
+            final long srcOffset = src.getLong(srcStore + OFFSET);
+            // highest buckets first, they decide which buckets of destination have to collapse
+            for (int i = (int) (srcHi - srcOffset); i > -1; i--) {
+                final long n = src.getLong(srcStore + BUCKETS + i);
+                if (n > 0) {
+                    addToBucket(dst, dstStore, srcOffset + i, n);
+                }
+            }
+        }
+    }
+
+    private static void shiftUp(MapValue value, int store, int top, int distance) {
+        // buckets up to top move up by distance, highest bucket stays within the store
+        for (int i = top; i > -1; i--) {
+            value.putLong(store + BUCKETS + i + distance, value.getLong(store + BUCKETS + i));
+        }
+        for (int i = 0; i < distance; i++) {
+            value.putLong(store + BUCKETS + i, 0);
+        }
+    }
+
+    private static double valueOf(long bucket) {
+        return 2 * Math.pow(GAMMA, bucket) / (1 + GAMMA);
+    }
+}
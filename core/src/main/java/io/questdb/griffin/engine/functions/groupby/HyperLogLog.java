@@ -0,0 +1,215 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.functions.groupby;
+
+import io.questdb.cairo.ArrayColumnTypes;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.Record;
+import io.questdb.griffin.SqlException;
+import io.questdb.std.Numbers;
+
+/**
+ * HyperLogLog sketch stored in a run of LONG map value columns. Sketch of precision p has 2^p
+ * one-byte registers packed eight to a column, so every map value carries sketch of fixed size
+ * and map memory is the only memory sketches use. Registers of two sketches merge by taking
+ * maximum of each register, which makes partial results computed over disjoint row sets
+ * combinable.
+ */
+public final class HyperLogLog {
+    public static final int DEFAULT_PRECISION = 11;
+    public static final int MIN_PRECISION = 4;
+    public static final int MAX_PRECISION = 14;
+    // all registers of the first column at 255, real rank cannot exceed 61
+    private static final long NULL = -1L;
+
+    private HyperLogLog() {
+    }
+
+    /**
+     * Adds hash of value to sketch. Hash must have all 64 bits well mixed.
+     *
+     * @param value     map value that holds sketch
+     * @param index     index of first sketch column
+     * @param precision sketch precision
+     * @param hash      64-bit hash of value
+     */
+    public static void add(MapValue value, int index, int precision, long hash) {
+        final int register = register(hash, precision);
+        final int rank = rank(hash, precision);
+        final int column = index + (register >>> 3);
+        final int shift = (register & 7) << 3;
+        final long word = value.getLong(column);
+        if (((word >>> shift) & 0xff) < rank) {
+            value.putLong(column, (word & ~(0xffL << shift)) | ((long) rank << shift));
+        }
+    }
+
+    /**
+     * Adds hash of value to sketch held in byte array, one register per byte. Array length
+     * must be 2^precision.
+     *
+     * @param registers sketch registers
+     * @param precision sketch precision
+     * @param hash      64-bit hash of value
+     */
+    public static void add(byte[] registers, int precision, long hash) {
+        final int register = register(hash, precision);
+        final int rank = rank(hash, precision);
+        if (registers[register] < rank) {
+            registers[register] = (byte) rank;
+        }
+    }
+
+    public static void clear(MapValue value, int index, int precision) {
+        for (int i = index, n = index + getColumnCount(precision); i < n; i++) {
+            value.putLong(i, 0);
+        }
+    }
+
+    /**
+     * Estimates number of distinct values added to sketch. Estimate uses linear counting
+     * while sketch has empty registers and estimate is small, which keeps error of low
+     * cardinalities close to zero.
+     *
+     * @param record    record that holds sketch
+     * @param index     index of first sketch column
+     * @param precision sketch precision
+     * @return estimated number of distinct values or NaN when sketch is null
+     */
+    public static long estimate(Record record, int index, int precision) {
+        if (record.getLong(index) == NULL) {
+            return Numbers.LONG_NaN;
+        }
+
+        double sum = 0;
+        int zeros = 0;
+        for (int i = index, n = index + getColumnCount(precision); i < n; i++) {
+            final long word = record.getLong(i);
+            for (int shift = 0; shift < 64; shift += 8) {
+                final int rank = (int) ((word >>> shift) & 0xff);
+                if (rank == 0) {
+                    zeros++;
+                }
+                sum += 1.0 / (1L << rank);
+            }
+        }
+        return estimate(1 << precision, sum, zeros);
+    }
+
+    /**
+     * Estimates number of distinct values added to sketch held in byte array.
+     *
+     * @param registers sketch registers, see {@link #add(byte[], int, long)}
+     * @return estimated number of distinct values
+     */
+    public static long estimate(byte[] registers) {
+        double sum = 0;
+        int zeros = 0;
+        for (int i = 0, n = registers.length; i < n; i++) {
+            final int rank = registers[i];
+            if (rank == 0) {
+                zeros++;
+            }
+            sum += 1.0 / (1L << rank);
+        }
+        return estimate(registers.length, sum, zeros);
+    }
+
+    public static int getColumnCount(int precision) {
+        return (1 << precision) >>> 3;
+    }
+
+    public static int getPrecision(Function precision) throws SqlException {
+        final int p = precision.getInt(null);
+        if (p < MIN_PRECISION || p > MAX_PRECISION) {
+            throw SqlException.$(precision.getPosition(), "precision must be between ").put(MIN_PRECISION).put(" and ").put(MAX_PRECISION);
+        }
+        return p;
+    }
+
+    /**
+     * Merges source sketch into destination sketch. Result is sketch of union of value sets
+     * both sketches were built from.
+     *
+     * @param dst       map value that holds destination sketch
+     * @param dstIndex  index of first destination sketch column
+     * @param src       record that holds source sketch
+     * @param srcIndex  index of first source sketch column
+     * @param precision precision of both sketches
+     */
+    public static void merge(MapValue dst, int dstIndex, Record src, int srcIndex, int precision) {
+        for (int i = 0, n = getColumnCount(precision); i < n; i++) {
+            final long a = dst.getLong(dstIndex + i);
+            final long b = src.getLong(srcIndex + i);
+            long merged = 0;
+            for (int shift = 0; shift < 64; shift += 8) {
+                merged |= Math.max((a >>> shift) & 0xff, (b >>> shift) & 0xff) << shift;
+            }
+            dst.putLong(dstIndex + i, merged);
+        }
+    }
+
+    public static void pushValueTypes(ArrayColumnTypes columnTypes, int precision) {
+        for (int i = 0, n = getColumnCount(precision); i < n; i++) {
+            columnTypes.add(ColumnType.LONG);
+        }
+    }
+
+    public static void setNull(MapValue value, int index) {
+        value.putLong(index, NULL);
+    }
+
+    private static long estimate(int m, double sum, int zeros) {
+        final double estimate = alpha(m) * m * m / sum;
+        if (zeros > 0 && estimate <= 2.5 * m) {
+            return Math.round(m * Math.log((double) m / zeros));
+        }
+        return Math.round(estimate);
+    }
+
+    private static double alpha(int m) {
+        switch (m) {
+            case 16:
+                return 0.673;
+            case 32:
+                return 0.697;
+            case 64:
+                return 0.709;
+            default:
+                return 0.7213 / (1 + 1.079 / m);
+        }
+    }
+
+    // position of the leftmost 1-bit in the bits that follow register number, sentinel bit caps it at 64 - p + 1
+    private static int rank(long hash, int precision) {
+        return Long.numberOfLeadingZeros((hash << precision) | (1L << (precision - 1))) + 1;
+    }
+
+    private static int register(long hash, int precision) {
+        return (int) (hash >>> (64 - precision));
+    }
+}
@@ -62,6 +62,11 @@ public class IsLongOrderedGroupByFunction extends BooleanFunction implements Gro
         }
     }
 
+    @Override
+    public boolean isThreadSafe() {
+        return value.isThreadSafe();
+    }
+
     @Override
     public void pushValueTypes(ArrayColumnTypes columnTypes) {
         this.flagIndex = columnTypes.getColumnCount();
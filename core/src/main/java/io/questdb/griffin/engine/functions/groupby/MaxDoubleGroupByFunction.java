@@ -56,6 +56,25 @@ public class MaxDoubleGroupByFunction extends DoubleFunction implements GroupByF
         }
     }
 
+    @Override
+    public boolean isMergeable() {
+        return true;
+    }
+
+    @Override
+    public boolean isThreadSafe() {
+        return value.isThreadSafe();
+    }
+
+    @Override
+    public void merge(MapValue destValue, Record srcValue) {
+        double max = destValue.getDouble(valueIndex);
+        double next = srcValue.getDouble(valueIndex);
+        if (next > max || Double.isNaN(max)) {
+            destValue.putDouble(valueIndex, next);
+        }
+    }
+
     @Override
     public void pushValueTypes(ArrayColumnTypes columnTypes) {
         this.valueIndex = columnTypes.getColumnCount();
@@ -56,6 +56,25 @@ public class MinByteGroupByFunction extends ByteFunction implements GroupByFunct
         }
     }
 
+    @Override
+    public boolean isMergeable() {
+        return true;
+    }
+
+    @Override
+    public boolean isThreadSafe() {
+        return value.isThreadSafe();
+    }
+
+    @Override
+    public void merge(MapValue destValue, Record srcValue) {
+        byte min = destValue.getByte(valueIndex);
+        byte next = srcValue.getByte(valueIndex);
+        if (next < min) {
+            destValue.putByte(valueIndex, next);
+        }
+    }
+
     @Override
     public void pushValueTypes(ArrayColumnTypes columnTypes) {
         this.valueIndex = columnTypes.getColumnCount();
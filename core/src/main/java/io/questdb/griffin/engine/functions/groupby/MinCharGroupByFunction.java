@@ -56,6 +56,11 @@ public class MinCharGroupByFunction extends CharFunction implements GroupByFunct
         }
     }
 
+    @Override
+    public boolean isThreadSafe() {
+        return value.isThreadSafe();
+    }
+
     @Override
     public void pushValueTypes(ArrayColumnTypes columnTypes) {
         this.valueIndex = columnTypes.getColumnCount();
@@ -56,6 +56,25 @@ public class MinFloatGroupByFunction extends FloatFunction implements GroupByFun
         }
     }
 
+    @Override
+    public boolean isMergeable() {
+        return true;
+    }
+
+    @Override
+    public boolean isThreadSafe() {
+        return value.isThreadSafe();
+    }
+
+    @Override
+    public void merge(MapValue destValue, Record srcValue) {
+        float min = destValue.getFloat(valueIndex);
+        float next = srcValue.getFloat(valueIndex);
+        if (next < min || Float.isNaN(min)) {
+            destValue.putFloat(valueIndex, next);
+        }
+    }
+
     @Override
     public void pushValueTypes(ArrayColumnTypes columnTypes) {
         this.valueIndex = columnTypes.getColumnCount();
@@ -57,6 +57,25 @@ public class MinIntGroupByFunction extends IntFunction implements GroupByFunctio
         }
     }
 
+    @Override
+    public boolean isMergeable() {
+        return true;
+    }
+
+    @Override
+    public boolean isThreadSafe() {
+        return value.isThreadSafe();
+    }
+
+    @Override
+    public void merge(MapValue destValue, Record srcValue) {
+        int min = destValue.getInt(valueIndex);
+        int next = srcValue.getInt(valueIndex);
+        if (next != Numbers.INT_NaN && next < min || min == Numbers.INT_NaN) {
+            destValue.putInt(valueIndex, next);
+        }
+    }
+
     @Override
     public void pushValueTypes(ArrayColumnTypes columnTypes) {
         this.valueIndex = columnTypes.getColumnCount();
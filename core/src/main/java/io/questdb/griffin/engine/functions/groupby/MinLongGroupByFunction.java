@@ -57,6 +57,25 @@ public class MinLongGroupByFunction extends LongFunction implements GroupByFunct
         }
     }
 
+    @Override
+    public boolean isMergeable() {
+        return true;
+    }
+
+    @Override
+    public boolean isThreadSafe() {
+        return value.isThreadSafe();
+    }
+
+    @Override
+    public void merge(MapValue destValue, Record srcValue) {
+        long min = destValue.getLong(valueIndex);
+        long next = srcValue.getLong(valueIndex);
+        if (next != Numbers.LONG_NaN && next < min || min == Numbers.LONG_NaN) {
+            destValue.putLong(valueIndex, next);
+        }
+    }
+
     @Override
     public void pushValueTypes(ArrayColumnTypes columnTypes) {
         this.valueIndex = columnTypes.getColumnCount();
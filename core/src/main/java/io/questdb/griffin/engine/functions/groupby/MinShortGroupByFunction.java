@@ -56,6 +56,25 @@ public class MinShortGroupByFunction extends ShortFunction implements GroupByFun
         }
     }
 
+    @Override
+    public boolean isMergeable() {
+        return true;
+    }
+
+    @Override
+    public boolean isThreadSafe() {
+        return value.isThreadSafe();
+    }
+
+    @Override
+    public void merge(MapValue destValue, Record srcValue) {
+        short min = destValue.getShort(valueIndex);
+        short next = srcValue.getShort(valueIndex);
+        if (next < min) {
+            destValue.putShort(valueIndex, next);
+        }
+    }
+
     @Override
     public void pushValueTypes(ArrayColumnTypes columnTypes) {
         this.valueIndex = columnTypes.getColumnCount();
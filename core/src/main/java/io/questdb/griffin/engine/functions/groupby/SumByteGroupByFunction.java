@@ -52,6 +52,21 @@ public class SumByteGroupByFunction extends ByteFunction implements GroupByFunct
         mapValue.addByte(valueIndex, value.getByte(record));
     }
 
+    @Override
+    public boolean isMergeable() {
+        return true;
+    }
+
+    @Override
+    public boolean isThreadSafe() {
+        return value.isThreadSafe();
+    }
+
+    @Override
+    public void merge(MapValue destValue, Record srcValue) {
+        destValue.addByte(valueIndex, srcValue.getByte(valueIndex));
+    }
+
     @Override
     public void pushValueTypes(ArrayColumnTypes columnTypes) {
         this.valueIndex = columnTypes.getColumnCount();
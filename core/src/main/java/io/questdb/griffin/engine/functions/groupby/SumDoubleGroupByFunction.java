@@ -52,6 +52,11 @@ public class SumDoubleGroupByFunction extends DoubleFunction implements GroupByF
         mapValue.addDouble(valueIndex, value.getDouble(record));
     }
 
+    @Override
+    public boolean isThreadSafe() {
+        return value.isThreadSafe();
+    }
+
     @Override
     public void pushValueTypes(ArrayColumnTypes columnTypes) {
         this.valueIndex = columnTypes.getColumnCount();
@@ -52,6 +52,11 @@ public class SumFloatGroupByFunction extends FloatFunction implements GroupByFun
         mapValue.addFloat(valueIndex, value.getFloat(record));
     }
 
+    @Override
+    public boolean isThreadSafe() {
+        return value.isThreadSafe();
+    }
+
     @Override
     public void pushValueTypes(ArrayColumnTypes columnTypes) {
         this.valueIndex = columnTypes.getColumnCount();
@@ -53,6 +53,21 @@ public class SumIntGroupByFunction extends IntFunction implements GroupByFunctio
         mapValue.addInt(valueIndex, value.getInt(record));
     }
 
+    @Override
+    public boolean isMergeable() {
+        return true;
+    }
+
+    @Override
+    public boolean isThreadSafe() {
+        return value.isThreadSafe();
+    }
+
+    @Override
+    public void merge(MapValue destValue, Record srcValue) {
+        destValue.addInt(valueIndex, srcValue.getInt(valueIndex));
+    }
+
     @Override
     public void pushValueTypes(ArrayColumnTypes columnTypes) {
         this.valueIndex = columnTypes.getColumnCount();
@@ -52,6 +52,21 @@ public class SumShortGroupByFunction extends ShortFunction implements GroupByFun
         mapValue.addShort(valueIndex, value.getShort(record));
     }
 
+    @Override
+    public boolean isMergeable() {
+        return true;
+    }
+
+    @Override
+    public boolean isThreadSafe() {
+        return value.isThreadSafe();
+    }
+
+    @Override
+    public void merge(MapValue destValue, Record srcValue) {
+        destValue.addShort(valueIndex, srcValue.getShort(valueIndex));
+    }
+
     @Override
     public void pushValueTypes(ArrayColumnTypes columnTypes) {
         this.valueIndex = columnTypes.getColumnCount();
@@ -0,0 +1,253 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.functions.like;
+
+import io.questdb.griffin.SqlException;
+
+import java.util.Arrays;
+
+/**
+ * Compiled LIKE pattern. '%' matches any sequence of characters, '_' matches single character
+ * and backslash escapes either of them or itself. Patterns that have '%' only at the ends are
+ * compiled into exact, prefix, suffix or substring matchers, all other patterns are matched
+ * by general wildcard matcher. Matchers read characters straight from the value and do not
+ * allocate. For case-insensitive matching pattern is lower-cased once and value characters are
+ * lower-cased as they are read.
+ */
+abstract class LikeMatcher {
+    private static final byte LITERAL = 0;
+    private static final byte ANY_CHAR = 1;
+    private static final byte ANY_SEQUENCE = 2;
+
+    final char[] literal;
+    final boolean ignoreCase;
+
+    private LikeMatcher(char[] literal, boolean ignoreCase) {
+        this.literal = literal;
+        this.ignoreCase = ignoreCase;
+    }
+
+    /**
+     * Compiles pattern into matcher.
+     *
+     * @param pattern    LIKE pattern
+     * @param ignoreCase true for ILIKE
+     * @param position   position of pattern in SQL text, used to report errors
+     * @return matcher, which is safe to reuse across rows
+     * @throws SqlException when pattern ends with escape character
+     */
+    static LikeMatcher compile(CharSequence pattern, boolean ignoreCase, int position) throws SqlException {
+        final int len = pattern.length();
+        final char[] chars = new char[len];
+        final byte[] kinds = new byte[len];
+        int n = 0;
+        int anyCharCount = 0;
+        int anySequenceCount = 0;
+
+        for (int i = 0; i < len; i++) {
+            char c = pattern.charAt(i);
+            switch (c) {
+                case '\\':
+                    if (++i == len) {
+                        // pattern starts after opening quote, so this points at the trailing backslash
+                        throw SqlException.$(position + i, "LIKE pattern must not end with escape character");
+                    }
+                    chars[n] = ignoreCase ? Character.toLowerCase(pattern.charAt(i)) : pattern.charAt(i);
+                    kinds[n++] = LITERAL;
+                    break;
+                case '%':
+                    // consecutive '%' are the same as one
+                    if (n == 0 || kinds[n - 1] != ANY_SEQUENCE) {
+                        kinds[n++] = ANY_SEQUENCE;
+                        anySequenceCount++;
+                    }
+                    break;
+                case '_':
+                    kinds[n++] = ANY_CHAR;
+                    anyCharCount++;
+                    break;
+                default:
+                    chars[n] = ignoreCase ? Character.toLowerCase(c) : c;
+                    kinds[n++] = LITERAL;
+                    break;
+            }
+        }
+
+        if (anyCharCount == 0) {
+            final boolean leading = n > 0 && kinds[0] == ANY_SEQUENCE;
+            final boolean trailing = n > 0 && kinds[n - 1] == ANY_SEQUENCE;
+            switch (anySequenceCount) {
+                case 0:
+                    return new Exact(Arrays.copyOf(chars, n), ignoreCase);
+                case 1:
+                    if (trailing) {
+                        return new Prefix(Arrays.copyOf(chars, n - 1), ignoreCase);
+                    }
+                    if (leading) {
+                        return new Suffix(Arrays.copyOfRange(chars, 1, n), ignoreCase);
+                    }
+                    break;
+                case 2:
+                    if (leading && trailing) {
+                        return new Contains(Arrays.copyOfRange(chars, 1, n - 1), ignoreCase);
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+        return new Wildcard(Arrays.copyOf(chars, n), Arrays.copyOf(kinds, n), ignoreCase);
+    }
+
+    abstract boolean matches(CharSequence value);
+
+    char charAt(CharSequence value, int index) {
+        final char c = value.charAt(index);
+        return ignoreCase ? Character.toLowerCase(c) : c;
+    }
+
+    boolean regionMatches(CharSequence value, int offset) {
+        for (int i = 0, n = literal.length; i < n; i++) {
+            if (charAt(value, offset + i) != literal[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static class Exact extends LikeMatcher {
+        Exact(char[] literal, boolean ignoreCase) {
+            super(literal, ignoreCase);
+        }
+
+        @Override
+        boolean matches(CharSequence value) {
+            return value.length() == literal.length && regionMatches(value, 0);
+        }
+    }
+
+    static class Prefix extends LikeMatcher {
+        Prefix(char[] literal, boolean ignoreCase) {
+            super(literal, ignoreCase);
+        }
+
+        @Override
+        boolean matches(CharSequence value) {
+            return value.length() >= literal.length && regionMatches(value, 0);
+        }
+    }
+
+    static class Suffix extends LikeMatcher {
+        Suffix(char[] literal, boolean ignoreCase) {
+            super(literal, ignoreCase);
+        }
+
+        @Override
+        boolean matches(CharSequence value) {
+            final int offset = value.length() - literal.length;
+            return offset >= 0 && regionMatches(value, offset);
+        }
+    }
+
+    /**
+     * Boyer-Moore-Horspool substring search. Shift table is indexed by low byte of the character,
+     * characters that share low byte share the smallest shift, which keeps the search correct
+     * for any alphabet.
+     */
+    static class Contains extends LikeMatcher {
+        private final int[] shifts = new int[256];
+
+        Contains(char[] literal, boolean ignoreCase) {
+            super(literal, ignoreCase);
+            final int last = literal.length - 1;
+            Arrays.fill(shifts, literal.length);
+            for (int i = 0; i < last; i++) {
+                shifts[literal[i] & 0xff] = last - i;
+            }
+        }
+
+        @Override
+        boolean matches(CharSequence value) {
+            final int last = literal.length - 1;
+            final int limit = value.length() - literal.length;
+            int offset = 0;
+            while (offset <= limit) {
+                int i = last;
+                while (i > -1 && charAt(value, offset + i) == literal[i]) {
+                    i--;
+                }
+                if (i < 0) {
+                    return true;
+                }
+                offset += shifts[charAt(value, offset + last) & 0xff];
+            }
+            return false;
+        }
+    }
+
+    /**
+     * General matcher for patterns with '_' or with '%' in the middle. On mismatch it backtracks
+     * to the most recent '%' only, which is sufficient because '%' can absorb any prefix of the
+     * remaining value. Worst case is proportional to the product of value and pattern lengths.
+     */
+    static class Wildcard extends LikeMatcher {
+        private final byte[] kinds;
+
+        Wildcard(char[] literal, byte[] kinds, boolean ignoreCase) {
+            super(literal, ignoreCase);
+            this.kinds = kinds;
+        }
+
+        @Override
+        boolean matches(CharSequence value) {
+            final int len = value.length();
+            final int n = kinds.length;
+            int v = 0;
+            int p = 0;
+            int anyP = -1;
+            int anyV = 0;
+
+            while (v < len) {
+                if (p < n && (kinds[p] == ANY_CHAR || (kinds[p] == LITERAL && literal[p] == charAt(value, v)))) {
+                    v++;
+                    p++;
+                } else if (p < n && kinds[p] == ANY_SEQUENCE) {
+                    anyP = p++;
+                    anyV = v;
+                } else if (anyP > -1) {
+                    p = anyP + 1;
+                    v = ++anyV;
+                } else {
+                    return false;
+                }
+            }
+
+            while (p < n && kinds[p] == ANY_SEQUENCE) {
+                p++;
+            }
+            return p == n;
+        }
+    }
+}
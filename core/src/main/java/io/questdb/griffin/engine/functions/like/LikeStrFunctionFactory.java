@@ -0,0 +1,81 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.functions.like;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.Record;
+import io.questdb.griffin.FunctionFactory;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.engine.functions.BooleanFunction;
+import io.questdb.griffin.engine.functions.UnaryFunction;
+import io.questdb.std.ObjList;
+
+public class LikeStrFunctionFactory implements FunctionFactory {
+
+    static LikeMatcher compile(Function pattern, boolean ignoreCase) throws SqlException {
+        final CharSequence cs = pattern.getStr(null);
+        if (cs == null) {
+            throw SqlException.$(pattern.getPosition(), "NULL pattern");
+        }
+        return LikeMatcher.compile(cs, ignoreCase, pattern.getPosition());
+    }
+
+    static Function newInstance(ObjList<Function> args, int position, boolean ignoreCase) throws SqlException {
+        return new LikeFunction(position, args.getQuick(0), compile(args.getQuick(1), ignoreCase));
+    }
+
+    @Override
+    public String getSignature() {
+        return "like(Ss)";
+    }
+
+    @Override
+    public Function newInstance(ObjList<Function> args, int position, CairoConfiguration configuration) throws SqlException {
+        return newInstance(args, position, false);
+    }
+
+    private static class LikeFunction extends BooleanFunction implements UnaryFunction {
+        private final Function value;
+        private final LikeMatcher matcher;
+
+        public LikeFunction(int position, Function value, LikeMatcher matcher) {
+            super(position);
+            this.value = value;
+            this.matcher = matcher;
+        }
+
+        @Override
+        public Function getArg() {
+            return value;
+        }
+
+        @Override
+        public boolean getBool(Record rec) {
+            CharSequence cs = value.getStr(rec);
+            return cs != null && matcher.matches(cs);
+        }
+    }
+}
@@ -0,0 +1,138 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.functions.like;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.SymbolTable;
+import io.questdb.cairo.sql.SymbolTableSource;
+import io.questdb.griffin.FunctionFactory;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.functions.BooleanFunction;
+import io.questdb.griffin.engine.functions.UnaryFunction;
+import io.questdb.griffin.engine.functions.columns.SymbolColumn;
+import io.questdb.std.IntList;
+import io.questdb.std.ObjList;
+
+public class LikeSymFunctionFactory implements FunctionFactory {
+
+    static Function newInstance(ObjList<Function> args, int position, boolean ignoreCase) throws SqlException {
+        final Function value = args.getQuick(0);
+        final LikeMatcher matcher = LikeStrFunctionFactory.compile(args.getQuick(1), ignoreCase);
+        if (value instanceof SymbolColumn) {
+            return new LikeColumnFunction(position, (SymbolColumn) value, matcher);
+        }
+        return new LikeFunction(position, value, matcher);
+    }
+
+    @Override
+    public String getSignature() {
+        return "like(Ks)";
+    }
+
+    @Override
+    public Function newInstance(ObjList<Function> args, int position, CairoConfiguration configuration) throws SqlException {
+        return newInstance(args, position, false);
+    }
+
+    private static class LikeFunction extends BooleanFunction implements UnaryFunction {
+        private final Function value;
+        private final LikeMatcher matcher;
+
+        public LikeFunction(int position, Function value, LikeMatcher matcher) {
+            super(position);
+            this.value = value;
+            this.matcher = matcher;
+        }
+
+        @Override
+        public Function getArg() {
+            return value;
+        }
+
+        @Override
+        public boolean getBool(Record rec) {
+            CharSequence cs = value.getSymbol(rec);
+            return cs != null && matcher.matches(cs);
+        }
+    }
+
+    /**
+     * Matches pattern once per symbol table entry rather than once per row. Outcome is
+     * cached by symbol key as rows reference the key, so entries that are never seen
+     * are never matched.
+     */
+    private static class LikeColumnFunction extends BooleanFunction implements UnaryFunction {
+        private static final int UNKNOWN = -1;
+        private static final int NO_MATCH = 0;
+        private static final int MATCH = 1;
+        private final SymbolColumn value;
+        private final LikeMatcher matcher;
+        private final IntList outcomes = new IntList();
+        private SymbolTable symbolTable;
+
+        public LikeColumnFunction(int position, SymbolColumn value, LikeMatcher matcher) {
+            super(position);
+            this.value = value;
+            this.matcher = matcher;
+        }
+
+        @Override
+        public Function getArg() {
+            return value;
+        }
+
+        @Override
+        public boolean getBool(Record rec) {
+            final int key = value.getInt(rec);
+            if (key < 0) {
+                // null symbol
+                return false;
+            }
+
+            if (key < outcomes.size()) {
+                final int outcome = outcomes.getQuick(key);
+                if (outcome != UNKNOWN) {
+                    return outcome == MATCH;
+                }
+                final boolean match = matcher.matches(symbolTable.value(key));
+                outcomes.setQuick(key, match ? MATCH : NO_MATCH);
+                return match;
+            }
+
+            // key is newer than symbol table size we saw when cursor was opened
+            return matcher.matches(symbolTable.value(key));
+        }
+
+        @Override
+        public void init(SymbolTableSource symbolTableSource, SqlExecutionContext executionContext) {
+            value.init(symbolTableSource, executionContext);
+            symbolTable = symbolTableSource.getSymbolTable(value.getColumnIndex());
+            outcomes.setAll(symbolTable.size(), UNKNOWN);
+        }
+    }
+}
@@ -31,7 +31,9 @@ import io.questdb.cairo.map.MapKey;
 import io.questdb.cairo.map.MapValue;
 import io.questdb.cairo.sql.*;
 import io.questdb.griffin.FunctionParser;
+import io.questdb.griffin.PlanSink;
 import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionCircuitBreaker;
 import io.questdb.griffin.SqlExecutionContext;
 import io.questdb.griffin.engine.EmptyTableRecordCursor;
 import io.questdb.griffin.engine.functions.GroupByFunction;
@@ -43,10 +45,13 @@ public class AbstractSampleByRecordCursorFactory implements RecordCursorFactory
 
     protected final RecordCursorFactory base;
     protected final Map map;
+    protected final ObjList<Function> recordFunctions;
+    protected final ObjList<GroupByFunction> groupByFunctions;
+    protected final RecordSink mapSink;
+    protected final IntIntHashMap symbolTableIndex = new IntIntHashMap();
+    // positions of designated timestamp in record functions, cursors substitute their own functions there
+    protected final IntList timestampFunctionIndexes = new IntList();
     private final DelegatingRecordCursor cursor;
-    private final ObjList<Function> recordFunctions;
-    private final ObjList<GroupByFunction> groupByFunctions;
-    private final RecordSink mapSink;
     private final RecordMetadata metadata;
 
     public AbstractSampleByRecordCursorFactory(
@@ -78,7 +83,6 @@ public class AbstractSampleByRecordCursorFactory implements RecordCursorFactory
 
         this.recordFunctions = new ObjList<>(columnCount);
         final GenericRecordMetadata groupByMetadata = new GenericRecordMetadata();
-        final IntIntHashMap symbolTableIndex = new IntIntHashMap();
 
         GroupByUtils.prepareGroupByRecordFunctions(
                 model,
@@ -93,6 +97,12 @@ public class AbstractSampleByRecordCursorFactory implements RecordCursorFactory
                 false
         );
 
+        for (int i = 0, n = recordFunctions.size(); i < n; i++) {
+            if (recordFunctions.getQuick(i) == null) {
+                timestampFunctionIndexes.add(i);
+            }
+        }
+
         // sink will be storing record columns to map key
         this.mapSink = RecordSinkFactory.getInstance(asm, metadata, listColumnFilter, false);
         // this is the map itself, which we must not forget to free when factory closes
@@ -137,19 +147,26 @@ public class AbstractSampleByRecordCursorFactory implements RecordCursorFactory
 
         int n = groupByFunctions.size();
         final Record baseCursorRecord = baseCursor.getRecord();
-        while (baseCursor.hasNext()) {
-            MapKey key = map.withKey();
-            mapSink.copy(baseCursorRecord, key);
-            MapValue value = key.createValue();
-            if (value.isNew()) {
-                // timestamp is always stored in value field 0
-                value.putLong(0, Numbers.LONG_NaN);
-                // have functions reset their columns to "zero" state
-                // this would set values for when keys are not found right away
-                for (int i = 0; i < n; i++) {
-                    groupByFunctions.getQuick(i).setNull(value);
+        final SqlExecutionCircuitBreaker circuitBreaker = executionContext.getCircuitBreaker();
+        try {
+            while (baseCursor.hasNext()) {
+                circuitBreaker.checkState();
+                MapKey key = map.withKey();
+                mapSink.copy(baseCursorRecord, key);
+                MapValue value = key.createValue();
+                if (value.isNew()) {
+                    // timestamp is always stored in value field 0
+                    value.putLong(0, Numbers.LONG_NaN);
+                    // have functions reset their columns to "zero" state
+                    // this would set values for when keys are not found right away
+                    for (int i = 0; i < n; i++) {
+                        groupByFunctions.getQuick(i).setNull(value);
+                    }
                 }
             }
+        } catch (CairoException e) {
+            baseCursor.close();
+            throw e;
         }
 
         // empty map? this means that base cursor was empty
@@ -179,11 +196,17 @@ public class AbstractSampleByRecordCursorFactory implements RecordCursorFactory
 
     @NotNull
     protected RecordCursor initFunctionsAndCursor(SqlExecutionContext executionContext, RecordCursor baseCursor) {
-        cursor.of(baseCursor);
+        cursor.of(baseCursor, executionContext);
         // init all record function for this cursor, in case functions require metadata and/or symbol tables
         for (int i = 0, m = recordFunctions.size(); i < m; i++) {
             recordFunctions.getQuick(i).init(cursor, executionContext);
         }
         return cursor;
     }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.type(this).attr("functions").val(groupByFunctions);
+        sink.child(base);
+    }
 }
@@ -29,6 +29,7 @@ import io.questdb.cairo.map.Map;
 import io.questdb.cairo.map.MapFactory;
 import io.questdb.cairo.map.MapKey;
 import io.questdb.cairo.sql.*;
+import io.questdb.griffin.PlanSink;
 import io.questdb.griffin.SqlExecutionContext;
 import io.questdb.std.BytecodeAssembler;
 import io.questdb.std.Misc;
@@ -89,6 +90,12 @@ public class DistinctRecordCursorFactory implements RecordCursorFactory {
         return base.isRandomAccessCursor();
     }
 
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.type(this);
+        sink.child(base);
+    }
+
     private static class DistinctRecordCursor implements RecordCursor {
         private RecordCursor baseCursor;
         private Map dataMap;
@@ -31,7 +31,9 @@ import io.questdb.cairo.map.MapKey;
 import io.questdb.cairo.map.MapValue;
 import io.questdb.cairo.sql.*;
 import io.questdb.griffin.FunctionParser;
+import io.questdb.griffin.PlanSink;
 import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionCircuitBreaker;
 import io.questdb.griffin.SqlExecutionContext;
 import io.questdb.griffin.engine.functions.GroupByFunction;
 import io.questdb.griffin.model.QueryModel;
@@ -119,7 +121,9 @@ public class GroupByRecordCursorFactory implements RecordCursorFactory {
         try {
             final Record baseRecord = baseCursor.getRecord();
             final int n = groupByFunctions.size();
+            final SqlExecutionCircuitBreaker circuitBreaker = executionContext.getCircuitBreaker();
             while (baseCursor.hasNext()) {
+                circuitBreaker.checkState();
                 final MapKey key = dataMap.withKey();
                 mapSink.copy(baseRecord, key);
                 MapValue value = key.createValue();
@@ -143,7 +147,13 @@ public class GroupByRecordCursorFactory implements RecordCursorFactory {
         return true;
     }
 
-    private static class GroupByRecordCursor implements RecordCursor {
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.type(this).attr("functions").val(groupByFunctions);
+        sink.child(base);
+    }
+
+    static class GroupByRecordCursor implements RecordCursor {
         private final VirtualRecord functionRecord;
         private final IntIntHashMap symbolTableIndex;
         private RecordCursor mapCursor;
@@ -207,7 +217,7 @@ public class GroupByRecordCursorFactory implements RecordCursorFactory {
             this.baseCursor = baseCursor;
         }
 
-        private void setMapCursor(RecordCursor mapCursor) {
+        void setMapCursor(RecordCursor mapCursor) {
             this.mapCursor = mapCursor;
             functionRecord.of(mapCursor.getRecord());
         }
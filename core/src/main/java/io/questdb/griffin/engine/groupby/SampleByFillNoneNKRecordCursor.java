@@ -27,6 +27,8 @@ package io.questdb.griffin.engine.groupby;
 import io.questdb.cairo.map.Map;
 import io.questdb.cairo.map.MapValue;
 import io.questdb.cairo.sql.*;
+import io.questdb.griffin.SqlExecutionCircuitBreaker;
+import io.questdb.griffin.SqlExecutionContext;
 import io.questdb.griffin.engine.functions.GroupByFunction;
 import io.questdb.griffin.engine.functions.TimestampFunction;
 import io.questdb.std.IntIntHashMap;
@@ -42,6 +44,7 @@ class SampleByFillNoneNKRecordCursor implements DelegatingRecordCursor, NoRandom
     private final RecordCursor mapCursor;
     private RecordCursor base;
     private Record baseRecord;
+    private SqlExecutionCircuitBreaker circuitBreaker;
     private long lastTimestamp;
     private long nextTimestamp;
 
@@ -105,9 +108,10 @@ class SampleByFillNoneNKRecordCursor implements DelegatingRecordCursor, NoRandom
         return -1;
     }
 
-    public void of(RecordCursor base) {
+    public void of(RecordCursor base, SqlExecutionContext executionContext) {
         // factory guarantees that base cursor is not empty
         this.base = base;
+        this.circuitBreaker = executionContext.getCircuitBreaker();
         this.baseRecord = base.getRecord();
         this.nextTimestamp = timestampSampler.round(baseRecord.getTimestamp(timestampIndex));
         this.lastTimestamp = this.nextTimestamp;
@@ -123,6 +127,7 @@ class SampleByFillNoneNKRecordCursor implements DelegatingRecordCursor, NoRandom
         // of first record in base cursor
         int n = groupByFunctions.size();
         do {
+            circuitBreaker.checkState();
             final long timestamp = timestampSampler.round(baseRecord.getTimestamp(timestampIndex));
             if (lastTimestamp == timestamp) {
                 GroupByUtils.updateFunctions(groupByFunctions, n, value, baseRecord);
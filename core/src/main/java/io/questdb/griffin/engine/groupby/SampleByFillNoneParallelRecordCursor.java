@@ -0,0 +1,474 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.groupby;
+
+import io.questdb.cairo.*;
+import io.questdb.cairo.map.Map;
+import io.questdb.cairo.map.MapFactory;
+import io.questdb.cairo.map.MapKey;
+import io.questdb.cairo.map.MapRecord;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.cairo.map.RecordValueSink;
+import io.questdb.cairo.map.RecordValueSinkFactory;
+import io.questdb.cairo.sql.*;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.functions.GroupByFunction;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.mp.RingQueue;
+import io.questdb.mp.Sequence;
+import io.questdb.std.BytecodeAssembler;
+import io.questdb.std.IntIntHashMap;
+import io.questdb.std.IntList;
+import io.questdb.std.LongList;
+import io.questdb.std.Misc;
+import io.questdb.std.ObjList;
+import io.questdb.std.Sinkable;
+import io.questdb.std.Transient;
+
+/**
+ * Computes SAMPLE BY buckets of consecutive data frames in parallel. Frames are grouped into tasks
+ * on bucket boundaries. When all group-by functions can merge partial values, see
+ * {@link GroupByFunction#isMergeable()}, task may also start in the middle of a bucket. Such bucket
+ * is shared by consecutive tasks and is merged into the map of the task it starts in before that map
+ * is streamed. First task is computed by the query thread, the rest are published to the work queue
+ * and picked up by workers. Query thread steals tasks workers have not started by the time their
+ * maps are needed. Task maps are streamed in frame order, which keeps buckets in timestamp order
+ * and keys within bucket in order of appearance, same as serial cursor does.
+ */
+class SampleByFillNoneParallelRecordCursor implements NoRandomAccessRecordCursor {
+    private static final Log LOG = LogFactory.getLog(SampleByFillNoneParallelRecordCursor.class);
+    private static final int FRAME_ENTRY_SIZE = 5;
+    private static final long NO_BUCKET = Long.MIN_VALUE;
+    private final CairoConfiguration configuration;
+    private final CairoEngine engine;
+    private final RingQueue<SampleByEntry> queue;
+    private final Sequence pubSeq;
+    private final RecordSink mapSink;
+    // copy keys and values of shared bucket from one task map to another, null when functions cannot merge
+    private final RecordSink keyCopier;
+    private final RecordValueSink valueCopier;
+    private final ObjList<GroupByFunction> groupByFunctions;
+    private final TimestampSampler timestampSampler;
+    private final int timestampIndex;
+    private final IntIntHashMap symbolTableIndex;
+    private final ArrayColumnTypes keyTypes = new ArrayColumnTypes();
+    private final ArrayColumnTypes valueTypes = new ArrayColumnTypes();
+    private final ObjList<SampleByTask> tasks = new ObjList<>();
+    // last bucket of each task when next task continues it, NO_BUCKET otherwise
+    private final LongList sharedBuckets = new LongList();
+    // first bucket of each task when it has been merged into preceding task, NO_BUCKET otherwise
+    private final LongList mergedBuckets = new LongList();
+    // partition index, row lo, row hi, first bucket and last bucket of each frame
+    private final LongList frames = new LongList();
+    // base cursor column index to table reader column index
+    private final IntList columnCrossIndex = new IntList();
+    private final TableReaderRecord frameRecord = new TableReaderRecord();
+    private final int columnCount;
+    private final VirtualRecord record;
+    private RecordCursor base;
+    private TableReader reader;
+    private RecordCursor mapCursor;
+    private MapRecord mapRecord;
+    private long skipBucket;
+    private long rowCount;
+    private int taskCount;
+    private int taskIndex;
+    private int computedTaskCount;
+
+    SampleByFillNoneParallelRecordCursor(
+            CairoConfiguration configuration,
+            CairoEngine engine,
+            CairoWorkScheduler workScheduler,
+            RecordSink mapSink,
+            ObjList<GroupByFunction> groupByFunctions,
+            ObjList<Function> recordFunctions,
+            int columnCount, // column count of base cursor
+            int timestampIndex, // index of timestamp column in base cursor
+            TimestampSampler timestampSampler,
+            IntIntHashMap symbolTableIndex,
+            ColumnTypes keyTypes,
+            ColumnTypes valueTypes,
+            @Transient BytecodeAssembler asm
+    ) {
+        this.configuration = configuration;
+        this.engine = engine;
+        this.queue = workScheduler.getSampleByQueue();
+        this.pubSeq = workScheduler.getSampleByPubSequence();
+        this.mapSink = mapSink;
+        this.groupByFunctions = groupByFunctions;
+        this.columnCount = columnCount;
+        this.timestampIndex = timestampIndex;
+        this.timestampSampler = timestampSampler;
+        this.symbolTableIndex = symbolTableIndex;
+        this.record = new VirtualRecordNoRowid(recordFunctions);
+        for (int i = 0, n = keyTypes.getColumnCount(); i < n; i++) {
+            this.keyTypes.add(keyTypes.getColumnType(i));
+        }
+        // bucket timestamp is the last key of task map
+        this.keyTypes.add(ColumnType.TIMESTAMP);
+        for (int i = 0, n = valueTypes.getColumnCount(); i < n; i++) {
+            this.valueTypes.add(valueTypes.getColumnType(i));
+        }
+
+        if (isMergeable(groupByFunctions)) {
+            // map record exposes values first and keys after them
+            final ArrayColumnTypes mapRecordTypes = new ArrayColumnTypes();
+            final ListColumnFilter valueFilter = new ListColumnFilter();
+            for (int i = 0, n = this.valueTypes.getColumnCount(); i < n; i++) {
+                mapRecordTypes.add(this.valueTypes.getColumnType(i));
+                valueFilter.add(i);
+            }
+            final ListColumnFilter keyFilter = new ListColumnFilter();
+            for (int i = 0, n = this.keyTypes.getColumnCount(); i < n; i++) {
+                keyFilter.add(mapRecordTypes.getColumnCount());
+                mapRecordTypes.add(this.keyTypes.getColumnType(i));
+            }
+            this.keyCopier = RecordSinkFactory.getInstance(asm, mapRecordTypes, keyFilter, false);
+            this.valueCopier = RecordValueSinkFactory.getInstance(asm, mapRecordTypes, valueFilter);
+        } else {
+            this.keyCopier = null;
+            this.valueCopier = null;
+        }
+    }
+
+    @Override
+    public void close() {
+        if (base != null) {
+            drainTasks();
+            base = Misc.free(base);
+            reader = null;
+        }
+    }
+
+    @Override
+    public Record getRecord() {
+        return record;
+    }
+
+    @Override
+    public SymbolTable getSymbolTable(int columnIndex) {
+        return base.getSymbolTable(symbolTableIndex.get(columnIndex));
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (mapCursor != null && nextMapRecord()) {
+            return true;
+        }
+
+        while (taskIndex < taskCount) {
+            final int index = taskIndex++;
+            final SampleByTask task = tasks.getQuick(index);
+            computeTasks(index);
+            mergeSharedBuckets(index);
+            mapCursor = task.getMap().getCursor();
+            mapRecord = task.getMap().getRecord();
+            record.of(mapRecord);
+            skipBucket = mergedBuckets.getQuick(index);
+            if (nextMapRecord()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void toTop() {
+        // task maps are retained until cursor is closed
+        taskIndex = 0;
+        mapCursor = null;
+    }
+
+    @Override
+    public long size() {
+        return -1;
+    }
+
+    /**
+     * Splits base cursor data frames into tasks and publishes them to the work queue.
+     *
+     * @param base             base cursor, which is at the top
+     * @param executionContext execution context to acquire task readers with
+     * @return false when base cursor cannot be computed in parallel, it is at the top in this case
+     */
+    boolean of(RecordCursor base, SqlExecutionContext executionContext) {
+        final DataFrameCursor dataFrameCursor = base.getDataFrameCursor();
+        if (dataFrameCursor == null) {
+            return false;
+        }
+
+        columnCrossIndex.clear();
+        for (int i = 0; i < columnCount; i++) {
+            columnCrossIndex.add(base.getDataFrameColumnIndex(i));
+        }
+
+        final TableReader reader = dataFrameCursor.getTableReader();
+        if (!collectFrames(dataFrameCursor, reader) || !createTasks()) {
+            base.toTop();
+            return false;
+        }
+
+        this.base = base;
+        this.reader = reader;
+        this.taskIndex = 0;
+        this.computedTaskCount = 0;
+        this.mapCursor = null;
+        prepareTasks(executionContext);
+        publishTasks();
+        return true;
+    }
+
+    void freeTasks() {
+        Misc.freeObjList(tasks);
+        tasks.clear();
+    }
+
+    private static boolean isMergeable(ObjList<GroupByFunction> groupByFunctions) {
+        for (int i = 0, n = groupByFunctions.size(); i < n; i++) {
+            if (!groupByFunctions.getQuick(i).isMergeable()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean collectFrames(DataFrameCursor dataFrameCursor, TableReader reader) {
+        frames.clear();
+        rowCount = 0;
+        frameRecord.of(reader);
+        final int timestampIndex = columnCrossIndex.getQuick(this.timestampIndex);
+        long lastTimestamp = Long.MIN_VALUE;
+        while (dataFrameCursor.hasNext()) {
+            final DataFrame frame = dataFrameCursor.next();
+            final long rowLo = frame.getRowLo();
+            final long rowHi = frame.getRowHi();
+            if (rowLo >= rowHi) {
+                continue;
+            }
+            final int partitionIndex = frame.getPartitionIndex();
+            frameRecord.jumpTo(partitionIndex, rowLo);
+            final long firstTimestamp = frameRecord.getTimestamp(timestampIndex);
+            if (firstTimestamp < lastTimestamp) {
+                // frames are not in timestamp order
+                return false;
+            }
+            frameRecord.setRecordIndex(rowHi - 1);
+            lastTimestamp = frameRecord.getTimestamp(timestampIndex);
+            frames.add(partitionIndex);
+            frames.add(rowLo);
+            frames.add(rowHi);
+            frames.add(timestampSampler.round(firstTimestamp));
+            frames.add(timestampSampler.round(lastTimestamp));
+            rowCount += rowHi - rowLo;
+        }
+        return rowCount >= configuration.getSqlSampleByParallelThreshold();
+    }
+
+    private void compute(SampleByTask task) {
+        if (task.hasReader()) {
+            if (task.tryLock()) {
+                // workers have not started this task yet, compute it here
+                task.aggregateAndCountDown();
+            } else {
+                task.await();
+            }
+
+            if (!task.isFailed()) {
+                return;
+            }
+            LOG.info().$("recomputing sample by task [table=").$(reader.getTableName()).$(']').$();
+        }
+        task.aggregate(reader);
+    }
+
+    private void computeTasks(int index) {
+        // tasks are computed in order, so that the ones not computed yet can be drained on close
+        while (computedTaskCount <= index) {
+            compute(tasks.getQuick(computedTaskCount));
+            computedTaskCount++;
+        }
+    }
+
+    private boolean createTasks() {
+        final int maxTaskCount = configuration.getSqlSampleByParallelTaskCount();
+        final long taskRowCount = Math.max(rowCount / maxTaskCount, 1);
+        SampleByTask task = null;
+        taskCount = 0;
+        sharedBuckets.clear();
+        mergedBuckets.clear();
+        for (int i = 0, n = frames.size(); i < n; i += FRAME_ENTRY_SIZE) {
+            final long firstBucket = frames.getQuick(i + 3);
+            final boolean continuesBucket = i > 0 && firstBucket == frames.getQuick(i - 1);
+            // frame that continues last bucket of previous frame can start new task only when bucket can be merged
+            if (task == null || (task.getRowCount() >= taskRowCount && taskCount < maxTaskCount && (!continuesBucket || keyCopier != null))) {
+                if (continuesBucket) {
+                    sharedBuckets.setQuick(taskCount - 1, firstBucket);
+                }
+                task = nextTask();
+                sharedBuckets.add(NO_BUCKET);
+                mergedBuckets.add(NO_BUCKET);
+            }
+            task.addFrame((int) frames.getQuick(i), frames.getQuick(i + 1), frames.getQuick(i + 2));
+        }
+
+        if (taskCount < 2) {
+            clearTasks();
+            return false;
+        }
+        return true;
+    }
+
+    private void clearTasks() {
+        for (int i = 0; i < taskCount; i++) {
+            tasks.getQuick(i).clear();
+        }
+        taskCount = 0;
+    }
+
+    private void drainTasks() {
+        // workers must be done with task readers and maps before they are released
+        for (int i = computedTaskCount; i < taskCount; i++) {
+            final SampleByTask task = tasks.getQuick(i);
+            if (task.hasReader() && !task.tryLock()) {
+                task.await();
+            }
+        }
+        clearTasks();
+        computedTaskCount = 0;
+        taskIndex = 0;
+        mapCursor = null;
+    }
+
+    /**
+     * Merges bucket task map starts with into destination map. Bucket is the first one of the task
+     * map, hence merge stops at the first key of another bucket.
+     */
+    private void mergeBucket(Map destMap, Map srcMap, long bucket) {
+        final RecordCursor cursor = srcMap.getCursor();
+        final MapRecord srcRecord = srcMap.getRecord();
+        while (cursor.hasNext() && srcRecord.getLong(0) == bucket) {
+            final MapKey key = destMap.withKey();
+            keyCopier.copy(srcRecord, key);
+            final MapValue value = key.createValue();
+            if (value.isNew()) {
+                valueCopier.copy(srcRecord, value);
+            } else {
+                for (int i = 0, n = groupByFunctions.size(); i < n; i++) {
+                    groupByFunctions.getQuick(i).merge(value, srcRecord);
+                }
+            }
+        }
+    }
+
+    private void mergeSharedBuckets(int index) {
+        // bucket may span several tasks, all of them are merged into the task bucket starts in
+        final Map destMap = tasks.getQuick(index).getMap();
+        for (int i = index; i < taskCount - 1; i++) {
+            final long bucket = sharedBuckets.getQuick(i);
+            if (bucket == NO_BUCKET) {
+                break;
+            }
+            computeTasks(i + 1);
+            mergeBucket(destMap, tasks.getQuick(i + 1).getMap(), bucket);
+            // merge is done once, cursor can be rewound
+            sharedBuckets.setQuick(i, NO_BUCKET);
+            mergedBuckets.setQuick(i + 1, bucket);
+            if (sharedBuckets.getQuick(i + 1) != bucket) {
+                break;
+            }
+        }
+    }
+
+    private boolean nextMapRecord() {
+        // value 0 is bucket timestamp, bucket merged into preceding task is skipped
+        while (mapCursor.hasNext()) {
+            if (mapRecord.getLong(0) != skipBucket) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private SampleByTask nextTask() {
+        SampleByTask task;
+        if (taskCount < tasks.size()) {
+            task = tasks.getQuick(taskCount);
+            task.clear();
+        } else {
+            task = new SampleByTask(
+                    MapFactory.createMap(configuration, keyTypes, valueTypes),
+                    mapSink,
+                    groupByFunctions,
+                    timestampSampler,
+                    timestampIndex,
+                    columnCrossIndex
+            );
+            tasks.add(task);
+        }
+        taskCount++;
+        return task;
+    }
+
+    private void prepareTasks(SqlExecutionContext executionContext) {
+        // first task is computed with reader of base cursor, other tasks need reader each
+        for (int i = 1; i < taskCount; i++) {
+            TableReader taskReader;
+            try {
+                taskReader = engine.getReader(executionContext.getCairoSecurityContext(), reader.getTableName(), reader.getVersion());
+            } catch (CairoException e) {
+                // reader pool is exhausted, remaining tasks are computed by this thread
+                LOG.info().$("could not get task reader [table=").$(reader.getTableName()).$(", e=").$((Sinkable) e).$(']').$();
+                break;
+            }
+            tasks.getQuick(i).of(taskReader, reader);
+        }
+    }
+
+    private void publishTasks() {
+        for (int i = 1; i < taskCount; i++) {
+            final SampleByTask task = tasks.getQuick(i);
+            if (!task.hasReader()) {
+                break;
+            }
+
+            long cursor = pubSeq.next();
+            while (cursor == -2) {
+                // CAS issue, retry
+                cursor = pubSeq.next();
+            }
+
+            if (cursor == -1) {
+                // queue is full, remaining tasks are computed by this thread
+                break;
+            }
+
+            final SampleByEntry queueItem = queue.get(cursor);
+            queueItem.task = task;
+            queueItem.sequence = task.getLockSequence();
+            pubSeq.done(cursor);
+        }
+    }
+}
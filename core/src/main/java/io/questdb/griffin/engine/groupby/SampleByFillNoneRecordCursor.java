@@ -28,6 +28,8 @@ import io.questdb.cairo.RecordSink;
 import io.questdb.cairo.map.Map;
 import io.questdb.cairo.map.MapKey;
 import io.questdb.cairo.sql.*;
+import io.questdb.griffin.SqlExecutionCircuitBreaker;
+import io.questdb.griffin.SqlExecutionContext;
 import io.questdb.griffin.engine.functions.GroupByFunction;
 import io.questdb.griffin.engine.functions.TimestampFunction;
 import io.questdb.std.IntIntHashMap;
@@ -44,6 +46,7 @@ class SampleByFillNoneRecordCursor implements DelegatingRecordCursor, NoRandomAc
     private final RecordCursor mapCursor;
     private RecordCursor base;
     private Record baseRecord;
+    private SqlExecutionCircuitBreaker circuitBreaker;
     private long lastTimestamp;
     private long nextTimestamp;
 
@@ -107,6 +110,7 @@ class SampleByFillNoneRecordCursor implements DelegatingRecordCursor, NoRandomAc
         // of first record in base cursor
         int n = groupByFunctions.size();
         do {
+            circuitBreaker.checkState();
             final long timestamp = timestampSampler.round(baseRecord.getTimestamp(timestampIndex));
             if (lastTimestamp == timestamp) {
                 final MapKey key = map.withKey();
@@ -146,9 +150,10 @@ class SampleByFillNoneRecordCursor implements DelegatingRecordCursor, NoRandomAc
         }
     }
 
-    public void of(RecordCursor base) {
+    public void of(RecordCursor base, SqlExecutionContext executionContext) {
         // factory guarantees that base cursor is not empty
         this.base = base;
+        this.circuitBreaker = executionContext.getCircuitBreaker();
         this.baseRecord = base.getRecord();
         this.nextTimestamp = timestampSampler.round(baseRecord.getTimestamp(timestampIndex));
         this.lastTimestamp = this.nextTimestamp;
@@ -24,10 +24,7 @@
 
 package io.questdb.griffin.engine.groupby;
 
-import io.questdb.cairo.ArrayColumnTypes;
-import io.questdb.cairo.CairoConfiguration;
-import io.questdb.cairo.ListColumnFilter;
-import io.questdb.cairo.RecordSink;
+import io.questdb.cairo.*;
 import io.questdb.cairo.map.Map;
 import io.questdb.cairo.sql.DelegatingRecordCursor;
 import io.questdb.cairo.sql.Function;
@@ -38,18 +35,24 @@ import io.questdb.griffin.SqlException;
 import io.questdb.griffin.SqlExecutionContext;
 import io.questdb.griffin.engine.EmptyTableRecordCursor;
 import io.questdb.griffin.engine.functions.GroupByFunction;
+import io.questdb.griffin.engine.functions.columns.TimestampColumn;
 import io.questdb.griffin.model.QueryModel;
 import io.questdb.std.BytecodeAssembler;
 import io.questdb.std.IntIntHashMap;
 import io.questdb.std.ObjList;
 import io.questdb.std.Transient;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 public class SampleByFillNoneRecordCursorFactory extends AbstractSampleByRecordCursorFactory {
     private final static SampleByCursorLambda CURSOR_LAMBDA = SampleByFillNoneRecordCursorFactory::createCursor;
+    private final ObjList<Function> parallelRecordFunctions;
+    private final SampleByFillNoneParallelRecordCursor parallelCursor;
 
     public SampleByFillNoneRecordCursorFactory(
             CairoConfiguration configuration,
+            CairoEngine engine,
+            @Nullable CairoWorkScheduler workScheduler,
             RecordCursorFactory base,
             @NotNull TimestampSampler timestampSampler,
             @Transient @NotNull QueryModel model,
@@ -73,11 +76,55 @@ public class SampleByFillNoneRecordCursorFactory extends AbstractSampleByRecordC
                 keyTypes,
                 valueTypes
         );
+
+        // tasks share group-by functions and map sink, map sink only copies columns of task record
+        if (workScheduler != null && workScheduler.getSampleByQueue() != null && isThreadSafe(groupByFunctions)) {
+            // parallel cursor reads bucket timestamp from map value
+            this.parallelRecordFunctions = new ObjList<>(recordFunctions.size());
+            this.parallelRecordFunctions.addAll(recordFunctions);
+            for (int i = 0, n = timestampFunctionIndexes.size(); i < n; i++) {
+                final int index = timestampFunctionIndexes.getQuick(i);
+                this.parallelRecordFunctions.setQuick(index, new TimestampColumn(recordFunctions.getQuick(index).getPosition(), 0));
+            }
+            this.parallelCursor = new SampleByFillNoneParallelRecordCursor(
+                    configuration,
+                    engine,
+                    workScheduler,
+                    mapSink,
+                    groupByFunctions,
+                    parallelRecordFunctions,
+                    base.getMetadata().getColumnCount(),
+                    base.getMetadata().getTimestampIndex(),
+                    timestampSampler,
+                    symbolTableIndex,
+                    keyTypes,
+                    valueTypes,
+                    asm
+            );
+        } else {
+            this.parallelRecordFunctions = null;
+            this.parallelCursor = null;
+        }
+    }
+
+    @Override
+    public void close() {
+        if (parallelCursor != null) {
+            parallelCursor.freeTasks();
+        }
+        super.close();
     }
 
     @Override
     public RecordCursor getCursor(SqlExecutionContext executionContext) {
         final RecordCursor baseCursor = base.getCursor(executionContext);
+        if (parallelCursor != null && parallelCursor.of(baseCursor, executionContext)) {
+            for (int i = 0, n = parallelRecordFunctions.size(); i < n; i++) {
+                parallelRecordFunctions.getQuick(i).init(parallelCursor, executionContext);
+            }
+            return parallelCursor;
+        }
+
         if (baseCursor.hasNext()) {
             map.clear();
             return initFunctionsAndCursor(executionContext, baseCursor);
@@ -118,4 +165,13 @@ public class SampleByFillNoneRecordCursorFactory extends AbstractSampleByRecordC
                 symbolTableIndex
         );
     }
+
+    private static boolean isThreadSafe(ObjList<GroupByFunction> groupByFunctions) {
+        for (int i = 0, n = groupByFunctions.size(); i < n; i++) {
+            if (!groupByFunctions.getQuick(i).isThreadSafe()) {
+                return false;
+            }
+        }
+        return true;
+    }
 }
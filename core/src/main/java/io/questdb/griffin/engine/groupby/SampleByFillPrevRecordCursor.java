@@ -30,6 +30,8 @@ import io.questdb.cairo.map.MapKey;
 import io.questdb.cairo.map.MapRecord;
 import io.questdb.cairo.map.MapValue;
 import io.questdb.cairo.sql.*;
+import io.questdb.griffin.SqlExecutionCircuitBreaker;
+import io.questdb.griffin.SqlExecutionContext;
 import io.questdb.griffin.engine.functions.GroupByFunction;
 import io.questdb.griffin.engine.functions.TimestampFunction;
 import io.questdb.std.IntIntHashMap;
@@ -47,6 +49,7 @@ class SampleByFillPrevRecordCursor implements DelegatingRecordCursor, NoRandomAc
     private final RecordCursor mapCursor;
     private RecordCursor base;
     private Record baseRecord;
+    private SqlExecutionCircuitBreaker circuitBreaker;
     private long lastTimestamp;
     private long nextTimestamp;
 
@@ -124,6 +127,7 @@ class SampleByFillPrevRecordCursor implements DelegatingRecordCursor, NoRandomAc
 
         int n = groupByFunctions.size();
         while (true) {
+            circuitBreaker.checkState();
             long timestamp = timestampSampler.round(baseRecord.getTimestamp(timestampIndex));
             if (lastTimestamp == timestamp) {
                 final MapKey key = map.withKey();
@@ -192,9 +196,10 @@ class SampleByFillPrevRecordCursor implements DelegatingRecordCursor, NoRandomAc
     }
 
     @Override
-    public void of(RecordCursor base) {
+    public void of(RecordCursor base, SqlExecutionContext executionContext) {
         // factory guarantees that base cursor is not empty
         this.base = base;
+        this.circuitBreaker = executionContext.getCircuitBreaker();
         this.baseRecord = base.getRecord();
         this.nextTimestamp = timestampSampler.round(baseRecord.getTimestamp(timestampIndex));
         this.lastTimestamp = this.nextTimestamp;
@@ -30,6 +30,8 @@ import io.questdb.cairo.map.MapKey;
 import io.questdb.cairo.map.MapRecord;
 import io.questdb.cairo.map.MapValue;
 import io.questdb.cairo.sql.*;
+import io.questdb.griffin.SqlExecutionCircuitBreaker;
+import io.questdb.griffin.SqlExecutionContext;
 import io.questdb.griffin.engine.functions.GroupByFunction;
 import io.questdb.griffin.engine.functions.TimestampFunction;
 import io.questdb.std.IntIntHashMap;
@@ -48,6 +50,7 @@ class SampleByFillValueRecordCursor implements DelegatingRecordCursor, NoRandomA
     private RecordCursor base;
     private RecordCursor mapCursor;
     private Record baseRecord;
+    private SqlExecutionCircuitBreaker circuitBreaker;
     private long lastTimestamp;
     private long nextTimestamp;
 
@@ -130,6 +133,7 @@ class SampleByFillValueRecordCursor implements DelegatingRecordCursor, NoRandomA
 
         int n = groupByFunctions.size();
         while (true) {
+            circuitBreaker.checkState();
             long timestamp = timestampSampler.round(baseRecord.getTimestamp(timestampIndex));
             if (lastTimestamp == timestamp) {
                 final MapKey key = map.withKey();
@@ -199,9 +203,10 @@ class SampleByFillValueRecordCursor implements DelegatingRecordCursor, NoRandomA
     }
 
     @Override
-    public void of(RecordCursor base) {
+    public void of(RecordCursor base, SqlExecutionContext executionContext) {
         // factory guarantees that base cursor is not empty
         this.base = base;
+        this.circuitBreaker = executionContext.getCircuitBreaker();
         this.baseRecord = base.getRecord();
         this.nextTimestamp = timestampSampler.round(baseRecord.getTimestamp(timestampIndex));
         this.lastTimestamp = this.nextTimestamp;
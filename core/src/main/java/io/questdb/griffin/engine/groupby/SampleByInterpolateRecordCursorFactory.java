@@ -31,6 +31,7 @@ import io.questdb.cairo.map.MapKey;
 import io.questdb.cairo.map.MapValue;
 import io.questdb.cairo.sql.*;
 import io.questdb.griffin.FunctionParser;
+import io.questdb.griffin.PlanSink;
 import io.questdb.griffin.SqlException;
 import io.questdb.griffin.SqlExecutionContext;
 import io.questdb.griffin.engine.EmptyTableRandomRecordCursor;
@@ -149,7 +150,7 @@ public class SampleByInterpolateRecordCursorFactory implements RecordCursorFacto
 
         this.timestampIndex = metadata.getTimestampIndex();
         this.yDataSize = groupByFunctions.size() * 16;
-        this.yData = Unsafe.malloc(yDataSize);
+        this.yData = Unsafe.malloc(yDataSize, MemoryTag.NATIVE_SQL);
 
         // sink will be storing record columns to map key
         this.mapSink = RecordSinkFactory.getInstance(asm, metadata, listColumnFilter, false);
@@ -412,7 +413,7 @@ public class SampleByInterpolateRecordCursorFactory implements RecordCursorFacto
 
     private void freeYData() {
         if (yData != 0) {
-            Unsafe.free(yData, yDataSize);
+            Unsafe.free(yData, yDataSize, MemoryTag.NATIVE_SQL);
             yData = 0;
         }
     }
@@ -460,6 +461,12 @@ public class SampleByInterpolateRecordCursorFactory implements RecordCursorFacto
 
     }
 
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.type(this).attr("functions").val(groupByFunctions);
+        sink.child(base);
+    }
+
     private static class SampleByInterpolatedRecordCursor implements RecordCursor {
         private final VirtualRecord functionRecord;
         private final IntIntHashMap symbolTableIndex;
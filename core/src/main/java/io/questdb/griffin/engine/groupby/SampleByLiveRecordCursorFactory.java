@@ -0,0 +1,323 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.groupby;
+
+import io.questdb.cairo.*;
+import io.questdb.cairo.map.*;
+import io.questdb.cairo.sql.*;
+import io.questdb.griffin.FunctionParser;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.EmptyTableRecordCursor;
+import io.questdb.griffin.engine.functions.GroupByFunction;
+import io.questdb.griffin.engine.functions.columns.TimestampColumn;
+import io.questdb.griffin.engine.table.SelectedRecord;
+import io.questdb.griffin.model.QueryModel;
+import io.questdb.std.*;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * SAMPLE BY FILL(NONE) that keeps aggregation state between cursors. Every call to
+ * {@link #getCursor(SqlExecutionContext)} consumes only rows appended since previous call. Table reader
+ * is taken from the pool for the lifetime of the cursor, between calls factory keeps only id of last
+ * consumed row and data version of the table. Cursor returns buckets that changed, which are the last bucket
+ * of previous call and buckets created by new rows. Older buckets are discarded from the map, rows
+ * are assumed to be appended in timestamp order.
+ * <p>
+ * Factory is stateful and must not be shared between concurrent clients.
+ */
+public class SampleByLiveRecordCursorFactory implements RecordCursorFactory {
+    private final CairoEngine engine;
+    private final RecordCursorFactory base;
+    private final String tableName;
+    private final long tableVersion;
+    private final TableReaderRecordCursor readerCursor = new TableReaderRecordCursor();
+    private final Record baseRecord;
+    private final IntList columnCrossIndex;
+    private final TimestampSampler timestampSampler;
+    private final int timestampIndex;
+    private final ObjList<Function> recordFunctions;
+    private final ObjList<GroupByFunction> groupByFunctions;
+    private final RecordSink mapSink;
+    private final RecordSink keyCopier;
+    private final RecordValueSink valueCopier;
+    private final IntIntHashMap symbolTableIndex = new IntIntHashMap();
+    private final RecordMetadata metadata;
+    private final LiveRecordCursor cursor = new LiveRecordCursor();
+    private final VirtualRecord record;
+    private Map map;
+    private Map spareMap;
+    private long dataVersion = -1;
+    private long txn = -1;
+    private long lastRowId = -1;
+    private long lastBucketTimestamp = Numbers.LONG_NaN;
+
+    public SampleByLiveRecordCursorFactory(
+            CairoConfiguration configuration,
+            CairoEngine engine,
+            RecordCursorFactory base,
+            String tableName,
+            long tableVersion,
+            @Nullable IntList columnCrossIndex,
+            @NotNull TimestampSampler timestampSampler,
+            @Transient @NotNull QueryModel model,
+            @Transient @NotNull ListColumnFilter listColumnFilter,
+            @Transient @NotNull FunctionParser functionParser,
+            @Transient @NotNull SqlExecutionContext executionContext,
+            @Transient @NotNull BytecodeAssembler asm,
+            @Transient @NotNull ArrayColumnTypes keyTypes,
+            @Transient @NotNull ArrayColumnTypes valueTypes
+    ) throws SqlException {
+        final int columnCount = model.getColumns().size();
+        final RecordMetadata metadata = base.getMetadata();
+        this.groupByFunctions = new ObjList<>(columnCount);
+        valueTypes.add(ColumnType.TIMESTAMP); // first value is always timestamp
+
+        GroupByUtils.prepareGroupByFunctions(
+                model,
+                metadata,
+                functionParser,
+                executionContext,
+                groupByFunctions,
+                valueTypes
+        );
+
+        this.recordFunctions = new ObjList<>(columnCount);
+        final GenericRecordMetadata groupByMetadata = new GenericRecordMetadata();
+
+        GroupByUtils.prepareGroupByRecordFunctions(
+                model,
+                metadata,
+                listColumnFilter,
+                groupByFunctions,
+                recordFunctions,
+                groupByMetadata,
+                keyTypes,
+                valueTypes.getColumnCount(),
+                symbolTableIndex,
+                false
+        );
+
+        // timestamp of bucket is stored in value field 0
+        for (int i = 0, n = recordFunctions.size(); i < n; i++) {
+            if (recordFunctions.getQuick(i) == null) {
+                recordFunctions.setQuick(i, new TimestampColumn(0, 0));
+            }
+        }
+
+        final int keyCount = keyTypes.getColumnCount();
+        final int valueCount = valueTypes.getColumnCount();
+
+        // buckets live side by side in the map, hence bucket timestamp is part of the key
+        final ArrayColumnTypes mapKeyTypes = new ArrayColumnTypes();
+        for (int i = 0; i < keyCount; i++) {
+            mapKeyTypes.add(keyTypes.getColumnType(i));
+        }
+        mapKeyTypes.add(ColumnType.TIMESTAMP);
+
+        // map record exposes values first and keys after them, copiers use this layout
+        // to move retained bucket from one map to another
+        final ArrayColumnTypes mapRecordTypes = new ArrayColumnTypes();
+        final ListColumnFilter valueFilter = new ListColumnFilter();
+        for (int i = 0; i < valueCount; i++) {
+            mapRecordTypes.add(valueTypes.getColumnType(i));
+            valueFilter.add(i);
+        }
+        final ListColumnFilter keyFilter = new ListColumnFilter();
+        for (int i = 0, n = mapKeyTypes.getColumnCount(); i < n; i++) {
+            mapRecordTypes.add(mapKeyTypes.getColumnType(i));
+            keyFilter.add(valueCount + i);
+        }
+
+        this.mapSink = RecordSinkFactory.getInstance(asm, metadata, listColumnFilter, false);
+        this.keyCopier = RecordSinkFactory.getInstance(asm, mapRecordTypes, keyFilter, false);
+        this.valueCopier = RecordValueSinkFactory.getInstance(asm, mapRecordTypes, valueFilter);
+        this.map = MapFactory.createMap(configuration, mapKeyTypes, valueTypes);
+        try {
+            this.spareMap = MapFactory.createMap(configuration, mapKeyTypes, valueTypes);
+        } catch (CairoException e) {
+            map.close();
+            throw e;
+        }
+        this.engine = engine;
+        this.base = base;
+        this.tableName = tableName;
+        this.tableVersion = tableVersion;
+        this.columnCrossIndex = columnCrossIndex;
+        if (columnCrossIndex == null) {
+            this.baseRecord = readerCursor.getRecord();
+        } else {
+            SelectedRecord selectedRecord = new SelectedRecord(columnCrossIndex);
+            selectedRecord.of(readerCursor.getRecord());
+            this.baseRecord = selectedRecord;
+        }
+        this.timestampSampler = timestampSampler;
+        this.timestampIndex = metadata.getTimestampIndex();
+        this.metadata = groupByMetadata;
+        this.record = new VirtualRecordNoRowid(recordFunctions);
+    }
+
+    @Override
+    public void close() {
+        for (int i = 0, n = recordFunctions.size(); i < n; i++) {
+            recordFunctions.getQuick(i).close();
+        }
+        // returns reader to the pool when cursor was not closed
+        Misc.free(readerCursor);
+        map = Misc.free(map);
+        spareMap = Misc.free(spareMap);
+        base.close();
+    }
+
+    @Override
+    public RecordCursor getCursor(SqlExecutionContext executionContext) {
+        final TableReader reader = engine.getReader(executionContext.getCairoSecurityContext(), tableName, tableVersion);
+        if (reader.getVersion() != tableVersion) {
+            reader.close();
+            throw ReaderOutOfDateException.INSTANCE;
+        }
+
+        if (reader.getDataVersion() != dataVersion) {
+            // table has been truncated, start from the top
+            map.clear();
+            lastBucketTimestamp = Numbers.LONG_NaN;
+            lastRowId = -1;
+            dataVersion = reader.getDataVersion();
+        } else if (reader.getTxn() == txn) {
+            reader.close();
+            return EmptyTableRecordCursor.INSTANCE;
+        } else {
+            retainLastBucket();
+        }
+
+        readerCursor.of(reader);
+        if (lastRowId > -1) {
+            readerCursor.startFrom(lastRowId);
+        }
+        txn = reader.getTxn();
+
+        final int n = groupByFunctions.size();
+        final Record readerRecord = readerCursor.getRecord();
+        while (readerCursor.hasNext()) {
+            lastRowId = readerRecord.getRowId();
+            final long timestamp = timestampSampler.round(baseRecord.getTimestamp(timestampIndex));
+            final MapKey key = map.withKey();
+            mapSink.copy(baseRecord, key);
+            key.putTimestamp(timestamp);
+            final MapValue value = key.createValue();
+            if (value.isNew()) {
+                value.putLong(0, timestamp);
+            }
+            GroupByUtils.updateFunctions(groupByFunctions, n, value, baseRecord);
+            lastBucketTimestamp = timestamp;
+        }
+
+        if (map.size() == 0) {
+            readerCursor.close();
+            return EmptyTableRecordCursor.INSTANCE;
+        }
+
+        cursor.of(map.getCursor());
+        for (int i = 0, m = recordFunctions.size(); i < m; i++) {
+            recordFunctions.getQuick(i).init(cursor, executionContext);
+        }
+        return cursor;
+    }
+
+    @Override
+    public RecordMetadata getMetadata() {
+        return metadata;
+    }
+
+    @Override
+    public boolean isRandomAccessCursor() {
+        return false;
+    }
+
+    private void retainLastBucket() {
+        spareMap.clear();
+        final RecordCursor mapCursor = map.getCursor();
+        final MapRecord mapRecord = map.getRecord();
+        while (mapCursor.hasNext()) {
+            if (mapRecord.getTimestamp(0) == lastBucketTimestamp) {
+                final MapKey key = spareMap.withKey();
+                keyCopier.copy(mapRecord, key);
+                valueCopier.copy(mapRecord, key.createValue());
+            }
+        }
+        final Map tmp = map;
+        map = spareMap;
+        spareMap = tmp;
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.type(this);
+        sink.child(base);
+    }
+
+    private class LiveRecordCursor implements NoRandomAccessRecordCursor {
+        private RecordCursor mapCursor;
+
+        @Override
+        public void close() {
+            // map is owned by factory and survives cursor, reader goes back to the pool
+            readerCursor.close();
+        }
+
+        @Override
+        public Record getRecord() {
+            return record;
+        }
+
+        @Override
+        public SymbolTable getSymbolTable(int columnIndex) {
+            final int baseIndex = symbolTableIndex.get(columnIndex);
+            return readerCursor.getSymbolTable(columnCrossIndex == null ? baseIndex : columnCrossIndex.getQuick(baseIndex));
+        }
+
+        @Override
+        public boolean hasNext() {
+            return mapCursor.hasNext();
+        }
+
+        @Override
+        public long size() {
+            return -1;
+        }
+
+        @Override
+        public void toTop() {
+            mapCursor.toTop();
+        }
+
+        private void of(RecordCursor mapCursor) {
+            this.mapCursor = mapCursor;
+            record.of(map.getRecord());
+        }
+    }
+}
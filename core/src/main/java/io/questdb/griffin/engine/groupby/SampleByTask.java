@@ -0,0 +1,231 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.groupby;
+
+import io.questdb.cairo.RecordSink;
+import io.questdb.cairo.TableReader;
+import io.questdb.cairo.TableReaderRecord;
+import io.questdb.cairo.map.Map;
+import io.questdb.cairo.map.MapKey;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.griffin.engine.functions.GroupByFunction;
+import io.questdb.griffin.engine.table.SelectedRecord;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.mp.SOCountDownLatch;
+import io.questdb.std.IntList;
+import io.questdb.std.LongList;
+import io.questdb.std.Misc;
+import io.questdb.std.ObjList;
+import io.questdb.std.Unsafe;
+
+import java.io.Closeable;
+
+/**
+ * Aggregates rows of consecutive data frames into map keyed by SAMPLE BY keys and bucket timestamp.
+ * Frames are split between tasks on bucket boundaries, unless group-by functions can merge partial
+ * values. In the latter case bucket may be shared by consecutive tasks and the consumer merges task
+ * maps. Task is computed either by worker or by the thread that consumes its map, whichever locks
+ * it first.
+ * <p>
+ * Group-by functions and map sink are shared by all tasks of a cursor, therefore only thread-safe
+ * functions, see {@link io.questdb.cairo.sql.Function#isThreadSafe()}, are computed in parallel.
+ */
+public class SampleByTask implements Closeable {
+    private static final Log LOG = LogFactory.getLog(SampleByTask.class);
+    private static final long SEQUENCE_OFFSET;
+
+    static {
+        SEQUENCE_OFFSET = Unsafe.getFieldOffset(SampleByTask.class, "sequence");
+    }
+
+    // partition index, row lo and row hi of each frame
+    private final LongList frames = new LongList();
+    private final TableReaderRecord tableRecord = new TableReaderRecord();
+    // presents table columns in order of base cursor, which is what map sink and functions expect
+    private final SelectedRecord record;
+    private final SOCountDownLatch latch = new SOCountDownLatch();
+    private final Map map;
+    private final RecordSink mapSink;
+    private final ObjList<GroupByFunction> groupByFunctions;
+    private final TimestampSampler timestampSampler;
+    private final int timestampIndex;
+    private TableReader reader;
+    private int partitionCount;
+    private long minPartitionTimestamp;
+    private long rowCount;
+    private long lockSequence;
+    @SuppressWarnings({"unused", "FieldCanBeLocal"})
+    private volatile long sequence = 0L;
+    private volatile boolean failed = false;
+
+    SampleByTask(
+            Map map,
+            RecordSink mapSink,
+            ObjList<GroupByFunction> groupByFunctions,
+            TimestampSampler timestampSampler,
+            int timestampIndex,
+            IntList columnCrossIndex
+    ) {
+        this.record = new SelectedRecord(columnCrossIndex);
+        this.record.of(tableRecord);
+        this.map = map;
+        this.mapSink = mapSink;
+        this.groupByFunctions = groupByFunctions;
+        this.timestampSampler = timestampSampler;
+        this.timestampIndex = timestampIndex;
+    }
+
+    @Override
+    public void close() {
+        clear();
+        Misc.free(map);
+    }
+
+    void addFrame(int partitionIndex, long rowLo, long rowHi) {
+        frames.add(partitionIndex);
+        frames.add(rowLo);
+        frames.add(rowHi);
+        rowCount += rowHi - rowLo;
+    }
+
+    /**
+     * Aggregates task frames using given reader. Reader must be used by current thread only.
+     *
+     * @param reader reader of the table frames were taken from
+     */
+    void aggregate(TableReader reader) {
+        map.clear();
+        tableRecord.of(reader);
+        final int n = groupByFunctions.size();
+        for (int i = 0, m = frames.size(); i < m; i += 3) {
+            final int partitionIndex = (int) frames.getQuick(i);
+            final long rowHi = frames.getQuick(i + 2);
+            tableRecord.jumpTo(partitionIndex, frames.getQuick(i + 1));
+            for (long row = frames.getQuick(i + 1); row < rowHi; row++) {
+                tableRecord.setRecordIndex(row);
+                final long timestamp = timestampSampler.round(record.getTimestamp(timestampIndex));
+                final MapKey key = map.withKey();
+                mapSink.copy(record, key);
+                // bucket timestamp is the last key column, it does not shift indexes of SAMPLE BY keys
+                key.putTimestamp(timestamp);
+                final MapValue value = key.createValue();
+                if (value.isNew()) {
+                    // timestamp is always stored in value field 0
+                    value.putLong(0, timestamp);
+                }
+                GroupByUtils.updateFunctions(groupByFunctions, n, value, record);
+            }
+        }
+    }
+
+    /**
+     * Aggregates frames using reader of this task. Failure to do so is not propagated, task is
+     * marked failed instead and is expected to be recomputed by the consumer.
+     */
+    void aggregateAndCountDown() {
+        try {
+            if (isCompatible()) {
+                aggregate(reader);
+            } else {
+                failed = true;
+            }
+        } catch (Throwable e) {
+            failed = true;
+            LOG.error().$("sample by task failed [table=").$(reader.getTableName()).$(", e=").$(e).$(']').$();
+        } finally {
+            latch.countDown();
+        }
+    }
+
+    void await() {
+        latch.await();
+    }
+
+    void clear() {
+        frames.clear();
+        rowCount = 0;
+        failed = false;
+        reader = Misc.free(reader);
+    }
+
+    Map getMap() {
+        return map;
+    }
+
+    long getRowCount() {
+        return rowCount;
+    }
+
+    long getLockSequence() {
+        return lockSequence;
+    }
+
+    boolean hasReader() {
+        return reader != null;
+    }
+
+    boolean isFailed() {
+        return failed;
+    }
+
+    void of(TableReader reader, TableReader sourceReader) {
+        this.reader = reader;
+        this.partitionCount = sourceReader.getPartitionCount();
+        this.minPartitionTimestamp = sourceReader.floorToPartitionTimestamp(sourceReader.getMinTimestamp());
+        this.failed = false;
+        this.lockSequence = sequence;
+        this.latch.setCount(1);
+    }
+
+    /**
+     * Locks task for computation by current thread.
+     *
+     * @return false when task is already locked by another thread
+     */
+    boolean tryLock() {
+        return tryLock(lockSequence);
+    }
+
+    boolean tryLock(long expectedSequence) {
+        return Unsafe.cas(this, SEQUENCE_OFFSET, expectedSequence, expectedSequence + 1);
+    }
+
+    private boolean isCompatible() {
+        // task reader is acquired separately from the reader frames were taken from,
+        // partitions must be the same and must have at least as many rows
+        if (reader.getPartitionCount() < partitionCount
+                || reader.floorToPartitionTimestamp(reader.getMinTimestamp()) != minPartitionTimestamp) {
+            return false;
+        }
+
+        for (int i = 0, m = frames.size(); i < m; i += 3) {
+            if (reader.openPartition((int) frames.getQuick(i)) < frames.getQuick(i + 2)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
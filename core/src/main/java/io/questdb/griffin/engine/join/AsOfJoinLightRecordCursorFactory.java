@@ -33,6 +33,7 @@ import io.questdb.cairo.map.MapFactory;
 import io.questdb.cairo.map.MapKey;
 import io.questdb.cairo.map.MapValue;
 import io.questdb.cairo.sql.*;
+import io.questdb.griffin.PlanSink;
 import io.questdb.griffin.SqlExecutionContext;
 import io.questdb.std.Misc;
 import io.questdb.std.Numbers;
@@ -95,6 +96,13 @@ public class AsOfJoinLightRecordCursorFactory extends AbstractRecordCursorFactor
         return false;
     }
 
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.type(this);
+        sink.child(masterFactory);
+        sink.child(slaveFactory);
+    }
+
     private class AsOfLightJoinRecordCursor implements NoRandomAccessRecordCursor {
         private final OuterJoinRecord record;
         private final Map joinKeyMap;
@@ -26,6 +26,7 @@ package io.questdb.griffin.engine.join;
 
 import io.questdb.cairo.AbstractRecordCursorFactory;
 import io.questdb.cairo.sql.*;
+import io.questdb.griffin.PlanSink;
 import io.questdb.griffin.SqlExecutionContext;
 import io.questdb.std.Misc;
 
@@ -73,6 +74,13 @@ public class AsOfJoinNoKeyRecordCursorFactory extends AbstractRecordCursorFactor
         return false;
     }
 
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.type(this);
+        sink.child(masterFactory);
+        sink.child(slaveFactory);
+    }
+
     private static class AsOfLightJoinRecordCursor implements NoRandomAccessRecordCursor {
         private final OuterJoinRecord record;
         private final int columnSplit;
@@ -82,8 +90,11 @@ public class AsOfJoinNoKeyRecordCursorFactory extends AbstractRecordCursorFactor
         private RecordCursor slaveCursor;
         private Record masterRecord;
         private Record slaveRecord;
+        // slave record joined to master, slaveRecord itself is used to read ahead
+        private Record joinedSlaveRecord;
         private long slaveTimestamp = Long.MIN_VALUE;
         private long lastSlaveRowID = Long.MIN_VALUE;
+        private boolean slaveAtTop = true;
 
         public AsOfLightJoinRecordCursor(int columnSplit, Record nullRecord, int masterTimestampIndex, int slaveTimestampIndex) {
             this.record = new OuterJoinRecord(columnSplit, nullRecord);
@@ -117,9 +128,19 @@ public class AsOfJoinNoKeyRecordCursorFactory extends AbstractRecordCursorFactor
             long lastRowId = lastSlaveRowID;
             if (masterCursor.hasNext()) {
                 final long masterTimestamp = masterRecord.getTimestamp(masterTimestampIndex);
+                if (slaveAtTop) {
+                    // only the last slave row at or before first master row can be joined,
+                    // rows preceding it are skipped by cursors that are able to
+                    slaveCursor.skipToTimestamp(masterTimestamp);
+                    slaveAtTop = false;
+                }
                 long slaveTimestamp = this.slaveTimestamp;
 
                 if (slaveTimestamp <= masterTimestamp) {
+                    if (slaveTimestamp != Long.MIN_VALUE) {
+                        // dangling slave record is a match now
+                        lastRowId = slaveRecord.getRowId();
+                    }
                     while (slaveCursor.hasNext()) {
                         slaveTimestamp = slaveRecord.getTimestamp(slaveTimestampIndex);
                         if (slaveTimestamp > masterTimestamp) {
@@ -136,7 +157,7 @@ public class AsOfJoinNoKeyRecordCursorFactory extends AbstractRecordCursorFactor
                     record.hasSlave(false);
                 } else {
                     record.hasSlave(true);
-                    slaveCursor.recordAt(lastSlaveRowID);
+                    slaveCursor.recordAt(joinedSlaveRecord, lastSlaveRowID);
                 }
                 return true;
             }
@@ -147,6 +168,7 @@ public class AsOfJoinNoKeyRecordCursorFactory extends AbstractRecordCursorFactor
         public void toTop() {
             slaveTimestamp = Long.MIN_VALUE;
             lastSlaveRowID = Long.MIN_VALUE;
+            slaveAtTop = true;
             masterCursor.toTop();
             slaveCursor.toTop();
         }
@@ -159,11 +181,13 @@ public class AsOfJoinNoKeyRecordCursorFactory extends AbstractRecordCursorFactor
         private void of(RecordCursor masterCursor, RecordCursor slaveCursor) {
             slaveTimestamp = Long.MIN_VALUE;
             lastSlaveRowID = Long.MIN_VALUE;
+            slaveAtTop = true;
             this.masterCursor = masterCursor;
             this.slaveCursor = slaveCursor;
             this.masterRecord = masterCursor.getRecord();
             this.slaveRecord = slaveCursor.getRecord();
-            record.of(masterRecord, slaveRecord);
+            this.joinedSlaveRecord = slaveCursor.newRecord();
+            record.of(masterRecord, joinedSlaveRecord);
         }
     }
 }
@@ -30,6 +30,8 @@ import io.questdb.cairo.map.MapFactory;
 import io.questdb.cairo.map.MapKey;
 import io.questdb.cairo.map.MapValue;
 import io.questdb.cairo.sql.*;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlExecutionCircuitBreaker;
 import io.questdb.griffin.SqlExecutionContext;
 import io.questdb.std.Misc;
 import io.questdb.std.Transient;
@@ -42,6 +44,9 @@ public class HashJoinLightRecordCursorFactory extends AbstractRecordCursorFactor
     private final RecordSink masterKeySink;
     private final RecordSink slaveKeySink;
     private final HashJoinRecordCursor cursor;
+    private final HashJoinSpill spill;
+    private final JoinKeyFilter keyFilter;
+    private final long memoryBudget;
 
     public HashJoinLightRecordCursorFactory(
             CairoConfiguration configuration,
@@ -52,6 +57,8 @@ public class HashJoinLightRecordCursorFactory extends AbstractRecordCursorFactor
             @Transient ColumnTypes valueTypes, // this expected to be just LONG, we store chain references in map
             RecordSink masterKeySink,
             RecordSink slaveKeySink,
+            RecordSink masterChainSink,
+            int masterSymbolColumnIndex,
             int columnSplit
 
     ) {
@@ -63,12 +70,34 @@ public class HashJoinLightRecordCursorFactory extends AbstractRecordCursorFactor
         this.masterKeySink = masterKeySink;
         this.slaveKeySink = slaveKeySink;
         this.cursor = new HashJoinRecordCursor(columnSplit, joinKeyMap, slaveChain);
+        // slave records are random access, slave partitions need only row ids
+        this.spill = new HashJoinSpill(configuration, masterFactory.getMetadata(), masterChainSink, HashJoinSpill.ROW_ID_TYPES, HashJoinSpill.ROW_ID_SINK);
+        this.keyFilter = new JoinKeyFilter(masterSymbolColumnIndex);
+        this.memoryBudget = configuration.getSqlHashJoinMemoryBudget();
+    }
+
+    /**
+     * @return true when key of the record was not in the map before
+     */
+    static boolean putRecord(Map joinKeyMap, LongChain chain, Record record, RecordSink keySink, long value) {
+        MapKey key = joinKeyMap.withKey();
+        key.put(record, keySink);
+        MapValue mapValue = key.createValue();
+        if (mapValue.isNew()) {
+            final long offset = chain.put(value, -1);
+            mapValue.putLong(0, offset);
+            mapValue.putLong(1, offset);
+            return true;
+        }
+        mapValue.putLong(1, chain.put(value, mapValue.getLong(1)));
+        return false;
     }
 
     @Override
     public void close() {
         joinKeyMap.close();
         slaveChain.close();
+        spill.close();
         ((JoinRecordMetadata) getMetadata()).close();
         masterFactory.close();
         slaveFactory.close();
@@ -77,13 +106,18 @@ public class HashJoinLightRecordCursorFactory extends AbstractRecordCursorFactor
     @Override
     public RecordCursor getCursor(SqlExecutionContext executionContext) {
         RecordCursor slaveCursor = slaveFactory.getCursor(executionContext);
+        final boolean inMemory;
         try {
-            buildMapOfSlaveRecords(slaveCursor);
+            inMemory = buildMapOfSlaveRecords(slaveCursor, executionContext.getCircuitBreaker());
         } catch (CairoException e) {
             slaveCursor.close();
             throw e;
         }
-        cursor.of(masterFactory.getCursor(executionContext), slaveCursor);
+        if (inMemory) {
+            cursor.of(masterFactory.getCursor(executionContext), slaveCursor);
+        } else {
+            cursor.ofSpill(masterFactory.getCursor(executionContext), slaveCursor);
+        }
         return cursor;
     }
 
@@ -92,22 +126,30 @@ public class HashJoinLightRecordCursorFactory extends AbstractRecordCursorFactor
         return false;
     }
 
-    private void buildMapOfSlaveRecords(RecordCursor slaveCursor) {
+    private boolean buildMapOfSlaveRecords(RecordCursor slaveCursor, SqlExecutionCircuitBreaker circuitBreaker) {
         slaveChain.clear();
         joinKeyMap.clear();
+        keyFilter.clear();
         final Record record = slaveCursor.getRecord();
         while (slaveCursor.hasNext()) {
-            MapKey key = joinKeyMap.withKey();
-            key.put(record, slaveKeySink);
-            MapValue value = key.createValue();
-            if (value.isNew()) {
-                final long offset = slaveChain.put(record.getRowId(), -1);
-                value.putLong(0, offset);
-                value.putLong(1, offset);
-            } else {
-                value.putLong(1, slaveChain.put(record.getRowId(), value.getLong(1)));
+            circuitBreaker.checkState();
+            if (putRecord(joinKeyMap, slaveChain, record, slaveKeySink, record.getRowId())) {
+                keyFilter.add(record, slaveKeySink);
+            }
+            if (joinKeyMap.getMemUsed() + slaveChain.getMemUsed() > memoryBudget) {
+                keyFilter.clear();
+                return false;
             }
         }
+        keyFilter.build();
+        return true;
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.type(this);
+        sink.child(masterFactory);
+        sink.child(slaveFactory);
     }
 
     private class HashJoinRecordCursor implements NoRandomAccessRecordCursor {
@@ -131,6 +173,7 @@ public class HashJoinLightRecordCursorFactory extends AbstractRecordCursorFactor
         public void close() {
             masterCursor = Misc.free(masterCursor);
             slaveCursor = Misc.free(slaveCursor);
+            spill.clear();
         }
 
         @Override
@@ -153,17 +196,19 @@ public class HashJoinLightRecordCursorFactory extends AbstractRecordCursorFactor
 
         @Override
         public boolean hasNext() {
+            if (spill.isOpen()) {
+                return nextPartitioned();
+            }
+
             if (slaveChainCursor != null && slaveChainCursor.hasNext()) {
                 slaveCursor.recordAt(slaveChainCursor.next());
                 return true;
             }
 
             while (masterCursor.hasNext()) {
-                MapKey key = joinKeyMap.withKey();
-                key.put(masterRecord, masterKeySink);
-                MapValue value = key.findValue();
-                if (value != null) {
-                    slaveChainCursor = slaveChain.getCursor(value.getLong(0));
+                final long chain = keyFilter.findChain(joinKeyMap, masterRecord, masterKeySink);
+                if (chain != JoinKeyFilter.NO_CHAIN) {
+                    slaveChainCursor = slaveChain.getCursor(chain);
                     // we know cursor has values
                     // advance to get first value
                     slaveChainCursor.hasNext();
@@ -176,10 +221,51 @@ public class HashJoinLightRecordCursorFactory extends AbstractRecordCursorFactor
 
         @Override
         public void toTop() {
-            masterCursor.toTop();
+            if (spill.isOpen()) {
+                spill.toTopMatches();
+            } else {
+                masterCursor.toTop();
+            }
             slaveChainCursor = null;
         }
 
+        private void matchPartition(int partition) {
+            joinKeyMap.clear();
+            slaveChain.clear();
+            final RecordChain slavePartition = spill.getSlavePartition(partition);
+            final Record rowIdRecord = slavePartition.getRecord();
+            final Record slaveRecord = slaveCursor.getRecord();
+            while (slavePartition.hasNext()) {
+                final long rowId = rowIdRecord.getLong(0);
+                slaveCursor.recordAt(rowId);
+                putRecord(joinKeyMap, slaveChain, slaveRecord, slaveKeySink, rowId);
+            }
+
+            final RecordChain masterPartition = spill.getMasterPartition(partition);
+            final Record masterRecord = masterPartition.getRecord();
+            while (masterPartition.hasNext()) {
+                MapKey key = joinKeyMap.withKey();
+                key.put(masterRecord, masterKeySink);
+                MapValue value = key.findValue();
+                if (value != null) {
+                    final LongChain.TreeCursor chainCursor = slaveChain.getCursor(value.getLong(0));
+                    while (chainCursor.hasNext()) {
+                        spill.putMatch(partition, chainCursor.next());
+                    }
+                }
+            }
+        }
+
+        private boolean nextPartitioned() {
+            final int partition = spill.nextMatch();
+            if (partition == -1) {
+                return false;
+            }
+            slaveCursor.recordAt(spill.getMatchSlave());
+            record.of(spill.getMasterRecord(partition), slaveCursor.getRecord());
+            return true;
+        }
+
         void of(RecordCursor masterCursor, RecordCursor slaveCursor) {
             this.masterCursor = masterCursor;
             this.slaveCursor = slaveCursor;
@@ -188,5 +274,27 @@ public class HashJoinLightRecordCursorFactory extends AbstractRecordCursorFactor
             record.of(masterRecord, slaveRecord);
             slaveChainCursor = null;
         }
+
+        void ofSpill(RecordCursor masterCursor, RecordCursor slaveCursor) {
+            this.masterCursor = masterCursor;
+            this.slaveCursor = slaveCursor;
+            // in-memory build side is incomplete, release it and partition both sides
+            slaveChain.clear();
+            joinKeyMap.clear();
+            try {
+                spill.of(masterCursor, masterKeySink, slaveCursor, slaveKeySink);
+                // partitions are joined up front, rows are returned in master order
+                for (int i = 0, n = spill.getPartitionCount(); i < n; i++) {
+                    matchPartition(i);
+                }
+            } catch (CairoException e) {
+                close();
+                throw e;
+            }
+            joinKeyMap.clear();
+            slaveChain.clear();
+            spill.toTopMatches();
+            slaveChainCursor = null;
+        }
     }
 }
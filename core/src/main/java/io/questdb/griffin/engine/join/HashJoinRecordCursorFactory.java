@@ -30,6 +30,8 @@ import io.questdb.cairo.map.MapFactory;
 import io.questdb.cairo.map.MapKey;
 import io.questdb.cairo.map.MapValue;
 import io.questdb.cairo.sql.*;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlExecutionCircuitBreaker;
 import io.questdb.griffin.SqlExecutionContext;
 import io.questdb.std.Misc;
 import io.questdb.std.Transient;
@@ -42,6 +44,11 @@ public class HashJoinRecordCursorFactory extends AbstractRecordCursorFactory {
     private final RecordSink masterSink;
     private final RecordSink slaveKeySink;
     private final HashJoinRecordCursor cursor;
+    private final HashJoinSpill spill;
+    // offsets of slave records in current spill partition
+    private final LongChain partitionChain;
+    private final JoinKeyFilter keyFilter;
+    private final long memoryBudget;
 
     public HashJoinRecordCursorFactory(
             CairoConfiguration configuration,
@@ -52,7 +59,9 @@ public class HashJoinRecordCursorFactory extends AbstractRecordCursorFactory {
             @Transient ColumnTypes valueTypes, // this expected to be just LONG, we store chain references in map
             RecordSink masterSink,
             RecordSink slaveKeySink,
+            RecordSink masterChainSink,
             RecordSink slaveChainSink,
+            int masterSymbolColumnIndex,
             int columnSplit
 
     ) {
@@ -64,12 +73,18 @@ public class HashJoinRecordCursorFactory extends AbstractRecordCursorFactory {
         this.masterSink = masterSink;
         this.slaveKeySink = slaveKeySink;
         this.cursor = new HashJoinRecordCursor(columnSplit, joinKeyMap, slaveChain);
+        this.spill = new HashJoinSpill(configuration, masterFactory.getMetadata(), masterChainSink, slaveFactory.getMetadata(), slaveChainSink);
+        this.partitionChain = new LongChain(configuration.getSqlHashJoinLightValuePageSize());
+        this.keyFilter = new JoinKeyFilter(masterSymbolColumnIndex);
+        this.memoryBudget = configuration.getSqlHashJoinMemoryBudget();
     }
 
     @Override
     public void close() {
         joinKeyMap.close();
         slaveChain.close();
+        spill.close();
+        partitionChain.close();
         ((JoinRecordMetadata) getMetadata()).close();
         masterFactory.close();
         slaveFactory.close();
@@ -78,13 +93,18 @@ public class HashJoinRecordCursorFactory extends AbstractRecordCursorFactory {
     @Override
     public RecordCursor getCursor(SqlExecutionContext executionContext) {
         RecordCursor slaveCursor = slaveFactory.getCursor(executionContext);
+        final boolean inMemory;
         try {
-            buildMapOfSlaveRecords(slaveCursor);
+            inMemory = buildMapOfSlaveRecords(slaveCursor, executionContext.getCircuitBreaker());
         } catch (CairoException e) {
             slaveCursor.close();
             throw e;
         }
-        cursor.of(masterFactory.getCursor(executionContext), slaveCursor);
+        if (inMemory) {
+            cursor.of(masterFactory.getCursor(executionContext), slaveCursor);
+        } else {
+            cursor.ofSpill(masterFactory.getCursor(executionContext), slaveCursor);
+        }
         return cursor;
     }
 
@@ -93,8 +113,15 @@ public class HashJoinRecordCursorFactory extends AbstractRecordCursorFactory {
         return false;
     }
 
-    private void buildMapOfSlaveRecords(RecordCursor slaveCursor) {
-        HashOuterJoinRecordCursorFactory.buildMap(slaveCursor, slaveCursor.getRecord(), joinKeyMap, slaveKeySink, slaveChain);
+    private boolean buildMapOfSlaveRecords(RecordCursor slaveCursor, SqlExecutionCircuitBreaker circuitBreaker) {
+        return HashOuterJoinRecordCursorFactory.buildMap(slaveCursor, slaveCursor.getRecord(), joinKeyMap, slaveKeySink, slaveChain, memoryBudget, keyFilter, circuitBreaker);
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.type(this);
+        sink.child(masterFactory);
+        sink.child(slaveFactory);
     }
 
     private class HashJoinRecordCursor implements NoRandomAccessRecordCursor {
@@ -118,6 +145,7 @@ public class HashJoinRecordCursorFactory extends AbstractRecordCursorFactory {
         public void close() {
             masterCursor = Misc.free(masterCursor);
             slaveCursor = Misc.free(slaveCursor);
+            spill.clear();
         }
 
         @Override
@@ -140,16 +168,18 @@ public class HashJoinRecordCursorFactory extends AbstractRecordCursorFactory {
 
         @Override
         public boolean hasNext() {
+            if (spill.isOpen()) {
+                return nextPartitioned();
+            }
+
             if (useSlaveCursor && slaveChain.hasNext()) {
                 return true;
             }
 
             while (masterCursor.hasNext()) {
-                MapKey key = joinKeyMap.withKey();
-                key.put(masterRecord, masterSink);
-                MapValue value = key.findValue();
-                if (value != null) {
-                    slaveChain.of(value.getLong(0));
+                final long chain = keyFilter.findChain(joinKeyMap, masterRecord, masterSink);
+                if (chain != JoinKeyFilter.NO_CHAIN) {
+                    slaveChain.of(chain);
                     // we know cursor has values
                     // advance to get first value
                     slaveChain.hasNext();
@@ -162,8 +192,48 @@ public class HashJoinRecordCursorFactory extends AbstractRecordCursorFactory {
 
         @Override
         public void toTop() {
-            masterCursor.toTop();
-            useSlaveCursor = false;
+            if (spill.isOpen()) {
+                spill.toTopMatches();
+            } else {
+                masterCursor.toTop();
+                useSlaveCursor = false;
+            }
+        }
+
+        private void matchPartition(int partition) {
+            final RecordChain masterPartition = spill.getMasterPartition(partition);
+            final RecordChain slavePartition = spill.getSlavePartition(partition);
+
+            joinKeyMap.clear();
+            partitionChain.clear();
+            final Record slaveRecord = slavePartition.getRecord();
+            while (slavePartition.hasNext()) {
+                HashJoinLightRecordCursorFactory.putRecord(joinKeyMap, partitionChain, slaveRecord, slaveKeySink, slaveRecord.getRowId());
+            }
+
+            final Record masterRecord = masterPartition.getRecord();
+            while (masterPartition.hasNext()) {
+                MapKey key = joinKeyMap.withKey();
+                key.put(masterRecord, masterSink);
+                MapValue value = key.findValue();
+                if (value != null) {
+                    final LongChain.TreeCursor chainCursor = partitionChain.getCursor(value.getLong(0));
+                    while (chainCursor.hasNext()) {
+                        spill.putMatch(partition, chainCursor.next());
+                    }
+                }
+            }
+        }
+
+        private boolean nextPartitioned() {
+            final int partition = spill.nextMatch();
+            if (partition == -1) {
+                return false;
+            }
+            final RecordChain slavePartition = spill.getSlavePartition(partition);
+            slavePartition.recordAt(spill.getMatchSlave());
+            record.of(spill.getMasterRecord(partition), slavePartition.getRecord());
+            return true;
         }
 
         void of(RecordCursor masterCursor, RecordCursor slaveCursor) {
@@ -175,5 +245,26 @@ public class HashJoinRecordCursorFactory extends AbstractRecordCursorFactory {
             record.of(masterRecord, slaveRecord);
             useSlaveCursor = false;
         }
+
+        void ofSpill(RecordCursor masterCursor, RecordCursor slaveCursor) {
+            this.masterCursor = masterCursor;
+            this.slaveCursor = slaveCursor;
+            // in-memory build side is incomplete, release it and partition both sides
+            slaveChain.clear();
+            joinKeyMap.clear();
+            try {
+                spill.of(masterCursor, masterSink, slaveCursor, slaveKeySink);
+                // partitions are joined up front, rows are returned in master order
+                for (int i = 0, n = spill.getPartitionCount(); i < n; i++) {
+                    matchPartition(i);
+                }
+            } catch (CairoException e) {
+                close();
+                throw e;
+            }
+            joinKeyMap.clear();
+            partitionChain.clear();
+            spill.toTopMatches();
+        }
     }
 }
@@ -0,0 +1,323 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.join;
+
+import io.questdb.cairo.*;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.*;
+import io.questdb.std.str.Path;
+
+import java.io.Closeable;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Build and probe sides of hash join, partitioned by hash of join key into temporary files. Hash join
+ * switches to partitions when its in-memory build side grows over memory budget. Rows with same key
+ * end up in partitions with the same number, so partitions can be joined pair by pair, keeping only one
+ * build side partition in memory at a time.
+ * <p>
+ * Partitions are {@link RecordChain} instances on top of file-backed memory. Records are chained in
+ * the order they were added. Symbols are stored as int keys, partitions resolve them against
+ * symbol tables of original cursors. Partition files live in {@link TableUtils#TMP_DIR_NAME} directory
+ * under database root, which engine wipes on startup.
+ * <p>
+ * Joining partition pair by pair would return rows in order of partitions. To keep master order, and
+ * with it designated timestamp of the master, every master record is stored with its position in the
+ * master cursor. Matches of each partition pair are written to a file of their own, in order of master
+ * records, along with master position. Rows are then returned by merging match files on master position.
+ */
+class HashJoinSpill implements Closeable {
+    // light hash join keeps row ids of slave records rather than copies of records
+    static final RecordSink ROW_ID_SINK = (r, w) -> w.putLong(r.getRowId());
+    static final ArrayColumnTypes ROW_ID_TYPES = new ArrayColumnTypes();
+    private static final Log LOG = LogFactory.getLog(HashJoinSpill.class);
+    private static final AtomicLong ID = new AtomicLong();
+
+    static {
+        ROW_ID_TYPES.add(ColumnType.LONG);
+    }
+
+    private final FilesFacade ff;
+    private final CharSequence root;
+    private final int mkDirMode;
+    private final long pageSize;
+    private final int partitionCount;
+    private final ReadWriteMemory[] masterMem;
+    private final ReadWriteMemory[] slaveMem;
+    private final RecordChain[] masterPartitions;
+    private final RecordChain[] slavePartitions;
+    // master position, master record offset and slave reference of each match
+    private final ReadWriteMemory[] matchMem;
+    // offset of the next match and master position of that match in each match file
+    private final long[] matchOffsets;
+    private final long[] matchPositions;
+    // master position is stored after master columns
+    private final int positionColumn;
+    private final long[] masterTails;
+    private final long[] slaveTails;
+    private final JoinKeyHasher hasher = new JoinKeyHasher();
+    private final Path path = new Path();
+    private long id = -1;
+    private long masterPosition;
+    private long matchSlave;
+
+    HashJoinSpill(
+            CairoConfiguration configuration,
+            @Transient ColumnTypes masterTypes,
+            RecordSink masterSink,
+            @Transient ColumnTypes slaveTypes,
+            RecordSink slaveSink
+    ) {
+        this.ff = configuration.getFilesFacade();
+        this.root = configuration.getRoot();
+        this.mkDirMode = configuration.getMkDirMode();
+        this.pageSize = ff.getMapPageSize();
+        this.partitionCount = Math.max(2, configuration.getSqlHashJoinSpillPartitionCount());
+        this.masterMem = new ReadWriteMemory[partitionCount];
+        this.slaveMem = new ReadWriteMemory[partitionCount];
+        this.masterPartitions = new RecordChain[partitionCount];
+        this.slavePartitions = new RecordChain[partitionCount];
+        this.masterTails = new long[partitionCount];
+        this.slaveTails = new long[partitionCount];
+        this.matchMem = new ReadWriteMemory[partitionCount];
+        this.matchOffsets = new long[partitionCount];
+        this.matchPositions = new long[partitionCount];
+        this.positionColumn = masterTypes.getColumnCount();
+
+        final ArrayColumnTypes masterPartitionTypes = new ArrayColumnTypes();
+        for (int i = 0; i < positionColumn; i++) {
+            masterPartitionTypes.add(masterTypes.getColumnType(i));
+        }
+        masterPartitionTypes.add(ColumnType.LONG);
+        final RecordSink masterPartitionSink = (r, w) -> {
+            masterSink.copy(r, w);
+            w.putLong(masterPosition);
+        };
+
+        for (int i = 0; i < partitionCount; i++) {
+            masterPartitions[i] = new RecordChain(masterPartitionTypes, masterPartitionSink, masterMem[i] = new ReadWriteMemory());
+            slavePartitions[i] = new RecordChain(slaveTypes, slaveSink, slaveMem[i] = new ReadWriteMemory());
+            matchMem[i] = new ReadWriteMemory();
+        }
+    }
+
+    @Override
+    public void close() {
+        clear();
+        Misc.free(path);
+    }
+
+    /**
+     * Closes and removes partition files, it is safe to call this method when partitions are not open.
+     */
+    void clear() {
+        if (id != -1) {
+            for (int i = 0; i < partitionCount; i++) {
+                masterPartitions[i].clear();
+                slavePartitions[i].clear();
+                matchMem[i].close();
+                removeQuiet(partitionPath(i, 'm'));
+                removeQuiet(partitionPath(i, 's'));
+                removeQuiet(partitionPath(i, 'r'));
+            }
+            LOG.info().$("removed hash join partitions [id=").$(id).$(']').$();
+            id = -1;
+        }
+    }
+
+    RecordChain getMasterPartition(int partition) {
+        final RecordChain chain = masterPartitions[partition];
+        chain.toTop();
+        return chain;
+    }
+
+    Record getMasterRecord(int partition) {
+        return masterPartitions[partition].getRecord();
+    }
+
+    /**
+     * @return slave reference of the match {@link #nextMatch()} moved to
+     */
+    long getMatchSlave() {
+        return matchSlave;
+    }
+
+    int getPartitionCount() {
+        return partitionCount;
+    }
+
+    RecordChain getSlavePartition(int partition) {
+        final RecordChain chain = slavePartitions[partition];
+        chain.toTop();
+        return chain;
+    }
+
+    boolean isOpen() {
+        return id != -1;
+    }
+
+    /**
+     * Moves to match of the lowest master position among all partitions. Master record of the
+     * partition, see {@link #getMasterRecord(int)}, is positioned at master record of the match.
+     *
+     * @return partition of the match or -1 when there are no more matches
+     */
+    int nextMatch() {
+        int partition = -1;
+        long position = Long.MAX_VALUE;
+        for (int i = 0; i < partitionCount; i++) {
+            if (matchPositions[i] < position) {
+                position = matchPositions[i];
+                partition = i;
+            }
+        }
+
+        if (partition != -1) {
+            final ReadWriteMemory mem = matchMem[partition];
+            final long offset = matchOffsets[partition];
+            masterPartitions[partition].recordAt(mem.getLong(offset + 8));
+            matchSlave = mem.getLong(offset + 16);
+            matchOffsets[partition] = offset + 24;
+            matchPositions[partition] = readPosition(partition);
+        }
+        return partition;
+    }
+
+    /**
+     * Records match of current master record of the partition. Matches of a partition must be
+     * recorded in order of master records.
+     *
+     * @param partition partition master record was taken from
+     * @param slave     slave record offset in slave partition or slave row id
+     */
+    void putMatch(int partition, long slave) {
+        final Record record = masterPartitions[partition].getRecord();
+        final ReadWriteMemory mem = matchMem[partition];
+        mem.putLong(record.getLong(positionColumn));
+        mem.putLong(record.getRowId());
+        mem.putLong(slave);
+    }
+
+    /**
+     * Rewinds matches of all partitions to the first one.
+     */
+    void toTopMatches() {
+        for (int i = 0; i < partitionCount; i++) {
+            matchOffsets[i] = 0;
+            matchPositions[i] = readPosition(i);
+        }
+    }
+
+    /**
+     * Partitions all records of both cursors. Slave cursor is rewound first, it may have been
+     * partially consumed by in-memory build.
+     */
+    void of(RecordCursor masterCursor, RecordSink masterKeySink, RecordCursor slaveCursor, RecordSink slaveKeySink) {
+        open(masterCursor, slaveCursor);
+
+        slaveCursor.toTop();
+        final Record slaveRecord = slaveCursor.getRecord();
+        while (slaveCursor.hasNext()) {
+            putSlave(slaveRecord, slaveKeySink);
+        }
+
+        final Record masterRecord = masterCursor.getRecord();
+        masterPosition = 0;
+        while (masterCursor.hasNext()) {
+            putMaster(masterRecord, masterKeySink);
+            masterPosition++;
+        }
+    }
+
+    private void open(RecordCursor masterCursor, RecordCursor slaveCursor) {
+        clear();
+        id = ID.incrementAndGet();
+        LOG.info().$("hash join is over memory budget, partitioning [id=").$(id).$(", partitionCount=").$(partitionCount).$(']').$();
+        try {
+            createTmpDirectory();
+            for (int i = 0; i < partitionCount; i++) {
+                openPartition(masterMem[i], partitionPath(i, 'm'));
+                openPartition(slaveMem[i], partitionPath(i, 's'));
+                openPartition(matchMem[i], partitionPath(i, 'r'));
+                masterPartitions[i].setSymbolTableResolver(masterCursor);
+                slavePartitions[i].setSymbolTableResolver(slaveCursor);
+                masterTails[i] = -1;
+                slaveTails[i] = -1;
+            }
+        } catch (CairoException e) {
+            clear();
+            throw e;
+        }
+    }
+
+    private void putMaster(Record record, RecordSink keySink) {
+        final int partition = partitionOf(record, keySink);
+        masterTails[partition] = masterPartitions[partition].put(record, masterTails[partition]);
+    }
+
+    private void putSlave(Record record, RecordSink keySink) {
+        final int partition = partitionOf(record, keySink);
+        slaveTails[partition] = slavePartitions[partition].put(record, slaveTails[partition]);
+    }
+
+    private void createTmpDirectory() {
+        path.of(root).concat(TableUtils.TMP_DIR_NAME).put(Files.SEPARATOR).$();
+        // directory may be created concurrently by another query
+        if (!ff.exists(path) && ff.mkdirs(path, mkDirMode) != 0 && !ff.exists(path)) {
+            throw CairoException.instance(ff.errno()).put("could not create [dir=").put(path).put(']');
+        }
+    }
+
+    private void openPartition(ReadWriteMemory mem, Path path) {
+        mem.of(ff, path, pageSize);
+    }
+
+    private int partitionOf(Record record, RecordSink keySink) {
+        return (int) ((hasher.hash(record, keySink) & Long.MAX_VALUE) % partitionCount);
+    }
+
+    private Path partitionPath(int partition, char side) {
+        path.of(root).concat(TableUtils.TMP_DIR_NAME).concat("join_spill_");
+        path.put(id);
+        path.put('_').put(side);
+        path.put(partition);
+        return path.put(".d").$();
+    }
+
+    private long readPosition(int partition) {
+        final ReadWriteMemory mem = matchMem[partition];
+        final long offset = matchOffsets[partition];
+        return offset < mem.getAppendOffset() ? mem.getLong(offset) : Long.MAX_VALUE;
+    }
+
+    private void removeQuiet(Path path) {
+        if (ff.exists(path) && !ff.remove(path)) {
+            LOG.error().$("could not remove [file=").$(path).$(", errno=").$(ff.errno()).$(']').$();
+        }
+    }
+}
@@ -30,6 +30,8 @@ import io.questdb.cairo.map.MapFactory;
 import io.questdb.cairo.map.MapKey;
 import io.questdb.cairo.map.MapValue;
 import io.questdb.cairo.sql.*;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlExecutionCircuitBreaker;
 import io.questdb.griffin.SqlExecutionContext;
 import io.questdb.std.Misc;
 import io.questdb.std.Transient;
@@ -83,7 +85,7 @@ public class HashOuterJoinLightRecordCursorFactory extends AbstractRecordCursorF
     public RecordCursor getCursor(SqlExecutionContext executionContext) {
         RecordCursor slaveCursor = slaveFactory.getCursor(executionContext);
         try {
-            buildMapOfSlaveRecords(slaveCursor);
+            buildMapOfSlaveRecords(slaveCursor, executionContext.getCircuitBreaker());
         } catch (CairoException e) {
             slaveCursor.close();
             throw e;
@@ -97,11 +99,12 @@ public class HashOuterJoinLightRecordCursorFactory extends AbstractRecordCursorF
         return false;
     }
 
-    private void buildMapOfSlaveRecords(RecordCursor slaveCursor) {
+    private void buildMapOfSlaveRecords(RecordCursor slaveCursor, SqlExecutionCircuitBreaker circuitBreaker) {
         slaveChain.clear();
         joinKeyMap.clear();
         final Record record = slaveCursor.getRecord();
         while (slaveCursor.hasNext()) {
+            circuitBreaker.checkState();
             MapKey key = joinKeyMap.withKey();
             key.put(record, slaveKeySink);
             MapValue value = key.createValue();
@@ -115,6 +118,13 @@ public class HashOuterJoinLightRecordCursorFactory extends AbstractRecordCursorF
         }
     }
 
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.type(this);
+        sink.child(masterFactory);
+        sink.child(slaveFactory);
+    }
+
     private class HashOuterJoinLightRecordCursor implements NoRandomAccessRecordCursor {
         private final OuterJoinRecord record;
         private final LongChain slaveChain;
@@ -30,9 +30,12 @@ import io.questdb.cairo.map.MapFactory;
 import io.questdb.cairo.map.MapKey;
 import io.questdb.cairo.map.MapValue;
 import io.questdb.cairo.sql.*;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlExecutionCircuitBreaker;
 import io.questdb.griffin.SqlExecutionContext;
 import io.questdb.std.Misc;
 import io.questdb.std.Transient;
+import org.jetbrains.annotations.Nullable;
 
 public class HashOuterJoinRecordCursorFactory extends AbstractRecordCursorFactory {
     private final Map joinKeyMap;
@@ -71,10 +74,40 @@ public class HashOuterJoinRecordCursorFactory extends AbstractRecordCursorFactor
         );
     }
 
-    static void buildMap(RecordCursor slaveCursor, Record record, Map joinKeyMap, RecordSink slaveKeySink, RecordChain slaveChain) {
+    static void buildMap(
+            RecordCursor slaveCursor,
+            Record record,
+            Map joinKeyMap,
+            RecordSink slaveKeySink,
+            RecordChain slaveChain,
+            SqlExecutionCircuitBreaker circuitBreaker
+    ) {
+        buildMap(slaveCursor, record, joinKeyMap, slaveKeySink, slaveChain, Long.MAX_VALUE, null, circuitBreaker);
+    }
+
+    /**
+     * Builds map of slave records unless map and record chain grow over memory budget. Distinct keys are
+     * also added to runtime key filter, when one is given. Filter is built only when map is complete.
+     *
+     * @return false when build stopped because memory budget was exceeded, map is incomplete in this case
+     */
+    static boolean buildMap(
+            RecordCursor slaveCursor,
+            Record record,
+            Map joinKeyMap,
+            RecordSink slaveKeySink,
+            RecordChain slaveChain,
+            long memoryBudget,
+            @Nullable JoinKeyFilter keyFilter,
+            SqlExecutionCircuitBreaker circuitBreaker
+    ) {
         joinKeyMap.clear();
         slaveChain.clear();
+        if (keyFilter != null) {
+            keyFilter.clear();
+        }
         while (slaveCursor.hasNext()) {
+            circuitBreaker.checkState();
             MapKey key = joinKeyMap.withKey();
             key.put(record, slaveKeySink);
             MapValue value = key.createValue();
@@ -82,10 +115,24 @@ public class HashOuterJoinRecordCursorFactory extends AbstractRecordCursorFactor
                 long offset = slaveChain.put(record, -1);
                 value.putLong(0, offset);
                 value.putLong(1, offset);
+                if (keyFilter != null) {
+                    keyFilter.add(record, slaveKeySink);
+                }
             } else {
                 value.putLong(1, slaveChain.put(record, value.getLong(1)));
             }
+
+            if (joinKeyMap.getMemUsed() + slaveChain.getMemUsed() > memoryBudget) {
+                if (keyFilter != null) {
+                    keyFilter.clear();
+                }
+                return false;
+            }
+        }
+        if (keyFilter != null) {
+            keyFilter.build();
         }
+        return true;
     }
 
     @Override
@@ -101,7 +148,7 @@ public class HashOuterJoinRecordCursorFactory extends AbstractRecordCursorFactor
     public RecordCursor getCursor(SqlExecutionContext executionContext) {
         RecordCursor slaveCursor = slaveFactory.getCursor(executionContext);
         try {
-            buildMapOfSlaveRecords(slaveCursor);
+            buildMapOfSlaveRecords(slaveCursor, executionContext.getCircuitBreaker());
         } catch (CairoException e) {
             slaveCursor.close();
             throw e;
@@ -115,8 +162,15 @@ public class HashOuterJoinRecordCursorFactory extends AbstractRecordCursorFactor
         return false;
     }
 
-    private void buildMapOfSlaveRecords(RecordCursor slaveCursor) {
-        buildMap(slaveCursor, slaveCursor.getRecord(), joinKeyMap, slaveKeySink, slaveChain);
+    private void buildMapOfSlaveRecords(RecordCursor slaveCursor, SqlExecutionCircuitBreaker circuitBreaker) {
+        buildMap(slaveCursor, slaveCursor.getRecord(), joinKeyMap, slaveKeySink, slaveChain, circuitBreaker);
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.type(this);
+        sink.child(masterFactory);
+        sink.child(slaveFactory);
     }
 
     private class HashOuterJoinRecordCursor implements NoRandomAccessRecordCursor {
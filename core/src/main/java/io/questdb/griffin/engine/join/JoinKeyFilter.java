@@ -0,0 +1,176 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.join;
+
+import io.questdb.cairo.RecordSink;
+import io.questdb.cairo.map.Map;
+import io.questdb.cairo.map.MapKey;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.cairo.sql.Record;
+import io.questdb.std.LongList;
+import io.questdb.std.Numbers;
+
+import java.util.Arrays;
+
+/**
+ * Runtime filter built from build side of hash join. Probe side records are checked against this filter
+ * before their keys are copied into join key map, records whose keys cannot be in the map are discarded
+ * without map lookup.
+ * <p>
+ * Single SYMBOL key is resolved once per distinct symbol of the probe side. Chain offset found in the map,
+ * or absence of it, is cached by int key of the symbol. Other keys are checked against bloom filter of key
+ * hashes. Bloom filter has no false negatives, it is switched off when it discards too few records
+ * to pay for hashing.
+ */
+class JoinKeyFilter {
+    static final long NO_CHAIN = -1;
+    private static final long UNKNOWN_CHAIN = -2;
+    private static final int BITS_PER_KEY = 10;
+    private static final int HASH_COUNT = 3;
+    private static final long MAX_BIT_COUNT = 1L << 28;
+    // bloom filter is re-evaluated after this many probes
+    private static final int PROBE_SAMPLE = 4096;
+    private final JoinKeyHasher hasher = new JoinKeyHasher();
+    private final LongList hashes = new LongList();
+    private final LongList symbolChains = new LongList();
+    private final int masterSymbolColumnIndex;
+    private long[] words = new long[1];
+    private long bitMask;
+    private boolean bloomEnabled;
+    private long probeCount;
+    private long discardCount;
+
+    /**
+     * @param masterSymbolColumnIndex index of master column when join key is single SYMBOL column, -1 otherwise
+     */
+    JoinKeyFilter(int masterSymbolColumnIndex) {
+        this.masterSymbolColumnIndex = masterSymbolColumnIndex;
+    }
+
+    /**
+     * Adds key of build side record. This method should be called once per distinct key.
+     */
+    void add(Record slaveRecord, RecordSink slaveKeySink) {
+        if (masterSymbolColumnIndex == -1) {
+            hashes.add(hasher.hash(slaveRecord, slaveKeySink));
+        }
+    }
+
+    /**
+     * Makes filter ready for probing, all build side keys must be added by now.
+     */
+    void build() {
+        symbolChains.clear();
+        probeCount = 0;
+        discardCount = 0;
+        final int n = hashes.size();
+        bloomEnabled = n > 0;
+        if (bloomEnabled) {
+            final long bitCount = Math.min(MAX_BIT_COUNT, Numbers.ceilPow2(Math.max(64L, (long) n * BITS_PER_KEY)));
+            final int wordCount = (int) (bitCount >>> 6);
+            if (words.length < wordCount) {
+                words = new long[wordCount];
+            } else {
+                Arrays.fill(words, 0, wordCount, 0);
+            }
+            bitMask = bitCount - 1;
+            for (int i = 0; i < n; i++) {
+                final long hash = hashes.getQuick(i);
+                for (int k = 0; k < HASH_COUNT; k++) {
+                    final long bit = bitIndex(hash, k);
+                    words[(int) (bit >>> 6)] |= 1L << bit;
+                }
+            }
+            hashes.clear();
+        }
+    }
+
+    void clear() {
+        hashes.clear();
+        symbolChains.clear();
+        bloomEnabled = false;
+    }
+
+    /**
+     * Finds head of slave chain for key of master record.
+     *
+     * @return offset of chain head as stored in first value of the map, {@link #NO_CHAIN} when key is not in the map
+     */
+    long findChain(Map joinKeyMap, Record masterRecord, RecordSink masterKeySink) {
+        if (masterSymbolColumnIndex != -1) {
+            // null symbol is INT_NaN, it goes into first slot
+            final int slot = masterRecord.getInt(masterSymbolColumnIndex) + 1;
+            final int index = slot < 0 ? 0 : slot;
+            if (index >= symbolChains.size()) {
+                symbolChains.seed(symbolChains.size(), index + 1 - symbolChains.size(), UNKNOWN_CHAIN);
+            }
+            long chain = symbolChains.getQuick(index);
+            if (chain == UNKNOWN_CHAIN) {
+                chain = lookup(joinKeyMap, masterRecord, masterKeySink);
+                symbolChains.setQuick(index, chain);
+            }
+            return chain;
+        }
+
+        if (bloomEnabled && !mightContain(hasher.hash(masterRecord, masterKeySink))) {
+            return NO_CHAIN;
+        }
+        return lookup(joinKeyMap, masterRecord, masterKeySink);
+    }
+
+    private static long lookup(Map joinKeyMap, Record masterRecord, RecordSink masterKeySink) {
+        MapKey key = joinKeyMap.withKey();
+        key.put(masterRecord, masterKeySink);
+        MapValue value = key.findValue();
+        return value != null ? value.getLong(0) : NO_CHAIN;
+    }
+
+    private long bitIndex(long hash, int k) {
+        return ((hash & 0xffffffffL) + k * (hash >>> 32)) & bitMask;
+    }
+
+    private boolean mightContain(long hash) {
+        boolean contains = true;
+        for (int k = 0; k < HASH_COUNT; k++) {
+            final long bit = bitIndex(hash, k);
+            if ((words[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+                contains = false;
+                discardCount++;
+                break;
+            }
+        }
+        if (++probeCount == PROBE_SAMPLE) {
+            sample();
+        }
+        return contains;
+    }
+
+    private void sample() {
+        // less than one in eight records discarded, map lookups are cheaper than hashing every record
+        bloomEnabled = discardCount * 8 >= probeCount;
+        probeCount = 0;
+        discardCount = 0;
+    }
+}
@@ -0,0 +1,142 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.join;
+
+import io.questdb.cairo.RecordSink;
+import io.questdb.cairo.RecordSinkSPI;
+import io.questdb.cairo.sql.Record;
+import io.questdb.std.BinarySequence;
+import io.questdb.std.Hash;
+import io.questdb.std.Long256;
+
+/**
+ * Computes hash of join key as it is written by key sink. Key sinks of both join sides write
+ * the same sequence of values for equal keys.
+ */
+class JoinKeyHasher implements RecordSinkSPI {
+    private static final long NULL_HASH = 0x5bd1e995L;
+    private long hash;
+
+    /**
+     * @param record  record to take key values from
+     * @param keySink sink that copies key values of the record
+     * @return mixed hash of key values
+     */
+    long hash(Record record, RecordSink keySink) {
+        hash = 0;
+        keySink.copy(record, this);
+        return Hash.fmix64(hash);
+    }
+
+    @Override
+    public void putBin(BinarySequence value) {
+        if (value == null) {
+            mix(NULL_HASH);
+        } else {
+            for (long i = 0, n = value.length(); i < n; i++) {
+                mix(value.byteAt(i));
+            }
+        }
+    }
+
+    @Override
+    public void putBool(boolean value) {
+        mix(value ? 1 : 0);
+    }
+
+    @Override
+    public void putByte(byte value) {
+        mix(value);
+    }
+
+    @Override
+    public void putDate(long value) {
+        mix(value);
+    }
+
+    @Override
+    public void putDouble(double value) {
+        mix(Double.doubleToLongBits(value));
+    }
+
+    @Override
+    public void putFloat(float value) {
+        mix(Float.floatToIntBits(value));
+    }
+
+    @Override
+    public void putInt(int value) {
+        mix(value);
+    }
+
+    @Override
+    public void putLong(long value) {
+        mix(value);
+    }
+
+    @Override
+    public void putLong256(Long256 value) {
+        mix(value.getLong0());
+        mix(value.getLong1());
+        mix(value.getLong2());
+        mix(value.getLong3());
+    }
+
+    @Override
+    public void putShort(short value) {
+        mix(value);
+    }
+
+    @Override
+    public void putChar(char value) {
+        mix(value);
+    }
+
+    @Override
+    public void putStr(CharSequence value) {
+        if (value == null) {
+            mix(NULL_HASH);
+        } else {
+            putStr(value, 0, value.length());
+        }
+    }
+
+    @Override
+    public void putStr(CharSequence value, int lo, int hi) {
+        for (int i = lo; i < hi; i++) {
+            mix(value.charAt(i));
+        }
+        mix(hi - lo);
+    }
+
+    @Override
+    public void putTimestamp(long value) {
+        mix(value);
+    }
+
+    private void mix(long value) {
+        hash = (hash ^ value) * 0x100000001b3L;
+    }
+}
@@ -25,6 +25,7 @@
 package io.questdb.griffin.engine.join;
 
 import io.questdb.cairo.VirtualMemory;
+import io.questdb.std.MemoryTag;
 import io.questdb.std.Mutable;
 
 import java.io.Closeable;
@@ -35,7 +36,7 @@ public class LongChain implements Closeable, Mutable {
     private final TreeCursor cursor;
 
     public LongChain(long valuePageSize) {
-        this.valueChain = new VirtualMemory(valuePageSize);
+        this.valueChain = new VirtualMemory(valuePageSize, MemoryTag.NATIVE_SQL);
         this.cursor = new TreeCursor();
     }
 
@@ -49,6 +50,10 @@ public class LongChain implements Closeable, Mutable {
         valueChain.close();
     }
 
+    public long getMemUsed() {
+        return valueChain.getAppendOffset();
+    }
+
     public TreeCursor getCursor(long tailOffset) {
         cursor.of(tailOffset);
         return cursor;
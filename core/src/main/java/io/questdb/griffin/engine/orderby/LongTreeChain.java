@@ -28,6 +28,7 @@ import io.questdb.cairo.VirtualMemory;
 import io.questdb.cairo.sql.Record;
 import io.questdb.cairo.sql.RecordCursor;
 import io.questdb.griffin.engine.AbstractRedBlackTree;
+import io.questdb.std.MemoryTag;
 import io.questdb.std.Misc;
 
 public class LongTreeChain extends AbstractRedBlackTree {
@@ -36,7 +37,7 @@ public class LongTreeChain extends AbstractRedBlackTree {
 
     public LongTreeChain(int keyPageSize, int valuePageSize) {
         super(keyPageSize);
-        this.valueChain = new VirtualMemory(valuePageSize);
+        this.valueChain = new VirtualMemory(valuePageSize, MemoryTag.NATIVE_SQL);
     }
 
     @Override
@@ -31,6 +31,7 @@ import io.questdb.cairo.sql.Record;
 import io.questdb.cairo.sql.RecordCursor;
 import io.questdb.cairo.sql.SymbolTable;
 import io.questdb.std.MemoryPages;
+import io.questdb.std.MemoryTag;
 import io.questdb.std.Misc;
 import io.questdb.std.Mutable;
 import io.questdb.std.Unsafe;
@@ -62,7 +63,7 @@ public class RecordTreeChain implements Closeable, Mutable {
             int keyPageSize,
             int valuePageSize) {
         this.comparator = comparator;
-        this.mem = new MemoryPages(keyPageSize);
+        this.mem = new MemoryPages(keyPageSize, MemoryTag.NATIVE_SQL);
         this.recordChain = new RecordChain(columnTypes, recordSink, valuePageSize);
         this.recordChainRecord = this.recordChain.getRecord();
     }
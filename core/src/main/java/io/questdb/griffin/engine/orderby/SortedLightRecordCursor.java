@@ -28,6 +28,8 @@ import io.questdb.cairo.sql.DelegatingRecordCursor;
 import io.questdb.cairo.sql.Record;
 import io.questdb.cairo.sql.RecordCursor;
 import io.questdb.cairo.sql.SymbolTable;
+import io.questdb.griffin.SqlExecutionCircuitBreaker;
+import io.questdb.griffin.SqlExecutionContext;
 
 class SortedLightRecordCursor implements DelegatingRecordCursor {
     private final LongTreeChain chain;
@@ -95,9 +97,10 @@ class SortedLightRecordCursor implements DelegatingRecordCursor {
     }
 
     @Override
-    public void of(RecordCursor base) {
+    public void of(RecordCursor base, SqlExecutionContext executionContext) {
         this.base = base;
         this.baseRecord = base.getRecord();
+        final SqlExecutionCircuitBreaker circuitBreaker = executionContext.getCircuitBreaker();
         if (placeHolderRecord == null) {
             placeHolderRecord = base.newRecord();
         }
@@ -108,6 +111,7 @@ class SortedLightRecordCursor implements DelegatingRecordCursor {
             // other rows to do record comparison. We must use our
             // own record instance in case base cursor keeps
             // state in the record it returns.
+            circuitBreaker.checkState();
             chain.put(
                     baseRecord.getRowId(),
                     base,
@@ -26,9 +26,11 @@ package io.questdb.griffin.engine.orderby;
 
 import io.questdb.cairo.AbstractRecordCursorFactory;
 import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.CairoException;
 import io.questdb.cairo.sql.RecordCursor;
 import io.questdb.cairo.sql.RecordCursorFactory;
 import io.questdb.cairo.sql.RecordMetadata;
+import io.questdb.griffin.PlanSink;
 import io.questdb.griffin.SqlExecutionContext;
 
 public class SortedLightRecordCursorFactory extends AbstractRecordCursorFactory {
@@ -58,12 +60,23 @@ public class SortedLightRecordCursorFactory extends AbstractRecordCursorFactory
     @Override
     public RecordCursor getCursor(SqlExecutionContext executionContext) {
         RecordCursor baseCursor = base.getCursor(executionContext);
-        this.cursor.of(baseCursor);
-        return cursor;
+        try {
+            this.cursor.of(baseCursor, executionContext);
+            return cursor;
+        } catch (CairoException e) {
+            baseCursor.close();
+            throw e;
+        }
     }
 
     @Override
     public boolean isRandomAccessCursor() {
         return true;
     }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.type(this);
+        sink.child(base);
+    }
 }
@@ -28,6 +28,8 @@ import io.questdb.cairo.sql.DelegatingRecordCursor;
 import io.questdb.cairo.sql.Record;
 import io.questdb.cairo.sql.RecordCursor;
 import io.questdb.cairo.sql.SymbolTable;
+import io.questdb.griffin.SqlExecutionCircuitBreaker;
+import io.questdb.griffin.SqlExecutionContext;
 
 class SortedRecordCursor implements DelegatingRecordCursor {
     private final RecordTreeChain chain;
@@ -84,9 +86,10 @@ class SortedRecordCursor implements DelegatingRecordCursor {
     }
 
     @Override
-    public void of(RecordCursor base) {
+    public void of(RecordCursor base, SqlExecutionContext executionContext) {
         this.chainCursor = chain.getCursor(base);
         final Record record = base.getRecord();
+        final SqlExecutionCircuitBreaker circuitBreaker = executionContext.getCircuitBreaker();
 
         chain.clear();
         while (base.hasNext()) {
@@ -94,6 +97,7 @@ class SortedRecordCursor implements DelegatingRecordCursor {
             // other rows to do record comparison. We must use our
             // own record instance in case base cursor keeps
             // state in the record it returns.
+            circuitBreaker.checkState();
             chain.put(record);
         }
         chainCursor.toTop();
@@ -26,11 +26,13 @@ package io.questdb.griffin.engine.orderby;
 
 import io.questdb.cairo.AbstractRecordCursorFactory;
 import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.CairoException;
 import io.questdb.cairo.ColumnTypes;
 import io.questdb.cairo.RecordSink;
 import io.questdb.cairo.sql.RecordCursor;
 import io.questdb.cairo.sql.RecordCursorFactory;
 import io.questdb.cairo.sql.RecordMetadata;
+import io.questdb.griffin.PlanSink;
 import io.questdb.griffin.SqlExecutionContext;
 
 public class SortedRecordCursorFactory extends AbstractRecordCursorFactory {
@@ -64,12 +66,24 @@ public class SortedRecordCursorFactory extends AbstractRecordCursorFactory {
 
     @Override
     public RecordCursor getCursor(SqlExecutionContext executionContext) {
-        this.cursor.of(base.getCursor(executionContext));
-        return cursor;
+        final RecordCursor baseCursor = base.getCursor(executionContext);
+        try {
+            this.cursor.of(baseCursor, executionContext);
+            return cursor;
+        } catch (CairoException e) {
+            baseCursor.close();
+            throw e;
+        }
     }
 
     @Override
     public boolean isRandomAccessCursor() {
         return true;
     }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.type(this);
+        sink.child(base);
+    }
 }
@@ -30,6 +30,7 @@ import io.questdb.cairo.sql.DataFrameCursor;
 import io.questdb.cairo.sql.DataFrameCursorFactory;
 import io.questdb.cairo.sql.RecordCursor;
 import io.questdb.cairo.sql.RecordMetadata;
+import io.questdb.griffin.PlanSink;
 import io.questdb.griffin.SqlExecutionContext;
 
 abstract class AbstractDataFrameRecordCursorFactory extends AbstractRecordCursorFactory {
@@ -43,7 +44,7 @@ abstract class AbstractDataFrameRecordCursorFactory extends AbstractRecordCursor
     @Override
     public RecordCursor getCursor(SqlExecutionContext executionContext) {
         DataFrameCursor dataFrameCursor = dataFrameCursorFactory.getCursor(
-                executionContext.getCairoSecurityContext(),
+                executionContext,
                 getMetadata().getTimestampIndex()
         );
         try {
@@ -54,8 +55,27 @@ abstract class AbstractDataFrameRecordCursorFactory extends AbstractRecordCursor
         }
     }
 
+    @Override
+    public void toPlan(PlanSink sink) {
+        // data frame factories refer to columns by table column index
+        final RecordMetadata metadata = sink.getMetadata();
+        sink.setMetadata(getMetadata());
+        sink.type(this);
+        toPlanDetails(sink);
+        sink.child(dataFrameCursorFactory);
+        sink.setMetadata(metadata);
+    }
+
     protected abstract RecordCursor getCursorInstance(
             DataFrameCursor dataFrameCursor,
             SqlExecutionContext executionContext
     );
+
+    /**
+     * Renders attributes and children of this factory other than data frame cursor factory.
+     *
+     * @param sink plan sink
+     */
+    protected void toPlanDetails(PlanSink sink) {
+    }
 }
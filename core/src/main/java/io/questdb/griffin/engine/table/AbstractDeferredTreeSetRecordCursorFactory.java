@@ -31,6 +31,7 @@ import io.questdb.cairo.sql.DataFrameCursor;
 import io.questdb.cairo.sql.DataFrameCursorFactory;
 import io.questdb.cairo.sql.RecordMetadata;
 import io.questdb.cairo.sql.SymbolTable;
+import io.questdb.griffin.PlanSink;
 import io.questdb.griffin.SqlExecutionContext;
 import io.questdb.std.CharSequenceHashSet;
 import io.questdb.std.Chars;
@@ -104,4 +105,9 @@ public abstract class AbstractDeferredTreeSetRecordCursorFactory extends Abstrac
         }
         return super.getCursorInstance(dataFrameCursor, executionContext);
     }
+
+    @Override
+    protected void toPlanDetails(PlanSink sink) {
+        sink.attr("column").column(columnIndex).attr("values").val(symbolKeys.size() + (deferredSymbols != null ? deferredSymbols.size() : 0));
+    }
 }
@@ -25,6 +25,7 @@
 package io.questdb.griffin.engine.table;
 
 import io.questdb.cairo.sql.*;
+import io.questdb.griffin.PlanSink;
 import io.questdb.griffin.SqlExecutionContext;
 import io.questdb.griffin.engine.EmptyTableRecordCursor;
 import org.jetbrains.annotations.NotNull;
@@ -82,4 +83,9 @@ abstract class AbstractDeferredValueRecordCursorFactory extends AbstractDataFram
         this.cursor = createDataFrameCursorFor(symbolKey);
         return false;
     }
+
+    @Override
+    protected void toPlanDetails(PlanSink sink) {
+        sink.attr("column").column(columnIndex).attr("symbol").val(symbol).optAttr("filter", filter);
+    }
 }
@@ -30,6 +30,7 @@ import io.questdb.cairo.sql.DataFrameCursorFactory;
 import io.questdb.cairo.sql.RecordMetadata;
 import io.questdb.griffin.SqlExecutionContext;
 import io.questdb.std.DirectLongList;
+import io.questdb.std.MemoryTag;
 
 abstract class AbstractTreeSetRecordCursorFactory extends AbstractDataFrameRecordCursorFactory {
     final DirectLongList rows;
@@ -41,7 +42,7 @@ abstract class AbstractTreeSetRecordCursorFactory extends AbstractDataFrameRecor
             CairoConfiguration configuration
     ) {
         super(metadata, dataFrameCursorFactory);
-        this.rows = new DirectLongList(configuration.getSqlLatestByRowCount());
+        this.rows = new DirectLongList(configuration.getSqlLatestByRowCount(), MemoryTag.NATIVE_SQL);
     }
 
     @Override
@@ -0,0 +1,58 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.table;
+
+import io.questdb.cairo.sql.DataFrame;
+import io.questdb.cairo.sql.RowCursor;
+import io.questdb.cairo.sql.RowCursorFactory;
+import io.questdb.griffin.PlanSink;
+import io.questdb.std.LongList;
+
+public class BloomIndexRowCursorFactory implements RowCursorFactory {
+    private final int columnIndex;
+    private final LongList hashes = new LongList();
+
+    public BloomIndexRowCursorFactory(int columnIndex, LongList hashes) {
+        this.columnIndex = columnIndex;
+        this.hashes.add(hashes);
+    }
+
+    @Override
+    public RowCursor getCursor(DataFrame dataFrame) {
+        return dataFrame
+                .getBloomIndexReader(columnIndex)
+                .getCursor(hashes, dataFrame.getRowLo(), dataFrame.getRowHi() - 1);
+    }
+
+    @Override
+    public boolean isEntity() {
+        return false;
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.type(this).attr("column").column(columnIndex).attr("values").val(hashes.size());
+    }
+}
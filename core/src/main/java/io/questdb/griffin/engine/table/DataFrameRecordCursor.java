@@ -40,6 +40,11 @@ class DataFrameRecordCursor extends AbstractDataFrameRecordCursor {
         this.entityCursor = entityCursor;
     }
 
+    @Override
+    public DataFrameCursor getDataFrameCursor() {
+        return entityCursor && filter == null ? dataFrameCursor : null;
+    }
+
     @Override
     public boolean hasNext() {
         try {
@@ -53,6 +58,16 @@ class DataFrameRecordCursor extends AbstractDataFrameRecordCursor {
         }
     }
 
+    @Override
+    public boolean skipToTimestamp(long timestamp) {
+        // filtered rows cannot be skipped, the last row before timestamp might not pass filter
+        if (entityCursor && filter == null) {
+            rowCursor = null;
+            return dataFrameCursor.skipToTimestamp(timestamp);
+        }
+        return false;
+    }
+
     @Override
     public void toTop() {
         dataFrameCursor.toTop();
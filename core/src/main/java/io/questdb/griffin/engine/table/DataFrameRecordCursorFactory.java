@@ -25,12 +25,14 @@
 package io.questdb.griffin.engine.table;
 
 import io.questdb.cairo.sql.*;
+import io.questdb.griffin.PlanSink;
 import io.questdb.griffin.SqlExecutionContext;
 import org.jetbrains.annotations.Nullable;
 
 public class DataFrameRecordCursorFactory extends AbstractDataFrameRecordCursorFactory {
     private final DataFrameRecordCursor cursor;
     private final Function filter;
+    private final RowCursorFactory rowCursorFactory;
 
     public DataFrameRecordCursorFactory(
             RecordMetadata metadata,
@@ -40,6 +42,7 @@ public class DataFrameRecordCursorFactory extends AbstractDataFrameRecordCursorF
         super(metadata, dataFrameCursorFactory);
         this.cursor = new DataFrameRecordCursor(rowCursorFactory, filter, rowCursorFactory.isEntity());
         this.filter = filter;
+        this.rowCursorFactory = rowCursorFactory;
     }
 
     @Override
@@ -62,4 +65,10 @@ public class DataFrameRecordCursorFactory extends AbstractDataFrameRecordCursorF
         cursor.of(dataFrameCursor, executionContext);
         return cursor;
     }
+
+    @Override
+    protected void toPlanDetails(PlanSink sink) {
+        sink.optAttr("filter", filter);
+        sink.child(rowCursorFactory);
+    }
 }
@@ -27,16 +27,19 @@ package io.questdb.griffin.engine.table;
 import io.questdb.cairo.EmptyRowCursor;
 import io.questdb.cairo.TableReader;
 import io.questdb.cairo.sql.*;
+import io.questdb.griffin.PlanSink;
 
 public class DeferredSymbolIndexFilteredRowCursorFactory implements RowCursorFactory {
     private final SymbolIndexFilteredRowCursor cursor;
     private final int columnIndex;
     private final String symbol;
+    private final Function filter;
     private int symbolKey = SymbolTable.VALUE_NOT_FOUND;
 
     public DeferredSymbolIndexFilteredRowCursorFactory(int columnIndex, String symbol, Function filter, boolean cachedIndexReaderCursor) {
         this.columnIndex = columnIndex;
         this.symbol = symbol;
+        this.filter = filter;
         this.cursor = new SymbolIndexFilteredRowCursor(columnIndex, filter, cachedIndexReaderCursor);
     }
 
@@ -61,4 +64,9 @@ public class DeferredSymbolIndexFilteredRowCursorFactory implements RowCursorFac
     public boolean isEntity() {
         return false;
     }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.type(this).attr("column").column(columnIndex).attr("symbol").val(symbol).attr("filter").val(filter);
+    }
 }
@@ -32,6 +32,7 @@ import io.questdb.cairo.sql.DataFrame;
 import io.questdb.cairo.sql.RowCursor;
 import io.questdb.cairo.sql.RowCursorFactory;
 import io.questdb.cairo.sql.SymbolTable;
+import io.questdb.griffin.PlanSink;
 
 public class DeferredSymbolIndexRowCursorFactory implements RowCursorFactory {
     private final int columnIndex;
@@ -69,4 +70,9 @@ public class DeferredSymbolIndexRowCursorFactory implements RowCursorFactory {
     public boolean isEntity() {
         return false;
     }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.type(this).attr("column").column(columnIndex).attr("symbol").val(symbol);
+    }
 }
@@ -26,6 +26,7 @@ package io.questdb.griffin.engine.table;
 
 import io.questdb.cairo.ColumnType;
 import io.questdb.cairo.sql.*;
+import io.questdb.griffin.PlanSink;
 import io.questdb.griffin.SqlExecutionContext;
 import io.questdb.griffin.engine.EmptyTableRecordCursor;
 import io.questdb.griffin.engine.StrTypeCaster;
@@ -139,4 +140,10 @@ public class FilterOnSubQueryRecordCursorFactory extends AbstractDataFrameRecord
         this.cursor.of(dataFrameCursor, executionContext);
         return this.cursor;
     }
+
+    @Override
+    protected void toPlanDetails(PlanSink sink) {
+        sink.attr("column").column(columnIndex).optAttr("filter", filter);
+        sink.child(recordCursorFactory);
+    }
 }
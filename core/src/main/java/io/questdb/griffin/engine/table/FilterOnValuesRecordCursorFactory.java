@@ -27,6 +27,7 @@ package io.questdb.griffin.engine.table;
 import io.questdb.cairo.SymbolMapReader;
 import io.questdb.cairo.TableReader;
 import io.questdb.cairo.sql.*;
+import io.questdb.griffin.PlanSink;
 import io.questdb.griffin.SqlExecutionContext;
 import io.questdb.griffin.engine.EmptyTableRecordCursor;
 import io.questdb.std.CharSequenceHashSet;
@@ -131,4 +132,12 @@ public class FilterOnValuesRecordCursorFactory extends AbstractDataFrameRecordCu
         }
         return false;
     }
+
+    @Override
+    protected void toPlanDetails(PlanSink sink) {
+        sink.attr("column").column(columnIndex).optAttr("filter", filter);
+        for (int i = 0, n = cursorFactories.size(); i < n; i++) {
+            sink.child(cursorFactories.getQuick(i));
+        }
+    }
 }
@@ -28,12 +28,14 @@ import io.questdb.cairo.sql.Function;
 import io.questdb.cairo.sql.Record;
 import io.questdb.cairo.sql.RecordCursor;
 import io.questdb.cairo.sql.SymbolTable;
+import io.questdb.griffin.SqlExecutionCircuitBreaker;
 import io.questdb.griffin.SqlExecutionContext;
 
 class FilteredRecordCursor implements RecordCursor {
     private final Function filter;
     private RecordCursor base;
     private Record record;
+    private SqlExecutionCircuitBreaker circuitBreaker;
 
     public FilteredRecordCursor(Function filter) {
         this.filter = filter;
@@ -61,6 +63,7 @@ class FilteredRecordCursor implements RecordCursor {
         }
 
         while (base.hasNext()) {
+            circuitBreaker.checkState();
             if (filter.getBool(record)) {
                 return true;
             }
@@ -105,6 +108,7 @@ class FilteredRecordCursor implements RecordCursor {
     void of(RecordCursor base, SqlExecutionContext executionContext) {
         this.base = base;
         this.record = base.getRecord();
+        this.circuitBreaker = executionContext.getCircuitBreaker();
         filter.init(this, executionContext);
     }
 }
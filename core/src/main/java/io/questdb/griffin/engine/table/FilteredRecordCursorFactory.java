@@ -28,6 +28,7 @@ import io.questdb.cairo.sql.Function;
 import io.questdb.cairo.sql.RecordCursor;
 import io.questdb.cairo.sql.RecordCursorFactory;
 import io.questdb.cairo.sql.RecordMetadata;
+import io.questdb.griffin.PlanSink;
 import io.questdb.griffin.SqlExecutionContext;
 
 public class FilteredRecordCursorFactory implements RecordCursorFactory {
@@ -63,4 +64,10 @@ public class FilteredRecordCursorFactory implements RecordCursorFactory {
     public boolean isRandomAccessCursor() {
         return base.isRandomAccessCursor();
     }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.type(this).attr("filter").val(filter);
+        sink.child(base);
+    }
 }
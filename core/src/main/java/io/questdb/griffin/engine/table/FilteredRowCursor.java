@@ -0,0 +1,94 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.table;
+
+import io.questdb.cairo.TableReader;
+import io.questdb.cairo.TableReaderRecord;
+import io.questdb.cairo.sql.DataFrame;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.RowCursor;
+import io.questdb.std.LongList;
+
+/**
+ * Evaluates filter over batches of rows and serves row ids that passed it. Filter reads its own
+ * columns for every row of the batch before any other column is read, columns that are not
+ * referenced by filter are then read by downstream record for surviving rows only.
+ */
+class FilteredRowCursor implements RowCursor {
+    private final Function filter;
+    private final TableReaderRecord record = new TableReaderRecord();
+    private final LongList rows = new LongList();
+    private final int batchSize;
+    private RowCursor baseCursor;
+    private int index;
+
+    public FilteredRowCursor(Function filter, int batchSize) {
+        this.filter = filter;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return index < rows.size() || nextBatch();
+    }
+
+    @Override
+    public long next() {
+        return rows.getQuick(index++);
+    }
+
+    FilteredRowCursor of(DataFrame dataFrame, RowCursor baseCursor) {
+        this.baseCursor = baseCursor;
+        this.rows.clear();
+        this.index = 0;
+        record.jumpTo(dataFrame.getPartitionIndex(), 0);
+        return this;
+    }
+
+    void setTableReader(TableReader tableReader) {
+        this.record.of(tableReader);
+    }
+
+    private boolean nextBatch() {
+        rows.clear();
+        index = 0;
+        // batch may be entirely filtered out, keep going until base cursor is exhausted
+        while (baseCursor.hasNext()) {
+            int n = 0;
+            do {
+                final long row = baseCursor.next();
+                record.setRecordIndex(row);
+                if (filter.getBool(record)) {
+                    rows.add(row);
+                }
+            } while (++n < batchSize && baseCursor.hasNext());
+
+            if (rows.size() > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,66 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.table;
+
+import io.questdb.cairo.TableReader;
+import io.questdb.cairo.sql.DataFrame;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.RowCursor;
+import io.questdb.cairo.sql.RowCursorFactory;
+import io.questdb.griffin.PlanSink;
+
+public class FilteredRowCursorFactory implements RowCursorFactory {
+    private final RowCursorFactory baseFactory;
+    private final FilteredRowCursor cursor;
+    private final Function filter;
+
+    public FilteredRowCursorFactory(RowCursorFactory baseFactory, Function filter, int batchSize) {
+        this.baseFactory = baseFactory;
+        this.filter = filter;
+        this.cursor = new FilteredRowCursor(filter, batchSize);
+    }
+
+    @Override
+    public RowCursor getCursor(DataFrame dataFrame) {
+        return cursor.of(dataFrame, baseFactory.getCursor(dataFrame));
+    }
+
+    @Override
+    public void prepareCursor(TableReader tableReader) {
+        baseFactory.prepareCursor(tableReader);
+        cursor.setTableReader(tableReader);
+    }
+
+    @Override
+    public boolean isEntity() {
+        return false;
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.type(this).attr("filter").val(filter);
+        sink.child(baseFactory);
+    }
+}
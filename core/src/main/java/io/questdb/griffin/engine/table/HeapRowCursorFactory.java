@@ -28,6 +28,7 @@ import io.questdb.cairo.TableReader;
 import io.questdb.cairo.sql.DataFrame;
 import io.questdb.cairo.sql.RowCursor;
 import io.questdb.cairo.sql.RowCursorFactory;
+import io.questdb.griffin.PlanSink;
 import io.questdb.std.ObjList;
 
 public class HeapRowCursorFactory implements RowCursorFactory {
@@ -61,4 +62,12 @@ public class HeapRowCursorFactory implements RowCursorFactory {
             cursorFactories.getQuick(i).prepareCursor(tableReader);
         }
     }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.type(this);
+        for (int i = 0, n = cursorFactories.size(); i < n; i++) {
+            sink.child(cursorFactories.getQuick(i));
+        }
+    }
 }
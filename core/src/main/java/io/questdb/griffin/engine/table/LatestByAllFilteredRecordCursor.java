@@ -29,6 +29,7 @@ import io.questdb.cairo.map.Map;
 import io.questdb.cairo.map.MapKey;
 import io.questdb.cairo.sql.DataFrame;
 import io.questdb.cairo.sql.Function;
+import io.questdb.griffin.SqlExecutionCircuitBreaker;
 import io.questdb.griffin.SqlExecutionContext;
 import io.questdb.std.DirectLongList;
 import io.questdb.std.Rows;
@@ -60,6 +61,7 @@ class LatestByAllFilteredRecordCursor extends AbstractRecordListCursor {
     @Override
     protected void buildTreeMap(SqlExecutionContext executionContext) {
         map.clear();
+        final SqlExecutionCircuitBreaker circuitBreaker = executionContext.getCircuitBreaker();
         filter.init(this, executionContext);
 
         while (this.dataFrameCursor.hasNext()) {
@@ -70,6 +72,7 @@ class LatestByAllFilteredRecordCursor extends AbstractRecordListCursor {
 
             record.jumpTo(frame.getPartitionIndex(), rowHi);
             for (long row = rowHi; row >= rowLo; row--) {
+                circuitBreaker.checkState();
                 record.setRecordIndex(row);
                 if (filter.getBool(record)) {
                     MapKey key = map.withKey();
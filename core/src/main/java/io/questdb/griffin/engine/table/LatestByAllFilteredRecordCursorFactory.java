@@ -32,12 +32,14 @@ import io.questdb.cairo.map.MapFactory;
 import io.questdb.cairo.sql.DataFrameCursorFactory;
 import io.questdb.cairo.sql.Function;
 import io.questdb.cairo.sql.RecordMetadata;
+import io.questdb.griffin.PlanSink;
 import io.questdb.std.Transient;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 public class LatestByAllFilteredRecordCursorFactory extends AbstractTreeSetRecordCursorFactory {
     private final Map map;
+    private final Function filter;
 
     public LatestByAllFilteredRecordCursorFactory(
             @NotNull RecordMetadata metadata,
@@ -53,6 +55,7 @@ public class LatestByAllFilteredRecordCursorFactory extends AbstractTreeSetRecor
         } else {
             this.cursor = new LatestByAllFilteredRecordCursor(map, rows, recordSink, filter);
         }
+        this.filter = filter;
     }
 
     @Override
@@ -65,4 +68,9 @@ public class LatestByAllFilteredRecordCursorFactory extends AbstractTreeSetRecor
     public boolean isRandomAccessCursor() {
         return true;
     }
+
+    @Override
+    protected void toPlanDetails(PlanSink sink) {
+        sink.optAttr("filter", filter);
+    }
 }
@@ -28,10 +28,14 @@ import io.questdb.cairo.CairoConfiguration;
 import io.questdb.cairo.sql.DataFrameCursorFactory;
 import io.questdb.cairo.sql.Function;
 import io.questdb.cairo.sql.RecordMetadata;
+import io.questdb.griffin.PlanSink;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 public class LatestByAllIndexedFilteredRecordCursorFactory extends AbstractTreeSetRecordCursorFactory {
+    private final int columnIndex;
+    private final Function filter;
+
     public LatestByAllIndexedFilteredRecordCursorFactory(
             @NotNull CairoConfiguration configuration,
             @NotNull RecordMetadata metadata,
@@ -44,10 +48,17 @@ public class LatestByAllIndexedFilteredRecordCursorFactory extends AbstractTreeS
         } else {
             this.cursor = new LatestByAllIndexedFilteredRecordCursor(columnIndex, rows, filter);
         }
+        this.columnIndex = columnIndex;
+        this.filter = filter;
     }
 
     @Override
     public boolean isRandomAccessCursor() {
         return true;
     }
+
+    @Override
+    protected void toPlanDetails(PlanSink sink) {
+        sink.attr("column").column(columnIndex).optAttr("filter", filter);
+    }
 }
@@ -28,6 +28,7 @@ import io.questdb.cairo.RecordSink;
 import io.questdb.cairo.map.Map;
 import io.questdb.cairo.map.MapKey;
 import io.questdb.cairo.sql.DataFrame;
+import io.questdb.griffin.SqlExecutionCircuitBreaker;
 import io.questdb.griffin.SqlExecutionContext;
 import io.questdb.std.DirectLongList;
 import io.questdb.std.Rows;
@@ -46,6 +47,7 @@ class LatestByAllRecordCursor extends AbstractRecordListCursor {
     @Override
     protected void buildTreeMap(SqlExecutionContext executionContext) {
         map.clear();
+        final SqlExecutionCircuitBreaker circuitBreaker = executionContext.getCircuitBreaker();
 
         while (this.dataFrameCursor.hasNext()) {
             final DataFrame frame = this.dataFrameCursor.next();
@@ -55,6 +57,7 @@ class LatestByAllRecordCursor extends AbstractRecordListCursor {
 
             record.jumpTo(frame.getPartitionIndex(), rowHi);
             for (long row = rowHi; row >= rowLo; row--) {
+                circuitBreaker.checkState();
                 record.setRecordIndex(row);
                 MapKey key = map.withKey();
                 key.put(record, recordSink);
@@ -0,0 +1,62 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.table;
+
+import io.questdb.cairo.CairoWorkScheduler;
+import io.questdb.mp.Job;
+import io.questdb.mp.RingQueue;
+import io.questdb.mp.Sequence;
+
+public class LatestByJob implements Job {
+    private final RingQueue<LatestByEntry> queue;
+    private final Sequence sequence;
+
+    public LatestByJob(CairoWorkScheduler workScheduler) {
+        this.queue = workScheduler.getLatestByQueue();
+        this.sequence = workScheduler.getLatestBySubSequence();
+    }
+
+    @Override
+    public boolean run() {
+        long cursor = sequence.next();
+        if (cursor < 0) {
+            return false;
+        }
+
+        final LatestByEntry queueItem = queue.get(cursor);
+        // copy values and release queue item
+        final LatestByTask task = queueItem.task;
+        final long taskSequence = queueItem.sequence;
+        sequence.done(cursor);
+
+        // query thread scans frames that were not picked up by the time it needs them,
+        // CAS makes sure frame is scanned exactly once
+        if (task.tryLock(taskSequence)) {
+            task.scanAndCountDown();
+            return true;
+        }
+        return false;
+    }
+}
@@ -28,6 +28,7 @@ import io.questdb.cairo.CairoConfiguration;
 import io.questdb.cairo.ColumnType;
 import io.questdb.cairo.TableUtils;
 import io.questdb.cairo.sql.*;
+import io.questdb.griffin.PlanSink;
 import io.questdb.griffin.SqlExecutionContext;
 import io.questdb.griffin.engine.StrTypeCaster;
 import io.questdb.griffin.engine.SymbolTypeCaster;
@@ -117,4 +118,10 @@ public class LatestBySubQueryRecordCursorFactory extends AbstractTreeSetRecordCu
     public boolean isRandomAccessCursor() {
         return true;
     }
+
+    @Override
+    protected void toPlanDetails(PlanSink sink) {
+        sink.attr("column").column(columnIndex).optAttr("filter", filter);
+        sink.child(recordCursorFactory);
+    }
 }
@@ -0,0 +1,341 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.table;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.CairoEngine;
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.CairoWorkScheduler;
+import io.questdb.cairo.SymbolMapReader;
+import io.questdb.cairo.TableReader;
+import io.questdb.cairo.sql.DataFrame;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.SymbolTable;
+import io.questdb.griffin.SqlExecutionCircuitBreaker;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.functions.bool.SymbolKeyFilterFunction;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.mp.RingQueue;
+import io.questdb.mp.Sequence;
+import io.questdb.std.DirectLongList;
+import io.questdb.std.LongList;
+import io.questdb.std.ObjList;
+import io.questdb.std.Rows;
+import io.questdb.std.Sinkable;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Finds latest row of every key of single symbol column. Keys that have been found are kept
+ * in a bit set and scan stops as soon as every key that can make it into the result is found,
+ * which is every key of symbol table or, when filter is symbol key filter of the same column,
+ * every key that satisfies the filter. Symbol table does not tell whether column has nulls,
+ * once all other keys are found remaining rows are only checked for null key.
+ * <p>
+ * When work queue is available and filter is safe to share between threads, most recent
+ * frames are scanned in parallel. First frame is scanned by the query thread, the rest are
+ * published to the work queue. Frame candidates are merged in backward frame order and
+ * tasks that are no longer needed once all keys are found are cancelled.
+ */
+class LatestBySymbolRecordCursor extends AbstractRecordListCursor {
+    private static final Log LOG = LogFactory.getLog(LatestBySymbolRecordCursor.class);
+    private final CairoConfiguration configuration;
+    private final CairoEngine engine;
+    private final RingQueue<LatestByEntry> queue;
+    private final Sequence pubSeq;
+    private final int columnIndex;
+    private final Function filter;
+    // symbol key filter of latest by column, filter is either this function or conjunction that includes it
+    private final SymbolKeyFilterFunction symbolFilter;
+    private final LongList seenKeys = new LongList();
+    // partition index, row lo and row hi of frames to be scanned in parallel
+    private final LongList frames = new LongList();
+    private final ObjList<LatestByTask> tasks = new ObjList<>();
+    private TableReader reader;
+    private SqlExecutionCircuitBreaker circuitBreaker;
+    private int keyTarget;
+    private int keyFound;
+    private boolean nullPossible;
+    private boolean nullFound;
+    private int taskCount;
+    private int computedTaskCount;
+
+    public LatestBySymbolRecordCursor(
+            @NotNull CairoConfiguration configuration,
+            @NotNull CairoEngine engine,
+            @Nullable CairoWorkScheduler workScheduler,
+            @NotNull DirectLongList rows,
+            int columnIndex,
+            @Nullable Function filter,
+            @Nullable SymbolKeyFilterFunction symbolFilter
+    ) {
+        super(rows);
+        this.configuration = configuration;
+        this.engine = engine;
+        this.columnIndex = columnIndex;
+        this.filter = filter;
+        this.symbolFilter = symbolFilter;
+
+        // arbitrary filters are not guaranteed to be thread-safe, symbol key filter is read-only after init
+        if (workScheduler != null && workScheduler.getLatestByQueue() != null && (filter == null || filter == symbolFilter)) {
+            this.queue = workScheduler.getLatestByQueue();
+            this.pubSeq = workScheduler.getLatestByPubSequence();
+        } else {
+            this.queue = null;
+            this.pubSeq = null;
+        }
+    }
+
+    @Override
+    public void close() {
+        if (filter != null) {
+            filter.close();
+        }
+        super.close();
+    }
+
+    @Override
+    protected void buildTreeMap(SqlExecutionContext executionContext) {
+        circuitBreaker = executionContext.getCircuitBreaker();
+        if (filter != null) {
+            filter.init(this, executionContext);
+        }
+
+        final SymbolMapReader symbolMapReader = dataFrameCursor.getTableReader().getSymbolMapReader(columnIndex);
+        final int keyCount = symbolMapReader.size();
+        // scan can stop early only when it does not have to look for null value
+        final boolean nullPresent = symbolMapReader.containsNullValue();
+        if (symbolFilter != null) {
+            keyTarget = symbolFilter.getMatchingKeys().size();
+            nullPossible = nullPresent && symbolFilter.isNullMatching();
+        } else {
+            keyTarget = keyCount;
+            nullPossible = nullPresent;
+        }
+        keyFound = 0;
+        nullFound = false;
+        LatestByTask.resetSeen(seenKeys, keyCount);
+
+        if (isComplete()) {
+            return;
+        }
+
+        reader = dataFrameCursor.getTableReader();
+        if (queue != null && scanParallel(executionContext, keyCount)) {
+            return;
+        }
+
+        while (dataFrameCursor.hasNext()) {
+            final DataFrame frame = dataFrameCursor.next();
+            if (scan(frame.getPartitionIndex(), frame.getRowLo(), frame.getRowHi())) {
+                return;
+            }
+        }
+    }
+
+    private boolean add(int partitionIndex, long row, int key) {
+        if (LatestByTask.markSeen(seenKeys, key)) {
+            rows.add(Rows.toRowID(partitionIndex, row));
+            if (key == SymbolTable.VALUE_IS_NULL) {
+                nullFound = true;
+            } else {
+                keyFound++;
+            }
+            return isComplete();
+        }
+        return false;
+    }
+
+    private void compute(LatestByTask task) {
+        if (task.hasReader()) {
+            if (task.tryLock()) {
+                // workers have not started this task yet, compute it here
+                task.scanAndCountDown();
+            } else {
+                task.await();
+            }
+
+            if (!task.isFailed()) {
+                return;
+            }
+            LOG.info().$("rescanning latest by frame [table=").$(reader.getTableName()).$(']').$();
+        }
+        task.scan(reader);
+    }
+
+    private void drainTasks() {
+        // tasks are not needed past this point, workers must be done with task readers before they are released
+        for (int i = computedTaskCount; i < taskCount; i++) {
+            tasks.getQuick(i).cancel();
+        }
+
+        for (int i = computedTaskCount; i < taskCount; i++) {
+            final LatestByTask task = tasks.getQuick(i);
+            if (task.hasReader() && !task.tryLock()) {
+                task.await();
+            }
+        }
+
+        for (int i = 0; i < taskCount; i++) {
+            tasks.getQuick(i).clear();
+        }
+        taskCount = 0;
+        computedTaskCount = 0;
+    }
+
+    private boolean isComplete() {
+        return keyFound == keyTarget && (nullFound || !nullPossible);
+    }
+
+    private boolean merge(LatestByTask task) {
+        final LongList candidates = task.getCandidates();
+        final int partitionIndex = task.getPartitionIndex();
+        for (int i = 0, n = candidates.size(); i < n; i += 2) {
+            if (add(partitionIndex, candidates.getQuick(i), (int) candidates.getQuick(i + 1))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void prepareTasks(SqlExecutionContext executionContext, int keyCount) {
+        taskCount = 0;
+        computedTaskCount = 0;
+        for (int i = 0, n = frames.size(); i < n; i += 3) {
+            final LatestByTask task;
+            if (taskCount < tasks.size()) {
+                task = tasks.getQuick(taskCount);
+            } else {
+                task = new LatestByTask(columnIndex, filter);
+                tasks.add(task);
+            }
+            task.of((int) frames.getQuick(i), frames.getQuick(i + 1), frames.getQuick(i + 2), keyCount);
+            taskCount++;
+        }
+
+        // first task is computed with reader of base cursor, other tasks need reader each
+        for (int i = 1; i < taskCount; i++) {
+            TableReader taskReader;
+            try {
+                taskReader = engine.getReader(executionContext.getCairoSecurityContext(), reader.getTableName(), reader.getVersion());
+            } catch (CairoException e) {
+                // reader pool is exhausted, remaining tasks are computed by this thread
+                LOG.info().$("could not get task reader [table=").$(reader.getTableName()).$(", e=").$((Sinkable) e).$(']').$();
+                break;
+            }
+            tasks.getQuick(i).of(taskReader, reader);
+        }
+    }
+
+    private void publishTasks() {
+        for (int i = 1; i < taskCount; i++) {
+            final LatestByTask task = tasks.getQuick(i);
+            if (!task.hasReader()) {
+                break;
+            }
+
+            long cursor = pubSeq.next();
+            while (cursor == -2) {
+                // CAS issue, retry
+                cursor = pubSeq.next();
+            }
+
+            if (cursor == -1) {
+                // queue is full, remaining tasks are computed by this thread
+                break;
+            }
+
+            final LatestByEntry queueItem = queue.get(cursor);
+            queueItem.task = task;
+            queueItem.sequence = task.getLockSequence();
+            pubSeq.done(cursor);
+        }
+    }
+
+    private boolean scan(int partitionIndex, long rowLo, long rowHi) {
+        record.jumpTo(partitionIndex, rowHi - 1);
+        for (long row = rowHi - 1; row >= rowLo; row--) {
+            circuitBreaker.checkState();
+            record.setRecordIndex(row);
+            final int key = record.getInt(columnIndex);
+            // when all other keys are found only null key can be new
+            if ((keyFound < keyTarget || key == SymbolTable.VALUE_IS_NULL)
+                    && (filter == null || filter.getBool(record))
+                    && add(partitionIndex, row, key)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Scans most recent frames in parallel.
+     *
+     * @return true when all keys are found
+     */
+    private boolean scanParallel(SqlExecutionContext executionContext, int keyCount) {
+        final int maxTaskCount = configuration.getSqlLatestByParallelTaskCount();
+        frames.clear();
+        long rowCount = 0;
+        while (frames.size() < maxTaskCount * 3 && dataFrameCursor.hasNext()) {
+            final DataFrame frame = dataFrameCursor.next();
+            final long rowLo = frame.getRowLo();
+            final long rowHi = frame.getRowHi();
+            if (rowLo < rowHi) {
+                frames.add(frame.getPartitionIndex());
+                frames.add(rowLo);
+                frames.add(rowHi);
+                rowCount += rowHi - rowLo;
+            }
+        }
+
+        if (frames.size() < 6 || rowCount < configuration.getSqlLatestByParallelThreshold()) {
+            // not worth it, scan frames that have been taken from cursor on this thread
+            for (int i = 0, n = frames.size(); i < n; i += 3) {
+                if (scan((int) frames.getQuick(i), frames.getQuick(i + 1), frames.getQuick(i + 2))) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        prepareTasks(executionContext, keyCount);
+        publishTasks();
+        try {
+            while (computedTaskCount < taskCount) {
+                circuitBreaker.checkState();
+                final LatestByTask task = tasks.getQuick(computedTaskCount++);
+                compute(task);
+                if (merge(task)) {
+                    return true;
+                }
+            }
+        } finally {
+            drainTasks();
+        }
+        return false;
+    }
+}
@@ -0,0 +1,70 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.table;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.CairoEngine;
+import io.questdb.cairo.CairoWorkScheduler;
+import io.questdb.cairo.sql.DataFrameCursorFactory;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.RecordMetadata;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.engine.functions.bool.SymbolKeyFilterFunction;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+public class LatestBySymbolRecordCursorFactory extends AbstractTreeSetRecordCursorFactory {
+    private final int columnIndex;
+    private final Function filter;
+    private final SymbolKeyFilterFunction symbolFilter;
+
+
+    public LatestBySymbolRecordCursorFactory(
+            @NotNull RecordMetadata metadata,
+            @NotNull CairoConfiguration configuration,
+            @NotNull CairoEngine engine,
+            @Nullable CairoWorkScheduler workScheduler,
+            @NotNull DataFrameCursorFactory dataFrameCursorFactory,
+            int columnIndex,
+            @Nullable Function filter,
+            @Nullable SymbolKeyFilterFunction symbolFilter
+    ) {
+        super(metadata, dataFrameCursorFactory, configuration);
+        this.cursor = new LatestBySymbolRecordCursor(configuration, engine, workScheduler, rows, columnIndex, filter, symbolFilter);
+        this.columnIndex = columnIndex;
+        this.filter = filter;
+        this.symbolFilter = symbolFilter;
+    }
+
+    @Override
+    public boolean isRandomAccessCursor() {
+        return true;
+    }
+
+    @Override
+    protected void toPlanDetails(PlanSink sink) {
+        sink.attr("column").column(columnIndex).optAttr("filter", filter).optAttr("symbolFilter", symbolFilter);
+    }
+}
@@ -0,0 +1,239 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.table;
+
+import io.questdb.cairo.TableReader;
+import io.questdb.cairo.TableReaderRecord;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.SymbolTable;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.mp.SOCountDownLatch;
+import io.questdb.std.LongList;
+import io.questdb.std.Misc;
+import io.questdb.std.Unsafe;
+
+import java.io.Closeable;
+
+/**
+ * Finds latest row of every distinct symbol key in single data frame. Rows are scanned from
+ * last to first and row is a candidate when its key has not been seen in the frame before.
+ * Candidates are kept newest first, consumer merges candidates of frames in backward frame
+ * order to arrive at latest row of each key. Task is computed either by worker or by the
+ * thread that consumes its candidates, whichever locks it first.
+ */
+public class LatestByTask implements Closeable {
+    private static final Log LOG = LogFactory.getLog(LatestByTask.class);
+    private static final long SEQUENCE_OFFSET;
+    private static final int CANCEL_CHECK_MASK = 1023;
+
+    static {
+        SEQUENCE_OFFSET = Unsafe.getFieldOffset(LatestByTask.class, "sequence");
+    }
+
+    private final TableReaderRecord record = new TableReaderRecord();
+    private final SOCountDownLatch latch = new SOCountDownLatch();
+    // row and symbol key of each candidate
+    private final LongList candidates = new LongList();
+    private final LongList seenKeys = new LongList();
+    private final int columnIndex;
+    // filter must be safe to share between threads, symbol key filter is
+    private final Function filter;
+    private TableReader reader;
+    private int partitionIndex;
+    private long rowLo;
+    private long rowHi;
+    private int partitionCount;
+    private long minPartitionTimestamp;
+    private int keyCount;
+    private long lockSequence;
+    @SuppressWarnings({"unused", "FieldCanBeLocal"})
+    private volatile long sequence = 0L;
+    private volatile boolean failed = false;
+    private volatile boolean cancelled = false;
+
+    LatestByTask(int columnIndex, Function filter) {
+        this.columnIndex = columnIndex;
+        this.filter = filter;
+    }
+
+    /**
+     * Marks symbol key as seen.
+     *
+     * @param seenKeys bit set of seen keys, null key is bit 0, key k is bit k + 1
+     * @param key      symbol key
+     * @return true when key has not been seen before
+     */
+    static boolean markSeen(LongList seenKeys, int key) {
+        final int bit = key == SymbolTable.VALUE_IS_NULL ? 0 : key + 1;
+        final int word = bit >>> 6;
+        if (word >= seenKeys.size()) {
+            // key is outside of symbol table reader was opened with
+            seenKeys.seed(seenKeys.size(), word - seenKeys.size() + 1, 0);
+        }
+        final long w = seenKeys.getQuick(word);
+        final long mask = 1L << bit;
+        if ((w & mask) == 0) {
+            seenKeys.setQuick(word, w | mask);
+            return true;
+        }
+        return false;
+    }
+
+    static void resetSeen(LongList seenKeys, int keyCount) {
+        seenKeys.clear();
+        seenKeys.seed((keyCount + 64) >>> 6, 0);
+    }
+
+    /**
+     * Cancels scan, which has not finished yet. Candidates of cancelled task must not be used.
+     */
+    void cancel() {
+        cancelled = true;
+    }
+
+    @Override
+    public void close() {
+        clear();
+    }
+
+    void await() {
+        latch.await();
+    }
+
+    void clear() {
+        candidates.clear();
+        failed = false;
+        cancelled = false;
+        reader = Misc.free(reader);
+    }
+
+    LongList getCandidates() {
+        return candidates;
+    }
+
+    long getLockSequence() {
+        return lockSequence;
+    }
+
+    int getPartitionIndex() {
+        return partitionIndex;
+    }
+
+    boolean hasReader() {
+        return reader != null;
+    }
+
+    boolean isFailed() {
+        return failed;
+    }
+
+    void of(int partitionIndex, long rowLo, long rowHi, int keyCount) {
+        this.partitionIndex = partitionIndex;
+        this.rowLo = rowLo;
+        this.rowHi = rowHi;
+        this.keyCount = keyCount;
+        this.candidates.clear();
+        this.failed = false;
+        this.cancelled = false;
+    }
+
+    void of(TableReader reader, TableReader sourceReader) {
+        this.reader = reader;
+        this.partitionCount = sourceReader.getPartitionCount();
+        this.minPartitionTimestamp = sourceReader.floorToPartitionTimestamp(sourceReader.getMinTimestamp());
+        this.lockSequence = sequence;
+        this.latch.setCount(1);
+    }
+
+    /**
+     * Scans frame using given reader. Reader must be used by current thread only.
+     *
+     * @param reader reader of the table frame was taken from
+     */
+    void scan(TableReader reader) {
+        candidates.clear();
+        resetSeen(seenKeys, keyCount);
+        record.of(reader);
+        record.jumpTo(partitionIndex, rowHi - 1);
+        // null key is counted too, it may or may not be present in the frame
+        final int maxFound = keyCount + 1;
+        int found = 0;
+        for (long row = rowHi - 1; row >= rowLo && found < maxFound; row--) {
+            if ((row & CANCEL_CHECK_MASK) == 0 && cancelled) {
+                return;
+            }
+            record.setRecordIndex(row);
+            if (filter == null || filter.getBool(record)) {
+                final int key = record.getInt(columnIndex);
+                if (markSeen(seenKeys, key)) {
+                    candidates.add(row);
+                    candidates.add(key);
+                    found++;
+                }
+            }
+        }
+    }
+
+    /**
+     * Scans frame using reader of this task. Failure to do so is not propagated, task is
+     * marked failed instead and is expected to be rescanned by the consumer.
+     */
+    void scanAndCountDown() {
+        try {
+            if (isCompatible()) {
+                scan(reader);
+            } else {
+                failed = true;
+            }
+        } catch (Throwable e) {
+            failed = true;
+            LOG.error().$("latest by task failed [table=").$(reader.getTableName()).$(", e=").$(e).$(']').$();
+        } finally {
+            latch.countDown();
+        }
+    }
+
+    /**
+     * Locks task for computation by current thread.
+     *
+     * @return false when task is already locked by another thread
+     */
+    boolean tryLock() {
+        return tryLock(lockSequence);
+    }
+
+    boolean tryLock(long expectedSequence) {
+        return Unsafe.cas(this, SEQUENCE_OFFSET, expectedSequence, expectedSequence + 1);
+    }
+
+    private boolean isCompatible() {
+        // task reader is acquired separately from the reader frame was taken from,
+        // partitions must be the same and must have at least as many rows
+        return reader.getPartitionCount() >= partitionCount
+                && reader.floorToPartitionTimestamp(reader.getMinTimestamp()) == minPartitionTimestamp
+                && reader.openPartition(partitionIndex) >= rowHi;
+    }
+}
@@ -31,6 +31,7 @@ import io.questdb.cairo.sql.DataFrame;
 import io.questdb.cairo.sql.RowCursor;
 import io.questdb.cairo.sql.RowCursorFactory;
 import io.questdb.cairo.sql.SymbolTable;
+import io.questdb.griffin.PlanSink;
 
 public class LatestByValueDeferredIndexedRowCursorFactory implements RowCursorFactory {
     private final int columnIndex;
@@ -76,4 +77,9 @@ public class LatestByValueDeferredIndexedRowCursorFactory implements RowCursorFa
     public boolean isEntity() {
         return false;
     }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.type(this).attr("column").column(columnIndex).attr("symbol").val(symbol);
+    }
 }
@@ -25,6 +25,7 @@
 package io.questdb.griffin.engine.table;
 
 import io.questdb.cairo.sql.*;
+import io.questdb.griffin.PlanSink;
 import io.questdb.griffin.SqlExecutionContext;
 import org.jetbrains.annotations.Nullable;
 
@@ -32,6 +33,8 @@ public class LatestByValueFilteredRecordCursorFactory extends AbstractDataFrameR
 
     private final AbstractDataFrameRecordCursor cursor;
     private final Function filter;
+    private final int columnIndex;
+    private final int symbolKey;
 
     public LatestByValueFilteredRecordCursorFactory(
             RecordMetadata metadata,
@@ -46,6 +49,8 @@ public class LatestByValueFilteredRecordCursorFactory extends AbstractDataFrameR
             this.cursor = new LatestByValueFilteredRecordCursor(columnIndex, symbolKey, filter);
         }
         this.filter = filter;
+        this.columnIndex = columnIndex;
+        this.symbolKey = symbolKey;
     }
 
     @Override
@@ -69,4 +74,9 @@ public class LatestByValueFilteredRecordCursorFactory extends AbstractDataFrameR
         cursor.of(dataFrameCursor, executionContext);
         return cursor;
     }
+
+    @Override
+    protected void toPlanDetails(PlanSink sink) {
+        sink.attr("column").column(columnIndex).attr("key").val(symbolKey).optAttr("filter", filter);
+    }
 }
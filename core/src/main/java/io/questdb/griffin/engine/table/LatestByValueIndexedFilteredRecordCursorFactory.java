@@ -26,12 +26,15 @@ package io.questdb.griffin.engine.table;
 
 import io.questdb.cairo.TableUtils;
 import io.questdb.cairo.sql.*;
+import io.questdb.griffin.PlanSink;
 import io.questdb.griffin.SqlExecutionContext;
 import org.jetbrains.annotations.NotNull;
 
 public class LatestByValueIndexedFilteredRecordCursorFactory extends AbstractDataFrameRecordCursorFactory {
     private final LatestByValueIndexedFilteredRecordCursor cursor;
     private final Function filter;
+    private final int columnIndex;
+    private final int symbolKey;
 
     public LatestByValueIndexedFilteredRecordCursorFactory(
             @NotNull RecordMetadata metadata,
@@ -42,6 +45,8 @@ public class LatestByValueIndexedFilteredRecordCursorFactory extends AbstractDat
         super(metadata, dataFrameCursorFactory);
         this.cursor = new LatestByValueIndexedFilteredRecordCursor(columnIndex, TableUtils.toIndexKey(symbolKey), filter);
         this.filter = filter;
+        this.columnIndex = columnIndex;
+        this.symbolKey = symbolKey;
     }
 
     @Override
@@ -60,4 +65,9 @@ public class LatestByValueIndexedFilteredRecordCursorFactory extends AbstractDat
         cursor.of(dataFrameCursor, executionContext);
         return cursor;
     }
+
+    @Override
+    protected void toPlanDetails(PlanSink sink) {
+        sink.attr("column").column(columnIndex).attr("key").val(symbolKey).attr("filter").val(filter);
+    }
 }
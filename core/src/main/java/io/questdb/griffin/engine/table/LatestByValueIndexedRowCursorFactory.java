@@ -30,6 +30,7 @@ import io.questdb.cairo.TableUtils;
 import io.questdb.cairo.sql.DataFrame;
 import io.questdb.cairo.sql.RowCursor;
 import io.questdb.cairo.sql.RowCursorFactory;
+import io.questdb.griffin.PlanSink;
 
 public class LatestByValueIndexedRowCursorFactory implements RowCursorFactory {
     private final int columnIndex;
@@ -61,4 +62,9 @@ public class LatestByValueIndexedRowCursorFactory implements RowCursorFactory {
     public boolean isEntity() {
         return false;
     }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.type(this).attr("column").column(columnIndex).attr("indexKey").val(symbolKey);
+    }
 }
@@ -30,6 +30,7 @@ import io.questdb.cairo.sql.DataFrameCursor;
 import io.questdb.cairo.sql.DataFrameCursorFactory;
 import io.questdb.cairo.sql.Function;
 import io.questdb.cairo.sql.RecordMetadata;
+import io.questdb.griffin.PlanSink;
 import io.questdb.griffin.SqlExecutionContext;
 import io.questdb.std.CharSequenceHashSet;
 import io.questdb.std.Transient;
@@ -83,4 +84,10 @@ public class LatestByValuesFilteredRecordCursorFactory extends AbstractDeferredT
         }
         return super.getCursorInstance(dataFrameCursor, executionContext);
     }
+
+    @Override
+    protected void toPlanDetails(PlanSink sink) {
+        super.toPlanDetails(sink);
+        sink.optAttr("filter", filter);
+    }
 }
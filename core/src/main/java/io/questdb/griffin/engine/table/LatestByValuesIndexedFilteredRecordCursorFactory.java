@@ -30,9 +30,11 @@ import io.questdb.cairo.sql.DataFrameCursor;
 import io.questdb.cairo.sql.DataFrameCursorFactory;
 import io.questdb.cairo.sql.Function;
 import io.questdb.cairo.sql.RecordMetadata;
+import io.questdb.griffin.PlanSink;
 import io.questdb.griffin.SqlExecutionContext;
 import io.questdb.std.CharSequenceHashSet;
 import io.questdb.std.DirectLongList;
+import io.questdb.std.MemoryTag;
 import io.questdb.std.Misc;
 import io.questdb.std.Transient;
 import org.jetbrains.annotations.NotNull;
@@ -41,7 +43,7 @@ import org.jetbrains.annotations.Nullable;
 public class LatestByValuesIndexedFilteredRecordCursorFactory extends AbstractDeferredTreeSetRecordCursorFactory {
 
     private final Function filter;
-    private final DirectLongList rowidList = new DirectLongList(1024 * 1024);
+    private final DirectLongList rowidList = new DirectLongList(1024 * 1024, MemoryTag.NATIVE_SQL);
 
     public LatestByValuesIndexedFilteredRecordCursorFactory(
             @NotNull CairoConfiguration configuration,
@@ -88,4 +90,10 @@ public class LatestByValuesIndexedFilteredRecordCursorFactory extends AbstractDe
 
         return super.getCursorInstance(dataFrameCursor, executionContext);
     }
+
+    @Override
+    protected void toPlanDetails(PlanSink sink) {
+        super.toPlanDetails(sink);
+        sink.optAttr("filter", filter);
+    }
 }
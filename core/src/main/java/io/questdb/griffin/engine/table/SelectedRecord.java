@@ -30,7 +30,7 @@ import io.questdb.std.IntList;
 import io.questdb.std.Long256;
 import io.questdb.std.str.CharSink;
 
-class SelectedRecord implements Record {
+public class SelectedRecord implements Record {
     private final IntList columnCrossIndex;
     private Record base;
 
@@ -145,7 +145,7 @@ class SelectedRecord implements Record {
         return columnCrossIndex.getQuick(columnIndex);
     }
 
-    void of(Record record) {
+    public void of(Record record) {
         this.base = record;
     }
 
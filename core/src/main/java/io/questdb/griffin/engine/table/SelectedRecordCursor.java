@@ -24,6 +24,7 @@
 
 package io.questdb.griffin.engine.table;
 
+import io.questdb.cairo.sql.DataFrameCursor;
 import io.questdb.cairo.sql.Record;
 import io.questdb.cairo.sql.RecordCursor;
 import io.questdb.cairo.sql.SymbolTable;
@@ -44,6 +45,16 @@ class SelectedRecordCursor implements RecordCursor {
         baseCursor.close();
     }
 
+    @Override
+    public DataFrameCursor getDataFrameCursor() {
+        return baseCursor.getDataFrameCursor();
+    }
+
+    @Override
+    public int getDataFrameColumnIndex(int columnIndex) {
+        return baseCursor.getDataFrameColumnIndex(columnCrossIndex.getQuick(columnIndex));
+    }
+
     @Override
     public Record getRecord() {
         return record;
@@ -81,6 +92,11 @@ class SelectedRecordCursor implements RecordCursor {
         baseCursor.recordAt(rowId);
     }
 
+    @Override
+    public boolean skipToTimestamp(long timestamp) {
+        return baseCursor.skipToTimestamp(timestamp);
+    }
+
     @Override
     public void toTop() {
         baseCursor.toTop();
@@ -28,6 +28,7 @@ import io.questdb.cairo.AbstractRecordCursorFactory;
 import io.questdb.cairo.sql.RecordCursor;
 import io.questdb.cairo.sql.RecordCursorFactory;
 import io.questdb.cairo.sql.RecordMetadata;
+import io.questdb.griffin.PlanSink;
 import io.questdb.griffin.SqlExecutionContext;
 import io.questdb.std.IntList;
 
@@ -35,10 +36,12 @@ public class SelectedRecordCursorFactory extends AbstractRecordCursorFactory {
 
     private final RecordCursorFactory base;
     private final SelectedRecordCursor cursor;
+    private final IntList columnCrossIndex;
 
     public SelectedRecordCursorFactory(RecordMetadata metadata, IntList columnCrossIndex, RecordCursorFactory base) {
         super(metadata);
         this.base = base;
+        this.columnCrossIndex = columnCrossIndex;
         this.cursor = new SelectedRecordCursor(columnCrossIndex);
     }
 
@@ -47,6 +50,14 @@ public class SelectedRecordCursorFactory extends AbstractRecordCursorFactory {
         base.close();
     }
 
+    public RecordCursorFactory getBaseFactory() {
+        return base;
+    }
+
+    public IntList getColumnCrossIndex() {
+        return columnCrossIndex;
+    }
+
     @Override
     public RecordCursor getCursor(SqlExecutionContext executionContext) {
         this.cursor.of(base.getCursor(executionContext));
@@ -57,4 +68,10 @@ public class SelectedRecordCursorFactory extends AbstractRecordCursorFactory {
     public boolean isRandomAccessCursor() {
         return base.isRandomAccessCursor();
     }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.type(this);
+        sink.child(base);
+    }
 }
@@ -29,12 +29,19 @@ import io.questdb.cairo.sql.DataFrame;
 import io.questdb.cairo.sql.Function;
 import io.questdb.cairo.sql.RowCursor;
 import io.questdb.cairo.sql.RowCursorFactory;
+import io.questdb.griffin.PlanSink;
 
 public class SymbolIndexFilteredRowCursorFactory implements RowCursorFactory {
     private final SymbolIndexFilteredRowCursor cursor;
+    private final int columnIndex;
+    private final int symbolKey;
+    private final Function filter;
 
     public SymbolIndexFilteredRowCursorFactory(int columnIndex, int symbolKey, Function filter, boolean cachedIndexReaderCursor) {
         this.cursor = new SymbolIndexFilteredRowCursor(columnIndex, symbolKey, filter, cachedIndexReaderCursor);
+        this.columnIndex = columnIndex;
+        this.symbolKey = symbolKey;
+        this.filter = filter;
     }
 
     @Override
@@ -51,4 +58,9 @@ public class SymbolIndexFilteredRowCursorFactory implements RowCursorFactory {
     public boolean isEntity() {
         return false;
     }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.type(this).attr("column").column(columnIndex).attr("key").val(symbolKey).attr("filter").val(filter);
+    }
 }
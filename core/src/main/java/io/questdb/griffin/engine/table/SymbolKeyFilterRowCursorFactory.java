@@ -0,0 +1,95 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.table;
+
+import io.questdb.cairo.BitmapIndexReader;
+import io.questdb.cairo.EmptyRowCursor;
+import io.questdb.cairo.TableUtils;
+import io.questdb.cairo.sql.DataFrame;
+import io.questdb.cairo.sql.RowCursor;
+import io.questdb.cairo.sql.RowCursorFactory;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.engine.functions.bool.SymbolKeyFilterFunction;
+import io.questdb.std.IntList;
+import io.questdb.std.ObjList;
+
+/**
+ * Serves rows of indexed symbol column, which keys satisfy symbol predicate. Keys are known
+ * once predicate is initialised. When a large share of keys matches, index cursors are more
+ * expensive than scanning the frame, all rows of the frame are then served instead. Either
+ * way rows are expected to be checked by filter.
+ */
+public class SymbolKeyFilterRowCursorFactory implements RowCursorFactory {
+    // merging index cursors pays off only when few of distinct values match
+    private static final int MAX_INDEX_CURSORS = 64;
+    private final SymbolKeyFilterFunction symbolFilter;
+    private final ObjList<RowCursor> cursors = new ObjList<>();
+    private final HeapRowCursor heapCursor = new HeapRowCursor();
+    private final DataFrameRowCursor frameCursor = new DataFrameRowCursor();
+
+    public SymbolKeyFilterRowCursorFactory(SymbolKeyFilterFunction symbolFilter) {
+        this.symbolFilter = symbolFilter;
+    }
+
+    @Override
+    public RowCursor getCursor(DataFrame dataFrame) {
+        final IntList keys = symbolFilter.getMatchingKeys();
+        final int keyCount = keys.size();
+
+        // rows above column top are null and are not in the index, they have to be scanned
+        if (symbolFilter.isNullMatching() || keyCount > MAX_INDEX_CURSORS || keyCount * 8 > symbolFilter.getKeyCount()) {
+            frameCursor.of(dataFrame);
+            return frameCursor;
+        }
+
+        if (keyCount == 0) {
+            return EmptyRowCursor.INSTANCE;
+        }
+
+        final BitmapIndexReader reader = dataFrame.getBitmapIndexReader(symbolFilter.getColumnIndex(), BitmapIndexReader.DIR_FORWARD);
+        final long lo = dataFrame.getRowLo();
+        final long hi = dataFrame.getRowHi() - 1;
+        if (keyCount == 1) {
+            return reader.getCursor(true, TableUtils.toIndexKey(keys.getQuick(0)), lo, hi);
+        }
+
+        cursors.clear();
+        for (int i = 0; i < keyCount; i++) {
+            cursors.add(reader.getCursor(false, TableUtils.toIndexKey(keys.getQuick(i)), lo, hi));
+        }
+        heapCursor.of(cursors);
+        return heapCursor;
+    }
+
+    @Override
+    public boolean isEntity() {
+        return false;
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.type(this).attr("column").column(symbolFilter.getColumnIndex()).attr("filter").val(symbolFilter);
+    }
+}
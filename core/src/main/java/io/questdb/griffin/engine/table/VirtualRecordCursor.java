@@ -25,6 +25,7 @@
 package io.questdb.griffin.engine.table;
 
 import io.questdb.cairo.sql.*;
+import io.questdb.griffin.engine.functions.MemoizedFunction;
 import io.questdb.std.IntList;
 import io.questdb.std.ObjList;
 import org.jetbrains.annotations.Nullable;
@@ -32,10 +33,16 @@ import org.jetbrains.annotations.Nullable;
 class VirtualRecordCursor implements RecordCursor {
     private final VirtualRecord record;
     private final IntList symbolTableCrossIndex;
+    private final ObjList<MemoizedFunction> memoizedFunctions;
     private RecordCursor baseCursor;
 
-    public VirtualRecordCursor(ObjList<Function> functions, @Nullable IntList symbolTableCrossIndex) {
+    public VirtualRecordCursor(
+            ObjList<Function> functions,
+            ObjList<MemoizedFunction> memoizedFunctions,
+            @Nullable IntList symbolTableCrossIndex
+    ) {
         this.record = new VirtualRecord(functions);
+        this.memoizedFunctions = memoizedFunctions;
         this.symbolTableCrossIndex = symbolTableCrossIndex;
     }
 
@@ -57,6 +64,7 @@ class VirtualRecordCursor implements RecordCursor {
 
     @Override
     public boolean hasNext() {
+        invalidateMemoizedFunctions();
         return baseCursor.hasNext();
     }
 
@@ -74,19 +82,28 @@ class VirtualRecordCursor implements RecordCursor {
 
     @Override
     public void recordAt(Record record, long atRowId) {
+        invalidateMemoizedFunctions();
         baseCursor.recordAt(((VirtualRecord) record).getBaseRecord(), atRowId);
     }
 
     @Override
     public void recordAt(long rowId) {
+        invalidateMemoizedFunctions();
         baseCursor.recordAt(rowId);
     }
 
     @Override
     public void toTop() {
+        invalidateMemoizedFunctions();
         baseCursor.toTop();
     }
 
+    private void invalidateMemoizedFunctions() {
+        for (int i = 0, n = memoizedFunctions.size(); i < n; i++) {
+            memoizedFunctions.getQuick(i).invalidate();
+        }
+    }
+
     void of(RecordCursor cursor) {
         this.baseCursor = cursor;
         record.of(baseCursor.getRecord());
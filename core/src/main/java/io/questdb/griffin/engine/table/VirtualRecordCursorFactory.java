@@ -29,7 +29,9 @@ import io.questdb.cairo.sql.Function;
 import io.questdb.cairo.sql.RecordCursor;
 import io.questdb.cairo.sql.RecordCursorFactory;
 import io.questdb.cairo.sql.RecordMetadata;
+import io.questdb.griffin.PlanSink;
 import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.functions.MemoizedFunction;
 import io.questdb.std.IntList;
 import io.questdb.std.ObjList;
 import org.jetbrains.annotations.Nullable;
@@ -37,16 +39,19 @@ import org.jetbrains.annotations.Nullable;
 public class VirtualRecordCursorFactory extends AbstractRecordCursorFactory {
     private final VirtualRecordCursor cursor;
     private final ObjList<Function> functions;
+    private final ObjList<MemoizedFunction> memoizedFunctions;
     private final RecordCursorFactory base;
 
     public VirtualRecordCursorFactory(
             RecordMetadata metadata,
             ObjList<Function> functions,
+            ObjList<MemoizedFunction> memoizedFunctions,
             RecordCursorFactory baseFactory,
             @Nullable IntList symbolTableCrossIndex) {
         super(metadata);
         this.functions = functions;
-        this.cursor = new VirtualRecordCursor(functions, symbolTableCrossIndex);
+        this.memoizedFunctions = memoizedFunctions;
+        this.cursor = new VirtualRecordCursor(functions, memoizedFunctions, symbolTableCrossIndex);
         this.base = baseFactory;
     }
 
@@ -61,6 +66,9 @@ public class VirtualRecordCursorFactory extends AbstractRecordCursorFactory {
     @Override
     public RecordCursor getCursor(SqlExecutionContext executionContext) {
         RecordCursor cursor = base.getCursor(executionContext);
+        for (int i = 0, n = memoizedFunctions.size(); i < n; i++) {
+            memoizedFunctions.getQuick(i).reset();
+        }
         for (int i = 0, n = functions.size(); i < n; i++) {
             functions.getQuick(i).init(cursor, executionContext);
         }
@@ -72,4 +80,10 @@ public class VirtualRecordCursorFactory extends AbstractRecordCursorFactory {
     public boolean isRandomAccessCursor() {
         return base.isRandomAccessCursor();
     }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.type(this).attr("functions").val(functions);
+        sink.child(base);
+    }
 }
@@ -31,6 +31,7 @@ import io.questdb.cairo.map.MapFactory;
 import io.questdb.cairo.sql.RecordCursor;
 import io.questdb.cairo.sql.RecordCursorFactory;
 import io.questdb.cairo.sql.RecordMetadata;
+import io.questdb.griffin.PlanSink;
 import io.questdb.griffin.SqlExecutionContext;
 import io.questdb.std.Misc;
 
@@ -81,4 +82,11 @@ public class UnionRecordCursorFactory implements RecordCursorFactory {
         Misc.free(masterFactory);
         Misc.free(slaveFactory);
     }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.type(this);
+        sink.child(masterFactory);
+        sink.child(slaveFactory);
+    }
 }
@@ -34,14 +34,18 @@ public class CreateTableModel implements Mutable, ExecutionModel, Sinkable, Tabl
     public static final ObjectFactory<CreateTableModel> FACTORY = CreateTableModel::new;
     private static final int COLUMN_FLAG_CACHED = 1;
     private static final int COLUMN_FLAG_INDEXED = 2;
+    private static final int COLUMN_FLAG_DEDUP_KEY = 4;
     private final CharSequenceObjHashMap<ColumnCastModel> columnCastModels = new CharSequenceObjHashMap<>();
     private final LongList columnBits = new LongList();
     private final ObjList<CharSequence> columnNames = new ObjList<>();
     private final CharSequenceIntHashMap columnNameIndexMap = new CharSequenceIntHashMap();
+    private final ObjList<ExpressionNode> dedupKeys = new ObjList<>();
     private ExpressionNode name;
     private QueryModel queryModel;
     private ExpressionNode timestamp;
     private ExpressionNode partitionBy;
+    private boolean materializedView;
+    private CharSequence materializedViewQuery;
 
     private CreateTableModel() {
     }
@@ -60,6 +64,17 @@ public class CreateTableModel implements Mutable, ExecutionModel, Sinkable, Tabl
         return columnCastModels.put(model.getName().token, model);
     }
 
+    public boolean addDedupKey(ExpressionNode columnName) {
+        final int index = getColumnIndex(columnName.token) * 2 + 1;
+        final int flags = getLowAt(index);
+        if ((flags & COLUMN_FLAG_DEDUP_KEY) != 0) {
+            return false;
+        }
+        columnBits.setQuick(index, Numbers.encodeLowHighInts(flags | COLUMN_FLAG_DEDUP_KEY, getHighAt(index)));
+        dedupKeys.add(columnName);
+        return true;
+    }
+
     public CreateTableModel cached(boolean cached) {
         int last = columnBits.size() - 1;
         assert last > 0;
@@ -82,6 +97,9 @@ public class CreateTableModel implements Mutable, ExecutionModel, Sinkable, Tabl
         columnBits.clear();
         columnNames.clear();
         columnNameIndexMap.clear();
+        dedupKeys.clear();
+        materializedView = false;
+        materializedViewQuery = null;
     }
 
     public CharSequenceObjHashMap<ColumnCastModel> getColumnCastModels() {
@@ -103,6 +121,15 @@ public class CreateTableModel implements Mutable, ExecutionModel, Sinkable, Tabl
         return getLowAt(index * 2);
     }
 
+    @Override
+    public boolean getDedupKeyFlag(int index) {
+        return (getLowAt(index * 2 + 1) & COLUMN_FLAG_DEDUP_KEY) != 0;
+    }
+
+    public ObjList<ExpressionNode> getDedupKeys() {
+        return dedupKeys;
+    }
+
     @Override
     public int getIndexBlockCapacity(int index) {
         return getHighAt(index * 2 + 1);
@@ -153,6 +180,14 @@ public class CreateTableModel implements Mutable, ExecutionModel, Sinkable, Tabl
         return CREATE_TABLE;
     }
 
+    public CharSequence getMaterializedViewQuery() {
+        return materializedViewQuery;
+    }
+
+    public void setMaterializedViewQuery(CharSequence materializedViewQuery) {
+        this.materializedViewQuery = materializedViewQuery;
+    }
+
     public ExpressionNode getName() {
         return name;
     }
@@ -177,6 +212,14 @@ public class CreateTableModel implements Mutable, ExecutionModel, Sinkable, Tabl
         this.timestamp = timestamp;
     }
 
+    public boolean isMaterializedView() {
+        return materializedView;
+    }
+
+    public void setMaterializedView(boolean materializedView) {
+        this.materializedView = materializedView;
+    }
+
     public void setIndexFlags(boolean indexFlag, int indexValueBlockSize) {
         setIndexFlags0(columnBits.size() - 1, indexFlag, indexValueBlockSize);
     }
@@ -195,7 +238,7 @@ public class CreateTableModel implements Mutable, ExecutionModel, Sinkable, Tabl
 
     @Override
     public void toSink(CharSink sink) {
-        sink.put("create table ");
+        sink.put(materializedView ? "create materialized view " : "create table ");
         sink.put(getName().token);
         if (getQueryModel() != null) {
             sink.put(" as (");
@@ -275,6 +318,17 @@ public class CreateTableModel implements Mutable, ExecutionModel, Sinkable, Tabl
         if (partitionBy != null) {
             sink.put(" partition by ").put(partitionBy.token);
         }
+
+        if (dedupKeys.size() > 0) {
+            sink.put(" dedup upsert keys(");
+            for (int i = 0, n = dedupKeys.size(); i < n; i++) {
+                if (i > 0) {
+                    sink.put(", ");
+                }
+                sink.put(dedupKeys.getQuick(i).token);
+            }
+            sink.put(')');
+        }
     }
 
     private int getHighAt(int index) {
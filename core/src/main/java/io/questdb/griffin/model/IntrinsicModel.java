@@ -44,6 +44,11 @@ public class IntrinsicModel implements Mutable {
 
     public final CharSequenceHashSet keyValues = new CharSequenceHashSet();
     public final IntList keyValuePositions = new IntList();
+    // hashes of values bloom indexed column is compared to, column has to be equal to one of them
+    public final LongList bloomHashes = new LongList();
+    // designated timestamp comparisons with bind variables, evaluated when cursor is opened
+    public final ObjList<ExpressionNode> runtimeIntervalNodes = new ObjList<>();
+    public final IntList runtimeIntervalOps = new IntList();
     private final LongList intervalsA = new LongList();
     private final LongList intervalsB = new LongList();
     private final LongList intervalsC = new LongList();
@@ -52,6 +57,11 @@ public class IntrinsicModel implements Mutable {
     public LongList intervals;
     public int intrinsicValue = UNDEFINED;
     public QueryModel keySubQuery;
+    // inclusive value range of range indexed column
+    public CharSequence rangeColumn;
+    public long rangeLo;
+    public long rangeHi;
+    public CharSequence bloomColumn;
 
     public static long getIntervalHi(LongList intervals, int pos) {
         return intervals.getQuick((pos << 1) + 1);
@@ -128,6 +138,39 @@ public class IntrinsicModel implements Mutable {
         intervals.extendAndSet(n, last);
     }
 
+    /**
+     * Parses timestamp literal into the interval it stands for, same way as comparison of
+     * designated timestamp with the literal. Partial date covers the whole period, e.g.
+     * '2015-05-11' is the entire day, and complete timestamp is a single instant.
+     *
+     * @param seq      literal text
+     * @param lo       position of first character of the literal in seq
+     * @param lim      position after last character of the literal in seq
+     * @param position position of the literal in SQL text, reported on error
+     * @param out      inclusive lo and hi of the interval are appended to this list
+     * @throws SqlException when literal is not a date
+     */
+    public static void parseTimestampInterval(CharSequence seq, int lo, int lim, int position, LongList out) throws SqlException {
+        try {
+            parseInterval(seq, lo, lim, out);
+            return;
+        } catch (NumericException ignore) {
+        }
+
+        long micros;
+        try {
+            micros = DateFormatUtils.tryParse(seq, lo, lim);
+        } catch (NumericException ignore) {
+            try {
+                micros = DateFormatUtils.USEC_UTC_FORMAT.parse(seq, lo, lim, DateFormatUtils.defaultLocale);
+            } catch (NumericException e) {
+                throw SqlException.invalidDate(position);
+            }
+        }
+        out.add(micros);
+        out.add(micros);
+    }
+
     static void parseIntervalEx(CharSequence seq, int lo, int lim, int position, LongList out) throws SqlException {
         int[] pos = new int[3];
         int p = -1;
@@ -423,12 +466,23 @@ public class IntrinsicModel implements Mutable {
         intervals = null;
         intrinsicValue = UNDEFINED;
         keySubQuery = null;
+        clearRange();
+        bloomColumn = null;
+        bloomHashes.clear();
+        runtimeIntervalNodes.clear();
+        runtimeIntervalOps.clear();
     }
 
     public void clearInterval() {
         this.intervals = null;
     }
 
+    public void clearRange() {
+        rangeColumn = null;
+        rangeLo = Long.MIN_VALUE;
+        rangeHi = Long.MAX_VALUE;
+    }
+
     public void excludeValue(ExpressionNode val) {
 
         final int index;
@@ -469,6 +523,33 @@ public class IntrinsicModel implements Mutable {
         intersectIntervals(temp);
     }
 
+    /**
+     * Restricts intervals by comparison of designated timestamp with a bind variable. Value of
+     * the variable is not known at compile time, intervals are narrowed when cursor is opened.
+     *
+     * @param node bind variable node
+     * @param op   one of {@link RuntimeIntervalModel} operators, timestamp is on the left side
+     */
+    public void intersectRuntimeInterval(ExpressionNode node, int op) {
+        runtimeIntervalNodes.add(node);
+        runtimeIntervalOps.add(op);
+    }
+
+    public void intersectRange(CharSequence column, long lo, long hi) {
+        if (rangeColumn == null) {
+            rangeColumn = column;
+            rangeLo = lo;
+            rangeHi = hi;
+        } else {
+            rangeLo = Math.max(rangeLo, lo);
+            rangeHi = Math.min(rangeHi, hi);
+        }
+
+        if (rangeLo > rangeHi) {
+            intrinsicValue = FALSE;
+        }
+    }
+
     public void subtractIntervals(long lo, long hi) {
         LongList temp = shuffleTemp(intervals, null);
         temp.add(lo);
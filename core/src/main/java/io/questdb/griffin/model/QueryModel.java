@@ -600,6 +600,35 @@ public class QueryModel implements Mutable, ExecutionModel, AliasTranslator, Sin
         return modelTypeName.get(selectModelType);
     }
 
+    private void fromToSink(CharSink sink) {
+        if (tableName != null) {
+            tableName.toSink(sink);
+            if (alias != null) {
+                aliasToSink(alias.token, sink);
+            }
+        } else {
+            sink.put('(');
+            nestedModel.toSink(sink);
+            sink.put(')');
+            if (alias != null) {
+                aliasToSink(alias.token, sink);
+            }
+        }
+
+        if (timestamp != null) {
+            sink.put(" timestamp (");
+            timestamp.toSink(sink);
+            sink.put(')');
+        }
+
+        if (getLatestBy().size() > 0) {
+            sink.put(" latest by ");
+            for (int i = 0, n = getLatestBy().size(); i < n; i++) {
+                getLatestBy().getQuick(i).toSink(sink);
+            }
+        }
+    }
+
     private void toSink0(CharSink sink, boolean joinSlave) {
         if (columns.size() > 0) {
             sink.put(getSelectModelTypeText()).put(' ');
@@ -661,88 +690,67 @@ public class QueryModel implements Mutable, ExecutionModel, AliasTranslator, Sin
             }
             sink.put(" from ");
         }
-        if (tableName != null) {
-            tableName.toSink(sink);
-            if (alias != null) {
-                aliasToSink(alias.token, sink);
-            }
-        } else {
-            sink.put('(');
-            nestedModel.toSink(sink);
-            sink.put(')');
-            if (alias != null) {
-                aliasToSink(alias.token, sink);
-            }
-        }
-
-        if (timestamp != null) {
-            sink.put(" timestamp (");
-            timestamp.toSink(sink);
-            sink.put(')');
-        }
-
-        if (getLatestBy().size() > 0) {
-            sink.put(" latest by ");
-            for (int i = 0, n = getLatestBy().size(); i < n; i++) {
-                getLatestBy().getQuick(i).toSink(sink);
-            }
-        }
 
         if (orderedJoinModels.size() > 1) {
-            for (int i = 0, n = orderedJoinModels.size(); i < n; i++) {
+            // this model is not necessarily the first to join
+            joinModels.getQuick(orderedJoinModels.getQuick(0)).fromToSink(sink);
+            for (int i = 1, n = orderedJoinModels.size(); i < n; i++) {
                 QueryModel model = joinModels.getQuick(orderedJoinModels.getQuick(i));
-                if (model != this) {
-                    switch (model.getJoinType()) {
-                        case JOIN_OUTER:
-                            sink.put(" outer join ");
-                            break;
-                        case JOIN_ASOF:
-                            sink.put(" asof join ");
-                            break;
-                        case JOIN_SPLICE:
-                            sink.put(" splice join ");
-                            break;
-                        case JOIN_CROSS:
-                            sink.put(" cross join ");
-                            break;
-                        default:
-                            sink.put(" join ");
-                            break;
-                    }
+                switch (model.getJoinType()) {
+                    case JOIN_OUTER:
+                        sink.put(" outer join ");
+                        break;
+                    case JOIN_ASOF:
+                        sink.put(" asof join ");
+                        break;
+                    case JOIN_SPLICE:
+                        sink.put(" splice join ");
+                        break;
+                    case JOIN_CROSS:
+                        sink.put(" cross join ");
+                        break;
+                    default:
+                        sink.put(" join ");
+                        break;
+                }
 
-                    if (model.getWhereClause() != null) {
-                        sink.put('(');
-                        model.toSink0(sink, true);
-                        sink.put(')');
-                        if (model.getAlias() != null) {
-                            aliasToSink(model.getAlias().token, sink);
-                        } else if (model.getTableName() != null) {
-                            aliasToSink(model.getTableName().token, sink);
-                        }
-                    } else {
-                        model.toSink0(sink, true);
+                if (model == this) {
+                    fromToSink(sink);
+                } else if (model.getWhereClause() != null) {
+                    sink.put('(');
+                    model.toSink0(sink, true);
+                    sink.put(')');
+                    if (model.getAlias() != null) {
+                        aliasToSink(model.getAlias().token, sink);
+                    } else if (model.getTableName() != null) {
+                        aliasToSink(model.getTableName().token, sink);
                     }
+                } else {
+                    model.toSink0(sink, true);
+                }
 
-                    JoinContext jc = model.getContext();
-                    if (jc != null && jc.aIndexes.size() > 0) {
-                        // join clause
-                        sink.put(" on ");
-                        for (int k = 0, z = jc.aIndexes.size(); k < z; k++) {
-                            if (k > 0) {
-                                sink.put(" and ");
-                            }
-                            jc.aNodes.getQuick(k).toSink(sink);
-                            sink.put(" = ");
-                            jc.bNodes.getQuick(k).toSink(sink);
+                JoinContext jc = model.getContext();
+                if (jc != null && jc.aIndexes.size() > 0) {
+                    // join clause
+                    sink.put(" on ");
+                    for (int k = 0, z = jc.aIndexes.size(); k < z; k++) {
+                        if (k > 0) {
+                            sink.put(" and ");
                         }
+                        jc.aNodes.getQuick(k).toSink(sink);
+                        sink.put(" = ");
+                        jc.bNodes.getQuick(k).toSink(sink);
                     }
+                }
 
-                    if (model.getPostJoinWhereClause() != null) {
-                        sink.put(" post-join-where ");
-                        model.getPostJoinWhereClause().toSink(sink);
-                    }
+                // post-join filter of this model is printed below
+                if (model != this && model.getPostJoinWhereClause() != null) {
+                    sink.put(" post-join-where ");
+                    model.getPostJoinWhereClause().toSink(sink);
                 }
             }
+        } else {
+            fromToSink(sink);
         }
 
         if (whereClause != null) {
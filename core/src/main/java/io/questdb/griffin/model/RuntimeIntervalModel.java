@@ -0,0 +1,212 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.model;
+
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.sql.Function;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.std.IntList;
+import io.questdb.std.LongList;
+import io.questdb.std.NumericException;
+import io.questdb.std.Numbers;
+import io.questdb.std.ObjList;
+import io.questdb.std.microtime.DateFormatUtils;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Timestamp intervals of a compiled query. Intervals derived from constants are calculated once
+ * at compile time. Comparisons of designated timestamp with bind variables are kept as functions and
+ * intersected with constant intervals every time cursor is opened, so that the same compiled query
+ * serves any values of its bind variables.
+ */
+public class RuntimeIntervalModel {
+    public static final int EQUAL = 0;
+    public static final int GREATER = 1;
+    public static final int GREATER_EQ = 2;
+    public static final int LESS = 3;
+    public static final int LESS_EQ = 4;
+
+    private final LongList staticIntervals;
+    private final LongList intervals;
+    private final ObjList<Function> functions;
+    private final IntList ops;
+    private final LongList temp = new LongList();
+    private final LongList dest = new LongList();
+
+    public RuntimeIntervalModel(LongList intervals) {
+        this(intervals, null, null);
+    }
+
+    /**
+     * @param staticIntervals intervals calculated at compile time, null when they are not restricted
+     * @param functions       values timestamp is compared to, null when there are none
+     * @param ops             comparison operators, one per function
+     */
+    public RuntimeIntervalModel(@Nullable LongList staticIntervals, @Nullable ObjList<Function> functions, @Nullable IntList ops) {
+        // intervals of intrinsic model belong to the parser and are reused by next compilation
+        this.staticIntervals = staticIntervals != null ? new LongList(staticIntervals) : null;
+        this.functions = functions;
+        this.ops = ops;
+        if (functions == null) {
+            assert staticIntervals != null;
+            this.intervals = this.staticIntervals;
+        } else {
+            this.intervals = new LongList();
+        }
+    }
+
+    /**
+     * Recalculates intervals from current values of functions. List returned by {@link #getIntervals()}
+     * is updated in place.
+     *
+     * @param executionContext context bind variables are resolved from
+     */
+    public void calculateIntervals(SqlExecutionContext executionContext) {
+        if (functions == null) {
+            return;
+        }
+
+        intervals.clear();
+        if (staticIntervals != null) {
+            intervals.add(staticIntervals);
+        } else {
+            intervals.add(Long.MIN_VALUE);
+            intervals.add(Long.MAX_VALUE);
+        }
+
+        for (int i = 0, n = functions.size(); i < n && intervals.size() > 0; i++) {
+            final Function function = functions.getQuick(i);
+            function.init(null, executionContext);
+            temp.clear();
+            toIntervals(function, ops.getQuick(i), temp);
+            dest.clear();
+            IntrinsicModel.intersect(intervals, temp, dest);
+            intervals.clear();
+            intervals.add(dest);
+        }
+    }
+
+    public LongList getIntervals() {
+        return intervals;
+    }
+
+    public void toPlan(PlanSink sink) {
+        if (staticIntervals != null) {
+            sink.attr("intervals").intervals(staticIntervals);
+        }
+        if (functions != null) {
+            sink.attr("runtime intervals").val(functions);
+        }
+    }
+
+    private static long getTimestamp(Function function) {
+        switch (function.getType()) {
+            case ColumnType.STRING:
+                final CharSequence value = function.getStr(null);
+                if (value == null) {
+                    return Numbers.LONG_NaN;
+                }
+                return parseTimestamp(value);
+            case ColumnType.DATE:
+                final long date = function.getDate(null);
+                return date == Numbers.LONG_NaN ? date : date * 1000L;
+            case ColumnType.TIMESTAMP:
+                return function.getTimestamp(null);
+            case ColumnType.LONG:
+                return function.getLong(null);
+            default:
+                final int value32 = function.getInt(null);
+                return value32 == Numbers.INT_NaN ? Numbers.LONG_NaN : value32;
+        }
+    }
+
+    private static long parseTimestamp(CharSequence value) {
+        try {
+            return DateFormatUtils.parseTimestamp(value);
+        } catch (NumericException ignore) {
+        }
+
+        try {
+            return DateFormatUtils.tryParse(value, 0, value.length());
+        } catch (NumericException ignore) {
+        }
+
+        // epoch microseconds
+        try {
+            return Numbers.parseLong(value);
+        } catch (NumericException e) {
+            throw CairoException.instance(0).put("invalid timestamp: ").put(value);
+        }
+    }
+
+    private static void toIntervals(Function function, int op, LongList out) {
+        if (op == EQUAL && function.getType() == ColumnType.STRING) {
+            // same as comparison to string constant, value can be a partial date or an interval
+            final CharSequence value = function.getStr(null);
+            if (value != null) {
+                try {
+                    IntrinsicModel.parseIntervalEx(value, 0, value.length(), function.getPosition(), out);
+                } catch (SqlException e) {
+                    throw CairoException.instance(0).put("invalid interval: ").put(value);
+                }
+            }
+            return;
+        }
+
+        final long value = getTimestamp(function);
+        // comparison to null is always false
+        if (value == Numbers.LONG_NaN) {
+            return;
+        }
+
+        switch (op) {
+            case EQUAL:
+                out.add(value);
+                out.add(value);
+                break;
+            case GREATER:
+                if (value < Long.MAX_VALUE) {
+                    out.add(value + 1);
+                    out.add(Long.MAX_VALUE);
+                }
+                break;
+            case GREATER_EQ:
+                out.add(value);
+                out.add(Long.MAX_VALUE);
+                break;
+            case LESS:
+                out.add(Long.MIN_VALUE);
+                out.add(value - 1);
+                break;
+            default:
+                out.add(Long.MIN_VALUE);
+                out.add(value);
+                break;
+        }
+    }
+}
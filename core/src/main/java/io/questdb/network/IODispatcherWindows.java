@@ -25,6 +25,7 @@
 package io.questdb.network;
 
 import io.questdb.std.LongIntHashMap;
+import io.questdb.std.MemoryTag;
 import io.questdb.std.Unsafe;
 
 public class IODispatcherWindows<C extends IOContext> extends AbstractIODispatcher<C> {
@@ -191,7 +192,7 @@ public class IODispatcherWindows<C extends IOContext> extends AbstractIODispatch
 
         private FDSet(int size) {
             int l = SelectAccessor.ARRAY_OFFSET + 8 * size;
-            this.address = Unsafe.malloc(l);
+            this.address = Unsafe.malloc(l, MemoryTag.NATIVE_NETWORK);
             this.size = size;
             this._wptr = address + SelectAccessor.ARRAY_OFFSET;
             this.lim = address + l;
@@ -208,7 +209,7 @@ public class IODispatcherWindows<C extends IOContext> extends AbstractIODispatch
 
         private void close() {
             if (address != 0) {
-                Unsafe.free(address, lim - address);
+                Unsafe.free(address, lim - address, MemoryTag.NATIVE_NETWORK);
                 address = 0;
             }
         }
@@ -232,9 +233,9 @@ public class IODispatcherWindows<C extends IOContext> extends AbstractIODispatch
         private void resize() {
             int sz = size * 2;
             int l = SelectAccessor.ARRAY_OFFSET + 8 * sz;
-            long _addr = Unsafe.malloc(l);
+            long _addr = Unsafe.malloc(l, MemoryTag.NATIVE_NETWORK);
             Unsafe.getUnsafe().copyMemory(address, _addr, lim - address);
-            Unsafe.free(address, lim - address);
+            Unsafe.free(address, lim - address, MemoryTag.NATIVE_NETWORK);
             lim = _addr + l;
             size = sz;
             _wptr = _addr + (_wptr - address);
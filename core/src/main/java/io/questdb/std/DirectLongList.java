@@ -33,6 +33,7 @@ public class DirectLongList implements Mutable, Closeable {
     public static final int CACHE_LINE_SIZE = 64;
     private final int pow2;
     private final int onePow2;
+    private final int memoryTag;
     long pos;
     long start;
     long limit;
@@ -40,8 +41,13 @@ public class DirectLongList implements Mutable, Closeable {
     private long capacity;
 
     public DirectLongList(long capacity) {
+        this(capacity, MemoryTag.NATIVE_DEFAULT);
+    }
+
+    public DirectLongList(long capacity, int memoryTag) {
         this.pow2 = 3;
-        this.address = Unsafe.malloc(this.capacity = ((capacity << 3) + CACHE_LINE_SIZE));
+        this.memoryTag = memoryTag;
+        this.address = Unsafe.malloc(this.capacity = ((capacity << 3) + CACHE_LINE_SIZE), memoryTag);
         this.start = this.pos = address + (address & (CACHE_LINE_SIZE - 1));
         this.limit = pos + ((capacity - 1) << 3);
         this.onePow2 = (1 << 3);
@@ -97,7 +103,7 @@ public class DirectLongList implements Mutable, Closeable {
     @Override
     public void close() {
         if (address != 0) {
-            Unsafe.free(address, capacity);
+            Unsafe.free(address, capacity, memoryTag);
             address = 0;
         }
     }
@@ -140,7 +146,7 @@ public class DirectLongList implements Mutable, Closeable {
     }
 
     public DirectLongList subset(int lo, int hi) {
-        DirectLongList that = new DirectLongList(hi - lo);
+        DirectLongList that = new DirectLongList(hi - lo, memoryTag);
         Unsafe.getUnsafe().copyMemory(start + (lo << 3), that.start, (hi - lo) << 3);
         that.pos += (hi - lo) << 3;
         return that;
@@ -171,12 +177,14 @@ public class DirectLongList implements Mutable, Closeable {
     }
 
     private void extend(long capacity) {
-        long address = Unsafe.malloc(this.capacity = ((capacity << pow2) + CACHE_LINE_SIZE));
+        final long newCapacity = (capacity << pow2) + CACHE_LINE_SIZE;
+        long address = Unsafe.malloc(newCapacity, memoryTag);
         long start = address + (address & (CACHE_LINE_SIZE - 1));
         Unsafe.getUnsafe().copyMemory(this.start, start, limit + onePow2 - this.start);
         if (this.address != 0) {
-            Unsafe.free(this.address, this.capacity);
+            Unsafe.free(this.address, this.capacity, memoryTag);
         }
+        this.capacity = newCapacity;
         this.pos = this.pos - this.start + start;
         this.limit = start + ((capacity - 1) << pow2);
         this.address = address;
@@ -124,6 +124,10 @@ public class GenericLexer implements ImmutableIterator<CharSequence> {
         l.sort(COMPARATOR);
     }
 
+    public CharSequence getContent() {
+        return content;
+    }
+
     public int getPosition() {
         return _pos;
     }
@@ -41,6 +41,37 @@ public final class Hash {
         return s == null ? -1 : (Chars.hashCode(s) & 0xFFFFFFF) & max;
     }
 
+    /**
+     * Calculates 64-bit hash of char sequence. This is FNV-1a followed by
+     * {@link #fmix64(long)}, which spreads low entropy of short strings across all bits.
+     *
+     * @param s char sequence
+     * @return 64-bit hash
+     */
+    public static long hash64(CharSequence s) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0, n = s.length(); i < n; i++) {
+            h = (h ^ s.charAt(i)) * 0x100000001b3L;
+        }
+        return fmix64(h);
+    }
+
+    /**
+     * Finalizer of MurmurHash3. Mixes all bits of value, which makes it usable as hash of
+     * long values that are often sequential.
+     *
+     * @param h value
+     * @return 64-bit hash
+     */
+    public static long fmix64(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
     /**
      * Calculates positive integer hash of memory pointer using Java hashcode() algorithm.
      *
@@ -0,0 +1,85 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.std;
+
+/**
+ * Counts native memory allocated with {@link MemoryTag#NATIVE_SQL} tag by the thread the account is
+ * attached to. Allocations are counted net of frees, so memory released by the query reduces the count.
+ * Only frees of memory allocated through the account are counted. Memory that query inherits, for
+ * example from factory reused via query cache, does not reduce the count when query frees it.
+ * Account is only ever attached to one thread at a time. Count read by other threads, such as running
+ * query listing, is approximate.
+ */
+public class MemoryAccount {
+    // number of bytes account owns at each address
+    private final LongLongHashMap owned = new LongLongHashMap();
+    private long memUsed;
+
+    public long getMemUsed() {
+        return memUsed;
+    }
+
+    public void reset() {
+        memUsed = 0;
+        owned.clear();
+    }
+
+    /**
+     * Called before memory is allocated or grown while account is attached. Implementation fails
+     * allocation by throwing exception, no memory is allocated in this case.
+     *
+     * @param size number of bytes about to be allocated
+     */
+    protected void checkAlloc(long size) {
+    }
+
+    void onAlloc(long ptr, long size) {
+        owned.put(ptr, size);
+        memUsed += size;
+    }
+
+    void onFree(long ptr) {
+        final int index = owned.keyIndex(ptr);
+        if (index < 0) {
+            memUsed -= owned.valueAt(index);
+            owned.removeAt(index);
+        }
+    }
+
+    void onRealloc(long oldPtr, long oldSize, long newPtr, long newSize) {
+        long ownedSize = 0;
+        final int index = owned.keyIndex(oldPtr);
+        if (index < 0) {
+            ownedSize = owned.valueAt(index);
+            owned.removeAt(index);
+        }
+        // growth is owned by account, shrinking releases owned bytes first
+        final long newOwnedSize = Math.max(0, ownedSize + newSize - oldSize);
+        if (newOwnedSize > 0) {
+            owned.put(newPtr, newOwnedSize);
+        }
+        memUsed += newOwnedSize - ownedSize;
+    }
+}
@@ -31,10 +31,16 @@ public class MemoryPages implements Closeable, Mutable {
     private final int mask;
     private final int bits;
     private final LongList pages = new LongList();
+    private final int memoryTag;
     private long cachePageHi;
     private long cachePageLo;
 
     public MemoryPages(int pageSize) {
+        this(pageSize, MemoryTag.NATIVE_DEFAULT);
+    }
+
+    public MemoryPages(int pageSize, int memoryTag) {
+        this.memoryTag = memoryTag;
         this.pageSize = Numbers.ceilPow2(pageSize);
         this.bits = Numbers.msb(this.pageSize);
         this.mask = this.pageSize - 1;
@@ -66,7 +72,7 @@ public class MemoryPages implements Closeable, Mutable {
         for (int i = 0; i < pages.size(); i++) {
             long address = pages.getQuick(i);
             if (address != 0) {
-                Unsafe.free(address, pageSize);
+                Unsafe.free(address, pageSize, memoryTag);
             }
         }
         pages.clear();
@@ -82,7 +88,7 @@ public class MemoryPages implements Closeable, Mutable {
         }
 
         if (index >= pages.size()) {
-            pages.extendAndSet((int) index, Unsafe.malloc(pageSize));
+            pages.extendAndSet((int) index, Unsafe.malloc(pageSize, memoryTag));
         }
 
         cachePageLo = index << bits;
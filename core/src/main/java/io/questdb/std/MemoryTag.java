@@ -0,0 +1,51 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.std;
+
+/**
+ * Tags of native memory allocations. Memory allocated with a tag must be freed with the same tag,
+ * otherwise per-tag counters drift.
+ */
+public final class MemoryTag {
+    public static final int NATIVE_DEFAULT = 0;
+    // maps, record chains, sort trees and row lists used to execute queries
+    public static final int NATIVE_SQL = 1;
+    // table writer, text import and line protocol
+    public static final int NATIVE_INGEST = 2;
+    // index writers
+    public static final int NATIVE_INDEX = 3;
+    // receive and send buffers of network connections
+    public static final int NATIVE_NETWORK = 4;
+    public static final int SIZE = NATIVE_NETWORK + 1;
+
+    private static final String[] NAMES = {"NATIVE_DEFAULT", "NATIVE_SQL", "NATIVE_INGEST", "NATIVE_INDEX", "NATIVE_NETWORK"};
+
+    private MemoryTag() {
+    }
+
+    public static String nameOf(int memoryTag) {
+        return NAMES[memoryTag];
+    }
+}
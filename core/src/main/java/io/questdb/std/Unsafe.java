@@ -38,6 +38,8 @@ public final class Unsafe {
     private static final sun.misc.Unsafe UNSAFE;
     private static final AtomicLong MALLOC_COUNT = new AtomicLong(0);
     private static final AtomicLong FREE_COUNT = new AtomicLong(0);
+    private static final AtomicLong[] TAGGED_MEM_USED = new AtomicLong[MemoryTag.SIZE];
+    private static final java.lang.ThreadLocal<MemoryAccount> MEMORY_ACCOUNT = new java.lang.ThreadLocal<>();
 
     static {
         try {
@@ -51,6 +53,10 @@ public final class Unsafe {
             LONG_OFFSET = Unsafe.getUnsafe().arrayBaseOffset(long[].class);
             LONG_SCALE = msb(Unsafe.getUnsafe().arrayIndexScale(long[].class));
 
+            for (int i = 0; i < MemoryTag.SIZE; i++) {
+                TAGGED_MEM_USED[i] = new AtomicLong(0);
+            }
+
         } catch (Exception e) {
             throw new FatalError(e);
         }
@@ -69,8 +75,22 @@ public final class Unsafe {
         Unsafe.getUnsafe().putOrderedLong(array, LONG_OFFSET + (index << LONG_SCALE), value);
     }
 
+    /**
+     * Attaches account to current thread. Query memory allocated by current thread is counted
+     * by this account until it is detached.
+     *
+     * @param account account to attach, it replaces account attached previously
+     */
+    public static void attachMemoryAccount(MemoryAccount account) {
+        MEMORY_ACCOUNT.set(account);
+    }
+
     public static long calloc(long size) {
-        long ptr = malloc(size);
+        return calloc(size, MemoryTag.NATIVE_DEFAULT);
+    }
+
+    public static long calloc(long size, int memoryTag) {
+        long ptr = malloc(size, memoryTag);
         getUnsafe().setMemory(ptr, size, (byte) 0);
         return ptr;
     }
@@ -88,10 +108,29 @@ public final class Unsafe {
         return Unsafe.cas(array, Unsafe.LONG_OFFSET + (((long) index) << Unsafe.LONG_SCALE), expected, value);
     }
 
+    /**
+     * Detaches account from current thread unless another account has been attached since.
+     *
+     * @param account account to detach
+     */
+    public static void detachMemoryAccount(MemoryAccount account) {
+        if (MEMORY_ACCOUNT.get() == account) {
+            MEMORY_ACCOUNT.set(null);
+        }
+    }
+
     public static void free(long ptr, long size) {
+        free(ptr, size, MemoryTag.NATIVE_DEFAULT);
+    }
+
+    public static void free(long ptr, long size, int memoryTag) {
         getUnsafe().freeMemory(ptr);
         FREE_COUNT.incrementAndGet();
-        recordMemAlloc(-size);
+        recordMemAlloc(-size, memoryTag);
+        final MemoryAccount account = getMemoryAccount(memoryTag);
+        if (account != null) {
+            account.onFree(ptr);
+        }
     }
 
     public static boolean getBool(long address) {
@@ -120,25 +159,60 @@ public final class Unsafe {
         return MEM_USED.get();
     }
 
+    public static long getMemUsedByTag(int memoryTag) {
+        return TAGGED_MEM_USED[memoryTag].get();
+    }
+
     public static sun.misc.Unsafe getUnsafe() {
         return UNSAFE;
     }
 
     public static long malloc(long size) {
+        return malloc(size, MemoryTag.NATIVE_DEFAULT);
+    }
+
+    public static long malloc(long size, int memoryTag) {
+        final MemoryAccount account = getMemoryAccount(memoryTag);
+        if (account != null) {
+            account.checkAlloc(size);
+        }
         long ptr = getUnsafe().allocateMemory(size);
-        recordMemAlloc(size);
+        recordMemAlloc(size, memoryTag);
         MALLOC_COUNT.incrementAndGet();
+        if (account != null) {
+            account.onAlloc(ptr, size);
+        }
         return ptr;
     }
 
     public static long realloc(long address, long oldSize, long newSize) {
+        return realloc(address, oldSize, newSize, MemoryTag.NATIVE_DEFAULT);
+    }
+
+    public static long realloc(long address, long oldSize, long newSize, int memoryTag) {
+        final MemoryAccount account = getMemoryAccount(memoryTag);
+        if (account != null && newSize > oldSize) {
+            account.checkAlloc(newSize - oldSize);
+        }
         long ptr = getUnsafe().reallocateMemory(address, newSize);
-        recordMemAlloc(-oldSize + newSize);
+        recordMemAlloc(-oldSize + newSize, memoryTag);
+        if (account != null) {
+            account.onRealloc(address, oldSize, ptr, newSize);
+        }
         return ptr;
     }
 
     static void recordMemAlloc(long size) {
+        recordMemAlloc(size, MemoryTag.NATIVE_DEFAULT);
+    }
+
+    static void recordMemAlloc(long size, int memoryTag) {
         MEM_USED.addAndGet(size);
+        TAGGED_MEM_USED[memoryTag].addAndGet(size);
+    }
+
+    private static MemoryAccount getMemoryAccount(int memoryTag) {
+        return memoryTag == MemoryTag.NATIVE_SQL ? MEMORY_ACCOUNT.get() : null;
     }
 
     private static int msb(int value) {
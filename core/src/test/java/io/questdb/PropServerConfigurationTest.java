@@ -115,6 +115,7 @@ public class PropServerConfigurationTest {
         Assert.assertEquals(1_000_000, configuration.getHttpServerConfiguration().getJsonQueryProcessorConfiguration().getConnectionCheckFrequency());
         Assert.assertEquals(10, configuration.getHttpServerConfiguration().getJsonQueryProcessorConfiguration().getDoubleScale());
         Assert.assertEquals(10, configuration.getHttpServerConfiguration().getJsonQueryProcessorConfiguration().getFloatScale());
+        Assert.assertEquals(32767, configuration.getHttpServerConfiguration().getJsonQueryProcessorConfiguration().getMaxBindVariableIndex());
         Assert.assertEquals("Keep-Alive: timeout=5, max=10000" + Misc.EOL, configuration.getHttpServerConfiguration().getJsonQueryProcessorConfiguration().getKeepAliveHeader());
 
         Assert.assertEquals(CommitMode.NOSYNC, configuration.getCairoConfiguration().getCommitMode());
@@ -139,6 +140,7 @@ public class PropServerConfigurationTest {
         Assert.assertEquals(4, configuration.getCairoConfiguration().getSqlCacheBlocks());
         Assert.assertEquals(1024, configuration.getCairoConfiguration().getSqlCharacterStoreCapacity());
         Assert.assertEquals(64, configuration.getCairoConfiguration().getSqlCharacterStoreSequencePoolCapacity());
+        Assert.assertEquals(1_000_000, configuration.getCairoConfiguration().getSqlCircuitBreakerThrottle());
         Assert.assertEquals(4096, configuration.getCairoConfiguration().getSqlColumnPoolCapacity());
         Assert.assertEquals(0.7, configuration.getCairoConfiguration().getSqlCompactMapLoadFactor(), 0.000001);
         Assert.assertEquals(8192, configuration.getCairoConfiguration().getSqlExpressionPoolCapacity());
@@ -147,12 +149,22 @@ public class PropServerConfigurationTest {
         Assert.assertEquals(2048, configuration.getCairoConfiguration().getSqlLexerPoolCapacity());
         Assert.assertEquals(2097152, configuration.getCairoConfiguration().getSqlMapKeyCapacity());
         Assert.assertEquals(4 * 1024 * 1024, configuration.getCairoConfiguration().getSqlMapPageSize());
+        Assert.assertEquals(0, configuration.getCairoConfiguration().getSqlMemoryLimit());
         Assert.assertEquals(1024, configuration.getCairoConfiguration().getSqlModelPoolCapacity());
+        Assert.assertEquals(0, configuration.getCairoConfiguration().getSqlQueryMemoryQuota());
+        Assert.assertEquals(0, configuration.getCairoConfiguration().getSqlQueryTimeout());
+        Assert.assertEquals(4, configuration.getCairoConfiguration().getSqlSampleByParallelTaskCount());
+        Assert.assertEquals(100000, configuration.getCairoConfiguration().getSqlSampleByParallelThreshold());
         Assert.assertEquals(4 * 1024 * 1024, configuration.getCairoConfiguration().getSqlSortKeyPageSize());
         Assert.assertEquals(1024 * 1024, configuration.getCairoConfiguration().getSqlSortLightValuePageSize());
         Assert.assertEquals(16 * 1024 * 1024, configuration.getCairoConfiguration().getSqlHashJoinValuePageSize());
+        Assert.assertEquals(4, configuration.getCairoConfiguration().getSqlLatestByParallelTaskCount());
+        Assert.assertEquals(100000, configuration.getCairoConfiguration().getSqlLatestByParallelThreshold());
         Assert.assertEquals(1000, configuration.getCairoConfiguration().getSqlLatestByRowCount());
         Assert.assertEquals(1024 * 1024, configuration.getCairoConfiguration().getSqlHashJoinLightValuePageSize());
+        Assert.assertEquals(Long.MAX_VALUE, configuration.getCairoConfiguration().getSqlHashJoinMemoryBudget());
+        Assert.assertEquals(16, configuration.getCairoConfiguration().getSqlHashJoinSpillPartitionCount());
+        Assert.assertEquals(1024, configuration.getCairoConfiguration().getSqlFilterBatchSize());
         Assert.assertEquals(16 * 1024 * 1024, configuration.getCairoConfiguration().getSqlSortValuePageSize());
         Assert.assertEquals(10000, configuration.getCairoConfiguration().getWorkStealTimeoutNanos());
         Assert.assertTrue(configuration.getCairoConfiguration().isParallelIndexingEnabled());
@@ -359,6 +371,7 @@ public class PropServerConfigurationTest {
             Assert.assertEquals(2_000, configuration.getHttpServerConfiguration().getJsonQueryProcessorConfiguration().getConnectionCheckFrequency());
             Assert.assertEquals(6, configuration.getHttpServerConfiguration().getJsonQueryProcessorConfiguration().getDoubleScale());
             Assert.assertEquals(4, configuration.getHttpServerConfiguration().getJsonQueryProcessorConfiguration().getFloatScale());
+            Assert.assertEquals(100, configuration.getHttpServerConfiguration().getJsonQueryProcessorConfiguration().getMaxBindVariableIndex());
             Assert.assertEquals(4194304, configuration.getCairoConfiguration().getSqlCopyBufferSize());
             Assert.assertEquals(64, configuration.getCairoConfiguration().getCopyPoolCapacity());
             Assert.assertSame(FilesFacadeImpl.INSTANCE, configuration.getHttpServerConfiguration().getJsonQueryProcessorConfiguration().getFilesFacade());
@@ -383,6 +396,7 @@ public class PropServerConfigurationTest {
             Assert.assertEquals(16, configuration.getCairoConfiguration().getSqlCacheBlocks());
             Assert.assertEquals(2048, configuration.getCairoConfiguration().getSqlCharacterStoreCapacity());
             Assert.assertEquals(128, configuration.getCairoConfiguration().getSqlCharacterStoreSequencePoolCapacity());
+            Assert.assertEquals(5000, configuration.getCairoConfiguration().getSqlCircuitBreakerThrottle());
             Assert.assertEquals(2048, configuration.getCairoConfiguration().getSqlColumnPoolCapacity());
             Assert.assertEquals(0.8, configuration.getCairoConfiguration().getSqlCompactMapLoadFactor(), 0.000001);
             Assert.assertEquals(1024, configuration.getCairoConfiguration().getSqlExpressionPoolCapacity());
@@ -391,12 +405,22 @@ public class PropServerConfigurationTest {
             Assert.assertEquals(1024, configuration.getCairoConfiguration().getSqlLexerPoolCapacity());
             Assert.assertEquals(1024, configuration.getCairoConfiguration().getSqlMapKeyCapacity());
             Assert.assertEquals(6 * 1024 * 1024, configuration.getCairoConfiguration().getSqlMapPageSize());
+            Assert.assertEquals(4294967296L, configuration.getCairoConfiguration().getSqlMemoryLimit());
             Assert.assertEquals(256, configuration.getCairoConfiguration().getSqlModelPoolCapacity());
+            Assert.assertEquals(1073741824, configuration.getCairoConfiguration().getSqlQueryMemoryQuota());
+            Assert.assertEquals(30000, configuration.getCairoConfiguration().getSqlQueryTimeout());
+            Assert.assertEquals(8, configuration.getCairoConfiguration().getSqlSampleByParallelTaskCount());
+            Assert.assertEquals(500000, configuration.getCairoConfiguration().getSqlSampleByParallelThreshold());
             Assert.assertEquals(10 * 1024 * 1024, configuration.getCairoConfiguration().getSqlSortKeyPageSize());
             Assert.assertEquals(3 * 1024 * 1024, configuration.getCairoConfiguration().getSqlSortLightValuePageSize());
             Assert.assertEquals(8 * 1024 * 1024, configuration.getCairoConfiguration().getSqlHashJoinValuePageSize());
+            Assert.assertEquals(6, configuration.getCairoConfiguration().getSqlLatestByParallelTaskCount());
+            Assert.assertEquals(200000, configuration.getCairoConfiguration().getSqlLatestByParallelThreshold());
             Assert.assertEquals(10000, configuration.getCairoConfiguration().getSqlLatestByRowCount());
             Assert.assertEquals(2 * 1024 * 1024, configuration.getCairoConfiguration().getSqlHashJoinLightValuePageSize());
+            Assert.assertEquals(4L * 1024 * 1024 * 1024, configuration.getCairoConfiguration().getSqlHashJoinMemoryBudget());
+            Assert.assertEquals(32, configuration.getCairoConfiguration().getSqlHashJoinSpillPartitionCount());
+            Assert.assertEquals(256, configuration.getCairoConfiguration().getSqlFilterBatchSize());
             Assert.assertEquals(4 * 1024 * 1024, configuration.getCairoConfiguration().getSqlSortValuePageSize());
             Assert.assertEquals(1000000, configuration.getCairoConfiguration().getWorkStealTimeoutNanos());
             Assert.assertFalse(configuration.getCairoConfiguration().isParallelIndexingEnabled());
@@ -42,5 +42,6 @@ public class EmptySymbolMapReaderTest {
 
         Assert.assertEquals(0, reader.getSymbolCapacity());
         Assert.assertFalse(reader.isCached());
+        Assert.assertTrue(reader.containsNullValue());
     }
 }
\ No newline at end of file
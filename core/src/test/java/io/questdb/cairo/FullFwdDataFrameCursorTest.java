@@ -890,6 +890,57 @@ public class FullFwdDataFrameCursorTest extends AbstractCairoTest {
         });
     }
 
+    @Test
+    public void testSkipToTimestamp() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            try (TableModel model = new TableModel(configuration, "x", PartitionBy.DAY).
+                    col("a", ColumnType.INT).
+                    timestamp()
+            ) {
+                CairoTestUtils.create(model);
+            }
+
+            try (TableWriter writer = new TableWriter(configuration, "x")) {
+                // there is no partition for 2020-01-02
+                final String[] timestamps = {
+                        "2020-01-01T00:00:00.000Z",
+                        "2020-01-01T12:00:00.000Z",
+                        "2020-01-03T00:00:00.000Z",
+                        "2020-01-03T12:00:00.000Z",
+                        "2020-01-04T06:00:00.000Z"
+                };
+                for (int i = 0; i < timestamps.length; i++) {
+                    TableWriter.Row row = writer.newRow(DateFormatUtils.parseDateTime(timestamps[i]));
+                    row.putInt(0, i);
+                    row.append();
+                }
+                writer.commit();
+            }
+
+            try (TableReader reader = new TableReader(configuration, "x")) {
+                FullFwdDataFrameCursor cursor = new FullFwdDataFrameCursor();
+                cursor.of(reader);
+
+                assertSkipToTimestamp(cursor, "2019-12-31T00:00:00.000Z", 0, 0);
+                assertSkipToTimestamp(cursor, "2020-01-01T12:00:00.000Z", 0, 1);
+                assertSkipToTimestamp(cursor, "2020-01-02T06:00:00.000Z", 0, 1);
+                assertSkipToTimestamp(cursor, "2020-01-03T06:00:00.000Z", 2, 0);
+                assertSkipToTimestamp(cursor, "2020-01-05T00:00:00.000Z", 3, 0);
+
+                // only first frame is affected
+                cursor.toTop();
+                Assert.assertTrue(cursor.skipToTimestamp(DateFormatUtils.parseDateTime("2020-01-01T12:00:00.000Z")));
+                assertFrame(cursor, 0, 1, 2);
+                assertFrame(cursor, 2, 0, 2);
+                assertFrame(cursor, 3, 0, 1);
+                Assert.assertFalse(cursor.hasNext());
+
+                cursor.toTop();
+                assertFrame(cursor, 0, 0, 2);
+            }
+        });
+    }
+
     @Test
     public void testSymbolIndexReadByDay() throws Exception {
         testSymbolIndexRead(PartitionBy.DAY, 1000000 * 60 * 5, 3);
@@ -2285,4 +2336,21 @@ public class FullFwdDataFrameCursorTest extends AbstractCairoTest {
             }
         }
     }
-}
\ No newline at end of file
+
+    private void assertFrame(DataFrameCursor cursor, int partitionIndex, long rowLo, long rowHi) {
+        Assert.assertTrue(cursor.hasNext());
+        DataFrame frame = cursor.next();
+        Assert.assertEquals(partitionIndex, frame.getPartitionIndex());
+        Assert.assertEquals(rowLo, frame.getRowLo());
+        Assert.assertEquals(rowHi, frame.getRowHi());
+    }
+
+    private void assertSkipToTimestamp(DataFrameCursor cursor, String timestamp, int partitionIndex, long rowLo) throws NumericException {
+        cursor.toTop();
+        Assert.assertTrue(cursor.skipToTimestamp(DateFormatUtils.parseDateTime(timestamp)));
+        Assert.assertTrue(cursor.hasNext());
+        DataFrame frame = cursor.next();
+        Assert.assertEquals(partitionIndex, frame.getPartitionIndex());
+        Assert.assertEquals(rowLo, frame.getRowLo());
+    }
+}
@@ -32,6 +32,7 @@ import java.io.Closeable;
 public class TableModel implements TableStructure, Closeable {
     private static final long COLUMN_FLAG_CACHED = 1L;
     private static final long COLUMN_FLAG_INDEXED = 2L;
+    private static final long COLUMN_FLAG_DEDUP_KEY = 4L;
     private final String name;
     private final int partitionBy;
     private final AppendMemory mem = new AppendMemory();
@@ -74,6 +75,13 @@ public class TableModel implements TableStructure, Closeable {
         return this;
     }
 
+    public TableModel dedupKey() {
+        int pos = columnBits.size() - 1;
+        assert pos > 0;
+        columnBits.setQuick(pos, columnBits.getQuick(pos) | COLUMN_FLAG_DEDUP_KEY);
+        return this;
+    }
+
     public boolean getSymbolCacheFlag(int index) {
         return (columnBits.getQuick(index * 2 + 1) & COLUMN_FLAG_CACHED) == COLUMN_FLAG_CACHED;
     }
@@ -94,6 +102,10 @@ public class TableModel implements TableStructure, Closeable {
         return (int) columnBits.getQuick(index * 2);
     }
 
+    public boolean getDedupKeyFlag(int index) {
+        return (columnBits.getQuick(index * 2 + 1) & COLUMN_FLAG_DEDUP_KEY) == COLUMN_FLAG_DEDUP_KEY;
+    }
+
     public int getIndexBlockCapacity(int index) {
         return (int) (columnBits.getQuick(index * 2 + 1) >> 32);
     }
@@ -1723,6 +1723,76 @@ public class TableReaderTest extends AbstractCairoTest {
         });
     }
 
+    @Test
+    public void testLazyColumnOpen() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            try (TableModel model = new TableModel(configuration, "x", PartitionBy.DAY)
+                    .col("a", ColumnType.SYMBOL)
+                    .col("b", ColumnType.INT)
+                    .col("c", ColumnType.STRING)
+                    .timestamp()) {
+                CairoTestUtils.create(model);
+            }
+
+            final int N = 25;
+            final long ts = DateFormatUtils.parseDateTime("2018-01-06T00:00:00.000Z");
+            final long increment = Timestamps.DAY_MICROS / 10;
+            try (TableWriter writer = new TableWriter(configuration, "x")) {
+                for (int i = 0; i < N; i++) {
+                    TableWriter.Row row = writer.newRow(ts + i * increment);
+                    row.putSym(0, i % 2 == 0 ? "even" : "odd");
+                    row.putInt(1, i);
+                    row.putStr(2, "s" + i);
+                    row.append();
+                }
+                writer.commit();
+
+                try (TableReader reader = new TableReader(configuration, "x")) {
+                    Assert.assertEquals(3, reader.getPartitionCount());
+                    Assert.assertEquals(0, reader.getPartitionOpenCount());
+                    Assert.assertEquals(0, reader.getColumnOpenCount());
+
+                    Assert.assertEquals(10, reader.openPartition(1));
+                    Assert.assertEquals(1, reader.getPartitionOpenCount());
+                    Assert.assertEquals(0, reader.getColumnOpenCount());
+
+                    final int base = reader.getColumnBase(1);
+                    Assert.assertEquals(10, reader.getColumn(TableReader.getPrimaryColumnIndex(base, 1)).getInt(0));
+                    Assert.assertEquals(1, reader.getColumnOpenCount());
+
+                    // secondary column is opened together with primary
+                    final ReadOnlyColumn offsets = reader.getColumn(TableReader.getPrimaryColumnIndex(base, 2) + 1);
+                    TestUtils.assertEquals("s10", reader.getColumn(TableReader.getPrimaryColumnIndex(base, 2)).getStr(offsets.getLong(0)));
+                    Assert.assertEquals(2, reader.getColumnOpenCount());
+
+                    // append to last partition, which has not been opened yet
+                    for (int i = N; i < N + 5; i++) {
+                        TableWriter.Row row = writer.newRow(ts + i * increment);
+                        row.putSym(0, i % 2 == 0 ? "even" : "odd");
+                        row.putInt(1, i);
+                        row.putStr(2, "s" + i);
+                        row.append();
+                    }
+                    writer.commit();
+                    Assert.assertTrue(reader.reload());
+
+                    RecordCursor cursor = reader.getCursor();
+                    Record record = cursor.getRecord();
+                    int i = 0;
+                    while (cursor.hasNext()) {
+                        TestUtils.assertEquals(i % 2 == 0 ? "even" : "odd", record.getSym(0));
+                        Assert.assertEquals(i, record.getInt(1));
+                        i++;
+                    }
+                    Assert.assertEquals(N + 5, i);
+                    Assert.assertEquals(3, reader.getPartitionOpenCount());
+                    // "c" remains closed in partitions where it has not been read
+                    Assert.assertEquals(7, reader.getColumnOpenCount());
+                }
+            }
+        });
+    }
+
     @Test
     public void testNullValueRecovery() throws Exception {
         final String expected = "int\tshort\tbyte\tdouble\tfloat\tlong\tstr\tsym\tbool\tbin\tdate\n" +
@@ -613,7 +613,7 @@ public class TableWriterTest extends AbstractCairoTest {
                 w.commit();
 
                 try {
-                    w.addColumn("c", ColumnType.STRING, 0, false, true, 1024);
+                    w.addColumn("c", ColumnType.DOUBLE, 0, false, true, 1024);
                     Assert.fail();
                 } catch (CairoException e) {
                     TestUtils.assertContains(e.getMessage(), "only supported");
@@ -1714,7 +1714,7 @@ public class TableWriterTest extends AbstractCairoTest {
             try (TableModel model = new TableModel(configuration, "x", PartitionBy.NONE)
                     .col("a", ColumnType.SYMBOL).cached(true)
                     .col("b", ColumnType.STRING)
-                    .col("c", ColumnType.STRING).indexed(true, 1024)
+                    .col("c", ColumnType.DOUBLE).indexed(true, 1024)
                     .timestamp()) {
                 CairoTestUtils.create(model);
             }
@@ -0,0 +1,122 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo.map;
+
+import io.questdb.cairo.AbstractCairoTest;
+import io.questdb.cairo.ArrayColumnTypes;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.SymbolTable;
+import io.questdb.std.IntHashSet;
+import io.questdb.std.IntList;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SymbolKeyMapTest extends AbstractCairoTest {
+
+    @Test
+    public void testAggregateAndIterate() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            ArrayColumnTypes valueTypes = new ArrayColumnTypes();
+            valueTypes.add(ColumnType.LONG);
+            valueTypes.add(ColumnType.DOUBLE);
+            valueTypes.add(ColumnType.BYTE);
+
+            try (SymbolKeyMap map = new SymbolKeyMap(valueTypes, 4)) {
+                final int N = 10000;
+                for (int i = 0; i < N; i++) {
+                    // keys are well beyond initial capacity, slot table has to grow
+                    final int key = i % 7 == 0 ? SymbolTable.VALUE_IS_NULL : (i * 31) % 1000;
+                    MapValue value = map.valueOf(key);
+                    if (value.isNew()) {
+                        value.putLong(0, 1);
+                        value.putDouble(1, i);
+                        value.putByte(2, (byte) 1);
+                    } else {
+                        value.addLong(0, 1);
+                        value.addDouble(1, i);
+                    }
+                }
+
+                Assert.assertEquals(1001, map.size());
+
+                // keys are iterated in order they were first seen
+                final IntList expectedKeys = new IntList();
+                final IntHashSet seen = new IntHashSet();
+                for (int i = 0; i < N; i++) {
+                    final int key = i % 7 == 0 ? SymbolTable.VALUE_IS_NULL : (i * 31) % 1000;
+                    if (seen.add(key)) {
+                        expectedKeys.add(key);
+                    }
+                }
+
+                long total = 0;
+                int position = 0;
+                RecordCursor cursor = map.getCursor();
+                Record record = cursor.getRecord();
+                while (cursor.hasNext()) {
+                    Assert.assertEquals(expectedKeys.getQuick(position), record.getInt(3));
+                    Assert.assertEquals(1, record.getByte(2));
+                    Assert.assertEquals(position, record.getRowId());
+                    total += record.getLong(0);
+                    position++;
+                }
+                Assert.assertEquals(N, total);
+
+                // random access
+                Record recordB = cursor.newRecord();
+                cursor.recordAt(recordB, 0);
+                Assert.assertEquals(SymbolTable.VALUE_IS_NULL, recordB.getInt(3));
+                Assert.assertEquals((N + 6) / 7, recordB.getLong(0));
+            }
+        });
+    }
+
+    @Test
+    public void testClear() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            ArrayColumnTypes valueTypes = new ArrayColumnTypes();
+            valueTypes.add(ColumnType.INT);
+
+            try (SymbolKeyMap map = new SymbolKeyMap(valueTypes, 16)) {
+                map.reserve(100);
+                Assert.assertTrue(map.valueOf(5).isNew());
+                Assert.assertFalse(map.valueOf(5).isNew());
+                Assert.assertTrue(map.valueOf(SymbolTable.VALUE_IS_NULL).isNew());
+                Assert.assertEquals(2, map.size());
+
+                map.clear();
+                Assert.assertEquals(0, map.size());
+                Assert.assertFalse(map.getCursor().hasNext());
+                Assert.assertTrue(map.valueOf(5).isNew());
+                Assert.assertTrue(map.valueOf(SymbolTable.VALUE_IS_NULL).isNew());
+                Assert.assertTrue(map.valueOf(99).isNew());
+                Assert.assertEquals(3, map.size());
+            }
+        });
+    }
+}
@@ -1408,6 +1408,62 @@ public class IODispatcherTest {
         });
     }
 
+    @Test
+    public void testJsonQueryBindVariables() throws Exception {
+        testJsonQuery(
+                20,
+                "GET /query?query=x%20where%20i%20%3D%20%241%20and%20j%20%3D%20%3Aj&$1=EDRQQ&:j=LOF&count=true HTTP/1.1\r\n" +
+                        "Host: localhost:9001\r\n" +
+                        "Connection: keep-alive\r\n" +
+                        "Cache-Control: max-age=0\r\n" +
+                        "Upgrade-Insecure-Requests: 1\r\n" +
+                        "User-Agent: Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/74.0.3729.169 Safari/537.36\r\n" +
+                        "Accept: text/html,application/xhtml+xml,application/xml;q=0.9,image/webp,image/apng,*/*;q=0.8,application/signed-exchange;v=b3\r\n" +
+                        "Accept-Encoding: gzip, deflate, br\r\n" +
+                        "Accept-Language: en-GB,en-US;q=0.9,en;q=0.8\r\n" +
+                        "\r\n",
+                "HTTP/1.1 200 OK\r\n" +
+                        "Server: questDB/1.0\r\n" +
+                        "Date: Thu, 1 Jan 1970 00:00:00 GMT\r\n" +
+                        "Transfer-Encoding: chunked\r\n" +
+                        "Content-Type: application/json; charset=utf-8\r\n" +
+                        "Keep-Alive: timeout=5, max=10000\r\n" +
+                        "\r\n" +
+                        "021a\r\n" +
+                        "{\"query\":\"x where i = $1 and j = :j\",\"columns\":[{\"name\":\"a\",\"type\":\"BYTE\"},{\"name\":\"b\",\"type\":\"SHORT\"},{\"name\":\"c\",\"type\":\"INT\"},{\"name\":\"d\",\"type\":\"LONG\"},{\"name\":\"e\",\"type\":\"DATE\"},{\"name\":\"f\",\"type\":\"TIMESTAMP\"},{\"name\":\"g\",\"type\":\"FLOAT\"},{\"name\":\"h\",\"type\":\"DOUBLE\"},{\"name\":\"i\",\"type\":\"STRING\"},{\"name\":\"j\",\"type\":\"SYMBOL\"},{\"name\":\"k\",\"type\":\"BOOLEAN\"},{\"name\":\"l\",\"type\":\"BINARY\"}],\"dataset\":[[30,32312,-303295973,6854658259142399220,null,\"273652-10-24T01:16:04.499209Z\",0.38179755,0.9687423277,\"EDRQQ\",\"LOF\",false,[]]],\"count\":1}\r\n" +
+                        "00\r\n" +
+                        "\r\n"
+        );
+    }
+
+    @Test
+    public void testJsonQueryBindVariableIndexTooLarge() throws Exception {
+        testJsonQuery(
+                20,
+                "GET /query?query=x%20where%20i%20%3D%20%241&$2000000000=EDRQQ HTTP/1.1\r\n" +
+                        "Host: localhost:9001\r\n" +
+                        "Connection: keep-alive\r\n" +
+                        "Cache-Control: max-age=0\r\n" +
+                        "Upgrade-Insecure-Requests: 1\r\n" +
+                        "User-Agent: Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/74.0.3729.169 Safari/537.36\r\n" +
+                        "Accept: text/html,application/xhtml+xml,application/xml;q=0.9,image/webp,image/apng,*/*;q=0.8,application/signed-exchange;v=b3\r\n" +
+                        "Accept-Encoding: gzip, deflate, br\r\n" +
+                        "Accept-Language: en-GB,en-US;q=0.9,en;q=0.8\r\n" +
+                        "\r\n",
+                "HTTP/1.1 400 Bad request\r\n" +
+                        "Server: questDB/1.0\r\n" +
+                        "Date: Thu, 1 Jan 1970 00:00:00 GMT\r\n" +
+                        "Transfer-Encoding: chunked\r\n" +
+                        "Content-Type: application/json; charset=utf-8\r\n" +
+                        "Keep-Alive: timeout=5, max=10000\r\n" +
+                        "\r\n" +
+                        "6b\r\n" +
+                        "{\"query\":\"x where i = $1\",\"error\":\"bind variable index is too large [max=32767]: $2000000000\",\"position\":0}\r\n" +
+                        "00\r\n" +
+                        "\r\n"
+        );
+    }
+
     @Test
     public void testJsonQueryBottomLimit() throws Exception {
         testJsonQuery(
@@ -1856,6 +1912,52 @@ public class IODispatcherTest {
         );
     }
 
+    @Test
+    public void testJsonQueryLive() throws Exception {
+        testJsonQuery0(2, engine -> {
+            try (TableModel model = new TableModel(engine.getConfiguration(), "x", PartitionBy.DAY)
+                    .col("k", ColumnType.SYMBOL)
+                    .col("a", ColumnType.LONG)
+                    .timestamp()) {
+                CairoTestUtils.create(model);
+            }
+
+            try (TableWriter writer = engine.getWriter(AllowAllCairoSecurityContext.INSTANCE, "x")) {
+                for (int i = 0; i < 4; i++) {
+                    TableWriter.Row row = writer.newRow(i * 1800000000L);
+                    row.putSym(0, i % 2 == 0 ? "a" : "b");
+                    row.putLong(1, i);
+                    row.append();
+                }
+                writer.commit();
+            }
+
+            sendAndReceive(
+                    NetworkFacadeImpl.INSTANCE,
+                    "GET /query?query=select+k%2C+sum(a)+from+x+sample+by+1h&live=true HTTP/1.1\r\n" +
+                            "Host: localhost:9001\r\n" +
+                            "Connection: keep-alive\r\n" +
+                            "Accept: */*\r\n" +
+                            "\r\n",
+                    "HTTP/1.1 200 OK\r\n" +
+                            "Server: questDB/1.0\r\n" +
+                            "Date: Thu, 1 Jan 1970 00:00:00 GMT\r\n" +
+                            "Transfer-Encoding: chunked\r\n" +
+                            "Content-Type: application/json; charset=utf-8\r\n" +
+                            "Keep-Alive: timeout=5, max=10000\r\n" +
+                            "\r\n" +
+                            "ac\r\n" +
+                            "{\"query\":\"select k, sum(a) from x sample by 1h\",\"columns\":[{\"name\":\"k\",\"type\":\"SYMBOL\"},{\"name\":\"sum\",\"type\":\"LONG\"}],\"dataset\":[[\"a\",0],[\"b\",1],[\"a\",2],[\"b\",3]],\"count\":4}\r\n" +
+                            "00\r\n" +
+                            "\r\n",
+                    1,
+                    0,
+                    false,
+                    false
+            );
+        });
+    }
+
     @Test
     public void testJsonQueryMiddleLimit() throws Exception {
         testJsonQuery(
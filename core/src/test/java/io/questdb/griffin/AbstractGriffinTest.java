@@ -100,6 +100,7 @@ public class AbstractGriffinTest extends AbstractCairoTest {
     public void tearDownAfterTest() {
         engine.releaseAllReaders();
         engine.releaseAllWriters();
+        engine.getQueryCache().clear();
     }
 
     protected static void assertCursor(CharSequence expected, RecordCursorFactory factory, boolean supportsRandomAccess) {
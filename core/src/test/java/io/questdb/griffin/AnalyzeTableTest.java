@@ -0,0 +1,210 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin;
+
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.TableStats;
+import io.questdb.cairo.TableWriter;
+import io.questdb.cairo.security.AllowAllCairoSecurityContext;
+import io.questdb.griffin.model.ExecutionModel;
+import io.questdb.griffin.model.QueryModel;
+import io.questdb.std.FilesFacadeImpl;
+import io.questdb.std.Sinkable;
+import io.questdb.std.microtime.DateFormatUtils;
+import io.questdb.std.str.Path;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class AnalyzeTableTest extends AbstractGriffinTest {
+
+    @Test
+    public void testAnalyze() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile(
+                    "create table x as (" +
+                            "select" +
+                            " rnd_symbol('a','b','c') s," +
+                            " x % 100 k," +
+                            " x * 0.5 d," +
+                            " rnd_str(3, 3, 0) n," +
+                            " rnd_bin(10, 20, 2) b," +
+                            " timestamp_sequence(to_timestamp('2020-01-01', 'yyyy-MM-dd'), 3600000000L) ts" +
+                            " from long_sequence(1000)" +
+                            ") timestamp(ts) partition by DAY",
+                    sqlExecutionContext
+            );
+            Assert.assertEquals(CompiledQuery.ANALYZE, compiler.compile("analyze table x", sqlExecutionContext).getType());
+
+            try (TableStats stats = new TableStats(); Path path = new Path()) {
+                Assert.assertTrue(stats.of(FilesFacadeImpl.INSTANCE, path.of(root), "x"));
+                Assert.assertEquals(1000, stats.getRowCount());
+                // 1000 hours span 42 days
+                Assert.assertEquals(42, stats.getPartitionCount());
+                long rowCount = 0;
+                for (int i = 0, n = stats.getPartitionCount(); i < n; i++) {
+                    rowCount += stats.getPartitionRowCount(i);
+                }
+                Assert.assertEquals(1000, rowCount);
+                Assert.assertEquals(24, stats.getPartitionRowCount(0));
+                Assert.assertEquals(16, stats.getPartitionRowCount(41));
+                Assert.assertEquals(DateFormatUtils.parseTimestamp("2020-01-02T00:00:00.000000Z"), stats.getPartitionTimestamp(1));
+
+                Assert.assertEquals(6, stats.getColumnCount());
+
+                final int s = stats.getColumnIndex("s");
+                Assert.assertEquals(ColumnType.SYMBOL, stats.getColumnType(s));
+                Assert.assertEquals(3, stats.getDistinctCount(s));
+
+                final int k = stats.getColumnIndex("K");
+                Assert.assertEquals(ColumnType.LONG, stats.getColumnType(k));
+                Assert.assertEquals(100, stats.getDistinctCount(k));
+                Assert.assertEquals(0, stats.getMin(k));
+                Assert.assertEquals(99, stats.getMax(k));
+
+                final int d = stats.getColumnIndex("d");
+                Assert.assertEquals(1000, stats.getDistinctCount(d), 30);
+                Assert.assertEquals(0.5, Double.longBitsToDouble(stats.getMin(d)), 0.0000001);
+                Assert.assertEquals(500.0, Double.longBitsToDouble(stats.getMax(d)), 0.0000001);
+
+                Assert.assertEquals(-1, stats.getDistinctCount(stats.getColumnIndex("b")));
+                Assert.assertEquals(-1, stats.getColumnIndex("z"));
+            }
+
+            // statistics is replaced by next analyze
+            try (TableWriter w = engine.getWriter(AllowAllCairoSecurityContext.INSTANCE, "x")) {
+                TableWriter.Row r = w.newRow(DateFormatUtils.parseTimestamp("2020-02-20T00:00:00.000000Z"));
+                r.putLong(1, 500);
+                r.append();
+                w.commit();
+            }
+            compiler.compile("analyze table x", sqlExecutionContext);
+            try (TableStats stats = new TableStats(); Path path = new Path()) {
+                Assert.assertTrue(stats.of(FilesFacadeImpl.INSTANCE, path.of(root), "x"));
+                Assert.assertEquals(1001, stats.getRowCount());
+                Assert.assertEquals(500, stats.getMax(stats.getColumnIndex("k")));
+            }
+        });
+    }
+
+    @Test
+    public void testAnalyzeMissingTable() throws Exception {
+        assertFailure("analyze table y", 14, "table 'y' does not exist");
+    }
+
+    @Test
+    public void testAnalyzeNoTableKeyword() throws Exception {
+        assertFailure("analyze x", 8, "'table' expected");
+    }
+
+    @Test
+    public void testAnalyzeNoTableName() throws Exception {
+        assertFailure("analyze table", 13, "table name expected");
+    }
+
+    @Test
+    public void testJoinOrderFollowsRowCount() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile("create table small as (select x k, x v from long_sequence(10))", sqlExecutionContext);
+            compiler.compile("create table big as (select x % 10 k, x w from long_sequence(1000))", sqlExecutionContext);
+
+            final String query = "select small.v, big.w from small join big on (k)";
+            // tables are joined in the order they are written until both are analyzed
+            assertModel(
+                    "select-choose small.v v, big.w w from (small join big on big.k = small.k)",
+                    query
+            );
+            compiler.compile("analyze table small, big", sqlExecutionContext);
+            assertModel(
+                    "select-choose small.v v, big.w w from (big join small on small.k = big.k)",
+                    query
+            );
+
+            // filter on big table column reduces its estimated size by distinct count of that column
+            assertModel(
+                    "select-choose small.v v, big.w w from (small join (big where w = 5) big on big.k = small.k)",
+                    "select small.v, big.w from small join big on (k) where w = 5"
+            );
+
+            // result is not affected by join order
+            assertQuery(
+                    "v\tw\n" +
+                            "3\t3\n" +
+                            "3\t13\n",
+                    "select small.v, big.w from small join big on (k) where v = 3 and w < 20",
+                    null,
+                    false
+            );
+        });
+    }
+
+    @Test
+    public void testJoinOrderKeepsTimestampTable() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile("create table small as (select x k, timestamp_sequence(0, 1000000L) ts from long_sequence(10)) timestamp(ts)", sqlExecutionContext);
+            compiler.compile("create table big as (select x % 10 k, x w from long_sequence(1000))", sqlExecutionContext);
+            compiler.compile("analyze table small, big", sqlExecutionContext);
+            // timestamp of join result is timestamp of the first table
+            assertModel(
+                    "select-choose small.ts ts, big.w w from (small timestamp (ts) join big on big.k = small.k)",
+                    "select small.ts, big.w from small join big on (k)"
+            );
+        });
+    }
+
+    @Test
+    public void testOuterJoinOrderIsKept() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile("create table small as (select x k, x v from long_sequence(10))", sqlExecutionContext);
+            compiler.compile("create table big as (select x % 10 k, x w from long_sequence(1000))", sqlExecutionContext);
+            compiler.compile("analyze table small, big", sqlExecutionContext);
+            assertModel(
+                    "select-choose small.v v, big.w w from (small outer join big on big.k = small.k)",
+                    "select small.v, big.w from small outer join big on (k)"
+            );
+        });
+    }
+
+    private static void assertModel(String expected, String query) throws SqlException {
+        ExecutionModel model = compiler.testCompileModel(query, sqlExecutionContext);
+        Assert.assertEquals(ExecutionModel.QUERY, model.getModelType());
+        sink.clear();
+        ((Sinkable) model).toSink(sink);
+        TestUtils.assertEquals(expected, sink);
+        Assert.assertTrue(model instanceof QueryModel);
+    }
+
+    private void assertFailure(String query, int position, CharSequence message) throws Exception {
+        assertMemoryLeak(() -> {
+            try {
+                compiler.compile(query, sqlExecutionContext);
+                Assert.fail();
+            } catch (SqlException e) {
+                Assert.assertEquals(position, e.getPosition());
+                TestUtils.assertContains(e.getMessage(), message);
+            }
+        });
+    }
+}
@@ -0,0 +1,204 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin;
+
+import io.questdb.cairo.BloomIndexReader;
+import io.questdb.cairo.BloomIndexUtils;
+import io.questdb.cairo.FullFwdDataFrameCursor;
+import io.questdb.cairo.TableReader;
+import io.questdb.cairo.TableWriter;
+import io.questdb.cairo.security.AllowAllCairoSecurityContext;
+import io.questdb.cairo.sql.DataFrameCursor;
+import io.questdb.cairo.sql.RowCursor;
+import io.questdb.std.LongList;
+import io.questdb.std.NumericException;
+import io.questdb.std.microtime.DateFormatUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class BloomIndexTest extends AbstractGriffinTest {
+
+    @Test
+    public void testAddIndexedColumn() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile("create table x (ts timestamp, v int) timestamp(ts) partition by DAY", sqlExecutionContext);
+            try (TableWriter w = engine.getWriter(AllowAllCairoSecurityContext.INSTANCE, "x")) {
+                TableWriter.Row r = w.newRow(DateFormatUtils.parseTimestamp("2020-01-01T00:00:00.000000Z"));
+                r.putInt(1, 1);
+                r.append();
+                w.commit();
+            }
+            compiler.compile("alter table x add column s string index", sqlExecutionContext);
+            try (TableWriter w = engine.getWriter(AllowAllCairoSecurityContext.INSTANCE, "x")) {
+                TableWriter.Row r = w.newRow(DateFormatUtils.parseTimestamp("2020-01-01T00:00:01.000000Z"));
+                r.putInt(1, 2);
+                r.putStr(2, "a");
+                r.append();
+                r = w.newRow(DateFormatUtils.parseTimestamp("2020-01-02T00:00:00.000000Z"));
+                r.putInt(1, 3);
+                r.putStr(2, "a");
+                r.append();
+                w.commit();
+            }
+
+            assertQuery(
+                    "ts\tv\ts\n" +
+                            "2020-01-01T00:00:01.000000Z\t2\ta\n" +
+                            "2020-01-02T00:00:00.000000Z\t3\ta\n",
+                    "x where s = 'a'",
+                    "ts",
+                    true
+            );
+        });
+    }
+
+    @Test
+    public void testBlocksAreSkipped() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            populate();
+
+            final LongList hashes = new LongList();
+            hashes.add(BloomIndexUtils.hash("c"));
+            final LongList rows = new LongList();
+            try (
+                    TableReader reader = engine.getReader(AllowAllCairoSecurityContext.INSTANCE, "x");
+                    DataFrameCursor dataFrameCursor = new FullFwdDataFrameCursor().of(reader)
+            ) {
+                Assert.assertTrue(dataFrameCursor.hasNext());
+                BloomIndexReader indexReader = dataFrameCursor.next().getBloomIndexReader(1);
+                Assert.assertEquals(3, indexReader.getBlockCount());
+                RowCursor cursor = indexReader.getCursor(hashes, 0, Long.MAX_VALUE);
+                while (cursor.hasNext()) {
+                    rows.add(cursor.next());
+                }
+            }
+            // second block, null at the end of it is not covered
+            Assert.assertEquals("[2]", rows.toString());
+        });
+    }
+
+    @Test
+    public void testEquals() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            populate();
+
+            assertQuery(
+                    "ts\ts\th\tv\n" +
+                            "2020-01-01T00:00:00.000000Z\ta\t0x01\t1\n" +
+                            "2020-01-01T00:00:04.000000Z\ta\t0x05\t5\n" +
+                            "2020-01-02T00:00:00.000000Z\ta\t0x06\t6\n",
+                    "x where s = 'a'",
+                    "ts",
+                    true
+            );
+            assertQuery("ts\ts\th\tv\n", "x where s = 'zzz'", "ts", true);
+        });
+    }
+
+    @Test
+    public void testIn() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            populate();
+
+            assertQuery(
+                    "ts\ts\th\tv\n" +
+                            "2020-01-01T00:00:01.000000Z\tb\t0x02\t2\n" +
+                            "2020-01-01T00:00:02.000000Z\tc\t0x03\t3\n",
+                    "x where s in ('b', 'c')",
+                    "ts",
+                    true
+            );
+        });
+    }
+
+    @Test
+    public void testLong256() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            populate();
+
+            assertQuery(
+                    "ts\ts\th\tv\n" +
+                            "2020-01-01T00:00:04.000000Z\ta\t0x05\t5\n",
+                    "x where h = '0x0000000000000000000000000000000000000000000000000000000000000005'",
+                    "ts",
+                    true
+            );
+        });
+    }
+
+    @Test
+    public void testRollback() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            try (TableWriter w = engine.getWriter(AllowAllCairoSecurityContext.INSTANCE, "x")) {
+                append(w, "2020-01-01T00:00:00.000000Z", "a", "0x01", 1);
+                w.commit();
+                append(w, "2020-01-01T00:00:01.000000Z", "a", "0x02", 2);
+                w.rollback();
+                append(w, "2020-01-01T00:00:02.000000Z", "b", "0x03", 3);
+                w.commit();
+            }
+
+            assertQuery(
+                    "ts\ts\th\tv\n" +
+                            "2020-01-01T00:00:00.000000Z\ta\t0x01\t1\n",
+                    "x where s = 'a'",
+                    "ts",
+                    true
+            );
+        });
+    }
+
+    private static void append(TableWriter w, String timestamp, String s, String h, int v) throws NumericException {
+        TableWriter.Row r = w.newRow(DateFormatUtils.parseTimestamp(timestamp));
+        r.putStr(1, s);
+        r.putLong256(2, h);
+        r.putInt(3, v);
+        r.append();
+    }
+
+    private void createTable() throws SqlException {
+        compiler.compile("create table x (ts timestamp, s string index, h long256, v int), index(h) timestamp(ts) partition by DAY", sqlExecutionContext);
+    }
+
+    private void populate() throws NumericException {
+        try (TableWriter w = engine.getWriter(AllowAllCairoSecurityContext.INSTANCE, "x")) {
+            append(w, "2020-01-01T00:00:00.000000Z", "a", "0x01", 1);
+            append(w, "2020-01-01T00:00:01.000000Z", "b", "0x02", 2);
+            w.commit();
+            append(w, "2020-01-01T00:00:02.000000Z", "c", "0x03", 3);
+            append(w, "2020-01-01T00:00:03.000000Z", null, "0x04", 4);
+            w.commit();
+            append(w, "2020-01-01T00:00:04.000000Z", "a", "0x05", 5);
+            w.commit();
+            append(w, "2020-01-02T00:00:00.000000Z", "a", "0x06", 6);
+            w.commit();
+        }
+    }
+}
@@ -0,0 +1,365 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin;
+
+import io.questdb.cairo.*;
+import io.questdb.cairo.security.AllowAllCairoSecurityContext;
+import io.questdb.std.*;
+import io.questdb.std.microtime.DateFormatUtils;
+import io.questdb.std.str.LPSZ;
+import io.questdb.std.str.Path;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class DedupTest extends AbstractGriffinTest {
+
+    @Test
+    public void testCommittedDuplicateIsReplaced() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            try (TableWriter w = engine.getWriter(AllowAllCairoSecurityContext.INSTANCE, "x")) {
+                append(w, "2020-01-01T00:00:00.000000Z", "A", 1, "one");
+                append(w, "2020-01-01T00:00:01.000000Z", "A", 2, "two");
+                w.commit();
+                append(w, "2020-01-01T00:00:01.000000Z", "A", 3, "three");
+                append(w, "2020-01-01T00:00:01.000000Z", "B", 4, "four");
+                w.commit();
+                Assert.assertEquals(3, w.size());
+            }
+
+            assertQuery(
+                    "ts\tsym\tv\ts\n" +
+                            "2020-01-01T00:00:00.000000Z\tA\t1\tone\n" +
+                            "2020-01-01T00:00:01.000000Z\tA\t3\tthree\n" +
+                            "2020-01-01T00:00:01.000000Z\tB\t4\tfour\n",
+                    "x",
+                    "ts",
+                    true
+            );
+        });
+    }
+
+    @Test
+    public void testCommittedDuplicateIsReplacedOnCommit() throws Exception {
+        assertCommittedDuplicateIsReplacedOnCommit("partition by DAY");
+    }
+
+    @Test
+    public void testCommittedDuplicateIsReplacedOnCommitNotPartitioned() throws Exception {
+        assertCommittedDuplicateIsReplacedOnCommit("");
+    }
+
+    @Test
+    public void testCommittedRowUpdatedByLaterCommit() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile(
+                    "create table x (ts timestamp, sym symbol index, v int, s string) timestamp(ts) partition by DAY dedup upsert keys(ts, sym)",
+                    sqlExecutionContext
+            );
+            try (TableWriter w = engine.getWriter(AllowAllCairoSecurityContext.INSTANCE, "x")) {
+                append(w, "2020-01-01T00:00:01.000000Z", "A", 1, "one");
+                append(w, "2020-01-01T00:00:01.000000Z", "B", 2, "two");
+                append(w, "2020-01-01T00:00:01.000000Z", "C", 3, "three");
+                w.commit();
+                append(w, "2020-01-01T00:00:01.000000Z", "A", 4, "an updated version of one");
+                w.commit();
+                Assert.assertEquals(3, w.size());
+            }
+            engine.releaseAllWriters();
+
+            try (TableWriter w = engine.getWriter(AllowAllCairoSecurityContext.INSTANCE, "x")) {
+                append(w, "2020-01-01T00:00:01.000000Z", "C", 5, "five");
+                w.commit();
+                Assert.assertEquals(3, w.size());
+            }
+
+            final String expected = "ts\tsym\tv\ts\n" +
+                    "2020-01-01T00:00:01.000000Z\tA\t4\tan updated version of one\n" +
+                    "2020-01-01T00:00:01.000000Z\tB\t2\ttwo\n" +
+                    "2020-01-01T00:00:01.000000Z\tC\t5\tfive\n";
+            assertQuery(expected, "x", "ts", true);
+            // index must follow rewritten rows
+            assertQuery(expected.substring(0, expected.indexOf('\n') + 1) + "2020-01-01T00:00:01.000000Z\tA\t4\tan updated version of one\n", "x where sym = 'A'", "ts", true);
+            assertQuery(expected.substring(0, expected.indexOf('\n') + 1) + "2020-01-01T00:00:01.000000Z\tC\t5\tfive\n", "x where sym = 'C'", "ts", true);
+        });
+    }
+
+    @Test
+    public void testRollbackRestoresCommittedDuplicate() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            try (TableWriter w = engine.getWriter(AllowAllCairoSecurityContext.INSTANCE, "x")) {
+                append(w, "2020-01-01T00:00:01.000000Z", "A", 1, "one");
+                append(w, "2020-01-01T00:00:01.000000Z", "B", 2, "two");
+                w.commit();
+                append(w, "2020-01-01T00:00:01.000000Z", "A", 3, "three");
+                append(w, "2020-01-01T00:00:01.000000Z", "B", 4, "four");
+                append(w, "2020-01-01T00:00:01.000000Z", "A", 5, "five");
+                Assert.assertTrue(w.inTransaction());
+                w.rollback();
+                Assert.assertEquals(2, w.size());
+                append(w, "2020-01-01T00:00:01.000000Z", "C", 6, "six");
+                w.commit();
+            }
+
+            assertQuery(
+                    "ts\tsym\tv\ts\n" +
+                            "2020-01-01T00:00:01.000000Z\tA\t1\tone\n" +
+                            "2020-01-01T00:00:01.000000Z\tB\t2\ttwo\n" +
+                            "2020-01-01T00:00:01.000000Z\tC\t6\tsix\n",
+                    "x",
+                    "ts",
+                    true
+            );
+        });
+    }
+
+    @Test
+    public void testCopyCommitRepairedWhenWriterDies() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            final FilesFacade ff = new FilesFacadeImpl() {
+                int count = 3;
+
+                @Override
+                public boolean rename(LPSZ from, LPSZ to) {
+                    // writer dies half way through replacing partition files
+                    return !(Chars.contains(from, TableUtils.COPY_DIR_NAME) && --count == 0) && super.rename(from, to);
+                }
+            };
+            final CairoConfiguration configuration = new DefaultCairoConfiguration(root) {
+                @Override
+                public FilesFacade getFilesFacade() {
+                    return ff;
+                }
+            };
+
+            try (TableWriter w = new TableWriter(configuration, "x")) {
+                append(w, "2020-01-01T00:00:01.000000Z", "A", 1, "one");
+                append(w, "2020-01-01T00:00:01.000000Z", "B", 2, "two");
+                w.commit();
+                append(w, "2020-01-01T00:00:01.000000Z", "A", 3, "three");
+                try {
+                    w.commit();
+                    Assert.fail();
+                } catch (CairoError ignore) {
+                }
+            }
+
+            try (TableWriter w = engine.getWriter(AllowAllCairoSecurityContext.INSTANCE, "x")) {
+                Assert.assertEquals(2, w.size());
+                append(w, "2020-01-01T00:00:01.000000Z", "C", 4, "four");
+                w.commit();
+            }
+
+            assertQuery(
+                    "ts\tsym\tv\ts\n" +
+                            "2020-01-01T00:00:01.000000Z\tA\t1\tone\n" +
+                            "2020-01-01T00:00:01.000000Z\tB\t2\ttwo\n" +
+                            "2020-01-01T00:00:01.000000Z\tC\t4\tfour\n",
+                    "x",
+                    "ts",
+                    true
+            );
+            try (Path path = new Path()) {
+                Assert.assertFalse(Files.exists(path.of(root).concat("x").concat(TableUtils.COPY_DIR_NAME).$()));
+            }
+        });
+    }
+
+    @Test
+    public void testDifferentTimestampsAreKept() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            try (TableWriter w = engine.getWriter(AllowAllCairoSecurityContext.INSTANCE, "x")) {
+                append(w, "2020-01-01T00:00:00.000000Z", "A", 1, "one");
+                append(w, "2020-01-01T00:00:01.000000Z", "A", 2, "two");
+                append(w, "2020-01-02T00:00:01.000000Z", "A", 3, "three");
+                w.commit();
+                Assert.assertEquals(3, w.size());
+            }
+
+            assertQuery(
+                    "ts\tsym\tv\ts\n" +
+                            "2020-01-01T00:00:00.000000Z\tA\t1\tone\n" +
+                            "2020-01-01T00:00:01.000000Z\tA\t2\ttwo\n" +
+                            "2020-01-02T00:00:01.000000Z\tA\t3\tthree\n",
+                    "x",
+                    "ts",
+                    true
+            );
+        });
+    }
+
+    @Test
+    public void testDuplicateAfterReopen() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            try (TableWriter w = engine.getWriter(AllowAllCairoSecurityContext.INSTANCE, "x")) {
+                append(w, "2020-01-01T00:00:01.000000Z", "A", 1, "one");
+                append(w, "2020-01-01T00:00:01.000000Z", "B", 2, "two");
+                w.commit();
+            }
+            engine.releaseAllWriters();
+
+            try (TableWriter w = engine.getWriter(AllowAllCairoSecurityContext.INSTANCE, "x")) {
+                append(w, "2020-01-01T00:00:01.000000Z", "B", 3, "three");
+                append(w, "2020-01-01T00:00:01.000000Z", "C", 4, "four");
+                append(w, "2020-01-01T00:00:01.000000Z", "C", 5, "five");
+                w.commit();
+                Assert.assertEquals(3, w.size());
+            }
+
+            assertQuery(
+                    "ts\tsym\tv\ts\n" +
+                            "2020-01-01T00:00:01.000000Z\tA\t1\tone\n" +
+                            "2020-01-01T00:00:01.000000Z\tB\t3\tthree\n" +
+                            "2020-01-01T00:00:01.000000Z\tC\t5\tfive\n",
+                    "x",
+                    "ts",
+                    true
+            );
+        });
+    }
+
+    @Test
+    public void testNullSymbolIsKey() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            try (TableWriter w = engine.getWriter(AllowAllCairoSecurityContext.INSTANCE, "x")) {
+                append(w, "2020-01-01T00:00:01.000000Z", null, 1, "one");
+                append(w, "2020-01-01T00:00:01.000000Z", "A", 2, "two");
+                append(w, "2020-01-01T00:00:01.000000Z", null, 3, "three");
+                w.commit();
+                Assert.assertEquals(2, w.size());
+            }
+
+            assertQuery(
+                    "ts\tsym\tv\ts\n" +
+                            "2020-01-01T00:00:01.000000Z\tA\t2\ttwo\n" +
+                            "2020-01-01T00:00:01.000000Z\t\t3\tthree\n",
+                    "x",
+                    "ts",
+                    true
+            );
+        });
+    }
+
+    @Test
+    public void testUncommittedDuplicateIsReplaced() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            try (TableWriter w = engine.getWriter(AllowAllCairoSecurityContext.INSTANCE, "x")) {
+                append(w, "2020-01-01T00:00:01.000000Z", "A", 1, "one");
+                append(w, "2020-01-01T00:00:01.000000Z", "B", 2, "two");
+                append(w, "2020-01-01T00:00:01.000000Z", "C", 3, "three");
+                append(w, "2020-01-01T00:00:01.000000Z", "A", 4, "a much longer replacement");
+                append(w, "2020-01-01T00:00:01.000000Z", "C", 5, "five");
+                w.commit();
+                Assert.assertEquals(3, w.size());
+                append(w, "2020-01-01T00:00:02.000000Z", "A", 6, "six");
+                w.commit();
+            }
+
+            assertQuery(
+                    "ts\tsym\tv\ts\n" +
+                            "2020-01-01T00:00:01.000000Z\tA\t4\ta much longer replacement\n" +
+                            "2020-01-01T00:00:01.000000Z\tB\t2\ttwo\n" +
+                            "2020-01-01T00:00:01.000000Z\tC\t5\tfive\n" +
+                            "2020-01-01T00:00:02.000000Z\tA\t6\tsix\n",
+                    "x",
+                    "ts",
+                    true
+            );
+        });
+    }
+
+    @Test
+    public void testWithoutDedupKeysDuplicatesAreKept() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile("create table x (ts timestamp, sym symbol, v int, s string) timestamp(ts) partition by DAY", sqlExecutionContext);
+            try (TableWriter w = engine.getWriter(AllowAllCairoSecurityContext.INSTANCE, "x")) {
+                append(w, "2020-01-01T00:00:01.000000Z", "A", 1, "one");
+                append(w, "2020-01-01T00:00:01.000000Z", "A", 2, "two");
+                w.commit();
+                Assert.assertEquals(2, w.size());
+            }
+        });
+    }
+
+    private static void append(TableWriter w, String timestamp, String sym, int v, String s) throws NumericException {
+        TableWriter.Row r = w.newRow(DateFormatUtils.parseTimestamp(timestamp));
+        r.putSym(1, sym);
+        r.putInt(2, v);
+        r.putStr(3, s);
+        r.append();
+    }
+
+    private void assertCommittedDuplicateIsReplacedOnCommit(String partitionBy) throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile(
+                    "create table x (ts timestamp, sym symbol index, v int, s string) timestamp(ts) " + partitionBy + " dedup upsert keys(ts, sym)",
+                    sqlExecutionContext
+            );
+            final String header = "ts\tsym\tv\ts\n";
+            try (TableWriter w = engine.getWriter(AllowAllCairoSecurityContext.INSTANCE, "x")) {
+                append(w, "2020-01-01T00:00:01.000000Z", "A", 1, "one");
+                append(w, "2020-01-01T00:00:01.000000Z", "B", 2, "two");
+                w.commit();
+                append(w, "2020-01-01T00:00:01.000000Z", "A", 3, "three");
+
+                // readers do not see replaced rows until commit
+                assertQuery(
+                        header +
+                                "2020-01-01T00:00:01.000000Z\tA\t1\tone\n" +
+                                "2020-01-01T00:00:01.000000Z\tB\t2\ttwo\n",
+                        "x",
+                        "ts",
+                        true
+                );
+                assertQuery(header + "2020-01-01T00:00:01.000000Z\tA\t1\tone\n", "x where sym = 'A'", "ts", true);
+
+                w.commit();
+            }
+
+            assertQuery(
+                    header +
+                            "2020-01-01T00:00:01.000000Z\tB\t2\ttwo\n" +
+                            "2020-01-01T00:00:01.000000Z\tA\t3\tthree\n",
+                    "x",
+                    "ts",
+                    true
+            );
+            assertQuery(header + "2020-01-01T00:00:01.000000Z\tA\t3\tthree\n", "x where sym = 'A'", "ts", true);
+        });
+    }
+
+    private void createTable() throws SqlException {
+        compiler.compile(
+                "create table x (ts timestamp, sym symbol, v int, s string) timestamp(ts) partition by DAY dedup upsert keys(ts, sym)",
+                sqlExecutionContext
+        );
+    }
+}
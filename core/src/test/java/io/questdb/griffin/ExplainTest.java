@@ -0,0 +1,240 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin;
+
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.griffin.engine.functions.rnd.SharedRandom;
+import io.questdb.std.Rnd;
+import io.questdb.std.str.StringSink;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ExplainTest extends AbstractGriffinTest {
+
+    @Before
+    public void setUp3() {
+        SharedRandom.RANDOM.set(new Rnd());
+    }
+
+    @Test
+    public void testAnalyze() throws Exception {
+        assertMemoryLeak(() -> {
+            createTables();
+            final String plan = plan("explain analyze x where v > 10");
+            TestUtils.assertContains(plan, "Selected  (rows: 40, time: ");
+            TestUtils.assertContains(plan, "    DataFrame  (rows: 40, time: ");
+            TestUtils.assertContains(plan, "      filter: GtDouble\n");
+        });
+    }
+
+    @Test
+    public void testAnalyzeJoin() throws Exception {
+        assertMemoryLeak(() -> {
+            createTables();
+            final String plan = plan("explain analyze x asof join y");
+            TestUtils.assertContains(plan, "Selected  (rows: 50, time: ");
+            TestUtils.assertContains(plan, "        TableReader  (rows: 50, time: ");
+            TestUtils.assertContains(plan, "        TableReader  (rows: 10, time: ");
+        });
+    }
+
+    @Test
+    public void testAnalyzeRepeatedly() throws Exception {
+        assertMemoryLeak(() -> {
+            createTables();
+            try (RecordCursorFactory factory = compiler.compile("explain analyze select s, sum(v) from x order by s", sqlExecutionContext).getRecordCursorFactory()) {
+                // statistics are collected from scratch on each execution
+                for (int i = 0; i < 2; i++) {
+                    final String plan = plan(factory);
+                    TestUtils.assertContains(plan, "SortedLight  (rows: 3, time: ");
+                    TestUtils.assertContains(plan, "        TableReader  (rows: 50, time: ");
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testCommonSubexpression() throws Exception {
+        assertMemoryLeak(() -> {
+            createTables();
+            final String plan = plan("explain select v + 1 a, (v + 1) * 2 b, v + 1 > 10 c from x");
+            TestUtils.assertContains(plan, "functions: [Memoized,MulLong,GtDouble]\n");
+        });
+    }
+
+    @Test
+    public void testGroupBy() throws Exception {
+        assertMemoryLeak(() -> {
+            createTables();
+            assertPlan(
+                    "Limit\n" +
+                            "  lo: 2\n" +
+                            "    SortedLight\n" +
+                            "        GroupBySymbol\n" +
+                            "          key: s\n" +
+                            "          functions: [SumLongGroupBy]\n" +
+                            "            TableReader\n" +
+                            "              table: x\n",
+                    "explain select s, sum(v) from x order by s limit 2"
+            );
+        });
+    }
+
+    @Test
+    public void testIntervalScan() throws Exception {
+        assertMemoryLeak(() -> {
+            createTables();
+            assertPlan(
+                    "Selected\n" +
+                            "    DataFrame\n" +
+                            "        DataFrame\n" +
+                            "        IntervalFwdDataFrame\n" +
+                            "          table: x\n" +
+                            "          intervals: [[2020-01-01T00:00:00.000000Z,2020-01-01T23:59:59.999999Z]]\n",
+                    "explain x where ts = '2020-01-01'"
+            );
+        });
+    }
+
+    @Test
+    public void testJoin() throws Exception {
+        assertMemoryLeak(() -> {
+            createTables();
+            assertPlan(
+                    "Selected\n" +
+                            "    HashJoinLight\n" +
+                            "        TableReader\n" +
+                            "          table: x\n" +
+                            "        TableReader\n" +
+                            "          table: y\n",
+                    "EXPLAIN x join y on (s)"
+            );
+        });
+    }
+
+    @Test
+    public void testLatestBy() throws Exception {
+        assertMemoryLeak(() -> {
+            createTables();
+            assertPlan(
+                    "Selected\n" +
+                            "    DataFrame\n" +
+                            "        LatestByValueIndexed\n" +
+                            "          column: s\n" +
+                            "          indexKey: 1\n" +
+                            "        FullBwdDataFrame\n" +
+                            "          table: x\n",
+                    "explain x latest by s where s = 'a'"
+            );
+        });
+    }
+
+    @Test
+    public void testNotQuery() throws Exception {
+        assertFailure(
+                "explain create table y (a int)",
+                "create table x (a int)",
+                8,
+                "select query expected"
+        );
+    }
+
+    @Test
+    public void testQueryExpected() throws Exception {
+        assertFailure(
+                "explain",
+                null,
+                7,
+                "query expected"
+        );
+    }
+
+    @Test
+    public void testSymbolIndex() throws Exception {
+        assertMemoryLeak(() -> {
+            createTables();
+            assertPlan(
+                    "Selected\n" +
+                            "    DataFrame\n" +
+                            "      filter: GtDouble\n" +
+                            "        SymbolIndexFiltered\n" +
+                            "          column: s\n" +
+                            "          key: 0\n" +
+                            "          filter: GtDouble\n" +
+                            "        FullFwdDataFrame\n" +
+                            "          table: x\n",
+                    "explain x where s = 'a' and v > 1"
+            );
+        });
+    }
+
+    @Test
+    public void testUnion() throws Exception {
+        assertMemoryLeak(() -> {
+            createTables();
+            assertPlan(
+                    "UnionAll\n" +
+                            "    Selected\n" +
+                            "        TableReader\n" +
+                            "          table: x\n" +
+                            "    Selected\n" +
+                            "        TableReader\n" +
+                            "          table: y\n",
+                    "explain x union all y"
+            );
+        });
+    }
+
+    private void assertPlan(String expected, String query) throws SqlException {
+        TestUtils.assertEquals(expected, plan(query));
+    }
+
+    private void createTables() throws SqlException {
+        compiler.compile("create table x as (select rnd_symbol('a','b','c') s, x v, timestamp_sequence(to_timestamp('2020-01-01', 'yyyy-MM-dd'), 3600000000) ts from long_sequence(50)), index(s) timestamp(ts) partition by DAY", sqlExecutionContext);
+        compiler.compile("create table y as (select rnd_symbol('a','b','c') s, x w, timestamp_sequence(to_timestamp('2020-01-01', 'yyyy-MM-dd'), 7200000000) ts from long_sequence(10)) timestamp(ts)", sqlExecutionContext);
+    }
+
+    private String plan(String query) throws SqlException {
+        try (RecordCursorFactory factory = compiler.compile(query, sqlExecutionContext).getRecordCursorFactory()) {
+            Assert.assertEquals("QUERY PLAN", factory.getMetadata().getColumnName(0));
+            return plan(factory);
+        }
+    }
+
+    private String plan(RecordCursorFactory factory) {
+        final StringSink sink = new StringSink();
+        try (RecordCursor cursor = factory.getCursor(sqlExecutionContext)) {
+            final Record record = cursor.getRecord();
+            while (cursor.hasNext()) {
+                sink.put(record.getStr(0)).put('\n');
+            }
+        }
+        return sink.toString();
+    }
+}
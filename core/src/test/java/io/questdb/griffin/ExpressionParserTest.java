@@ -339,6 +339,11 @@ public class ExpressionParserTest extends AbstractCairoTest {
         x("a`blah blah`inyand", "a in (`blah blah`) and y");
     }
 
+    @Test
+    public void testLike() throws Exception {
+        x("a'x%'likeb'Y_'ilikeand", "a like 'x%' and b ilike 'Y_'");
+    }
+
     @Test
     public void testLiteralAndConstant() throws Exception {
         // expect that expression parser will stop after literal, because litral followed by constant does not
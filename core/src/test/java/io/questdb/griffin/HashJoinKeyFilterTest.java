@@ -0,0 +1,167 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin;
+
+import io.questdb.cairo.CairoEngine;
+import io.questdb.cairo.DefaultCairoConfiguration;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.griffin.engine.functions.rnd.SharedRandom;
+import io.questdb.std.Rnd;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+/**
+ * Hash joins filter master records by keys of slave records before map lookup. Results are compared to
+ * partitioned join, which does not use the filter.
+ */
+public class HashJoinKeyFilterTest extends AbstractGriffinTest {
+
+    @Before
+    public void setUp3() {
+        SharedRandom.RANDOM.set(new Rnd());
+    }
+
+    @Test
+    public void testLongKey() throws Exception {
+        // 27 of 1000 master keys match, most records are discarded by bloom filter
+        assertJoin("select x.i, x.k, y.i from x join y on (k)", 270);
+    }
+
+    @Test
+    public void testLongKeyAllMatch() throws Exception {
+        // filter discards nothing and is switched off after first sample
+        assertJoin("select x.i, x.k, z.i from x join z on (k)", 10000);
+    }
+
+    @Test
+    public void testMultipleKeys() throws Exception {
+        assertJoin("select x.i, x.k, x.c, y.i from x join y on x.k = y.k and x.c = y.c", -1);
+    }
+
+    @Test
+    public void testStringKey() throws Exception {
+        assertJoin("select x.i, x.n, y.i from x join y on x.n = y.n", -1);
+    }
+
+    @Test
+    public void testSymbolKey() throws Exception {
+        // symbol dictionaries of tables differ, master keys are resolved once per symbol
+        assertJoin("select x.i, x.s, y.i, y.s from x join y on (s)", -1);
+    }
+
+    private static void createTables() throws SqlException {
+        compiler.compile(
+                "create table x as (" +
+                        "select" +
+                        " to_int(x) i," +
+                        " x % 1000 k," +
+                        " rnd_symbol(40, 2, 3, 5) s," +
+                        " rnd_str('ABC', 'CDE', null) c," +
+                        " rnd_str(3, 3, 0) n" +
+                        " from long_sequence(10000)" +
+                        ")",
+                sqlExecutionContext
+        );
+        compiler.compile(
+                "create table y as (" +
+                        "select" +
+                        " to_int(x) i," +
+                        " x * 37 k," +
+                        " rnd_symbol(4, 2, 3, 2) s," +
+                        " rnd_str('ABC', 'CDE', null) c," +
+                        " rnd_str(3, 3, 0) n" +
+                        " from long_sequence(30)" +
+                        ")",
+                sqlExecutionContext
+        );
+        compiler.compile("create table z as (select to_int(x) i, x % 1000 k from long_sequence(1000))", sqlExecutionContext);
+    }
+
+    private static String[] printSorted(SqlCompiler compiler, String query) throws SqlException {
+        try (RecordCursorFactory factory = compiler.compile(query, sqlExecutionContext).getRecordCursorFactory()) {
+            try (RecordCursor cursor = factory.getCursor(sqlExecutionContext)) {
+                sink.clear();
+                printer.print(cursor, factory.getMetadata(), true);
+                final String s = sink.toString();
+                sink.clear();
+                cursor.toTop();
+                printer.print(cursor, factory.getMetadata(), true);
+                TestUtils.assertEquals(s, sink);
+            }
+        }
+        final String[] lines = sink.toString().split("\n");
+        Arrays.sort(lines);
+        return lines;
+    }
+
+    private void assertJoin(String query, int expectedRowCount) throws Exception {
+        assertMemoryLeak(() -> {
+            createTables();
+            try {
+                for (int i = 0; i < 2; i++) {
+                    final boolean fullFat = i == 1;
+                    compiler.setFullSatJoins(fullFat);
+                    final String[] actual = printSorted(compiler, query);
+                    if (expectedRowCount != -1) {
+                        // header is included
+                        Assert.assertEquals(expectedRowCount + 1, actual.length);
+                    } else {
+                        Assert.assertTrue(actual.length > 1);
+                    }
+                    try (
+                            CairoEngine engine = new CairoEngine(new PartitionedJoinConfiguration());
+                            SqlCompiler compiler = new SqlCompiler(engine)
+                    ) {
+                        compiler.setFullSatJoins(fullFat);
+                        Assert.assertArrayEquals(printSorted(compiler, query), actual);
+                    }
+                }
+            } finally {
+                compiler.setFullSatJoins(false);
+                engine.releaseAllReaders();
+                engine.releaseAllWriters();
+                compiler.compile("drop table x", sqlExecutionContext);
+                compiler.compile("drop table y", sqlExecutionContext);
+                compiler.compile("drop table z", sqlExecutionContext);
+            }
+        });
+    }
+
+    private static class PartitionedJoinConfiguration extends DefaultCairoConfiguration {
+        public PartitionedJoinConfiguration() {
+            super(root);
+        }
+
+        @Override
+        public long getSqlHashJoinMemoryBudget() {
+            return 1;
+        }
+    }
+}
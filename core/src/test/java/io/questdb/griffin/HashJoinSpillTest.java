@@ -0,0 +1,209 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin;
+
+import io.questdb.cairo.CairoEngine;
+import io.questdb.cairo.DefaultCairoConfiguration;
+import io.questdb.cairo.TableUtils;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.griffin.engine.functions.rnd.SharedRandom;
+import io.questdb.griffin.engine.orderby.SortedLightRecordCursorFactory;
+import io.questdb.griffin.engine.orderby.SortedRecordCursorFactory;
+import io.questdb.std.Rnd;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+
+public class HashJoinSpillTest extends AbstractGriffinTest {
+
+    @Before
+    public void setUp3() {
+        SharedRandom.RANDOM.set(new Rnd());
+    }
+
+    @Test
+    public void testFullFat() throws Exception {
+        assertSpill("select x.i, x.s, x.c, x.m, x.l, y.* from x join y on (k)", true);
+    }
+
+    @Test
+    public void testLight() throws Exception {
+        assertSpill("select x.i, x.s, x.c, x.m, x.l, y.* from x join y on (k)", false);
+    }
+
+    @Test
+    public void testOrderByTimestamp() throws Exception {
+        assertMemoryLeak(() -> {
+            createTables();
+            final String query = "select x.ts, x.i, y.i from x join y on (k) order by ts";
+            try {
+                final String expected = print(compiler, query);
+                try (
+                        CairoEngine engine = new CairoEngine(new SpillConfiguration());
+                        SqlCompiler compiler = new SqlCompiler(engine)
+                ) {
+                    try (RecordCursorFactory factory = compiler.compile(query, sqlExecutionContext).getRecordCursorFactory()) {
+                        Assert.assertFalse(factory instanceof SortedLightRecordCursorFactory);
+                        Assert.assertFalse(factory instanceof SortedRecordCursorFactory);
+                        // spilled join keeps master order, timestamp order does not need sorting
+                        try (RecordCursor cursor = factory.getCursor(sqlExecutionContext)) {
+                            final Record record = cursor.getRecord();
+                            long last = Long.MIN_VALUE;
+                            while (cursor.hasNext()) {
+                                final long ts = record.getTimestamp(0);
+                                Assert.assertTrue(ts >= last);
+                                last = ts;
+                            }
+                        }
+                    }
+                    TestUtils.assertEquals(expected, print(compiler, query));
+                }
+            } finally {
+                engine.releaseAllReaders();
+                engine.releaseAllWriters();
+                compiler.compile("drop table x", sqlExecutionContext);
+                compiler.compile("drop table y", sqlExecutionContext);
+            }
+        });
+    }
+
+    @Test
+    public void testStaleFilesRemovedOnStartup() throws Exception {
+        final File tmp = new File(root.toString(), TableUtils.TMP_DIR_NAME);
+        Assert.assertTrue(tmp.isDirectory() || tmp.mkdirs());
+        final File stale = new File(tmp, "join_spill_1_m0.d");
+        Assert.assertTrue(stale.createNewFile());
+
+        try (CairoEngine ignored = new CairoEngine(new SpillConfiguration())) {
+            Assert.assertFalse(stale.exists());
+            Assert.assertFalse(tmp.exists());
+        }
+    }
+
+    @Test
+    public void testStringAndSymbolKeys() throws Exception {
+        assertSpill("select x.i, x.s, x.c, y.i, y.t, y.d from x join y on x.s = y.t and x.c = y.c", false);
+        assertSpill("select x.i, x.s, x.c, y.i, y.t, y.d from x join y on x.s = y.t and x.c = y.c", true);
+    }
+
+    private static void createTables() throws SqlException {
+        compiler.compile(
+                "create table x as (" +
+                        "select" +
+                        " to_int(x) i," +
+                        " x % 20 k," +
+                        " rnd_symbol('a','b','c') s," +
+                        " rnd_str('ABC', 'CDE', null) c," +
+                        " rnd_bin(10, 20, 2) m," +
+                        " rnd_long256() l," +
+                        " timestamp_sequence(0, 1000000) ts" +
+                        " from long_sequence(200)" +
+                        ") timestamp(ts)",
+                sqlExecutionContext
+        );
+        compiler.compile(
+                "create table y as (" +
+                        "select" +
+                        " to_int(x) i," +
+                        " x % 25 k," +
+                        " rnd_symbol('a','b','d') t," +
+                        " rnd_str('ABC', 'CDE', null) c," +
+                        " rnd_double(2) d," +
+                        " rnd_str(5,16,2) n" +
+                        " from long_sequence(150)" +
+                        ")",
+                sqlExecutionContext
+        );
+    }
+
+    private static String print(SqlCompiler compiler, String query) throws SqlException {
+        try (RecordCursorFactory factory = compiler.compile(query, sqlExecutionContext).getRecordCursorFactory()) {
+            try (RecordCursor cursor = factory.getCursor(sqlExecutionContext)) {
+                sink.clear();
+                printer.print(cursor, factory.getMetadata(), true);
+                final String s = sink.toString();
+                // cursor must produce same result after rewind
+                sink.clear();
+                cursor.toTop();
+                printer.print(cursor, factory.getMetadata(), true);
+                TestUtils.assertEquals(s, sink);
+            }
+            Assert.assertEquals(0, countSpillFiles());
+        }
+        return sink.toString();
+    }
+
+    private static int countSpillFiles() {
+        final String[] files = new File(root.toString(), TableUtils.TMP_DIR_NAME).list((dir, name) -> name.startsWith("join_spill_"));
+        return files == null ? 0 : files.length;
+    }
+
+    private void assertSpill(String query, boolean fullFat) throws Exception {
+        assertMemoryLeak(() -> {
+            createTables();
+            try {
+                compiler.setFullSatJoins(fullFat);
+                // spilled join returns rows in the same order as in-memory join
+                final String expected = print(compiler, query);
+                Assert.assertTrue(expected.split("\n").length > 100);
+                try (
+                        CairoEngine engine = new CairoEngine(new SpillConfiguration());
+                        SqlCompiler compiler = new SqlCompiler(engine)
+                ) {
+                    compiler.setFullSatJoins(fullFat);
+                    TestUtils.assertEquals(expected, print(compiler, query));
+                }
+            } finally {
+                compiler.setFullSatJoins(false);
+                engine.releaseAllReaders();
+                engine.releaseAllWriters();
+                compiler.compile("drop table x", sqlExecutionContext);
+                compiler.compile("drop table y", sqlExecutionContext);
+            }
+        });
+    }
+
+    private static class SpillConfiguration extends DefaultCairoConfiguration {
+        public SpillConfiguration() {
+            super(root);
+        }
+
+        @Override
+        public long getSqlHashJoinMemoryBudget() {
+            // any join spills
+            return 1;
+        }
+
+        @Override
+        public int getSqlHashJoinSpillPartitionCount() {
+            return 4;
+        }
+    }
+}
@@ -229,6 +229,35 @@ public class InsertTest extends AbstractGriffinTest {
         });
     }
 
+    @Test
+    public void testInsertRebindOnSameMethod() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile("create table t(x int)");
+            sqlExecutionContext.getBindVariableService().setInt(0, 1);
+            CompiledQuery cq = compiler.compile("insert into t values ($1 * 2)", sqlExecutionContext);
+            Assert.assertEquals(CompiledQuery.INSERT, cq.getType());
+            InsertStatement insert = cq.getInsertStatement();
+            try (InsertMethod method = insert.createMethod(sqlExecutionContext)) {
+                for (int i = 1; i < 4; i++) {
+                    sqlExecutionContext.getBindVariableService().setInt(0, i);
+                    method.execute();
+                }
+                method.commit();
+            }
+
+            String expected = "x\n" +
+                    "2\n" +
+                    "4\n" +
+                    "6\n";
+
+            sink.clear();
+            try (TableReader reader = engine.getReader(sqlExecutionContext.getCairoSecurityContext(), insert.getTableName())) {
+                printer.print(reader.getCursor(), reader.getMetadata(), true);
+                TestUtils.assertEquals(expected, sink);
+            }
+        });
+    }
+
     @Test
     public void testInsertNotEnoughFields() throws Exception {
         assertMemoryLeak(() -> {
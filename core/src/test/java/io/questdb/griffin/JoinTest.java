@@ -1105,6 +1105,65 @@ public class JoinTest extends AbstractGriffinTest {
         });
     }
 
+    @Test
+    public void testAsOfJoinNoKeySkipsSlaveRows() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            try {
+                // hourly slave rows over ten days
+                compiler.compile(
+                        "create table y as (" +
+                                "select" +
+                                " to_int(x) i," +
+                                " to_timestamp('2018-01', 'yyyy-MM') + x * 3600000000 timestamp" +
+                                " from long_sequence(240)" +
+                                ") timestamp(timestamp) partition by DAY"
+                );
+
+                compiler.compile(
+                        "create table x as (" +
+                                "select" +
+                                " to_int(x) i," +
+                                " to_timestamp('2018-01-10', 'yyyy-MM-dd') + 43200000000 + x * 1800000000 timestamp" +
+                                " from long_sequence(3)" +
+                                ") timestamp(timestamp)"
+                );
+
+                assertQuery(
+                        "i\ti1\ttimestamp\ttimestamp1\n" +
+                                "1\t228\t2018-01-10T12:30:00.000000Z\t2018-01-10T12:00:00.000000Z\n" +
+                                "2\t229\t2018-01-10T13:00:00.000000Z\t2018-01-10T13:00:00.000000Z\n" +
+                                "3\t229\t2018-01-10T13:30:00.000000Z\t2018-01-10T13:00:00.000000Z\n",
+                        "select x.i, y.i, x.timestamp, y.timestamp from x asof join y",
+                        "timestamp",
+                        false
+                );
+
+                compiler.compile(
+                        "create table z as (" +
+                                "select" +
+                                " to_int(x) i," +
+                                " to_timestamp('2017-12-31', 'yyyy-MM-dd') + 81000000000 + x * 3600000000 timestamp" +
+                                " from long_sequence(3)" +
+                                ") timestamp(timestamp)"
+                );
+
+                // master starts before the first slave row
+                assertQuery(
+                        "i\ti1\ttimestamp\ttimestamp1\n" +
+                                "1\tNaN\t2017-12-31T23:30:00.000000Z\t\n" +
+                                "2\tNaN\t2018-01-01T00:30:00.000000Z\t\n" +
+                                "3\t1\t2018-01-01T01:30:00.000000Z\t2018-01-01T01:00:00.000000Z\n",
+                        "select z.i, y.i, z.timestamp, y.timestamp from z asof join y",
+                        "timestamp",
+                        false
+                );
+            } finally {
+                engine.releaseAllWriters();
+                engine.releaseAllReaders();
+            }
+        });
+    }
+
     @Test
     public void testAsOfJoinOnStr() throws Exception {
         TestUtils.assertMemoryLeak(() -> {
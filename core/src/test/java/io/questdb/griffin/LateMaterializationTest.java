@@ -0,0 +1,144 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin;
+
+import io.questdb.cairo.CairoEngine;
+import io.questdb.cairo.DefaultCairoConfiguration;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class LateMaterializationTest extends AbstractGriffinTest {
+
+    @Test
+    public void testFilterWithInterval() throws Exception {
+        assertLate("x where ts = '2020-01-02' and k = 3");
+    }
+
+    @Test
+    public void testFilterWithLimit() throws Exception {
+        assertLate("x where k = 3 limit 15");
+    }
+
+    @Test
+    public void testFilterWithRangeIndex() throws Exception {
+        assertLate("x where i > 500 and i < 1500 and k = 3");
+    }
+
+    @Test
+    public void testNoRowsPass() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            assertQuery(
+                    "i\tk\ts\td\tstr\tts\n",
+                    "x where k = 100",
+                    "ts",
+                    true
+            );
+        });
+    }
+
+    @Test
+    public void testSelectiveFilter() throws Exception {
+        assertLate("x where k = 3");
+    }
+
+    @Test
+    public void testSymbolFilter() throws Exception {
+        assertLate("select i, str from x where s = 'b'");
+    }
+
+    private void assertLate(String query) throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            final String expected = print(compiler, query);
+            Assert.assertTrue(expected.split("\n").length > 1);
+
+            // filter evaluated row by row
+            try (
+                    CairoEngine engine = new CairoEngine(new BatchConfiguration(0));
+                    SqlCompiler compiler = new SqlCompiler(engine)
+            ) {
+                TestUtils.assertEquals(expected, print(compiler, query));
+            }
+
+            // batches smaller than data frames
+            try (
+                    CairoEngine engine = new CairoEngine(new BatchConfiguration(7));
+                    SqlCompiler compiler = new SqlCompiler(engine)
+            ) {
+                TestUtils.assertEquals(expected, print(compiler, query));
+            }
+        });
+    }
+
+    private static void createTable() throws SqlException {
+        compiler.compile(
+                "create table x as (" +
+                        "select" +
+                        " to_int(x) i," +
+                        " x % 10 k," +
+                        " rnd_symbol('a','b','c') s," +
+                        " rnd_double() d," +
+                        " rnd_str(5,16,2) str," +
+                        " timestamp_sequence(to_timestamp('2020-01-01', 'yyyy-MM-dd'), 100000000) ts" +
+                        " from long_sequence(2000)" +
+                        "), index(i) timestamp(ts) partition by DAY",
+                sqlExecutionContext
+        );
+    }
+
+    private static String print(SqlCompiler compiler, String query) throws SqlException {
+        try (RecordCursorFactory factory = compiler.compile(query, sqlExecutionContext).getRecordCursorFactory()) {
+            try (RecordCursor cursor = factory.getCursor(sqlExecutionContext)) {
+                sink.clear();
+                printer.print(cursor, factory.getMetadata(), true);
+                final String s = sink.toString();
+                // cursor must produce same result after rewind
+                sink.clear();
+                cursor.toTop();
+                printer.print(cursor, factory.getMetadata(), true);
+                TestUtils.assertEquals(s, sink);
+                return s;
+            }
+        }
+    }
+
+    private static class BatchConfiguration extends DefaultCairoConfiguration {
+        private final int batchSize;
+
+        public BatchConfiguration(int batchSize) {
+            super(root);
+            this.batchSize = batchSize;
+        }
+
+        @Override
+        public int getSqlFilterBatchSize() {
+            return batchSize;
+        }
+    }
+}
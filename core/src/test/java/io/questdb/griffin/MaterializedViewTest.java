@@ -0,0 +1,179 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin;
+
+import io.questdb.cairo.TableWriter;
+import io.questdb.cairo.security.AllowAllCairoSecurityContext;
+import io.questdb.std.NumericException;
+import io.questdb.std.microtime.DateFormatUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class MaterializedViewTest extends AbstractGriffinTest {
+
+    private static final String BASE_DDL = "create table base as (" +
+            "select x v, timestamp_sequence(1577836800000000, 20000000) ts from long_sequence(7)" +
+            ") timestamp(ts) partition by DAY";
+
+    @Test
+    public void testCreateAndRefresh() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile(BASE_DDL, sqlExecutionContext);
+            compiler.compile("create materialized view v as (select ts, count() c, sum(v) s from base sample by 1m)", sqlExecutionContext);
+
+            // bucket of the last base row is still open
+            assertQuery(
+                    "ts\tc\ts\n" +
+                            "2020-01-01T00:00:00.000000Z\t3\t6\n" +
+                            "2020-01-01T00:01:00.000000Z\t3\t15\n",
+                    "v",
+                    "ts",
+                    true
+            );
+
+            appendBase();
+            Assert.assertEquals(1, compiler.refreshMaterializedView("v", sqlExecutionContext));
+            Assert.assertEquals(0, compiler.refreshMaterializedView("v", sqlExecutionContext));
+
+            assertQuery(
+                    "ts\tc\ts\n" +
+                            "2020-01-01T00:00:00.000000Z\t3\t6\n" +
+                            "2020-01-01T00:01:00.000000Z\t3\t15\n" +
+                            "2020-01-01T00:02:00.000000Z\t2\t15\n",
+                    "v",
+                    "ts",
+                    true
+            );
+        });
+    }
+
+    @Test
+    public void testFillNotSupported() throws Exception {
+        assertFailure(
+                "create materialized view v as (select ts, count() from base sample by 1m fill(none))",
+                BASE_DDL,
+                78,
+                "FILL is not supported by materialized view"
+        );
+    }
+
+    @Test
+    public void testRefreshJob() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile(BASE_DDL, sqlExecutionContext);
+            compiler.compile("create materialized view v as (select ts, sum(v) s from base where v > 1 sample by 1m)", sqlExecutionContext);
+            appendBase();
+
+            try (MaterializedViewRefreshJob job = new MaterializedViewRefreshJob(engine)) {
+                Assert.assertTrue(job.run());
+                // nothing has changed since, and interval has not elapsed
+                Assert.assertFalse(job.run());
+            }
+
+            assertQuery(
+                    "ts\ts\n" +
+                            "2020-01-01T00:00:00.000000Z\t5\n" +
+                            "2020-01-01T00:01:00.000000Z\t15\n" +
+                            "2020-01-01T00:02:00.000000Z\t15\n",
+                    "v",
+                    "ts",
+                    true
+            );
+        });
+    }
+
+    @Test
+    public void testRefreshNotView() throws Exception {
+        assertFailure("refresh materialized view base", BASE_DDL, 26, "'base' is not a materialized view");
+    }
+
+    @Test
+    public void testRefreshSql() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile(BASE_DDL, sqlExecutionContext);
+            compiler.compile("create materialized view v as (select ts, count() c from base sample by 1m)", sqlExecutionContext);
+            appendBase();
+            Assert.assertEquals(CompiledQuery.REFRESH, compiler.compile("refresh materialized view v", sqlExecutionContext).getType());
+
+            assertQuery(
+                    "ts\tc\n" +
+                            "2020-01-01T00:00:00.000000Z\t3\n" +
+                            "2020-01-01T00:01:00.000000Z\t3\n" +
+                            "2020-01-01T00:02:00.000000Z\t2\n",
+                    "v",
+                    "ts",
+                    true
+            );
+        });
+    }
+
+    @Test
+    public void testRefreshAfterBaseTruncate() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile(BASE_DDL, sqlExecutionContext);
+            compiler.compile("create materialized view v as (select ts, count() c from base sample by 1m)", sqlExecutionContext);
+            compiler.compile("truncate table base", sqlExecutionContext);
+            try (TableWriter w = engine.getWriter(AllowAllCairoSecurityContext.INSTANCE, "base")) {
+                append(w, "2020-01-01T00:00:00.000000Z", 1);
+                append(w, "2020-01-01T00:00:30.000000Z", 2);
+                append(w, "2020-01-01T00:01:00.000000Z", 3);
+                w.commit();
+            }
+            Assert.assertEquals(1, compiler.refreshMaterializedView("v", sqlExecutionContext));
+
+            assertQuery(
+                    "ts\tc\n" +
+                            "2020-01-01T00:00:00.000000Z\t2\n",
+                    "v",
+                    "ts",
+                    true
+            );
+        });
+    }
+
+    @Test
+    public void testSampleByRequired() throws Exception {
+        assertFailure(
+                "create materialized view v as (select ts, v from base)",
+                BASE_DDL,
+                31,
+                "materialized view must use SAMPLE BY"
+        );
+    }
+
+    private static void append(TableWriter w, String timestamp, long v) throws NumericException {
+        TableWriter.Row r = w.newRow(DateFormatUtils.parseTimestamp(timestamp));
+        r.putLong(0, v);
+        r.append();
+    }
+
+    private void appendBase() throws NumericException {
+        try (TableWriter w = engine.getWriter(AllowAllCairoSecurityContext.INSTANCE, "base")) {
+            append(w, "2020-01-01T00:02:20.000000Z", 8);
+            append(w, "2020-01-01T00:03:10.000000Z", 9);
+            w.commit();
+        }
+    }
+}
@@ -0,0 +1,199 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin;
+
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.cairo.sql.RecordMetadata;
+import io.questdb.cairo.security.AllowAllCairoSecurityContext;
+import io.questdb.griffin.engine.functions.bind.BindVariableService;
+import io.questdb.std.Misc;
+import io.questdb.std.str.StringSink;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class QueryCacheTest extends AbstractGriffinTest {
+
+    @Test
+    public void testBindVariableTypes() {
+        try (QueryCache cache = new QueryCache(2, 4)) {
+            final BindVariableService ints = new BindVariableService();
+            ints.setInt(0, 10);
+            final BindVariableService longs = new BindVariableService();
+            longs.setLong(0, 10);
+
+            final TestFactory factory = new TestFactory();
+            cache.push("x where a = $1", ints, factory);
+            Assert.assertNull(cache.poll("x where a = $1", longs));
+            Assert.assertNull(cache.poll("x where a = $1", null));
+            ints.setInt(0, 20);
+            Assert.assertSame(factory, cache.poll("x where a = $1", ints));
+        }
+    }
+
+    @Test
+    public void testCheckout() {
+        try (QueryCache cache = new QueryCache(2, 4)) {
+            final TestFactory factory = new TestFactory();
+            cache.push("select * from x", null, factory);
+            Assert.assertSame(factory, cache.poll("select * from x", null));
+            // factory is in use, it cannot be handed out again
+            Assert.assertNull(cache.poll("select * from x", null));
+            Assert.assertEquals(1, cache.getHitCount());
+            Assert.assertEquals(1, cache.getMissCount());
+
+            cache.push("select * from x", null, factory);
+            Assert.assertSame(factory, cache.poll("select * from x", null));
+            Assert.assertFalse(factory.closed);
+        }
+    }
+
+    @Test
+    public void testClose() {
+        final TestFactory factory = new TestFactory();
+        try (QueryCache cache = new QueryCache(2, 4)) {
+            cache.push("x", null, factory);
+        }
+        Assert.assertTrue(factory.closed);
+    }
+
+    @Test
+    public void testConcurrentCopies() {
+        try (QueryCache cache = new QueryCache(4, 1)) {
+            final TestFactory a = new TestFactory();
+            final TestFactory b = new TestFactory();
+            cache.push("x", null, a);
+            cache.push("x", null, b);
+            final RecordCursorFactory first = cache.poll("x", null);
+            final RecordCursorFactory second = cache.poll("x", null);
+            Assert.assertNotNull(first);
+            Assert.assertNotNull(second);
+            Assert.assertNotSame(first, second);
+            Assert.assertNull(cache.poll("x", null));
+        }
+    }
+
+    @Test
+    public void testEviction() {
+        try (QueryCache cache = new QueryCache(2, 1)) {
+            final TestFactory a = new TestFactory();
+            final TestFactory b = new TestFactory();
+            final TestFactory c = new TestFactory();
+            cache.push("a", null, a);
+            cache.push("b", null, b);
+            // "a" is used again and is no longer the least recently used
+            Assert.assertSame(a, cache.poll("a", null));
+            cache.push("a", null, a);
+            cache.push("c", null, c);
+            Assert.assertTrue(b.closed);
+            Assert.assertFalse(a.closed);
+            Assert.assertSame(a, cache.poll("a", null));
+            Assert.assertSame(c, cache.poll("c", null));
+        }
+    }
+
+    @Test
+    public void testMetrics() throws Exception {
+        assertMemoryLeak(() -> {
+            final QueryCache cache = engine.getQueryCache();
+            final SqlExecutionContextImpl context = new SqlExecutionContextImpl().with(
+                    AllowAllCairoSecurityContext.INSTANCE,
+                    bindVariableService,
+                    engine.getQueryRegistry(),
+                    cache,
+                    SqlExecutionCircuitBreaker.NOOP_CIRCUIT_BREAKER
+            );
+            final long hits = cache.getHitCount();
+            final long misses = cache.getMissCount();
+            cache.push("q", null, new TestFactory());
+            Misc.free(cache.poll("q", null));
+            Assert.assertNull(cache.poll("q", null));
+            try (RecordCursorFactory factory = compiler.compile("select hits, misses from query_cache_metrics()", context).getRecordCursorFactory()) {
+                sink.clear();
+                printer.print(factory.getCursor(context), factory.getMetadata(), true);
+                TestUtils.assertEquals("hits\tmisses\n" + (hits + 1) + "\t" + (misses + 1) + "\n", sink);
+            }
+        });
+    }
+
+    @Test
+    public void testMetricsWithoutCache() throws Exception {
+        assertQuery(
+                "hits\tmisses\thit_rate\n",
+                "query_cache_metrics()",
+                null,
+                null,
+                false
+        );
+    }
+
+    @Test
+    public void testNormalise() {
+        assertNormalised("select * from x", "  select  *\n\tfrom x ;  ");
+        assertNormalised("select 'a  b', \"c  d\" from x", "select   'a  b',  \"c  d\"   from x");
+        assertNormalised("", "  ;");
+    }
+
+    @Test
+    public void testNormalisedTextIsShared() {
+        try (QueryCache cache = new QueryCache(2, 4)) {
+            final TestFactory factory = new TestFactory();
+            cache.push("select *\nfrom x;", null, factory);
+            Assert.assertSame(factory, cache.poll("  select * from   x", null));
+            Assert.assertNull(cache.poll("select * from 'x'", null));
+        }
+    }
+
+    private static void assertNormalised(String expected, String query) {
+        final StringSink sink = new StringSink();
+        QueryCache.normalise(query, sink);
+        TestUtils.assertEquals(expected, sink);
+    }
+
+    private static class TestFactory implements RecordCursorFactory {
+        private boolean closed = false;
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+
+        @Override
+        public RecordCursor getCursor(SqlExecutionContext executionContext) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public RecordMetadata getMetadata() {
+            return null;
+        }
+
+        @Override
+        public boolean isRandomAccessCursor() {
+            return false;
+        }
+    }
+}
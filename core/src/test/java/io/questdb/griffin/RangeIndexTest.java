@@ -0,0 +1,303 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin;
+
+import io.questdb.cairo.RangeIndexReader;
+import io.questdb.cairo.TableWriter;
+import io.questdb.cairo.security.AllowAllCairoSecurityContext;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.cairo.sql.RowCursor;
+import io.questdb.std.NumericException;
+import io.questdb.std.Rnd;
+import io.questdb.std.microtime.DateFormatUtils;
+import io.questdb.std.str.Path;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class RangeIndexTest extends AbstractGriffinTest {
+
+    @Test
+    public void testAddIndexedColumn() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile("create table x (ts timestamp, v long) timestamp(ts) partition by DAY", sqlExecutionContext);
+            try (TableWriter w = engine.getWriter(AllowAllCairoSecurityContext.INSTANCE, "x")) {
+                append(w, "2020-01-01T00:00:00.000000Z", 1);
+                append(w, "2020-01-01T00:00:01.000000Z", 2);
+                w.commit();
+            }
+            compiler.compile("alter table x add column k int index", sqlExecutionContext);
+            try (TableWriter w = engine.getWriter(AllowAllCairoSecurityContext.INSTANCE, "x")) {
+                TableWriter.Row r = w.newRow(DateFormatUtils.parseTimestamp("2020-01-01T00:00:02.000000Z"));
+                r.putLong(1, 3);
+                r.putInt(2, 30);
+                r.append();
+                r = w.newRow(DateFormatUtils.parseTimestamp("2020-01-02T00:00:00.000000Z"));
+                r.putLong(1, 4);
+                r.putInt(2, 10);
+                r.append();
+                w.commit();
+            }
+
+            assertQuery(
+                    "ts\tv\tk\n" +
+                            "2020-01-01T00:00:02.000000Z\t3\t30\n" +
+                            "2020-01-02T00:00:00.000000Z\t4\t10\n",
+                    "x where k >= 10",
+                    "ts",
+                    true
+            );
+        });
+    }
+
+    @Test
+    public void testEquals() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            populate();
+
+            assertQuery(
+                    "ts\tv\tk\n" +
+                            "2020-01-01T00:00:01.000000Z\t5\t2\n" +
+                            "2020-01-01T00:00:04.000000Z\t5\t5\n" +
+                            "2020-01-02T00:00:02.000000Z\t5\t8\n",
+                    "x where v = 5",
+                    "ts",
+                    true
+            );
+        });
+    }
+
+    @Test
+    public void testInterval() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            populate();
+
+            assertQuery(
+                    "ts\tv\tk\n" +
+                            "2020-01-02T00:00:02.000000Z\t5\t8\n",
+                    "x where ts = '2020-01-02' and v = 5",
+                    "ts",
+                    true
+            );
+        });
+    }
+
+    @Test
+    public void testLargeCommit() throws Exception {
+        // pairs of a single commit outgrow initial buffer
+        assertMemoryLeak(() -> {
+            compiler.compile(
+                    "create table x as (" +
+                            "select to_int(x) k, timestamp_sequence(to_timestamp('2020-01-01', 'yyyy-MM-dd'), 1000000) ts" +
+                            " from long_sequence(3000)" +
+                            "), index(k) timestamp(ts) partition by DAY",
+                    sqlExecutionContext
+            );
+
+            assertQuery(
+                    "k\tts\n" +
+                            "2999\t2020-01-01T00:49:58.000000Z\n" +
+                            "3000\t2020-01-01T00:49:59.000000Z\n",
+                    "x where k > 2998",
+                    "ts",
+                    true
+            );
+        });
+    }
+
+    @Test
+    public void testManyCommits() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            final Rnd rnd = new Rnd();
+            long timestamp = DateFormatUtils.parseTimestamp("2020-01-01T00:00:00.000000Z");
+            try (TableWriter w = engine.getWriter(AllowAllCairoSecurityContext.INSTANCE, "x")) {
+                for (int i = 0; i < 500; i++) {
+                    for (int j = 0, n = 1 + rnd.nextPositiveInt() % 20; j < n; j++) {
+                        TableWriter.Row r = w.newRow(timestamp);
+                        r.putLong(1, rnd.nextPositiveInt() % 1000);
+                        r.putInt(2, i);
+                        r.append();
+                        timestamp += 60_000_000L;
+                    }
+                    w.commit();
+                }
+            }
+
+            try (
+                    Path path = new Path().of(configuration.getRoot()).concat("x").concat("2020-01-01");
+                    RangeIndexReader indexReader = new RangeIndexReader(configuration, path, "v")
+            ) {
+                final RowCursor cursor = indexReader.getCursor(10, 12, 0, Long.MAX_VALUE);
+                long prev = -1;
+                while (cursor.hasNext()) {
+                    final long row = cursor.next();
+                    Assert.assertTrue(row > prev);
+                    prev = row;
+                }
+                // trailing blocks are merged, block count grows with log of row count rather than with commit count
+                Assert.assertTrue(indexReader.getBlockCount() < 16);
+            }
+
+            // narrow ranges are served by index, wide ranges by scan, both must match plain filter
+            assertRange("v = 500");
+            assertRange("v > 9 and v < 13");
+            assertRange("v > 100 and v < 150");
+            assertRange("v > 0");
+            assertRange("v > -1 and v < 900");
+        });
+    }
+
+    @Test
+    public void testNotIndexedWhenNullIsInRange() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            populate();
+
+            assertQuery(
+                    "ts\tv\tk\n" +
+                            "2020-01-01T00:00:00.000000Z\t9\t1\n" +
+                            "2020-01-01T00:00:01.000000Z\t5\t2\n" +
+                            "2020-01-01T00:00:02.000000Z\t11\tNaN\n",
+                    "x where k < 3",
+                    "ts",
+                    true
+            );
+        });
+    }
+
+    @Test
+    public void testRange() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            populate();
+
+            final String expected = "ts\tv\tk\n" +
+                    "2020-01-01T00:00:00.000000Z\t9\t1\n" +
+                    "2020-01-01T00:00:01.000000Z\t5\t2\n" +
+                    "2020-01-01T00:00:04.000000Z\t5\t5\n" +
+                    "2020-01-02T00:00:01.000000Z\t7\t7\n" +
+                    "2020-01-02T00:00:02.000000Z\t5\t8\n";
+
+            assertQuery(expected, "x where v > 4 and v <= 9", "ts", true);
+            assertQuery(expected, "x where 9 >= v and 4 < v", "ts", true);
+            assertQuery("ts\tv\tk\n", "x where v > 5 and v < 7", "ts", true);
+            assertQuery("ts\tv\tk\n", "x where v > 9 and v < 1", "ts", false);
+        });
+    }
+
+    @Test
+    public void testRangeWithFilter() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            populate();
+
+            assertQuery(
+                    "ts\tv\tk\n" +
+                            "2020-01-01T00:00:04.000000Z\t5\t5\n" +
+                            "2020-01-02T00:00:02.000000Z\t5\t8\n",
+                    "x where k > 2 and v >= 5 and v < 6",
+                    "ts",
+                    true
+            );
+        });
+    }
+
+    @Test
+    public void testRollback() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            try (TableWriter w = engine.getWriter(AllowAllCairoSecurityContext.INSTANCE, "x")) {
+                append(w, "2020-01-01T00:00:00.000000Z", 5, 1);
+                w.commit();
+                append(w, "2020-01-01T00:00:01.000000Z", 5, 2);
+                w.rollback();
+                append(w, "2020-01-01T00:00:02.000000Z", 6, 3);
+                w.commit();
+            }
+
+            assertQuery(
+                    "ts\tv\tk\n" +
+                            "2020-01-01T00:00:00.000000Z\t5\t1\n",
+                    "x where v = 5",
+                    "ts",
+                    true
+            );
+        });
+    }
+
+    private static void append(TableWriter w, String timestamp, long v) throws NumericException {
+        TableWriter.Row r = w.newRow(DateFormatUtils.parseTimestamp(timestamp));
+        r.putLong(1, v);
+        r.append();
+    }
+
+    private static void append(TableWriter w, String timestamp, long v, int k) throws NumericException {
+        TableWriter.Row r = w.newRow(DateFormatUtils.parseTimestamp(timestamp));
+        r.putLong(1, v);
+        r.putInt(2, k);
+        r.append();
+    }
+
+    private static String print(String query) throws SqlException {
+        try (RecordCursorFactory factory = compiler.compile(query, sqlExecutionContext).getRecordCursorFactory()) {
+            try (RecordCursor cursor = factory.getCursor(sqlExecutionContext)) {
+                sink.clear();
+                printer.print(cursor, factory.getMetadata(), true);
+                return sink.toString();
+            }
+        }
+    }
+
+    private void assertRange(String predicate) throws SqlException {
+        // arithmetic on column keeps predicate away from index
+        final String expected = print("x where " + predicate.replace("v ", "v + 0.0 "));
+        Assert.assertTrue(expected.split("\n").length > 2);
+        TestUtils.assertEquals(expected, print("x where " + predicate));
+    }
+
+    private void createTable() throws SqlException {
+        compiler.compile("create table x (ts timestamp, v long index, k int), index(k) timestamp(ts) partition by DAY", sqlExecutionContext);
+    }
+
+    private void populate() throws NumericException {
+        try (TableWriter w = engine.getWriter(AllowAllCairoSecurityContext.INSTANCE, "x")) {
+            append(w, "2020-01-01T00:00:00.000000Z", 9, 1);
+            append(w, "2020-01-01T00:00:01.000000Z", 5, 2);
+            w.commit();
+            append(w, "2020-01-01T00:00:02.000000Z", 11, Integer.MIN_VALUE);
+            append(w, "2020-01-01T00:00:03.000000Z", 1, 4);
+            append(w, "2020-01-01T00:00:04.000000Z", 5, 5);
+            w.commit();
+            append(w, "2020-01-02T00:00:00.000000Z", 3, 6);
+            append(w, "2020-01-02T00:00:01.000000Z", 7, 7);
+            append(w, "2020-01-02T00:00:02.000000Z", 5, 8);
+            w.commit();
+        }
+    }
+}
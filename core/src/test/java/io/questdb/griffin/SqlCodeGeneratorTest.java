@@ -26,6 +26,8 @@ package io.questdb.griffin;
 
 import io.questdb.cairo.*;
 import io.questdb.cairo.security.AllowAllCairoSecurityContext;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordCursor;
 import io.questdb.cairo.sql.RecordCursorFactory;
 import io.questdb.griffin.engine.functions.rnd.SharedRandom;
 import io.questdb.griffin.engine.functions.str.TestMatchFunctionFactory;
@@ -147,6 +149,155 @@ public class SqlCodeGeneratorTest extends AbstractGriffinTest {
         });
     }
 
+    @Test
+    public void testBindVariableTimestampInterval() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile("create table x as (select timestamp_sequence(0, 3600000000) ts, x from long_sequence(48)) timestamp(ts) partition by DAY", sqlExecutionContext);
+
+            bindVariableService.clear();
+            bindVariableService.setStr(0, "1970-01-01T22:00:00.000000Z");
+            bindVariableService.setStr("hi", "1970-01-02T01:00:00.000000Z");
+            try (RecordCursorFactory factory = compiler.compile("x where ts > $1 and ts <= :hi", sqlExecutionContext).getRecordCursorFactory()) {
+                assertCursor("ts\tx\n" +
+                                "1970-01-01T23:00:00.000000Z\t24\n" +
+                                "1970-01-02T00:00:00.000000Z\t25\n" +
+                                "1970-01-02T01:00:00.000000Z\t26\n",
+                        factory,
+                        true
+                );
+
+                // same factory, different range
+                bindVariableService.setStr(0, "1970-01-02T21:00:00.000000Z");
+                bindVariableService.setStr("hi", "1970-01-03T00:00:00.000000Z");
+                assertCursor("ts\tx\n" +
+                                "1970-01-02T22:00:00.000000Z\t47\n" +
+                                "1970-01-02T23:00:00.000000Z\t48\n",
+                        factory,
+                        true
+                );
+
+                bindVariableService.setStr(0, null);
+                assertCursor("ts\tx\n", factory, true);
+
+                bindVariableService.setStr(0, "not a timestamp");
+                try {
+                    factory.getCursor(sqlExecutionContext);
+                    Assert.fail();
+                } catch (CairoException e) {
+                    TestUtils.assertContains(e.getFlyweightMessage(), "invalid timestamp: not a timestamp");
+                }
+            }
+
+            bindVariableService.clear();
+            bindVariableService.setStr(0, "1970-01-02T05");
+            try (RecordCursorFactory factory = compiler.compile("x where ts = $1", sqlExecutionContext).getRecordCursorFactory()) {
+                assertCursor("ts\tx\n" +
+                                "1970-01-02T05:00:00.000000Z\t30\n",
+                        factory,
+                        true
+                );
+            }
+
+            bindVariableService.clear();
+            bindVariableService.setTimestamp(0, 46 * 3600000000L);
+            try (RecordCursorFactory factory = compiler.compile("x latest by x where ts in ($1, '1970-01-03T00:00:00.000Z')", sqlExecutionContext).getRecordCursorFactory()) {
+                assertCursor("ts\tx\n" +
+                                "1970-01-02T22:00:00.000000Z\t47\n" +
+                                "1970-01-02T23:00:00.000000Z\t48\n",
+                        factory,
+                        true
+                );
+            }
+        });
+    }
+
+    @Test
+    public void testBindVariableTimestampIntervalInvalidType() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile("create table x as (select timestamp_sequence(0, 3600000000) ts, x from long_sequence(2)) timestamp(ts)", sqlExecutionContext);
+            bindVariableService.clear();
+            bindVariableService.setBoolean(0, true);
+            try {
+                compiler.compile("x where ts > $1", sqlExecutionContext);
+                Assert.fail();
+            } catch (SqlException e) {
+                Assert.assertEquals(13, e.getPosition());
+                TestUtils.assertContains(e.getFlyweightMessage(), "timestamp bind variable expected [type=BOOLEAN]");
+            }
+        });
+    }
+
+    @Test
+    public void testBindVariableExpressionInWhere() throws Exception {
+        assertMemoryLeak(() -> {
+            bindVariableService.clear();
+            bindVariableService.setLong(0, 1);
+            try (RecordCursorFactory factory = compiler.compile("select x from long_sequence(5) where x > $1 * 2", sqlExecutionContext).getRecordCursorFactory()) {
+                assertCursor("x\n" +
+                                "3\n" +
+                                "4\n" +
+                                "5\n",
+                        factory,
+                        true
+                );
+
+                // expression is re-evaluated for each cursor
+                bindVariableService.setLong(0, 2);
+                assertCursor("x\n" +
+                                "5\n",
+                        factory,
+                        true
+                );
+            }
+        });
+    }
+
+    @Test
+    public void testCommonSubexpressionInSelect() throws Exception {
+        assertQuery(
+                "a\tb\tc\n" +
+                        "2\t4\t0\n" +
+                        "3\t6\t3\n" +
+                        "4\t8\t4\n",
+                "select x + 1 a, (x + 1) * 2 b, case when x + 1 > 2 then x + 1 else 0 end c from long_sequence(3)",
+                null,
+                true
+        );
+    }
+
+    @Test
+    public void testCommonSubexpressionInSelectOrderBy() throws Exception {
+        assertQuery(
+                "a\tb\n" +
+                        "-1\t-2\n" +
+                        "-2\t-4\n" +
+                        "-3\t-6\n" +
+                        "-4\t-8\n",
+                "select 0 - x a, (0 - x) * 2 b from long_sequence(4) order by b desc",
+                null,
+                true
+        );
+    }
+
+    @Test
+    public void testCommonSubexpressionRandomNotShared() throws Exception {
+        assertMemoryLeak(() -> {
+            try (
+                    RecordCursorFactory factory = compiler.compile("select rnd_long(0, 1000000, 0) + 1 a, rnd_long(0, 1000000, 0) + 1 b from long_sequence(100)", sqlExecutionContext).getRecordCursorFactory();
+                    RecordCursor cursor = factory.getCursor(sqlExecutionContext)
+            ) {
+                final Record record = cursor.getRecord();
+                int differences = 0;
+                while (cursor.hasNext()) {
+                    if (record.getLong(0) != record.getLong(1)) {
+                        differences++;
+                    }
+                }
+                Assert.assertTrue(differences > 0);
+            }
+        });
+    }
+
     @Test
     public void testCreateTableSymbolColumnViaCastCached() throws Exception {
         TestUtils.assertMemoryLeak(() -> {
@@ -304,6 +455,270 @@ public class SqlCodeGeneratorTest extends AbstractGriffinTest {
                         "97.595346366902\tHYRX\t1971-01-01T00:00:00.000000Z\n");
     }
 
+    @Test
+    public void testFilterInDoubleList() throws Exception {
+        assertQuery("i\tl\tsh\tb\td\ts\tk\n" +
+                        "3\t3\t4\t1\t1.500000000000\tRXGZ\t1970-01-01T00:00:02.000000Z\n" +
+                        "4\t4\t2\t5\t2.000000000000\tABC\t1970-01-01T00:00:03.000000Z\n" +
+                        "9\t9\t4\t3\t4.500000000000\tABC\t1970-01-01T00:00:08.000000Z\n",
+                "x where d in (1.5, 2, 4.50000)",
+                "create table x as " +
+                        "(" +
+                        "select" +
+                        " to_int(x) i," +
+                        " x l," +
+                        " rnd_short(1,5) sh," +
+                        " rnd_byte(1,5) b," +
+                        " x * 0.5 d," +
+                        " rnd_symbol('RXGZ','HYRX','ABC') s," +
+                        " timestamp_sequence(0, 1000000) k" +
+                        " from long_sequence(10)" +
+                        ") timestamp(k)",
+                "k");
+    }
+
+    @Test
+    public void testFilterInDoubleSubQuery() throws Exception {
+        assertQuery("i\tl\tsh\tb\td\ts\tk\n" +
+                        "2\t2\t3\t3\t1.000000000000\tABC\t1970-01-01T00:00:01.000000Z\n" +
+                        "4\t4\t2\t5\t2.000000000000\tABC\t1970-01-01T00:00:03.000000Z\n" +
+                        "6\t6\t3\t4\t3.000000000000\tHYRX\t1970-01-01T00:00:05.000000Z\n",
+                "x where d in (select i from x where i < 4)",
+                "create table x as " +
+                        "(" +
+                        "select" +
+                        " to_int(x) i," +
+                        " x l," +
+                        " rnd_short(1,5) sh," +
+                        " rnd_byte(1,5) b," +
+                        " x * 0.5 d," +
+                        " rnd_symbol('RXGZ','HYRX','ABC') s," +
+                        " timestamp_sequence(0, 1000000) k" +
+                        " from long_sequence(10)" +
+                        ") timestamp(k)",
+                "k");
+    }
+
+    @Test
+    public void testFilterInIntList() throws Exception {
+        assertQuery("i\tl\tsh\tb\td\ts\tk\n" +
+                        "2\t2\t3\t3\t1.000000000000\tABC\t1970-01-01T00:00:01.000000Z\n" +
+                        "4\t4\t2\t5\t2.000000000000\tABC\t1970-01-01T00:00:03.000000Z\n",
+                "x where i in (2, 4, 17)",
+                "create table x as " +
+                        "(" +
+                        "select" +
+                        " to_int(x) i," +
+                        " x l," +
+                        " rnd_short(1,5) sh," +
+                        " rnd_byte(1,5) b," +
+                        " x * 0.5 d," +
+                        " rnd_symbol('RXGZ','HYRX','ABC') s," +
+                        " timestamp_sequence(0, 1000000) k" +
+                        " from long_sequence(10)" +
+                        ") timestamp(k)",
+                "k");
+    }
+
+    @Test
+    public void testFilterInIntSubQuery() throws Exception {
+        assertQuery("i\tl\tsh\tb\td\ts\tk\n" +
+                        "9\t9\t4\t3\t4.500000000000\tABC\t1970-01-01T00:00:08.000000Z\n" +
+                        "10\t10\t2\t1\t5.000000000000\tRXGZ\t1970-01-01T00:00:09.000000Z\n",
+                "x where i in (select l from x where l > 8)",
+                "create table x as " +
+                        "(" +
+                        "select" +
+                        " to_int(x) i," +
+                        " x l," +
+                        " rnd_short(1,5) sh," +
+                        " rnd_byte(1,5) b," +
+                        " x * 0.5 d," +
+                        " rnd_symbol('RXGZ','HYRX','ABC') s," +
+                        " timestamp_sequence(0, 1000000) k" +
+                        " from long_sequence(10)" +
+                        ") timestamp(k)",
+                "k");
+    }
+
+    @Test
+    public void testFilterInLongList() throws Exception {
+        assertQuery("i\tl\tsh\tb\td\ts\tk\n" +
+                        "1\t1\t2\t5\t0.500000000000\tHYRX\t1970-01-01T00:00:00.000000Z\n" +
+                        "10\t10\t2\t1\t5.000000000000\tRXGZ\t1970-01-01T00:00:09.000000Z\n",
+                "x where l in (1, 3000000000, 10)",
+                "create table x as " +
+                        "(" +
+                        "select" +
+                        " to_int(x) i," +
+                        " x l," +
+                        " rnd_short(1,5) sh," +
+                        " rnd_byte(1,5) b," +
+                        " x * 0.5 d," +
+                        " rnd_symbol('RXGZ','HYRX','ABC') s," +
+                        " timestamp_sequence(0, 1000000) k" +
+                        " from long_sequence(10)" +
+                        ") timestamp(k)",
+                "k");
+    }
+
+    @Test
+    public void testFilterInShortAndByteList() throws Exception {
+        assertQuery("i\tl\tsh\tb\td\ts\tk\n" +
+                        "1\t1\t2\t5\t0.500000000000\tHYRX\t1970-01-01T00:00:00.000000Z\n" +
+                        "2\t2\t3\t3\t1.000000000000\tABC\t1970-01-01T00:00:01.000000Z\n" +
+                        "4\t4\t2\t5\t2.000000000000\tABC\t1970-01-01T00:00:03.000000Z\n",
+                "x where sh in (2, 3) and b in (3, 5)",
+                "create table x as " +
+                        "(" +
+                        "select" +
+                        " to_int(x) i," +
+                        " x l," +
+                        " rnd_short(1,5) sh," +
+                        " rnd_byte(1,5) b," +
+                        " x * 0.5 d," +
+                        " rnd_symbol('RXGZ','HYRX','ABC') s," +
+                        " timestamp_sequence(0, 1000000) k" +
+                        " from long_sequence(10)" +
+                        ") timestamp(k)",
+                "k");
+    }
+
+    @Test
+    public void testFilterInSubQueryUnsupportedColType() throws Exception {
+        assertFailure("x where i in (select s from x)",
+                "create table x as " +
+                        "(" +
+                        "select" +
+                        " to_int(x) i," +
+                        " rnd_symbol('RXGZ','HYRX','ABC') s" +
+                        " from long_sequence(10)" +
+                        ")",
+                14,
+                "cannot compare INT with SYMBOL");
+    }
+
+    @Test
+    public void testFilterInSymbolList() throws Exception {
+        // no index, values are resolved to symbol keys when cursor is open
+        assertQuery("s\tk\n" +
+                        "RXGZ\t1970-01-01T00:00:00.000000Z\n" +
+                        "RXGZ\t1970-01-01T00:00:01.000000Z\n" +
+                        "ABC\t1970-01-01T00:00:03.000000Z\n" +
+                        "ABC\t1970-01-01T00:00:04.000000Z\n",
+                "x where s in ('RXGZ', 'ABC', 'XYZ')",
+                "create table x as " +
+                        "(" +
+                        "select" +
+                        " rnd_symbol('RXGZ','HYRX','ABC') s," +
+                        " timestamp_sequence(0, 1000000) k" +
+                        " from long_sequence(5)" +
+                        ") timestamp(k)",
+                "k",
+                "insert into x select * from (" +
+                        "select" +
+                        " 'XYZ'," +
+                        " to_timestamp('1971', 'yyyy') t" +
+                        " from long_sequence(1)" +
+                        ") timestamp(t)",
+                "s\tk\n" +
+                        "RXGZ\t1970-01-01T00:00:00.000000Z\n" +
+                        "RXGZ\t1970-01-01T00:00:01.000000Z\n" +
+                        "ABC\t1970-01-01T00:00:03.000000Z\n" +
+                        "ABC\t1970-01-01T00:00:04.000000Z\n" +
+                        "XYZ\t1971-01-01T00:00:00.000000Z\n");
+    }
+
+    @Test
+    public void testFilterInTimestampList() throws Exception {
+        // more than two values on designated timestamp is not an interval
+        assertQuery("i\tl\tsh\tb\td\ts\tk\n" +
+                        "2\t2\t3\t3\t1.000000000000\tABC\t1970-01-01T00:00:01.000000Z\n" +
+                        "4\t4\t2\t5\t2.000000000000\tABC\t1970-01-01T00:00:03.000000Z\n" +
+                        "6\t6\t3\t4\t3.000000000000\tHYRX\t1970-01-01T00:00:05.000000Z\n",
+                "x where k in ('1970-01-01T00:00:01.000Z', '1970-01-01T00:00:03.000Z', '1970-01-01T00:00:05.000000Z')",
+                "create table x as " +
+                        "(" +
+                        "select" +
+                        " to_int(x) i," +
+                        " x l," +
+                        " rnd_short(1,5) sh," +
+                        " rnd_byte(1,5) b," +
+                        " x * 0.5 d," +
+                        " rnd_symbol('RXGZ','HYRX','ABC') s," +
+                        " timestamp_sequence(0, 1000000) k" +
+                        " from long_sequence(10)" +
+                        ") timestamp(k)",
+                "k");
+    }
+
+    @Test
+    public void testFilterInTimestampListPartialDate() throws Exception {
+        // partial date in the list matches the whole day, same as '=' does
+        assertQuery("i\tl\tsh\tb\td\ts\tk\n" +
+                        "2\t2\t3\t3\t1.000000000000\tABC\t1970-01-01T12:00:00.000000Z\n" +
+                        "3\t3\t4\t1\t1.500000000000\tRXGZ\t1970-01-02T00:00:00.000000Z\n" +
+                        "4\t4\t2\t5\t2.000000000000\tABC\t1970-01-02T12:00:00.000000Z\n" +
+                        "6\t6\t3\t4\t3.000000000000\tHYRX\t1970-01-03T12:00:00.000000Z\n",
+                "x where k in ('1970-01-01T12:00:00.000Z', '1970-01-02', '1970-01-03T12')",
+                "create table x as " +
+                        "(" +
+                        "select" +
+                        " to_int(x) i," +
+                        " x l," +
+                        " rnd_short(1,5) sh," +
+                        " rnd_byte(1,5) b," +
+                        " x * 0.5 d," +
+                        " rnd_symbol('RXGZ','HYRX','ABC') s," +
+                        " timestamp_sequence(0, 43200000000) k" +
+                        " from long_sequence(10)" +
+                        ") timestamp(k)",
+                "k");
+    }
+
+    @Test
+    public void testFilterInTimestampSubQuery() throws Exception {
+        assertQuery("i\tl\tsh\tb\td\ts\tk\n" +
+                        "1\t1\t2\t5\t0.500000000000\tHYRX\t1970-01-01T00:00:00.000000Z\n" +
+                        "2\t2\t3\t3\t1.000000000000\tABC\t1970-01-01T00:00:01.000000Z\n",
+                "x where k in (select k from x where l < 3)",
+                "create table x as " +
+                        "(" +
+                        "select" +
+                        " to_int(x) i," +
+                        " x l," +
+                        " rnd_short(1,5) sh," +
+                        " rnd_byte(1,5) b," +
+                        " x * 0.5 d," +
+                        " rnd_symbol('RXGZ','HYRX','ABC') s," +
+                        " timestamp_sequence(0, 1000000) k" +
+                        " from long_sequence(10)" +
+                        ") timestamp(k)",
+                "k");
+    }
+
+    @Test
+    public void testFilterInTimestampTwoValues() throws Exception {
+        // outside of designated timestamp two values are a set, not a range
+        assertQuery("i\tl\tsh\tb\td\ts\tk\n" +
+                        "2\t2\t3\t3\t1.000000000000\tABC\t1970-01-01T00:00:01.000000Z\n" +
+                        "4\t4\t2\t5\t2.000000000000\tABC\t1970-01-01T00:00:03.000000Z\n",
+                "x where k in ('1970-01-01T00:00:01.000Z', '1970-01-01T00:00:03.000Z')",
+                "create table x as " +
+                        "(" +
+                        "select" +
+                        " to_int(x) i," +
+                        " x l," +
+                        " rnd_short(1,5) sh," +
+                        " rnd_byte(1,5) b," +
+                        " x * 0.5 d," +
+                        " rnd_symbol('RXGZ','HYRX','ABC') s," +
+                        " timestamp_sequence(0, 1000000) k" +
+                        " from long_sequence(10)" +
+                        ")",
+                null);
+    }
+
     @Test
     public void testFilterOnConstantFalse() throws Exception {
         assertQuery(null,
@@ -3065,6 +3480,27 @@ public class SqlCodeGeneratorTest extends AbstractGriffinTest {
 
     }
 
+    @Test
+    public void testRuntimeConstantEvaluatedOncePerCursor() throws Exception {
+        assertMemoryLeak(() -> {
+            try (RecordCursorFactory factory = compiler.compile("select systimestamp() t from long_sequence(10000)", sqlExecutionContext).getRecordCursorFactory()) {
+                long last = Long.MIN_VALUE;
+                for (int i = 0; i < 2; i++) {
+                    try (RecordCursor cursor = factory.getCursor(sqlExecutionContext)) {
+                        final Record record = cursor.getRecord();
+                        Assert.assertTrue(cursor.hasNext());
+                        final long t = record.getTimestamp(0);
+                        Assert.assertTrue(t >= last);
+                        while (cursor.hasNext()) {
+                            Assert.assertEquals(t, record.getTimestamp(0));
+                        }
+                        last = t;
+                    }
+                }
+            }
+        });
+    }
+
     @Test
     public void testSelectColumns() throws Exception {
         assertQuery("a\ta1\tb\tc\td\te\tf1\tf\tg\th\ti\tj\tj1\tk\tl\tm\n" +
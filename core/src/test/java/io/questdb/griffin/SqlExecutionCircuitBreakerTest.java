@@ -0,0 +1,336 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.DefaultCairoConfiguration;
+import io.questdb.cairo.security.AllowAllCairoSecurityContext;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.network.NetworkFacadeImpl;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Unsafe;
+import io.questdb.std.microtime.MicrosecondClock;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SqlExecutionCircuitBreakerTest extends AbstractGriffinTest {
+
+    @Test
+    public void testCancel() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            try (SqlExecutionCircuitBreakerImpl circuitBreaker = new SqlExecutionCircuitBreakerImpl(NetworkFacadeImpl.INSTANCE)) {
+                final SqlExecutionContext context = newContext(circuitBreaker);
+                circuitBreaker.of(engine.getQueryRegistry(), configuration, "select sum(v) from x", -1);
+                final long id = circuitBreaker.getQueryId();
+
+                assertSql(
+                        context,
+                        "select query_id, query from running_queries()",
+                        "query_id\tquery\n" +
+                                id + "\tselect sum(v) from x\n"
+                );
+
+                Assert.assertEquals(CompiledQuery.CANCEL, compiler.compile("cancel query " + id, sqlExecutionContext).getType());
+                assertInterrupted(context, "select sum(v) from x", "cancelled by user [id=" + id + "]");
+                assertInterrupted(context, "x where v > 10", "cancelled by user [id=" + id + "]");
+
+                circuitBreaker.clear();
+                Assert.assertEquals(0, engine.getQueryRegistry().getQueryCount());
+                assertSql(context, "running_queries()", "query_id\tstarted\tquery\tmem_used\n");
+            }
+        });
+    }
+
+    @Test
+    public void testCancelInvalidId() throws Exception {
+        assertFailure("cancel query abc", 13, "query id expected");
+    }
+
+    @Test
+    public void testCancelNotRunning() throws Exception {
+        assertFailure("cancel query 1000", 13, "query is not running [id=1000]");
+    }
+
+    @Test
+    public void testMemUsedIsCountedForAttachedThread() throws Exception {
+        assertMemoryLeak(() -> {
+            try (SqlExecutionCircuitBreakerImpl circuitBreaker = new SqlExecutionCircuitBreakerImpl(NetworkFacadeImpl.INSTANCE)) {
+                circuitBreaker.of(engine.getQueryRegistry(), configuration, "x", -1);
+
+                long ptr = Unsafe.malloc(1024, MemoryTag.NATIVE_SQL);
+                Assert.assertEquals(1024, circuitBreaker.getMemUsed());
+                // other tags are not query memory
+                long other = Unsafe.malloc(512, MemoryTag.NATIVE_DEFAULT);
+                Unsafe.free(other, 512, MemoryTag.NATIVE_DEFAULT);
+
+                // allocations of other threads are not counted
+                final Thread thread = new Thread(() -> Unsafe.free(Unsafe.malloc(256, MemoryTag.NATIVE_SQL), 256, MemoryTag.NATIVE_SQL));
+                thread.start();
+                thread.join();
+                Assert.assertEquals(1024, circuitBreaker.getMemUsed());
+
+                circuitBreaker.detach();
+                Unsafe.free(ptr, 1024, MemoryTag.NATIVE_SQL);
+                Assert.assertEquals(1024, circuitBreaker.getMemUsed());
+
+                circuitBreaker.attach();
+                ptr = Unsafe.malloc(128, MemoryTag.NATIVE_SQL);
+                Unsafe.free(ptr, 128, MemoryTag.NATIVE_SQL);
+                Assert.assertEquals(1024, circuitBreaker.getMemUsed());
+
+                circuitBreaker.clear();
+                Assert.assertEquals(0, circuitBreaker.getMemUsed());
+                ptr = Unsafe.malloc(128, MemoryTag.NATIVE_SQL);
+                Unsafe.free(ptr, 128, MemoryTag.NATIVE_SQL);
+                Assert.assertEquals(0, circuitBreaker.getMemUsed());
+            }
+        });
+    }
+
+    @Test
+    public void testMemoryOfOtherAccountIsNotCounted() throws Exception {
+        assertMemoryLeak(() -> {
+            try (SqlExecutionCircuitBreakerImpl circuitBreaker = new SqlExecutionCircuitBreakerImpl(NetworkFacadeImpl.INSTANCE)) {
+                // memory allocated by previous query, as if it was held by cached factory
+                circuitBreaker.of(engine.getQueryRegistry(), configuration, "x", -1);
+                final long inherited = Unsafe.malloc(1024, MemoryTag.NATIVE_SQL);
+                final long grown = Unsafe.malloc(1024, MemoryTag.NATIVE_SQL);
+                Assert.assertEquals(2048, circuitBreaker.getMemUsed());
+
+                circuitBreaker.of(engine.getQueryRegistry(), configuration, "y", -1);
+                long ptr = Unsafe.malloc(256, MemoryTag.NATIVE_SQL);
+                Unsafe.free(inherited, 1024, MemoryTag.NATIVE_SQL);
+                Assert.assertEquals(256, circuitBreaker.getMemUsed());
+
+                // only growth of inherited memory belongs to query
+                final long p = Unsafe.realloc(grown, 1024, 1536, MemoryTag.NATIVE_SQL);
+                Assert.assertEquals(768, circuitBreaker.getMemUsed());
+                Unsafe.free(p, 1536, MemoryTag.NATIVE_SQL);
+                Assert.assertEquals(256, circuitBreaker.getMemUsed());
+
+                Unsafe.free(ptr, 256, MemoryTag.NATIVE_SQL);
+                Assert.assertEquals(0, circuitBreaker.getMemUsed());
+            }
+        });
+    }
+
+    @Test
+    public void testMemoryQuotaCheckedOnAllocation() throws Exception {
+        assertMemoryLeak(() -> {
+            final CairoConfiguration configuration = new DefaultCairoConfiguration(root) {
+                @Override
+                public long getSqlQueryMemoryQuota() {
+                    return 1024;
+                }
+            };
+            try (SqlExecutionCircuitBreakerImpl circuitBreaker = new SqlExecutionCircuitBreakerImpl(NetworkFacadeImpl.INSTANCE)) {
+                circuitBreaker.of(engine.getQueryRegistry(), configuration, "x", -1);
+                final long memUsed = Unsafe.getMemUsedByTag(MemoryTag.NATIVE_SQL);
+                try {
+                    Unsafe.malloc(1025, MemoryTag.NATIVE_SQL);
+                    Assert.fail();
+                } catch (CairoException e) {
+                    Assert.assertTrue(e.isInterruption());
+                    TestUtils.assertContains(e.getFlyweightMessage(), "memory quota exceeded");
+                }
+                // nothing has been allocated
+                Assert.assertEquals(memUsed, Unsafe.getMemUsedByTag(MemoryTag.NATIVE_SQL));
+                Assert.assertEquals(0, circuitBreaker.getMemUsed());
+
+                long ptr = Unsafe.malloc(1000, MemoryTag.NATIVE_SQL);
+                try {
+                    Unsafe.realloc(ptr, 1000, 2000, MemoryTag.NATIVE_SQL);
+                    Assert.fail();
+                } catch (CairoException e) {
+                    TestUtils.assertContains(e.getFlyweightMessage(), "memory quota exceeded");
+                }
+                Assert.assertEquals(1000, circuitBreaker.getMemUsed());
+                Unsafe.free(ptr, 1000, MemoryTag.NATIVE_SQL);
+            }
+        });
+    }
+
+    @Test
+    public void testMemoryLimit() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            final CairoConfiguration configuration = new DefaultCairoConfiguration(root) {
+                @Override
+                public long getSqlMemoryLimit() {
+                    return 1;
+                }
+            };
+            try (SqlExecutionCircuitBreakerImpl circuitBreaker = new SqlExecutionCircuitBreakerImpl(NetworkFacadeImpl.INSTANCE)) {
+                final SqlExecutionContext context = newContext(circuitBreaker);
+                circuitBreaker.of(engine.getQueryRegistry(), configuration, "select v, count() from x", -1);
+                assertInterrupted(context, "select v, count() from x", "query memory limit exceeded");
+            }
+        });
+    }
+
+    @Test
+    public void testMemoryQuota() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            final CairoConfiguration configuration = new DefaultCairoConfiguration(root) {
+                @Override
+                public int getSqlCircuitBreakerThrottle() {
+                    return 1;
+                }
+
+                @Override
+                public long getSqlQueryMemoryQuota() {
+                    return 1;
+                }
+            };
+            try (SqlExecutionCircuitBreakerImpl circuitBreaker = new SqlExecutionCircuitBreakerImpl(NetworkFacadeImpl.INSTANCE)) {
+                final SqlExecutionContext context = newContext(circuitBreaker);
+                try (RecordCursorFactory factory = compiler.compile("x order by v", context).getRecordCursorFactory()) {
+                    circuitBreaker.of(engine.getQueryRegistry(), configuration, "x order by v", -1);
+                    try {
+                        factory.getCursor(context).close();
+                        Assert.fail();
+                    } catch (CairoException e) {
+                        Assert.assertTrue(e.isInterruption());
+                        TestUtils.assertContains(e.getFlyweightMessage(), "memory quota exceeded");
+                    }
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testThrottle() throws Exception {
+        assertMemoryLeak(() -> {
+            final long[] clockReads = {0};
+            final CairoConfiguration configuration = new DefaultCairoConfiguration(root) {
+                @Override
+                public MicrosecondClock getMicrosecondClock() {
+                    return () -> clockReads[0]++;
+                }
+
+                @Override
+                public int getSqlCircuitBreakerThrottle() {
+                    return 10;
+                }
+            };
+            try (SqlExecutionCircuitBreakerImpl circuitBreaker = new SqlExecutionCircuitBreakerImpl(NetworkFacadeImpl.INSTANCE)) {
+                circuitBreaker.of(engine.getQueryRegistry(), configuration, "x", -1);
+                Assert.assertEquals(1, clockReads[0]);
+                for (int i = 0; i < 100; i++) {
+                    circuitBreaker.checkState();
+                }
+                Assert.assertEquals(11, clockReads[0]);
+            }
+        });
+    }
+
+    @Test
+    public void testTimeout() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            final CairoConfiguration configuration = new DefaultCairoConfiguration(root) {
+                private long ticks = 0;
+
+                @Override
+                public MicrosecondClock getMicrosecondClock() {
+                    // every clock read is a millisecond later
+                    return () -> ticks += 1000;
+                }
+
+                @Override
+                public int getSqlCircuitBreakerThrottle() {
+                    return 1;
+                }
+
+                @Override
+                public long getSqlQueryTimeout() {
+                    return 10;
+                }
+            };
+            try (SqlExecutionCircuitBreakerImpl circuitBreaker = new SqlExecutionCircuitBreakerImpl(NetworkFacadeImpl.INSTANCE)) {
+                final SqlExecutionContext context = newContext(circuitBreaker);
+                circuitBreaker.of(engine.getQueryRegistry(), configuration, "select v, count() from x", -1);
+                assertInterrupted(context, "select v, count() from x", "timeout, query aborted");
+            }
+            Assert.assertEquals(0, engine.getQueryRegistry().getQueryCount());
+        });
+    }
+
+    private static void assertInterrupted(SqlExecutionContext context, CharSequence query, CharSequence expected) throws SqlException {
+        try (RecordCursorFactory factory = compiler.compile(query, context).getRecordCursorFactory()) {
+            try (RecordCursor cursor = factory.getCursor(context)) {
+                //noinspection StatementWithEmptyBody
+                while (cursor.hasNext()) {
+                }
+            }
+            Assert.fail();
+        } catch (CairoException e) {
+            Assert.assertTrue(e.isInterruption());
+            TestUtils.assertContains(e.getFlyweightMessage(), expected);
+        }
+    }
+
+    private static void assertSql(SqlExecutionContext context, CharSequence query, CharSequence expected) throws SqlException {
+        try (
+                RecordCursorFactory factory = compiler.compile(query, context).getRecordCursorFactory();
+                RecordCursor cursor = factory.getCursor(context)
+        ) {
+            sink.clear();
+            printer.print(cursor, factory.getMetadata(), true);
+            TestUtils.assertEquals(expected, sink);
+        }
+    }
+
+    private static void createTable() throws SqlException {
+        compiler.compile("create table x as (select rnd_int(0, 100, 0) v from long_sequence(1000))", sqlExecutionContext);
+    }
+
+    private static SqlExecutionContext newContext(SqlExecutionCircuitBreaker circuitBreaker) {
+        return new SqlExecutionContextImpl().with(
+                AllowAllCairoSecurityContext.INSTANCE,
+                bindVariableService,
+                engine.getQueryRegistry(),
+                engine.getQueryCache(),
+                circuitBreaker
+        );
+    }
+
+    private void assertFailure(CharSequence query, int position, CharSequence message) throws Exception {
+        assertMemoryLeak(() -> {
+            try {
+                compiler.compile(query, sqlExecutionContext);
+                Assert.fail();
+            } catch (SqlException e) {
+                Assert.assertEquals(position, e.getPosition());
+                TestUtils.assertContains(e.getFlyweightMessage(), message);
+            }
+        });
+    }
+}
@@ -770,6 +770,41 @@ public class SqlParserTest extends AbstractGriffinTest {
         );
     }
 
+    @Test
+    public void testCreateTableDedupKeys() throws SqlException {
+        assertCreateTable(
+                "create table x (ts TIMESTAMP, sym SYMBOL capacity 128 cache, v DOUBLE) timestamp(ts) partition by DAY dedup upsert keys(ts, sym)",
+                "create table x (ts TIMESTAMP, sym SYMBOL, v DOUBLE) timestamp(ts) partition by DAY dedup upsert keys(ts, sym)"
+        );
+    }
+
+    @Test
+    public void testCreateTableDedupKeysDuplicate() {
+        assertSyntaxError(
+                "create table x (ts TIMESTAMP, sym SYMBOL, v DOUBLE) timestamp(ts) partition by DAY dedup upsert keys(ts, sym, ts)",
+                110,
+                "duplicate dedup key"
+        );
+    }
+
+    @Test
+    public void testCreateTableDedupKeysInvalidType() {
+        assertSyntaxError(
+                "create table x (ts TIMESTAMP, sym SYMBOL, v DOUBLE) timestamp(ts) partition by DAY dedup upsert keys(ts, v)",
+                105,
+                "dedup key must be SYMBOL or designated timestamp"
+        );
+    }
+
+    @Test
+    public void testCreateTableDedupKeysNoTimestamp() {
+        assertSyntaxError(
+                "create table x (ts TIMESTAMP, sym SYMBOL, v DOUBLE) timestamp(ts) partition by DAY dedup upsert keys(sym)",
+                83,
+                "dedup keys must include designated timestamp"
+        );
+    }
+
     @Test
     public void testCreateTableDuplicateCast() {
         assertSyntaxError(
@@ -2427,8 +2462,8 @@ public class SqlParserTest extends AbstractGriffinTest {
                         " products.supplier supplier," +
                         " suppliers.supplier supplier1" +
                         " from (" +
-                        "orders" +
-                        " cross join products join suppliers on suppliers.supplier = products.supplier" +
+                        "products join suppliers on suppliers.supplier = products.supplier" +
+                        " cross join orders" +
                         " cross join customers" +
                         " cross join orderDetails d" +
                         " const-where 1 = 1 and 2 = 2 and 3 = 3)",
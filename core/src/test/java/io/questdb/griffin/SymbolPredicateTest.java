@@ -0,0 +1,138 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin;
+
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.griffin.engine.functions.rnd.SharedRandom;
+import io.questdb.std.Rnd;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class SymbolPredicateTest extends AbstractGriffinTest {
+
+    @Before
+    public void setUp3() {
+        SharedRandom.RANDOM.set(new Rnd());
+    }
+
+    @Test
+    public void testAlternatives() throws Exception {
+        assertSymbolPredicate("s ~= '^(abc|xyz)$'");
+    }
+
+    @Test
+    public void testAndOtherColumn() throws Exception {
+        assertSymbolPredicate("s ~= '^ab' and v > 500");
+    }
+
+    @Test
+    public void testLength() throws Exception {
+        assertSymbolPredicate("length(s) > 3");
+    }
+
+    @Test
+    public void testNoMatch() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable(true);
+            assertQuery(
+                    "s\tv\tts\n",
+                    "x where s ~= 'zzz'",
+                    "ts",
+                    true
+            );
+        });
+    }
+
+    @Test
+    public void testNullMatches() throws Exception {
+        assertSymbolPredicate("length(s) < 3");
+    }
+
+    @Test
+    public void testRegex() throws Exception {
+        assertSymbolPredicate("s ~= '^ab'");
+    }
+
+    @Test
+    public void testSingleKeyOfManyMatches() throws Exception {
+        // few keys match, index cursors are used on indexed column
+        assertSymbolPredicate("s ~= '^xyz$'");
+    }
+
+    private static void createTable(boolean indexed) throws SqlException {
+        compiler.compile(
+                "create table x as (" +
+                        "select" +
+                        " rnd_symbol('abc', 'abd', 'abcd', 'xyz', 'xy', 'klm', 'klmn', 'opq', 'rst', 'uvw', null) s," +
+                        " x v," +
+                        " timestamp_sequence(to_timestamp('2020-01-01', 'yyyy-MM-dd'), 100000000) ts" +
+                        " from long_sequence(1000)" +
+                        ")" + (indexed ? ", index(s)" : "") + " timestamp(ts) partition by DAY",
+                sqlExecutionContext
+        );
+    }
+
+    private static String print(String query) throws SqlException {
+        try (RecordCursorFactory factory = compiler.compile(query, sqlExecutionContext).getRecordCursorFactory()) {
+            try (RecordCursor cursor = factory.getCursor(sqlExecutionContext)) {
+                sink.clear();
+                printer.print(cursor, factory.getMetadata(), true);
+                final String s = sink.toString();
+                // cursor must produce same result after rewind
+                sink.clear();
+                cursor.toTop();
+                printer.print(cursor, factory.getMetadata(), true);
+                TestUtils.assertEquals(s, sink);
+                return s;
+            }
+        }
+    }
+
+    private void assertSymbolPredicate(String predicate) throws Exception {
+        assertSymbolPredicate(predicate, true);
+        assertSymbolPredicate(predicate, false);
+    }
+
+    private void assertSymbolPredicate(String predicate, boolean indexed) throws Exception {
+        assertMemoryLeak(() -> {
+            createTable(indexed);
+            try {
+                // predicate that depends on another column is evaluated row by row
+                final String expected = print("x where (" + predicate + ") or v < 0");
+                final int rowCount = expected.split("\n").length - 1;
+                Assert.assertTrue(rowCount > 0);
+                Assert.assertTrue(rowCount < 1000);
+                TestUtils.assertEquals(expected, print("x where " + predicate));
+            } finally {
+                engine.releaseAllReaders();
+                engine.releaseAllWriters();
+                compiler.compile("drop table x", sqlExecutionContext);
+            }
+        });
+    }
+}
@@ -29,6 +29,7 @@ import io.questdb.cairo.sql.RecordMetadata;
 import io.questdb.griffin.model.ExpressionNode;
 import io.questdb.griffin.model.IntrinsicModel;
 import io.questdb.griffin.model.QueryModel;
+import io.questdb.griffin.model.RuntimeIntervalModel;
 import io.questdb.test.tools.TestUtils;
 import org.junit.AfterClass;
 import org.junit.Assert;
@@ -41,9 +42,11 @@ public class WhereClauseParserTest extends AbstractCairoTest {
     private static TableReader reader;
     private static TableReader noTimestampReader;
     private static TableReader unindexedReader;
+    private static TableReader rangeIndexedReader;
     private static RecordMetadata metadata;
     private static RecordMetadata noTimestampMetadata;
     private static RecordMetadata unindexedMetadata;
+    private static RecordMetadata rangeIndexedMetadata;
     private final RpnBuilder rpn = new RpnBuilder();
     private final WhereClauseParser e = new WhereClauseParser();
     private final PostOrderTreeTraversalAlgo traversalAlgo = new PostOrderTreeTraversalAlgo();
@@ -87,6 +90,16 @@ public class WhereClauseParserTest extends AbstractCairoTest {
             CairoTestUtils.create(model);
         }
 
+        try (TableModel model = new TableModel(configuration, "r", PartitionBy.NONE)) {
+            model.col("sym", ColumnType.SYMBOL).indexed(true, 16)
+                    .col("id", ColumnType.LONG).indexed(true, 4)
+                    .col("qty", ColumnType.INT).indexed(true, 4)
+                    .col("bid", ColumnType.DOUBLE)
+                    .col("ref", ColumnType.STRING).indexed(true, 4)
+                    .timestamp();
+            CairoTestUtils.create(model);
+        }
+
         reader = new TableReader(configuration, "x");
         metadata = reader.getMetadata();
 
@@ -95,6 +108,9 @@ public class WhereClauseParserTest extends AbstractCairoTest {
 
         unindexedReader = new TableReader(configuration, "z");
         unindexedMetadata = unindexedReader.getMetadata();
+
+        rangeIndexedReader = new TableReader(configuration, "r");
+        rangeIndexedMetadata = rangeIndexedReader.getMetadata();
     }
 
     @AfterClass
@@ -102,6 +118,7 @@ public class WhereClauseParserTest extends AbstractCairoTest {
         reader.close();
         noTimestampReader.close();
         unindexedReader.close();
+        rangeIndexedReader.close();
     }
 
     @Test
@@ -223,6 +240,47 @@ public class WhereClauseParserTest extends AbstractCairoTest {
         }
     }
 
+    @Test
+    public void testBloomIndexedEquals() throws Exception {
+        IntrinsicModel m = rangeIndexedModelOf("ref = 'abc' and bid > 100");
+        TestUtils.assertEquals("ref", m.bloomColumn);
+        Assert.assertEquals(1, m.bloomHashes.size());
+        Assert.assertEquals(BloomIndexUtils.hash("abc"), m.bloomHashes.getQuick(0));
+        // bloom index does not replace predicate
+        assertFilter(m, "100bid>'abc'ref=and");
+    }
+
+    @Test
+    public void testBloomIndexedIn() throws Exception {
+        IntrinsicModel m = rangeIndexedModelOf("ref in ('a', 'b')");
+        TestUtils.assertEquals("ref", m.bloomColumn);
+        Assert.assertEquals(2, m.bloomHashes.size());
+        Assert.assertEquals(BloomIndexUtils.hash("a"), m.bloomHashes.getQuick(0));
+        Assert.assertEquals(BloomIndexUtils.hash("b"), m.bloomHashes.getQuick(1));
+    }
+
+    @Test
+    public void testBloomIndexedNonConstant() throws Exception {
+        IntrinsicModel m = rangeIndexedModelOf("ref in ('a', sym)");
+        Assert.assertNull(m.bloomColumn);
+        Assert.assertEquals(0, m.bloomHashes.size());
+    }
+
+    @Test
+    public void testBloomIndexedRangePreferred() throws Exception {
+        IntrinsicModel m = rangeIndexedModelOf("ref = 'a' and id = 5");
+        TestUtils.assertEquals("id", m.rangeColumn);
+        Assert.assertNull(m.bloomColumn);
+        assertFilter(m, "'a'ref=");
+    }
+
+    @Test
+    public void testBloomIndexedSymbolPreferred() throws Exception {
+        IntrinsicModel m = rangeIndexedModelOf("sym = 'X' and ref = 'a'");
+        TestUtils.assertEquals("sym", m.keyColumn);
+        Assert.assertNull(m.bloomColumn);
+    }
+
     @Test
     public void testComplexInterval1() throws Exception {
         IntrinsicModel m = modelOf("timestamp = '2015-02-23T10:00;2d'");
@@ -622,13 +680,11 @@ public class WhereClauseParserTest extends AbstractCairoTest {
     }
 
     @Test
-    public void testIntervalTooManyArgs() {
-        try {
-            modelOf("timestamp in (\"2014-01-01T12:30:00.000Z\", \"2014-01-02T12:30:00.000Z\", \"2014-01-03T12:30:00.000Z\")");
-            Assert.fail("Exception expected");
-        } catch (SqlException e) {
-            TestUtils.assertContains(e.getMessage(), "Too many arg");
-        }
+    public void testIntervalListOfValues() throws SqlException {
+        // list of timestamps is not an interval, it remains in the filter
+        IntrinsicModel m = modelOf("timestamp in (\"2014-01-01T12:30:00.000Z\", \"2014-01-02T12:30:00.000Z\", \"2014-01-03T12:30:00.000Z\")");
+        Assert.assertNull(m.intervals);
+        assertFilter(m, "\"2014-01-03T12:30:00.000Z\"\"2014-01-02T12:30:00.000Z\"\"2014-01-01T12:30:00.000Z\"timestampin");
     }
 
     @Test
@@ -917,13 +973,10 @@ public class WhereClauseParserTest extends AbstractCairoTest {
     }
 
     @Test
-    public void testNotInIntervalTooMany() {
-        try {
-            modelOf("not (timestamp in  ('2015-05-11T15:00:00.000Z','2015-05-11T15:00:00.000Z','2015-05-11T15:00:00.000Z')) and timestamp = '2015-05-11'");
-            Assert.fail();
-        } catch (SqlException e) {
-            TestUtils.assertContains(e.getFlyweightMessage(), "Too many");
-        }
+    public void testNotInIntervalListOfValues() throws SqlException {
+        IntrinsicModel m = modelOf("not (timestamp in  ('2015-05-11T15:00:00.000Z','2015-05-11T16:00:00.000Z','2015-05-11T17:00:00.000Z')) and timestamp = '2015-05-11'");
+        TestUtils.assertEquals("[{lo=2015-05-11T00:00:00.000000Z, hi=2015-05-11T23:59:59.999999Z}]", GriffinParserTestUtils.intervalToString(m.intervals));
+        assertFilter(m, "'2015-05-11T17:00:00.000Z''2015-05-11T16:00:00.000Z''2015-05-11T15:00:00.000Z'timestampinnot");
     }
 
     @Test
@@ -1000,6 +1053,83 @@ public class WhereClauseParserTest extends AbstractCairoTest {
         Assert.assertNull(m.filter);
     }
 
+    @Test
+    public void testRangeIndexedEquals() throws Exception {
+        IntrinsicModel m = rangeIndexedModelOf("id = 10 and bid > 100");
+        TestUtils.assertEquals("id", m.rangeColumn);
+        Assert.assertEquals(10, m.rangeLo);
+        Assert.assertEquals(10, m.rangeHi);
+        assertFilter(m, "100bid>");
+    }
+
+    @Test
+    public void testRangeIndexedEmpty() throws Exception {
+        IntrinsicModel m = rangeIndexedModelOf("id > 20 and id < 10");
+        Assert.assertEquals(IntrinsicModel.FALSE, m.intrinsicValue);
+    }
+
+    @Test
+    public void testRangeIndexedIncludesNull() throws Exception {
+        IntrinsicModel m = rangeIndexedModelOf("qty < 10");
+        Assert.assertNull(m.rangeColumn);
+        assertFilter(m, "10qty<");
+    }
+
+    @Test
+    public void testRangeIndexedInterval() throws Exception {
+        IntrinsicModel m = rangeIndexedModelOf("id > 10 and 20 >= id");
+        TestUtils.assertEquals("id", m.rangeColumn);
+        Assert.assertEquals(11, m.rangeLo);
+        Assert.assertEquals(20, m.rangeHi);
+        Assert.assertNull(m.filter);
+    }
+
+    @Test
+    public void testRangeIndexedSingleColumn() throws Exception {
+        IntrinsicModel m = rangeIndexedModelOf("qty > 5 and id > 10");
+        TestUtils.assertEquals("id", m.rangeColumn);
+        Assert.assertEquals(11, m.rangeLo);
+        Assert.assertEquals(Long.MAX_VALUE, m.rangeHi);
+        assertFilter(m, "5qty>");
+    }
+
+    @Test
+    public void testRangeIndexedSymbolPreferred() throws Exception {
+        IntrinsicModel m = rangeIndexedModelOf("sym = 'X' and id = 5");
+        TestUtils.assertEquals("sym", m.keyColumn);
+        Assert.assertNull(m.rangeColumn);
+        assertFilter(m, "5id=");
+    }
+
+    @Test
+    public void testRuntimeIntervalBindVariables() throws Exception {
+        IntrinsicModel m = modelOf("timestamp > $1 and :hi >= timestamp and bid > 100");
+        Assert.assertNull(m.intervals);
+        Assert.assertEquals(2, m.runtimeIntervalNodes.size());
+        TestUtils.assertEquals(":hi", m.runtimeIntervalNodes.getQuick(0).token);
+        TestUtils.assertEquals("$1", m.runtimeIntervalNodes.getQuick(1).token);
+        Assert.assertEquals(RuntimeIntervalModel.LESS_EQ, m.runtimeIntervalOps.getQuick(0));
+        Assert.assertEquals(RuntimeIntervalModel.GREATER, m.runtimeIntervalOps.getQuick(1));
+        assertFilter(m, "100bid>");
+    }
+
+    @Test
+    public void testRuntimeIntervalBindVariablesAndConstants() throws Exception {
+        IntrinsicModel m = modelOf("timestamp in ('2014-01-01T12:30:00.000Z', $1) and timestamp = :ts");
+        TestUtils.assertEquals("[{lo=2014-01-01T12:30:00.000000Z, hi=294247-01-10T04:00:54.775807Z}]", GriffinParserTestUtils.intervalToString(m.intervals));
+        Assert.assertEquals(2, m.runtimeIntervalNodes.size());
+        Assert.assertEquals(RuntimeIntervalModel.EQUAL, m.runtimeIntervalOps.getQuick(0));
+        Assert.assertEquals(RuntimeIntervalModel.LESS_EQ, m.runtimeIntervalOps.getQuick(1));
+        Assert.assertNull(m.filter);
+    }
+
+    @Test
+    public void testRuntimeIntervalNoTimestamp() throws Exception {
+        IntrinsicModel m = noTimestampModelOf("timestamp > $1");
+        Assert.assertEquals(0, m.runtimeIntervalNodes.size());
+        assertFilter(m, "$1timestamp>");
+    }
+
     @Test
     public void testSimpleLambda() throws Exception {
         IntrinsicModel m = modelOf("sym in (select * from xyz)");
@@ -1140,6 +1270,11 @@ public class WhereClauseParserTest extends AbstractCairoTest {
         return e.extract(column -> column, compiler.testParseExpression(seq, queryModel), noTimestampMetadata, null, noTimestampMetadata.getTimestampIndex());
     }
 
+    private IntrinsicModel rangeIndexedModelOf(CharSequence seq) throws SqlException {
+        queryModel.clear();
+        return e.extract(column -> column, compiler.testParseExpression(seq, queryModel), rangeIndexedMetadata, null, rangeIndexedMetadata.getTimestampIndex());
+    }
+
     private void testBadOperator(String op) {
         try {
             modelOf("sum(ts) " + op);
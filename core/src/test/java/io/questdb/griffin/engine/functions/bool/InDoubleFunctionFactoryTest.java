@@ -0,0 +1,72 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.functions.bool;
+
+import io.questdb.griffin.FunctionFactory;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.engine.AbstractFunctionFactoryTest;
+import org.junit.Test;
+
+public class InDoubleFunctionFactoryTest extends AbstractFunctionFactoryTest {
+    @Test
+    public void testBadConstant() {
+        assertFailure(15, "DOUBLE constant expected", 1.5, 3.0, "an");
+    }
+
+    @Test
+    public void testIntConstant() throws SqlException {
+        call(3.0, 1.5, 3).andAssert(true);
+    }
+
+    @Test
+    public void testNaN() throws SqlException {
+        call(Double.NaN, 1.5, Double.NaN).andAssert(true);
+    }
+
+    @Test
+    public void testNaNNoMatch() throws SqlException {
+        call(Double.NaN, 1.5, 3.0).andAssert(false);
+    }
+
+    @Test
+    public void testNegativeZero() throws SqlException {
+        call(0.0, 1.5, -0.0).andAssert(true);
+    }
+
+    @Test
+    public void testNoMatch() throws SqlException {
+        call(2.5, 1.5, 3.0).andAssert(false);
+    }
+
+    @Test
+    public void testTwoArgs() throws SqlException {
+        call(1.5, 1.5, 3.0).andAssert(true);
+    }
+
+    @Override
+    protected FunctionFactory getFunctionFactory() {
+        return new InDoubleFunctionFactory();
+    }
+}
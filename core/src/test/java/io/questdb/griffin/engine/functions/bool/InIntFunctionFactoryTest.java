@@ -0,0 +1,72 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.functions.bool;
+
+import io.questdb.griffin.FunctionFactory;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.engine.AbstractFunctionFactoryTest;
+import org.junit.Test;
+
+public class InIntFunctionFactoryTest extends AbstractFunctionFactoryTest {
+    @Test
+    public void testBadConstant() {
+        assertFailure(9, "INT constant expected", 10, 3, "an");
+    }
+
+    @Test
+    public void testLongConstant() throws SqlException {
+        call(10, 3L, 10L).andAssert(true);
+    }
+
+    @Test
+    public void testLongConstantOutOfRange() throws SqlException {
+        call(-1_294_967_296, 3_000_000_000L).andAssert(false);
+    }
+
+    @Test
+    public void testManyArgs() throws SqlException {
+        call(17, 1, 3, 5, 7, 11, 13, 17, 19, 23).andAssert(true);
+    }
+
+    @Test
+    public void testNoMatch() throws SqlException {
+        call(5, 1, 3).andAssert(false);
+    }
+
+    @Test
+    public void testTwoArgs() throws SqlException {
+        call(3, 1, 3).andAssert(true);
+    }
+
+    @Test
+    public void testZeroArgs() throws SqlException {
+        call(3).andAssert(false);
+    }
+
+    @Override
+    protected FunctionFactory getFunctionFactory() {
+        return new InIntFunctionFactory();
+    }
+}
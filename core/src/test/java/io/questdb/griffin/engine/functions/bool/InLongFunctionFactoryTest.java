@@ -0,0 +1,67 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.functions.bool;
+
+import io.questdb.griffin.FunctionFactory;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.engine.AbstractFunctionFactoryTest;
+import org.junit.Test;
+
+public class InLongFunctionFactoryTest extends AbstractFunctionFactoryTest {
+    @Test
+    public void testBadConstant() {
+        assertFailure(9, "LONG constant expected", 10L, 3L, "an");
+    }
+
+    @Test
+    public void testIntConstant() throws SqlException {
+        call(10L, 3, 10).andAssert(true);
+    }
+
+    @Test
+    public void testLargeValue() throws SqlException {
+        call(3_000_000_000L, 1L, 3_000_000_000L).andAssert(true);
+    }
+
+    @Test
+    public void testNoMatch() throws SqlException {
+        call(5L, 1L, 3L).andAssert(false);
+    }
+
+    @Test
+    public void testTwoArgs() throws SqlException {
+        call(3L, 1L, 3L).andAssert(true);
+    }
+
+    @Test
+    public void testZeroArgs() throws SqlException {
+        call(3L).andAssert(false);
+    }
+
+    @Override
+    protected FunctionFactory getFunctionFactory() {
+        return new InLongFunctionFactory();
+    }
+}
@@ -0,0 +1,86 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.functions.bool;
+
+import io.questdb.griffin.FunctionFactory;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.engine.AbstractFunctionFactoryTest;
+import org.junit.Test;
+
+public class InTimestampFunctionFactoryTest extends AbstractFunctionFactoryTest {
+    @Test
+    public void testBadConstant() {
+        assertFailure(15, "TIMESTAMP constant expected", 1_000_000L, 2_000_000L, 1.5);
+    }
+
+    @Test
+    public void testInvalidDate() {
+        assertFailure(15, "Invalid date", 1_000_000L, 2_000_000L, "2020-13-01");
+    }
+
+    @Test
+    public void testLongConstant() throws SqlException {
+        call(3_000_000L, 1_000_000L, 3_000_000L).andAssert(true);
+    }
+
+    @Test
+    public void testListPartialDate() throws SqlException {
+        // 1970-01-02T12:00:00.000000Z
+        call(129_600_000_000L, "1970-01-01T00:00:01.000Z", "1970-01-02", "1970-01-05").andAssert(true);
+    }
+
+    @Test
+    public void testListPartialDateNoMatch() throws SqlException {
+        // 1970-01-03T12:00:00.000000Z
+        call(216_000_000_000L, "1970-01-01T00:00:01.000Z", "1970-01-02", "1970-01-05").andAssert(false);
+    }
+
+    @Test
+    public void testNoMatch() throws SqlException {
+        call(2_000_000L, "1970-01-01T00:00:01.000Z", "1970-01-01T00:00:03.000Z").andAssert(false);
+    }
+
+    @Test
+    public void testNullConstant() {
+        assertFailure(34, "NULL is not allowed", 1_000_000L, "1970-01-01T00:00:01.000Z", null);
+    }
+
+    @Test
+    public void testPartialDate() throws SqlException {
+        // two values are a set too, 1970-01-02T12:00:00.000000Z is neither of the days
+        call(129_600_000_000L, "1970-01-01", "1970-01-03").andAssert(false);
+        call(129_600_000_000L, "1970-01-01", "1970-01-02").andAssert(true);
+    }
+
+    @Test
+    public void testStringConstant() throws SqlException {
+        call(3_000_000L, "1970-01-01T00:00:01.000Z", "1970-01-01T00:00:03.000000Z").andAssert(true);
+    }
+
+    @Override
+    protected FunctionFactory getFunctionFactory() {
+        return new InTimestampFunctionFactory();
+    }
+}
@@ -0,0 +1,104 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.functions.catalogue;
+
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.griffin.AbstractGriffinTest;
+import io.questdb.std.Chars;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Unsafe;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class MemoryMetricsFunctionFactoryTest extends AbstractGriffinTest {
+
+    @Test
+    public void testMemUsed() throws Exception {
+        assertMemoryLeak(() -> {
+            try (RecordCursorFactory factory = compiler.compile("memory_metrics()").getRecordCursorFactory()) {
+                final long before = getMemUsed(factory, "NATIVE_INDEX");
+                final long ptr = Unsafe.malloc(1024, MemoryTag.NATIVE_INDEX);
+                try {
+                    Assert.assertEquals(before + 1024, getMemUsed(factory, "NATIVE_INDEX"));
+                } finally {
+                    Unsafe.free(ptr, 1024, MemoryTag.NATIVE_INDEX);
+                }
+                Assert.assertEquals(before, getMemUsed(factory, "NATIVE_INDEX"));
+            }
+        });
+    }
+
+    @Test
+    public void testSqlMemoryIsReleased() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile("create table x as (select rnd_symbol('a','b','c') s, rnd_double() d from long_sequence(1000))");
+            final long before = Unsafe.getMemUsedByTag(MemoryTag.NATIVE_SQL);
+            try (RecordCursorFactory factory = compiler.compile("select s, sum(d) from x order by s").getRecordCursorFactory()) {
+                try (RecordCursor cursor = factory.getCursor(sqlExecutionContext)) {
+                    Assert.assertTrue(cursor.hasNext());
+                    Assert.assertTrue(Unsafe.getMemUsedByTag(MemoryTag.NATIVE_SQL) > before);
+                }
+            }
+            Assert.assertEquals(before, Unsafe.getMemUsedByTag(MemoryTag.NATIVE_SQL));
+        });
+    }
+
+    @Test
+    public void testTags() throws Exception {
+        assertMemoryLeak(() -> {
+            sink.clear();
+            try (RecordCursorFactory factory = compiler.compile("select tag from memory_metrics()").getRecordCursorFactory()) {
+                try (RecordCursor cursor = factory.getCursor(sqlExecutionContext)) {
+                    printer.print(cursor, factory.getMetadata(), true);
+                }
+            }
+            TestUtils.assertEquals(
+                    "tag\n" +
+                            "NATIVE_DEFAULT\n" +
+                            "NATIVE_SQL\n" +
+                            "NATIVE_INGEST\n" +
+                            "NATIVE_INDEX\n" +
+                            "NATIVE_NETWORK\n",
+                    sink
+            );
+        });
+    }
+
+    private static long getMemUsed(RecordCursorFactory factory, CharSequence tag) {
+        try (RecordCursor cursor = factory.getCursor(sqlExecutionContext)) {
+            final Record record = cursor.getRecord();
+            while (cursor.hasNext()) {
+                if (Chars.equals(tag, record.getStr(0))) {
+                    return record.getLong(1);
+                }
+            }
+        }
+        Assert.fail("tag not found: " + tag);
+        return -1;
+    }
+}
@@ -0,0 +1,227 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.functions.groupby;
+
+import io.questdb.cairo.ArrayColumnTypes;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.TableWriter;
+import io.questdb.cairo.map.FastMap;
+import io.questdb.cairo.map.MapKey;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.griffin.AbstractGriffinTest;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.engine.functions.rnd.SharedRandom;
+import io.questdb.std.Hash;
+import io.questdb.std.Rnd;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ApproxCountDistinctGroupByFunctionFactoryTest extends AbstractGriffinTest {
+
+    @Before
+    public void setUp3() {
+        SharedRandom.RANDOM.set(new Rnd());
+    }
+
+    @Test
+    public void testAllNull() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile("create table x (l long)", sqlExecutionContext);
+            try (TableWriter w = engine.getWriter(sqlExecutionContext.getCairoSecurityContext(), "x")) {
+                for (int i = 0; i < 100; i++) {
+                    w.newRow().append();
+                }
+                w.commit();
+            }
+            Assert.assertEquals(0, queryLong("select approx_count_distinct(l) from x"));
+        });
+    }
+
+    @Test
+    public void testInt() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            assertEstimate("i", 0.05);
+        });
+    }
+
+    @Test
+    public void testInvalidPrecision() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            try {
+                compiler.compile("select approx_count_distinct(l, 20) from x", sqlExecutionContext);
+                Assert.fail();
+            } catch (SqlException e) {
+                Assert.assertEquals(32, e.getPosition());
+                TestUtils.assertContains(e.getMessage(), "precision must be between 4 and 14");
+            }
+        });
+    }
+
+    @Test
+    public void testLong() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            assertEstimate("l", 0.05);
+        });
+    }
+
+    @Test
+    public void testLowCardinality() throws Exception {
+        // small sets are estimated by linear counting, which is exact in practice
+        assertMemoryLeak(() -> {
+            createTable();
+            Assert.assertEquals(37, queryLong("select approx_count_distinct(to_int(l % 37)) from x"));
+        });
+    }
+
+    @Test
+    public void testMerge() {
+        final ArrayColumnTypes keyTypes = new ArrayColumnTypes().add(ColumnType.INT);
+        final ArrayColumnTypes valueTypes = new ArrayColumnTypes();
+        HyperLogLog.pushValueTypes(valueTypes, HyperLogLog.DEFAULT_PRECISION);
+
+        try (FastMap map = new FastMap(1024 * 1024, keyTypes, valueTypes, 16, 0.5)) {
+            // two sketches of overlapping sets, 0..5999 and 4000..9999
+            MapKey key = map.withKey();
+            key.putInt(0);
+            final MapValue a = key.createValue();
+            HyperLogLog.clear(a, 0, HyperLogLog.DEFAULT_PRECISION);
+            for (long i = 0; i < 6000; i++) {
+                HyperLogLog.add(a, 0, HyperLogLog.DEFAULT_PRECISION, Hash.fmix64(i));
+            }
+
+            key = map.withKey();
+            key.putInt(1);
+            final MapValue b = key.createValue();
+            HyperLogLog.clear(b, 0, HyperLogLog.DEFAULT_PRECISION);
+            for (long i = 4000; i < 10000; i++) {
+                HyperLogLog.add(b, 0, HyperLogLog.DEFAULT_PRECISION, Hash.fmix64(i));
+            }
+
+            final RecordCursor cursor = map.getCursor();
+            final Record record = cursor.getRecord();
+            Assert.assertTrue(cursor.hasNext());
+
+            key = map.withKey();
+            key.putInt(1);
+            final MapValue merged = key.findValue();
+            Assert.assertNotNull(merged);
+            HyperLogLog.merge(merged, 0, record, 0, HyperLogLog.DEFAULT_PRECISION);
+
+            Assert.assertTrue(cursor.hasNext());
+            assertWithin(10000, HyperLogLog.estimate(record, 0, HyperLogLog.DEFAULT_PRECISION), 0.05);
+        }
+    }
+
+    @Test
+    public void testPrecision() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            assertWithin(
+                    queryLong("select count() from (select distinct l from x)"),
+                    queryLong("select approx_count_distinct(l, 14) from x"),
+                    0.02
+            );
+        });
+    }
+
+    @Test
+    public void testSampleBy() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            assertQuery(
+                    "ts\tapprox_count_distinct\n" +
+                            "1970-01-01T00:00:00.000000Z\t37\n" +
+                            "1970-01-02T00:00:00.000000Z\t37\n" +
+                            "1970-01-03T00:00:00.000000Z\t37\n",
+                    "select ts, approx_count_distinct(to_int(l % 37)) from x sample by 1d",
+                    "ts",
+                    false
+            );
+        });
+    }
+
+    @Test
+    public void testStr() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            assertEstimate("s", 0.05);
+        });
+    }
+
+    @Test
+    public void testSymbol() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            assertEstimate("k", 0.05);
+        });
+    }
+
+    private static void assertEstimate(String column, double tolerance) throws SqlException {
+        assertWithin(
+                queryLong("select count() from (select distinct " + column + " from x)"),
+                queryLong("select approx_count_distinct(" + column + ") from x"),
+                tolerance
+        );
+    }
+
+    private static void assertWithin(long expected, long actual, double tolerance) {
+        Assert.assertTrue("expected " + expected + ", actual " + actual, Math.abs(expected - actual) <= expected * tolerance);
+    }
+
+    private static long queryLong(String query) throws SqlException {
+        try (
+                RecordCursorFactory factory = compiler.compile(query, sqlExecutionContext).getRecordCursorFactory();
+                RecordCursor cursor = factory.getCursor(sqlExecutionContext)
+        ) {
+            Assert.assertTrue(cursor.hasNext());
+            final long value = cursor.getRecord().getLong(0);
+            Assert.assertFalse(cursor.hasNext());
+            return value;
+        }
+    }
+
+    private void createTable() throws SqlException {
+        compiler.compile(
+                "create table x as (" +
+                        "select" +
+                        " x l," +
+                        " to_int(x % 20000) i," +
+                        " rnd_str(3, 6, 10) s," +
+                        " rnd_symbol(3000, 4, 8, 10) k," +
+                        " timestamp_sequence(0, 2000000) ts" +
+                        " from long_sequence(100000)" +
+                        ") timestamp(ts)",
+                sqlExecutionContext
+        );
+    }
+}
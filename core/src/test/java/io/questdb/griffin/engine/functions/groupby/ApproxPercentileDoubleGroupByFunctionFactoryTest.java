@@ -0,0 +1,250 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.functions.groupby;
+
+import io.questdb.cairo.ArrayColumnTypes;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.TableWriter;
+import io.questdb.cairo.map.FastMap;
+import io.questdb.cairo.map.MapKey;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.griffin.AbstractGriffinTest;
+import io.questdb.griffin.SqlException;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ApproxPercentileDoubleGroupByFunctionFactoryTest extends AbstractGriffinTest {
+
+    @Test
+    public void testAllNull() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile("create table x (d double)", sqlExecutionContext);
+            try (TableWriter w = engine.getWriter(sqlExecutionContext.getCairoSecurityContext(), "x")) {
+                for (int i = 0; i < 100; i++) {
+                    w.newRow().append();
+                }
+                w.commit();
+            }
+            Assert.assertTrue(Double.isNaN(queryDouble("select approx_median(d) from x")));
+        });
+    }
+
+    @Test
+    public void testClearReusedValue() {
+        final ArrayColumnTypes keyTypes = new ArrayColumnTypes().add(ColumnType.INT);
+        final ArrayColumnTypes valueTypes = new ArrayColumnTypes();
+        DDSketch.pushValueTypes(valueTypes);
+
+        try (FastMap map = new FastMap(1024 * 1024, keyTypes, valueTypes, 16, 0.5)) {
+            // leave counts in every bucket of both stores
+            MapKey key = map.withKey();
+            key.putInt(0);
+            MapValue value = key.createValue();
+            DDSketch.clear(value, 0);
+            for (int i = 1; i <= 100000; i++) {
+                DDSketch.add(value, 0, i * 1.0 * i * i * i);
+                DDSketch.add(value, 0, -i * 1.0 * i * i * i);
+            }
+
+            // cleared sketch must not see counts of the previous one, whichever buckets it comes to use
+            map.clear();
+            key = map.withKey();
+            key.putInt(0);
+            value = key.createValue();
+            DDSketch.clear(value, 0);
+            DDSketch.add(value, 0, 10);
+            DDSketch.add(value, 0, 3);
+            DDSketch.add(value, 0, 1000);
+            DDSketch.add(value, 0, 1e8);
+            DDSketch.add(value, 0, -5);
+
+            final RecordCursor cursor = map.getCursor();
+            final Record record = cursor.getRecord();
+            Assert.assertTrue(cursor.hasNext());
+            Assert.assertEquals(-5, DDSketch.quantile(record, 0, 0), 0);
+            assertWithin(3, DDSketch.quantile(record, 0, 0.25));
+            assertWithin(10, DDSketch.quantile(record, 0, 0.5));
+            assertWithin(1000, DDSketch.quantile(record, 0, 0.75));
+            Assert.assertEquals(1e8, DDSketch.quantile(record, 0, 1), 0);
+        }
+    }
+
+    @Test
+    public void testInvalidPercentile() throws Exception {
+        assertMemoryLeak(() -> {
+            try {
+                compiler.compile("select approx_percentile(x, 1.5) from long_sequence(10)", sqlExecutionContext);
+                Assert.fail();
+            } catch (SqlException e) {
+                Assert.assertEquals(28, e.getPosition());
+                TestUtils.assertContains(e.getMessage(), "percentile must be between 0 and 1");
+            }
+        });
+    }
+
+    @Test
+    public void testMedian() throws Exception {
+        assertMemoryLeak(() -> assertWithin(50000, queryDouble("select approx_median(x) from long_sequence(100000)")));
+    }
+
+    @Test
+    public void testMerge() {
+        final ArrayColumnTypes keyTypes = new ArrayColumnTypes().add(ColumnType.INT);
+        final ArrayColumnTypes valueTypes = new ArrayColumnTypes();
+        DDSketch.pushValueTypes(valueTypes);
+
+        try (FastMap map = new FastMap(1024 * 1024, keyTypes, valueTypes, 16, 0.5)) {
+            // 1..1000 and 1001..100000 in separate sketches, ranges are far apart
+            MapKey key = map.withKey();
+            key.putInt(0);
+            final MapValue a = key.createValue();
+            DDSketch.clear(a, 0);
+            for (int i = 1; i <= 1000; i++) {
+                DDSketch.add(a, 0, i);
+            }
+
+            key = map.withKey();
+            key.putInt(1);
+            final MapValue b = key.createValue();
+            DDSketch.clear(b, 0);
+            for (int i = 1001; i <= 100000; i++) {
+                DDSketch.add(b, 0, i);
+            }
+
+            final RecordCursor cursor = map.getCursor();
+            final Record record = cursor.getRecord();
+            Assert.assertTrue(cursor.hasNext());
+
+            key = map.withKey();
+            key.putInt(1);
+            final MapValue merged = key.findValue();
+            Assert.assertNotNull(merged);
+            DDSketch.merge(merged, 0, record, 0);
+
+            Assert.assertTrue(cursor.hasNext());
+            Assert.assertEquals(1, DDSketch.quantile(record, 0, 0), 0);
+            assertWithin(500, DDSketch.quantile(record, 0, 0.005));
+            assertWithin(50000, DDSketch.quantile(record, 0, 0.5));
+            Assert.assertEquals(100000, DDSketch.quantile(record, 0, 1), 0);
+        }
+    }
+
+    @Test
+    public void testNaNPercentile() throws Exception {
+        assertMemoryLeak(() -> {
+            try {
+                compiler.compile("select approx_percentile(x, NaN) from long_sequence(10)", sqlExecutionContext);
+                Assert.fail();
+            } catch (SqlException e) {
+                Assert.assertEquals(28, e.getPosition());
+                TestUtils.assertContains(e.getMessage(), "percentile must be between 0 and 1");
+            }
+        });
+    }
+
+    @Test
+    public void testNegative() throws Exception {
+        // values -49..50, negative values are bucketed by magnitude
+        assertMemoryLeak(() -> {
+            Assert.assertEquals(-49, queryDouble("select approx_percentile(x - 50.0, 0.0) from long_sequence(100)"), 0);
+            assertWithin(-40, queryDouble("select approx_percentile(x - 50.0, 0.1) from long_sequence(100)"));
+            assertWithin(-30, queryDouble("select approx_percentile(x - 50.0, 0.2) from long_sequence(100)"));
+            assertWithin(31, queryDouble("select approx_percentile(x - 50.0, 0.8) from long_sequence(100)"));
+            assertWithin(-50000, queryDouble("select approx_median(0.0 - x) from long_sequence(100000)"));
+            assertWithin(-1000, queryDouble("select approx_percentile(0.0 - x, 0.99) from long_sequence(100000)"));
+        });
+    }
+
+    @Test
+    public void testPercentiles() throws Exception {
+        assertMemoryLeak(() -> {
+            Assert.assertEquals(1, queryDouble("select approx_percentile(x, 0.0) from long_sequence(100000)"), 0);
+            assertWithin(90000, queryDouble("select approx_percentile(x, 0.9) from long_sequence(100000)"));
+            assertWithin(99000, queryDouble("select approx_percentile(x, 0.99) from long_sequence(100000)"));
+            assertWithin(99900, queryDouble("select approx_percentile(x, 0.999) from long_sequence(100000)"));
+            Assert.assertEquals(100000, queryDouble("select approx_percentile(x, 1.0) from long_sequence(100000)"), 0);
+        });
+    }
+
+    @Test
+    public void testSampleBy() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile(
+                    "create table x as (select x % 2 k, x * 1.0 d, timestamp_sequence(0, 1000000) ts from long_sequence(7200)) timestamp(ts)",
+                    sqlExecutionContext
+            );
+            assertQuery(
+                    "k\tts\tapprox_percentile\n" +
+                            "1\t1970-01-01T00:00:00.000000Z\t1.000000000000\n" +
+                            "0\t1970-01-01T00:00:00.000000Z\t2.000000000000\n" +
+                            "1\t1970-01-01T01:00:00.000000Z\t3601.000000000000\n" +
+                            "0\t1970-01-01T01:00:00.000000Z\t3602.000000000000\n",
+                    "select k, ts, approx_percentile(d, 0) from x sample by 1h",
+                    "ts",
+                    false
+            );
+        });
+    }
+
+    @Test
+    public void testZero() throws Exception {
+        // zeros are counted exactly
+        assertMemoryLeak(() -> {
+            Assert.assertEquals(0, queryDouble("select approx_percentile(x - 50.0, 0.5) from long_sequence(100)"), 0);
+            Assert.assertEquals(0, queryDouble("select approx_median(x % 3 - 1.0) from long_sequence(100)"), 0);
+        });
+    }
+
+    @Test
+    public void testWideRange() throws Exception {
+        // values span more buckets than sketch holds, lowest buckets collapse and high quantiles stay accurate
+        assertMemoryLeak(() -> {
+            final String values = "select approx_percentile(x * 1.0 * x * x * x, %s) from long_sequence(100000)";
+            assertWithin(Math.pow(99000, 4), queryDouble(String.format(values, "0.99")));
+            assertWithin(Math.pow(50000, 4), queryDouble(String.format(values, "0.5")));
+            Assert.assertEquals(1, queryDouble(String.format(values, "0.0")), 0);
+        });
+    }
+
+    private static void assertWithin(double expected, double actual) {
+        Assert.assertTrue("expected " + expected + ", actual " + actual, Math.abs(expected - actual) <= Math.abs(expected) * DDSketch.RELATIVE_ACCURACY);
+    }
+
+    private static double queryDouble(String query) throws SqlException {
+        try (
+                RecordCursorFactory factory = compiler.compile(query, sqlExecutionContext).getRecordCursorFactory();
+                RecordCursor cursor = factory.getCursor(sqlExecutionContext)
+        ) {
+            Assert.assertTrue(cursor.hasNext());
+            final double value = cursor.getRecord().getDouble(0);
+            Assert.assertFalse(cursor.hasNext());
+            return value;
+        }
+    }
+}
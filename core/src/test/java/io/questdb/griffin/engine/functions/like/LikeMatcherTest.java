@@ -0,0 +1,139 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.functions.like;
+
+import io.questdb.griffin.SqlException;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class LikeMatcherTest {
+
+    @Test
+    public void testContains() throws SqlException {
+        LikeMatcher matcher = assertKind(LikeMatcher.Contains.class, "%aab%");
+        Assert.assertTrue(matcher.matches("aab"));
+        Assert.assertTrue(matcher.matches("xaaab"));
+        Assert.assertTrue(matcher.matches("abaabx"));
+        Assert.assertFalse(matcher.matches("abab"));
+        Assert.assertFalse(matcher.matches("aa"));
+    }
+
+    @Test
+    public void testContainsCharactersSharingLowByte() throws SqlException {
+        // 'A' and 'Ł' have the same low byte and share shift table slot
+        LikeMatcher matcher = assertKind(LikeMatcher.Contains.class, "%AŁx%");
+        Assert.assertTrue(matcher.matches("ŁŁAŁx"));
+        Assert.assertFalse(matcher.matches("ŁŁAAx"));
+    }
+
+    @Test
+    public void testEmptyPattern() throws SqlException {
+        LikeMatcher matcher = assertKind(LikeMatcher.Exact.class, "");
+        Assert.assertTrue(matcher.matches(""));
+        Assert.assertFalse(matcher.matches("a"));
+    }
+
+    @Test
+    public void testEscapedWildcardsAreLiterals() throws SqlException {
+        LikeMatcher matcher = assertKind(LikeMatcher.Prefix.class, "a\\%\\_\\\\%");
+        Assert.assertTrue(matcher.matches("a%_\\xyz"));
+        Assert.assertFalse(matcher.matches("ab_\\xyz"));
+    }
+
+    @Test
+    public void testExact() throws SqlException {
+        LikeMatcher matcher = assertKind(LikeMatcher.Exact.class, "abc");
+        Assert.assertTrue(matcher.matches("abc"));
+        Assert.assertFalse(matcher.matches("abcd"));
+        Assert.assertFalse(matcher.matches("ABC"));
+    }
+
+    @Test
+    public void testIgnoreCase() throws SqlException {
+        LikeMatcher matcher = LikeMatcher.compile("%Ab%", true, 0);
+        Assert.assertTrue(matcher.matches("xaBx"));
+        Assert.assertTrue(matcher.matches("AB"));
+        Assert.assertFalse(matcher.matches("A B"));
+    }
+
+    @Test
+    public void testMatchAll() throws SqlException {
+        LikeMatcher matcher = assertKind(LikeMatcher.Prefix.class, "%%");
+        Assert.assertTrue(matcher.matches(""));
+        Assert.assertTrue(matcher.matches("abc"));
+    }
+
+    @Test
+    public void testPatternEndsWithEscape() {
+        try {
+            LikeMatcher.compile("ab\\", false, 10);
+            Assert.fail();
+        } catch (SqlException e) {
+            Assert.assertEquals(13, e.getPosition());
+        }
+    }
+
+    @Test
+    public void testPrefix() throws SqlException {
+        LikeMatcher matcher = assertKind(LikeMatcher.Prefix.class, "ab%");
+        Assert.assertTrue(matcher.matches("ab"));
+        Assert.assertTrue(matcher.matches("abc"));
+        Assert.assertFalse(matcher.matches("a"));
+        Assert.assertFalse(matcher.matches("cab"));
+    }
+
+    @Test
+    public void testSuffix() throws SqlException {
+        LikeMatcher matcher = assertKind(LikeMatcher.Suffix.class, "%ab");
+        Assert.assertTrue(matcher.matches("ab"));
+        Assert.assertTrue(matcher.matches("cab"));
+        Assert.assertFalse(matcher.matches("b"));
+        Assert.assertFalse(matcher.matches("abc"));
+    }
+
+    @Test
+    public void testWildcard() throws SqlException {
+        LikeMatcher matcher = assertKind(LikeMatcher.Wildcard.class, "a%b_c%");
+        Assert.assertTrue(matcher.matches("abxc"));
+        Assert.assertTrue(matcher.matches("aXbXbYcZ"));
+        Assert.assertFalse(matcher.matches("abc"));
+        Assert.assertFalse(matcher.matches("xabxc"));
+    }
+
+    @Test
+    public void testWildcardBacktracking() throws SqlException {
+        LikeMatcher matcher = assertKind(LikeMatcher.Wildcard.class, "%a%ab%b");
+        Assert.assertTrue(matcher.matches("aaabb"));
+        Assert.assertTrue(matcher.matches("xaxabxb"));
+        Assert.assertFalse(matcher.matches("aabba"));
+        Assert.assertFalse(matcher.matches("ab"));
+    }
+
+    private static LikeMatcher assertKind(Class<?> expected, CharSequence pattern) throws SqlException {
+        LikeMatcher matcher = LikeMatcher.compile(pattern, false, 0);
+        Assert.assertEquals(expected, matcher.getClass());
+        return matcher;
+    }
+}
@@ -0,0 +1,136 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.functions.like;
+
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.griffin.AbstractGriffinTest;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.engine.functions.rnd.SharedRandom;
+import io.questdb.std.Rnd;
+import io.questdb.std.str.StringSink;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class LikeStrFunctionFactoryTest extends AbstractGriffinTest {
+
+    @Before
+    public void setUp3() {
+        SharedRandom.RANDOM.set(new Rnd());
+    }
+
+    @Test
+    public void testContains() throws Exception {
+        assertSameAsRegex("name like '%XJ%'", "name ~= 'XJ'");
+    }
+
+    @Test
+    public void testEscape() throws Exception {
+        assertQuery(
+                "s\n" +
+                        "a%b\n" +
+                        "a_b\n" +
+                        "a_b\n",
+                "x where s like 'a\\%b' or s like 'a\\_b'",
+                "create table x as (select rnd_str('a%b', 'a_b', 'axb', 'ab') s from long_sequence(6))",
+                null,
+                true
+        );
+    }
+
+    @Test
+    public void testExact() throws Exception {
+        assertSameAsRegex("name like 'XJ'", "name ~= '^XJ$'");
+    }
+
+    @Test
+    public void testIgnoreCase() throws Exception {
+        assertSameAsRegex("name ilike '%xj%'", "name ~= '(?i)xj'");
+    }
+
+    @Test
+    public void testIgnoreCaseWildcard() throws Exception {
+        assertSameAsRegex("name ilike 'x_j%'", "name ~= '(?i)^x.j'");
+    }
+
+    @Test
+    public void testNullPattern() throws Exception {
+        assertFailure(
+                "x where s like null",
+                "create table x as (select rnd_str('abc', 'xyz') s from long_sequence(5))",
+                15,
+                "NULL pattern"
+        );
+    }
+
+    @Test
+    public void testPatternEndsWithEscape() throws Exception {
+        assertFailure(
+                "x where s like 'ab\\'",
+                "create table x as (select rnd_str('abc', 'xyz') s from long_sequence(5))",
+                18,
+                "must not end with escape character"
+        );
+    }
+
+    @Test
+    public void testPrefix() throws Exception {
+        assertSameAsRegex("name like 'XJ%'", "name ~= '^XJ'");
+    }
+
+    @Test
+    public void testSuffix() throws Exception {
+        assertSameAsRegex("name like '%XJ'", "name ~= 'XJ$'");
+    }
+
+    @Test
+    public void testWildcard() throws Exception {
+        assertSameAsRegex("name like '%X%J_'", "name ~= 'X.*J.$'");
+    }
+
+    private void assertSameAsRegex(String like, String regex) throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile("create table x as (select rnd_str(1, 5, 4) name from long_sequence(10000))", sqlExecutionContext);
+            final String expected = select("x where " + regex);
+            Assert.assertTrue(expected.length() > "name\n".length());
+            TestUtils.assertEquals(expected, select("x where " + like));
+        });
+    }
+
+    private String select(String query) throws SqlException {
+        try (
+                RecordCursorFactory factory = compiler.compile(query, sqlExecutionContext).getRecordCursorFactory();
+                RecordCursor cursor = factory.getCursor(sqlExecutionContext)
+        ) {
+            sink.clear();
+            printer.print(cursor, factory.getMetadata(), true);
+            final StringSink copy = new StringSink();
+            copy.put(sink);
+            return copy.toString();
+        }
+    }
+}
@@ -0,0 +1,95 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.functions.like;
+
+import io.questdb.griffin.AbstractGriffinTest;
+import io.questdb.griffin.engine.functions.rnd.SharedRandom;
+import io.questdb.std.Rnd;
+import org.junit.Before;
+import org.junit.Test;
+
+public class LikeSymFunctionFactoryTest extends AbstractGriffinTest {
+
+    @Before
+    public void setUp3() {
+        SharedRandom.RANDOM.set(new Rnd());
+    }
+
+    @Test
+    public void testColumn() throws Exception {
+        assertQuery(
+                "i\ts\n" +
+                        "1\tabc\n" +
+                        "2\tabd\n" +
+                        "7\tabd\n" +
+                        "9\tabd\n" +
+                        "10\tabc\n" +
+                        "11\tabc\n" +
+                        "12\tabc\n" +
+                        "13\tabd\n" +
+                        "16\tabc\n" +
+                        "17\tabc\n" +
+                        "20\tabd\n",
+                "x where s like 'ab%'",
+                "create table x as (select to_int(x) i, rnd_symbol('abc', 'xyz', 'abd', null) s from long_sequence(20))",
+                null,
+                "insert into x select to_int(x + 20), 'abe' from long_sequence(1)",
+                "i\ts\n" +
+                        "1\tabc\n" +
+                        "2\tabd\n" +
+                        "7\tabd\n" +
+                        "9\tabd\n" +
+                        "10\tabc\n" +
+                        "11\tabc\n" +
+                        "12\tabc\n" +
+                        "13\tabd\n" +
+                        "16\tabc\n" +
+                        "17\tabc\n" +
+                        "20\tabd\n" +
+                        "21\tabe\n"
+        );
+    }
+
+    @Test
+    public void testIgnoreCase() throws Exception {
+        assertQuery(
+                "i\ts\n" +
+                        "1\tabc\n" +
+                        "2\tABD\n" +
+                        "7\tABD\n" +
+                        "9\tABD\n" +
+                        "10\tabc\n" +
+                        "11\tabc\n" +
+                        "12\tabc\n" +
+                        "13\tABD\n" +
+                        "16\tabc\n" +
+                        "17\tabc\n" +
+                        "20\tABD\n",
+                "x where s ilike '%B_'",
+                "create table x as (select to_int(x) i, rnd_symbol('abc', 'XYZ', 'ABD', null) s from long_sequence(20))",
+                null
+        );
+    }
+}
@@ -0,0 +1,80 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.functions.regex;
+
+import io.questdb.griffin.AbstractGriffinTest;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.engine.functions.rnd.SharedRandom;
+import io.questdb.std.Rnd;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class MatchSymFunctionFactoryTest extends AbstractGriffinTest {
+
+    @Before
+    public void setUp3() {
+        SharedRandom.RANDOM.set(new Rnd());
+    }
+
+    @Test
+    public void testNullRegex() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile("create table x as (select rnd_symbol('abc', 'xyz') s from long_sequence(20))", sqlExecutionContext);
+            try {
+                compiler.compile("select * from x where s ~= null", sqlExecutionContext);
+                Assert.fail();
+            } catch (SqlException e) {
+                Assert.assertEquals(27, e.getPosition());
+                TestUtils.assertContains(e.getFlyweightMessage(), "NULL regex");
+            }
+        });
+    }
+
+    @Test
+    public void testSimple() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile("create table x as (select to_int(x) i, rnd_symbol('abc', 'xyz', 'abd', null) s from long_sequence(20))", sqlExecutionContext);
+            assertQuery(
+                    "i\ts\n" +
+                            "1\tabc\n" +
+                            "2\tabd\n" +
+                            "7\tabd\n" +
+                            "9\tabd\n" +
+                            "10\tabc\n" +
+                            "11\tabc\n" +
+                            "12\tabc\n" +
+                            "13\tabd\n" +
+                            "16\tabc\n" +
+                            "17\tabc\n" +
+                            "20\tabd\n",
+                    "x where s ~= '^ab'",
+                    null,
+                    true
+            );
+        });
+    }
+}
@@ -0,0 +1,124 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.groupby;
+
+import io.questdb.cairo.TableWriter;
+import io.questdb.cairo.security.AllowAllCairoSecurityContext;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.griffin.AbstractGriffinTest;
+import io.questdb.griffin.engine.functions.rnd.SharedRandom;
+import io.questdb.std.Rnd;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class GroupBySymbolTest extends AbstractGriffinTest {
+
+    @Before
+    public void setUp3() {
+        SharedRandom.RANDOM.set(new Rnd());
+    }
+
+    @Test
+    public void testFactorySelection() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile("create table x (s symbol, t symbol, v long)", sqlExecutionContext);
+            try (RecordCursorFactory factory = compiler.compile("select s, sum(v) from x", sqlExecutionContext).getRecordCursorFactory()) {
+                Assert.assertTrue(factory instanceof GroupBySymbolRecordCursorFactory);
+            }
+            try (RecordCursorFactory factory = compiler.compile("select s, t, sum(v) from x", sqlExecutionContext).getRecordCursorFactory()) {
+                Assert.assertTrue(factory instanceof GroupByRecordCursorFactory);
+            }
+            try (RecordCursorFactory factory = compiler.compile("select v, count() from x", sqlExecutionContext).getRecordCursorFactory()) {
+                Assert.assertTrue(factory instanceof GroupByRecordCursorFactory);
+            }
+        });
+    }
+
+    @Test
+    public void testGroupBySymbol() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile("create table x (s symbol, v long)", sqlExecutionContext);
+            append("a", 1, "a", 2, "b", 3, null, 4, "a", 5, "b", 6, "c", 7, "a", 8, null, 9);
+
+            try (RecordCursorFactory factory = compiler.compile("select s, count(), sum(v) from x", sqlExecutionContext).getRecordCursorFactory()) {
+                assertCursor(
+                        "s\tcount\tsum\n" +
+                                "a\t4\t16\n" +
+                                "b\t2\t9\n" +
+                                "\t2\t13\n" +
+                                "c\t1\t7\n",
+                        factory,
+                        true
+                );
+
+                // symbols added after factory was created grow the slot table
+                append("d", 10, "e", 11, "a", 12);
+                assertCursor(
+                        "s\tcount\tsum\n" +
+                                "a\t5\t28\n" +
+                                "b\t2\t9\n" +
+                                "\t2\t13\n" +
+                                "c\t1\t7\n" +
+                                "d\t1\t10\n" +
+                                "e\t1\t11\n",
+                        factory,
+                        true
+                );
+            }
+        });
+    }
+
+    @Test
+    public void testGroupBySymbolFiltered() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile("create table x (s symbol, v long)", sqlExecutionContext);
+            append("a", 1, "a", 2, "b", 3, null, 4, "a", 5, "b", 6, "c", 7, "a", 8, null, 9);
+
+            assertQuery(
+                    "s\tmax\n" +
+                            "\t9.000000000000\n" +
+                            "a\t8.000000000000\n" +
+                            "b\t6.000000000000\n" +
+                            "c\t7.000000000000\n",
+                    "select s, max(v) from x where v > 3",
+                    null,
+                    true
+            );
+        });
+    }
+
+    private static void append(Object... values) {
+        try (TableWriter w = engine.getWriter(AllowAllCairoSecurityContext.INSTANCE, "x")) {
+            for (int i = 0; i < values.length; i += 2) {
+                TableWriter.Row r = w.newRow(0);
+                r.putSym(0, (CharSequence) values[i]);
+                r.putLong(1, (Integer) values[i + 1]);
+                r.append();
+            }
+            w.commit();
+        }
+    }
+}
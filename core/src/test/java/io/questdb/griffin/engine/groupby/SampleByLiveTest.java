@@ -0,0 +1,242 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.groupby;
+
+import io.questdb.cairo.TableWriter;
+import io.questdb.cairo.security.AllowAllCairoSecurityContext;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.griffin.AbstractGriffinTest;
+import io.questdb.griffin.SqlException;
+import io.questdb.std.NumericException;
+import io.questdb.std.microtime.DateFormatUtils;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SampleByLiveTest extends AbstractGriffinTest {
+
+    @Test
+    public void testFilterNotSupported() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            assertFailure("select k, sum(a) from x where a > 1 sample by 1h", "live SAMPLE BY requires unfiltered table");
+        });
+    }
+
+    @Test
+    public void testFillNotSupported() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            assertFailure("select k, sum(a) from x sample by 1h fill(prev)", "live SAMPLE BY supports FILL(NONE) only");
+        });
+    }
+
+    @Test
+    public void testKeyed() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            try (RecordCursorFactory factory = compiler.compileLive("select k, ts, sum(a), count() from x sample by 1h", sqlExecutionContext)) {
+                assertPoll("k\tts\tsum\tcount\n", factory);
+
+                try (TableWriter w = engine.getWriter(AllowAllCairoSecurityContext.INSTANCE, "x")) {
+                    append(w, "a", 1, "2020-01-01T00:00:00.000000Z");
+                    append(w, "b", 2, "2020-01-01T00:10:00.000000Z");
+                    append(w, "a", 3, "2020-01-01T01:00:00.000000Z");
+                    w.commit();
+                }
+
+                assertPoll(
+                        "k\tts\tsum\tcount\n" +
+                                "a\t2020-01-01T00:00:00.000000Z\t1\t1\n" +
+                                "b\t2020-01-01T00:00:00.000000Z\t2\t1\n" +
+                                "a\t2020-01-01T01:00:00.000000Z\t3\t1\n",
+                        factory
+                );
+
+                // nothing has changed
+                assertPoll("k\tts\tsum\tcount\n", factory);
+
+                try (TableWriter w = engine.getWriter(AllowAllCairoSecurityContext.INSTANCE, "x")) {
+                    append(w, "b", 4, "2020-01-01T01:30:00.000000Z");
+                    append(w, "a", 5, "2020-01-01T01:40:00.000000Z");
+                    append(w, "c", 6, "2020-01-01T02:00:00.000000Z");
+                    w.commit();
+                }
+
+                // last bucket of previous poll is updated, earlier buckets are final
+                assertPoll(
+                        "k\tts\tsum\tcount\n" +
+                                "a\t2020-01-01T01:00:00.000000Z\t8\t2\n" +
+                                "b\t2020-01-01T01:00:00.000000Z\t4\t1\n" +
+                                "c\t2020-01-01T02:00:00.000000Z\t6\t1\n",
+                        factory
+                );
+            }
+        });
+    }
+
+    @Test
+    public void testNotSampleBy() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            assertFailure("select k, a from x", "live query must be SAMPLE BY");
+        });
+    }
+
+    @Test
+    public void testPartitions() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            try (TableWriter w = engine.getWriter(AllowAllCairoSecurityContext.INSTANCE, "x")) {
+                append(w, "a", 1, "2020-01-01T00:00:00.000000Z");
+                append(w, "a", 2, "2020-01-01T23:00:00.000000Z");
+                w.commit();
+            }
+
+            try (RecordCursorFactory factory = compiler.compileLive("select sum(a), ts from x sample by 2d", sqlExecutionContext)) {
+                assertPoll(
+                        "sum\tts\n" +
+                                "3\t2020-01-01T00:00:00.000000Z\n",
+                        factory
+                );
+
+                try (TableWriter w = engine.getWriter(AllowAllCairoSecurityContext.INSTANCE, "x")) {
+                    append(w, "a", 3, "2020-01-02T01:00:00.000000Z");
+                    append(w, "a", 4, "2020-01-03T01:00:00.000000Z");
+                    w.commit();
+                }
+
+                assertPoll(
+                        "sum\tts\n" +
+                                "6\t2020-01-01T00:00:00.000000Z\n" +
+                                "4\t2020-01-03T00:00:00.000000Z\n",
+                        factory
+                );
+            }
+        });
+    }
+
+    @Test
+    public void testReaderReleasedBetweenPolls() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            try (TableWriter w = engine.getWriter(AllowAllCairoSecurityContext.INSTANCE, "x")) {
+                append(w, "a", 1, "2020-01-01T00:00:00.000000Z");
+                w.commit();
+            }
+
+            try (RecordCursorFactory factory = compiler.compileLive("select ts, sum(a) from x sample by 1h", sqlExecutionContext)) {
+                assertPoll(
+                        "ts\tsum\n" +
+                                "2020-01-01T00:00:00.000000Z\t1\n",
+                        factory
+                );
+
+                // idle factory does not prevent exclusive access to the table
+                Assert.assertTrue(engine.lockReaders("x"));
+                engine.unlockReaders("x");
+
+                try (TableWriter w = engine.getWriter(AllowAllCairoSecurityContext.INSTANCE, "x")) {
+                    append(w, "a", 2, "2020-01-01T00:10:00.000000Z");
+                    append(w, "a", 3, "2020-01-01T01:10:00.000000Z");
+                    w.commit();
+                }
+
+                assertPoll(
+                        "ts\tsum\n" +
+                                "2020-01-01T00:00:00.000000Z\t3\n" +
+                                "2020-01-01T01:00:00.000000Z\t3\n",
+                        factory
+                );
+
+                assertPoll("ts\tsum\n", factory);
+            }
+        });
+    }
+
+    @Test
+    public void testTruncate() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            try (TableWriter w = engine.getWriter(AllowAllCairoSecurityContext.INSTANCE, "x")) {
+                append(w, "a", 1, "2020-01-01T00:00:00.000000Z");
+                append(w, "a", 2, "2020-01-01T00:30:00.000000Z");
+                w.commit();
+            }
+
+            try (RecordCursorFactory factory = compiler.compileLive("select ts, sum(a) from x sample by 1h", sqlExecutionContext)) {
+                assertPoll(
+                        "ts\tsum\n" +
+                                "2020-01-01T00:00:00.000000Z\t3\n",
+                        factory
+                );
+
+                try (TableWriter w = engine.getWriter(AllowAllCairoSecurityContext.INSTANCE, "x")) {
+                    w.truncate();
+                    append(w, "a", 10, "2020-01-01T00:40:00.000000Z");
+                    w.commit();
+                }
+
+                // state accumulated before truncate is discarded
+                assertPoll(
+                        "ts\tsum\n" +
+                                "2020-01-01T00:00:00.000000Z\t10\n",
+                        factory
+                );
+            }
+        });
+    }
+
+    private static void append(TableWriter w, String k, long a, String timestamp) throws NumericException {
+        TableWriter.Row r = w.newRow(DateFormatUtils.parseTimestamp(timestamp));
+        r.putSym(0, k);
+        r.putLong(1, a);
+        r.append();
+    }
+
+    private static void assertFailure(String query, String message) {
+        try {
+            compiler.compileLive(query, sqlExecutionContext);
+            Assert.fail();
+        } catch (SqlException e) {
+            TestUtils.assertContains(e.getMessage(), message);
+        }
+    }
+
+    private static void assertPoll(String expected, RecordCursorFactory factory) {
+        sink.clear();
+        try (RecordCursor cursor = factory.getCursor(sqlExecutionContext)) {
+            printer.print(cursor, factory.getMetadata(), true);
+        }
+        TestUtils.assertEquals(expected, sink);
+        // reader is not held between polls
+        Assert.assertEquals(0, engine.getBusyReaderCount());
+    }
+
+    private void createTable() throws SqlException {
+        compiler.compile("create table x (k symbol, a long, ts timestamp) timestamp(ts) partition by DAY", sqlExecutionContext);
+    }
+}
@@ -0,0 +1,273 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.groupby;
+
+import io.questdb.cairo.CairoEngine;
+import io.questdb.cairo.CairoWorkScheduler;
+import io.questdb.cairo.DefaultCairoConfiguration;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.griffin.AbstractGriffinTest;
+import io.questdb.griffin.SqlCompiler;
+import io.questdb.griffin.SqlException;
+import io.questdb.mp.*;
+import io.questdb.std.ObjHashSet;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SampleByParallelTest extends AbstractGriffinTest {
+
+    @Test
+    public void testApproxCountDistinct() throws Exception {
+        // 3 day buckets span partitions, tasks that share bucket merge sketches
+        assertParallel("select k, approx_count_distinct(i), approx_count_distinct(l), count() from x sample by 3d", 4);
+    }
+
+    @Test
+    public void testApproxCountDistinctKeyed() throws Exception {
+        assertParallel("select b, k, approx_count_distinct(l), sum(i), min(a), max(l) from x sample by 3d", 4);
+    }
+
+    @Test
+    public void testApproxPercentile() throws Exception {
+        assertParallel("select b, k, approx_percentile(a, 0.9), approx_median(a), count() from x sample by 3d", 4);
+    }
+
+    @Test
+    public void testBucketsStraddlePartitions() throws Exception {
+        // 5 hour buckets do not align with day partitions
+        assertParallel("select k, sum(a), min(a), max(a), count() from x sample by 5h", 4);
+    }
+
+    @Test
+    public void testKeyed() throws Exception {
+        assertParallel("select k, b, sum(a), count() from x sample by 3h", 4);
+    }
+
+    @Test
+    public void testKeyedBucketPerPartition() throws Exception {
+        assertParallel("select b, k, sum(a), min(a), max(a) from x sample by 1d", 4);
+    }
+
+    @Test
+    public void testMergeNewKeys() throws Exception {
+        // keys of shared bucket that only later task has seen are appended to bucket of earlier task
+        assertParallel("select l, k, count(), min(i) from x sample by 3d", 4);
+    }
+
+    @Test
+    public void testNoWorkers() throws Exception {
+        // tasks that are not picked up by workers are computed by query thread
+        assertParallel("select k, b, sum(a), count() from x sample by 1h", 0);
+    }
+
+    @Test
+    public void testNotThreadSafeArgument() throws Exception {
+        // arguments other than columns of fixed size types are not known to be thread-safe
+        assertSerial("select k, sum(a * 2), count() from x sample by 3h");
+    }
+
+    @Test
+    public void testNotThreadSafeFunction() throws Exception {
+        assertSerial("select k, approx_count_distinct(b) from x sample by 3h");
+    }
+
+    @Test
+    public void testSingleBucket() throws Exception {
+        // bucket spans all partitions, each task computes part of it
+        assertParallel("select k, sum(l), min(a), max(a), count() from x sample by 1y", 2);
+    }
+
+    @Test
+    public void testSingleBucketNotMergeable() throws Exception {
+        // all rows fall into single bucket, which cannot be split between tasks without merging
+        assertMemoryLeak(() -> {
+            createTable();
+            try (
+                    SampleByWorkScheduler workScheduler = new SampleByWorkScheduler(2);
+                    CairoEngine engine = new CairoEngine(new ParallelConfiguration());
+                    SqlCompiler compiler = new SqlCompiler(engine, workScheduler)
+            ) {
+                workScheduler.start();
+                try (
+                        RecordCursorFactory factory = compiler.compile("select k, isOrdered(l) from x sample by 1y", sqlExecutionContext).getRecordCursorFactory();
+                        RecordCursor cursor = factory.getCursor(sqlExecutionContext)
+                ) {
+                    Assert.assertFalse(cursor instanceof SampleByFillNoneParallelRecordCursor);
+                }
+            }
+        });
+    }
+
+    private void assertSerial(String query) throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            final String expected = print(compiler, query, false);
+            try (
+                    SampleByWorkScheduler workScheduler = new SampleByWorkScheduler(2);
+                    CairoEngine engine = new CairoEngine(new ParallelConfiguration());
+                    SqlCompiler compiler = new SqlCompiler(engine, workScheduler)
+            ) {
+                workScheduler.start();
+                TestUtils.assertEquals(expected, print(compiler, query, false));
+            }
+        });
+    }
+
+    private void assertParallel(String query, int workerCount) throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            final String expected = print(compiler, query, false);
+            try (
+                    SampleByWorkScheduler workScheduler = new SampleByWorkScheduler(workerCount);
+                    CairoEngine engine = new CairoEngine(new ParallelConfiguration());
+                    SqlCompiler compiler = new SqlCompiler(engine, workScheduler)
+            ) {
+                workScheduler.start();
+                TestUtils.assertEquals(expected, print(compiler, query, true));
+            }
+        });
+    }
+
+    private static void createTable() throws SqlException {
+        compiler.compile(
+                "create table x as " +
+                        "(" +
+                        "select" +
+                        " rnd_double(0)*100 a," +
+                        " rnd_symbol(5,4,4,1) b," +
+                        " timestamp_sequence(172800000000, 600000000) k," +
+                        " rnd_int(0, 50, 0) i," +
+                        " rnd_long(0, 300, 1) l" +
+                        " from" +
+                        " long_sequence(1000)" +
+                        ") timestamp(k) partition by DAY",
+                sqlExecutionContext
+        );
+    }
+
+    private static String print(SqlCompiler compiler, String query, boolean parallel) throws SqlException {
+        try (RecordCursorFactory factory = compiler.compile(query, sqlExecutionContext).getRecordCursorFactory()) {
+            // twice over, second time around task maps are reused
+            for (int i = 0; i < 2; i++) {
+                try (RecordCursor cursor = factory.getCursor(sqlExecutionContext)) {
+                    Assert.assertEquals(parallel, cursor instanceof SampleByFillNoneParallelRecordCursor);
+                    sink.clear();
+                    printer.print(cursor, factory.getMetadata(), true);
+                    // cursor must produce same result after rewind
+                    final String s = sink.toString();
+                    sink.clear();
+                    cursor.toTop();
+                    printer.print(cursor, factory.getMetadata(), true);
+                    TestUtils.assertEquals(s, sink);
+                }
+            }
+        }
+        return sink.toString();
+    }
+
+    private static class ParallelConfiguration extends DefaultCairoConfiguration {
+        public ParallelConfiguration() {
+            super(root);
+        }
+
+        @Override
+        public int getSqlSampleByParallelThreshold() {
+            return 1;
+        }
+    }
+
+    private static class SampleByWorkScheduler implements CairoWorkScheduler, AutoCloseable {
+        private final int workerCount;
+        private final SOCountDownLatch workerHaltLatch;
+        private final Worker[] workers;
+        private final RingQueue<SampleByEntry> sampleByQueue = new RingQueue<>(SampleByEntry::new, 16);
+        private final Sequence sampleByPubSeq = new MPSequence(16);
+        private final Sequence sampleBySubSeq = new MCSequence(16);
+        private final ObjHashSet<Job> jobs = new ObjHashSet<>();
+
+        private SampleByWorkScheduler(int workerCount) {
+            this.workerCount = workerCount;
+            this.workerHaltLatch = new SOCountDownLatch(workerCount);
+            this.workers = new Worker[workerCount];
+            sampleByPubSeq.then(sampleBySubSeq).then(sampleByPubSeq);
+            jobs.add(new SampleByJob(this));
+        }
+
+        @Override
+        public void addJob(Job job) {
+            jobs.add(job);
+        }
+
+        @Override
+        public void close() {
+            for (int i = 0; i < workerCount; i++) {
+                if (workers[i] != null) {
+                    workers[i].halt();
+                }
+            }
+            workerHaltLatch.await();
+        }
+
+        // engine is not given this scheduler, indexer queue is not used
+        @Override
+        public Sequence getIndexerPubSequence() {
+            return null;
+        }
+
+        @Override
+        public RingQueue getIndexerQueue() {
+            return null;
+        }
+
+        @Override
+        public Sequence getIndexerSubSequence() {
+            return null;
+        }
+
+        @Override
+        public Sequence getSampleByPubSequence() {
+            return sampleByPubSeq;
+        }
+
+        @Override
+        public RingQueue<SampleByEntry> getSampleByQueue() {
+            return sampleByQueue;
+        }
+
+        @Override
+        public Sequence getSampleBySubSequence() {
+            return sampleBySubSeq;
+        }
+
+        void start() {
+            for (int i = 0; i < workerCount; i++) {
+                workers[i] = new Worker(jobs, workerHaltLatch);
+                workers[i].start();
+            }
+        }
+    }
+}
@@ -1119,7 +1119,8 @@ public class SampleByTest extends AbstractGriffinTest {
                         ") timestamp(k) partition by NONE"));
 
                 FilesFacade ff = new FilesFacadeImpl() {
-                    int count = 2;
+                    // reader maps symbol tables lazily, fail on metadata to make reader construction fail
+                    int count = 1;
 
                     @Override
                     public long mmap(long fd, long len, long offset, int mode) {
@@ -0,0 +1,335 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.table;
+
+import io.questdb.cairo.CairoEngine;
+import io.questdb.cairo.CairoWorkScheduler;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.DefaultCairoConfiguration;
+import io.questdb.cairo.TableReader;
+import io.questdb.cairo.TableWriter;
+import io.questdb.cairo.security.AllowAllCairoSecurityContext;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.griffin.AbstractGriffinTest;
+import io.questdb.griffin.SqlCompiler;
+import io.questdb.griffin.SqlException;
+import io.questdb.mp.*;
+import io.questdb.std.ObjHashSet;
+import io.questdb.std.Rnd;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class LatestBySymbolTest extends AbstractGriffinTest {
+
+    @Test
+    public void testFilterMatchesNothing() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable(1);
+            try (
+                    LatestByWorkScheduler workScheduler = new LatestByWorkScheduler(2);
+                    CairoEngine engine = new CairoEngine(new ParallelConfiguration());
+                    SqlCompiler compiler = new SqlCompiler(engine, workScheduler)
+            ) {
+                workScheduler.start();
+                TestUtils.assertEquals("a\tb\tc\tk\n", print(compiler, "select * from x latest by b where b ~= 'zzz'"));
+            }
+        });
+    }
+
+    @Test
+    public void testFiltered() throws Exception {
+        // arbitrary filter is evaluated on query thread only
+        assertLatestBy("select * from x latest by b where a > 50", "select * from x latest by b, c where a > 50", 5, 4);
+    }
+
+    @Test
+    public void testKeyInOldestPartitionOnly() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile("create table x (a double, b symbol, c symbol, k timestamp) timestamp(k) partition by DAY", sqlExecutionContext);
+            try (TableWriter w = engine.getWriter(AllowAllCairoSecurityContext.INSTANCE, "x")) {
+                // key of the oldest row does not repeat, scan must not stop before it reaches that row
+                append(w, 0, 42, "OLDEST");
+                final Rnd rnd = new Rnd();
+                for (int i = 0; i < 1000; i++) {
+                    append(w, 172800000000L + i * 600000000L, rnd.nextDouble() * 100, rnd.nextBoolean() ? "AA" : "BB");
+                }
+                w.commit();
+            }
+            assertParallel("select * from x latest by b", "select * from x latest by b, c", 4);
+        });
+    }
+
+    @Test
+    public void testNoNulls() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable(0);
+            assertNullValue(false);
+            assertParallel("select * from x latest by b", "select * from x latest by b, c", 4);
+        });
+    }
+
+    @Test
+    public void testNullInAddedColumn() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile("create table x (a double, c symbol, k timestamp) timestamp(k) partition by DAY", sqlExecutionContext);
+            try (TableWriter w = engine.getWriter(AllowAllCairoSecurityContext.INSTANCE, "x")) {
+                TableWriter.Row r = w.newRow(0);
+                r.putDouble(0, 1);
+                r.putSym(1, "x");
+                r.append();
+                w.commit();
+
+                // existing row has null value in new column
+                w.addColumn("b", ColumnType.SYMBOL);
+                r = w.newRow(1);
+                r.putDouble(0, 2);
+                r.putSym(1, "x");
+                r.putSym(3, "AA");
+                r.append();
+                w.commit();
+            }
+            assertNullValue(true);
+            TestUtils.assertEquals(
+                    "a\tc\tk\tb\n" +
+                            "1.000000000000\tx\t1970-01-01T00:00:00.000000Z\t\n" +
+                            "2.000000000000\tx\t1970-01-01T00:00:00.000001Z\tAA\n",
+                    print(compiler, "select * from x latest by b")
+            );
+        });
+    }
+
+    @Test
+    public void testNullInOmittedValue() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile("create table x (a double, b symbol, c symbol, k timestamp) timestamp(k) partition by DAY", sqlExecutionContext);
+            try (TableWriter w = engine.getWriter(AllowAllCairoSecurityContext.INSTANCE, "x")) {
+                append(w, 0, 1, "AA");
+                // value of "b" is not set and written as null
+                TableWriter.Row r = w.newRow(1);
+                r.putDouble(0, 2);
+                r.append();
+                append(w, 2, 3, "AA");
+                w.commit();
+            }
+            assertNullValue(true);
+            assertParallel("select * from x latest by b", "select * from x latest by b, c", 4);
+        });
+    }
+
+    @Test
+    public void testNoWorkers() throws Exception {
+        // tasks that are not picked up by workers are computed by query thread
+        assertLatestBy("select * from x latest by b", "select * from x latest by b, c", 5, 0);
+    }
+
+    @Test
+    public void testNulls() throws Exception {
+        assertLatestBy("select * from x latest by b", "select * from x latest by b, c", 5, 4);
+    }
+
+    @Test
+    public void testSerial() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable(5);
+            TestUtils.assertEquals(
+                    print(compiler, "select * from x latest by b, c where b ~= '^[A-M]' or b = null"),
+                    print(compiler, "select * from x latest by b where b ~= '^[A-M]' or b = null")
+            );
+        });
+    }
+
+    @Test
+    public void testSymbolFilter() throws Exception {
+        assertLatestBy("select * from x latest by b where b ~= '^[A-M]'", "select * from x latest by b, c where b ~= '^[A-M]'", 5, 4);
+    }
+
+    @Test
+    public void testSymbolFilterAndOtherFilter() throws Exception {
+        assertLatestBy(
+                "select * from x latest by b where b ~= '^[A-M]' and a > 50",
+                "select * from x latest by b, c where b ~= '^[A-M]' and a > 50",
+                5,
+                4
+        );
+    }
+
+    @Test
+    public void testUnfiltered() throws Exception {
+        assertLatestBy("select * from x latest by b", "select * from x latest by b, c", 1, 4);
+    }
+
+    private void assertLatestBy(String query, String expectedQuery, int nullRate, int workerCount) throws Exception {
+        assertMemoryLeak(() -> {
+            createTable(nullRate);
+            assertParallel(query, expectedQuery, workerCount);
+        });
+    }
+
+    private static void assertParallel(String query, String expectedQuery, int workerCount) throws SqlException {
+        // constant column "c" makes latest by go through generic map based cursor
+        final String expected = print(compiler, expectedQuery);
+        TestUtils.assertEquals(expected, print(compiler, query));
+        try (
+                LatestByWorkScheduler workScheduler = new LatestByWorkScheduler(workerCount);
+                CairoEngine engine = new CairoEngine(new ParallelConfiguration());
+                SqlCompiler compiler = new SqlCompiler(engine, workScheduler)
+        ) {
+            workScheduler.start();
+            TestUtils.assertEquals(expected, print(compiler, query));
+        }
+    }
+
+    private static void assertNullValue(boolean expected) {
+        try (TableReader reader = engine.getReader(AllowAllCairoSecurityContext.INSTANCE, "x")) {
+            Assert.assertEquals(expected, reader.getSymbolMapReader(reader.getMetadata().getColumnIndex("b")).containsNullValue());
+        }
+    }
+
+    private static void append(TableWriter w, long timestamp, double a, CharSequence b) {
+        TableWriter.Row r = w.newRow(timestamp);
+        r.putDouble(0, a);
+        r.putSym(1, b);
+        r.putSym(2, "x");
+        r.append();
+    }
+
+    private static void createTable(int nullRate) throws SqlException {
+        compiler.compile(
+                "create table x as " +
+                        "(" +
+                        "select" +
+                        " rnd_double(0)*100 a," +
+                        " rnd_symbol(20,4,4," + nullRate + ") b," +
+                        " rnd_symbol('x') c," +
+                        " timestamp_sequence(172800000000, 600000000) k" +
+                        " from" +
+                        " long_sequence(1000)" +
+                        ") timestamp(k) partition by DAY",
+                sqlExecutionContext
+        );
+    }
+
+    private static String print(SqlCompiler compiler, String query) throws SqlException {
+        try (RecordCursorFactory factory = compiler.compile(query, sqlExecutionContext).getRecordCursorFactory()) {
+            // twice over, second time around tasks are reused
+            String result = null;
+            for (int i = 0; i < 2; i++) {
+                try (RecordCursor cursor = factory.getCursor(sqlExecutionContext)) {
+                    sink.clear();
+                    printer.print(cursor, factory.getMetadata(), true);
+                    if (result != null) {
+                        TestUtils.assertEquals(result, sink);
+                    }
+                    result = sink.toString();
+                }
+            }
+            return result;
+        }
+    }
+
+    private static class ParallelConfiguration extends DefaultCairoConfiguration {
+        public ParallelConfiguration() {
+            super(root);
+        }
+
+        @Override
+        public int getSqlLatestByParallelThreshold() {
+            return 1;
+        }
+    }
+
+    private static class LatestByWorkScheduler implements CairoWorkScheduler, AutoCloseable {
+        private final int workerCount;
+        private final SOCountDownLatch workerHaltLatch;
+        private final Worker[] workers;
+        private final RingQueue<LatestByEntry> latestByQueue = new RingQueue<>(LatestByEntry::new, 16);
+        private final Sequence latestByPubSeq = new MPSequence(16);
+        private final Sequence latestBySubSeq = new MCSequence(16);
+        private final ObjHashSet<Job> jobs = new ObjHashSet<>();
+
+        private LatestByWorkScheduler(int workerCount) {
+            this.workerCount = workerCount;
+            this.workerHaltLatch = new SOCountDownLatch(workerCount);
+            this.workers = new Worker[workerCount];
+            latestByPubSeq.then(latestBySubSeq).then(latestByPubSeq);
+            jobs.add(new LatestByJob(this));
+        }
+
+        @Override
+        public void addJob(Job job) {
+            jobs.add(job);
+        }
+
+        @Override
+        public void close() {
+            for (int i = 0; i < workerCount; i++) {
+                if (workers[i] != null) {
+                    workers[i].halt();
+                }
+            }
+            workerHaltLatch.await();
+        }
+
+        // engine is not given this scheduler, indexer queue is not used
+        @Override
+        public Sequence getIndexerPubSequence() {
+            return null;
+        }
+
+        @Override
+        public RingQueue getIndexerQueue() {
+            return null;
+        }
+
+        @Override
+        public Sequence getIndexerSubSequence() {
+            return null;
+        }
+
+        @Override
+        public Sequence getLatestByPubSequence() {
+            return latestByPubSeq;
+        }
+
+        @Override
+        public RingQueue<LatestByEntry> getLatestByQueue() {
+            return latestByQueue;
+        }
+
+        @Override
+        public Sequence getLatestBySubSequence() {
+            return latestBySubSeq;
+        }
+
+        void start() {
+            for (int i = 0; i < workerCount; i++) {
+                workers[i] = new Worker(jobs, workerHaltLatch);
+                workers[i].start();
+            }
+        }
+    }
+}